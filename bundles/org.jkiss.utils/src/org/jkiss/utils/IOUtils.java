@@ -18,6 +18,8 @@
 package org.jkiss.utils;
 
 import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.net.ServerSocket;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
@@ -258,4 +260,41 @@ public final class IOUtils {
         }
         return result.toString();
     }
+
+    /**
+     * Releases memory mapping of a direct buffer immediately (otherwise it is released by GC only).
+     * Mapped file can't be deleted on Windows until then.
+     * Buffer must not be accessed after this call.
+     * @return true if buffer was unmapped
+     */
+    public static boolean unmapBuffer(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return false;
+        }
+        try {
+            // Java 9+
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            invokeCleaner.invoke(unsafeField.get(null), buffer);
+            return true;
+        } catch (NoSuchMethodException e) {
+            // Java 8
+            try {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                    return true;
+                }
+            } catch (Throwable e1) {
+                // Not supported
+            }
+        } catch (Throwable e) {
+            // Not supported
+        }
+        return false;
+    }
 }
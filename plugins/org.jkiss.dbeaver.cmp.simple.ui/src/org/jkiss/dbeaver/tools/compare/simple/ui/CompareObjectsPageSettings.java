@@ -35,6 +35,7 @@ class CompareObjectsPageSettings extends ActiveWizardPage<CompareObjectsWizard>
     private Button compareLazyProperties;
     private Button compareOnlyStructure;
     private Button compareScriptProperties;
+    private Spinner threadCountSpinner;
 
     CompareObjectsPageSettings() {
         super("Compare objects");
@@ -115,6 +116,9 @@ class CompareObjectsPageSettings extends ActiveWizardPage<CompareObjectsWizard>
                     settings.setCompareScripts(compareScriptProperties.getSelection());
                 }
             });
+            Composite threadsComposite = UIUtils.createPlaceholder(compareSettings, 2);
+            threadCountSpinner = UIUtils.createLabelSpinner(threadsComposite, "Parallel threads", "Number of threads which read object properties and scripts", settings.getThreadCount(), 1, CompareObjectsSettings.MAX_THREAD_COUNT);
+            threadCountSpinner.addModifyListener(e -> settings.setThreadCount(threadCountSpinner.getSelection()));
         }
         
         setControl(composite);
@@ -17,6 +17,7 @@
 package org.jkiss.dbeaver.tools.compare.simple;
 
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBConstants;
@@ -27,83 +28,99 @@ import org.jkiss.dbeaver.model.navigator.DBNDatabaseFolder;
 import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
 import org.jkiss.dbeaver.model.navigator.meta.DBXTreeNode;
 import org.jkiss.dbeaver.model.preferences.DBPPropertyDescriptor;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressListener;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.ProxyProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.model.struct.DBSObjectContainer;
 import org.jkiss.dbeaver.runtime.properties.*;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
 
+/**
+ * Compares objects trees.
+ *
+ * Children of all compared nodes are read at the same time (one worker per compared tree).
+ * Properties and scripts are read by a bounded pool of workers while tree is traversed.
+ * Workers are jobs canceled with the compare monitor, so canceling compare also cancels running queries.
+ * Report lines are created in tree traversal order, property values are merged into them after traversal.
+ */
 public class CompareObjectsExecutor {
 
     private static final Log log = Log.getLog(CompareObjectsExecutor.class);
 
-    private final Object PROPS_LOCK = new Object();
+    private static final long WAIT_INTERVAL = 100;
 
     private CompareObjectsSettings settings;
 
     private final List<DBNDatabaseNode> rootNodes;
     private final Map<DBPDataSource, DataSourcePropertyFilter> dataSourceFilters = new IdentityHashMap<>();
 
-    private final DBRProgressListener initializeFinisher;
     private final ILazyPropertyLoadListener lazyPropertyLoadListener;
 
-    private volatile int initializedCount = 0;
     private volatile IStatus initializeError;
     private final Map<Object, Map<DBPPropertyDescriptor, Object>> propertyValues = new IdentityHashMap<>();
 
     private final List<CompareReportLine> reportLines = new ArrayList<>();
+    private final List<PropertiesCompareTask> propertiesTasks = new ArrayList<>();
     private int reportDepth = 0;
-    private CompareReportLine lastLine;
 
-    private void reportObjectsCompareBegin(List<DBNDatabaseNode> objects)
+    private WorkerPool childrenReader;
+    private WorkerPool propertiesReader;
+
+    private CompareReportLine reportObjectsCompareBegin(List<DBNDatabaseNode> objects)
     {
         reportDepth++;
-        lastLine = new CompareReportLine();
-        lastLine.depth = reportDepth;
-        lastLine.structure = objects.get(0);
-        lastLine.nodes = new DBNDatabaseNode[rootNodes.size()];
+        CompareReportLine line = new CompareReportLine();
+        line.depth = reportDepth;
+        line.structure = objects.get(0);
+        line.nodes = new DBNDatabaseNode[rootNodes.size()];
         for (int i = 0; i < rootNodes.size(); i++) {
             for (DBNDatabaseNode node : objects) {
                 if (node == rootNodes.get(i) || node.isChildOf(rootNodes.get(i))) {
-                    lastLine.nodes[i] = node;
+                    line.nodes[i] = node;
                     break;
                 }
             }
         }
-        for (DBNDatabaseNode node : lastLine.nodes) {
+        for (DBNDatabaseNode node : line.nodes) {
             if (node == null) {
-                lastLine.hasDifference = true;
+                line.hasDifference = true;
                 break;
             }
         }
-        reportLines.add(lastLine);
+        reportLines.add(line);
+        return line;
     }
 
-    private void reportPropertyCompare(ObjectPropertyDescriptor property)
+    private void reportPropertyCompare(CompareReportLine line, ObjectPropertyDescriptor property)
     {
         CompareReportProperty reportProperty = new CompareReportProperty(property);
         reportProperty.values = new Object[rootNodes.size()];
-        for (int i = 0; i < lastLine.nodes.length; i++) {
-            DBNDatabaseNode node = lastLine.nodes[i];
+        for (int i = 0; i < line.nodes.length; i++) {
+            DBNDatabaseNode node = line.nodes[i];
             if (node == null) {
                 continue;
             }
-            Map<DBPPropertyDescriptor, Object> valueMap = propertyValues.get(node.getObject());
-            if (valueMap != null) {
-                reportProperty.values[i] = valueMap.get(property);
+            synchronized (propertyValues) {
+                Map<DBPPropertyDescriptor, Object> valueMap = propertyValues.get(node.getObject());
+                if (valueMap != null) {
+                    reportProperty.values[i] = valueMap.get(property);
+                }
             }
         }
-        if (lastLine.properties == null) {
-            lastLine.properties = new ArrayList<>();
+        if (line.properties == null) {
+            line.properties = new ArrayList<>();
         }
-        lastLine.properties.add(reportProperty);
+        line.properties.add(reportProperty);
 
         Object firstValue = reportProperty.values[0];
         for (int i = 1; i < rootNodes.size(); i++) {
             if (!CompareUtils.equalPropertyValues(reportProperty.values[i], firstValue)) {
-                lastLine.hasDifference = true;
+                line.hasDifference = true;
                 break;
             }
         }
@@ -119,17 +136,6 @@ public class CompareObjectsExecutor {
         this.settings = settings;
         this.rootNodes = settings.getNodes();
 
-        initializeFinisher = new DBRProgressListener() {
-            @Override
-            public void onTaskFinished(IStatus status)
-            {
-                if (!status.isOK()) {
-                    initializeError = status;
-                } else {
-                    initializedCount++;
-                }
-            }
-        };
         lazyPropertyLoadListener = new ILazyPropertyLoadListener() {
             @Override
             public void handlePropertyLoad(Object object, DBPPropertyDescriptor property, Object propertyValue, boolean completed)
@@ -159,22 +165,47 @@ public class CompareObjectsExecutor {
         throws DBException, InterruptedException
     {
         reportLines.clear();
-        lastLine = null;
+        propertiesTasks.clear();
+        synchronized (propertyValues) {
+            propertyValues.clear();
+        }
+        initializeError = null;
 
-        compareNodes(monitor, nodes);
+        childrenReader = new WorkerPool(monitor, "Compare children reader",
+            Math.min(Math.max(1, nodes.size()), CompareObjectsSettings.MAX_THREAD_COUNT));
+        propertiesReader = new WorkerPool(monitor, "Compare properties reader", settings.getThreadCount());
+        try {
+            compareNodes(monitor, nodes);
+
+            // Merge properties into report lines. Use traversal order to keep report stable
+            monitor.subTask("Compare properties");
+            for (PropertiesCompareTask task : propertiesTasks) {
+                List<ObjectPropertyDescriptor> properties = waitForResult(monitor, task.result);
+                for (ObjectPropertyDescriptor prop : properties) {
+                    reportPropertyCompare(task.line, prop);
+                }
+                monitor.worked(1);
+            }
+        } finally {
+            childrenReader.dispose();
+            propertiesReader.dispose();
+            propertiesTasks.clear();
+        }
         return new CompareReport(rootNodes, reportLines);
     }
 
     private void compareNodes(DBRProgressMonitor monitor, List<DBNDatabaseNode> nodes)
         throws DBException, InterruptedException
     {
-        reportObjectsCompareBegin(nodes);
+        CompareReportLine line = reportObjectsCompareBegin(nodes);
 
         try {
             if (nodes.size() > 1) {
                 // Go deeper only if we have more than one node
                 if (!settings.isCompareOnlyStructure() && !(nodes.get(0) instanceof DBNDatabaseFolder)) {
-                    compareProperties(monitor, nodes);
+                    propertiesTasks.add(new PropertiesCompareTask(
+                        line,
+                        propertiesReader.submit(workerMonitor -> readProperties(workerMonitor, nodes))));
                 }
 
                 compareChildren(monitor, nodes);
@@ -184,35 +215,30 @@ public class CompareObjectsExecutor {
         }
     }
 
-    private void compareProperties(DBRProgressMonitor monitor, List<DBNDatabaseNode> nodes) throws DBException, InterruptedException
+    /**
+     * Reads properties of all nodes.
+     * Executed in properties reader thread.
+     * @return list of compared properties
+     */
+    private List<ObjectPropertyDescriptor> readProperties(DBRProgressMonitor monitor, List<DBNDatabaseNode> nodes) throws DBException, InterruptedException
     {
-        // Clear compare singletons
-        this.initializedCount = 0;
-        this.initializeError = null;
-        this.propertyValues.clear();
-
-        StringBuilder title = new StringBuilder();
         // Initialize nodes
         {
-            monitor.subTask("Initialize nodes");
+            NodesInitializer initializer = new NodesInitializer(nodes.size());
             for (DBNDatabaseNode node : nodes) {
-                if (title.length() > 0) title.append(", ");
-                title.append(node.getNodeFullName());
-                node.initializeNode(null, initializeFinisher);
-                monitor.worked(1);
+                node.initializeNode(null, initializer);
             }
-            while (initializedCount != nodes.size()) {
-                if (initializeError != null) {
-                    throw new DBException(initializeError.getMessage());
-                }
-                Thread.sleep(100);
+            while (!initializer.finished.await(WAIT_INTERVAL, TimeUnit.MILLISECONDS)) {
                 if (monitor.isCanceled()) {
                     throw new InterruptedException();
                 }
             }
+            if (initializer.error != null) {
+                initializeError = initializer.error;
+                throw new DBException(initializer.error.getMessage());
+            }
         }
 
-        monitor.subTask("Compare " + title.toString());
         boolean compareLazyProperties = false;
 
         DBNDatabaseNode firstNode = nodes.get(0);
@@ -235,10 +261,9 @@ public class CompareObjectsExecutor {
                 throw new InterruptedException();
             }
             DBSObject databaseObject = node.getObject();
-            Map<DBPPropertyDescriptor, Object> nodeProperties = propertyValues.get(databaseObject);
-            if (nodeProperties == null) {
-                nodeProperties = new IdentityHashMap<>();
-                propertyValues.put(databaseObject, nodeProperties);
+            Map<DBPPropertyDescriptor, Object> nodeProperties;
+            synchronized (propertyValues) {
+                nodeProperties = propertyValues.computeIfAbsent(databaseObject, o -> new IdentityHashMap<>());
             }
             PropertyCollector propertySource = new PropertyCollector(databaseObject, compareLazyProperties || compareScripts);
             for (ObjectPropertyDescriptor prop : properties) {
@@ -259,42 +284,44 @@ public class CompareObjectsExecutor {
                     }
                 }
                 Object propertyValue = propertySource.getPropertyValue(monitor, databaseObject, prop, true);
-                synchronized (PROPS_LOCK) {
-                    if (propertyValue instanceof DBPNamedObject) {
-                        // Compare just object names
-                        propertyValue = ((DBPNamedObject) propertyValue).getName();
-                    }
+                if (propertyValue instanceof DBPNamedObject) {
+                    // Compare just object names
+                    propertyValue = ((DBPNamedObject) propertyValue).getName();
+                }
+                synchronized (propertyValues) {
                     nodeProperties.put(prop, propertyValue);
                 }
             }
-            monitor.worked(1);
-        }
-
-        // Compare properties
-        for (ObjectPropertyDescriptor prop : properties) {
-            reportPropertyCompare(prop);
         }
+        return properties;
     }
 
     private void compareChildren(DBRProgressMonitor monitor, List<DBNDatabaseNode> nodes) throws DBException, InterruptedException
     {
-        // Compare children
+        // Read children of all nodes at the same time
         int nodeCount = nodes.size();
-        List<DBNDatabaseNode[]> allChildren = new ArrayList<>(nodeCount);
+        monitor.subTask("Read children of " + nodes.get(0).getNodeFullName());
+        List<Future<DBNDatabaseNode[]>> childReaders = new ArrayList<>(nodeCount);
         for (int i = 0; i < nodeCount; i++) {
             DBNDatabaseNode node = nodes.get(i);
-            // Cache structure if possible
-            if (node.getObject() instanceof DBSObjectContainer) {
-                ((DBSObjectContainer) node.getObject()).cacheStructure(monitor, DBSObjectContainer.STRUCT_ALL);
-            }
+            childReaders.add(childrenReader.submit(workerMonitor -> {
+                // Cache structure if possible
+                if (node.getObject() instanceof DBSObjectContainer) {
+                    ((DBSObjectContainer) node.getObject()).cacheStructure(workerMonitor, DBSObjectContainer.STRUCT_ALL);
+                }
+                return node.getChildren(workerMonitor);
+            }));
+        }
+        List<DBNDatabaseNode[]> allChildren = new ArrayList<>(nodeCount);
+        for (Future<DBNDatabaseNode[]> childReader : childReaders) {
             try {
-                DBNDatabaseNode[] children = node.getChildren(monitor);
-                allChildren.add(children);
-            } catch (Exception e) {
+                allChildren.add(waitForResult(monitor, childReader));
+            } catch (DBException e) {
                 log.warn("Error reading child nodes for compare", e);
                 allChildren.add(null);
             }
         }
+        monitor.worked(1);
 
         Set<String> allChildNames = new LinkedHashSet<>();
         for (DBNDatabaseNode[] childList : allChildren) {
@@ -350,6 +377,28 @@ public class CompareObjectsExecutor {
         }
     }
 
+    private static <T> T waitForResult(DBRProgressMonitor monitor, Future<T> future) throws DBException, InterruptedException
+    {
+        while (true) {
+            if (monitor.isCanceled()) {
+                future.cancel(false);
+                throw new InterruptedException();
+            }
+            try {
+                return future.get(WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Continue waiting
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof DBException) {
+                    throw (DBException) cause;
+                } else if (cause instanceof InterruptedException) {
+                    throw (InterruptedException) cause;
+                }
+                throw new DBException("Error reading objects for compare", cause);
+            }
+        }
+    }
 
     private DataSourcePropertyFilter getDataSourceFilter(DBNDatabaseNode node)
     {
@@ -357,12 +406,130 @@ public class CompareObjectsExecutor {
         if (dataSource == null) {
             return null;
         }
-        DataSourcePropertyFilter filter = dataSourceFilters.get(dataSource);
-        if (filter == null) {
-            filter = new DataSourcePropertyFilter(dataSource);
-            dataSourceFilters.put(dataSource, filter);
+        synchronized (dataSourceFilters) {
+            return dataSourceFilters.computeIfAbsent(dataSource, DataSourcePropertyFilter::new);
+        }
+    }
+
+    private static class PropertiesCompareTask {
+        final CompareReportLine line;
+        final Future<List<ObjectPropertyDescriptor>> result;
+
+        PropertiesCompareTask(CompareReportLine line, Future<List<ObjectPropertyDescriptor>> result) {
+            this.line = line;
+            this.result = result;
+        }
+    }
+
+    private static class NodesInitializer implements DBRProgressListener {
+        final CountDownLatch finished;
+        volatile IStatus error;
+
+        NodesInitializer(int nodeCount) {
+            this.finished = new CountDownLatch(nodeCount);
+        }
+
+        @Override
+        public void onTaskFinished(IStatus status)
+        {
+            if (!status.isOK()) {
+                error = status;
+            }
+            finished.countDown();
+        }
+    }
+
+    private interface WorkerTask<T> {
+        T run(DBRProgressMonitor monitor) throws DBException, InterruptedException;
+    }
+
+    /**
+     * Fixed number of worker jobs which run submitted tasks in submission order.
+     * Workers stop when compare monitor is canceled or pool is disposed.
+     */
+    private static class WorkerPool {
+        private final DBRProgressMonitor baseMonitor;
+        private final BlockingQueue<Consumer<DBRProgressMonitor>> tasks = new LinkedBlockingQueue<>();
+        private final List<WorkerJob> workers = new ArrayList<>();
+        private volatile boolean disposed;
+
+        WorkerPool(DBRProgressMonitor baseMonitor, String name, int workerCount) {
+            this.baseMonitor = baseMonitor;
+            for (int i = 0; i < workerCount; i++) {
+                WorkerJob worker = new WorkerJob(name + " #" + (i + 1));
+                workers.add(worker);
+                worker.schedule();
+            }
+        }
+
+        <T> Future<T> submit(WorkerTask<T> task) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            tasks.add(monitor -> {
+                if (result.isDone()) {
+                    // Canceled
+                    return;
+                }
+                try {
+                    result.complete(task.run(monitor));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            return result;
+        }
+
+        void dispose() {
+            disposed = true;
+            tasks.clear();
+            if (baseMonitor.isCanceled()) {
+                // Cancel running queries
+                for (WorkerJob worker : workers) {
+                    worker.cancel();
+                }
+            }
+        }
+
+        private boolean isCanceled() {
+            return disposed || baseMonitor.isCanceled();
+        }
+
+        private class WorkerJob extends AbstractJob {
+            WorkerJob(String name) {
+                super(name);
+                setSystem(true);
+                setUser(false);
+            }
+
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                DBRProgressMonitor workerMonitor = new WorkerMonitor(monitor);
+                try {
+                    while (!workerMonitor.isCanceled()) {
+                        Consumer<DBRProgressMonitor> task = tasks.poll(WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+                        if (task != null) {
+                            task.accept(workerMonitor);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // Stop worker
+                }
+                return Status.OK_STATUS;
+            }
+        }
+
+        /**
+         * Worker jobs can't report progress to the compare monitor, they just check its cancel state.
+         */
+        private class WorkerMonitor extends ProxyProgressMonitor {
+            WorkerMonitor(DBRProgressMonitor jobMonitor) {
+                super(jobMonitor);
+            }
+
+            @Override
+            public boolean isCanceled() {
+                return super.isCanceled() || WorkerPool.this.isCanceled();
+            }
         }
-        return filter;
     }
 
-}
\ No newline at end of file
+}
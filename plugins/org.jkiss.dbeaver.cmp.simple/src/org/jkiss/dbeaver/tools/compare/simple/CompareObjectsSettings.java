@@ -40,12 +40,15 @@ public class CompareObjectsSettings {
         }
     }
 
+    public static final int MAX_THREAD_COUNT = 16;
+
     private final List<DBNDatabaseNode> nodes;
     private boolean skipSystemObjects = true;
     private boolean compareLazyProperties = false;
     private boolean compareOnlyStructure = false;
     private boolean compareScripts = false;
     private boolean showOnlyDifferences = false;
+    private int threadCount = 4;
     private OutputType outputType = OutputType.BROWSER;
     private String outputFolder;
 
@@ -97,6 +100,17 @@ public class CompareObjectsSettings {
         this.showOnlyDifferences = showOnlyDifferences;
     }
 
+    /**
+     * Number of threads which read objects properties and scripts (1..MAX_THREAD_COUNT)
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = Math.min(Math.max(1, threadCount), MAX_THREAD_COUNT);
+    }
+
     public OutputType getOutputType() {
         return outputType;
     }
@@ -129,6 +143,9 @@ public class CompareObjectsSettings {
         if (dialogSettings.get("compareScripts") != null) {
             compareScripts = dialogSettings.getBoolean("compareScripts");
         }
+        if (dialogSettings.get("threadCount") != null) {
+            setThreadCount(dialogSettings.getInt("threadCount"));
+        }
         if (dialogSettings.get("outputType") != null) {
             outputType = OutputType.valueOf(dialogSettings.get("outputType"));
         }
@@ -143,6 +160,7 @@ public class CompareObjectsSettings {
         dialogSettings.put("compareStructure", compareOnlyStructure);
         dialogSettings.put("compareScripts", compareScripts);
         dialogSettings.put("showDifference", showOnlyDifferences);
+        dialogSettings.put("threadCount", threadCount);
         dialogSettings.put("outputType", outputType.name());
         dialogSettings.put("outputFolder", outputFolder);
     }
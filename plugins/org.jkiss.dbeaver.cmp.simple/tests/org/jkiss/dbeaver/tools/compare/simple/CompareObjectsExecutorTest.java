@@ -0,0 +1,199 @@
+package org.jkiss.dbeaver.tools.compare.simple;
+
+import org.eclipse.core.runtime.Status;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.meta.Property;
+import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
+import org.jkiss.dbeaver.model.navigator.meta.DBXTreeNode;
+import org.jkiss.dbeaver.model.runtime.DBRProgressListener;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CompareObjectsExecutorTest {
+
+    @Mock
+    private DBRProgressMonitor monitor;
+    @Mock
+    private DBXTreeNode meta;
+    @Mock
+    private DBPDataSourceContainer dataSourceContainer;
+
+    private DBNDatabaseNode root1;
+    private DBNDatabaseNode root2;
+
+    @Before
+    public void setUp() throws Exception {
+        root1 = createNode(null, "db1", "database");
+        root2 = createNode(null, "db2", "database");
+        DBNDatabaseNode orders1 = createNode(root1, "orders", "table");
+        DBNDatabaseNode orders2 = createNode(root2, "orders", "view");
+        setChildren(root1,
+            orders1,
+            createNode(root1, "customers", "table"),
+            createNode(root1, "items", "table"));
+        setChildren(root2,
+            createNode(root2, "customers", "table"),
+            orders2,
+            createNode(root2, "payments", "table"));
+        setChildren(orders1, createNode(root1, "id", "int"), createNode(root1, "total", "numeric"));
+        setChildren(orders2, createNode(root2, "id", "int"), createNode(root2, "total", "double"));
+    }
+
+    @Test
+    public void testParallelReportEqualsSequential() throws Exception {
+        CompareReport sequential = compare(1);
+        CompareReport parallel = compare(CompareObjectsSettings.MAX_THREAD_COUNT);
+
+        List<CompareReportLine> expected = sequential.getReportLines();
+        List<CompareReportLine> actual = parallel.getReportLines();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            CompareReportLine expectedLine = expected.get(i), actualLine = actual.get(i);
+            assertSame(expectedLine.structure, actualLine.structure);
+            assertArrayEquals(expectedLine.nodes, actualLine.nodes);
+            assertEquals(expectedLine.depth, actualLine.depth);
+            assertEquals(expectedLine.hasDifference, actualLine.hasDifference);
+            assertEquals(expectedLine.properties == null, actualLine.properties == null);
+            if (expectedLine.properties != null) {
+                assertEquals(expectedLine.properties.size(), actualLine.properties.size());
+                for (int k = 0; k < expectedLine.properties.size(); k++) {
+                    CompareReportProperty expectedProperty = expectedLine.properties.get(k);
+                    CompareReportProperty actualProperty = actualLine.properties.get(k);
+                    assertEquals(expectedProperty.property.getId(), actualProperty.property.getId());
+                    assertArrayEquals(expectedProperty.values, actualProperty.values);
+                }
+            }
+        }
+
+        // Roots, orders and its columns, then customers, items and payments
+        assertEquals(7, actual.size());
+        assertEquals("orders", actual.get(1).structure.getNodeName());
+        assertTrue(actual.get(1).hasDifference);
+        assertFalse(actual.get(2).hasDifference);
+        assertTrue(actual.get(3).hasDifference);
+        assertFalse(actual.get(4).hasDifference);
+        assertNull(actual.get(5).nodes[1]);
+        assertNull(actual.get(6).nodes[0]);
+    }
+
+    @Test
+    public void testTreesReadInParallel() throws Exception {
+        CountDownLatch rootsRead = new CountDownLatch(2);
+        AtomicBoolean readInParallel = new AtomicBoolean(true);
+        DBNDatabaseNode[] children1 = root1.getChildren(monitor);
+        DBNDatabaseNode[] children2 = root2.getChildren(monitor);
+        when(root1.getChildren(any(DBRProgressMonitor.class))).thenAnswer(invocation -> awaitRead(rootsRead, readInParallel, children1));
+        when(root2.getChildren(any(DBRProgressMonitor.class))).thenAnswer(invocation -> awaitRead(rootsRead, readInParallel, children2));
+
+        compare(1);
+        assertTrue(readInParallel.get());
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void testCancel() throws Exception {
+        when(monitor.isCanceled()).thenReturn(true);
+        compare(CompareObjectsSettings.MAX_THREAD_COUNT);
+    }
+
+    private CompareReport compare(int threadCount) throws Exception {
+        List<DBNDatabaseNode> nodes = Arrays.asList(root1, root2);
+        CompareObjectsSettings settings = new CompareObjectsSettings(nodes);
+        settings.setSkipSystemObjects(false);
+        settings.setThreadCount(threadCount);
+        CompareObjectsExecutor executor = new CompareObjectsExecutor(settings);
+        try {
+            return executor.compareObjects(monitor, nodes);
+        } finally {
+            executor.dispose();
+        }
+    }
+
+    private static DBNDatabaseNode[] awaitRead(CountDownLatch rootsRead, AtomicBoolean readInParallel, DBNDatabaseNode[] children) throws InterruptedException {
+        rootsRead.countDown();
+        // Wait until the other tree is being read too
+        if (!rootsRead.await(5, TimeUnit.SECONDS)) {
+            readInParallel.set(false);
+        }
+        return children;
+    }
+
+    private DBNDatabaseNode createNode(DBNDatabaseNode root, String name, String type) throws Exception {
+        DBNDatabaseNode node = mock(DBNDatabaseNode.class);
+        when(node.getNodeName()).thenReturn(name);
+        when(node.getNodeFullName()).thenReturn(name);
+        when(node.getMeta()).thenReturn(meta);
+        when(node.getObject()).thenReturn(new TestObject(name, type));
+        when(node.getDataSourceContainer()).thenReturn(dataSourceContainer);
+        when(node.getChildren(any(DBRProgressMonitor.class))).thenReturn(new DBNDatabaseNode[0]);
+        when(node.initializeNode(any(DBRProgressMonitor.class), any(DBRProgressListener.class))).thenAnswer(invocation -> {
+            ((DBRProgressListener) invocation.getArguments()[1]).onTaskFinished(Status.OK_STATUS);
+            return true;
+        });
+        if (root != null) {
+            when(node.isChildOf(root)).thenReturn(true);
+        }
+        return node;
+    }
+
+    private static void setChildren(DBNDatabaseNode node, DBNDatabaseNode... children) throws Exception {
+        when(node.getChildren(any(DBRProgressMonitor.class))).thenReturn(children);
+    }
+
+    public static class TestObject implements DBSObject {
+        private final String name;
+        private final String type;
+
+        TestObject(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        @Property(viewable = true, order = 1)
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Property(viewable = true, order = 2)
+        public String getType() {
+            return type;
+        }
+
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Override
+        public boolean isPersisted() {
+            return true;
+        }
+
+        @Override
+        public DBSObject getParentObject() {
+            return null;
+        }
+
+        @Override
+        public DBPDataSource getDataSource() {
+            return null;
+        }
+    }
+
+}
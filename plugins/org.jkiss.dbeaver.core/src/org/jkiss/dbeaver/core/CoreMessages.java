@@ -377,6 +377,10 @@ public class CoreMessages extends NLS {
     public static String pref_page_query_manager_group_settings;
 	public static String pref_page_query_manager_group_storage;
     public static String pref_page_query_manager_checkbox_store_log_file;
+    public static String pref_page_query_manager_checkbox_store_history;
+    public static String pref_page_query_manager_checkbox_log_compress;
+    public static String pref_page_query_manager_checkbox_log_json;
+    public static String pref_page_query_manager_label_log_max_size;
     public static String pref_page_query_manager_logs_folder;
 	public static String pref_page_query_manager_label_days_to_store_log;
 	public static String pref_page_query_manager_label_entries_per_page;
@@ -477,6 +481,10 @@ public class CoreMessages extends NLS {
 	public static String pref_page_database_general_checkbox_show_row_count_tip;
 	public static String pref_page_database_general_server_side_object_filters;
 	public static String pref_page_database_general_server_side_object_filters_tip;
+	public static String pref_page_database_general_meta_cache_max_objects;
+	public static String pref_page_database_general_meta_cache_max_objects_tip;
+	public static String pref_page_database_general_meta_object_index;
+	public static String pref_page_database_general_meta_object_index_tip;
 	public static String pref_page_database_general_group_query_metadata;
 	public static String pref_page_database_general_use_column_names;
 	public static String pref_page_database_general_use_column_names_tip;
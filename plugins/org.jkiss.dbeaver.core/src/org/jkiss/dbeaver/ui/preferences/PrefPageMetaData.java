@@ -22,6 +22,7 @@ import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Group;
+import org.eclipse.swt.widgets.Spinner;
 import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.core.CoreMessages;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
@@ -40,6 +41,8 @@ public class PrefPageMetaData extends TargetPrefPage
     private Button separateMetaConnectionCheck;
     private Button caseSensitiveNamesCheck;
     private Button serverSideFiltersCheck;
+    private Spinner cacheMaxObjectsSpinner;
+    private Button objectIndexCheck;
 
     private Button ignoreColumnLabelCheck;
 
@@ -57,6 +60,8 @@ public class PrefPageMetaData extends TargetPrefPage
             store.contains(ModelPreferences.META_SEPARATE_CONNECTION) ||
             store.contains(ModelPreferences.META_CASE_SENSITIVE) ||
             store.contains(ModelPreferences.META_USE_SERVER_SIDE_FILTERS) ||
+            store.contains(ModelPreferences.META_CACHE_MAX_OBJECTS) ||
+            store.contains(ModelPreferences.META_OBJECT_INDEX) ||
 
             store.contains(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL)
             ;
@@ -79,6 +84,9 @@ public class PrefPageMetaData extends TargetPrefPage
             caseSensitiveNamesCheck = UIUtils.createCheckbox(metadataGroup, CoreMessages.pref_page_database_general_checkbox_case_sensitive_names, CoreMessages.pref_page_database_general_checkbox_case_sensitive_names_tip, false, 1);
             readExpensiveCheck = UIUtils.createCheckbox(metadataGroup, CoreMessages.pref_page_database_general_checkbox_show_row_count, CoreMessages.pref_page_database_general_checkbox_show_row_count_tip, false, 1);
             serverSideFiltersCheck = UIUtils.createCheckbox(metadataGroup, CoreMessages.pref_page_database_general_server_side_object_filters, CoreMessages.pref_page_database_general_server_side_object_filters_tip, false, 1);
+            objectIndexCheck = UIUtils.createCheckbox(metadataGroup, CoreMessages.pref_page_database_general_meta_object_index, CoreMessages.pref_page_database_general_meta_object_index_tip, false, 1);
+            Composite cacheComposite = UIUtils.createPlaceholder(metadataGroup, 2);
+            cacheMaxObjectsSpinner = UIUtils.createLabelSpinner(cacheComposite, CoreMessages.pref_page_database_general_meta_cache_max_objects, CoreMessages.pref_page_database_general_meta_cache_max_objects_tip, 0, 0, Integer.MAX_VALUE);
         }
 
         {
@@ -98,6 +106,8 @@ public class PrefPageMetaData extends TargetPrefPage
             separateMetaConnectionCheck.setSelection(store.getBoolean(ModelPreferences.META_SEPARATE_CONNECTION));
             caseSensitiveNamesCheck.setSelection(store.getBoolean(ModelPreferences.META_CASE_SENSITIVE));
             serverSideFiltersCheck.setSelection(store.getBoolean(ModelPreferences.META_USE_SERVER_SIDE_FILTERS));
+            cacheMaxObjectsSpinner.setSelection(store.getInt(ModelPreferences.META_CACHE_MAX_OBJECTS));
+            objectIndexCheck.setSelection(store.getBoolean(ModelPreferences.META_OBJECT_INDEX));
 
             ignoreColumnLabelCheck.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL));
         } catch (Exception e) {
@@ -113,6 +123,8 @@ public class PrefPageMetaData extends TargetPrefPage
             store.setValue(ModelPreferences.META_SEPARATE_CONNECTION, separateMetaConnectionCheck.getSelection());
             store.setValue(ModelPreferences.META_CASE_SENSITIVE, caseSensitiveNamesCheck.getSelection());
             store.setValue(ModelPreferences.META_USE_SERVER_SIDE_FILTERS, serverSideFiltersCheck.getSelection());
+            store.setValue(ModelPreferences.META_CACHE_MAX_OBJECTS, cacheMaxObjectsSpinner.getSelection());
+            store.setValue(ModelPreferences.META_OBJECT_INDEX, objectIndexCheck.getSelection());
 
             store.setValue(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL, ignoreColumnLabelCheck.getSelection());
         } catch (Exception e) {
@@ -128,6 +140,8 @@ public class PrefPageMetaData extends TargetPrefPage
         store.setToDefault(ModelPreferences.META_SEPARATE_CONNECTION);
         store.setToDefault(ModelPreferences.META_CASE_SENSITIVE);
         store.setToDefault(ModelPreferences.META_USE_SERVER_SIDE_FILTERS);
+        store.setToDefault(ModelPreferences.META_CACHE_MAX_OBJECTS);
+        store.setToDefault(ModelPreferences.META_OBJECT_INDEX);
 
         store.setToDefault(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL);
     }
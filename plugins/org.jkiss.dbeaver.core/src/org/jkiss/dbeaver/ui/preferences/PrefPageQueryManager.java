@@ -60,7 +60,11 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
     private Text textHistoryDays;
     private Text textEntriesPerPage;
     private Button checkStoreLog;
+    private Button checkStoreHistory;
     private Text textOutputFolder;
+    private Button checkLogJSON;
+    private Text textLogMaxSize;
+    private Button checkLogCompress;
 
 
     @Override
@@ -98,6 +102,15 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
 
         {
             Group storageSettings = UIUtils.createControlGroup(composite, CoreMessages.pref_page_query_manager_group_storage, 2, GridData.FILL_HORIZONTAL | GridData.VERTICAL_ALIGN_BEGINNING, 0);
+            checkStoreHistory = UIUtils.createCheckbox(storageSettings, CoreMessages.pref_page_query_manager_checkbox_store_history, false);
+            checkStoreHistory.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.BEGINNING, false, false, 2, 1));
+            checkStoreHistory.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e)
+                {
+                    textHistoryDays.setEnabled(checkStoreHistory.getSelection());
+                }
+            });
             checkStoreLog = UIUtils.createCheckbox(storageSettings, CoreMessages.pref_page_query_manager_checkbox_store_log_file, false);
             GridData gd = new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING);
             gd.horizontalSpan = 2;
@@ -106,12 +119,16 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
                 @Override
                 public void widgetSelected(SelectionEvent e)
                 {
-                    UIUtils.enableWithChildren(textOutputFolder.getParent(), checkStoreLog.getSelection());
+                    enableLogControls();
                 }
             });
             textOutputFolder = DialogUtils.createOutputFolderChooser(storageSettings, CoreMessages.pref_page_query_manager_logs_folder, null);
+            textLogMaxSize = UIUtils.createLabelText(storageSettings, CoreMessages.pref_page_query_manager_label_log_max_size, "", SWT.BORDER, new GridData(50, SWT.DEFAULT)); //$NON-NLS-2$
+            checkLogCompress = UIUtils.createCheckbox(storageSettings, CoreMessages.pref_page_query_manager_checkbox_log_compress, false);
+            checkLogCompress.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.BEGINNING, false, false, 2, 1));
+            checkLogJSON = UIUtils.createCheckbox(storageSettings, CoreMessages.pref_page_query_manager_checkbox_log_json, false);
+            checkLogJSON.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.BEGINNING, false, false, 2, 1));
             textHistoryDays = UIUtils.createLabelText(storageSettings, CoreMessages.pref_page_query_manager_label_days_to_store_log, "", SWT.BORDER, new GridData(50, SWT.DEFAULT)); //$NON-NLS-2$
-            textHistoryDays.setEnabled(false);
 
             CLabel infoLabel = UIUtils.createInfoLabel(storageSettings, CoreMessages.pref_page_query_manager_log_file_hint);
             infoLabel.setLayoutData(new GridData(GridData.FILL, GridData.BEGINNING, true, false, 2, 1));
@@ -142,9 +159,14 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
         textHistoryDays.setText(store.getString(QMConstants.PROP_HISTORY_DAYS));
         textEntriesPerPage.setText(store.getString(QMConstants.PROP_ENTRIES_PER_PAGE));
 
+        checkStoreHistory.setSelection(store.getBoolean(QMConstants.PROP_STORE_HISTORY));
+        textHistoryDays.setEnabled(checkStoreHistory.getSelection());
         checkStoreLog.setSelection(store.getBoolean(QMConstants.PROP_STORE_LOG_FILE));
         textOutputFolder.setText(store.getString(QMConstants.PROP_LOG_DIRECTORY));
-        UIUtils.enableWithChildren(textOutputFolder.getParent(), checkStoreLog.getSelection());
+        textLogMaxSize.setText(store.getString(QMConstants.PROP_LOG_MAX_SIZE));
+        checkLogCompress.setSelection(store.getBoolean(QMConstants.PROP_LOG_COMPRESS));
+        checkLogJSON.setSelection(QMConstants.LOG_FORMAT_JSON.equals(store.getString(QMConstants.PROP_LOG_FORMAT)));
+        enableLogControls();
 
         super.performDefaults();
     }
@@ -177,13 +199,29 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
         if (entriesPerPage != null) {
             store.setValue(QMConstants.PROP_ENTRIES_PER_PAGE, entriesPerPage);
         }
+        store.setValue(QMConstants.PROP_STORE_HISTORY, checkStoreHistory.getSelection());
         store.setValue(QMConstants.PROP_STORE_LOG_FILE, checkStoreLog.getSelection());
         store.setValue(QMConstants.PROP_LOG_DIRECTORY, textOutputFolder.getText());
+        Integer logMaxSize = UIUtils.getTextInteger(textLogMaxSize);
+        if (logMaxSize != null) {
+            store.setValue(QMConstants.PROP_LOG_MAX_SIZE, logMaxSize);
+        }
+        store.setValue(QMConstants.PROP_LOG_COMPRESS, checkLogCompress.getSelection());
+        store.setValue(QMConstants.PROP_LOG_FORMAT, checkLogJSON.getSelection() ? QMConstants.LOG_FORMAT_JSON : QMConstants.LOG_FORMAT_TEXT);
         PrefUtils.savePreferenceStore(store);
 
         return super.performOk();
     }
 
+    private void enableLogControls()
+    {
+        boolean storeLog = checkStoreLog.getSelection();
+        UIUtils.enableWithChildren(textOutputFolder.getParent(), storeLog);
+        textLogMaxSize.setEnabled(storeLog);
+        checkLogCompress.setEnabled(storeLog);
+        checkLogJSON.setEnabled(storeLog);
+    }
+
     @Override
     public IAdaptable getElement()
     {
@@ -61,6 +61,9 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
     private boolean openNewConnections = true;
     private boolean useTransactions = true;
     private int commitAfterRows = 10000;
+    private int writerThreadCount = 1;
+    // Null - use bulk load if target supports it
+    private Boolean useBulkLoad;
     private boolean truncateBeforeLoad = false;
     private boolean openTableOnFinish = true;
 
@@ -148,6 +151,33 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
         this.commitAfterRows = commitAfterRows;
     }
 
+    /**
+     * Number of parallel writers. Each writer uses its own target connection.
+     * Values greater than 1 take effect only when new connections are opened.
+     */
+    public int getWriterThreadCount() {
+        return writerThreadCount;
+    }
+
+    public void setWriterThreadCount(int writerThreadCount) {
+        this.writerThreadCount = writerThreadCount;
+    }
+
+    /**
+     * Use native bulk load (if target table supports it).
+     * Support is detected automatically, bulk load is used unless it was explicitly disabled.
+     */
+    public boolean isUseBulkLoad() {
+        return useBulkLoad == null || useBulkLoad;
+    }
+
+    /**
+     * Overrides automatic bulk load detection
+     */
+    public void setUseBulkLoad(boolean useBulkLoad) {
+        this.useBulkLoad = useBulkLoad;
+    }
+
     @Nullable
     public DBPDataSource getTargetDataSource(DatabaseMappingObject attrMapping) {
         DBSObjectContainer container = getContainer();
@@ -174,6 +204,12 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
         if (dialogSettings.get("commitAfterRows") != null) {
             commitAfterRows = dialogSettings.getInt("commitAfterRows");
         }
+        if (dialogSettings.get("writerThreadCount") != null) {
+            writerThreadCount = dialogSettings.getInt("writerThreadCount");
+        }
+        if (dialogSettings.get("useBulkLoad") != null) {
+            useBulkLoad = dialogSettings.getBoolean("useBulkLoad");
+        }
         if (dialogSettings.get("truncateBeforeLoad") != null) {
             truncateBeforeLoad = dialogSettings.getBoolean("truncateBeforeLoad");
         }
@@ -219,6 +255,10 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
         dialogSettings.put("openNewConnections", openNewConnections);
         dialogSettings.put("useTransactions", useTransactions);
         dialogSettings.put("commitAfterRows", commitAfterRows);
+        dialogSettings.put("writerThreadCount", writerThreadCount);
+        if (useBulkLoad != null) {
+            dialogSettings.put("useBulkLoad", useBulkLoad);
+        }
         dialogSettings.put("truncateBeforeLoad", truncateBeforeLoad);
         dialogSettings.put("openTableOnFinish", openTableOnFinish);
 
@@ -243,6 +283,14 @@ public class DatabaseConsumerSettings implements IDataTransferSettings {
         if (useTransactions) {
             DTUtils.addSummary(summary, "Commit after", commitAfterRows);
         }
+        if (openNewConnections && writerThreadCount > 1) {
+            DTUtils.addSummary(summary, "Parallel writers", writerThreadCount);
+        }
+        if (useBulkLoad == null) {
+            DTUtils.addSummary(summary, "Use bulk load", "Auto");
+        } else {
+            DTUtils.addSummary(summary, "Use bulk load", useBulkLoad.booleanValue());
+        }
         DTUtils.addSummary(summary, "Truncate before load", truncateBeforeLoad);
 
         return summary.toString();
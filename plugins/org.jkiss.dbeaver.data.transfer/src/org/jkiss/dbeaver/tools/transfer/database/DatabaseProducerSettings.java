@@ -45,6 +45,8 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
     private boolean selectedColumnsOnly = false;
     private ExtractType extractType = ExtractType.SINGLE_QUERY;
     private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int splitRangeCount = 1;
+    private boolean keepRangeOrder = true;
 
     public DatabaseProducerSettings() {
     }
@@ -75,6 +77,26 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         this.fetchSize = fetchSize;
     }
 
+    /**
+     * Number of key ranges table is split on. Each range is read in a separate connection.
+     * 1 means no split.
+     */
+    public int getSplitRangeCount() {
+        return splitRangeCount;
+    }
+
+    public void setSplitRangeCount(int splitRangeCount) {
+        this.splitRangeCount = Math.max(1, splitRangeCount);
+    }
+
+    public boolean isKeepRangeOrder() {
+        return keepRangeOrder;
+    }
+
+    public void setKeepRangeOrder(boolean keepRangeOrder) {
+        this.keepRangeOrder = keepRangeOrder;
+    }
+
     public boolean isSelectedRowsOnly() {
         return selectedRowsOnly;
     }
@@ -133,6 +155,12 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         if (!CommonUtils.isEmpty(dialogSettings.get("selectedRowsOnly"))) {
             selectedRowsOnly = dialogSettings.getBoolean("selectedRowsOnly");
         }
+        if (!CommonUtils.isEmpty(dialogSettings.get("splitRangeCount"))) {
+            setSplitRangeCount(CommonUtils.toInt(dialogSettings.get("splitRangeCount"), 1));
+        }
+        if (!CommonUtils.isEmpty(dialogSettings.get("keepRangeOrder"))) {
+            keepRangeOrder = dialogSettings.getBoolean("keepRangeOrder");
+        }
     }
 
     @Override
@@ -143,6 +171,8 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         dialogSettings.put("queryRowCount", queryRowCount);
         dialogSettings.put("selectedColumnsOnly", selectedColumnsOnly);
         dialogSettings.put("selectedRowsOnly", selectedRowsOnly);
+        dialogSettings.put("splitRangeCount", splitRangeCount);
+        dialogSettings.put("keepRangeOrder", keepRangeOrder);
     }
 
     @Override
@@ -154,6 +184,10 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_select_row_count, queryRowCount);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_rows_only, selectedRowsOnly);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_columns_only, selectedColumnsOnly);
+        if (splitRangeCount > 1) {
+            DTUtils.addSummary(summary, "Split table on ranges", splitRangeCount);
+            DTUtils.addSummary(summary, "Keep ranges order", keepRangeOrder);
+        }
 
         return summary.toString();
     }
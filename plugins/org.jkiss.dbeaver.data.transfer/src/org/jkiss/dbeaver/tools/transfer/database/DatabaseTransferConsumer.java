@@ -16,6 +16,8 @@
  */
 package org.jkiss.dbeaver.tools.transfer.database;
 
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.swt.graphics.Color;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
@@ -25,6 +27,7 @@ import org.jkiss.dbeaver.model.data.DBDValueHandler;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
 import org.jkiss.dbeaver.model.impl.DBObjectNameCaseTransformer;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.sql.SQLDataSource;
@@ -49,6 +52,9 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
 
     private static final Log log = Log.getLog(DatabaseTransferConsumer.class);
 
+    // Max number of rows passed to parallel writer at once
+    private static final int MAX_WRITE_CHUNK_SIZE = 10000;
+
     private DBSDataContainer sourceObject;
     private DBSDataManipulator targetObject;
     private DatabaseConsumerSettings settings;
@@ -58,10 +64,14 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
     private DBCSession targetSession;
     private DBSDataManipulator.ExecuteBatch executeBatch;
     private long rowsExported = 0;
-    private boolean ignoreErrors = false;
+    private volatile boolean ignoreErrors = false;
     private List<DBSEntityAttribute> targetAttributes;
     private boolean useIsolatedConnection;
 
+    // Parallel load
+    private List<BatchWriterJob> writers;
+    private DatabaseTransferWriteQueue writeQueue;
+
     private static class ColumnMapping {
         DBDAttributeBinding sourceAttr;
         DatabaseMappingAttribute targetAttr;
@@ -74,6 +84,98 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
         }
     }
 
+    /**
+     * Inserts rows in a separate connection.
+     * Writer takes row chunks from the write queue, converts source values using its own session
+     * and commits after each
+     * {@link DatabaseConsumerSettings#getCommitAfterRows()} rows it has inserted.
+     */
+    private class BatchWriterJob extends AbstractJob {
+        private final DBSAttributeBase[] attributes;
+        private final DBCExecutionContext writerContext;
+
+        BatchWriterJob(DBRProgressMonitor monitor, int writerNumber, DBSAttributeBase[] attributes) throws DBCException {
+            super("Data load writer #" + writerNumber);
+            setSystem(true);
+            setUser(false);
+            this.attributes = attributes;
+            try {
+                this.writerContext = DBUtils.getObjectOwnerInstance(targetObject).openIsolatedContext(monitor, "Data transfer consumer #" + writerNumber);
+            } catch (DBException e) {
+                throw new DBCException("Error opening new connection", e);
+            }
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            try (DBCSession writerSession = writerContext.openSession(monitor, DBCExecutionPurpose.UTIL, "Data load")) {
+                writerSession.enableLogging(false);
+                DBCTransactionManager txnManager = settings.isUseTransactions() ? DBUtils.getTransactionManager(writerContext) : null;
+                if (txnManager != null) {
+                    txnManager.setAutoCommit(monitor, false);
+                }
+                try {
+                    writeRows(writerSession, txnManager);
+                } catch (Throwable e) {
+                    writeQueue.setError(e);
+                }
+                if (writeQueue.hasError() && txnManager != null) {
+                    // Do not leave partially loaded chunk in the target
+                    rollbackWriter(writerSession, txnManager);
+                }
+            } catch (Throwable e) {
+                writeQueue.setError(e);
+            } finally {
+                writerContext.close();
+            }
+            return Status.OK_STATUS;
+        }
+
+        private void writeRows(DBCSession writerSession, DBCTransactionManager txnManager) throws DBCException, InterruptedException {
+            DBSDataManipulator.ExecuteBatch writerBatch = createInsertBatch(writerSession, writerContext, attributes);
+            try {
+                long rowsWritten = 0, rowsCommitted = 0;
+                List<Object[]> chunk;
+                while ((chunk = writeQueue.takeChunk()) != null) {
+                    if (writeQueue.hasError()) {
+                        // Load failed in other writer. Just drain the queue.
+                        continue;
+                    }
+                    for (Object[] row : chunk) {
+                        writerBatch.add(convertTargetValues(writerSession, row));
+                    }
+                    executeInsertBatch(writerSession, writerBatch);
+                    rowsWritten += chunk.size();
+                    if (txnManager != null && rowsWritten - rowsCommitted >= settings.getCommitAfterRows()) {
+                        if (!txnManager.isAutoCommit()) {
+                            txnManager.commit(writerSession);
+                        }
+                        rowsCommitted = rowsWritten;
+                    }
+                }
+                if (txnManager != null && rowsWritten > rowsCommitted && !writeQueue.hasError() && !txnManager.isAutoCommit()) {
+                    txnManager.commit(writerSession);
+                }
+            } finally {
+                writerBatch.close();
+            }
+        }
+
+        private void rollbackWriter(DBCSession writerSession, DBCTransactionManager txnManager) {
+            try {
+                if (!txnManager.isAutoCommit()) {
+                    txnManager.rollback(writerSession, null);
+                }
+            } catch (Throwable e) {
+                log.debug("Error rolling back data load writer transaction", e);
+            }
+        }
+
+        void closeWriter() {
+            writerContext.close();
+        }
+    }
+
     public DatabaseTransferConsumer() {
     }
 
@@ -89,6 +191,8 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
     @Override
     public void fetchStart(DBCSession session, DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
         initExporter(session.getProgressMonitor());
+        List<DBDAttributeBinding> rsAttributes = DBUtils.makeResultAttributeBindings(sourceObject, resultSet);
+        boolean parallelLoad = useIsolatedConnection && settings.getWriterThreadCount() > 1 && !hasContentAttributes(rsAttributes);
 
         if (offset <= 0 && settings.isTruncateBeforeLoad() && (containerMapping == null || containerMapping.getMappingType() == DatabaseMappingType.existing)) {
             // Truncate target tables
@@ -96,12 +200,18 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                 targetObject.truncateData(
                     targetSession,
                     new AbstractExecutionSource(sourceObject, targetContext, this));
+                if (parallelLoad) {
+                    // Writers use other connections. Release table locks before they start.
+                    DBCTransactionManager txnManager = DBUtils.getTransactionManager(targetSession.getExecutionContext());
+                    if (txnManager != null && !txnManager.isAutoCommit()) {
+                        txnManager.commit(targetSession);
+                    }
+                }
             } else {
                 log.error("Table '" + targetObject.getName() + "' doesn't support truncate operation");
             }
         }
 
-        List<DBDAttributeBinding> rsAttributes = DBUtils.makeResultAttributeBindings(sourceObject, resultSet);
         columnMappings = new ColumnMapping[rsAttributes.size()];
         targetAttributes = new ArrayList<>(columnMappings.length);
         for (int i = 0; i < rsAttributes.size(); i++) {
@@ -151,11 +261,37 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
             targetAttributes.add(targetAttr);
         }
 
-        executeBatch = targetObject.insertData(
-            targetSession,
-            targetAttributes.toArray(new DBSAttributeBase[0]),
-            null,
-            new AbstractExecutionSource(sourceObject, targetContext, this));
+        if (parallelLoad) {
+            startWriters(session.getProgressMonitor(), settings.getWriterThreadCount());
+            // Writers use their own connections. Do not keep this one idle during the whole transfer.
+            closeExporter();
+        } else {
+            executeBatch = createInsertBatch(targetSession, targetContext, targetAttributes.toArray(new DBSAttributeBase[0]));
+        }
+    }
+
+    /**
+     * Content values (LOB locators and streams) are read from the source result set on conversion.
+     * This must happen in the reader thread, before cursor moves. So such transfers use a single writer.
+     */
+    private static boolean hasContentAttributes(List<DBDAttributeBinding> attributes) {
+        for (DBDAttributeBinding attribute : attributes) {
+            if (attribute.getDataKind() == DBPDataKind.CONTENT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private DBSDataManipulator.ExecuteBatch createInsertBatch(DBCSession session, DBCExecutionContext context, DBSAttributeBase[] attributes) throws DBCException {
+        AbstractExecutionSource source = new AbstractExecutionSource(sourceObject, context, this);
+        if (settings.isUseBulkLoad() && targetObject instanceof DBSDataBulkLoader &&
+            ((DBSDataBulkLoader) targetObject).isBulkLoadSupported(session, attributes))
+        {
+            // Use native bulk load protocol
+            return ((DBSDataBulkLoader) targetObject).bulkInsertData(session, attributes, source);
+        }
+        return targetObject.insertData(session, attributes, null, source);
     }
 
     @Override
@@ -173,68 +309,149 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                 // No value handler - get raw value
                 attrValue = resultSet.getAttributeValue(i);
             }
-            DatabaseMappingAttribute targetAttr = column.targetAttr;
-            rowValues[column.targetIndex] = column.targetValueHandler.getValueFromObject(
-                targetSession,
-                targetAttr.getTarget() == null ? targetAttr.getSource() : targetAttr.getTarget(),
-                attrValue,
-                false);
+            // Parallel writers convert values themselves, each in its own session
+            rowValues[column.targetIndex] = writers != null ? attrValue : convertTargetValue(targetSession, column, attrValue);
         }
-        executeBatch.add(rowValues);
-
         rowsExported++;
         // No need. mnitor is incremented in data reader
         //session.getProgressMonitor().worked(1);
 
-        insertBatch(false);
+        if (writers != null) {
+            writeQueue.addRow(rowValues);
+        } else {
+            executeBatch.add(rowValues);
+            insertBatch(false);
+        }
+    }
+
+    private Object convertTargetValue(DBCSession session, ColumnMapping column, Object value) throws DBCException {
+        DatabaseMappingAttribute targetAttr = column.targetAttr;
+        return column.targetValueHandler.getValueFromObject(
+            session,
+            targetAttr.getTarget() == null ? targetAttr.getSource() : targetAttr.getTarget(),
+            value,
+            false);
+    }
+
+    private Object[] convertTargetValues(DBCSession session, Object[] rowValues) throws DBCException {
+        for (ColumnMapping column : columnMappings) {
+            if (column != null && column.targetIndex >= 0) {
+                rowValues[column.targetIndex] = convertTargetValue(session, column, rowValues[column.targetIndex]);
+            }
+        }
+        return rowValues;
     }
 
     private void insertBatch(boolean force) throws DBCException {
         boolean needCommit = force || ((rowsExported % settings.getCommitAfterRows()) == 0);
         if (needCommit && executeBatch != null) {
-            boolean retryInsert;
-            do {
-                retryInsert = false;
-                try {
-                    executeBatch.execute(targetSession);
-                } catch (Throwable e) {
-                    log.error("Error inserting row", e);
-                    if (!ignoreErrors) {
-                        DBPPlatformUI.UserResponse response = ExecutionQueueErrorJob.showError(
+            executeInsertBatch(targetSession, executeBatch);
+        }
+        if (settings.isUseTransactions() && needCommit) {
+            DBCTransactionManager txnManager = DBUtils.getTransactionManager(targetSession.getExecutionContext());
+            if (txnManager != null && !txnManager.isAutoCommit()) {
+                txnManager.commit(targetSession);
+            }
+        }
+    }
+
+    private void executeInsertBatch(DBCSession session, DBSDataManipulator.ExecuteBatch batch) throws DBCException {
+        boolean retryInsert;
+        do {
+            retryInsert = false;
+            try {
+                batch.execute(session);
+            } catch (Throwable e) {
+                log.error("Error inserting row", e);
+                if (!ignoreErrors) {
+                    DBPPlatformUI.UserResponse response;
+                    synchronized (this) {
+                        // Parallel writers must not show several error dialogs at once
+                        if (ignoreErrors) {
+                            break;
+                        }
+                        response = ExecutionQueueErrorJob.showError(
                             DBUtils.getObjectFullName(targetObject, DBPEvaluationContext.UI) + " data load",
                             e,
                             true);
-                        switch (response) {
-                            case STOP:
-                                // just stop execution
-                                throw new DBCException("Can't insert row", e);
-                            case RETRY:
-                                // do it again
-                                retryInsert = true;
-                                break;
-                            case IGNORE:
-                                // Just do nothing and go to the next row
-                                retryInsert = false;
-                                break;
-                            case IGNORE_ALL:
-                                ignoreErrors = true;
-                                retryInsert = false;
-                                break;
-                        }
                     }
+                    switch (response) {
+                        case STOP:
+                            // just stop execution
+                            throw new DBCException("Can't insert row", e);
+                        case RETRY:
+                            // do it again
+                            retryInsert = true;
+                            break;
+                        case IGNORE:
+                            // Just do nothing and go to the next row
+                            retryInsert = false;
+                            break;
+                        case IGNORE_ALL:
+                            ignoreErrors = true;
+                            retryInsert = false;
+                            break;
+                    }
+                }
+            }
+        } while (retryInsert);
+    }
+
+    private void startWriters(DBRProgressMonitor monitor, int writerCount) throws DBCException {
+        DBSAttributeBase[] attributes = targetAttributes.toArray(new DBSAttributeBase[0]);
+        List<BatchWriterJob> newWriters = new ArrayList<>(writerCount);
+        try {
+            for (int i = 0; i < writerCount; i++) {
+                newWriters.add(new BatchWriterJob(monitor, i + 1, attributes));
+            }
+        } catch (DBCException e) {
+            for (BatchWriterJob writer : newWriters) {
+                writer.closeWriter();
+            }
+            throw e;
+        }
+        writeQueue = new DatabaseTransferWriteQueue(
+            writerCount,
+            Math.min(settings.getCommitAfterRows(), MAX_WRITE_CHUNK_SIZE),
+            this::hasActiveWriters);
+        writers = newWriters;
+        for (BatchWriterJob writer : writers) {
+            writer.schedule();
+        }
+    }
+
+    private void stopWriters() throws DBCException {
+        try {
+            writeQueue.finish();
+        } finally {
+            try {
+                for (BatchWriterJob writer : writers) {
+                    writer.join();
                 }
-            } while (retryInsert);
+            } catch (InterruptedException e) {
+                throw new DBCException("Data load interrupted", e);
+            } finally {
+                writers = null;
+            }
         }
-        if (settings.isUseTransactions() && needCommit) {
-            DBCTransactionManager txnManager = DBUtils.getTransactionManager(targetSession.getExecutionContext());
-            if (txnManager != null && !txnManager.isAutoCommit()) {
-                txnManager.commit(targetSession);
+        writeQueue.checkError();
+    }
+
+    private boolean hasActiveWriters() {
+        for (BatchWriterJob writer : writers) {
+            if (!writer.isFinished()) {
+                return true;
             }
         }
+        return false;
     }
 
     @Override
     public void fetchEnd(DBCSession session, DBCResultSet resultSet) throws DBCException {
+        if (writers != null) {
+            stopWriters();
+            return;
+        }
         if (rowsExported > 0) {
             insertBatch(true);
         }
@@ -246,6 +463,15 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
 
     @Override
     public void close() {
+        if (writers != null) {
+            // Transfer failed before fetch end. Make writers drop the rest of the queue and roll back.
+            writeQueue.setError(new DBCException("Data transfer aborted"));
+            try {
+                stopWriters();
+            } catch (Throwable e) {
+                log.debug("Data load writers stopped: " + e.getMessage());
+            }
+        }
         closeExporter();
     }
 
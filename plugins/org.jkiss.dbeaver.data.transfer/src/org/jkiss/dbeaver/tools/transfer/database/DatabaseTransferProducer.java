@@ -28,6 +28,7 @@ import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferProcessor;
 import org.jkiss.dbeaver.tools.transfer.IDataTransferProducer;
@@ -173,7 +174,18 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
 
                 try {
                     // Perform export
-                    if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.SINGLE_QUERY) {
+                    DatabaseTransferRangeReader rangeReader = null;
+                    if (settings.getSplitRangeCount() > 1 && !selectiveExportFromUI && newConnection && dataContainer instanceof DBSEntity) {
+                        try {
+                            rangeReader = DatabaseTransferRangeReader.createReader(monitor, session, (DBSEntity) dataContainer, dataFilter, settings.getSplitRangeCount());
+                        } catch (DBException e) {
+                            log.warn("Can't split '" + dataContainer.getName() + "' on ranges. Read data in single query", e);
+                        }
+                    }
+                    if (rangeReader != null) {
+                        // Read key ranges in parallel
+                        rangeReader.readData(monitor, session, consumer, readFlags, settings.getFetchSize(), settings.isKeepRangeOrder(), forceDataReadTransactions);
+                    } else if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.SINGLE_QUERY) {
                         // Just do it in single query
                         dataContainer.readData(transferSource, session, consumer, dataFilter, -1, -1, readFlags, settings.getFetchSize());
                     } else {
@@ -0,0 +1,585 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.data.DBDValueMeta;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.model.struct.rdb.DBSTable;
+import org.jkiss.dbeaver.model.struct.rdb.DBSTableIndex;
+import org.jkiss.dbeaver.model.struct.rdb.DBSTableIndexColumn;
+import org.jkiss.utils.CommonUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads table data in parallel by key ranges.
+ *
+ * Table is split on ranges of primary key (or other indexed numeric/date column) values.
+ * Each range is read by a separate job in its own connection. Rows are passed to the consumer
+ * in the caller thread, either in ranges order or as they come.
+ */
+class DatabaseTransferRangeReader {
+
+    private static final Log log = Log.getLog(DatabaseTransferRangeReader.class);
+
+    // Number of rows passed from range reader to consumer at once
+    private static final int PAGE_SIZE = 1000;
+    private static final int MAX_QUEUED_PAGES = 16;
+    private static final long POLL_TIMEOUT = 100;
+
+    private final DBSDataContainer dataContainer;
+    private final List<DBDDataFilter> rangeFilters;
+    private final List<RangeReaderJob> readers = new ArrayList<>();
+    private volatile DBCResultSetMetaData resultMeta;
+    private volatile boolean canceled;
+    // Reader connections are kept open until consumer is done with fetched values (LOBs may be read on demand)
+    private final CountDownLatch consumerDone = new CountDownLatch(1);
+
+    private static class RowsPage {
+        final List<Object[]> rows;
+        final boolean last;
+
+        RowsPage(List<Object[]> rows, boolean last) {
+            this.rows = rows;
+            this.last = last;
+        }
+    }
+
+    private DatabaseTransferRangeReader(@NotNull DBSDataContainer dataContainer, @NotNull List<DBDDataFilter> rangeFilters) {
+        this.dataContainer = dataContainer;
+        this.rangeFilters = rangeFilters;
+    }
+
+    int getRangeCount() {
+        return rangeFilters.size();
+    }
+
+    /**
+     * Splits entity data on ranges.
+     * @return null if entity can't be split (no suitable key column, too few distinct values, etc)
+     */
+    @Nullable
+    static DatabaseTransferRangeReader createReader(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBCSession session,
+        @NotNull DBSEntity entity,
+        @Nullable DBDDataFilter dataFilter,
+        int rangeCount)
+        throws DBException
+    {
+        if (!(session instanceof JDBCSession) || !(entity instanceof DBSDataContainer) || rangeCount < 2) {
+            return null;
+        }
+        if (dataFilter != null && dataFilter.isAnyConstraint() && dataFilter.hasFilters()) {
+            // Range condition can't be combined with OR-ed filter
+            return null;
+        }
+        DBSEntityAttribute splitAttribute = findSplitAttribute(monitor, entity);
+        if (splitAttribute == null) {
+            log.debug("No suitable column to split table '" + entity.getName() + "' on ranges");
+            return null;
+        }
+        DBPDataSource dataSource = entity.getDataSource();
+        String columnName = DBUtils.getQuotedIdentifier(splitAttribute);
+        Object minValue, maxValue;
+        try (JDBCPreparedStatement dbStat = ((JDBCSession) session).prepareStatement(
+            "SELECT MIN(" + columnName + "),MAX(" + columnName + ") FROM " + DBUtils.getObjectFullName(entity, DBPEvaluationContext.DML)))
+        {
+            try (JDBCResultSet dbResult = dbStat.executeQuery()) {
+                if (!dbResult.next()) {
+                    return null;
+                }
+                minValue = dbResult.getObject(1);
+                maxValue = dbResult.getObject(2);
+            }
+        } catch (SQLException e) {
+            throw new DBCException(e, dataSource);
+        }
+        List<String> bounds = makeRangeBounds(dataSource, splitAttribute, minValue, maxValue, rangeCount);
+        if (bounds.isEmpty()) {
+            return null;
+        }
+
+        List<String> conditions = new ArrayList<>();
+        conditions.add(columnName + "<" + bounds.get(0));
+        for (int i = 1; i < bounds.size(); i++) {
+            conditions.add(columnName + ">=" + bounds.get(i - 1) + " AND " + columnName + "<" + bounds.get(i));
+        }
+        conditions.add(columnName + ">=" + bounds.get(bounds.size() - 1));
+        if (!splitAttribute.isRequired()) {
+            conditions.add(columnName + " IS NULL");
+        }
+
+        List<DBDDataFilter> rangeFilters = new ArrayList<>(conditions.size());
+        for (String condition : conditions) {
+            DBDDataFilter rangeFilter = dataFilter == null ? new DBDDataFilter() : new DBDDataFilter(dataFilter);
+            if (!CommonUtils.isEmpty(rangeFilter.getWhere())) {
+                condition = "(" + rangeFilter.getWhere() + ") AND " + condition;
+            }
+            rangeFilter.setWhere(condition);
+            rangeFilters.add(rangeFilter);
+        }
+        log.debug("Split table '" + entity.getName() + "' on " + rangeFilters.size() + " ranges by column '" + splitAttribute.getName() + "'");
+        return new DatabaseTransferRangeReader((DBSDataContainer) entity, rangeFilters);
+    }
+
+    @Nullable
+    private static DBSEntityAttribute findSplitAttribute(@NotNull DBRProgressMonitor monitor, @NotNull DBSEntity entity) throws DBException {
+        Collection<? extends DBSEntityAttribute> identifier = DBUtils.getBestTableIdentifier(monitor, entity);
+        if (identifier.size() == 1) {
+            DBSEntityAttribute attribute = identifier.iterator().next();
+            if (isSplitAttribute(attribute)) {
+                return attribute;
+            }
+        }
+        // Try leading columns of indexes
+        if (entity instanceof DBSTable) {
+            Collection<? extends DBSTableIndex> indexes = ((DBSTable) entity).getIndexes(monitor);
+            if (indexes != null) {
+                for (DBSTableIndex index : indexes) {
+                    List<? extends DBSTableIndexColumn> columns = index.getAttributeReferences(monitor);
+                    if (!CommonUtils.isEmpty(columns)) {
+                        DBSEntityAttribute attribute = columns.get(0).getAttribute();
+                        if (attribute != null && isSplitAttribute(attribute)) {
+                            return attribute;
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSplitAttribute(@NotNull DBSEntityAttribute attribute) {
+        return attribute.getDataKind() == DBPDataKind.NUMERIC || attribute.getDataKind() == DBPDataKind.DATETIME;
+    }
+
+    /**
+     * Makes SQL literals of range bounds. Bounds are distinct and sorted.
+     */
+    @NotNull
+    private static List<String> makeRangeBounds(
+        @NotNull DBPDataSource dataSource,
+        @NotNull DBSEntityAttribute attribute,
+        @Nullable Object minValue,
+        @Nullable Object maxValue,
+        int rangeCount)
+    {
+        List<String> bounds = new ArrayList<>();
+        if (minValue instanceof Number && maxValue instanceof Number) {
+            BigDecimal min = toDecimal((Number) minValue);
+            BigDecimal max = toDecimal((Number) maxValue);
+            if (min == null || max == null) {
+                // NaN or infinity. Do not split
+                return bounds;
+            }
+            boolean integral = minValue instanceof Integer || minValue instanceof Long || minValue instanceof Short ||
+                minValue instanceof Byte || minValue instanceof BigInteger || attribute.getScale() == null || attribute.getScale() == 0;
+            BigDecimal step = max.subtract(min).divide(BigDecimal.valueOf(rangeCount), 10, RoundingMode.FLOOR);
+            BigDecimal prevBound = min;
+            for (int i = 1; i < rangeCount; i++) {
+                BigDecimal bound = min.add(step.multiply(BigDecimal.valueOf(i)));
+                if (integral) {
+                    bound = bound.setScale(0, RoundingMode.FLOOR);
+                }
+                if (bound.compareTo(prevBound) > 0) {
+                    bounds.add(bound.toPlainString());
+                    prevBound = bound;
+                }
+            }
+        } else if (minValue instanceof Date && maxValue instanceof Date) {
+            long min = ((Date) minValue).getTime();
+            long max = ((Date) maxValue).getTime();
+            long step = (max - min) / rangeCount;
+            if (step > 0) {
+                for (int i = 1; i < rangeCount; i++) {
+                    bounds.add(SQLUtils.convertValueToSQL(dataSource, attribute, new Timestamp(min + step * i)));
+                }
+            }
+        }
+        return bounds;
+    }
+
+    @Nullable
+    private static BigDecimal toDecimal(@NotNull Number value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if ((value instanceof Double || value instanceof Float) && !Double.isFinite(value.doubleValue())) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.toString());
+        } catch (NumberFormatException e) {
+            log.debug("Can't use '" + value + "' as range bound");
+            return null;
+        }
+    }
+
+    /**
+     * Reads all ranges and passes rows to the consumer.
+     * @param ordered if true then rows are passed in ranges order (range by range).
+     *                Otherwise rows of different ranges are mixed.
+     */
+    void readData(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBCSession session,
+        @NotNull DBDDataReceiver consumer,
+        long readFlags,
+        int fetchSize,
+        boolean ordered,
+        boolean useTransactions)
+        throws DBException
+    {
+        List<BlockingQueue<RowsPage>> queues = new ArrayList<>();
+        if (!ordered) {
+            queues.add(new ArrayBlockingQueue<>(MAX_QUEUED_PAGES));
+        }
+        try {
+            for (int i = 0; i < rangeFilters.size(); i++) {
+                BlockingQueue<RowsPage> queue;
+                if (ordered) {
+                    queue = new ArrayBlockingQueue<>(MAX_QUEUED_PAGES);
+                    queues.add(queue);
+                } else {
+                    queue = queues.get(0);
+                }
+                readers.add(new RangeReaderJob(monitor, i, queue, readFlags, fetchSize, useTransactions));
+            }
+        } catch (DBException e) {
+            consumerDone.countDown();
+            for (RangeReaderJob reader : readers) {
+                reader.closeReader();
+            }
+            throw e;
+        }
+        for (RangeReaderJob reader : readers) {
+            reader.schedule();
+        }
+
+        ReplayResultSet resultSet = new ReplayResultSet(session);
+        boolean started = false, aborted = false;
+        try {
+            readQueues:
+            for (BlockingQueue<RowsPage> queue : queues) {
+                int activeReaders = ordered ? 1 : readers.size();
+                while (activeReaders > 0) {
+                    if (monitor.isCanceled() || getReaderError() != null) {
+                        aborted = true;
+                        break readQueues;
+                    }
+                    RowsPage page;
+                    try {
+                        page = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        aborted = true;
+                        break readQueues;
+                    }
+                    if (page == null) {
+                        continue;
+                    }
+                    if (!page.rows.isEmpty()) {
+                        if (!started) {
+                            consumer.fetchStart(session, resultSet, 0, -1);
+                            started = true;
+                        }
+                        for (Object[] row : page.rows) {
+                            resultSet.setRow(row);
+                            consumer.fetchRow(session, resultSet);
+                        }
+                        monitor.worked(page.rows.size());
+                    }
+                    if (page.last) {
+                        activeReaders--;
+                    }
+                }
+            }
+            if (!aborted && !started && resultMeta != null) {
+                // Empty result. Let consumer process metadata anyway
+                consumer.fetchStart(session, resultSet, 0, -1);
+                started = true;
+            }
+            if (!aborted && started) {
+                consumer.fetchEnd(session, resultSet);
+            }
+        } finally {
+            canceled = true;
+            try {
+                consumer.close();
+            } finally {
+                // Consumer doesn't use fetched values anymore. Let readers close their connections
+                consumerDone.countDown();
+                for (RangeReaderJob reader : readers) {
+                    try {
+                        reader.join();
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        Throwable error = getReaderError();
+        if (error != null) {
+            throw new DBException("Error reading table range", error);
+        }
+    }
+
+    @Nullable
+    private Throwable getReaderError() {
+        for (RangeReaderJob reader : readers) {
+            if (reader.error != null) {
+                return reader.error;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads single range in a separate connection
+     */
+    private class RangeReaderJob extends AbstractJob implements DBDDataReceiver {
+        private final int rangeNumber;
+        private final BlockingQueue<RowsPage> queue;
+        private final long readFlags;
+        private final int fetchSize;
+        private final boolean useTransactions;
+        private final DBCExecutionContext readerContext;
+        private List<DBDAttributeBinding> bindings;
+        private int columnCount;
+        private List<Object[]> page = new ArrayList<>(PAGE_SIZE);
+        private volatile Throwable error;
+
+        RangeReaderJob(DBRProgressMonitor monitor, int rangeNumber, BlockingQueue<RowsPage> queue, long readFlags, int fetchSize, boolean useTransactions)
+            throws DBException
+        {
+            super("Data transfer range reader #" + (rangeNumber + 1));
+            setSystem(true);
+            setUser(false);
+            this.rangeNumber = rangeNumber;
+            this.queue = queue;
+            this.readFlags = readFlags;
+            this.fetchSize = fetchSize;
+            this.useTransactions = useTransactions;
+            this.readerContext = DBUtils.getObjectOwnerInstance(dataContainer).openIsolatedContext(monitor, "Data transfer producer #" + (rangeNumber + 1));
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            try (DBCSession readerSession = readerContext.openSession(monitor, DBCExecutionPurpose.UTIL, "Read table range")) {
+                readerSession.enableLogging(false);
+                DBCTransactionManager txnManager = useTransactions ? DBUtils.getTransactionManager(readerContext) : null;
+                if (txnManager != null) {
+                    // Some drivers allow to read LOBs only in transactional mode
+                    txnManager.setAutoCommit(monitor, false);
+                }
+                try {
+                    dataContainer.readData(
+                        new AbstractExecutionSource(dataContainer, readerContext, this),
+                        readerSession,
+                        this,
+                        rangeFilters.get(rangeNumber),
+                        -1,
+                        -1,
+                        readFlags,
+                        fetchSize);
+                    putPage(true);
+                } finally {
+                    // Queued values (e.g. LOB contents) may refer to this connection and transaction
+                    awaitConsumer();
+                    if (txnManager != null && !txnManager.isAutoCommit()) {
+                        txnManager.commit(readerSession);
+                    }
+                }
+            } catch (Throwable e) {
+                if (!canceled) {
+                    error = e;
+                }
+            } finally {
+                closeReader();
+            }
+            return Status.OK_STATUS;
+        }
+
+        void closeReader() {
+            readerContext.close();
+        }
+
+        private void awaitConsumer() {
+            try {
+                consumerDone.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void fetchStart(DBCSession session, DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
+            DBCResultSetMetaData meta = resultSet.getMeta();
+            bindings = DBUtils.makeResultAttributeBindings(dataContainer, resultSet);
+            columnCount = meta.getAttributes().size();
+            if (resultMeta == null) {
+                resultMeta = meta;
+            }
+        }
+
+        @Override
+        public void fetchRow(DBCSession session, DBCResultSet resultSet) throws DBCException {
+            // Values are kept by attribute positions, the same way consumer will ask for them
+            Object[] row = new Object[columnCount];
+            for (DBDAttributeBinding binding : bindings) {
+                int index = binding.getOrdinalPosition();
+                if (index < columnCount) {
+                    row[index] = binding.getValueHandler().fetchValueObject(session, resultSet, binding.getAttribute(), index);
+                }
+            }
+            page.add(row);
+            if (page.size() >= PAGE_SIZE) {
+                putPage(false);
+            }
+        }
+
+        @Override
+        public void fetchEnd(DBCSession session, DBCResultSet resultSet) throws DBCException {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void putPage(boolean last) throws DBCException {
+            RowsPage rowsPage = new RowsPage(page, last);
+            page = new ArrayList<>(PAGE_SIZE);
+            try {
+                while (!queue.offer(rowsPage, POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    if (canceled) {
+                        throw new DBCException("Range read canceled");
+                    }
+                }
+            } catch (InterruptedException e) {
+                throw new DBCException("Range read interrupted", e);
+            }
+        }
+    }
+
+    /**
+     * Result set which passes rows read by range readers to the consumer
+     */
+    private class ReplayResultSet implements DBCResultSet {
+        private final DBCSession session;
+        private Object[] row;
+
+        ReplayResultSet(DBCSession session) {
+            this.session = session;
+        }
+
+        void setRow(Object[] row) {
+            this.row = row;
+        }
+
+        @Override
+        public DBCSession getSession() {
+            return session;
+        }
+
+        @Override
+        public DBCStatement getSourceStatement() {
+            return null;
+        }
+
+        @Override
+        public Object getAttributeValue(int index) throws DBCException {
+            return row[index];
+        }
+
+        @Override
+        public Object getAttributeValue(String name) throws DBCException {
+            return null;
+        }
+
+        @Override
+        public DBDValueMeta getAttributeValueMeta(int index) throws DBCException {
+            return null;
+        }
+
+        @Override
+        public DBDValueMeta getRowMeta() throws DBCException {
+            return null;
+        }
+
+        @Override
+        public boolean nextRow() throws DBCException {
+            return false;
+        }
+
+        @Override
+        public boolean moveTo(int position) throws DBCException {
+            return false;
+        }
+
+        @Override
+        public DBCResultSetMetaData getMeta() throws DBCException {
+            return resultMeta;
+        }
+
+        @Override
+        public String getResultSetName() throws DBCException {
+            return null;
+        }
+
+        @Override
+        public Object getFeature(String name) {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.jkiss.dbeaver.model.exec.DBCException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Hands rows over from the data reader to parallel writers.
+ * Reader adds rows which are passed to writers in chunks through a bounded queue.
+ * The first writer error stops the reader, other writers only drain the queue after it.
+ */
+class DatabaseTransferWriteQueue {
+
+    // Marker which tells writer that there will be no more data
+    private static final List<Object[]> END_OF_DATA = Collections.emptyList();
+
+    private final int writerCount;
+    private final int chunkSize;
+    private final BooleanSupplier activeWritersCheck;
+    private final BlockingQueue<List<Object[]>> queue;
+    private List<Object[]> chunk;
+    private volatile Throwable error;
+
+    /**
+     * @param activeWritersCheck returns false when all writers have finished. Reader doesn't wait for free queue space then.
+     */
+    DatabaseTransferWriteQueue(int writerCount, int chunkSize, BooleanSupplier activeWritersCheck) {
+        this.writerCount = writerCount;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.activeWritersCheck = activeWritersCheck;
+        // Keep at most two chunks per writer in memory
+        this.queue = new ArrayBlockingQueue<>(writerCount * 2);
+        this.chunk = new ArrayList<>(this.chunkSize);
+    }
+
+    /**
+     * Adds row. Blocks if all writers are busy.
+     */
+    void addRow(Object[] row) throws DBCException {
+        chunk.add(row);
+        if (chunk.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    void flush() throws DBCException {
+        checkError();
+        if (chunk.isEmpty()) {
+            return;
+        }
+        put(chunk);
+        chunk = new ArrayList<>(chunkSize);
+    }
+
+    /**
+     * Flushes the last chunk (if there were no errors) and tells all writers that there is no more data.
+     */
+    void finish() throws DBCException {
+        try {
+            if (error == null) {
+                flush();
+            }
+        } finally {
+            chunk = null;
+            for (int i = 0; i < writerCount && activeWritersCheck.getAsBoolean(); i++) {
+                put(END_OF_DATA);
+            }
+        }
+    }
+
+    /**
+     * Takes next chunk. Called by writers.
+     * @return rows chunk or null if there is no more data
+     */
+    List<Object[]> takeChunk() throws InterruptedException {
+        List<Object[]> rows = queue.take();
+        return rows == END_OF_DATA ? null : rows;
+    }
+
+    boolean hasError() {
+        return error != null;
+    }
+
+    synchronized void setError(Throwable error) {
+        if (this.error == null) {
+            this.error = error;
+        }
+    }
+
+    void checkError() throws DBCException {
+        Throwable error = this.error;
+        if (error != null) {
+            throw error instanceof DBCException ? (DBCException) error : new DBCException("Can't insert row", error);
+        }
+    }
+
+    private void put(List<Object[]> rows) throws DBCException {
+        try {
+            while (!queue.offer(rows, 100, TimeUnit.MILLISECONDS)) {
+                if (rows != END_OF_DATA) {
+                    checkError();
+                }
+                if (!activeWritersCheck.getAsBoolean()) {
+                    DBCException writersError = new DBCException("All data load writers have finished unexpectedly");
+                    setError(writersError);
+                    throw writersError;
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new DBCException("Data load interrupted", e);
+        }
+    }
+
+}
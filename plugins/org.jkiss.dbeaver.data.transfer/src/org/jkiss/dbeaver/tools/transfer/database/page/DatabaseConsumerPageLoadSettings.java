@@ -91,6 +91,14 @@ public class DatabaseConsumerPageLoadSettings extends ActiveWizardPage<DataTrans
                 }
             });
 
+            final Button useBulkLoadCheck = UIUtils.createCheckbox(performanceSettings, "Use bulk load", "Use native bulk load protocol (COPY, LOAD DATA, bulk copy) if target database supports it.\nSupport is detected automatically, uncheck to always use INSERT statements", settings.isUseBulkLoad(), 4);
+            useBulkLoadCheck.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setUseBulkLoad(useBulkLoadCheck.getSelection());
+                }
+            });
+
             final Spinner commitAfterEdit = UIUtils.createLabelSpinner(performanceSettings, "Commit after insert of ", settings.getCommitAfterRows(), 1, Integer.MAX_VALUE);
             commitAfterEdit.addSelectionListener(new SelectionAdapter() {
                 @Override
@@ -99,6 +107,16 @@ public class DatabaseConsumerPageLoadSettings extends ActiveWizardPage<DataTrans
                 }
             });
             commitAfterEdit.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1));
+
+            final Spinner writerThreadsEdit = UIUtils.createLabelSpinner(performanceSettings, "Parallel writers", settings.getWriterThreadCount(), 1, 64);
+            writerThreadsEdit.setToolTipText("Number of target connections which insert data in parallel.\nWorks only if new connections are opened");
+            writerThreadsEdit.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setWriterThreadCount(writerThreadsEdit.getSelection());
+                }
+            });
+            writerThreadsEdit.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1));
         }
 
         {
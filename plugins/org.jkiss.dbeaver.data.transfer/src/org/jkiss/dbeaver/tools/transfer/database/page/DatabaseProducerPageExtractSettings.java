@@ -29,6 +29,7 @@ import org.jkiss.dbeaver.tools.transfer.internal.DTMessages;
 import org.jkiss.dbeaver.tools.transfer.wizard.DataTransferWizard;
 import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.dbeaver.ui.dialogs.ActiveWizardPage;
+import org.jkiss.utils.CommonUtils;
 
 import java.util.Locale;
 
@@ -46,6 +47,8 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
     private Button selectedColumnsOnlyCheckbox;
     private Button selectedRowsOnlyCheckbox;
     private Text fetchSizeText;
+    private Text splitRangeCountText;
+    private Button keepRangeOrderCheckbox;
 
     public DatabaseProducerPageExtractSettings() {
         super("Extraction settings");
@@ -141,6 +144,20 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
                 settings.setFetchSize(Integer.parseInt(fetchSizeText.getText()));
             });
 
+            splitRangeCountText = UIUtils.createLabelText(generalSettings, "Split table on ranges", "", SWT.BORDER);
+            splitRangeCountText.setToolTipText("Split each table on this number of primary key ranges and read them in parallel connections.\n1 means no split.");
+            splitRangeCountText.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.ENGLISH));
+            splitRangeCountText.addModifyListener(e -> {
+                settings.setSplitRangeCount(CommonUtils.toInt(splitRangeCountText.getText(), 1));
+            });
+            keepRangeOrderCheckbox = UIUtils.createCheckbox(generalSettings, "Keep ranges order", "Export ranges one by one in key order.\nOtherwise rows of different ranges are mixed, which is faster.", true, 2);
+            keepRangeOrderCheckbox.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setKeepRangeOrder(keepRangeOrderCheckbox.getSelection());
+                }
+            });
+
             IStructuredSelection curSelection = getWizard().getCurrentSelection();
             boolean hasSelection = curSelection != null && !curSelection.isEmpty() && curSelection.getFirstElement() instanceof DBDCellValue;
 
@@ -194,6 +211,8 @@ public class DatabaseProducerPageExtractSettings extends ActiveWizardPage<DataTr
             }
         }
         fetchSizeText.setText(String.valueOf(settings.getFetchSize()));
+        splitRangeCountText.setText(String.valueOf(settings.getSplitRangeCount()));
+        keepRangeOrderCheckbox.setSelection(settings.isKeepRangeOrder());
         if (selectedColumnsOnlyCheckbox != null) {
             selectedColumnsOnlyCheckbox.setSelection(settings.isSelectedColumnsOnly());
         }
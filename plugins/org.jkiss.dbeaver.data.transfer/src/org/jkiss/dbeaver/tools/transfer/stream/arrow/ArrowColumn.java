@@ -0,0 +1,143 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+/**
+ * Arrow column (field of a flat schema).
+ */
+public class ArrowColumn {
+
+    // Type union ids (Schema.fbs)
+    public static final int TYPE_INT = 2;
+    public static final int TYPE_FLOATING_POINT = 3;
+    public static final int TYPE_BINARY = 4;
+    public static final int TYPE_UTF8 = 5;
+    public static final int TYPE_BOOL = 6;
+    public static final int TYPE_DECIMAL = 7;
+    public static final int TYPE_DATE = 8;
+    public static final int TYPE_TIME = 9;
+    public static final int TYPE_TIMESTAMP = 10;
+
+    // FloatingPoint precision
+    static final int PRECISION_SINGLE = 1;
+    static final int PRECISION_DOUBLE = 2;
+
+    // Date/time units
+    static final int DATE_UNIT_DAY = 0;
+    static final int TIME_UNIT_MILLISECOND = 1;
+
+    static final int DECIMAL_BIT_WIDTH = 128;
+    static final String TIMESTAMP_TIME_ZONE = "UTC";
+
+    private final String name;
+    private final int type;
+    private int bitWidth;
+    private int precision;
+    private int scale;
+
+    private ArrowColumn(String name, int type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * Signed integer of 8, 16, 32 or 64 bits
+     */
+    public static ArrowColumn integer(String name, int bitWidth) {
+        if (bitWidth != 8 && bitWidth != 16 && bitWidth != 32 && bitWidth != 64) {
+            throw new IllegalArgumentException("Bad integer bit width: " + bitWidth);
+        }
+        ArrowColumn column = new ArrowColumn(name, TYPE_INT);
+        column.bitWidth = bitWidth;
+        return column;
+    }
+
+    public static ArrowColumn floatingPoint(String name, boolean isDouble) {
+        ArrowColumn column = new ArrowColumn(name, TYPE_FLOATING_POINT);
+        column.bitWidth = isDouble ? 64 : 32;
+        return column;
+    }
+
+    /**
+     * 128-bit decimal
+     */
+    public static ArrowColumn decimal(String name, int precision, int scale) {
+        ArrowColumn column = new ArrowColumn(name, TYPE_DECIMAL);
+        column.bitWidth = DECIMAL_BIT_WIDTH;
+        column.precision = precision;
+        column.scale = scale;
+        return column;
+    }
+
+    /**
+     * Types without parameters: bool, utf8, binary, date (days), time (32-bit milliseconds) and timestamp (milliseconds, UTC)
+     */
+    public static ArrowColumn simple(String name, int type) {
+        ArrowColumn column = new ArrowColumn(name, type);
+        switch (type) {
+            case TYPE_BOOL:
+                column.bitWidth = 1;
+                break;
+            case TYPE_DATE:
+            case TYPE_TIME:
+                column.bitWidth = 32;
+                break;
+            case TYPE_TIMESTAMP:
+                column.bitWidth = 64;
+                break;
+            case TYPE_UTF8:
+            case TYPE_BINARY:
+                // Variable length
+                break;
+            default:
+                throw new IllegalArgumentException("Type " + type + " requires parameters");
+        }
+        return column;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Value bit width. Zero for variable length types.
+     */
+    public int getBitWidth() {
+        return bitWidth;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    boolean isVariableLength() {
+        return type == TYPE_UTF8 || type == TYPE_BINARY;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + type + ")";
+    }
+}
@@ -0,0 +1,469 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Arrow IPC stream writer.
+ * <p>
+ * Writes schema message, record batches of up to batch size rows and end-of-stream marker.
+ * Record batch buffers are compressed one by one with LZ4 frame codec or left uncompressed.
+ * All fields are nullable, dictionaries are not used.
+ */
+public class ArrowWriter {
+
+    public static final int COMPRESSION_NONE = -1;
+    public static final int COMPRESSION_LZ4_FRAME = 0;
+
+    private static final short METADATA_VERSION_V5 = 4;
+
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_RECORD_BATCH = 3;
+    // Each buffer is compressed separately
+    private static final byte BODY_COMPRESSION_BUFFER = 0;
+    // Buffer length prefix which marks uncompressed buffer
+    private static final long UNCOMPRESSED_LENGTH = -1;
+
+    private static final int CONTINUATION_MARKER = 0xFFFFFFFF;
+    private static final int ALIGNMENT = 8;
+    // Variable length values use 32-bit offsets
+    private static final int MAX_VARIABLE_DATA_SIZE = 1 << 30;
+
+    private final OutputStream out;
+    private final List<ArrowColumn> columns;
+    private final int batchSize;
+    private final int compression;
+    private final Lz4FrameCompressor compressor;
+    private final ColumnVector[] vectors;
+    private final byte[] ioBuffer = new byte[8];
+    private int batchRows;
+
+    public ArrowWriter(OutputStream out, List<ArrowColumn> columns, int batchSize, int compression) throws IOException {
+        if (compression != COMPRESSION_NONE && compression != COMPRESSION_LZ4_FRAME) {
+            throw new IOException("Unsupported Arrow compression codec: " + compression);
+        }
+        this.out = out;
+        this.columns = columns;
+        this.batchSize = Math.max(1, batchSize);
+        this.compression = compression;
+        this.compressor = compression == COMPRESSION_LZ4_FRAME ? new Lz4FrameCompressor() : null;
+        this.vectors = new ColumnVector[columns.size()];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = new ColumnVector(columns.get(i));
+        }
+        writeSchema();
+    }
+
+    /**
+     * Writes one row. Values must match the column type:
+     * Boolean for bool, Number for integers, floating points and dates/times (days or milliseconds),
+     * unscaled BigInteger for decimals and byte[] for strings (UTF-8) and binaries. Null values are allowed.
+     */
+    public void writeRow(Object[] values) throws IOException {
+        if (batchRows > 0 && !fitsInBatch(values)) {
+            flushBatch();
+        }
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i].add(values[i]);
+        }
+        batchRows++;
+        if (batchRows >= batchSize) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * Writes last record batch and end-of-stream marker. Output stream is not closed.
+     */
+    public void finish() throws IOException {
+        flushBatch();
+        writeInt(CONTINUATION_MARKER);
+        writeInt(0);
+        out.flush();
+    }
+
+    private boolean fitsInBatch(Object[] values) {
+        for (int i = 0; i < vectors.length; i++) {
+            if (values[i] instanceof byte[] && vectors[i].values.size + (long) ((byte[]) values[i]).length > MAX_VARIABLE_DATA_SIZE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    ////////////////////////////////////////////////////////////
+    // Messages
+
+    private void writeSchema() throws IOException {
+        FlatBufferBuilder fb = new FlatBufferBuilder(1024);
+        int[] fields = new int[columns.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = makeField(fb, columns.get(i));
+        }
+        int fieldsVector = fb.createOffsetVector(fields);
+        fb.startTable(4);
+        fb.addOffset(1, fieldsVector);
+        int schema = fb.endTable();
+        writeMessage(fb, HEADER_SCHEMA, schema, 0);
+    }
+
+    private static int makeField(FlatBufferBuilder fb, ArrowColumn column) {
+        int name = fb.createString(column.getName());
+        int type = makeType(fb, column);
+        int children = fb.createOffsetVector(new int[0]);
+        fb.startTable(7);
+        fb.addOffset(0, name);
+        fb.addBoolean(1, true);
+        fb.addByte(2, (byte) column.getType());
+        fb.addOffset(3, type);
+        fb.addOffset(5, children);
+        return fb.endTable();
+    }
+
+    private static int makeType(FlatBufferBuilder fb, ArrowColumn column) {
+        switch (column.getType()) {
+            case ArrowColumn.TYPE_INT:
+                fb.startTable(2);
+                fb.addInt(0, column.getBitWidth());
+                fb.addBoolean(1, true);
+                break;
+            case ArrowColumn.TYPE_FLOATING_POINT:
+                fb.startTable(1);
+                fb.addShort(0, (short) (column.getBitWidth() == 64 ? ArrowColumn.PRECISION_DOUBLE : ArrowColumn.PRECISION_SINGLE));
+                break;
+            case ArrowColumn.TYPE_DECIMAL:
+                fb.startTable(3);
+                fb.addInt(0, column.getPrecision());
+                fb.addInt(1, column.getScale());
+                fb.addInt(2, ArrowColumn.DECIMAL_BIT_WIDTH);
+                break;
+            case ArrowColumn.TYPE_DATE:
+                fb.startTable(1);
+                fb.addShort(0, (short) ArrowColumn.DATE_UNIT_DAY);
+                break;
+            case ArrowColumn.TYPE_TIME:
+                fb.startTable(2);
+                fb.addShort(0, (short) ArrowColumn.TIME_UNIT_MILLISECOND);
+                fb.addInt(1, 32);
+                break;
+            case ArrowColumn.TYPE_TIMESTAMP: {
+                // Values are milliseconds since epoch (instants), so time zone is required
+                int timezone = fb.createString(ArrowColumn.TIMESTAMP_TIME_ZONE);
+                fb.startTable(2);
+                fb.addShort(0, (short) ArrowColumn.TIME_UNIT_MILLISECOND);
+                fb.addOffset(1, timezone);
+                break;
+            }
+            default:
+                // Bool, Utf8 and Binary types have no fields
+                fb.startTable(0);
+                break;
+        }
+        return fb.endTable();
+    }
+
+    private void flushBatch() throws IOException {
+        if (batchRows == 0) {
+            return;
+        }
+        // Buffers: validity bitmap, offsets (variable length types only) and values of each column
+        int buffersPerColumn = 3;
+        byte[][] bufferData = new byte[vectors.length * buffersPerColumn][];
+        long[] bufferOffsets = new long[bufferData.length];
+        long[] bufferLengths = new long[bufferData.length];
+        int bufferCount = 0;
+        long bodyLength = 0;
+        for (ColumnVector vector : vectors) {
+            for (DataBuffer buffer : vector.getBuffers()) {
+                if (buffer != null && buffer.size > 0) {
+                    // Empty buffers are not compressed
+                    bufferData[bufferCount] = compressor == null ? buffer.data : compressBuffer(buffer);
+                    bufferLengths[bufferCount] = compressor == null ? buffer.size : bufferData[bufferCount].length;
+                }
+                bufferOffsets[bufferCount] = bodyLength;
+                bodyLength += align(bufferLengths[bufferCount]);
+                bufferCount++;
+            }
+        }
+
+        FlatBufferBuilder fb = new FlatBufferBuilder(256 + vectors.length * 64);
+        fb.startVector(16, vectors.length, 8);
+        for (int i = vectors.length - 1; i >= 0; i--) {
+            // struct FieldNode { length: long; null_count: long; }
+            fb.addLong(vectors[i].nullCount);
+            fb.addLong(batchRows);
+        }
+        int nodes = fb.endVector();
+        fb.startVector(16, bufferCount, 8);
+        for (int i = bufferCount - 1; i >= 0; i--) {
+            // struct Buffer { offset: long; length: long; }
+            fb.addLong(bufferLengths[i]);
+            fb.addLong(bufferOffsets[i]);
+        }
+        int buffers = fb.endVector();
+        int bodyCompression = 0;
+        if (compressor != null) {
+            fb.startTable(2);
+            fb.addByte(0, (byte) compression);
+            fb.addByte(1, BODY_COMPRESSION_BUFFER);
+            bodyCompression = fb.endTable();
+        }
+        fb.startTable(5);
+        fb.addLong(0, batchRows);
+        fb.addOffset(1, nodes);
+        fb.addOffset(2, buffers);
+        if (compressor != null) {
+            fb.addOffset(3, bodyCompression);
+        }
+        int recordBatch = fb.endTable();
+        writeMessage(fb, HEADER_RECORD_BATCH, recordBatch, bodyLength);
+
+        for (int i = 0; i < bufferCount; i++) {
+            if (bufferData[i] != null) {
+                out.write(bufferData[i], 0, (int) bufferLengths[i]);
+                writePadding(bufferLengths[i]);
+            }
+        }
+        for (ColumnVector vector : vectors) {
+            vector.reset();
+        }
+        batchRows = 0;
+    }
+
+    /**
+     * Compressed buffer is prefixed with its uncompressed length.
+     * Buffer which doesn't get smaller is stored as is, with length -1.
+     */
+    private byte[] compressBuffer(DataBuffer buffer) {
+        byte[] frame = compressor.compress(buffer.data, buffer.size);
+        boolean compressed = frame.length < buffer.size;
+        int length = compressed ? frame.length : buffer.size;
+        byte[] result = new byte[8 + length];
+        long prefix = compressed ? buffer.size : UNCOMPRESSED_LENGTH;
+        putInt(result, 0, (int) prefix);
+        putInt(result, 4, (int) (prefix >> 32));
+        System.arraycopy(compressed ? frame : buffer.data, 0, result, 8, length);
+        return result;
+    }
+
+    private void writeMessage(FlatBufferBuilder fb, byte headerType, int header, long bodyLength) throws IOException {
+        fb.startTable(5);
+        fb.addShort(0, METADATA_VERSION_V5);
+        fb.addByte(1, headerType);
+        fb.addOffset(2, header);
+        fb.addLong(3, bodyLength);
+        byte[] metadata = fb.finish(fb.endTable());
+        // Metadata size includes padding, so that the body starts at 8-byte boundary
+        writeInt(CONTINUATION_MARKER);
+        writeInt((int) align(metadata.length));
+        out.write(metadata);
+        writePadding(metadata.length);
+    }
+
+    private void writeInt(int value) throws IOException {
+        putInt(ioBuffer, 0, value);
+        out.write(ioBuffer, 0, 4);
+    }
+
+    private void writePadding(long length) throws IOException {
+        int padding = (int) (align(length) - length);
+        if (padding > 0) {
+            Arrays.fill(ioBuffer, (byte) 0);
+            out.write(ioBuffer, 0, padding);
+        }
+    }
+
+    private static long align(long length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    static void putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    /**
+     * Growable little-endian byte buffer
+     */
+    private static class DataBuffer {
+        private byte[] data = new byte[1024];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            data[size++] = (byte) value;
+        }
+
+        void writeShort(int value) {
+            ensureCapacity(2);
+            data[size++] = (byte) value;
+            data[size++] = (byte) (value >> 8);
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(4);
+            putInt(data, size, value);
+            size += 4;
+        }
+
+        void writeLong(long value) {
+            writeInt((int) value);
+            writeInt((int) (value >> 32));
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeZeros(int length) {
+            ensureCapacity(length);
+            Arrays.fill(data, size, size + length, (byte) 0);
+            size += length;
+        }
+
+        /**
+         * Sets bit of LSB-ordered bitmap, extending bitmap with zero bytes if needed
+         */
+        void setBit(int index, boolean value) {
+            int byteIndex = index >> 3;
+            if (byteIndex >= size) {
+                writeZeros(byteIndex - size + 1);
+            }
+            if (value) {
+                data[byteIndex] |= 1 << (index & 7);
+            }
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + length, data.length * 2));
+            }
+        }
+    }
+
+    private static class ColumnVector {
+        private final ArrowColumn column;
+        private final DataBuffer validity = new DataBuffer();
+        private final DataBuffer offsets;
+        private final DataBuffer values = new DataBuffer();
+        private int length;
+        private int nullCount;
+
+        ColumnVector(ArrowColumn column) {
+            this.column = column;
+            this.offsets = column.isVariableLength() ? new DataBuffer() : null;
+            reset();
+        }
+
+        /**
+         * Buffers in the order of the Arrow columnar layout
+         */
+        DataBuffer[] getBuffers() {
+            // Validity bitmap may be omitted if there are no nulls
+            DataBuffer validityBuffer = nullCount == 0 ? null : validity;
+            return offsets != null ?
+                new DataBuffer[] { validityBuffer, offsets, values } :
+                new DataBuffer[] { validityBuffer, values };
+        }
+
+        void reset() {
+            validity.reset();
+            values.reset();
+            if (offsets != null) {
+                offsets.reset();
+                offsets.writeInt(0);
+            }
+            length = 0;
+            nullCount = 0;
+        }
+
+        void add(Object value) throws IOException {
+            validity.setBit(length, value != null);
+            if (value == null) {
+                nullCount++;
+            }
+            switch (column.getType()) {
+                case ArrowColumn.TYPE_BOOL:
+                    values.setBit(length, value != null && (Boolean) value);
+                    break;
+                case ArrowColumn.TYPE_UTF8:
+                case ArrowColumn.TYPE_BINARY:
+                    if (value != null) {
+                        values.writeBytes((byte[]) value);
+                    }
+                    offsets.writeInt(values.size);
+                    break;
+                case ArrowColumn.TYPE_DECIMAL:
+                    if (value == null) {
+                        values.writeZeros(16);
+                    } else {
+                        writeDecimal128((BigInteger) value);
+                    }
+                    break;
+                case ArrowColumn.TYPE_FLOATING_POINT:
+                    if (column.getBitWidth() == 64) {
+                        values.writeLong(value == null ? 0 : Double.doubleToLongBits(((Number) value).doubleValue()));
+                    } else {
+                        values.writeInt(value == null ? 0 : Float.floatToIntBits(((Number) value).floatValue()));
+                    }
+                    break;
+                default: {
+                    long number = value == null ? 0 : ((Number) value).longValue();
+                    switch (column.getBitWidth()) {
+                        case 8: values.writeByte((int) number); break;
+                        case 16: values.writeShort((int) number); break;
+                        case 32: values.writeInt((int) number); break;
+                        case 64: values.writeLong(number); break;
+                        default:
+                            throw new IOException("Unsupported Arrow column '" + column.getName() + "' type: " + column.getType());
+                    }
+                    break;
+                }
+            }
+            length++;
+        }
+
+        private void writeDecimal128(BigInteger unscaled) throws IOException {
+            if (unscaled.bitLength() > 127) {
+                throw new IOException("Value " + unscaled + " of column '" + column.getName() + "' doesn't fit 128-bit decimal");
+            }
+            // Two's complement, little-endian
+            byte[] bytes = unscaled.toByteArray();
+            for (int i = bytes.length - 1; i >= 0; i--) {
+                values.writeByte(bytes[i]);
+            }
+            int sign = unscaled.signum() < 0 ? 0xFF : 0;
+            for (int i = bytes.length; i < 16; i++) {
+                values.writeByte(sign);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal flatbuffers builder (enough to write Arrow IPC metadata).
+ * <p>
+ * Buffer is built from back to front, like the reference implementation does:
+ * children are written before their parents, offsets are counted from the end of the buffer.
+ * Vtables are not deduplicated.
+ */
+class FlatBufferBuilder {
+
+    private ByteBuffer bb;
+    private int space;
+    private int minAlign = 1;
+    private int[] vtable;
+    private int vtableInUse;
+    private int objectStart;
+    private int vectorElements;
+
+    FlatBufferBuilder(int initialSize) {
+        bb = ByteBuffer.allocate(Math.max(initialSize, 64)).order(ByteOrder.LITTLE_ENDIAN);
+        space = bb.capacity();
+    }
+
+    int offset() {
+        return bb.capacity() - space;
+    }
+
+    ////////////////////////////////////////////////////////////
+    // Scalars
+
+    private void prep(int size, int additionalBytes) {
+        if (size > minAlign) {
+            minAlign = size;
+        }
+        int alignSize = (~(bb.capacity() - space + additionalBytes) + 1) & (size - 1);
+        while (space < alignSize + size + additionalBytes) {
+            int oldCapacity = bb.capacity();
+            ByteBuffer newBuffer = ByteBuffer.allocate(oldCapacity * 2).order(ByteOrder.LITTLE_ENDIAN);
+            newBuffer.position(oldCapacity);
+            bb.position(0);
+            newBuffer.put(bb);
+            bb = newBuffer;
+            space += oldCapacity;
+        }
+        for (int i = 0; i < alignSize; i++) {
+            bb.put(--space, (byte) 0);
+        }
+    }
+
+    void addByte(byte value) {
+        prep(1, 0);
+        bb.put(--space, value);
+    }
+
+    void addShort(short value) {
+        prep(2, 0);
+        bb.putShort(space -= 2, value);
+    }
+
+    void addInt(int value) {
+        prep(4, 0);
+        bb.putInt(space -= 4, value);
+    }
+
+    void addLong(long value) {
+        prep(8, 0);
+        bb.putLong(space -= 8, value);
+    }
+
+    /**
+     * Adds reference to previously written object
+     */
+    void addOffset(int offset) {
+        prep(4, 0);
+        if (offset > offset()) {
+            throw new IllegalArgumentException("Flatbuffer object must be written before reference to it");
+        }
+        int relativeOffset = offset() - offset + 4;
+        bb.putInt(space -= 4, relativeOffset);
+    }
+
+    ////////////////////////////////////////////////////////////
+    // Tables
+
+    void startTable(int numFields) {
+        if (vtable != null) {
+            throw new IllegalStateException("Nested flatbuffer objects are not allowed");
+        }
+        vtable = new int[numFields];
+        vtableInUse = numFields;
+        objectStart = offset();
+    }
+
+    void addBoolean(int field, boolean value) {
+        addByte((byte) (value ? 1 : 0));
+        vtable[field] = offset();
+    }
+
+    void addByte(int field, byte value) {
+        addByte(value);
+        vtable[field] = offset();
+    }
+
+    void addShort(int field, short value) {
+        addShort(value);
+        vtable[field] = offset();
+    }
+
+    void addInt(int field, int value) {
+        addInt(value);
+        vtable[field] = offset();
+    }
+
+    void addLong(int field, long value) {
+        addLong(value);
+        vtable[field] = offset();
+    }
+
+    void addOffset(int field, int offset) {
+        addOffset(offset);
+        vtable[field] = offset();
+    }
+
+    int endTable() {
+        if (vtable == null) {
+            throw new IllegalStateException("Flatbuffer table is not started");
+        }
+        // Placeholder for the vtable offset
+        addInt(0);
+        int tableOffset = offset();
+        while (vtableInUse > 0 && vtable[vtableInUse - 1] == 0) {
+            vtableInUse--;
+        }
+        for (int i = vtableInUse - 1; i >= 0; i--) {
+            addShort((short) (vtable[i] != 0 ? tableOffset - vtable[i] : 0));
+        }
+        addShort((short) (tableOffset - objectStart));
+        addShort((short) ((vtableInUse + 2) * 2));
+        // Vtable is located before the table, so the offset is positive
+        bb.putInt(bb.capacity() - tableOffset, offset() - tableOffset);
+        vtable = null;
+        return tableOffset;
+    }
+
+    ////////////////////////////////////////////////////////////
+    // Vectors
+
+    /**
+     * Starts vector. Elements must be added in reverse order.
+     */
+    void startVector(int elementSize, int numElements, int alignment) {
+        vectorElements = numElements;
+        prep(4, elementSize * numElements);
+        prep(alignment, elementSize * numElements);
+    }
+
+    int endVector() {
+        addInt(vectorElements);
+        return offset();
+    }
+
+    int createOffsetVector(int[] offsets) {
+        startVector(4, offsets.length, 4);
+        for (int i = offsets.length - 1; i >= 0; i--) {
+            addOffset(offsets[i]);
+        }
+        return endVector();
+    }
+
+    int createString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        addByte((byte) 0);
+        startVector(1, bytes.length, 1);
+        space -= bytes.length;
+        bb.position(space);
+        bb.put(bytes);
+        return endVector();
+    }
+
+    ////////////////////////////////////////////////////////////
+    // Result
+
+    /**
+     * Writes root table offset and returns buffer contents.
+     * Size of the result is a multiple of the largest scalar alignment.
+     */
+    byte[] finish(int rootTable) {
+        prep(minAlign, 4);
+        addOffset(rootTable);
+        return Arrays.copyOfRange(bb.array(), space, bb.capacity());
+    }
+
+}
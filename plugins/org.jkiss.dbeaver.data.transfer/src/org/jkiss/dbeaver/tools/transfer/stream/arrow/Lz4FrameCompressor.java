@@ -0,0 +1,211 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import java.util.Arrays;
+
+/**
+ * LZ4 frame format compressor (Arrow LZ4_FRAME body compression codec).
+ * <p>
+ * Frame has independent blocks of up to 64KB (as the reference implementation writes by default),
+ * without content size and checksums. Blocks which don't get smaller are stored uncompressed.
+ * Block compressor is greedy: matches of 4+ bytes are found with a hash table.
+ * Search step grows after each 64 misses, so incompressible input is skipped quickly.
+ */
+final class Lz4FrameCompressor {
+
+    private static final int MAGIC = 0x184D2204;
+    // Version 01, independent blocks
+    private static final int FRAME_FLAGS = 0x60;
+    // Max block size 64KB
+    private static final int BLOCK_DESCRIPTOR = 0x40;
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final int UNCOMPRESSED_BLOCK_FLAG = 0x80000000;
+
+    private static final int HASH_BITS = 12;
+    private static final int MIN_MATCH = 4;
+    // The last match must start at least 12 bytes before the block end
+    private static final int MATCH_FIND_LIMIT = 12;
+    // The last 5 bytes are always literals
+    private static final int LAST_LITERALS = 5;
+    private static final int MAX_OFFSET = 0xFFFF;
+
+    private static final int PRIME32_1 = 0x9E3779B1;
+    private static final int PRIME32_2 = 0x85EBCA77;
+    private static final int PRIME32_3 = 0xC2B2AE3D;
+    private static final int PRIME32_4 = 0x27D4EB2F;
+    private static final int PRIME32_5 = 0x165667B1;
+
+    private final int[] hashTable = new int[1 << HASH_BITS];
+    private byte[] blockBuffer = new byte[maxBlockLength(BLOCK_SIZE)];
+
+    /**
+     * Compresses first length bytes of data into a complete frame
+     */
+    byte[] compress(byte[] data, int length) {
+        byte[] out = new byte[7 + (length / BLOCK_SIZE + 1) * 4 + length + 4];
+        putInt(out, 0, MAGIC);
+        out[4] = (byte) FRAME_FLAGS;
+        out[5] = (byte) BLOCK_DESCRIPTOR;
+        out[6] = (byte) (xxHash32(out, 4, 2, 0) >>> 8);
+        int pos = 7;
+        for (int block = 0; block < length; block += BLOCK_SIZE) {
+            int blockLength = Math.min(BLOCK_SIZE, length - block);
+            int compressedLength = compressBlock(data, block, blockLength, blockBuffer);
+            if (compressedLength < blockLength) {
+                putInt(out, pos, compressedLength);
+                System.arraycopy(blockBuffer, 0, out, pos + 4, compressedLength);
+                pos += 4 + compressedLength;
+            } else {
+                putInt(out, pos, blockLength | UNCOMPRESSED_BLOCK_FLAG);
+                System.arraycopy(data, block, out, pos + 4, blockLength);
+                pos += 4 + blockLength;
+            }
+        }
+        // End mark
+        putInt(out, pos, 0);
+        return Arrays.copyOf(out, pos + 4);
+    }
+
+    static int maxBlockLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses LZ4 block
+     * @return compressed length
+     */
+    int compressBlock(byte[] src, int start, int length, byte[] out) {
+        int end = start + length;
+        int anchor = start;
+        int pos = 0;
+        if (length > MATCH_FIND_LIMIT) {
+            // Table keeps block positions + 1, zero means no position
+            Arrays.fill(hashTable, 0);
+            int limit = end - MATCH_FIND_LIMIT;
+            int index = start;
+            int skip = 64;
+            while (index <= limit) {
+                int sequence = getInt(src, index);
+                int hash = hash(sequence);
+                int candidate = hashTable[hash] - 1 + start;
+                hashTable[hash] = index - start + 1;
+                if (candidate < start || index - candidate > MAX_OFFSET || getInt(src, candidate) != sequence) {
+                    index += skip++ >>> 6;
+                    continue;
+                }
+                int matchLength = MIN_MATCH;
+                int maxLength = end - LAST_LITERALS - index;
+                while (matchLength < maxLength && src[candidate + matchLength] == src[index + matchLength]) {
+                    matchLength++;
+                }
+                // Extend match backwards over pending literals
+                while (index > anchor && candidate > start && src[index - 1] == src[candidate - 1]) {
+                    index--;
+                    candidate--;
+                    matchLength++;
+                }
+                pos = emitSequence(src, anchor, index - anchor, index - candidate, matchLength, out, pos);
+                index += matchLength;
+                anchor = index;
+                skip = 64;
+            }
+        }
+        // Last literals: token without match
+        int literalLength = end - anchor;
+        out[pos++] = (byte) (Math.min(literalLength, 15) << 4);
+        pos = writeLength(literalLength - 15, out, pos);
+        System.arraycopy(src, anchor, out, pos, literalLength);
+        return pos + literalLength;
+    }
+
+    private static int emitSequence(byte[] src, int literalStart, int literalLength, int offset, int matchLength, byte[] out, int pos) {
+        int matchCode = matchLength - MIN_MATCH;
+        out[pos++] = (byte) ((Math.min(literalLength, 15) << 4) | Math.min(matchCode, 15));
+        pos = writeLength(literalLength - 15, out, pos);
+        System.arraycopy(src, literalStart, out, pos, literalLength);
+        pos += literalLength;
+        out[pos++] = (byte) offset;
+        out[pos++] = (byte) (offset >>> 8);
+        return writeLength(matchCode - 15, out, pos);
+    }
+
+    /**
+     * Writes length extension bytes, if token length field is saturated
+     */
+    private static int writeLength(int remaining, byte[] out, int pos) {
+        if (remaining < 0) {
+            return pos;
+        }
+        while (remaining >= 255) {
+            out[pos++] = (byte) 0xFF;
+            remaining -= 255;
+        }
+        out[pos++] = (byte) remaining;
+        return pos;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * 0x9E3779B1) >>> (32 - HASH_BITS);
+    }
+
+    private static int getInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16 | (data[offset + 3] & 0xFF) << 24;
+    }
+
+    private static void putInt(byte[] data, int offset, int value) {
+        ArrowWriter.putInt(data, offset, value);
+    }
+
+    /**
+     * xxHash32, used for the frame header checksum
+     */
+    static int xxHash32(byte[] data, int offset, int length, int seed) {
+        int end = offset + length;
+        int pos = offset;
+        int hash;
+        if (length >= 16) {
+            int v1 = seed + PRIME32_1 + PRIME32_2;
+            int v2 = seed + PRIME32_2;
+            int v3 = seed;
+            int v4 = seed - PRIME32_1;
+            for (; pos <= end - 16; pos += 16) {
+                v1 = Integer.rotateLeft(v1 + getInt(data, pos) * PRIME32_2, 13) * PRIME32_1;
+                v2 = Integer.rotateLeft(v2 + getInt(data, pos + 4) * PRIME32_2, 13) * PRIME32_1;
+                v3 = Integer.rotateLeft(v3 + getInt(data, pos + 8) * PRIME32_2, 13) * PRIME32_1;
+                v4 = Integer.rotateLeft(v4 + getInt(data, pos + 12) * PRIME32_2, 13) * PRIME32_1;
+            }
+            hash = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) + Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+        } else {
+            hash = seed + PRIME32_5;
+        }
+        hash += length;
+        for (; pos <= end - 4; pos += 4) {
+            hash = Integer.rotateLeft(hash + getInt(data, pos) * PRIME32_3, 17) * PRIME32_4;
+        }
+        for (; pos < end; pos++) {
+            hash = Integer.rotateLeft(hash + (data[pos] & 0xFF) * PRIME32_5, 11) * PRIME32_1;
+        }
+        hash ^= hash >>> 15;
+        hash *= PRIME32_2;
+        hash ^= hash >>> 13;
+        hash *= PRIME32_3;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+}
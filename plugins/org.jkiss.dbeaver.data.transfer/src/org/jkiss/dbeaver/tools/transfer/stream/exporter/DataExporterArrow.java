@@ -0,0 +1,202 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.ArrowColumn;
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.ArrowWriter;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Arrow IPC stream exporter.
+ * Values are written in typed columns (not as strings), record batch buffers are compressed with LZ4 frame codec.
+ */
+public class DataExporterArrow extends StreamExporterAbstract {
+
+    private static final String PROP_COMPRESSION = "compression";
+    private static final String PROP_BATCH_SIZE = "batchSize";
+
+    private List<DBDAttributeBinding> columns;
+    private ArrowColumn[] arrowColumns;
+    private Object[] arrowRow;
+    private ArrowWriter writer;
+    private int compression;
+    private int batchSize;
+
+    @Override
+    public void init(IStreamDataExporterSite site) throws DBException
+    {
+        super.init(site);
+        String codec = CommonUtils.toString(site.getProperties().get(PROP_COMPRESSION), "lz4");
+        compression = "none".equalsIgnoreCase(codec) ? ArrowWriter.COMPRESSION_NONE : ArrowWriter.COMPRESSION_LZ4_FRAME;
+        batchSize = Math.max(1, CommonUtils.toInt(site.getProperties().get(PROP_BATCH_SIZE), 10000));
+    }
+
+    @Override
+    public void exportHeader(DBCSession session) throws DBException, IOException
+    {
+        columns = getSite().getAttributes();
+        arrowColumns = new ArrowColumn[columns.size()];
+        arrowRow = new Object[columns.size()];
+        Set<String> columnNames = new HashSet<>();
+        boolean nativeDateTime = DataExporterParquet.isNativeDateTimeFormat(session);
+        for (int i = 0; i < columns.size(); i++) {
+            DBDAttributeBinding column = columns.get(i);
+            arrowColumns[i] = makeArrowColumn(DataExporterParquet.makeUniqueColumnName(column, columnNames), column, nativeDateTime);
+        }
+        writer = new ArrowWriter(getSite().getOutputStream(), Arrays.asList(arrowColumns), batchSize, compression);
+    }
+
+    @Override
+    public void exportRow(DBCSession session, DBCResultSet resultSet, Object[] row) throws DBException, IOException
+    {
+        for (int i = 0; i < row.length && i < arrowColumns.length; i++) {
+            arrowRow[i] = convertValue(session, columns.get(i), arrowColumns[i], row[i]);
+        }
+        writer.writeRow(arrowRow);
+    }
+
+    @Override
+    public void exportFooter(DBRProgressMonitor monitor) throws DBException, IOException
+    {
+        if (writer != null) {
+            writer.finish();
+        }
+    }
+
+    private static ArrowColumn makeArrowColumn(String name, DBDAttributeBinding column, boolean nativeDateTime) {
+        switch (column.getDataKind()) {
+            case BOOLEAN:
+                return ArrowColumn.simple(name, ArrowColumn.TYPE_BOOL);
+            case NUMERIC:
+                switch (column.getTypeID()) {
+                    case Types.BIT:
+                    case Types.TINYINT:
+                        return ArrowColumn.integer(name, 8);
+                    case Types.SMALLINT:
+                        return ArrowColumn.integer(name, 16);
+                    case Types.INTEGER:
+                        return ArrowColumn.integer(name, 32);
+                    case Types.BIGINT:
+                        return ArrowColumn.integer(name, 64);
+                    case Types.REAL:
+                        return ArrowColumn.floatingPoint(name, false);
+                    case Types.FLOAT:
+                    case Types.DOUBLE:
+                        return ArrowColumn.floatingPoint(name, true);
+                    default: {
+                        int precision = CommonUtils.toInt(column.getPrecision());
+                        int scale = CommonUtils.toInt(column.getScale());
+                        if (precision > 0 && precision <= DataExporterParquet.MAX_DECIMAL_PRECISION && scale >= 0 && scale <= precision) {
+                            return ArrowColumn.decimal(name, precision, scale);
+                        }
+                        // Unknown precision. Write as string to keep all digits
+                        return ArrowColumn.simple(name, ArrowColumn.TYPE_UTF8);
+                    }
+                }
+            case DATETIME:
+                if (nativeDateTime) {
+                    return ArrowColumn.simple(name, ArrowColumn.TYPE_UTF8);
+                }
+                switch (column.getTypeID()) {
+                    case Types.DATE:
+                        return ArrowColumn.simple(name, ArrowColumn.TYPE_DATE);
+                    case Types.TIME:
+                    case Types.TIME_WITH_TIMEZONE:
+                        return ArrowColumn.simple(name, ArrowColumn.TYPE_TIME);
+                    default:
+                        return ArrowColumn.simple(name, ArrowColumn.TYPE_TIMESTAMP);
+                }
+            case BINARY:
+                return ArrowColumn.simple(name, ArrowColumn.TYPE_BINARY);
+            case CONTENT:
+                switch (column.getTypeID()) {
+                    case Types.BLOB:
+                    case Types.LONGVARBINARY:
+                    case Types.VARBINARY:
+                    case Types.BINARY:
+                        return ArrowColumn.simple(name, ArrowColumn.TYPE_BINARY);
+                    default:
+                        return ArrowColumn.simple(name, ArrowColumn.TYPE_UTF8);
+                }
+            default:
+                // Strings and complex values are written as strings
+                return ArrowColumn.simple(name, ArrowColumn.TYPE_UTF8);
+        }
+    }
+
+    private Object convertValue(DBCSession session, DBDAttributeBinding column, ArrowColumn arrowColumn, Object value) throws DBException, IOException {
+        if (DBUtils.isNullValue(value)) {
+            return null;
+        }
+        if (value instanceof DBDContent) {
+            value = DataExporterParquet.readContent(session, (DBDContent) value, arrowColumn.getType() == ArrowColumn.TYPE_UTF8);
+            if (value == null) {
+                return null;
+            }
+        }
+        switch (arrowColumn.getType()) {
+            case ArrowColumn.TYPE_BOOL:
+                return value instanceof Boolean ? value : CommonUtils.toBoolean(value);
+            case ArrowColumn.TYPE_INT:
+            case ArrowColumn.TYPE_FLOATING_POINT:
+                return DataExporterParquet.toNumber(column, value);
+            case ArrowColumn.TYPE_DECIMAL:
+                // Sign bit is the highest bit of 128-bit value
+                return DataExporterParquet.toUnscaledDecimal(column, value, arrowColumn.getPrecision(), arrowColumn.getScale(), 127);
+            case ArrowColumn.TYPE_DATE:
+                return DataExporterParquet.toEpochDay(column, value);
+            case ArrowColumn.TYPE_TIME:
+                return DataExporterParquet.toMillisOfDay(column, value);
+            case ArrowColumn.TYPE_TIMESTAMP:
+                return DataExporterParquet.toDate(column, value).getTime();
+            case ArrowColumn.TYPE_UTF8: {
+                String strValue;
+                if (value instanceof String) {
+                    strValue = (String) value;
+                } else if (value instanceof BigDecimal) {
+                    strValue = ((BigDecimal) value).toPlainString();
+                } else {
+                    strValue = super.getValueDisplayString(column, value);
+                }
+                return strValue.getBytes(StandardCharsets.UTF_8);
+            }
+            default:
+                if (value instanceof byte[]) {
+                    return value;
+                }
+                return super.getValueDisplayString(column, value).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -52,6 +52,7 @@ public class DataExporterCSV extends StreamExporterAbstract {
     private static final String PROP_QUOTE_NEVER = "quoteNever";
     private static final String PROP_NULL_STRING = "nullString";
     private static final String PROP_FORMAT_NUMBERS = "formatNumbers";
+    private static final String PROP_RAW_VALUES = "rawValues";
 
     private static final String DEF_QUOTE_CHAR = "\"";
 
@@ -68,9 +69,12 @@ public class DataExporterCSV extends StreamExporterAbstract {
     private String rowDelimiter;
     private String nullString;
     private HeaderPosition headerPosition;
+    private boolean rawValues;
     private List<DBDAttributeBinding> columns;
 
     private final StringBuilder buffer = new StringBuilder();
+    private final StringBuilder rawBuffer = new StringBuilder();
+    private char[] rawChars = new char[256];
 
     @Override
     public void init(IStreamDataExporterSite site) throws DBException
@@ -92,6 +96,9 @@ public class DataExporterCSV extends StreamExporterAbstract {
         useQuotes = quoteChar != ' ';
         quoteAlways = CommonUtils.toBoolean(properties.get(PROP_QUOTE_ALWAYS));
         rowDelimiter = GeneralUtils.getDefaultLineSeparator();
+        // Raw mode writes numbers in native form, so it is only possible when numbers are not formatted
+        rawValues = CommonUtils.toBoolean(properties.get(PROP_RAW_VALUES)) &&
+            !CommonUtils.toBoolean(properties.get(PROP_FORMAT_NUMBERS));
         try {
             headerPosition = HeaderPosition.valueOf(String.valueOf(properties.get(PROP_HEADER)));
         } catch (Exception e) {
@@ -166,6 +173,8 @@ public class DataExporterCSV extends StreamExporterAbstract {
                 finally {
                     content.release();
                 }
+            } else if (rawValues && appendRawCellValue(column, row[i])) {
+                writeRawCellValue(row[i] instanceof String && rawBuffer.length() > 0 && Character.isDigit(rawBuffer.charAt(0)));
             } else {
                 String stringValue = super.getValueDisplayString(column, row[i]);
                 boolean quote = false;
@@ -227,6 +236,70 @@ public class DataExporterCSV extends StreamExporterAbstract {
         if (quote && useQuotes) out.write(quoteChar);
     }
 
+    private boolean appendRawCellValue(DBDAttributeBinding column, Object value)
+    {
+        rawBuffer.setLength(0);
+        return appendRawValue(rawBuffer, column, value);
+    }
+
+    /**
+     * Writes value collected in raw buffer. Same rules as {@link #writeCellValue(String, boolean)}
+     * but without intermediate strings.
+     */
+    private void writeRawCellValue(boolean quote)
+    {
+        final int length = rawBuffer.length();
+        if (rawChars.length < length) {
+            rawChars = new char[Math.max(length, rawChars.length * 2)];
+        }
+        rawBuffer.getChars(0, length, rawChars, 0);
+
+        if (!useQuotes) {
+            quote = false;
+        }
+        boolean hasQuotes = false;
+        if (useQuotes) {
+            for (int i = 0; i < length; i++) {
+                if (rawChars[i] == quoteChar) {
+                    hasQuotes = true;
+                    break;
+                }
+            }
+        }
+        if (quoteAlways || (useQuotes && length == 0)) {
+            quote = true;
+        } else if (!quote) {
+            if (hasQuotes || containsSpecialChars(length)) {
+                quote = true;
+            }
+        }
+        PrintWriter out = getWriter();
+        if (quote && useQuotes) out.write(quoteChar);
+        if (quote && hasQuotes) {
+            // escape quotes with double quotes
+            for (int i = 0; i < length; i++) {
+                if (rawChars[i] == quoteChar) {
+                    out.write(quoteChar);
+                }
+                out.write(rawChars[i]);
+            }
+        } else {
+            out.write(rawChars, 0, length);
+        }
+        if (quote && useQuotes) out.write(quoteChar);
+    }
+
+    private boolean containsSpecialChars(int length)
+    {
+        for (int i = 0; i < length; i++) {
+            char c = rawChars[i];
+            if (c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return rawBuffer.indexOf(delimiter) != -1 || rawBuffer.indexOf(rowDelimiter) != -1;
+    }
+
     private void writeCellValue(Reader reader) throws IOException
     {
         try {
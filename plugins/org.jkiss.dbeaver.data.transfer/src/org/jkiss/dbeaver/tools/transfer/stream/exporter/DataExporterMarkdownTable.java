@@ -33,6 +33,7 @@ import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.CommonUtils;
 
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.io.Reader;
 import java.util.List;
 
@@ -45,6 +46,7 @@ public class DataExporterMarkdownTable extends StreamExporterAbstract {
     private static final String PROP_FORMAT_NUMBERS = "formatNumbers";
     private static final String PROP_SHOW_HEADER_SEPARATOR = "showHeaderSeparator";
     private static final String PROP_CONFLUENCE_FORMAT = "confluenceFormat";
+    private static final String PROP_RAW_VALUES = "rawValues";
 
     private static final String PIPE_ESCAPE = "&#124;";
 
@@ -52,9 +54,11 @@ public class DataExporterMarkdownTable extends StreamExporterAbstract {
     private String nullString;
     private boolean showHeaderSeparator;
     private boolean confluenceFormat;
+    private boolean rawValues;
     private List<DBDAttributeBinding> columns;
 
     private final StringBuilder buffer = new StringBuilder();
+    private char[] rawChars = new char[256];
 
     @Override
     public void init(IStreamDataExporterSite site) throws DBException
@@ -66,6 +70,9 @@ public class DataExporterMarkdownTable extends StreamExporterAbstract {
         rowDelimiter = GeneralUtils.getDefaultLineSeparator();
         showHeaderSeparator = CommonUtils.getBoolean(site.getProperties().get(PROP_SHOW_HEADER_SEPARATOR), true);
         confluenceFormat = CommonUtils.getBoolean(site.getProperties().get(PROP_CONFLUENCE_FORMAT), false);
+        // Raw mode writes numbers in native form, so it is only possible when numbers are not formatted
+        rawValues = CommonUtils.toBoolean(site.getProperties().get(PROP_RAW_VALUES)) &&
+            !CommonUtils.toBoolean(site.getProperties().get(PROP_FORMAT_NUMBERS));
     }
 
     @Override
@@ -143,6 +150,8 @@ public class DataExporterMarkdownTable extends StreamExporterAbstract {
                 finally {
                     content.release();
                 }
+            } else if (rawValues && appendRawCellValue(column, row[i])) {
+                writeRawCellValue();
             } else {
                 writeCellValue(super.getValueDisplayString(column, row[i]));
             }
@@ -173,6 +182,34 @@ public class DataExporterMarkdownTable extends StreamExporterAbstract {
         getWriter().write(value);
     }
 
+    private boolean appendRawCellValue(DBDAttributeBinding column, Object value)
+    {
+        buffer.setLength(0);
+        return appendRawValue(buffer, column, value);
+    }
+
+    /**
+     * Writes value collected in buffer. Same escaping as {@link #writeCellValue(String)} but without intermediate strings.
+     */
+    private void writeRawCellValue()
+    {
+        final int length = buffer.length();
+        if (rawChars.length < length) {
+            rawChars = new char[Math.max(length, rawChars.length * 2)];
+        }
+        buffer.getChars(0, length, rawChars, 0);
+        PrintWriter out = getWriter();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (rawChars[i] == '|') {
+                out.write(rawChars, start, i - start);
+                out.write(PIPE_ESCAPE);
+                start = i + 1;
+            }
+        }
+        out.write(rawChars, start, length - start);
+    }
+
     private void writeCellValue(Reader reader) throws IOException
     {
         try {
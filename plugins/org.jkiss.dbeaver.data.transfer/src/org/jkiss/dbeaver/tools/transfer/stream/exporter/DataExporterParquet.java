@@ -0,0 +1,406 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetColumn;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetWriter;
+import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parquet exporter.
+ * Values are written in typed columns (not as strings), column chunks are compressed with the block codec.
+ */
+public class DataExporterParquet extends StreamExporterAbstract {
+
+    private static final String PROP_COMPRESSION = "compression";
+    private static final String PROP_ROW_GROUP_SIZE = "rowGroupSize";
+
+    private static final String CREATED_BY = "DBeaver";
+    static final int MAX_DECIMAL_PRECISION = 38;
+
+    // ISO date, date-time (with 'T' or space) and time, optionally with offset (+03, +0300, +03:00, Z)
+    private static final DateTimeFormatter ISO_DATE_TIME_FORMAT = new DateTimeFormatterBuilder()
+        .parseCaseInsensitive()
+        .append(DateTimeFormatter.ISO_LOCAL_DATE)
+        .optionalStart()
+            .optionalStart().appendLiteral('T').optionalEnd()
+            .optionalStart().appendLiteral(' ').optionalEnd()
+            .append(DateTimeFormatter.ISO_LOCAL_TIME)
+            .optionalStart()
+                .optionalStart().appendLiteral(' ').optionalEnd()
+                .optionalStart().appendOffset("+HH:MM:ss", "Z").optionalEnd()
+                .optionalStart().appendOffset("+HHmm", "Z").optionalEnd()
+            .optionalEnd()
+        .optionalEnd()
+        .toFormatter();
+    private static final DateTimeFormatter ISO_TIME_FORMAT = new DateTimeFormatterBuilder()
+        .parseCaseInsensitive()
+        .append(DateTimeFormatter.ISO_LOCAL_TIME)
+        .optionalStart()
+            .optionalStart().appendLiteral(' ').optionalEnd()
+            .optionalStart().appendOffset("+HH:MM:ss", "Z").optionalEnd()
+            .optionalStart().appendOffset("+HHmm", "Z").optionalEnd()
+        .optionalEnd()
+        .toFormatter();
+
+    private List<DBDAttributeBinding> columns;
+    private ParquetColumn[] parquetColumns;
+    private Object[] parquetRow;
+    private ParquetWriter writer;
+    private int codec;
+    private long rowGroupSize;
+
+    @Override
+    public void init(IStreamDataExporterSite site) throws DBException
+    {
+        super.init(site);
+        String compression = CommonUtils.toString(site.getProperties().get(PROP_COMPRESSION), "snappy");
+        if ("none".equalsIgnoreCase(compression)) {
+            codec = ParquetWriter.CODEC_UNCOMPRESSED;
+        } else if ("gzip".equalsIgnoreCase(compression)) {
+            codec = ParquetWriter.CODEC_GZIP;
+        } else {
+            codec = ParquetWriter.CODEC_SNAPPY;
+        }
+        int rowGroupSizeMb = CommonUtils.toInt(site.getProperties().get(PROP_ROW_GROUP_SIZE), 128);
+        rowGroupSize = Math.max(1, rowGroupSizeMb) * 1024L * 1024L;
+    }
+
+    @Override
+    public void exportHeader(DBCSession session) throws DBException, IOException
+    {
+        columns = getSite().getAttributes();
+        parquetColumns = new ParquetColumn[columns.size()];
+        parquetRow = new Object[columns.size()];
+        Set<String> columnNames = new HashSet<>();
+        boolean nativeDateTime = isNativeDateTimeFormat(session);
+        for (int i = 0; i < columns.size(); i++) {
+            DBDAttributeBinding column = columns.get(i);
+            parquetColumns[i] = makeParquetColumn(makeUniqueColumnName(column, columnNames), column, nativeDateTime);
+        }
+        writer = new ParquetWriter(getSite().getOutputStream(), Arrays.asList(parquetColumns), codec, rowGroupSize, CREATED_BY);
+    }
+
+    @Override
+    public void exportRow(DBCSession session, DBCResultSet resultSet, Object[] row) throws DBException, IOException
+    {
+        for (int i = 0; i < row.length && i < parquetColumns.length; i++) {
+            parquetRow[i] = convertValue(session, columns.get(i), parquetColumns[i], row[i]);
+        }
+        writer.writeRow(parquetRow);
+    }
+
+    @Override
+    public void exportFooter(DBRProgressMonitor monitor) throws DBException, IOException
+    {
+        if (writer != null) {
+            writer.finish();
+        }
+    }
+
+    /**
+     * Date/time values are read as strings in native format mode. Such columns are written as strings too.
+     */
+    static boolean isNativeDateTimeFormat(DBCSession session) {
+        return session != null &&
+            session.getDataSource().getContainer().getPreferenceStore().getBoolean(ModelPreferences.RESULT_NATIVE_DATETIME_FORMAT);
+    }
+
+    private static ParquetColumn makeParquetColumn(String name, DBDAttributeBinding column, boolean nativeDateTime) {
+        switch (column.getDataKind()) {
+            case BOOLEAN:
+                return new ParquetColumn(name, ParquetColumn.TYPE_BOOLEAN, ParquetColumn.CONVERTED_NONE);
+            case NUMERIC:
+                switch (column.getTypeID()) {
+                    case Types.BIT:
+                    case Types.TINYINT:
+                        return new ParquetColumn(name, ParquetColumn.TYPE_INT32, ParquetColumn.CONVERTED_INT_8);
+                    case Types.SMALLINT:
+                        return new ParquetColumn(name, ParquetColumn.TYPE_INT32, ParquetColumn.CONVERTED_INT_16);
+                    case Types.INTEGER:
+                        return new ParquetColumn(name, ParquetColumn.TYPE_INT32, ParquetColumn.CONVERTED_NONE);
+                    case Types.BIGINT:
+                        return new ParquetColumn(name, ParquetColumn.TYPE_INT64, ParquetColumn.CONVERTED_NONE);
+                    case Types.REAL:
+                        return new ParquetColumn(name, ParquetColumn.TYPE_FLOAT, ParquetColumn.CONVERTED_NONE);
+                    case Types.FLOAT:
+                    case Types.DOUBLE:
+                        return new ParquetColumn(name, ParquetColumn.TYPE_DOUBLE, ParquetColumn.CONVERTED_NONE);
+                    default: {
+                        int precision = CommonUtils.toInt(column.getPrecision());
+                        int scale = CommonUtils.toInt(column.getScale());
+                        if (precision > 0 && precision <= MAX_DECIMAL_PRECISION && scale >= 0 && scale <= precision) {
+                            int type = precision <= 9 ? ParquetColumn.TYPE_INT32 :
+                                precision <= 18 ? ParquetColumn.TYPE_INT64 : ParquetColumn.TYPE_BYTE_ARRAY;
+                            return ParquetColumn.decimal(name, type, precision, scale);
+                        }
+                        // Unknown precision. Write as string to keep all digits
+                        return new ParquetColumn(name, ParquetColumn.TYPE_BYTE_ARRAY, ParquetColumn.CONVERTED_UTF8);
+                    }
+                }
+            case DATETIME:
+                if (nativeDateTime) {
+                    return new ParquetColumn(name, ParquetColumn.TYPE_BYTE_ARRAY, ParquetColumn.CONVERTED_UTF8);
+                }
+                switch (column.getTypeID()) {
+                    case Types.DATE:
+                        return new ParquetColumn(name, ParquetColumn.TYPE_INT32, ParquetColumn.CONVERTED_DATE);
+                    case Types.TIME:
+                    case Types.TIME_WITH_TIMEZONE:
+                        return new ParquetColumn(name, ParquetColumn.TYPE_INT32, ParquetColumn.CONVERTED_TIME_MILLIS);
+                    default:
+                        return new ParquetColumn(name, ParquetColumn.TYPE_INT64, ParquetColumn.CONVERTED_TIMESTAMP_MILLIS);
+                }
+            case BINARY:
+                return new ParquetColumn(name, ParquetColumn.TYPE_BYTE_ARRAY, ParquetColumn.CONVERTED_NONE);
+            case CONTENT:
+                switch (column.getTypeID()) {
+                    case Types.BLOB:
+                    case Types.LONGVARBINARY:
+                    case Types.VARBINARY:
+                    case Types.BINARY:
+                        return new ParquetColumn(name, ParquetColumn.TYPE_BYTE_ARRAY, ParquetColumn.CONVERTED_NONE);
+                    default:
+                        return new ParquetColumn(name, ParquetColumn.TYPE_BYTE_ARRAY, ParquetColumn.CONVERTED_UTF8);
+                }
+            default:
+                // Strings and complex values are written as strings
+                return new ParquetColumn(name, ParquetColumn.TYPE_BYTE_ARRAY, ParquetColumn.CONVERTED_UTF8);
+        }
+    }
+
+    private Object convertValue(DBCSession session, DBDAttributeBinding column, ParquetColumn parquetColumn, Object value) throws DBException, IOException {
+        if (DBUtils.isNullValue(value)) {
+            return null;
+        }
+        if (value instanceof DBDContent) {
+            value = readContent(session, (DBDContent) value, parquetColumn.getConvertedType() == ParquetColumn.CONVERTED_UTF8);
+            if (value == null) {
+                return null;
+            }
+        }
+        switch (parquetColumn.getType()) {
+            case ParquetColumn.TYPE_BOOLEAN:
+                return value instanceof Boolean ? value : CommonUtils.toBoolean(value);
+            case ParquetColumn.TYPE_INT32:
+                switch (parquetColumn.getConvertedType()) {
+                    case ParquetColumn.CONVERTED_DECIMAL:
+                        return getUnscaledDecimal(column, parquetColumn, value).intValue();
+                    case ParquetColumn.CONVERTED_DATE:
+                        return toEpochDay(column, value);
+                    case ParquetColumn.CONVERTED_TIME_MILLIS:
+                        return toMillisOfDay(column, value);
+                    default:
+                        return toNumber(column, value).intValue();
+                }
+            case ParquetColumn.TYPE_INT64:
+                switch (parquetColumn.getConvertedType()) {
+                    case ParquetColumn.CONVERTED_DECIMAL:
+                        return getUnscaledDecimal(column, parquetColumn, value).longValue();
+                    case ParquetColumn.CONVERTED_TIMESTAMP_MILLIS:
+                        return toDate(column, value).getTime();
+                    default:
+                        return toNumber(column, value).longValue();
+                }
+            case ParquetColumn.TYPE_FLOAT:
+                return toNumber(column, value).floatValue();
+            case ParquetColumn.TYPE_DOUBLE:
+                return toNumber(column, value).doubleValue();
+            default:
+                if (parquetColumn.getConvertedType() == ParquetColumn.CONVERTED_DECIMAL) {
+                    return getUnscaledDecimal(column, parquetColumn, value).toByteArray();
+                } else if (parquetColumn.getConvertedType() == ParquetColumn.CONVERTED_UTF8) {
+                    String strValue;
+                    if (value instanceof String) {
+                        strValue = (String) value;
+                    } else if (value instanceof BigDecimal) {
+                        strValue = ((BigDecimal) value).toPlainString();
+                    } else {
+                        strValue = super.getValueDisplayString(column, value);
+                    }
+                    return strValue.getBytes(StandardCharsets.UTF_8);
+                } else if (value instanceof byte[]) {
+                    return value;
+                } else {
+                    return super.getValueDisplayString(column, value).getBytes(StandardCharsets.UTF_8);
+                }
+        }
+    }
+
+    /**
+     * Column names must be unique, so duplicates get numeric suffix
+     */
+    static String makeUniqueColumnName(DBDAttributeBinding column, Set<String> columnNames) {
+        String colName = column.getLabel();
+        if (CommonUtils.isEmpty(colName)) {
+            colName = column.getName();
+        }
+        String uniqueName = colName;
+        for (int k = 2; !columnNames.add(uniqueName); k++) {
+            uniqueName = colName + "_" + k;
+        }
+        return uniqueName;
+    }
+
+    static Object readContent(DBCSession session, DBDContent content, boolean isText) throws DBException, IOException {
+        try {
+            DBDContentStorage cs = content.getContents(session.getProgressMonitor());
+            if (cs == null) {
+                return null;
+            }
+            if (isText) {
+                try (Reader reader = cs.getContentReader()) {
+                    return IOUtils.readToString(reader);
+                }
+            } else {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                try (InputStream stream = cs.getContentStream()) {
+                    IOUtils.copyStream(stream, buffer);
+                }
+                return buffer.toByteArray();
+            }
+        } finally {
+            content.release();
+        }
+    }
+
+    private static BigInteger getUnscaledDecimal(DBDAttributeBinding column, ParquetColumn parquetColumn, Object value) throws DBException {
+        int maxBits = parquetColumn.getType() == ParquetColumn.TYPE_INT32 ? 31 : parquetColumn.getType() == ParquetColumn.TYPE_INT64 ? 63 : Integer.MAX_VALUE;
+        return toUnscaledDecimal(column, value, parquetColumn.getPrecision(), parquetColumn.getScale(), maxBits);
+    }
+
+    static BigInteger toUnscaledDecimal(DBDAttributeBinding column, Object value, int precision, int scale, int maxBits) throws DBException {
+        BigDecimal decimal;
+        if (value instanceof BigDecimal) {
+            decimal = (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            decimal = new BigDecimal((BigInteger) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            decimal = BigDecimal.valueOf(((Number) value).longValue());
+        } else {
+            decimal = new BigDecimal(toNumber(column, value).toString());
+        }
+        BigInteger unscaled = decimal.setScale(scale, RoundingMode.HALF_UP).unscaledValue();
+        if (unscaled.bitLength() > maxBits || decimal.precision() - decimal.scale() > precision - scale) {
+            throw new DBException("Value " + decimal.toPlainString() + " of column '" + column.getName() + "' is out of DECIMAL(" +
+                precision + "," + scale + ") range");
+        }
+        return unscaled;
+    }
+
+    static Number toNumber(DBDAttributeBinding column, Object value) throws DBException {
+        if (value instanceof Number) {
+            return (Number) value;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        } else if (value instanceof String) {
+            try {
+                return new BigDecimal(((String) value).trim());
+            } catch (NumberFormatException e) {
+                // Fall through
+            }
+        }
+        throw new DBException("Can't convert value '" + value + "' of column '" + column.getName() + "' to number");
+    }
+
+    static int toEpochDay(DBDAttributeBinding column, Object value) throws DBException {
+        if (value instanceof java.sql.Date) {
+            return (int) ((java.sql.Date) value).toLocalDate().toEpochDay();
+        } else if (value instanceof String) {
+            // Date as is, without time zone conversions
+            return (int) LocalDate.from(parseDateTime(column, (String) value, ISO_DATE_TIME_FORMAT)).toEpochDay();
+        }
+        return (int) toDate(column, value).toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    static int toMillisOfDay(DBDAttributeBinding column, Object value) throws DBException {
+        if (value instanceof java.sql.Time) {
+            return (int) (((java.sql.Time) value).toLocalTime().toNanoOfDay() / 1000000);
+        } else if (value instanceof String) {
+            String strValue = ((String) value).trim();
+            TemporalAccessor time = parseDateTime(column, strValue,
+                strValue.length() > 4 && strValue.charAt(4) == '-' ? ISO_DATE_TIME_FORMAT : ISO_TIME_FORMAT);
+            if (time.isSupported(ChronoField.NANO_OF_DAY)) {
+                return (int) (LocalTime.from(time).toNanoOfDay() / 1000000);
+            }
+            return 0;
+        }
+        return (int) (toDate(column, value).toInstant().atZone(ZoneId.systemDefault()).toLocalTime().toNanoOfDay() / 1000000);
+    }
+
+    static Date toDate(DBDAttributeBinding column, Object value) throws DBException {
+        if (value instanceof Date) {
+            return (Date) value;
+        } else if (value instanceof Number) {
+            return new Date(((Number) value).longValue());
+        } else if (value instanceof String) {
+            TemporalAccessor dateTime = parseDateTime(column, (String) value, ISO_DATE_TIME_FORMAT);
+            if (dateTime.isSupported(ChronoField.INSTANT_SECONDS)) {
+                return Date.from(Instant.from(dateTime));
+            }
+            // Local date/time. Use default time zone, like JDBC timestamps do
+            LocalTime time = dateTime.isSupported(ChronoField.NANO_OF_DAY) ? LocalTime.from(dateTime) : LocalTime.MIDNIGHT;
+            return Date.from(LocalDateTime.of(LocalDate.from(dateTime), time).atZone(ZoneId.systemDefault()).toInstant());
+        }
+        throw new DBException("Can't convert value '" + value + "' of column '" + column.getName() + "' to date/time");
+    }
+
+    private static TemporalAccessor parseDateTime(DBDAttributeBinding column, String value, DateTimeFormatter format) throws DBException {
+        try {
+            return format.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new DBException("Can't parse date/time value '" + value + "' of column '" + column.getName() + "'", e);
+        }
+    }
+
+}
@@ -43,6 +43,7 @@ public class DataExporterTXT extends StreamExporterAbstract {
     private static final String PROP_SHOW_NULLS = "showNulls";
     private static final String PROP_DELIM_LEADING = "delimLeading";
     private static final String PROP_DELIM_TRAILING = "delimTrailing";
+    private static final String PROP_RAW_VALUES = "rawValues";
 
     private List<DBDAttributeBinding> columns;
     private String tableName;
@@ -50,6 +51,7 @@ public class DataExporterTXT extends StreamExporterAbstract {
     private int minColumnSize = 3;
     private boolean showNulls;
     private boolean delimLeading, delimTrailing;
+    private boolean rawValues;
 
     private int[] colWidths;
 
@@ -61,6 +63,7 @@ public class DataExporterTXT extends StreamExporterAbstract {
         this.showNulls = CommonUtils.getBoolean(properties.get(PROP_SHOW_NULLS), false);
         this.delimLeading = CommonUtils.getBoolean(properties.get(PROP_DELIM_LEADING), true);
         this.delimTrailing = CommonUtils.getBoolean(properties.get(PROP_DELIM_TRAILING), true);
+        this.rawValues = CommonUtils.getBoolean(properties.get(PROP_RAW_VALUES), false);
     }
 
     @Override
@@ -138,12 +141,20 @@ public class DataExporterTXT extends StreamExporterAbstract {
         for (int k = 0; k < columns.size(); k++) {
             if (k > 0) txt.append("|");
             DBDAttributeBinding attr = columns.get(k);
-            String displayString = getCellString(attr, row[k], DBDDisplayFormat.EDIT);
-            if (displayString.length() > colWidths[k]) {
-                displayString = CommonUtils.truncateString(displayString, colWidths[k]);
+            int cellStart = txt.length();
+            if (rawValues && appendRawValue(txt, attr, row[k])) {
+                makeSingleLine(txt, cellStart);
+                if (txt.length() - cellStart > colWidths[k]) {
+                    txt.setLength(cellStart + colWidths[k]);
+                }
+            } else {
+                String displayString = getCellString(attr, row[k], DBDDisplayFormat.EDIT);
+                if (displayString.length() > colWidths[k]) {
+                    displayString = CommonUtils.truncateString(displayString, colWidths[k]);
+                }
+                txt.append(displayString);
             }
-            txt.append(displayString);
-            for (int j = colWidths[k] - displayString.length(); j > 0; j--) {
+            for (int j = colWidths[k] - (txt.length() - cellStart); j > 0; j--) {
                 txt.append(" ");
             }
         }
@@ -165,4 +176,24 @@ public class DataExporterTXT extends StreamExporterAbstract {
         return CommonUtils.getSingleLineString(displayString);
     }
 
+    /**
+     * Same as {@link CommonUtils#getSingleLineString(String)} for the text after start, in place
+     */
+    private static void makeSingleLine(StringBuilder txt, int start) {
+        int pos = start;
+        for (int i = start; i < txt.length(); i++) {
+            char c = txt.charAt(i);
+            if (c == '\r') {
+                continue;
+            }
+            if (c == '\n') {
+                c = CommonUtils.PARAGRAPH_CHAR;
+            } else if (c == '\t' || c == 0) {
+                c = ' ';
+            }
+            txt.setCharAt(pos++, c);
+        }
+        txt.setLength(pos);
+    }
+
 }
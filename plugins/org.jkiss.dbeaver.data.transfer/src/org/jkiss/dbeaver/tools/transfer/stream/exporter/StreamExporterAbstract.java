@@ -25,14 +25,37 @@ import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
 
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
 
 /**
  * Abstract Exporter
  */
 public abstract class StreamExporterAbstract implements IStreamDataExporter {
 
+    // Veltkamp splitter (2^27 + 1) for exact products
+    private static final double SPLITTER = 134217729.0;
+    // Exact double powers of ten. 5^22 is the largest power of five which fits into double mantissa.
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long[] LONG_POWERS_OF_TEN = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+        10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L,
+        1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L
+    };
+    // Scaled values must fit into long
+    private static final double MAX_SCALED_VALUE = 0x1p62;
+
     private IStreamDataExporterSite site;
     private DBDDisplayFormat exportFormat;
+    private Calendar rawCalendar;
 
     public IStreamDataExporterSite getSite()
     {
@@ -76,4 +99,230 @@ public abstract class StreamExporterAbstract implements IStreamDataExporter {
         return this.exportFormat;
     }
 
+    /**
+     * Appends value in raw (locale independent) form, skipping value handler and display formatters.
+     * Returns false if there is no raw encoder for this value - caller must use {@link #getValueDisplayString} then.
+     */
+    protected boolean appendRawValue(StringBuilder out, DBDAttributeBinding column, Object value)
+    {
+        if (column.isTransformed()) {
+            return false;
+        }
+        if (value instanceof String) {
+            out.append((String) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            out.append(((Number) value).longValue());
+        } else if (value instanceof BigDecimal) {
+            out.append(((BigDecimal) value).toPlainString());
+        } else if (value instanceof BigInteger) {
+            out.append(value.toString());
+        } else if (value instanceof Double) {
+            return appendRawDouble(out, (Double) value);
+        } else if (value instanceof Float) {
+            // Float is not widened to double, otherwise 0.1f would be written as 0.10000000149011612
+            return appendRawFloat(out, (Float) value);
+        } else if (value instanceof Boolean) {
+            out.append(((Boolean) value).booleanValue());
+        } else if (value instanceof Date) {
+            return appendRawDate(out, (Date) value);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean appendRawDouble(StringBuilder out, double value)
+    {
+        double abs = Math.abs(value);
+        if (abs != 0 && (abs < 1e-3 || abs >= 1e7)) {
+            // Scientific notation - leave it to native formatter
+            return false;
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value) || isNegativeZero(value)) {
+            return false;
+        }
+        if (value == 0) {
+            out.append('0');
+            return true;
+        }
+        long bits = Double.doubleToRawLongBits(abs);
+        return appendShortestDecimal(out, value, Math.ulp(abs), (bits & 1) == 0, (bits & 0xFFFFFFFFFFFFFL) == 0);
+    }
+
+    private static boolean appendRawFloat(StringBuilder out, float value)
+    {
+        float abs = Math.abs(value);
+        if (abs != 0 && (abs < 1e-3f || abs >= 1e7f)) {
+            // Scientific notation - leave it to native formatter
+            return false;
+        }
+        if (Float.isNaN(value) || Float.isInfinite(value) || isNegativeZero(value)) {
+            return false;
+        }
+        if (value == 0) {
+            out.append('0');
+            return true;
+        }
+        int bits = Float.floatToRawIntBits(abs);
+        return appendShortestDecimal(out, value, Math.ulp(abs), (bits & 1) == 0, (bits & 0x7FFFFF) == 0);
+    }
+
+    /**
+     * Appends the shortest plain decimal which is read back as the same value (digits of Double.toString or
+     * Float.toString, without the ".0" of integral values). Nothing is allocated.
+     * <p>
+     * For each scale (count of fraction digits) value is multiplied by power of ten. Product error is found exactly
+     * (Dekker's product), so the distances of two nearest integers from the exact scaled value are known with a single
+     * rounding. Distances and bounds of the rounding interval (halves of ulp, scaled) are multiples of 2^(exponent+scale)/4,
+     * while the rounding error is below bound/5^scale - so every comparison is exact for scales up to 22.
+     *
+     * @param ulp          ulp of the value (of its float or double type)
+     * @param evenMantissa decimals on the interval bounds are rounded to the value
+     * @param lowerGapHalf value is power of two, so the gap to the lower value is half of ulp
+     * @return false if value has no such decimal of up to 18 digits (nothing is appended)
+     */
+    private static boolean appendShortestDecimal(StringBuilder out, double value, double ulp, boolean evenMantissa, boolean lowerGapHalf)
+    {
+        double abs = Math.abs(value);
+        for (int scale = 0; scale < DOUBLE_POWERS_OF_TEN.length; scale++) {
+            double power = DOUBLE_POWERS_OF_TEN[scale];
+            double product = abs * power;
+            if (product >= MAX_SCALED_VALUE) {
+                break;
+            }
+            // abs * power == product + error
+            double error = productError(abs, power, product);
+            double upperBound = ulp * power / 2;
+            double lowerBound = lowerGapHalf ? upperBound / 2 : upperBound;
+            double floor = Math.floor(product);
+            double fraction = product - floor;
+            long lower = (long) floor;
+            double lowerDistance, upperDistance;
+            if (fraction == 0) {
+                // Integral product may be a few units away from the exact value (its ulp is above 1 after 2^53)
+                double errorFloor = Math.floor(error);
+                lower += (long) errorFloor;
+                lowerDistance = error - errorFloor;
+                upperDistance = (errorFloor + 1) - error;
+            } else {
+                lowerDistance = fraction + error;
+                upperDistance = (1 - fraction) - error;
+            }
+            boolean lowerFits = lowerDistance < lowerBound || (lowerDistance == lowerBound && evenMantissa);
+            boolean upperFits = upperDistance < upperBound || (upperDistance == upperBound && evenMantissa);
+            if (lowerFits || upperFits) {
+                long digits;
+                if (lowerFits && upperFits) {
+                    // Take the nearest one, or the even one if both are equally close
+                    digits = lowerDistance < upperDistance || (lowerDistance == upperDistance && (lower & 1) == 0) ? lower : lower + 1;
+                } else {
+                    digits = lowerFits ? lower : lower + 1;
+                }
+                appendScaledDecimal(out, value < 0, digits, scale);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the rounding error of product = a * b
+     */
+    private static double productError(double a, double b, double product)
+    {
+        double split = SPLITTER * a;
+        double aHigh = split - (split - a);
+        double aLow = a - aHigh;
+        split = SPLITTER * b;
+        double bHigh = split - (split - b);
+        double bLow = b - bHigh;
+        return ((aHigh * bHigh - product) + aHigh * bLow + aLow * bHigh) + aLow * bLow;
+    }
+
+    /**
+     * Appends digits / 10^scale. The shortest decimal has no trailing zeros in fraction.
+     */
+    private static void appendScaledDecimal(StringBuilder out, boolean negative, long digits, int scale)
+    {
+        if (negative) {
+            out.append('-');
+        }
+        if (scale == 0) {
+            out.append(digits);
+            return;
+        }
+        long integral = scale < LONG_POWERS_OF_TEN.length ? digits / LONG_POWERS_OF_TEN[scale] : 0;
+        long fraction = scale < LONG_POWERS_OF_TEN.length ? digits % LONG_POWERS_OF_TEN[scale] : digits;
+        out.append(integral).append('.');
+        for (int i = scale - 1; i > 0 && (i >= LONG_POWERS_OF_TEN.length || fraction < LONG_POWERS_OF_TEN[i]); i--) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+
+    /**
+     * Negative zero has no raw form: "-0.0" can't be trimmed to integral "-0"
+     */
+    private static boolean isNegativeZero(double value)
+    {
+        return value == 0 && Double.doubleToRawLongBits(value) != 0;
+    }
+
+    /**
+     * Returns false for BC dates (nothing is appended): there is no raw form for them, display formatter prints the era.
+     */
+    private boolean appendRawDate(StringBuilder out, Date value)
+    {
+        if (rawCalendar == null) {
+            // Not Calendar.getInstance(): it is Buddhist or Japanese calendar in some locales
+            rawCalendar = new GregorianCalendar();
+        }
+        rawCalendar.setTime(value);
+        if (rawCalendar.get(Calendar.ERA) == GregorianCalendar.BC) {
+            return false;
+        }
+        if (!(value instanceof Time)) {
+            appendDigits(out, rawCalendar.get(Calendar.YEAR), 4);
+            out.append('-');
+            appendDigits(out, rawCalendar.get(Calendar.MONTH) + 1, 2);
+            out.append('-');
+            appendDigits(out, rawCalendar.get(Calendar.DAY_OF_MONTH), 2);
+            if (value instanceof java.sql.Date) {
+                return true;
+            }
+            out.append(' ');
+        }
+        appendDigits(out, rawCalendar.get(Calendar.HOUR_OF_DAY), 2);
+        out.append(':');
+        appendDigits(out, rawCalendar.get(Calendar.MINUTE), 2);
+        out.append(':');
+        appendDigits(out, rawCalendar.get(Calendar.SECOND), 2);
+        if (value instanceof Time) {
+            return true;
+        }
+        int nanos = value instanceof Timestamp ?
+            ((Timestamp) value).getNanos() :
+            rawCalendar.get(Calendar.MILLISECOND) * 1000000;
+        if (nanos != 0) {
+            int digits = 9;
+            while (nanos % 10 == 0) {
+                nanos /= 10;
+                digits--;
+            }
+            out.append('.');
+            appendDigits(out, nanos, digits);
+        }
+        return true;
+    }
+
+    private static void appendDigits(StringBuilder out, int value, int width)
+    {
+        for (int limit = 10, i = 1; i < width; i++, limit *= 10) {
+            if (value < limit) {
+                out.append('0');
+            }
+        }
+        out.append(value);
+    }
+
 }
\ No newline at end of file
@@ -26,13 +26,24 @@ import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
 import org.jkiss.dbeaver.tools.transfer.stream.*;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.IOUtils;
 
 import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * CSV importer
@@ -49,6 +60,13 @@ public class DataImporterCSV extends StreamImporterAbstract {
     private static final String PROP_EMPTY_STRING_NULL = "emptyStringNull";
     private static final String PROP_ESCAPE_CHAR = "escapeChar";
     private static final String PROP_TIMESTAMP_FORMAT = "timestampFormat";
+    private static final String PROP_PARSE_THREADS = "parseThreads";
+    private static final String PROP_PARSE_CHUNK_SIZE = "parseChunkSize";
+
+    // Chunked import: file is split into chunks of about this size (in KB) which are parsed in parallel
+    private static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+    // Size of mapped window used to find chunk boundaries
+    private static final int SCAN_WINDOW_SIZE = 64 * 1024 * 1024;
 
     enum HeaderPosition {
         none,
@@ -105,15 +123,23 @@ public class DataImporterCSV extends StreamImporterAbstract {
 
     private CSVReader openCSVReader(Reader reader, Map<Object, Object> processorProperties) {
         String delimiter = StreamTransferUtils.getDelimiterString(processorProperties, PROP_DELIMITER);
+        return new CSVReader(reader, delimiter.charAt(0), getQuoteChar(processorProperties), getEscapeChar(processorProperties));
+    }
+
+    private static char getQuoteChar(Map<Object, Object> processorProperties) {
         String quoteChar = CommonUtils.toString(processorProperties.get(PROP_QUOTE_CHAR));
         if (CommonUtils.isEmpty(quoteChar)) {
             quoteChar = "'";
         }
+        return quoteChar.charAt(0);
+    }
+
+    private static char getEscapeChar(Map<Object, Object> processorProperties) {
         String escapeChar = CommonUtils.toString(processorProperties.get(PROP_ESCAPE_CHAR));
         if (CommonUtils.isEmpty(escapeChar)) {
             escapeChar = "\\";
         }
-        return new CSVReader(reader, delimiter.charAt(0), quoteChar.charAt(0), escapeChar.charAt(0));
+        return escapeChar.charAt(0);
     }
 
     private InputStreamReader openStreamReader(InputStream inputStream, Map<Object, Object> processorProperties) throws UnsupportedEncodingException {
@@ -150,6 +176,23 @@ public class DataImporterCSV extends StreamImporterAbstract {
 
             consumer.fetchStart(producerSession, resultSet, -1, -1);
 
+            int parseThreads = CommonUtils.toInt(properties.get(PROP_PARSE_THREADS));
+            Charset charset = getChunkedImportCharset(properties);
+            if (parseThreads > 1 && charset != null && inputStream instanceof FileInputStream) {
+                try {
+                    runChunkedImport(monitor, ((FileInputStream) inputStream).getChannel(), charset, parseThreads, producerSession, resultSet, consumer);
+                } catch (IOException e) {
+                    throw new DBException("IO error reading CSV", e);
+                } finally {
+                    try {
+                        consumer.fetchEnd(producerSession, resultSet);
+                    } finally {
+                        consumer.close();
+                    }
+                }
+                return;
+            }
+
             try (Reader reader = openStreamReader(inputStream, properties)) {
                 try (CSVReader csvReader = openCSVReader(reader, properties)) {
 
@@ -173,29 +216,7 @@ public class DataImporterCSV extends StreamImporterAbstract {
                             break;
                         }
 
-                        if (line.length < targetAttrSize) {
-                            // Stream row may be shorter than header
-                            String[] newLine = new String[targetAttrSize];
-                            System.arraycopy(line, 0, newLine, 0, line.length);
-                            for (int i = line.length; i < targetAttrSize - line.length; i++) {
-                                newLine[i] = null;
-                            }
-                            line = newLine;
-                        }
-                        if (emptyStringNull) {
-                            for (int i = 0; i < line.length; i++) {
-                                if ("".equals(line[i])) {
-                                    line[i] = null;
-                                }
-                            }
-                        }
-                        if (!CommonUtils.isEmpty(nullValueMark)) {
-                            for (int i = 0; i < line.length; i++) {
-                                if (nullValueMark.equals(line[i])) {
-                                    line[i] = null;
-                                }
-                            }
-                        }
+                        line = prepareRow(line, targetAttrSize, emptyStringNull, nullValueMark);
 
                         resultSet.setStreamRow(line);
                         consumer.fetchRow(producerSession, resultSet);
@@ -214,4 +235,300 @@ public class DataImporterCSV extends StreamImporterAbstract {
         }
     }
 
+    private static String[] prepareRow(String[] line, int targetAttrSize, boolean emptyStringNull, String nullValueMark) {
+        if (line.length < targetAttrSize) {
+            // Stream row may be shorter than header
+            String[] newLine = new String[targetAttrSize];
+            System.arraycopy(line, 0, newLine, 0, line.length);
+            for (int i = line.length; i < targetAttrSize - line.length; i++) {
+                newLine[i] = null;
+            }
+            line = newLine;
+        }
+        if (emptyStringNull) {
+            for (int i = 0; i < line.length; i++) {
+                if ("".equals(line[i])) {
+                    line[i] = null;
+                }
+            }
+        }
+        if (!CommonUtils.isEmpty(nullValueMark)) {
+            for (int i = 0; i < line.length; i++) {
+                if (nullValueMark.equals(line[i])) {
+                    line[i] = null;
+                }
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Chunked import can split file at byte level only if delimiter, quote, escape and line feed characters
+     * can't be a part of multi-byte character.
+     */
+    private static Charset getChunkedImportCharset(Map<Object, Object> properties) {
+        try {
+            Charset charset = Charset.forName(CommonUtils.toString(properties.get(PROP_ENCODING), GeneralUtils.UTF8_ENCODING));
+            if (charset.newEncoder().maxBytesPerChar() == 1.0f) {
+                return charset;
+            }
+            if (charset.equals(StandardCharsets.UTF_8) &&
+                StreamTransferUtils.getDelimiterString(properties, PROP_DELIMITER).charAt(0) < 0x80 &&
+                getQuoteChar(properties) < 0x80 && getEscapeChar(properties) < 0x80)
+            {
+                return charset;
+            }
+        } catch (Exception e) {
+            log.debug("Can't use chunked CSV import: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Memory-maps input file and splits it into chunks at record boundaries.
+     * Chunks are parsed in parallel, rows are passed to consumer in the original order.
+     */
+    private void runChunkedImport(
+        DBRProgressMonitor monitor,
+        FileChannel channel,
+        Charset charset,
+        int parseThreads,
+        StreamTransferSession producerSession,
+        StreamTransferResultSet resultSet,
+        IDataTransferConsumer consumer) throws IOException, DBException
+    {
+        IStreamDataImporterSite site = getSite();
+        Map<Object, Object> properties = site.getProcessorProperties();
+        boolean skipHeader = getHeaderPosition(properties) != HeaderPosition.none;
+        boolean emptyStringNull = CommonUtils.getBoolean(properties.get(PROP_EMPTY_STRING_NULL), false);
+        String nullValueMark = CommonUtils.toString(properties.get(PROP_NULL_STRING));
+        int maxRows = site.getSettings().getMaxRows();
+        int targetAttrSize = site.getSettings().getEntityMapping(site.getSourceObject()).getStreamColumns().size();
+        int chunkSize = Math.max(1, CommonUtils.toInt(properties.get(PROP_PARSE_CHUNK_SIZE), DEFAULT_CHUNK_SIZE)) * 1024;
+
+        ChunkSplitter splitter = new ChunkSplitter(
+            channel,
+            chunkSize,
+            (byte) StreamTransferUtils.getDelimiterString(properties, PROP_DELIMITER).charAt(0),
+            (byte) getQuoteChar(properties),
+            (byte) getEscapeChar(properties));
+        ExecutorService executor = Executors.newFixedThreadPool(parseThreads, r -> {
+            Thread thread = new Thread(r, "CSV import parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Deque<Future<List<String[]>>> pendingChunks = new ArrayDeque<>();
+            int lineNum = 0;
+            boolean firstChunk = true;
+            while (!monitor.isCanceled()) {
+                // Keep all parsers busy, but do not read too far ahead of consumer
+                while (pendingChunks.size() < parseThreads * 2) {
+                    long[] chunk = splitter.nextChunk();
+                    if (chunk == null) {
+                        break;
+                    }
+                    boolean chunkHasHeader = firstChunk && skipHeader;
+                    firstChunk = false;
+                    pendingChunks.add(executor.submit(() -> {
+                        List<String[]> rows = new ArrayList<>();
+                        String text;
+                        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+                        try {
+                            text = charset.decode(buffer).toString();
+                        } finally {
+                            IOUtils.unmapBuffer(buffer);
+                        }
+                        try (CSVReader csvReader = openCSVReader(new StringReader(text), properties)) {
+                            boolean headerRead = !chunkHasHeader;
+                            for (String[] line = csvReader.readNext(); line != null; line = csvReader.readNext()) {
+                                if (line.length == 0) {
+                                    continue;
+                                }
+                                if (!headerRead) {
+                                    // First line is a header
+                                    headerRead = true;
+                                    continue;
+                                }
+                                rows.add(prepareRow(line, targetAttrSize, emptyStringNull, nullValueMark));
+                            }
+                        }
+                        return rows;
+                    }));
+                }
+                Future<List<String[]>> chunkRows = pendingChunks.poll();
+                if (chunkRows == null) {
+                    break;
+                }
+                List<String[]> rows;
+                try {
+                    rows = chunkRows.get();
+                } catch (InterruptedException e) {
+                    break;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new DBException("Error parsing CSV", cause);
+                }
+                for (String[] line : rows) {
+                    if ((maxRows > 0 && lineNum >= maxRows) || monitor.isCanceled()) {
+                        return;
+                    }
+                    resultSet.setStreamRow(line);
+                    consumer.fetchRow(producerSession, resultSet);
+                    lineNum++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            splitter.close();
+        }
+    }
+
+    /**
+     * Finds record boundaries. Line feeds inside quoted values are not boundaries so
+     * parser state is tracked through the whole file. This scan is much cheaper than CSV parsing.
+     * State follows opencsv 2.x parser: escape and doubled quote are recognized only inside quotes or inside a field,
+     * and "in field" state isn't reset at the end of line. Chunk parser starts outside of field, so chunk may start
+     * only at line where it doesn't matter.
+     */
+    static class ChunkSplitter implements AutoCloseable {
+        // Max number of bytes scanned to check that chunk parser gets the same state as sequential parser
+        private static final int MAX_STATE_LOOKAHEAD = 64;
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private final int chunkSize;
+        private final int scanWindowSize;
+        private final byte delimiter;
+        private final byte quoteChar;
+        private final byte escapeChar;
+
+        private long chunkStart;
+        private long scanPos;
+        private final ParseState state = new ParseState();
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        ChunkSplitter(FileChannel channel, int chunkSize, byte delimiter, byte quoteChar, byte escapeChar) throws IOException {
+            this(channel, chunkSize, SCAN_WINDOW_SIZE, delimiter, quoteChar, escapeChar);
+        }
+
+        ChunkSplitter(FileChannel channel, int chunkSize, int scanWindowSize, byte delimiter, byte quoteChar, byte escapeChar) throws IOException {
+            this.channel = channel;
+            this.fileSize = channel.size();
+            this.chunkSize = chunkSize;
+            this.scanWindowSize = scanWindowSize;
+            this.delimiter = delimiter;
+            this.quoteChar = quoteChar;
+            this.escapeChar = escapeChar;
+            this.chunkStart = channel.position();
+            this.scanPos = chunkStart;
+        }
+
+        /**
+         * @return next chunk bounds (start inclusive, end exclusive) or null if there are no more data
+         */
+        long[] nextChunk() throws IOException {
+            if (chunkStart >= fileSize) {
+                return null;
+            }
+            long minEnd = Math.min(fileSize, chunkStart + chunkSize);
+            while (scanPos < fileSize) {
+                boolean lineEnd = getByte(scanPos) == '\n';
+                scanPos = scanChar(state, scanPos);
+                if (lineEnd && scanPos >= minEnd && !state.inQuotes && isChunkStart(scanPos)) {
+                    break;
+                }
+            }
+            long[] chunk = new long[] { chunkStart, scanPos };
+            chunkStart = scanPos;
+            return chunk;
+        }
+
+        @Override
+        public void close() {
+            IOUtils.unmapBuffer(window);
+            window = null;
+        }
+
+        /**
+         * Checks that parser started at the given line gets the same state as the sequential parser
+         * (which may be inside a field after the previous line).
+         */
+        private boolean isChunkStart(long pos) throws IOException {
+            if (!state.inField) {
+                return true;
+            }
+            ParseState sequentialState = new ParseState();
+            sequentialState.inField = true;
+            ParseState chunkState = new ParseState();
+            long sequentialPos = pos, chunkPos = pos;
+            for (int i = 0; i < MAX_STATE_LOOKAHEAD; i++) {
+                if (sequentialPos == chunkPos &&
+                    (chunkPos >= fileSize || (sequentialState.inQuotes == chunkState.inQuotes && sequentialState.inField == chunkState.inField)))
+                {
+                    return true;
+                }
+                if (sequentialPos <= chunkPos) {
+                    sequentialPos = scanChar(sequentialState, sequentialPos);
+                } else {
+                    chunkPos = scanChar(chunkState, chunkPos);
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Updates parser state with the character at the given position.
+         * @return position of the next character
+         */
+        private long scanChar(ParseState state, long pos) throws IOException {
+            byte b = getByte(pos);
+            if (b == '\n' || b == '\r') {
+                // Line feeds are not passed to the parser
+                return pos + 1;
+            }
+            boolean hasNext = pos + 1 < fileSize;
+            if (b == escapeChar) {
+                if ((state.inQuotes || state.inField) && hasNext) {
+                    byte next = getByte(pos + 1);
+                    if (next == quoteChar || next == escapeChar) {
+                        return pos + 2;
+                    }
+                }
+            } else if (b == quoteChar) {
+                if ((state.inQuotes || state.inField) && hasNext && getByte(pos + 1) == quoteChar) {
+                    // Doubled quote
+                    state.inField = !state.inField;
+                    return pos + 2;
+                }
+                state.inQuotes = !state.inQuotes;
+                state.inField = !state.inField;
+            } else if (b == delimiter && !state.inQuotes) {
+                state.inField = false;
+            } else {
+                state.inField = true;
+            }
+            return pos + 1;
+        }
+
+        private byte getByte(long pos) throws IOException {
+            if (window == null || pos < windowStart || pos >= windowStart + window.limit()) {
+                IOUtils.unmapBuffer(window);
+                window = null;
+                windowStart = pos;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(scanWindowSize, fileSize - windowStart));
+            }
+            return window.get((int) (pos - windowStart));
+        }
+    }
+
+    private static class ParseState {
+        boolean inQuotes;
+        boolean inField;
+    }
+
 }
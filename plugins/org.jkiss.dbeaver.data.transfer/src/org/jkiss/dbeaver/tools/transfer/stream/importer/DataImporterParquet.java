@@ -0,0 +1,142 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.importer;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.impl.local.LocalStatement;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.stream.*;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetColumn;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetReader;
+
+import org.jkiss.utils.IOUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parquet importer.
+ * Parquet metadata is in the end of file so the reader needs random access.
+ * Local files are read in place, other input streams are copied into a temporary file first.
+ */
+public class DataImporterParquet extends StreamImporterAbstract {
+
+    public DataImporterParquet() {
+    }
+
+    @Override
+    public List<StreamDataImporterColumnInfo> readColumnsInfo(InputStream inputStream) throws DBException {
+        List<StreamDataImporterColumnInfo> columnsInfo = new ArrayList<>();
+        try (ParquetSource source = new ParquetSource(inputStream)) {
+            List<ParquetColumn> columns = source.reader.getColumns();
+            for (int i = 0; i < columns.size(); i++) {
+                columnsInfo.add(new StreamDataImporterColumnInfo(i, columns.get(i).getName()));
+            }
+        } catch (IOException e) {
+            throw new DBException("IO error reading Parquet file", e);
+        }
+        return columnsInfo;
+    }
+
+    @Override
+    public void runImport(DBRProgressMonitor monitor, InputStream inputStream, IDataTransferConsumer consumer) throws DBException {
+        IStreamDataImporterSite site = getSite();
+        StreamProducerSettings.EntityMapping entityMapping = site.getSettings().getEntityMapping(site.getSourceObject());
+
+        try (StreamTransferSession producerSession = new StreamTransferSession(monitor, DBCExecutionPurpose.UTIL, "Transfer stream data")) {
+            LocalStatement localStatement = new LocalStatement(producerSession, "SELECT * FROM Stream");
+            StreamTransferResultSet resultSet = new StreamTransferResultSet(producerSession, localStatement, entityMapping);
+
+            consumer.fetchStart(producerSession, resultSet, -1, -1);
+            try (ParquetSource source = new ParquetSource(inputStream)) {
+                ParquetReader reader = source.reader;
+                int maxRows = site.getSettings().getMaxRows();
+                int lineNum = 0;
+                for (Object[] row = reader.readRow(); row != null; row = reader.readRow()) {
+                    if ((maxRows > 0 && lineNum >= maxRows) || monitor.isCanceled()) {
+                        break;
+                    }
+                    resultSet.setStreamRow(row);
+                    consumer.fetchRow(producerSession, resultSet);
+                    lineNum++;
+                }
+            } catch (IOException e) {
+                throw new DBException("IO error reading Parquet file", e);
+            } finally {
+                try {
+                    consumer.fetchEnd(producerSession, resultSet);
+                } finally {
+                    consumer.close();
+                }
+            }
+        }
+    }
+
+    private static class ParquetSource implements AutoCloseable {
+        private final File tempFile;
+        private final FileChannel tempChannel;
+        private final ParquetReader reader;
+
+        ParquetSource(InputStream inputStream) throws IOException {
+            if (inputStream instanceof FileInputStream) {
+                // Channel belongs to the stream, it will be closed by the stream owner
+                tempFile = null;
+                tempChannel = null;
+                reader = new ParquetReader(((FileInputStream) inputStream).getChannel());
+                return;
+            }
+            tempFile = File.createTempFile("dbeaver-import", ".parquet");
+            FileChannel channel = null;
+            try {
+                Files.copy(inputStream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.READ);
+                reader = new ParquetReader(channel);
+            } catch (IOException | RuntimeException e) {
+                IOUtils.close(channel);
+                deleteTempFile(tempFile);
+                throw e;
+            }
+            tempChannel = channel;
+        }
+
+        @Override
+        public void close() {
+            if (tempFile != null) {
+                IOUtils.close(tempChannel);
+                deleteTempFile(tempFile);
+            }
+        }
+
+        private static void deleteTempFile(File file) {
+            if (!file.delete()) {
+                // Mapped column chunks may still lock the file (on Windows)
+                file.deleteOnExit();
+            }
+        }
+    }
+
+}
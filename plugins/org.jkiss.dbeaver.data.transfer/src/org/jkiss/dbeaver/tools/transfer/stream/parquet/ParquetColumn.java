@@ -0,0 +1,127 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+/**
+ * Parquet column (leaf schema element).
+ * Only flat schemas are supported, so each column is a direct child of the schema root.
+ */
+public class ParquetColumn {
+
+    // Physical types
+    public static final int TYPE_BOOLEAN = 0;
+    public static final int TYPE_INT32 = 1;
+    public static final int TYPE_INT64 = 2;
+    public static final int TYPE_INT96 = 3;
+    public static final int TYPE_FLOAT = 4;
+    public static final int TYPE_DOUBLE = 5;
+    public static final int TYPE_BYTE_ARRAY = 6;
+    public static final int TYPE_FIXED_LEN_BYTE_ARRAY = 7;
+
+    // Converted (logical) types
+    public static final int CONVERTED_NONE = -1;
+    public static final int CONVERTED_UTF8 = 0;
+    public static final int CONVERTED_ENUM = 4;
+    public static final int CONVERTED_DECIMAL = 5;
+    public static final int CONVERTED_DATE = 6;
+    public static final int CONVERTED_TIME_MILLIS = 7;
+    public static final int CONVERTED_TIME_MICROS = 8;
+    public static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+    public static final int CONVERTED_TIMESTAMP_MICROS = 10;
+    public static final int CONVERTED_INT_8 = 15;
+    public static final int CONVERTED_INT_16 = 16;
+    public static final int CONVERTED_INT_32 = 17;
+    public static final int CONVERTED_INT_64 = 18;
+    public static final int CONVERTED_JSON = 19;
+    // Not a real converted type. Used for nanosecond timestamps which are declared with logical type only.
+    static final int CONVERTED_TIMESTAMP_NANOS = 1000;
+    static final int CONVERTED_TIME_NANOS = 1001;
+
+    static final int REPETITION_REQUIRED = 0;
+    static final int REPETITION_OPTIONAL = 1;
+    static final int REPETITION_REPEATED = 2;
+
+    private final String name;
+    private final int type;
+    private final int convertedType;
+    private int typeLength;
+    private int precision;
+    private int scale;
+    private int repetition = REPETITION_OPTIONAL;
+
+    public ParquetColumn(String name, int type, int convertedType) {
+        this.name = name;
+        this.type = type;
+        this.convertedType = convertedType;
+    }
+
+    public static ParquetColumn decimal(String name, int type, int precision, int scale) {
+        ParquetColumn column = new ParquetColumn(name, type, CONVERTED_DECIMAL);
+        column.precision = precision;
+        column.scale = scale;
+        return column;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getConvertedType() {
+        return convertedType;
+    }
+
+    public int getTypeLength() {
+        return typeLength;
+    }
+
+    void setTypeLength(int typeLength) {
+        this.typeLength = typeLength;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    void setPrecision(int precision) {
+        this.precision = precision;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    void setScale(int scale) {
+        this.scale = scale;
+    }
+
+    int getRepetition() {
+        return repetition;
+    }
+
+    void setRepetition(int repetition) {
+        this.repetition = repetition;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + type + ")";
+    }
+}
@@ -0,0 +1,696 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Parquet file reader.
+ * <p>
+ * Supports flat schemas, PLAIN and dictionary encodings, data pages v1 and v2,
+ * uncompressed, GZIP and Snappy column chunks. Column chunks are memory-mapped and decoded page by page,
+ * so only one page per column is kept in memory.
+ */
+public class ParquetReader {
+
+    private static final int LOGICAL_STRING = 1;
+    private static final int LOGICAL_ENUM = 4;
+    private static final int LOGICAL_DECIMAL = 5;
+    private static final int LOGICAL_DATE = 6;
+    private static final int LOGICAL_TIME = 7;
+    private static final int LOGICAL_TIMESTAMP = 8;
+    private static final int LOGICAL_JSON = 12;
+
+    private static final long JULIAN_EPOCH_DAY = 2440588;
+    private static final long MILLIS_IN_DAY = 24L * 60 * 60 * 1000;
+
+    private final FileChannel channel;
+    private final List<ParquetColumn> columns = new ArrayList<>();
+    private final List<RowGroupInfo> rowGroups = new ArrayList<>();
+    private long rowCount;
+
+    private int currentRowGroup = -1;
+    private long rowGroupRowsLeft;
+    private ColumnReader[] columnReaders;
+
+    public ParquetReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        readFooter();
+    }
+
+    public List<ParquetColumn> getColumns() {
+        return columns;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Reads next row.
+     * @return row values or null if there are no more rows
+     */
+    public Object[] readRow() throws IOException {
+        while (rowGroupRowsLeft <= 0) {
+            if (currentRowGroup + 1 >= rowGroups.size()) {
+                return null;
+            }
+            openRowGroup(++currentRowGroup);
+        }
+        Object[] row = new Object[columnReaders.length];
+        for (int i = 0; i < columnReaders.length; i++) {
+            row[i] = columnReaders[i].readValue();
+        }
+        rowGroupRowsLeft--;
+        return row;
+    }
+
+    ////////////////////////////////////////////////////////////
+    // Metadata
+
+    private void readFooter() throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < ParquetWriter.MAGIC.length * 2 + 4) {
+            throw new IOException("File is too small to be a Parquet file");
+        }
+        ByteBuffer tail = readBuffer(fileSize - 8, 8);
+        int footerLength = tail.getInt();
+        byte[] magic = new byte[4];
+        tail.get(magic);
+        if (!Arrays.equals(magic, ParquetWriter.MAGIC)) {
+            throw new IOException("Not a Parquet file (bad magic)");
+        }
+        if (footerLength <= 0 || footerLength > fileSize - 12) {
+            throw new IOException("Bad Parquet footer length: " + footerLength);
+        }
+        ThriftCompactReader thrift = new ThriftCompactReader(readBuffer(fileSize - 8 - footerLength, footerLength));
+        thrift.beginStruct();
+        while (thrift.nextField()) {
+            switch (thrift.getFieldId()) {
+                case 2:
+                    readSchema(thrift);
+                    break;
+                case 3:
+                    rowCount = thrift.readI64();
+                    break;
+                case 4: {
+                    int size = thrift.readListHeader();
+                    for (int i = 0; i < size; i++) {
+                        rowGroups.add(readRowGroup(thrift));
+                    }
+                    break;
+                }
+                default:
+                    thrift.skip();
+                    break;
+            }
+        }
+        thrift.endStruct();
+    }
+
+    private void readSchema(ThriftCompactReader thrift) throws IOException {
+        int size = thrift.readListHeader();
+        for (int i = 0; i < size; i++) {
+            ParquetColumn column = readSchemaElement(thrift, i == 0);
+            if (i > 0) {
+                columns.add(column);
+            }
+        }
+    }
+
+    private ParquetColumn readSchemaElement(ThriftCompactReader thrift, boolean isRoot) throws IOException {
+        int type = -1, typeLength = 0, repetition = ParquetColumn.REPETITION_REQUIRED, numChildren = 0;
+        int convertedType = ParquetColumn.CONVERTED_NONE, logicalType = ParquetColumn.CONVERTED_NONE;
+        int scale = 0, precision = 0;
+        String name = null;
+        thrift.beginStruct();
+        while (thrift.nextField()) {
+            switch (thrift.getFieldId()) {
+                case 1: type = thrift.readI32(); break;
+                case 2: typeLength = thrift.readI32(); break;
+                case 3: repetition = thrift.readI32(); break;
+                case 4: name = thrift.readString(); break;
+                case 5: numChildren = thrift.readI32(); break;
+                case 6: convertedType = thrift.readI32(); break;
+                case 7: scale = thrift.readI32(); break;
+                case 8: precision = thrift.readI32(); break;
+                case 10: {
+                    int[] decimal = new int[2];
+                    logicalType = readLogicalType(thrift, decimal);
+                    if (logicalType == ParquetColumn.CONVERTED_DECIMAL) {
+                        scale = decimal[0];
+                        precision = decimal[1];
+                    }
+                    break;
+                }
+                default: thrift.skip(); break;
+            }
+        }
+        thrift.endStruct();
+        if (isRoot) {
+            return null;
+        }
+        if (numChildren > 0 || repetition == ParquetColumn.REPETITION_REPEATED) {
+            throw new IOException("Nested Parquet schemas are not supported (column '" + name + "')");
+        }
+        ParquetColumn column = new ParquetColumn(name, type, logicalType != ParquetColumn.CONVERTED_NONE ? logicalType : convertedType);
+        column.setTypeLength(typeLength);
+        column.setScale(scale);
+        column.setPrecision(precision);
+        column.setRepetition(repetition);
+        return column;
+    }
+
+    /**
+     * Reads LogicalType union and maps it to converted type
+     */
+    private int readLogicalType(ThriftCompactReader thrift, int[] decimal) throws IOException {
+        int result = ParquetColumn.CONVERTED_NONE;
+        thrift.beginStruct();
+        while (thrift.nextField()) {
+            switch (thrift.getFieldId()) {
+                case LOGICAL_STRING:
+                    result = ParquetColumn.CONVERTED_UTF8;
+                    thrift.skip();
+                    break;
+                case LOGICAL_ENUM:
+                    result = ParquetColumn.CONVERTED_ENUM;
+                    thrift.skip();
+                    break;
+                case LOGICAL_JSON:
+                    result = ParquetColumn.CONVERTED_JSON;
+                    thrift.skip();
+                    break;
+                case LOGICAL_DATE:
+                    result = ParquetColumn.CONVERTED_DATE;
+                    thrift.skip();
+                    break;
+                case LOGICAL_DECIMAL:
+                    result = ParquetColumn.CONVERTED_DECIMAL;
+                    thrift.beginStruct();
+                    while (thrift.nextField()) {
+                        if (thrift.getFieldId() == 1) {
+                            decimal[0] = thrift.readI32();
+                        } else if (thrift.getFieldId() == 2) {
+                            decimal[1] = thrift.readI32();
+                        } else {
+                            thrift.skip();
+                        }
+                    }
+                    thrift.endStruct();
+                    break;
+                case LOGICAL_TIME:
+                case LOGICAL_TIMESTAMP: {
+                    boolean isTime = thrift.getFieldId() == LOGICAL_TIME;
+                    int unit = 0;
+                    thrift.beginStruct();
+                    while (thrift.nextField()) {
+                        if (thrift.getFieldId() == 2) {
+                            // TimeUnit union: MILLIS = 1, MICROS = 2, NANOS = 3
+                            thrift.beginStruct();
+                            while (thrift.nextField()) {
+                                unit = thrift.getFieldId();
+                                thrift.skip();
+                            }
+                            thrift.endStruct();
+                        } else {
+                            thrift.skip();
+                        }
+                    }
+                    thrift.endStruct();
+                    switch (unit) {
+                        case 1: result = isTime ? ParquetColumn.CONVERTED_TIME_MILLIS : ParquetColumn.CONVERTED_TIMESTAMP_MILLIS; break;
+                        case 2: result = isTime ? ParquetColumn.CONVERTED_TIME_MICROS : ParquetColumn.CONVERTED_TIMESTAMP_MICROS; break;
+                        case 3: result = isTime ? ParquetColumn.CONVERTED_TIME_NANOS : ParquetColumn.CONVERTED_TIMESTAMP_NANOS; break;
+                    }
+                    break;
+                }
+                default:
+                    thrift.skip();
+                    break;
+            }
+        }
+        thrift.endStruct();
+        return result;
+    }
+
+    private RowGroupInfo readRowGroup(ThriftCompactReader thrift) throws IOException {
+        RowGroupInfo rowGroup = new RowGroupInfo();
+        thrift.beginStruct();
+        while (thrift.nextField()) {
+            switch (thrift.getFieldId()) {
+                case 1: {
+                    int size = thrift.readListHeader();
+                    for (int i = 0; i < size; i++) {
+                        rowGroup.columns.add(readColumnChunk(thrift));
+                    }
+                    break;
+                }
+                case 3:
+                    rowGroup.numRows = thrift.readI64();
+                    break;
+                default:
+                    thrift.skip();
+                    break;
+            }
+        }
+        thrift.endStruct();
+        return rowGroup;
+    }
+
+    private ColumnChunkInfo readColumnChunk(ThriftCompactReader thrift) throws IOException {
+        ColumnChunkInfo chunk = new ColumnChunkInfo();
+        thrift.beginStruct();
+        while (thrift.nextField()) {
+            if (thrift.getFieldId() == 1) {
+                thrift.readString();
+                throw new IOException("Parquet files with external column chunks are not supported");
+            } else if (thrift.getFieldId() == 3) {
+                thrift.beginStruct();
+                while (thrift.nextField()) {
+                    switch (thrift.getFieldId()) {
+                        case 4: chunk.codec = thrift.readI32(); break;
+                        case 5: chunk.numValues = thrift.readI64(); break;
+                        case 7: chunk.compressedSize = thrift.readI64(); break;
+                        case 9: chunk.dataPageOffset = thrift.readI64(); break;
+                        case 11: chunk.dictionaryPageOffset = thrift.readI64(); break;
+                        default: thrift.skip(); break;
+                    }
+                }
+                thrift.endStruct();
+            } else {
+                thrift.skip();
+            }
+        }
+        thrift.endStruct();
+        return chunk;
+    }
+
+    private void openRowGroup(int index) throws IOException {
+        RowGroupInfo rowGroup = rowGroups.get(index);
+        if (rowGroup.columns.size() != columns.size()) {
+            throw new IOException("Row group " + index + " has wrong number of columns");
+        }
+        columnReaders = new ColumnReader[columns.size()];
+        for (int i = 0; i < columnReaders.length; i++) {
+            ColumnChunkInfo chunk = rowGroup.columns.get(i);
+            long start = chunk.dictionaryPageOffset > 0 && chunk.dictionaryPageOffset < chunk.dataPageOffset ?
+                chunk.dictionaryPageOffset : chunk.dataPageOffset;
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, start, chunk.compressedSize);
+            columnReaders[i] = new ColumnReader(columns.get(i), chunk, data);
+        }
+        rowGroupRowsLeft = rowGroup.numRows;
+    }
+
+    private ByteBuffer readBuffer(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of Parquet file");
+            }
+        }
+        buffer.flip();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    ////////////////////////////////////////////////////////////
+    // Data
+
+    private class ColumnReader {
+        private final ParquetColumn column;
+        private final ColumnChunkInfo chunk;
+        private final ByteBuffer data;
+        private long valuesLeft;
+        private Object[] dictionary;
+
+        // Current page
+        private int pageValuesLeft;
+        private RleDecoder definitionLevels;
+        private ByteBuffer values;
+        private RleDecoder dictionaryIndexes;
+        private int booleanBit;
+
+        ColumnReader(ParquetColumn column, ColumnChunkInfo chunk, ByteBuffer data) {
+            this.column = column;
+            this.chunk = chunk;
+            this.data = data;
+            this.valuesLeft = chunk.numValues;
+        }
+
+        Object readValue() throws IOException {
+            while (pageValuesLeft <= 0) {
+                if (valuesLeft <= 0 || !data.hasRemaining()) {
+                    throw new IOException("Not enough values in column '" + column.getName() + "'");
+                }
+                readPage();
+            }
+            pageValuesLeft--;
+            valuesLeft--;
+            if (definitionLevels != null && definitionLevels.readInt() == 0) {
+                return null;
+            }
+            if (dictionaryIndexes != null) {
+                int index = dictionaryIndexes.readInt();
+                if (dictionary == null || index < 0 || index >= dictionary.length) {
+                    throw new IOException("Bad dictionary index in column '" + column.getName() + "'");
+                }
+                return dictionary[index];
+            }
+            return convertValue(readPlainValue(values));
+        }
+
+        private void readPage() throws IOException {
+            ThriftCompactReader thrift = new ThriftCompactReader(data);
+            int pageType = -1, uncompressedSize = 0, compressedSize = 0;
+            int numValues = 0, encoding = 0, definitionLength = 0, repetitionLength = 0;
+            boolean isCompressed = true;
+            thrift.beginStruct();
+            while (thrift.nextField()) {
+                switch (thrift.getFieldId()) {
+                    case 1: pageType = thrift.readI32(); break;
+                    case 2: uncompressedSize = thrift.readI32(); break;
+                    case 3: compressedSize = thrift.readI32(); break;
+                    case 5:
+                    case 7:
+                    case 8: {
+                        // Data page, dictionary page and data page v2 headers
+                        int headerField = thrift.getFieldId();
+                        thrift.beginStruct();
+                        while (thrift.nextField()) {
+                            int field = thrift.getFieldId();
+                            if (field == 1) {
+                                numValues = thrift.readI32();
+                            } else if ((field == 2 && headerField != 8) || (field == 4 && headerField == 8)) {
+                                encoding = thrift.readI32();
+                            } else if (field == 5 && headerField == 8) {
+                                definitionLength = thrift.readI32();
+                            } else if (field == 6 && headerField == 8) {
+                                repetitionLength = thrift.readI32();
+                            } else if (field == 7 && headerField == 8) {
+                                isCompressed = thrift.readBoolean();
+                            } else {
+                                thrift.skip();
+                            }
+                        }
+                        thrift.endStruct();
+                        break;
+                    }
+                    default: thrift.skip(); break;
+                }
+            }
+            thrift.endStruct();
+
+            int pageStart = data.position();
+            if (compressedSize < 0 || compressedSize > data.remaining()) {
+                throw new IOException("Bad page size in column '" + column.getName() + "'");
+            }
+            data.position(pageStart + compressedSize);
+
+            switch (pageType) {
+                case ParquetWriter.PAGE_TYPE_DICTIONARY: {
+                    ByteBuffer page = decompress(slice(data, pageStart, compressedSize), chunk.codec, uncompressedSize);
+                    dictionary = new Object[numValues];
+                    booleanBit = 0;
+                    for (int i = 0; i < numValues; i++) {
+                        dictionary[i] = convertValue(readPlainValue(page));
+                    }
+                    return;
+                }
+                case ParquetWriter.PAGE_TYPE_DATA: {
+                    ByteBuffer page = decompress(slice(data, pageStart, compressedSize), chunk.codec, uncompressedSize);
+                    definitionLevels = null;
+                    if (column.getRepetition() == ParquetColumn.REPETITION_OPTIONAL) {
+                        int length = page.getInt();
+                        definitionLevels = new RleDecoder(slice(page, page.position(), length), 1);
+                        page.position(page.position() + length);
+                    }
+                    startValues(page, encoding);
+                    break;
+                }
+                case ParquetWriter.PAGE_TYPE_DATA_V2: {
+                    int levelsLength = repetitionLength + definitionLength;
+                    definitionLevels = column.getRepetition() == ParquetColumn.REPETITION_OPTIONAL ?
+                        new RleDecoder(slice(data, pageStart + repetitionLength, definitionLength), 1) : null;
+                    ByteBuffer page = slice(data, pageStart + levelsLength, compressedSize - levelsLength);
+                    if (isCompressed) {
+                        page = decompress(page, chunk.codec, uncompressedSize - levelsLength);
+                    }
+                    startValues(page, encoding);
+                    break;
+                }
+                default:
+                    // Index pages and unknown pages are skipped
+                    return;
+            }
+            pageValuesLeft = numValues;
+        }
+
+        private void startValues(ByteBuffer page, int encoding) throws IOException {
+            booleanBit = 0;
+            if (encoding == ParquetWriter.ENCODING_PLAIN) {
+                values = page;
+                dictionaryIndexes = null;
+            } else if (encoding == ParquetWriter.ENCODING_PLAIN_DICTIONARY || encoding == ParquetWriter.ENCODING_RLE_DICTIONARY) {
+                int bitWidth = page.get() & 0xFF;
+                dictionaryIndexes = new RleDecoder(slice(page, page.position(), page.remaining()), bitWidth);
+                values = null;
+            } else {
+                throw new IOException("Unsupported Parquet encoding " + encoding + " in column '" + column.getName() + "'");
+            }
+        }
+
+        private Object readPlainValue(ByteBuffer buffer) throws IOException {
+            switch (column.getType()) {
+                case ParquetColumn.TYPE_BOOLEAN: {
+                    int b = buffer.get(buffer.position() + booleanBit / 8);
+                    boolean value = (b & (1 << (booleanBit % 8))) != 0;
+                    booleanBit++;
+                    if (booleanBit % 8 == 0) {
+                        buffer.position(buffer.position() + 1);
+                        booleanBit = 0;
+                    }
+                    return value;
+                }
+                case ParquetColumn.TYPE_INT32:
+                    return buffer.getInt();
+                case ParquetColumn.TYPE_INT64:
+                    return buffer.getLong();
+                case ParquetColumn.TYPE_INT96: {
+                    long nanosOfDay = buffer.getLong();
+                    long julianDay = buffer.getInt() & 0xFFFFFFFFL;
+                    Timestamp timestamp = new Timestamp((julianDay - JULIAN_EPOCH_DAY) * MILLIS_IN_DAY + nanosOfDay / 1000000);
+                    timestamp.setNanos((int) (nanosOfDay % 1000000000));
+                    return timestamp;
+                }
+                case ParquetColumn.TYPE_FLOAT:
+                    return buffer.getFloat();
+                case ParquetColumn.TYPE_DOUBLE:
+                    return buffer.getDouble();
+                case ParquetColumn.TYPE_BYTE_ARRAY: {
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get(bytes);
+                    return bytes;
+                }
+                case ParquetColumn.TYPE_FIXED_LEN_BYTE_ARRAY: {
+                    byte[] bytes = new byte[column.getTypeLength()];
+                    buffer.get(bytes);
+                    return bytes;
+                }
+                default:
+                    throw new IOException("Unsupported Parquet type " + column.getType() + " in column '" + column.getName() + "'");
+            }
+        }
+
+        private Object convertValue(Object value) {
+            switch (column.getConvertedType()) {
+                case ParquetColumn.CONVERTED_UTF8:
+                case ParquetColumn.CONVERTED_ENUM:
+                case ParquetColumn.CONVERTED_JSON:
+                    return value instanceof byte[] ? new String((byte[]) value, StandardCharsets.UTF_8) : value;
+                case ParquetColumn.CONVERTED_DECIMAL:
+                    if (value instanceof byte[]) {
+                        return new BigDecimal(new BigInteger((byte[]) value), column.getScale());
+                    } else if (value instanceof Number) {
+                        return BigDecimal.valueOf(((Number) value).longValue(), column.getScale());
+                    }
+                    return value;
+                case ParquetColumn.CONVERTED_DATE:
+                    return java.sql.Date.valueOf(LocalDate.ofEpochDay(((Number) value).longValue()));
+                case ParquetColumn.CONVERTED_TIME_MILLIS:
+                    return Time.valueOf(LocalTime.ofNanoOfDay(((Number) value).longValue() * 1000000));
+                case ParquetColumn.CONVERTED_TIME_MICROS:
+                    return Time.valueOf(LocalTime.ofNanoOfDay(((Number) value).longValue() * 1000));
+                case ParquetColumn.CONVERTED_TIME_NANOS:
+                    return Time.valueOf(LocalTime.ofNanoOfDay(((Number) value).longValue()));
+                case ParquetColumn.CONVERTED_TIMESTAMP_MILLIS:
+                    return new Timestamp(((Number) value).longValue());
+                case ParquetColumn.CONVERTED_TIMESTAMP_MICROS:
+                    return makeTimestamp(((Number) value).longValue(), 1000000);
+                case ParquetColumn.CONVERTED_TIMESTAMP_NANOS:
+                    return makeTimestamp(((Number) value).longValue(), 1000000000);
+                default:
+                    return value;
+            }
+        }
+    }
+
+    private static Timestamp makeTimestamp(long value, long unitsPerSecond) {
+        long seconds = Math.floorDiv(value, unitsPerSecond);
+        long fraction = Math.floorMod(value, unitsPerSecond);
+        Timestamp timestamp = new Timestamp(seconds * 1000);
+        timestamp.setNanos((int) (fraction * (1000000000 / unitsPerSecond)));
+        return timestamp;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > buffer.limit()) {
+            throw new IOException("Parquet page is out of column chunk bounds");
+        }
+        ByteBuffer dup = buffer.duplicate();
+        dup.position(offset);
+        dup.limit(offset + length);
+        return dup.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer decompress(ByteBuffer data, int codec, int uncompressedSize) throws IOException {
+        switch (codec) {
+            case ParquetWriter.CODEC_UNCOMPRESSED:
+                return data;
+            case ParquetWriter.CODEC_GZIP: {
+                byte[] compressed = new byte[data.remaining()];
+                data.get(compressed);
+                byte[] result = new byte[uncompressedSize];
+                try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                    int offset = 0;
+                    while (offset < uncompressedSize) {
+                        int count = is.read(result, offset, uncompressedSize - offset);
+                        if (count < 0) {
+                            throw new IOException("Unexpected end of GZIP page data");
+                        }
+                        offset += count;
+                    }
+                }
+                return ByteBuffer.wrap(result).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            case ParquetWriter.CODEC_SNAPPY:
+                return ByteBuffer.wrap(SnappyCodec.uncompress(data, uncompressedSize)).order(ByteOrder.LITTLE_ENDIAN);
+            default:
+                throw new IOException("Unsupported Parquet compression codec: " + codec);
+        }
+    }
+
+    /**
+     * RLE/bit-packed hybrid decoder (used for definition levels and dictionary indexes)
+     */
+    private static class RleDecoder {
+        private final ByteBuffer buffer;
+        private final int bitWidth;
+        private int rleCount;
+        private int rleValue;
+        private int[] packedValues = new int[0];
+        private int packedCount;
+        private int packedPos;
+
+        RleDecoder(ByteBuffer buffer, int bitWidth) {
+            this.buffer = buffer;
+            this.bitWidth = bitWidth;
+        }
+
+        int readInt() throws IOException {
+            if (rleCount == 0 && packedPos >= packedCount) {
+                readRun();
+            }
+            if (rleCount > 0) {
+                rleCount--;
+                return rleValue;
+            }
+            return packedValues[packedPos++];
+        }
+
+        private void readRun() throws IOException {
+            if (!buffer.hasRemaining()) {
+                throw new IOException("Unexpected end of RLE data");
+            }
+            long header = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = buffer.get() & 0xFF;
+                header |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            if ((header & 1) == 0) {
+                rleCount = (int) (header >>> 1);
+                rleValue = 0;
+                for (int i = 0; i < (bitWidth + 7) / 8; i++) {
+                    rleValue |= (buffer.get() & 0xFF) << (i * 8);
+                }
+            } else {
+                int groups = (int) (header >>> 1);
+                packedCount = groups * 8;
+                packedPos = 0;
+                if (packedValues.length < packedCount) {
+                    packedValues = new int[packedCount];
+                }
+                long bits = 0;
+                int bitCount = 0;
+                int mask = bitWidth == 32 ? -1 : (1 << bitWidth) - 1;
+                for (int i = 0; i < packedCount; i++) {
+                    while (bitCount < bitWidth) {
+                        // Last group may be truncated
+                        bits |= (long) (buffer.hasRemaining() ? buffer.get() & 0xFF : 0) << bitCount;
+                        bitCount += 8;
+                    }
+                    packedValues[i] = (int) (bits & mask);
+                    bits >>>= bitWidth;
+                    bitCount -= bitWidth;
+                }
+            }
+        }
+    }
+
+    private static class ColumnChunkInfo {
+        int codec;
+        long numValues;
+        long compressedSize;
+        long dataPageOffset;
+        long dictionaryPageOffset;
+    }
+
+    private static class RowGroupInfo {
+        final List<ColumnChunkInfo> columns = new ArrayList<>();
+        long numRows;
+    }
+
+}
@@ -0,0 +1,436 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Parquet file writer.
+ * <p>
+ * Writes flat schema of optional columns. Values are PLAIN-encoded, definition levels are RLE-encoded.
+ * Each column chunk consists of data pages (v1) of about {@link #PAGE_SIZE} bytes.
+ * Pages are compressed with Snappy or GZIP block codec, or left uncompressed.
+ * Rows are buffered in column form until row group size is reached.
+ */
+public class ParquetWriter {
+
+    public static final int CODEC_UNCOMPRESSED = 0;
+    public static final int CODEC_SNAPPY = 1;
+    public static final int CODEC_GZIP = 2;
+
+    static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    static final int ENCODING_PLAIN = 0;
+    static final int ENCODING_PLAIN_DICTIONARY = 2;
+    static final int ENCODING_RLE = 3;
+    static final int ENCODING_RLE_DICTIONARY = 8;
+
+    static final int PAGE_TYPE_DATA = 0;
+    static final int PAGE_TYPE_DICTIONARY = 2;
+    static final int PAGE_TYPE_DATA_V2 = 3;
+
+    private static final int PAGE_SIZE = 1024 * 1024;
+    // Check row group size each N rows
+    private static final int ROW_GROUP_CHECK_INTERVAL = 1000;
+
+    private final OutputStream out;
+    private final List<ParquetColumn> columns;
+    private final int codec;
+    private final long rowGroupSize;
+    private final String createdBy;
+    private final ColumnWriter[] columnWriters;
+    private final List<RowGroupInfo> rowGroups = new ArrayList<>();
+    private long position;
+    private long rowGroupRows;
+    private long totalRows;
+
+    public ParquetWriter(OutputStream out, List<ParquetColumn> columns, int codec, long rowGroupSize, String createdBy) throws IOException {
+        if (codec != CODEC_UNCOMPRESSED && codec != CODEC_SNAPPY && codec != CODEC_GZIP) {
+            throw new IOException("Unsupported Parquet compression codec: " + codec);
+        }
+        this.out = out;
+        this.columns = columns;
+        this.codec = codec;
+        this.rowGroupSize = rowGroupSize;
+        this.createdBy = createdBy;
+        this.columnWriters = new ColumnWriter[columns.size()];
+        for (int i = 0; i < columnWriters.length; i++) {
+            columnWriters[i] = new ColumnWriter(columns.get(i));
+        }
+        write(MAGIC, 0, MAGIC.length);
+    }
+
+    /**
+     * Writes one row. Values must be of the column physical type:
+     * Boolean, Integer, Long, Float, Double or byte[] (for byte arrays). Null values are allowed.
+     */
+    public void writeRow(Object[] values) throws IOException {
+        for (int i = 0; i < columnWriters.length; i++) {
+            columnWriters[i].add(values[i]);
+        }
+        rowGroupRows++;
+        if (rowGroupRows % ROW_GROUP_CHECK_INTERVAL == 0 && getBufferedSize() >= rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    /**
+     * Writes last row group and file footer. Output stream is not closed.
+     */
+    public void finish() throws IOException {
+        flushRowGroup();
+        byte[] footer = makeFileMetaData();
+        write(footer, 0, footer.length);
+        byte[] footerLength = new byte[4];
+        putInt(footerLength, 0, footer.length);
+        write(footerLength, 0, footerLength.length);
+        write(MAGIC, 0, MAGIC.length);
+        out.flush();
+    }
+
+    private long getBufferedSize() {
+        long size = 0;
+        for (ColumnWriter writer : columnWriters) {
+            size += writer.getBufferedSize();
+        }
+        return size;
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (rowGroupRows == 0) {
+            return;
+        }
+        RowGroupInfo rowGroup = new RowGroupInfo(rowGroupRows);
+        for (ColumnWriter writer : columnWriters) {
+            writer.finishPage();
+            ColumnChunkInfo chunk = new ColumnChunkInfo(writer.column, position, writer.chunkValues, writer.chunkUncompressedSize, writer.chunkCompressedSize);
+            write(writer.chunkData.getData(), 0, writer.chunkData.getSize());
+            writer.resetChunk();
+            rowGroup.columns.add(chunk);
+            rowGroup.totalByteSize += chunk.uncompressedSize;
+        }
+        rowGroups.add(rowGroup);
+        totalRows += rowGroupRows;
+        rowGroupRows = 0;
+    }
+
+    private byte[] makeFileMetaData() {
+        ThriftCompactWriter thrift = new ThriftCompactWriter();
+        thrift.beginStruct();
+        thrift.writeI32Field(1, 1);
+        // Schema
+        thrift.writeListField(2, ThriftCompactWriter.TYPE_STRUCT, columns.size() + 1);
+        thrift.beginStruct();
+        thrift.writeStringField(4, "schema");
+        thrift.writeI32Field(5, columns.size());
+        thrift.endStruct();
+        for (ParquetColumn column : columns) {
+            thrift.beginStruct();
+            thrift.writeI32Field(1, column.getType());
+            if (column.getTypeLength() > 0) {
+                thrift.writeI32Field(2, column.getTypeLength());
+            }
+            thrift.writeI32Field(3, column.getRepetition());
+            thrift.writeStringField(4, column.getName());
+            if (column.getConvertedType() != ParquetColumn.CONVERTED_NONE) {
+                thrift.writeI32Field(6, column.getConvertedType());
+            }
+            if (column.getConvertedType() == ParquetColumn.CONVERTED_DECIMAL) {
+                thrift.writeI32Field(7, column.getScale());
+                thrift.writeI32Field(8, column.getPrecision());
+            }
+            thrift.endStruct();
+        }
+        thrift.writeI64Field(3, totalRows);
+        // Row groups
+        thrift.writeListField(4, ThriftCompactWriter.TYPE_STRUCT, rowGroups.size());
+        for (RowGroupInfo rowGroup : rowGroups) {
+            thrift.beginStruct();
+            thrift.writeListField(1, ThriftCompactWriter.TYPE_STRUCT, rowGroup.columns.size());
+            for (ColumnChunkInfo chunk : rowGroup.columns) {
+                thrift.beginStruct();
+                thrift.writeI64Field(2, chunk.offset);
+                thrift.beginStructField(3);
+                thrift.writeI32Field(1, chunk.column.getType());
+                thrift.writeListField(2, ThriftCompactWriter.TYPE_I32, 2);
+                thrift.writeI32(ENCODING_PLAIN);
+                thrift.writeI32(ENCODING_RLE);
+                thrift.writeListField(3, ThriftCompactWriter.TYPE_BINARY, 1);
+                thrift.writeString(chunk.column.getName());
+                thrift.writeI32Field(4, codec);
+                thrift.writeI64Field(5, chunk.numValues);
+                thrift.writeI64Field(6, chunk.uncompressedSize);
+                thrift.writeI64Field(7, chunk.compressedSize);
+                thrift.writeI64Field(9, chunk.offset);
+                thrift.endStruct();
+                thrift.endStruct();
+            }
+            thrift.writeI64Field(2, rowGroup.totalByteSize);
+            thrift.writeI64Field(3, rowGroup.numRows);
+            thrift.endStruct();
+        }
+        if (createdBy != null) {
+            thrift.writeStringField(6, createdBy);
+        }
+        thrift.endStruct();
+        return thrift.toByteArray();
+    }
+
+    private void write(byte[] data, int offset, int length) throws IOException {
+        out.write(data, offset, length);
+        position += length;
+    }
+
+    private byte[] compress(byte[] data, int length) throws IOException {
+        if (codec == CODEC_SNAPPY) {
+            return SnappyCodec.compress(data, length);
+        }
+        if (codec == CODEC_GZIP) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(length / 2 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(data, 0, length);
+            }
+            return buffer.toByteArray();
+        }
+        return Arrays.copyOf(data, length);
+    }
+
+    static void putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    /**
+     * Growable little-endian byte buffer
+     */
+    private static class DataBuffer {
+        private byte[] data = new byte[1024];
+        private int size;
+
+        byte[] getData() {
+            return data;
+        }
+
+        int getSize() {
+            return size;
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            data[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(4);
+            putInt(data, size, value);
+            size += 4;
+        }
+
+        void writeLong(long value) {
+            writeInt((int) value);
+            writeInt((int) (value >> 32));
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, data, size, length);
+            size += length;
+        }
+
+        void writeVarInt(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + length, data.length * 2));
+            }
+        }
+    }
+
+    private class ColumnWriter {
+        private final ParquetColumn column;
+        // Current page
+        private final DataBuffer values = new DataBuffer();
+        private final DataBuffer definitionLevels = new DataBuffer();
+        private int pageValues;
+        private int pageNulls;
+        private int booleanBits;
+        // Current column chunk
+        private final DataBuffer chunkData = new DataBuffer();
+        private long chunkValues;
+        private long chunkUncompressedSize;
+        private long chunkCompressedSize;
+
+        ColumnWriter(ParquetColumn column) {
+            this.column = column;
+        }
+
+        long getBufferedSize() {
+            return chunkData.getSize() + values.getSize() + definitionLevels.getSize();
+        }
+
+        void add(Object value) throws IOException {
+            // Definition levels are bit-packed (one bit per value)
+            if (pageValues % 8 == 0) {
+                definitionLevels.writeByte(0);
+            }
+            if (value == null) {
+                pageNulls++;
+            } else {
+                definitionLevels.data[definitionLevels.size - 1] |= 1 << (pageValues % 8);
+                writeValue(value);
+            }
+            pageValues++;
+            if (values.getSize() >= PAGE_SIZE) {
+                finishPage();
+            }
+        }
+
+        private void writeValue(Object value) throws IOException {
+            switch (column.getType()) {
+                case ParquetColumn.TYPE_BOOLEAN:
+                    if (booleanBits % 8 == 0) {
+                        values.writeByte(0);
+                    }
+                    if ((Boolean) value) {
+                        values.data[values.size - 1] |= 1 << (booleanBits % 8);
+                    }
+                    booleanBits++;
+                    break;
+                case ParquetColumn.TYPE_INT32:
+                    values.writeInt((Integer) value);
+                    break;
+                case ParquetColumn.TYPE_INT64:
+                    values.writeLong((Long) value);
+                    break;
+                case ParquetColumn.TYPE_FLOAT:
+                    values.writeInt(Float.floatToIntBits((Float) value));
+                    break;
+                case ParquetColumn.TYPE_DOUBLE:
+                    values.writeLong(Double.doubleToLongBits((Double) value));
+                    break;
+                case ParquetColumn.TYPE_BYTE_ARRAY: {
+                    byte[] bytes = (byte[]) value;
+                    values.writeInt(bytes.length);
+                    values.writeBytes(bytes, 0, bytes.length);
+                    break;
+                }
+                default:
+                    throw new IOException("Unsupported Parquet column type: " + column.getType());
+            }
+        }
+
+        void finishPage() throws IOException {
+            if (pageValues == 0) {
+                return;
+            }
+            // Page body: definition levels (length-prefixed RLE/bit-packed hybrid) and values
+            DataBuffer levels = new DataBuffer();
+            if (pageNulls == 0 || pageNulls == pageValues) {
+                // Single RLE run
+                levels.writeVarInt((long) pageValues << 1);
+                levels.writeByte(pageNulls == 0 ? 1 : 0);
+            } else {
+                levels.writeVarInt(((long) definitionLevels.getSize() << 1) | 1);
+                levels.writeBytes(definitionLevels.getData(), 0, definitionLevels.getSize());
+            }
+            DataBuffer body = new DataBuffer();
+            body.writeInt(levels.getSize());
+            body.writeBytes(levels.getData(), 0, levels.getSize());
+            body.writeBytes(values.getData(), 0, values.getSize());
+            byte[] compressed = compress(body.getData(), body.getSize());
+
+            ThriftCompactWriter header = new ThriftCompactWriter();
+            header.beginStruct();
+            header.writeI32Field(1, PAGE_TYPE_DATA);
+            header.writeI32Field(2, body.getSize());
+            header.writeI32Field(3, compressed.length);
+            header.beginStructField(5);
+            header.writeI32Field(1, pageValues);
+            header.writeI32Field(2, ENCODING_PLAIN);
+            header.writeI32Field(3, ENCODING_RLE);
+            header.writeI32Field(4, ENCODING_RLE);
+            header.endStruct();
+            header.endStruct();
+            byte[] headerBytes = header.toByteArray();
+
+            chunkData.writeBytes(headerBytes, 0, headerBytes.length);
+            chunkData.writeBytes(compressed, 0, compressed.length);
+            chunkValues += pageValues;
+            chunkUncompressedSize += headerBytes.length + body.getSize();
+            chunkCompressedSize += headerBytes.length + compressed.length;
+
+            values.reset();
+            definitionLevels.reset();
+            pageValues = 0;
+            pageNulls = 0;
+            booleanBits = 0;
+        }
+
+        void resetChunk() {
+            chunkData.reset();
+            chunkValues = 0;
+            chunkUncompressedSize = 0;
+            chunkCompressedSize = 0;
+        }
+    }
+
+    private static class ColumnChunkInfo {
+        final ParquetColumn column;
+        final long offset;
+        final long numValues;
+        final long uncompressedSize;
+        final long compressedSize;
+
+        ColumnChunkInfo(ParquetColumn column, long offset, long numValues, long uncompressedSize, long compressedSize) {
+            this.column = column;
+            this.offset = offset;
+            this.numValues = numValues;
+            this.uncompressedSize = uncompressedSize;
+            this.compressedSize = compressedSize;
+        }
+    }
+
+    private static class RowGroupInfo {
+        final List<ColumnChunkInfo> columns = new ArrayList<>();
+        final long numRows;
+        long totalByteSize;
+
+        RowGroupInfo(long numRows) {
+            this.numRows = numRows;
+        }
+    }
+
+}
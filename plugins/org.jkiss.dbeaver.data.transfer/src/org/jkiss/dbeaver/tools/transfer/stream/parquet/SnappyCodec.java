@@ -0,0 +1,214 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Snappy raw block format (as used by Parquet SNAPPY codec, without framing).
+ * <p>
+ * Compressor is greedy: input is split into 64KB fragments, matches of 4+ bytes are found with a hash table
+ * of the fragment positions. Search step grows after each 32 misses, so incompressible input is skipped quickly.
+ */
+final class SnappyCodec {
+
+    private static final int FRAGMENT_SIZE = 1 << 16;
+    private static final int HASH_BITS = 14;
+    private static final int MIN_MATCH = 4;
+    // Bytes at the fragment end which are always emitted as literal
+    private static final int INPUT_MARGIN = 15;
+
+    private SnappyCodec() {
+    }
+
+    /**
+     * Compresses first length bytes of data
+     */
+    static byte[] compress(byte[] data, int length) {
+        byte[] out = new byte[maxCompressedLength(length)];
+        int pos = 0;
+        // Preamble: uncompressed length varint
+        for (int value = length; ; value >>>= 7) {
+            if ((value & ~0x7F) == 0) {
+                out[pos++] = (byte) value;
+                break;
+            }
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+        }
+        int[] table = new int[1 << HASH_BITS];
+        for (int fragment = 0; fragment < length; fragment += FRAGMENT_SIZE) {
+            pos = compressFragment(data, fragment, Math.min(length, fragment + FRAGMENT_SIZE), table, out, pos);
+        }
+        return Arrays.copyOf(out, pos);
+    }
+
+    static int maxCompressedLength(int length) {
+        return 32 + length + length / 6;
+    }
+
+    private static int compressFragment(byte[] src, int start, int end, int[] table, byte[] out, int pos) {
+        int anchor = start;
+        if (end - start >= INPUT_MARGIN) {
+            // Table keeps fragment positions + 1, zero means no position
+            Arrays.fill(table, 0);
+            int limit = end - INPUT_MARGIN;
+            int index = start;
+            int skip = 32;
+            while (index <= limit) {
+                int sequence = getInt(src, index);
+                int hash = hash(sequence);
+                int candidate = table[hash] - 1 + start;
+                table[hash] = index - start + 1;
+                if (candidate < start || getInt(src, candidate) != sequence) {
+                    index += skip++ >>> 5;
+                    continue;
+                }
+                int matchLength = MIN_MATCH;
+                while (index + matchLength < end && src[candidate + matchLength] == src[index + matchLength]) {
+                    matchLength++;
+                }
+                pos = emitLiteral(src, anchor, index - anchor, out, pos);
+                pos = emitCopy(index - candidate, matchLength, out, pos);
+                index += matchLength;
+                anchor = index;
+                skip = 32;
+                if (index <= limit) {
+                    // Position before the match end is a good candidate for the next match
+                    table[hash(getInt(src, index - 1))] = index - 1 - start + 1;
+                }
+            }
+        }
+        return emitLiteral(src, anchor, end - anchor, out, pos);
+    }
+
+    private static int emitLiteral(byte[] src, int offset, int length, byte[] out, int pos) {
+        if (length == 0) {
+            return pos;
+        }
+        int n = length - 1;
+        if (n < 60) {
+            out[pos++] = (byte) (n << 2);
+        } else {
+            int bytes = n < (1 << 8) ? 1 : n < (1 << 16) ? 2 : n < (1 << 24) ? 3 : 4;
+            out[pos++] = (byte) ((59 + bytes) << 2);
+            for (int i = 0; i < bytes; i++) {
+                out[pos++] = (byte) (n >>> (i * 8));
+            }
+        }
+        System.arraycopy(src, offset, out, pos, length);
+        return pos + length;
+    }
+
+    private static int emitCopy(int offset, int length, byte[] out, int pos) {
+        // Copy with 2-byte offset holds up to 64 bytes. The last copy must be at least 4 bytes long.
+        while (length >= 68) {
+            pos = emitCopy2(offset, 64, out, pos);
+            length -= 64;
+        }
+        if (length > 64) {
+            pos = emitCopy2(offset, 60, out, pos);
+            length -= 60;
+        }
+        if (length < 12 && offset < 2048) {
+            out[pos++] = (byte) (0x01 | ((length - 4) << 2) | ((offset >>> 8) << 5));
+            out[pos++] = (byte) offset;
+            return pos;
+        }
+        return emitCopy2(offset, length, out, pos);
+    }
+
+    private static int emitCopy2(int offset, int length, byte[] out, int pos) {
+        out[pos++] = (byte) (0x02 | ((length - 1) << 2));
+        out[pos++] = (byte) offset;
+        out[pos++] = (byte) (offset >>> 8);
+        return pos;
+    }
+
+    private static int getInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16 | (data[offset + 3] & 0xFF) << 24;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * 0x1e35a7bd) >>> (32 - HASH_BITS);
+    }
+
+    /**
+     * Decompresses raw block
+     */
+    static byte[] uncompress(ByteBuffer in, int expectedSize) throws IOException {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.get() & 0xFF;
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (length != expectedSize) {
+            throw new IOException("Bad Snappy block length");
+        }
+        byte[] out = new byte[length];
+        int pos = 0;
+        while (in.hasRemaining()) {
+            int tag = in.get() & 0xFF;
+            int copyLength, copyOffset;
+            switch (tag & 0x03) {
+                case 0: {
+                    int literalLength = tag >>> 2;
+                    if (literalLength >= 60) {
+                        int bytes = literalLength - 59;
+                        literalLength = 0;
+                        for (int i = 0; i < bytes; i++) {
+                            literalLength |= (in.get() & 0xFF) << (i * 8);
+                        }
+                    }
+                    literalLength++;
+                    if (pos + literalLength > length || literalLength > in.remaining()) {
+                        throw new IOException("Corrupted Snappy data");
+                    }
+                    in.get(out, pos, literalLength);
+                    pos += literalLength;
+                    continue;
+                }
+                case 1:
+                    copyLength = ((tag >>> 2) & 0x07) + 4;
+                    copyOffset = ((tag >>> 5) << 8) | (in.get() & 0xFF);
+                    break;
+                case 2:
+                    copyLength = (tag >>> 2) + 1;
+                    copyOffset = (in.get() & 0xFF) | ((in.get() & 0xFF) << 8);
+                    break;
+                default:
+                    copyLength = (tag >>> 2) + 1;
+                    copyOffset = in.order(ByteOrder.LITTLE_ENDIAN).getInt();
+                    break;
+            }
+            if (copyOffset <= 0 || copyOffset > pos || pos + copyLength > length) {
+                throw new IOException("Corrupted Snappy data");
+            }
+            // Copy may overlap
+            for (int i = 0; i < copyLength; i++, pos++) {
+                out[pos] = out[pos - copyOffset];
+            }
+        }
+        return out;
+    }
+
+}
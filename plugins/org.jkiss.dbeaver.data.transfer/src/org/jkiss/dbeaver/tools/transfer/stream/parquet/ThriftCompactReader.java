@@ -0,0 +1,205 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal Thrift compact protocol reader. Used to read Parquet metadata structures.
+ * Unknown fields are skipped.
+ */
+class ThriftCompactReader {
+
+    static final int TYPE_STOP = 0;
+
+    private final ByteBuffer buffer;
+    private final int[] fieldIdStack = new int[32];
+    private int depth;
+    private int lastFieldId;
+    private int fieldType;
+    private int fieldId;
+
+    ThriftCompactReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    int getPosition() {
+        return buffer.position();
+    }
+
+    void beginStruct() {
+        fieldIdStack[depth++] = lastFieldId;
+        lastFieldId = 0;
+    }
+
+    void endStruct() {
+        lastFieldId = fieldIdStack[--depth];
+    }
+
+    /**
+     * Reads next field header.
+     * @return false if struct end reached
+     */
+    boolean nextField() throws IOException {
+        int header = readByte();
+        if (header == TYPE_STOP) {
+            fieldType = TYPE_STOP;
+            return false;
+        }
+        fieldType = header & 0x0F;
+        int delta = header >> 4;
+        fieldId = delta != 0 ? lastFieldId + delta : (int) unzigzag(readVarInt());
+        lastFieldId = fieldId;
+        return true;
+    }
+
+    int getFieldId() {
+        return fieldId;
+    }
+
+    int getFieldType() {
+        return fieldType;
+    }
+
+    boolean readBoolean() {
+        return fieldType == ThriftCompactWriter.TYPE_BOOLEAN_TRUE;
+    }
+
+    int readI32() throws IOException {
+        return (int) unzigzag(readVarInt());
+    }
+
+    long readI64() throws IOException {
+        return unzigzag(readVarInt());
+    }
+
+    String readString() throws IOException {
+        int length = (int) readVarInt();
+        checkRemaining(length);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads list header.
+     * @return list size. Element type is available as field type then.
+     */
+    int readListHeader() throws IOException {
+        int header = readByte();
+        int size = (header >> 4) & 0x0F;
+        if (size == 15) {
+            size = (int) readVarInt();
+        }
+        fieldType = header & 0x0F;
+        return size;
+    }
+
+    /**
+     * Skips value of current field type
+     */
+    void skip() throws IOException {
+        skip(fieldType);
+    }
+
+    private void skip(int type) throws IOException {
+        switch (type) {
+            case ThriftCompactWriter.TYPE_BOOLEAN_TRUE:
+            case ThriftCompactWriter.TYPE_BOOLEAN_FALSE:
+                break;
+            case ThriftCompactWriter.TYPE_BYTE:
+                readByte();
+                break;
+            case ThriftCompactWriter.TYPE_I16:
+            case ThriftCompactWriter.TYPE_I32:
+            case ThriftCompactWriter.TYPE_I64:
+                readVarInt();
+                break;
+            case ThriftCompactWriter.TYPE_DOUBLE:
+                checkRemaining(8);
+                buffer.position(buffer.position() + 8);
+                break;
+            case ThriftCompactWriter.TYPE_BINARY: {
+                int length = (int) readVarInt();
+                checkRemaining(length);
+                buffer.position(buffer.position() + length);
+                break;
+            }
+            case ThriftCompactWriter.TYPE_LIST:
+            case ThriftCompactWriter.TYPE_SET: {
+                int size = readListHeader();
+                int elementType = fieldType;
+                for (int i = 0; i < size; i++) {
+                    // Booleans are stored as bytes in collections
+                    skip(elementType == ThriftCompactWriter.TYPE_BOOLEAN_TRUE || elementType == ThriftCompactWriter.TYPE_BOOLEAN_FALSE ?
+                        ThriftCompactWriter.TYPE_BYTE : elementType);
+                }
+                break;
+            }
+            case ThriftCompactWriter.TYPE_MAP: {
+                int size = (int) readVarInt();
+                if (size > 0) {
+                    int types = readByte();
+                    for (int i = 0; i < size; i++) {
+                        skip(types >> 4);
+                        skip(types & 0x0F);
+                    }
+                }
+                break;
+            }
+            case ThriftCompactWriter.TYPE_STRUCT:
+                beginStruct();
+                while (nextField()) {
+                    skip(fieldType);
+                }
+                endStruct();
+                break;
+            default:
+                throw new IOException("Bad thrift field type: " + type);
+        }
+    }
+
+    private int readByte() throws IOException {
+        checkRemaining(1);
+        return buffer.get() & 0xFF;
+    }
+
+    private long readVarInt() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Bad thrift varint");
+    }
+
+    private void checkRemaining(int length) throws IOException {
+        if (length < 0 || buffer.remaining() < length) {
+            throw new IOException("Unexpected end of thrift data");
+        }
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
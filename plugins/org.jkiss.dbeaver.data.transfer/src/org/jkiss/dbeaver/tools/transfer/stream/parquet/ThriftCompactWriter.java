@@ -0,0 +1,130 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal Thrift compact protocol writer. Used to write Parquet metadata structures.
+ */
+class ThriftCompactWriter {
+
+    static final int TYPE_BOOLEAN_TRUE = 1;
+    static final int TYPE_BOOLEAN_FALSE = 2;
+    static final int TYPE_BYTE = 3;
+    static final int TYPE_I16 = 4;
+    static final int TYPE_I32 = 5;
+    static final int TYPE_I64 = 6;
+    static final int TYPE_DOUBLE = 7;
+    static final int TYPE_BINARY = 8;
+    static final int TYPE_LIST = 9;
+    static final int TYPE_SET = 10;
+    static final int TYPE_MAP = 11;
+    static final int TYPE_STRUCT = 12;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final int[] fieldIdStack = new int[32];
+    private int depth;
+    private int lastFieldId;
+
+    byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    void beginStruct() {
+        fieldIdStack[depth++] = lastFieldId;
+        lastFieldId = 0;
+    }
+
+    void endStruct() {
+        buffer.write(0);
+        lastFieldId = fieldIdStack[--depth];
+    }
+
+    void beginStructField(int fieldId) {
+        writeFieldHeader(fieldId, TYPE_STRUCT);
+        beginStruct();
+    }
+
+    void writeI32Field(int fieldId, int value) {
+        writeFieldHeader(fieldId, TYPE_I32);
+        writeVarInt(zigzag(value));
+    }
+
+    void writeI64Field(int fieldId, long value) {
+        writeFieldHeader(fieldId, TYPE_I64);
+        writeVarInt(zigzag(value));
+    }
+
+    void writeBooleanField(int fieldId, boolean value) {
+        writeFieldHeader(fieldId, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+    }
+
+    void writeStringField(int fieldId, String value) {
+        writeFieldHeader(fieldId, TYPE_BINARY);
+        writeString(value);
+    }
+
+    void writeListField(int fieldId, int elementType, int size) {
+        writeFieldHeader(fieldId, TYPE_LIST);
+        writeListHeader(elementType, size);
+    }
+
+    void writeI32(int value) {
+        writeVarInt(zigzag(value));
+    }
+
+    void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        buffer.write(bytes, 0, bytes.length);
+    }
+
+    private void writeListHeader(int elementType, int size) {
+        if (size < 15) {
+            buffer.write((size << 4) | elementType);
+        } else {
+            buffer.write(0xF0 | elementType);
+            writeVarInt(size);
+        }
+    }
+
+    private void writeFieldHeader(int fieldId, int type) {
+        int delta = fieldId - lastFieldId;
+        if (delta > 0 && delta <= 15) {
+            buffer.write((delta << 4) | type);
+        } else {
+            buffer.write(type);
+            writeVarInt(zigzag(fieldId));
+        }
+        lastFieldId = fieldId;
+    }
+
+    private void writeVarInt(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+}
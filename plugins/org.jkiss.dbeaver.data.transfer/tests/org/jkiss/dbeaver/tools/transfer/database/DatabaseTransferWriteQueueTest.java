@@ -0,0 +1,149 @@
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DatabaseTransferWriteQueueTest {
+
+    private static final int ROW_COUNT = 10007;
+
+    @Test
+    public void testAllRowsDeliveredOnce() throws Exception {
+        int writerCount = 3;
+        ConcurrentLinkedQueue<Integer> received = new ConcurrentLinkedQueue<>();
+        List<Thread> writers = new ArrayList<>();
+        DatabaseTransferWriteQueue queue = new DatabaseTransferWriteQueue(writerCount, 100, () -> isAlive(writers));
+        for (int i = 0; i < writerCount; i++) {
+            writers.add(startWriter(queue, rows -> {
+                for (Object[] row : rows) {
+                    received.add((Integer) row[0]);
+                }
+            }));
+        }
+        for (int i = 0; i < ROW_COUNT; i++) {
+            queue.addRow(new Object[] { i });
+        }
+        queue.finish();
+        join(writers);
+
+        queue.checkError();
+        assertEquals(ROW_COUNT, received.size());
+        boolean[] seen = new boolean[ROW_COUNT];
+        for (Integer value : received) {
+            assertFalse("Row " + value + " delivered twice", seen[value]);
+            seen[value] = true;
+        }
+    }
+
+    @Test
+    public void testLastChunkFlushedOnFinish() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        List<Thread> writers = new ArrayList<>();
+        DatabaseTransferWriteQueue queue = new DatabaseTransferWriteQueue(1, 1000, () -> isAlive(writers));
+        writers.add(startWriter(queue, rows -> received.addAndGet(rows.size())));
+        for (int i = 0; i < 10; i++) {
+            queue.addRow(new Object[] { i });
+        }
+        assertEquals(0, received.get());
+        queue.finish();
+        join(writers);
+        assertEquals(10, received.get());
+    }
+
+    @Test
+    public void testWriterErrorStopsReader() throws Exception {
+        List<Thread> writers = new ArrayList<>();
+        DatabaseTransferWriteQueue queue = new DatabaseTransferWriteQueue(2, 10, () -> isAlive(writers));
+        CountDownLatch failed = new CountDownLatch(1);
+        for (int i = 0; i < 2; i++) {
+            writers.add(startWriter(queue, rows -> {
+                queue.setError(new DBCException("Insert failed"));
+                failed.countDown();
+            }));
+        }
+        DBCException error = null;
+        try {
+            for (int i = 0; i < ROW_COUNT; i++) {
+                queue.addRow(new Object[] { i });
+                if (i == 10) {
+                    failed.await();
+                }
+            }
+        } catch (DBCException e) {
+            error = e;
+        } finally {
+            queue.finish();
+        }
+        join(writers);
+        assertNotNull("Reader must see writer error", error);
+        assertEquals("Insert failed", error.getMessage());
+        assertTrue(queue.hasError());
+    }
+
+    @Test
+    public void testReaderStopsWhenWritersAreGone() throws Exception {
+        List<Thread> writers = new ArrayList<>();
+        DatabaseTransferWriteQueue queue = new DatabaseTransferWriteQueue(1, 1, () -> isAlive(writers));
+        // Writer which died before it has taken anything
+        Thread writer = new Thread(() -> {});
+        writer.start();
+        writer.join();
+        writers.add(writer);
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                queue.addRow(new Object[] { i });
+            }
+            fail("Reader must not wait for finished writers");
+        } catch (DBCException e) {
+            // expected
+        }
+        queue.finish();
+    }
+
+    private interface ChunkHandler {
+        void handle(List<Object[]> rows) throws Exception;
+    }
+
+    private static Thread startWriter(DatabaseTransferWriteQueue queue, ChunkHandler handler) {
+        Thread writer = new Thread(() -> {
+            try {
+                List<Object[]> chunk;
+                while ((chunk = queue.takeChunk()) != null) {
+                    if (!queue.hasError()) {
+                        handler.handle(chunk);
+                    }
+                }
+            } catch (Throwable e) {
+                queue.setError(e);
+            }
+        });
+        writer.start();
+        return writer;
+    }
+
+    private static boolean isAlive(List<Thread> writers) {
+        for (Thread writer : writers) {
+            if (writer.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void join(List<Thread> writers) throws InterruptedException {
+        for (Thread writer : writers) {
+            writer.join(10000);
+            assertFalse("Writer didn't finish", writer.isAlive());
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+package org.jkiss.dbeaver.tools.transfer.stream;
+
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.ArrowColumn;
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.ArrowWriter;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetColumn;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.ParquetWriter;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Reads written Parquet and Arrow files with the reference implementation (Apache Arrow for Python).
+ * Skipped if python with pyarrow is not available. Python executable may be set with PYTHON environment variable.
+ */
+public class PyArrowInteropTest {
+
+    private static final int ROW_COUNT = 100000;
+
+    // Rows: id, name (null each 10th row), value
+    private static final String CHECK_SCRIPT =
+        "import sys\n" +
+        "table = READ(sys.argv[1])\n" +
+        "assert table.num_rows == " + ROW_COUNT + ", table.num_rows\n" +
+        "assert table.column('id').to_pylist() == list(range(" + ROW_COUNT + "))\n" +
+        "assert table.column('name').to_pylist() == [None if i % 10 == 0 else 'name %d' % (i % 100) for i in range(" + ROW_COUNT + ")]\n" +
+        "assert table.column('value').to_pylist() == [i * 0.5 for i in range(" + ROW_COUNT + ")]\n" +
+        "print('OK')\n";
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("interop-test", ".bin");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testParquetSnappy() throws Exception {
+        checkParquet(ParquetWriter.CODEC_SNAPPY);
+    }
+
+    @Test
+    public void testParquetGzip() throws Exception {
+        checkParquet(ParquetWriter.CODEC_GZIP);
+    }
+
+    @Test
+    public void testArrowLz4() throws Exception {
+        checkArrow(ArrowWriter.COMPRESSION_LZ4_FRAME);
+    }
+
+    @Test
+    public void testArrowUncompressed() throws Exception {
+        checkArrow(ArrowWriter.COMPRESSION_NONE);
+    }
+
+    private void checkParquet(int codec) throws Exception {
+        Assume.assumeTrue("pyarrow is not available", isPyArrowAvailable());
+        try (OutputStream out = new FileOutputStream(file)) {
+            ParquetWriter writer = new ParquetWriter(out, Arrays.asList(
+                new ParquetColumn("id", ParquetColumn.TYPE_INT64, ParquetColumn.CONVERTED_NONE),
+                new ParquetColumn("name", ParquetColumn.TYPE_BYTE_ARRAY, ParquetColumn.CONVERTED_UTF8),
+                new ParquetColumn("value", ParquetColumn.TYPE_DOUBLE, ParquetColumn.CONVERTED_NONE)), codec, 1024 * 1024, "test");
+            for (int i = 0; i < ROW_COUNT; i++) {
+                writer.writeRow(new Object[] { (long) i, makeName(i), i * 0.5 });
+            }
+            writer.finish();
+        }
+        runCheck("import pyarrow.parquet\nREAD = pyarrow.parquet.read_table\n");
+    }
+
+    private void checkArrow(int compression) throws Exception {
+        Assume.assumeTrue("pyarrow is not available", isPyArrowAvailable());
+        try (OutputStream out = new FileOutputStream(file)) {
+            ArrowWriter writer = new ArrowWriter(out, Arrays.asList(
+                ArrowColumn.integer("id", 64),
+                ArrowColumn.simple("name", ArrowColumn.TYPE_UTF8),
+                ArrowColumn.floatingPoint("value", true)), 30000, compression);
+            for (int i = 0; i < ROW_COUNT; i++) {
+                writer.writeRow(new Object[] { (long) i, makeName(i), i * 0.5 });
+            }
+            writer.finish();
+        }
+        runCheck("import pyarrow.ipc\nREAD = lambda path: pyarrow.ipc.open_stream(pyarrow.OSFile(path)).read_all()\n");
+    }
+
+    private static byte[] makeName(int i) {
+        return i % 10 == 0 ? null : ("name " + (i % 100)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void runCheck(String reader) throws Exception {
+        String output = runPython(reader + CHECK_SCRIPT, file.getAbsolutePath());
+        assertEquals(output, "OK", output.trim());
+    }
+
+    private static boolean isPyArrowAvailable() {
+        try {
+            return runPython("import pyarrow\nprint('OK')\n").trim().equals("OK");
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static String runPython(String script, String... args) throws Exception {
+        String python = System.getenv("PYTHON");
+        String[] command = new String[3 + args.length];
+        command[0] = python == null ? "python3" : python;
+        command[1] = "-c";
+        command[2] = script;
+        System.arraycopy(args, 0, command, 3, args.length);
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream in = process.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            for (int count; (count = in.read(buffer)) > 0; ) {
+                output.write(buffer, 0, count);
+            }
+        }
+        if (!process.waitFor(60, TimeUnit.SECONDS)) {
+            process.destroy();
+            fail("Python check timed out");
+        }
+        return output.toString("UTF-8");
+    }
+
+}
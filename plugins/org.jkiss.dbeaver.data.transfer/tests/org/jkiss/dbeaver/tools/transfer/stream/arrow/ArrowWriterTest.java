@@ -0,0 +1,465 @@
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ArrowWriterTest {
+
+    // Schema.fbs / Message.fbs field indexes
+    private static final int MESSAGE_VERSION = 0;
+    private static final int MESSAGE_HEADER_TYPE = 1;
+    private static final int MESSAGE_HEADER = 2;
+    private static final int MESSAGE_BODY_LENGTH = 3;
+    private static final int SCHEMA_FIELDS = 1;
+    private static final int FIELD_NAME = 0;
+    private static final int FIELD_NULLABLE = 1;
+    private static final int FIELD_TYPE_TYPE = 2;
+    private static final int FIELD_TYPE = 3;
+    private static final int FIELD_CHILDREN = 5;
+    private static final int BATCH_LENGTH = 0;
+    private static final int BATCH_NODES = 1;
+    private static final int BATCH_BUFFERS = 2;
+    private static final int BATCH_COMPRESSION = 3;
+    private static final int COMPRESSION_CODEC = 0;
+    private static final int COMPRESSION_METHOD = 1;
+
+    /**
+     * Stream of one nullable int32 column "a" with values [1, null, 3].
+     * Bytes were checked by hand against the Arrow IPC and flatbuffers format specs.
+     */
+    private static final int[] GOLDEN_INT_STREAM = {
+        // Schema message: continuation marker, metadata size 136
+        0xff, 0xff, 0xff, 0xff, 0x88, 0x00, 0x00, 0x00,
+        // Root offset 20 -> Message table, padding
+        0x14, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+        // Message vtable: size 12, object size 24, version at +22, header_type at +21, header at +16, bodyLength at +4
+        0x0c, 0x00, 0x18, 0x00, 0x16, 0x00, 0x15, 0x00, 0x10, 0x00, 0x04, 0x00,
+        // Message table: vtable soffset 12, bodyLength 0, padding
+        0x0c, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+        // header -> Schema (+16), padding, header_type Schema (1), version V5 (4)
+        0x10, 0x00, 0x00, 0x00, 0x00, 0x01, 0x04, 0x00,
+        // Schema vtable: size 8, object size 8, endianness absent (little), fields at +4
+        0x08, 0x00, 0x08, 0x00, 0x00, 0x00, 0x04, 0x00,
+        // Schema table: vtable soffset 8, fields -> vector (+4)
+        0x08, 0x00, 0x00, 0x00, 0x04, 0x00, 0x00, 0x00,
+        // Fields vector: 1 element -> Field (+20)
+        0x01, 0x00, 0x00, 0x00, 0x14, 0x00, 0x00, 0x00,
+        // Field vtable: size 16, object size 20, name at +16, nullable at +15, type_type at +14, type at +8,
+        // dictionary absent, children at +4
+        0x10, 0x00, 0x14, 0x00, 0x10, 0x00, 0x0f, 0x00, 0x0e, 0x00, 0x08, 0x00, 0x00, 0x00, 0x04, 0x00,
+        // Field table: vtable soffset 16, children (+16), type (+24), padding, type_type Int (2), nullable, name (+28)
+        0x10, 0x00, 0x00, 0x00, 0x10, 0x00, 0x00, 0x00, 0x18, 0x00, 0x00, 0x00, 0x00, 0x00, 0x02, 0x01,
+        0x1c, 0x00, 0x00, 0x00,
+        // Empty children vector
+        0x00, 0x00, 0x00, 0x00,
+        // Int vtable: size 8, object size 12, bitWidth at +8, is_signed at +7
+        0x08, 0x00, 0x0c, 0x00, 0x08, 0x00, 0x07, 0x00,
+        // Int table: vtable soffset 8, padding, is_signed, bitWidth 32
+        0x08, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x01, 0x20, 0x00, 0x00, 0x00,
+        // Name "a", null terminator and padding
+        0x01, 0x00, 0x00, 0x00, 0x61, 0x00, 0x00, 0x00,
+
+        // Record batch message: continuation marker, metadata size 136
+        0xff, 0xff, 0xff, 0xff, 0x88, 0x00, 0x00, 0x00,
+        // Root offset 20 -> Message table, padding
+        0x14, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+        // Message vtable: size 12, object size 22, version at +20, header_type at +19, header at +12, bodyLength at +4
+        0x0c, 0x00, 0x16, 0x00, 0x14, 0x00, 0x13, 0x00, 0x0c, 0x00, 0x04, 0x00,
+        // Message table: vtable soffset 12, bodyLength 24, header -> RecordBatch (+20),
+        // padding, header_type RecordBatch (3), version V5 (4)
+        0x0c, 0x00, 0x00, 0x00, 0x18, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+        0x14, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x03, 0x04, 0x00,
+        // RecordBatch vtable: size 10, object size 24, length at +12, nodes at +8, buffers at +4
+        0x0a, 0x00, 0x18, 0x00, 0x0c, 0x00, 0x08, 0x00, 0x04, 0x00,
+        // RecordBatch table: vtable soffset 10, buffers (+20), nodes (+56), length 3, padding
+        0x0a, 0x00, 0x00, 0x00, 0x14, 0x00, 0x00, 0x00, 0x38, 0x00, 0x00, 0x00,
+        0x03, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+        // Buffers vector: 2 elements (struct elements are 8-byte aligned)
+        0x02, 0x00, 0x00, 0x00,
+        // Validity buffer: offset 0, length 1
+        0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+        // Values buffer: offset 8, length 12
+        0x08, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x0c, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+        // Padding, nodes vector: 1 element
+        0x00, 0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00,
+        // Field node: length 3, null count 1
+        0x03, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+        // Body: validity bitmap 0b101 with padding
+        0x05, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+        // Body: values 1, 0 (null slot), 3 with padding
+        0x01, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x03, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+
+        // End of stream
+        0xff, 0xff, 0xff, 0xff, 0x00, 0x00, 0x00, 0x00,
+    };
+
+    @Test
+    public void testGoldenIntStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowWriter writer = new ArrowWriter(out, Collections.singletonList(ArrowColumn.integer("a", 32)), 10, ArrowWriter.COMPRESSION_NONE);
+        writer.writeRow(new Object[] { 1 });
+        writer.writeRow(new Object[] { null });
+        writer.writeRow(new Object[] { 3 });
+        writer.finish();
+
+        byte[] expected = new byte[GOLDEN_INT_STREAM.length];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (byte) GOLDEN_INT_STREAM[i];
+        }
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    @Test
+    public void testSchemaMessage() throws IOException {
+        List<ArrowColumn> columns = makeAllTypesColumns();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ArrowWriter(out, columns, 10, ArrowWriter.COMPRESSION_NONE).finish();
+        StreamReader stream = new StreamReader(out.toByteArray());
+
+        Message message = stream.nextMessage();
+        assertEquals(4, message.table.getShort(MESSAGE_VERSION, (short) 0));
+        assertEquals(1, message.table.getByte(MESSAGE_HEADER_TYPE, (byte) 0));
+        assertEquals(0, message.table.getLong(MESSAGE_BODY_LENGTH, 0));
+        FlatBufferReader.Table schema = message.table.getTable(MESSAGE_HEADER);
+        assertEquals(columns.size(), schema.getVectorLength(SCHEMA_FIELDS));
+
+        FlatBufferReader.Table[] fields = new FlatBufferReader.Table[columns.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = schema.getVectorTable(SCHEMA_FIELDS, i);
+            assertEquals(columns.get(i).getName(), fields[i].getString(FIELD_NAME));
+            assertEquals(1, fields[i].getByte(FIELD_NULLABLE, (byte) 0));
+            assertEquals(columns.get(i).getType(), fields[i].getByte(FIELD_TYPE_TYPE, (byte) 0));
+            assertEquals(0, fields[i].getVectorLength(FIELD_CHILDREN));
+        }
+        // Int: bitWidth, is_signed
+        assertEquals(8, fields[1].getTable(FIELD_TYPE).getInt(0, 0));
+        assertEquals(1, fields[1].getTable(FIELD_TYPE).getByte(1, (byte) 0));
+        assertEquals(64, fields[4].getTable(FIELD_TYPE).getInt(0, 0));
+        // FloatingPoint: precision
+        assertEquals(1, fields[5].getTable(FIELD_TYPE).getShort(0, (short) 0));
+        assertEquals(2, fields[6].getTable(FIELD_TYPE).getShort(0, (short) 0));
+        // Decimal: precision, scale, bitWidth
+        FlatBufferReader.Table decimal = fields[7].getTable(FIELD_TYPE);
+        assertEquals(38, decimal.getInt(0, 0));
+        assertEquals(10, decimal.getInt(1, 0));
+        assertEquals(128, decimal.getInt(2, 128));
+        // Date: unit DAY (default)
+        assertEquals(0, fields[8].getTable(FIELD_TYPE).getShort(0, (short) 1));
+        // Time: unit MILLISECOND, bitWidth 32
+        assertEquals(1, fields[9].getTable(FIELD_TYPE).getShort(0, (short) 0));
+        assertEquals(32, fields[9].getTable(FIELD_TYPE).getInt(1, 0));
+        // Timestamp: unit MILLISECOND, UTC
+        assertEquals(1, fields[10].getTable(FIELD_TYPE).getShort(0, (short) 0));
+        assertEquals("UTC", fields[10].getTable(FIELD_TYPE).getString(1));
+
+        assertTrue(stream.isEndOfStream());
+    }
+
+    @Test
+    public void testRecordBatches() throws IOException {
+        List<ArrowColumn> columns = makeAllTypesColumns();
+        BigInteger decimal = new BigInteger("-12345678901234567890123456789012345678");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowWriter writer = new ArrowWriter(out, columns, 2, ArrowWriter.COMPRESSION_NONE);
+        writer.writeRow(new Object[] { true, -128, 32767, Integer.MIN_VALUE, Long.MAX_VALUE, 0.5f, -0.0, decimal, 18261, 86399999, 1577836800123L,
+            "é中😀".getBytes(StandardCharsets.UTF_8), new byte[] { 1, 2, 3 } });
+        writer.writeRow(new Object[columns.size()]);
+        writer.writeRow(new Object[] { false, 127, -1, 0, -1L, Float.NaN, Double.MAX_VALUE, BigInteger.ONE, -1, 0, -1L,
+            new byte[0], new byte[0] });
+        writer.finish();
+
+        StreamReader stream = new StreamReader(out.toByteArray());
+        stream.nextMessage();
+
+        // First batch: 2 rows, the second row is null
+        Batch batch = stream.nextBatch(columns.size());
+        assertEquals(2, batch.length);
+        for (int i = 0; i < columns.size(); i++) {
+            assertEquals(2, batch.nodeLength(i));
+            assertEquals(1, batch.nodeNullCount(i));
+            assertTrue(batch.isValid(i, 0));
+            assertFalse(batch.isValid(i, 1));
+        }
+        assertTrue(batch.getBit(batch.valuesBuffer(0), 0));
+        assertEquals(-128, batch.valuesBuffer(1).get(0));
+        assertEquals(32767, batch.valuesBuffer(2).getShort(0));
+        assertEquals(Integer.MIN_VALUE, batch.valuesBuffer(3).getInt(0));
+        assertEquals(Long.MAX_VALUE, batch.valuesBuffer(4).getLong(0));
+        assertEquals(0.5f, batch.valuesBuffer(5).getFloat(0), 0);
+        assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(batch.valuesBuffer(6).getDouble(0)));
+        ByteBuffer decimalBuffer = batch.valuesBuffer(7);
+        byte[] decimalBytes = new byte[16];
+        for (int i = 0; i < 16; i++) {
+            // Little-endian to big-endian
+            decimalBytes[15 - i] = decimalBuffer.get(i);
+        }
+        assertEquals(decimal, new BigInteger(decimalBytes));
+        assertEquals(32, decimalBuffer.limit());
+        assertEquals(18261, batch.valuesBuffer(8).getInt(0));
+        assertEquals(86399999, batch.valuesBuffer(9).getInt(0));
+        assertEquals(1577836800123L, batch.valuesBuffer(10).getLong(0));
+        assertEquals("é中😀", new String(batch.variableValue(11, 0), StandardCharsets.UTF_8));
+        assertEquals(0, batch.variableValue(11, 1).length);
+        assertArrayEquals(new byte[] { 1, 2, 3 }, batch.variableValue(12, 0));
+
+        // Second batch: 1 row without nulls, validity bitmaps are omitted
+        batch = stream.nextBatch(columns.size());
+        assertEquals(1, batch.length);
+        for (int i = 0; i < columns.size(); i++) {
+            assertEquals(1, batch.nodeLength(i));
+            assertEquals(0, batch.nodeNullCount(i));
+            assertEquals(0, batch.bufferLength(i, 0));
+            assertTrue(batch.isValid(i, 0));
+        }
+        assertFalse(batch.getBit(batch.valuesBuffer(0), 0));
+        assertEquals(127, batch.valuesBuffer(1).get(0));
+        assertEquals(-1, batch.valuesBuffer(2).getShort(0));
+        assertTrue(Float.isNaN(batch.valuesBuffer(5).getFloat(0)));
+        assertEquals(Double.MAX_VALUE, batch.valuesBuffer(6).getDouble(0), 0);
+        assertEquals(1, batch.valuesBuffer(7).get(0));
+        assertEquals(0, batch.valuesBuffer(7).getLong(8));
+        assertEquals(-1, batch.valuesBuffer(8).getInt(0));
+        assertEquals(0, batch.variableValue(11, 0).length);
+
+        assertTrue(stream.isEndOfStream());
+    }
+
+    @Test
+    public void testCompressedRecordBatches() throws IOException {
+        List<ArrowColumn> columns = makeAllTypesColumns();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            rows.add(i % 10 == 0 ? new Object[columns.size()] : new Object[] {
+                i % 3 == 0, i % 100, i, i * 2, i * 1000L, i * 0.5f, i * 0.25, BigInteger.valueOf(i), 18000 + i % 30, i * 1000, 1577836800000L + i,
+                ("value " + i % 50).getBytes(StandardCharsets.UTF_8), new byte[] { (byte) i } });
+        }
+        byte[] plain = writeStream(columns, rows, ArrowWriter.COMPRESSION_NONE);
+        byte[] compressed = writeStream(columns, rows, ArrowWriter.COMPRESSION_LZ4_FRAME);
+        assertTrue("Compressed size " + compressed.length + ", uncompressed size " + plain.length, compressed.length < plain.length * 3 / 4);
+
+        StreamReader plainStream = new StreamReader(plain);
+        StreamReader compressedStream = new StreamReader(compressed);
+        plainStream.nextMessage();
+        compressedStream.nextMessage();
+        int compressedBuffers = 0, uncompressedBuffers = 0;
+        // Two full batches and the last batch of one row
+        for (int i = 0; i < 3; i++) {
+            Batch plainBatch = plainStream.nextBatch(columns.size());
+            Batch compressedBatch = compressedStream.nextBatch(columns.size());
+            assertFalse(plainBatch.table.has(BATCH_COMPRESSION));
+            FlatBufferReader.Table compression = compressedBatch.table.getTable(BATCH_COMPRESSION);
+            assertEquals(0, compression.getByte(COMPRESSION_CODEC, (byte) -1));
+            assertEquals(0, compression.getByte(COMPRESSION_METHOD, (byte) -1));
+            assertEquals(plainBatch.length, compressedBatch.length);
+            for (int column = 0; column < columns.size(); column++) {
+                assertEquals(plainBatch.nodeNullCount(column), compressedBatch.nodeNullCount(column));
+                for (int buffer = 0; buffer < (column >= 11 ? 3 : 2); buffer++) {
+                    ByteBuffer data = compressedBatch.buffer(column, buffer);
+                    if (data.limit() > 0) {
+                        if (data.getLong(0) == -1) {
+                            uncompressedBuffers++;
+                        } else {
+                            compressedBuffers++;
+                        }
+                    }
+                    assertArrayEquals(toArray(plainBatch.buffer(column, buffer)), decompressBuffer(data));
+                }
+            }
+        }
+        assertTrue(compressedBuffers > 0);
+        // Buffers of the last batch are too small to compress
+        assertTrue(uncompressedBuffers > 0);
+        assertTrue(compressedStream.isEndOfStream());
+    }
+
+    @Test
+    public void testEmptyStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ArrowWriter(out, Collections.singletonList(ArrowColumn.simple("s", ArrowColumn.TYPE_UTF8)), 10, ArrowWriter.COMPRESSION_NONE).finish();
+        StreamReader stream = new StreamReader(out.toByteArray());
+        stream.nextMessage();
+        // No record batches
+        assertTrue(stream.isEndOfStream());
+    }
+
+    private static byte[] writeStream(List<ArrowColumn> columns, List<Object[]> rows, int compression) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowWriter writer = new ArrowWriter(out, columns, 500, compression);
+        for (Object[] row : rows) {
+            writer.writeRow(row);
+        }
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    /**
+     * Compressed buffer: uncompressed length (-1 if buffer is not compressed) and LZ4 frame
+     */
+    private static byte[] decompressBuffer(ByteBuffer buffer) {
+        if (buffer.limit() == 0) {
+            return new byte[0];
+        }
+        long length = buffer.getLong(0);
+        buffer.position(8);
+        byte[] body = toArray(buffer.slice());
+        if (length == -1) {
+            return body;
+        }
+        byte[] result = Lz4FrameReader.decompress(body);
+        assertEquals(length, result.length);
+        return result;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static List<ArrowColumn> makeAllTypesColumns() {
+        return new ArrayList<>(Arrays.asList(
+            ArrowColumn.simple("bool", ArrowColumn.TYPE_BOOL),
+            ArrowColumn.integer("int8", 8),
+            ArrowColumn.integer("int16", 16),
+            ArrowColumn.integer("int32", 32),
+            ArrowColumn.integer("int64", 64),
+            ArrowColumn.floatingPoint("float", false),
+            ArrowColumn.floatingPoint("double", true),
+            ArrowColumn.decimal("decimal", 38, 10),
+            ArrowColumn.simple("date", ArrowColumn.TYPE_DATE),
+            ArrowColumn.simple("time", ArrowColumn.TYPE_TIME),
+            ArrowColumn.simple("timestamp", ArrowColumn.TYPE_TIMESTAMP),
+            ArrowColumn.simple("utf8", ArrowColumn.TYPE_UTF8),
+            ArrowColumn.simple("binary", ArrowColumn.TYPE_BINARY)));
+    }
+
+    private static class Message {
+        final FlatBufferReader.Table table;
+        final byte[] data;
+        final int bodyOffset;
+
+        Message(FlatBufferReader.Table table, byte[] data, int bodyOffset) {
+            this.table = table;
+            this.data = data;
+            this.bodyOffset = bodyOffset;
+        }
+    }
+
+    /**
+     * Encapsulated message reader (Arrow IPC streaming format)
+     */
+    private static class StreamReader {
+        private final byte[] data;
+        private final ByteBuffer bb;
+        private int position;
+
+        StreamReader(byte[] data) {
+            this.data = data;
+            this.bb = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        Message nextMessage() {
+            assertEquals(0xFFFFFFFF, bb.getInt(position));
+            int metadataSize = bb.getInt(position + 4);
+            assertTrue("Metadata size must be a multiple of 8", metadataSize > 0 && metadataSize % 8 == 0);
+            int metadataOffset = position + 8;
+            FlatBufferReader.Table table = new FlatBufferReader(data, metadataOffset, metadataSize).root();
+            int bodyOffset = metadataOffset + metadataSize;
+            long bodyLength = table.getLong(MESSAGE_BODY_LENGTH, 0);
+            assertEquals("Body must be 8-byte aligned", 0, bodyOffset % 8);
+            position = bodyOffset + (int) bodyLength;
+            return new Message(table, data, bodyOffset);
+        }
+
+        Batch nextBatch(int columnCount) {
+            Message message = nextMessage();
+            assertEquals(3, message.table.getByte(MESSAGE_HEADER_TYPE, (byte) 0));
+            return new Batch(message, message.table.getTable(MESSAGE_HEADER), columnCount);
+        }
+
+        boolean isEndOfStream() {
+            return position + 8 == data.length && bb.getInt(position) == 0xFFFFFFFF && bb.getInt(position + 4) == 0;
+        }
+    }
+
+    private static class Batch {
+        final long length;
+        private final Message message;
+        private final FlatBufferReader.Table table;
+        // Index of the first buffer of each column
+        private final int[] firstBuffer;
+
+        Batch(Message message, FlatBufferReader.Table table, int columnCount) {
+            this.message = message;
+            this.table = table;
+            this.length = table.getLong(BATCH_LENGTH, 0);
+            assertEquals(columnCount, table.getVectorLength(BATCH_NODES));
+            // Variable length columns (utf8, binary) have offsets buffer
+            firstBuffer = new int[columnCount];
+            int bufferCount = 0;
+            for (int i = 0; i < columnCount; i++) {
+                firstBuffer[i] = bufferCount;
+                bufferCount += i >= 11 ? 3 : 2;
+            }
+            assertEquals(bufferCount, table.getVectorLength(BATCH_BUFFERS));
+        }
+
+        long nodeLength(int column) {
+            return table.getVectorStructLong(BATCH_NODES, column, 16, 0);
+        }
+
+        long nodeNullCount(int column) {
+            return table.getVectorStructLong(BATCH_NODES, column, 16, 8);
+        }
+
+        long bufferLength(int column, int buffer) {
+            return table.getVectorStructLong(BATCH_BUFFERS, firstBuffer[column] + buffer, 16, 8);
+        }
+
+        ByteBuffer buffer(int column, int buffer) {
+            long offset = table.getVectorStructLong(BATCH_BUFFERS, firstBuffer[column] + buffer, 16, 0);
+            assertEquals("Buffer must be 8-byte aligned", 0, offset % 8);
+            return ByteBuffer.wrap(message.data, message.bodyOffset + (int) offset, (int) bufferLength(column, buffer))
+                .slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        ByteBuffer valuesBuffer(int column) {
+            return buffer(column, column >= 11 ? 2 : 1);
+        }
+
+        boolean isValid(int column, int row) {
+            // Empty validity buffer means all values are valid
+            return bufferLength(column, 0) == 0 || getBit(buffer(column, 0), row);
+        }
+
+        boolean getBit(ByteBuffer buffer, int index) {
+            return (buffer.get(index >> 3) & (1 << (index & 7))) != 0;
+        }
+
+        byte[] variableValue(int column, int row) {
+            ByteBuffer offsets = buffer(column, 1);
+            assertEquals((length + 1) * 4, offsets.limit());
+            int start = offsets.getInt(row * 4);
+            int end = offsets.getInt(row * 4 + 4);
+            ByteBuffer values = buffer(column, 2);
+            byte[] value = new byte[end - start];
+            for (int i = 0; i < value.length; i++) {
+                value[i] = values.get(start + i);
+            }
+            return value;
+        }
+    }
+
+}
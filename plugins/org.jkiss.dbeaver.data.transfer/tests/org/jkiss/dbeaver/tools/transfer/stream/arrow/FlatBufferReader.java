@@ -0,0 +1,130 @@
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Flatbuffers reader for tests. Follows the binary format spec only and doesn't share any code with the builder.
+ */
+class FlatBufferReader {
+
+    private final ByteBuffer bb;
+
+    FlatBufferReader(byte[] data, int offset, int length) {
+        this.bb = ByteBuffer.wrap(data, offset, length).slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    Table root() {
+        return new Table(bb.getInt(0));
+    }
+
+    class Table {
+        final int position;
+        private final int vtable;
+        private final int vtableSize;
+
+        Table(int position) {
+            assertTrue("Table is not aligned", position % 4 == 0);
+            this.position = position;
+            this.vtable = position - bb.getInt(position);
+            this.vtableSize = bb.getShort(vtable) & 0xFFFF;
+            assertTrue("Bad vtable size", vtableSize >= 4 && vtableSize % 2 == 0);
+        }
+
+        int objectSize() {
+            return bb.getShort(vtable + 2) & 0xFFFF;
+        }
+
+        /**
+         * @return field position or -1 if field is absent
+         */
+        int field(int index) {
+            int entry = 4 + index * 2;
+            if (entry >= vtableSize) {
+                return -1;
+            }
+            int offset = bb.getShort(vtable + entry) & 0xFFFF;
+            if (offset == 0) {
+                return -1;
+            }
+            assertTrue("Field is out of table", offset < objectSize());
+            return position + offset;
+        }
+
+        boolean has(int index) {
+            return field(index) >= 0;
+        }
+
+        byte getByte(int index, byte defValue) {
+            int pos = field(index);
+            return pos < 0 ? defValue : bb.get(pos);
+        }
+
+        short getShort(int index, short defValue) {
+            int pos = field(index);
+            assertAligned(pos, 2);
+            return pos < 0 ? defValue : bb.getShort(pos);
+        }
+
+        int getInt(int index, int defValue) {
+            int pos = field(index);
+            assertAligned(pos, 4);
+            return pos < 0 ? defValue : bb.getInt(pos);
+        }
+
+        long getLong(int index, long defValue) {
+            int pos = field(index);
+            assertAligned(pos, 8);
+            return pos < 0 ? defValue : bb.getLong(pos);
+        }
+
+        Table getTable(int index) {
+            return new Table(deref(index));
+        }
+
+        String getString(int index) {
+            int pos = deref(index);
+            int length = bb.getInt(pos);
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = bb.get(pos + 4 + i);
+            }
+            assertEquals("String must be null-terminated", 0, bb.get(pos + 4 + length));
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int getVectorLength(int index) {
+            return bb.getInt(deref(index));
+        }
+
+        Table getVectorTable(int index, int element) {
+            int pos = deref(index) + 4 + element * 4;
+            return new Table(pos + bb.getInt(pos));
+        }
+
+        /**
+         * Reads long field of struct vector element
+         */
+        long getVectorStructLong(int index, int element, int structSize, int fieldOffset) {
+            int pos = deref(index) + 4 + element * structSize + fieldOffset;
+            assertAligned(pos, 8);
+            return bb.getLong(pos);
+        }
+
+        private int deref(int index) {
+            int pos = field(index);
+            assertTrue("Field " + index + " is absent", pos >= 0);
+            assertAligned(pos, 4);
+            return pos + bb.getInt(pos);
+        }
+
+        private void assertAligned(int pos, int alignment) {
+            assertTrue("Value at " + pos + " is not aligned to " + alignment, pos < 0 || pos % alignment == 0);
+        }
+    }
+
+}
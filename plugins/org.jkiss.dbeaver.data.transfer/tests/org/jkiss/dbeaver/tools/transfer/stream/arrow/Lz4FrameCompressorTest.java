@@ -0,0 +1,127 @@
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class Lz4FrameCompressorTest {
+
+    /**
+     * Frame of "hello arrow" written by the reference LZ4 library (liblz4 1.9.4, LZ4F_compressFrame with default preferences).
+     * Input is too short to compress, so the block is stored uncompressed.
+     */
+    private static final int[] REFERENCE_SHORT_FRAME = {
+        0x04, 0x22, 0x4d, 0x18, 0x60, 0x40, 0x82, 0x0b, 0x00, 0x00, 0x80, 0x68, 0x65, 0x6c, 0x6c, 0x6f,
+        0x20, 0x61, 0x72, 0x72, 0x6f, 0x77, 0x00, 0x00, 0x00, 0x00,
+    };
+
+    /**
+     * Frame of {@link #makePattern(int)} of 256 bytes written by the reference LZ4 library (as above).
+     */
+    private static final int[] REFERENCE_PATTERN_FRAME = {
+        0x04, 0x22, 0x4d, 0x18, 0x60, 0x40, 0x82, 0x17, 0x00, 0x00, 0x00, 0xdf, 0x00, 0x07, 0x01, 0x08,
+        0x02, 0x09, 0x03, 0x0a, 0x04, 0x0b, 0x05, 0x0c, 0x06, 0x0d, 0x00, 0xdb, 0x50, 0x02, 0x09, 0x03,
+        0x0a, 0x04, 0x00, 0x00, 0x00, 0x00,
+    };
+
+    @Test
+    public void testReferenceFrames() {
+        // Test decoder must read reference frames, then it is used to check the compressor
+        assertArrayEquals("hello arrow".getBytes(StandardCharsets.US_ASCII), Lz4FrameReader.decompress(toBytes(REFERENCE_SHORT_FRAME)));
+        assertArrayEquals(makePattern(256), Lz4FrameReader.decompress(toBytes(REFERENCE_PATTERN_FRAME)));
+    }
+
+    @Test
+    public void testSameFrameAsReference() {
+        // Frame header (with checksum) and uncompressed block are the same as of the reference library
+        byte[] data = "hello arrow".getBytes(StandardCharsets.US_ASCII);
+        assertArrayEquals(toBytes(REFERENCE_SHORT_FRAME), new Lz4FrameCompressor().compress(data, data.length));
+    }
+
+    @Test
+    public void testXxHash32() {
+        // Reference xxHash test vectors
+        assertEquals(0x02CC5D05, Lz4FrameCompressor.xxHash32(new byte[0], 0, 0, 0));
+        byte[] abc = "abc".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(0x32D153FF, Lz4FrameCompressor.xxHash32(abc, 0, abc.length, 0));
+        // LZ4 frame header checksum is the second byte of xxHash32 of frame descriptor
+        byte[] descriptor = { 0x60, 0x40 };
+        assertEquals(0x82, (Lz4FrameCompressor.xxHash32(descriptor, 0, 2, 0) >>> 8) & 0xFF);
+    }
+
+    @Test
+    public void testCompressPattern() {
+        byte[] data = makePattern(256);
+        byte[] frame = new Lz4FrameCompressor().compress(data, data.length);
+        assertTrue("Frame size " + frame.length, frame.length <= REFERENCE_PATTERN_FRAME.length);
+        assertArrayEquals(data, Lz4FrameReader.decompress(frame));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Random random = new Random(1);
+        Lz4FrameCompressor compressor = new Lz4FrameCompressor();
+
+        checkRoundTrip(compressor, new byte[0]);
+        checkRoundTrip(compressor, new byte[] { 1 });
+        checkRoundTrip(compressor, new byte[13]);
+
+        // Incompressible data is stored in uncompressed blocks
+        byte[] noise = new byte[100000];
+        random.nextBytes(noise);
+        byte[] frame = checkRoundTrip(compressor, noise);
+        assertTrue(frame.length <= noise.length + 7 + 2 * 4 + 4);
+
+        // Long literals and matches need length extension bytes
+        byte[] runs = new byte[50000];
+        random.nextBytes(runs);
+        Arrays.fill(runs, 1000, 20000, (byte) 7);
+        checkRoundTrip(compressor, runs);
+
+        // Several blocks, matches near the maximum offset
+        byte[] repeated = new byte[300000];
+        byte[] chunk = new byte[65000];
+        random.nextBytes(chunk);
+        for (int i = 0; i < repeated.length; i += chunk.length) {
+            System.arraycopy(chunk, 0, repeated, i, Math.min(chunk.length, repeated.length - i));
+        }
+        checkRoundTrip(compressor, repeated);
+
+        // Typical column values: small integers
+        byte[] ints = new byte[400000];
+        for (int i = 0; i < ints.length; i += 4) {
+            ArrowWriter.putInt(ints, i, i / 4 % 1000);
+        }
+        frame = checkRoundTrip(compressor, ints);
+        assertTrue("Frame size " + frame.length, frame.length < ints.length / 2);
+    }
+
+    private static byte[] checkRoundTrip(Lz4FrameCompressor compressor, byte[] data) {
+        // Compressor ignores bytes after the length
+        byte[] input = Arrays.copyOf(data, data.length + 10);
+        byte[] frame = compressor.compress(input, data.length);
+        assertArrayEquals(data, Lz4FrameReader.decompress(frame));
+        return frame;
+    }
+
+    static byte[] makePattern(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i * 7 % 13);
+        }
+        return data;
+    }
+
+    private static byte[] toBytes(int[] values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+}
@@ -0,0 +1,123 @@
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * LZ4 frame decoder for tests. Follows the LZ4 frame and block format specs only and doesn't share any code with the compressor.
+ * Checked against frames of the reference implementation in {@link Lz4FrameCompressorTest}.
+ */
+class Lz4FrameReader {
+
+    static byte[] decompress(byte[] frame) {
+        ByteBuffer in = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals("Bad LZ4 frame magic", 0x184D2204, in.getInt());
+        int flags = in.get() & 0xFF;
+        assertEquals("Unsupported LZ4 frame version", 1, flags >>> 6);
+        assertEquals("Dictionary is not supported", 0, flags & 0x01);
+        boolean blockChecksum = (flags & 0x10) != 0;
+        boolean contentSize = (flags & 0x08) != 0;
+        boolean contentChecksum = (flags & 0x04) != 0;
+        int blockDescriptor = in.get() & 0xFF;
+        int maxBlockSize = 1 << (2 * ((blockDescriptor >>> 4) & 0x07) + 8);
+        long expectedSize = contentSize ? in.getLong() : -1;
+        // Header checksum
+        in.get();
+
+        Output out = new Output();
+        for (;;) {
+            int blockSize = in.getInt();
+            if (blockSize == 0) {
+                break;
+            }
+            boolean uncompressed = (blockSize & 0x80000000) != 0;
+            blockSize &= 0x7FFFFFFF;
+            assertTrue("Block is too large", blockSize <= maxBlockSize);
+            byte[] block = new byte[blockSize];
+            in.get(block);
+            if (uncompressed) {
+                out.write(block, 0, block.length);
+            } else {
+                decompressBlock(block, out);
+            }
+            if (blockChecksum) {
+                in.getInt();
+            }
+        }
+        if (contentChecksum) {
+            in.getInt();
+        }
+        assertFalse("Data after the end of frame", in.hasRemaining());
+        byte[] result = Arrays.copyOf(out.data, out.size);
+        if (expectedSize >= 0) {
+            assertEquals(expectedSize, result.length);
+        }
+        return result;
+    }
+
+    /**
+     * Decodes block. Matches may refer to previous blocks.
+     */
+    private static void decompressBlock(byte[] block, Output out) {
+        int pos = 0;
+        for (;;) {
+            int token = block[pos++] & 0xFF;
+            int literalLength = token >>> 4;
+            if (literalLength == 15) {
+                int b;
+                do {
+                    b = block[pos++] & 0xFF;
+                    literalLength += b;
+                } while (b == 255);
+            }
+            out.write(block, pos, literalLength);
+            pos += literalLength;
+            if (pos == block.length) {
+                // The last sequence has no match
+                return;
+            }
+            int offset = (block[pos] & 0xFF) | (block[pos + 1] & 0xFF) << 8;
+            pos += 2;
+            int matchLength = token & 0x0F;
+            if (matchLength == 15) {
+                int b;
+                do {
+                    b = block[pos++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += 4;
+            assertTrue("Bad match offset", offset > 0 && offset <= out.size);
+            // Match may overlap its own output
+            for (int i = 0; i < matchLength; i++) {
+                out.write(out.data[out.size - offset]);
+            }
+        }
+    }
+
+    private static class Output {
+        byte[] data = new byte[1024];
+        int size;
+
+        void write(int b) {
+            ensureCapacity(1);
+            data[size++] = (byte) b;
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, data, size, length);
+            size += length;
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + length, data.length * 2));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DataExporterParquetDateTest {
+
+    @Mock
+    private DBDAttributeBinding column;
+
+    @Test
+    public void testStringTimestamps() throws DBException {
+        assertEquals(localDate(LocalDateTime.of(2020, 1, 2, 10, 11, 12)),
+            DataExporterParquet.toDate(column, "2020-01-02 10:11:12"));
+        assertEquals(localDate(LocalDateTime.of(2020, 1, 2, 10, 11, 12, 345000000)),
+            DataExporterParquet.toDate(column, "2020-01-02T10:11:12.345"));
+        assertEquals(localDate(LocalDateTime.of(2020, 1, 2, 0, 0)),
+            DataExporterParquet.toDate(column, "2020-01-02"));
+        assertEquals(Date.from(Instant.parse("2020-01-02T07:11:12Z")),
+            DataExporterParquet.toDate(column, "2020-01-02 10:11:12+03"));
+        assertEquals(Date.from(Instant.parse("2020-01-02T04:41:12Z")),
+            DataExporterParquet.toDate(column, "2020-01-02 10:11:12+05:30"));
+        assertEquals(Date.from(Instant.parse("2020-01-02T10:11:12Z")),
+            DataExporterParquet.toDate(column, "2020-01-02T10:11:12Z"));
+    }
+
+    @Test
+    public void testStringDates() throws DBException {
+        assertEquals(LocalDate.of(2020, 1, 2).toEpochDay(), DataExporterParquet.toEpochDay(column, "2020-01-02"));
+        assertEquals(LocalDate.of(1969, 12, 31).toEpochDay(), DataExporterParquet.toEpochDay(column, "1969-12-31 23:59:59"));
+    }
+
+    @Test
+    public void testStringTimes() throws DBException {
+        assertEquals(LocalTime.of(10, 11, 12).toNanoOfDay() / 1000000, DataExporterParquet.toMillisOfDay(column, "10:11:12"));
+        assertEquals(LocalTime.of(23, 59, 59, 999000000).toNanoOfDay() / 1000000, DataExporterParquet.toMillisOfDay(column, "23:59:59.999"));
+        assertEquals(LocalTime.of(10, 11, 12).toNanoOfDay() / 1000000, DataExporterParquet.toMillisOfDay(column, "10:11:12-08"));
+        assertEquals(LocalTime.of(10, 11).toNanoOfDay() / 1000000, DataExporterParquet.toMillisOfDay(column, "2020-01-02 10:11"));
+        assertEquals(0, DataExporterParquet.toMillisOfDay(column, "2020-01-02"));
+    }
+
+    @Test(expected = DBException.class)
+    public void testBadString() throws DBException {
+        DataExporterParquet.toDate(column, "yesterday");
+    }
+
+    private static Date localDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+}
@@ -0,0 +1,252 @@
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StreamExporterRawValueTest {
+
+    @Mock
+    private DBDAttributeBinding column;
+
+    private TestExporter exporter;
+
+    @Before
+    public void setUp() {
+        exporter = new TestExporter();
+    }
+
+    @Test
+    public void testStrings() {
+        assertRaw("abc", "abc");
+        assertRaw("", "");
+        assertRaw("a,\"b\"\n", "a,\"b\"\n");
+    }
+
+    @Test
+    public void testIntegers() {
+        assertRaw("42", 42);
+        assertRaw("-9223372036854775808", Long.MIN_VALUE);
+        assertRaw("-32768", Short.MIN_VALUE);
+        assertRaw("127", Byte.MAX_VALUE);
+        assertRaw("123456789012345678901234567890", new BigInteger("123456789012345678901234567890"));
+    }
+
+    @Test
+    public void testDecimals() {
+        assertRaw("1000", new BigDecimal("1E+3"));
+        assertRaw("0.00000001", new BigDecimal("1E-8"));
+        assertRaw("-12.340", new BigDecimal("-12.340"));
+    }
+
+    @Test
+    public void testBooleans() {
+        assertRaw("true", true);
+        assertRaw("false", false);
+    }
+
+    @Test
+    public void testDoubles() {
+        assertRaw("1.5", 1.5);
+        assertRaw("42", 42.0);
+        assertRaw("0", 0.0);
+        assertRaw("-0.001", -0.001);
+        assertRaw("9999999.5", 9999999.5);
+        assertRaw("0.30000000000000004", 0.1 + 0.2);
+        // Negative zero, scientific notation and special values are left to native formatter
+        assertNotRaw(-0.0);
+        assertNotRaw(1e7);
+        assertNotRaw(1e-4);
+        assertNotRaw(Double.NaN);
+        assertNotRaw(Double.NEGATIVE_INFINITY);
+    }
+
+    @Test
+    public void testShortestDoubles() {
+        // Older JDKs write "0.0020" here
+        assertRaw("0.002", 2e-3);
+        assertRaw("1.0000000000000002", Math.nextUp(1.0));
+        assertRaw("0.9999999999999999", Math.nextDown(1.0));
+        assertRaw("9999999.999999998", Math.nextDown(1e7));
+        assertRaw("0.001", 1e-3);
+        assertRaw("1024", 1024.0);
+        // Gap below power of two is half of ulp
+        assertRaw("0.001953125", Math.scalb(1.0, -9));
+        assertShortest(Math.nextDown(Math.scalb(1.0, -9)));
+        assertShortest(Math.nextDown(1024.0));
+        assertRaw("4051329.5000000005", 4051329.5000000005);
+
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            // Random values of full precision and short decimals with their neighbours
+            double value = Math.pow(10, random.nextDouble() * 10 - 3);
+            assertShortest(random.nextBoolean() ? value : -value);
+            double decimal = (random.nextInt(9990000) + 10000) / Math.pow(10, random.nextInt(8));
+            assertShortest(decimal);
+            assertShortest(Math.nextUp(decimal));
+            assertShortest(Math.nextDown(decimal));
+        }
+    }
+
+    @Test
+    public void testFloats() {
+        // Floats are not widened to double
+        assertRaw("0.1", 0.1f);
+        assertRaw("3", 3.0f);
+        assertRaw("0", 0.0f);
+        assertRaw("123456.7", 123456.7f);
+        assertRaw("-0.001", -0.001f);
+        assertNotRaw(-0.0f);
+        assertNotRaw(1e7f);
+        assertNotRaw(1e-4f);
+        assertNotRaw(Float.NaN);
+        assertNotRaw(Float.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void testShortestFloats() {
+        assertRaw("1.0000001", Math.nextUp(1.0f));
+        assertRaw("9999999", Math.nextDown(1e7f));
+        assertRaw("0.001", 1e-3f);
+        assertRaw("0.0010000002", Math.nextUp(1e-3f));
+
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            float value = (float) Math.pow(10, random.nextDouble() * 10 - 3);
+            assertShortest(random.nextBoolean() ? value : -value);
+            assertShortest(Math.nextUp(value));
+        }
+    }
+
+    @Test
+    public void testDates() {
+        assertRaw("2019-07-08", java.sql.Date.valueOf("2019-07-08"));
+        assertRaw("0099-01-02", java.sql.Date.valueOf("0099-01-02"));
+        assertRaw("01:02:03", Time.valueOf("01:02:03"));
+        assertRaw("2019-07-08 23:59:59", Timestamp.valueOf("2019-07-08 23:59:59"));
+        assertRaw("2019-07-08 01:02:03.12", Timestamp.valueOf("2019-07-08 01:02:03.12"));
+        assertRaw("2019-07-08 01:02:03.000000005", Timestamp.valueOf("2019-07-08 01:02:03.000000005"));
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2000, Calendar.FEBRUARY, 29, 12, 30, 45);
+        calendar.set(Calendar.MILLISECOND, 7);
+        assertRaw("2000-02-29 12:30:45.007", calendar.getTime());
+    }
+
+    @Test
+    public void testBCDates() {
+        // BC years have no raw form, formatter prints them with era
+        Calendar calendar = new GregorianCalendar();
+        calendar.clear();
+        calendar.set(Calendar.ERA, GregorianCalendar.BC);
+        calendar.set(100, Calendar.JANUARY, 2, 3, 4, 5);
+        assertNotRaw(new java.sql.Date(calendar.getTimeInMillis()));
+        assertNotRaw(new Timestamp(calendar.getTimeInMillis()));
+        assertNotRaw(calendar.getTime());
+
+        calendar.set(Calendar.ERA, GregorianCalendar.AD);
+        calendar.set(Calendar.YEAR, 1);
+        assertRaw("0001-01-02 03:04:05", calendar.getTime());
+    }
+
+    @Test
+    public void testDatesInNonGregorianLocale() {
+        // Default calendar of Thai locale is Buddhist, its years are 543 years ahead
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("th", "TH"));
+        try {
+            exporter = new TestExporter();
+            assertRaw("2019-07-08", java.sql.Date.valueOf("2019-07-08"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void testAppendsToExistingText() {
+        StringBuilder out = new StringBuilder("x=");
+        assertTrue(exporter.appendRawValue(out, column, 2.0));
+        assertEquals("x=2", out.toString());
+        assertFalse(exporter.appendRawValue(out, column, 2e10));
+        assertEquals("x=2", out.toString());
+    }
+
+    @Test
+    public void testNoRawEncoder() {
+        assertNotRaw(new byte[] { 1, 2 });
+        assertNotRaw(new Object());
+        when(column.isTransformed()).thenReturn(true);
+        assertNotRaw("abc");
+        assertNotRaw(1);
+    }
+
+    private void assertRaw(String expected, Object value) {
+        StringBuilder out = new StringBuilder();
+        assertTrue("No raw encoder for " + value, exporter.appendRawValue(out, column, value));
+        assertEquals(expected, out.toString());
+    }
+
+    /**
+     * Checks that raw value is the nearest of the shortest decimals which are read back as the same value
+     */
+    private void assertShortest(Number value) {
+        StringBuilder out = new StringBuilder();
+        assertTrue("No raw encoder for " + value, exporter.appendRawValue(out, column, value));
+        String raw = out.toString();
+        boolean isFloat = value instanceof Float;
+        BigDecimal exact = new BigDecimal(value.doubleValue());
+        for (int precision = 1; ; precision++) {
+            BigDecimal decimal = exact.round(new MathContext(precision, RoundingMode.HALF_EVEN));
+            String text = decimal.toString();
+            if (isFloat ? Float.parseFloat(text) == value.floatValue() : Double.parseDouble(text) == value.doubleValue()) {
+                assertEquals(raw + " instead of " + text, 0, decimal.compareTo(new BigDecimal(raw)));
+                break;
+            }
+        }
+        assertFalse(raw, raw.indexOf('.') != -1 && raw.endsWith("0"));
+    }
+
+    private void assertNotRaw(Object value) {
+        StringBuilder out = new StringBuilder();
+        assertFalse("Raw encoder for " + value, exporter.appendRawValue(out, column, value));
+        assertEquals("", out.toString());
+    }
+
+    private static class TestExporter extends StreamExporterAbstract {
+        @Override
+        public void exportHeader(DBCSession session) {
+        }
+
+        @Override
+        public void exportRow(DBCSession session, DBCResultSet resultSet, Object[] row) {
+        }
+
+        @Override
+        public void exportFooter(DBRProgressMonitor monitor) {
+        }
+    }
+
+}
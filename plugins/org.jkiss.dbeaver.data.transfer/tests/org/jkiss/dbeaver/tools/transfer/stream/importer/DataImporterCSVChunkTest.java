@@ -0,0 +1,104 @@
+package org.jkiss.dbeaver.tools.transfer.stream.importer;
+
+import au.com.bytecode.opencsv.CSVReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DataImporterCSVChunkTest {
+
+    private static final String[] LINES = {
+        "id,name,comment",
+        "1,plain,\"multi",
+        "line, with \"\"quotes\"\"",
+        "and \\\"escapes\\\"\"",
+        "2,\"x\",\"\"",
+        // Line starts right after unquoted field: escape is honored by sequential parser
+        "3,abc,def",
+        "\\\"4,\"quoted\nin\",field",
+        "5,a\\\"b,\"c\\\\\"",
+        "6,\"\"\"\",\"",
+        "",
+        "\"",
+        "7,last,",
+    };
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("dbeaver-csv-chunk", ".csv");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testChunksMatchSequentialImport() throws IOException {
+        checkChunks(String.join("\n", LINES) + "\n");
+    }
+
+    @Test
+    public void testChunksMatchSequentialImportCRLF() throws IOException {
+        checkChunks(String.join("\r\n", LINES));
+    }
+
+    @Test
+    public void testMultiByteValues() throws IOException {
+        checkChunks("1,\"при\nвет\"\n2,世界\n3,\"😀\"\"\n\"\n");
+    }
+
+    private void checkChunks(String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        List<String[]> expected = readRows(new StringReader(text));
+        for (int chunkSize = 1; chunkSize <= text.length() + 1; chunkSize++) {
+            // Small scan window checks remapping too
+            for (int windowSize : new int[] { 3, 64 * 1024 }) {
+                List<String[]> rows = new ArrayList<>();
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                     DataImporterCSV.ChunkSplitter splitter = new DataImporterCSV.ChunkSplitter(
+                         channel, chunkSize, windowSize, (byte) ',', (byte) '"', (byte) '\\'))
+                {
+                    for (long[] chunk = splitter.nextChunk(); chunk != null; chunk = splitter.nextChunk()) {
+                        ByteBuffer buffer = ByteBuffer.allocate((int) (chunk[1] - chunk[0]));
+                        channel.read(buffer, chunk[0]);
+                        buffer.flip();
+                        rows.addAll(readRows(new StringReader(StandardCharsets.UTF_8.decode(buffer).toString())));
+                    }
+                }
+                assertEquals("Chunk size " + chunkSize, expected.size(), rows.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertArrayEquals("Chunk size " + chunkSize + ", row " + i, expected.get(i), rows.get(i));
+                }
+            }
+        }
+    }
+
+    private static List<String[]> readRows(Reader reader) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (CSVReader csvReader = new CSVReader(reader, ',', '"', '\\')) {
+            for (String[] line = csvReader.readNext(); line != null; line = csvReader.readNext()) {
+                rows.add(line);
+            }
+        }
+        return rows;
+    }
+
+}
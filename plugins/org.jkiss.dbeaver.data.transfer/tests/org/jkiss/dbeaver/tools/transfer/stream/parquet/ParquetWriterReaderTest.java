@@ -0,0 +1,285 @@
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParquetWriterReaderTest {
+
+    private File file;
+
+    /**
+     * File with required int32 column "id" [1, 2, 3] and optional string column "name" ["x", null, "x"].
+     * "id" is PLAIN-encoded, "name" is dictionary-encoded, as Parquet MR writes by default.
+     * Bytes were encoded by hand from the parquet-format Thrift definitions, independently of {@link ParquetWriter}.
+     */
+    private static final int[] FIXTURE_FILE = {
+        // Magic
+        0x50, 0x41, 0x52, 0x31,
+        // id: data page header (PLAIN, 3 values)
+        0x15, 0x00, 0x15, 0x18, 0x15, 0x18, 0x2c, 0x15, 0x06, 0x15, 0x00, 0x15, 0x06, 0x15, 0x06, 0x00,
+        0x00,
+        // id: values 1, 2, 3
+        0x01, 0x00, 0x00, 0x00, 0x02, 0x00, 0x00, 0x00, 0x03, 0x00, 0x00, 0x00,
+        // name: dictionary page header (1 value)
+        0x15, 0x04, 0x15, 0x0a, 0x15, 0x0a, 0x4c, 0x15, 0x02, 0x15, 0x04, 0x00, 0x00,
+        // name: dictionary ["x"]
+        0x01, 0x00, 0x00, 0x00, 0x78,
+        // name: data page header (PLAIN_DICTIONARY, 3 values)
+        0x15, 0x00, 0x15, 0x12, 0x15, 0x12, 0x2c, 0x15, 0x06, 0x15, 0x04, 0x15, 0x06, 0x15, 0x06, 0x00,
+        0x00,
+        // name: definition levels length 2, bit-packed run 1, 0, 1
+        0x02, 0x00, 0x00, 0x00, 0x03, 0x05,
+        // name: dictionary indexes: bit width 1, RLE run of two 0
+        0x01, 0x04, 0x00,
+        // FileMetaData
+        0x15, 0x02, 0x19, 0x3c, 0x48, 0x06, 0x73, 0x63, 0x68, 0x65, 0x6d, 0x61, 0x15, 0x04, 0x00, 0x15,
+        0x02, 0x25, 0x00, 0x18, 0x02, 0x69, 0x64, 0x00, 0x15, 0x0c, 0x25, 0x02, 0x18, 0x04, 0x6e, 0x61,
+        0x6d, 0x65, 0x25, 0x00, 0x4c, 0x1c, 0x00, 0x00, 0x00, 0x16, 0x06, 0x19, 0x1c, 0x19, 0x2c, 0x26,
+        0x08, 0x1c, 0x15, 0x02, 0x19, 0x25, 0x00, 0x06, 0x19, 0x18, 0x02, 0x69, 0x64, 0x15, 0x00, 0x16,
+        0x06, 0x16, 0x3a, 0x16, 0x3a, 0x26, 0x08, 0x00, 0x00, 0x26, 0x42, 0x1c, 0x15, 0x0c, 0x19, 0x25,
+        0x04, 0x06, 0x19, 0x18, 0x04, 0x6e, 0x61, 0x6d, 0x65, 0x15, 0x00, 0x16, 0x06, 0x16, 0x58, 0x16,
+        0x58, 0x26, 0x66, 0x26, 0x42, 0x00, 0x00, 0x16, 0x92, 0x01, 0x16, 0x06, 0x00, 0x28, 0x07, 0x66,
+        0x69, 0x78, 0x74, 0x75, 0x72, 0x65, 0x00,
+        // Footer length, magic
+        0x77, 0x00, 0x00, 0x00, 0x50, 0x41, 0x52, 0x31,
+    };
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("parquet-test", ".parquet");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testAllTypesUncompressed() throws IOException {
+        checkAllTypes(ParquetWriter.CODEC_UNCOMPRESSED);
+    }
+
+    @Test
+    public void testAllTypesGzip() throws IOException {
+        checkAllTypes(ParquetWriter.CODEC_GZIP);
+    }
+
+    @Test
+    public void testAllTypesSnappy() throws IOException {
+        checkAllTypes(ParquetWriter.CODEC_SNAPPY);
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        List<ParquetColumn> columns = Arrays.asList(
+            new ParquetColumn("id", ParquetColumn.TYPE_INT32, ParquetColumn.CONVERTED_NONE),
+            new ParquetColumn("name", ParquetColumn.TYPE_BYTE_ARRAY, ParquetColumn.CONVERTED_UTF8));
+        writeRows(columns, ParquetWriter.CODEC_GZIP, 1024, new ArrayList<>());
+        try (FileChannel channel = openFile()) {
+            ParquetReader reader = new ParquetReader(channel);
+            assertEquals(2, reader.getColumns().size());
+            assertEquals(0, reader.getRowCount());
+            assertNull(reader.readRow());
+        }
+    }
+
+    @Test
+    public void testManyRowGroupsAndPages() throws IOException {
+        List<ParquetColumn> columns = Arrays.asList(
+            new ParquetColumn("id", ParquetColumn.TYPE_INT64, ParquetColumn.CONVERTED_NONE),
+            new ParquetColumn("text", ParquetColumn.TYPE_BYTE_ARRAY, ParquetColumn.CONVERTED_UTF8),
+            new ParquetColumn("flag", ParquetColumn.TYPE_BOOLEAN, ParquetColumn.CONVERTED_NONE));
+        // Small row groups and long strings produce several row groups with several pages each
+        char[] filler = new char[500];
+        Arrays.fill(filler, 'x');
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            rows.add(new Object[] {
+                (long) i,
+                i % 7 == 0 ? null : (i + new String(filler)).getBytes(StandardCharsets.UTF_8),
+                i % 5 == 0 ? null : i % 3 == 0 });
+        }
+        for (int codec : new int[] { ParquetWriter.CODEC_UNCOMPRESSED, ParquetWriter.CODEC_SNAPPY }) {
+            writeRows(columns, codec, 2 * 1024 * 1024, rows);
+            if (codec == ParquetWriter.CODEC_SNAPPY) {
+                // Pages of repeated strings are compressed well
+                assertTrue("File size " + file.length(), file.length() < 1024 * 1024);
+            }
+
+            try (FileChannel channel = openFile()) {
+                ParquetReader reader = new ParquetReader(channel);
+                assertEquals(rows.size(), reader.getRowCount());
+                for (int i = 0; i < rows.size(); i++) {
+                    Object[] row = reader.readRow();
+                    assertNotNull("Row " + i, row);
+                    assertEquals((long) i, row[0]);
+                    assertEquals(i % 7 == 0 ? null : i + new String(filler), row[1]);
+                    assertEquals(i % 5 == 0 ? null : i % 3 == 0, row[2]);
+                }
+                assertNull(reader.readRow());
+            }
+        }
+    }
+
+    @Test
+    public void testNotParquetFile() throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write("id,name\n1,abc\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        try (FileChannel channel = openFile()) {
+            new ParquetReader(channel);
+            fail("Bad file was read");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testReadFixture() throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (int b : FIXTURE_FILE) {
+                out.write(b);
+            }
+        }
+        try (FileChannel channel = openFile()) {
+            ParquetReader reader = new ParquetReader(channel);
+            List<ParquetColumn> columns = reader.getColumns();
+            assertEquals(2, columns.size());
+            assertEquals("id", columns.get(0).getName());
+            assertEquals(ParquetColumn.TYPE_INT32, columns.get(0).getType());
+            assertEquals(ParquetColumn.REPETITION_REQUIRED, columns.get(0).getRepetition());
+            assertEquals("name", columns.get(1).getName());
+            assertEquals(ParquetColumn.TYPE_BYTE_ARRAY, columns.get(1).getType());
+            assertEquals(ParquetColumn.CONVERTED_UTF8, columns.get(1).getConvertedType());
+            assertEquals(ParquetColumn.REPETITION_OPTIONAL, columns.get(1).getRepetition());
+            assertEquals(3, reader.getRowCount());
+
+            assertArrayEquals(new Object[] { 1, "x" }, reader.readRow());
+            assertArrayEquals(new Object[] { 2, null }, reader.readRow());
+            assertArrayEquals(new Object[] { 3, "x" }, reader.readRow());
+            assertNull(reader.readRow());
+        }
+    }
+
+    private void checkAllTypes(int codec) throws IOException {
+        List<ParquetColumn> columns = Arrays.asList(
+            new ParquetColumn("bool", ParquetColumn.TYPE_BOOLEAN, ParquetColumn.CONVERTED_NONE),
+            new ParquetColumn("tiny", ParquetColumn.TYPE_INT32, ParquetColumn.CONVERTED_INT_8),
+            new ParquetColumn("int", ParquetColumn.TYPE_INT32, ParquetColumn.CONVERTED_NONE),
+            new ParquetColumn("long", ParquetColumn.TYPE_INT64, ParquetColumn.CONVERTED_NONE),
+            new ParquetColumn("float", ParquetColumn.TYPE_FLOAT, ParquetColumn.CONVERTED_NONE),
+            new ParquetColumn("double", ParquetColumn.TYPE_DOUBLE, ParquetColumn.CONVERTED_NONE),
+            ParquetColumn.decimal("dec9", ParquetColumn.TYPE_INT32, 9, 2),
+            ParquetColumn.decimal("dec18", ParquetColumn.TYPE_INT64, 18, 4),
+            ParquetColumn.decimal("dec38", ParquetColumn.TYPE_BYTE_ARRAY, 38, 10),
+            new ParquetColumn("date", ParquetColumn.TYPE_INT32, ParquetColumn.CONVERTED_DATE),
+            new ParquetColumn("time", ParquetColumn.TYPE_INT32, ParquetColumn.CONVERTED_TIME_MILLIS),
+            new ParquetColumn("timestamp", ParquetColumn.TYPE_INT64, ParquetColumn.CONVERTED_TIMESTAMP_MILLIS),
+            new ParquetColumn("text", ParquetColumn.TYPE_BYTE_ARRAY, ParquetColumn.CONVERTED_UTF8),
+            new ParquetColumn("binary", ParquetColumn.TYPE_BYTE_ARRAY, ParquetColumn.CONVERTED_NONE));
+
+        BigInteger bigUnscaled = new BigInteger("-1234567890123456789012345678");
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] {
+            true, -128, Integer.MIN_VALUE, Long.MAX_VALUE, 0.1f, -0.0, 12345, -99999L, bigUnscaled.toByteArray(),
+            (int) LocalDate.of(2019, 12, 31).toEpochDay(), (int) (LocalTime.of(23, 59, 58).toNanoOfDay() / 1000000), 1577836800123L,
+            "Unicode é中😀", new byte[] { 0, -1, 127 } });
+        // All nulls
+        rows.add(new Object[columns.size()]);
+        rows.add(new Object[] {
+            false, 127, 0, -1L, Float.NaN, Double.MAX_VALUE, -1, 0L, BigInteger.ZERO.toByteArray(),
+            0, 0, 0L, "", new byte[0] });
+
+        writeRows(columns, codec, 1024 * 1024, rows);
+
+        try (FileChannel channel = openFile()) {
+            ParquetReader reader = new ParquetReader(channel);
+            List<ParquetColumn> readColumns = reader.getColumns();
+            assertEquals(columns.size(), readColumns.size());
+            for (int i = 0; i < columns.size(); i++) {
+                ParquetColumn expected = columns.get(i);
+                ParquetColumn actual = readColumns.get(i);
+                assertEquals(expected.getName(), actual.getName());
+                assertEquals(expected.getType(), actual.getType());
+                assertEquals(expected.getConvertedType(), actual.getConvertedType());
+                assertEquals(expected.getPrecision(), actual.getPrecision());
+                assertEquals(expected.getScale(), actual.getScale());
+            }
+            assertEquals(rows.size(), reader.getRowCount());
+
+            Object[] row = reader.readRow();
+            assertEquals(true, row[0]);
+            assertEquals(-128, row[1]);
+            assertEquals(Integer.MIN_VALUE, row[2]);
+            assertEquals(Long.MAX_VALUE, row[3]);
+            assertEquals(0.1f, row[4]);
+            assertEquals(-0.0, row[5]);
+            assertEquals(new BigDecimal("123.45"), row[6]);
+            assertEquals(new BigDecimal("-9.9999"), row[7]);
+            assertEquals(new BigDecimal(bigUnscaled, 10), row[8]);
+            assertEquals(Date.valueOf(LocalDate.of(2019, 12, 31)), row[9]);
+            assertEquals(Time.valueOf(LocalTime.of(23, 59, 58)), row[10]);
+            assertEquals(new Timestamp(1577836800123L), row[11]);
+            assertEquals("Unicode é中😀", row[12]);
+            assertArrayEquals(new byte[] { 0, -1, 127 }, (byte[]) row[13]);
+
+            row = reader.readRow();
+            assertArrayEquals(new Object[columns.size()], row);
+
+            row = reader.readRow();
+            assertEquals(false, row[0]);
+            assertEquals(127, row[1]);
+            assertTrue(Float.isNaN((Float) row[4]));
+            assertEquals(Double.MAX_VALUE, row[5]);
+            assertEquals(new BigDecimal("-0.01"), row[6]);
+            assertEquals(BigDecimal.ZERO.setScale(10), row[8]);
+            assertEquals(Date.valueOf(LocalDate.of(1970, 1, 1)), row[9]);
+            assertEquals("", row[12]);
+            assertArrayEquals(new byte[0], (byte[]) row[13]);
+
+            assertNull(reader.readRow());
+        }
+    }
+
+    private void writeRows(List<ParquetColumn> columns, int codec, long rowGroupSize, List<Object[]> rows) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            ParquetWriter writer = new ParquetWriter(out, columns, codec, rowGroupSize, "test");
+            for (Object[] row : rows) {
+                Object[] values = row.clone();
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] instanceof String) {
+                        values[i] = ((String) values[i]).getBytes(StandardCharsets.UTF_8);
+                    }
+                }
+                writer.writeRow(values);
+            }
+            writer.finish();
+        }
+    }
+
+    private FileChannel openFile() throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+
+}
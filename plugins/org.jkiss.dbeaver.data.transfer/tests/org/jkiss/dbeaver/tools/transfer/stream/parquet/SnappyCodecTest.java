@@ -0,0 +1,76 @@
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SnappyCodecTest {
+
+    /**
+     * Block of "aaaaaaaaaa" + "ab" * 5, encoded by hand from the Snappy format description:
+     * length 20, literal "a", overlapping copy (offset 1, length 9), literal "ab", overlapping copy (offset 2, length 8).
+     */
+    private static final byte[] FIXTURE_BLOCK = {
+        0x14, 0x00, 0x61, 0x15, 0x01, 0x04, 0x61, 0x62, 0x11, 0x02,
+    };
+
+    @Test
+    public void testUncompressFixture() throws IOException {
+        byte[] data = SnappyCodec.uncompress(ByteBuffer.wrap(FIXTURE_BLOCK), 20);
+        assertEquals("aaaaaaaaaaababababab", new String(data, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Random random = new Random(1);
+
+        checkRoundTrip(new byte[0]);
+        checkRoundTrip(new byte[] { 1 });
+        checkRoundTrip(new byte[15]);
+
+        // Incompressible data: long literals with 1-4 length bytes
+        byte[] noise = new byte[200000];
+        random.nextBytes(noise);
+        byte[] compressed = checkRoundTrip(noise);
+        assertTrue(compressed.length <= SnappyCodec.maxCompressedLength(noise.length));
+
+        // Long matches are split into several copies
+        byte[] runs = new byte[100000];
+        random.nextBytes(runs);
+        Arrays.fill(runs, 100, 30000, (byte) 'x');
+        checkRoundTrip(runs);
+
+        // Matches with large offsets (2-byte offset copies) in several fragments. Matches don't cross fragments
+        byte[] repeated = new byte[300000];
+        byte[] chunk = new byte[5000];
+        random.nextBytes(chunk);
+        for (int i = 0; i < repeated.length; i += chunk.length) {
+            System.arraycopy(chunk, 0, repeated, i, Math.min(chunk.length, repeated.length - i));
+        }
+        compressed = checkRoundTrip(repeated);
+        assertTrue("Compressed size " + compressed.length, compressed.length < repeated.length / 5);
+
+        // Typical page: small integers
+        byte[] ints = new byte[400000];
+        for (int i = 0; i < ints.length; i += 4) {
+            ParquetWriter.putInt(ints, i, i / 4 % 1000);
+        }
+        compressed = checkRoundTrip(ints);
+        assertTrue("Compressed size " + compressed.length, compressed.length < ints.length / 2);
+    }
+
+    private static byte[] checkRoundTrip(byte[] data) throws IOException {
+        // Compressor ignores bytes after the length
+        byte[] input = Arrays.copyOf(data, data.length + 10);
+        byte[] compressed = SnappyCodec.compress(input, data.length);
+        assertArrayEquals(data, SnappyCodec.uncompress(ByteBuffer.wrap(compressed), data.length));
+        return compressed;
+    }
+
+}
@@ -99,6 +99,12 @@ public class ExasolSQLDialect extends JDBCSQLDialect {
         return MultiValueInsertMode.GROUP_ROWS;
     }
 
+    @Override
+    public int getMaxQueryParameters() {
+        // Exasol driver doesn't rewrite batches. Pack rows into multi-value inserts.
+        return 2000;
+    }
+
     @Override
     public boolean supportsAliasInSelect() {
         return true;
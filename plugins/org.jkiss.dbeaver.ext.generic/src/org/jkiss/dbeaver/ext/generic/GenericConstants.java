@@ -54,6 +54,7 @@ public class GenericConstants {
     public static final String PARAM_QUOTE_RESERVED_WORDS = "quote-reserved-words";
     public static final String PARAM_USE_SEARCH_STRING_ESCAPE = "use-search-string-escape";
     public static final String PARAM_DUAL_TABLE = "dual-table";
+    public static final String PARAM_MAX_QUERY_PARAMETERS = "max-query-parameters";
     public static final String PARAM_SPLIT_PROCEDURES_AND_FUNCTIONS = "split-procedures-and-functions";
     public static final String PARAM_DRIVER_PROPERTIES = "driver-properties";
 
@@ -46,6 +46,7 @@ public class GenericSQLDialect extends JDBCSQLDialect {
     private boolean hasDelimiterAfterQuery;
     private boolean hasDelimiterAfterBlock;
     private boolean callableQueryInBrackets;
+    private int maxQueryParameters;
 
     public GenericSQLDialect() {
         super("Generic");
@@ -81,6 +82,7 @@ public class GenericSQLDialect extends JDBCSQLDialect {
         if (this.dualTable.isEmpty()) {
             this.dualTable = null;
         }
+        this.maxQueryParameters = CommonUtils.toInt(driver.getDriverParameter(GenericConstants.PARAM_MAX_QUERY_PARAMETERS), 0);
     }
 
     @NotNull
@@ -130,6 +132,11 @@ public class GenericSQLDialect extends JDBCSQLDialect {
         return quoteReservedWords;
     }
 
+    @Override
+    public int getMaxQueryParameters() {
+        return maxQueryParameters;
+    }
+
     @Override
     public String formatStoredProcedureCall(DBPDataSource dataSource, String sqlText) {
         if (callableQueryInBrackets) {
@@ -17,6 +17,8 @@
  */
 package org.jkiss.dbeaver.ext.mockdata;
 
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.wizard.IWizardPage;
 import org.eclipse.osgi.util.NLS;
@@ -33,6 +35,7 @@ import org.jkiss.dbeaver.model.data.DBDAttributeValue;
 import org.jkiss.dbeaver.model.edit.DBEPersistAction;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.sql.SQLUtils;
 import org.jkiss.dbeaver.model.struct.*;
@@ -43,6 +46,8 @@ import org.jkiss.utils.CommonUtils;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class MockDataExecuteWizard  extends AbstractToolWizard<DBSDataManipulator, DBSDataManipulator> implements IImportWizard
 {
@@ -207,24 +212,9 @@ public class MockDataExecuteWizard  extends AbstractToolWizard<DBSDataManipulato
                 DBCStatistics insertStats = new DBCStatistics();
 
                 // build and init the generators
-                generators.clear();
                 DBSEntity dbsEntity = (DBSEntity) dataManipulator;
                 List<DBSAttributeBase> attributes = new ArrayList<>();
-                for (MockDataSettings.AttributeGeneratorProperties attributeProps : mockDataSettings.getAttributeGenerators().values()) {
-                    MockGeneratorDescriptor attrGenerator = attributeProps.getSelectedGenerator();
-                    if (attrGenerator != null) {
-                        MockValueGenerator generatorInstance = attrGenerator.createGenerator();
-                        DBSAttributeBase attribute = attributeProps.getAttribute();
-                        MockDataSettings.AttributeGeneratorProperties generatorPropertySource = this.mockDataSettings.getAttributeGeneratorProperties(attribute);
-                        PropertySourceCustom generatorProperties = generatorPropertySource.getGeneratorProperties();
-                        if (generatorProperties != null) {
-                            Map<Object, Object> propValues = generatorProperties.getPropertiesWithDefaults();
-                            generatorInstance.init(dataManipulator, attribute, propValues);
-                            generators.put(attribute.getName(), generatorInstance);
-                        }
-                        attributes.add(attribute);
-                    }
-                }
+                generators = createGenerators(dataManipulator, attributes);
 
                 monitor.done();
 
@@ -255,7 +245,16 @@ public class MockDataExecuteWizard  extends AbstractToolWizard<DBSDataManipulato
                         }
                     }
                 }
-                List<List<DBDAttributeValue>> valuesCacheForUniqs = new ArrayList<>();
+                Set<List<Object>> valuesCacheForUniqs = new HashSet<>();
+
+                int threadCount = JUST_GENERATE_SCRIPT ? 1 : Math.max(1, Math.min(mockDataSettings.getThreadCount(), MockDataSettings.MAX_THREAD_COUNT));
+                if (threadCount > 1) {
+                    // generate and insert the data in parallel connections
+                    if (!generateDataInParallel(monitor, dataManipulator, attributes, hasMiltiUniqs ? miltiUniqColumns : null, rowsNumber, batchSize, threadCount, insertStats)) {
+                        return true;
+                    }
+                    quotient = 0;
+                }
 
                 // generate and insert the data
                 session.enableLogging(false);
@@ -278,44 +277,17 @@ public class MockDataExecuteWizard  extends AbstractToolWizard<DBSDataManipulato
                             if (monitor.isCanceled()) {
                                 break;
                             }
-                            List<DBDAttributeValue> attributeValues = new ArrayList<>();
+                            List<DBDAttributeValue> attributeValues;
                             try {
-                                for (DBSAttributeBase attribute : attributes) {
-                                    MockValueGenerator generator = generators.get(attribute.getName());
-                                    if (generator != null) {
-                                        //((AbstractMockValueGenerator) generator).checkUnique(monitor);
-                                        Object value = generator.generateValue(monitor);
-                                        attributeValues.add(new DBDAttributeValue(attribute, value));
-                                    }
-                                }
+                                attributeValues = generateRow(monitor, generators, attributes);
                             } catch (DBException e) {
                                 processGeneratorException(e);
                                 return true;
                             }
 
                             // skip duplicate records for uniqs
-                            if (hasMiltiUniqs) {
-                                boolean collision = false;
-                                for (List<DBDAttributeValue> valueList : valuesCacheForUniqs) {
-                                    boolean theSame = true;
-                                    for (int j = 0; j < valueList.size(); j++) {
-                                        if (miltiUniqColumns.contains(valueList.get(j).getAttribute().getName())) {
-                                            if (!CommonUtils.equalObjects(valueList.get(j), attributeValues.get(j))) {
-                                                theSame = false;
-                                                break;
-                                            }
-                                        }
-                                    }
-                                    if (theSame) {
-                                        collision = true;
-                                        break;
-                                    }
-                                }
-                                if (collision) {
-                                    continue;
-                                } else {
-                                    valuesCacheForUniqs.add(attributeValues);
-                                }
+                            if (hasMiltiUniqs && !valuesCacheForUniqs.add(getUniqueKey(attributeValues, miltiUniqColumns))) {
+                                continue;
                             }
 
                             if (batch == null) {
@@ -379,6 +351,144 @@ public class MockDataExecuteWizard  extends AbstractToolWizard<DBSDataManipulato
         return true;
     }
 
+    private Map<String, MockValueGenerator> createGenerators(DBSDataManipulator dataManipulator, List<DBSAttributeBase> attributes) throws DBException {
+        Map<String, MockValueGenerator> result = new HashMap<>();
+        for (MockDataSettings.AttributeGeneratorProperties attributeProps : mockDataSettings.getAttributeGenerators().values()) {
+            MockGeneratorDescriptor attrGenerator = attributeProps.getSelectedGenerator();
+            if (attrGenerator != null) {
+                MockValueGenerator generatorInstance = attrGenerator.createGenerator();
+                DBSAttributeBase attribute = attributeProps.getAttribute();
+                MockDataSettings.AttributeGeneratorProperties generatorPropertySource = this.mockDataSettings.getAttributeGeneratorProperties(attribute);
+                PropertySourceCustom generatorProperties = generatorPropertySource.getGeneratorProperties();
+                if (generatorProperties != null) {
+                    Map<Object, Object> propValues = generatorProperties.getPropertiesWithDefaults();
+                    generatorInstance.init(dataManipulator, attribute, propValues);
+                    result.put(attribute.getName(), generatorInstance);
+                }
+                if (attributes != null) {
+                    attributes.add(attribute);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<DBDAttributeValue> generateRow(DBRProgressMonitor monitor, Map<String, MockValueGenerator> generators, List<DBSAttributeBase> attributes) throws DBException, IOException {
+        List<DBDAttributeValue> attributeValues = new ArrayList<>();
+        for (DBSAttributeBase attribute : attributes) {
+            MockValueGenerator generator = generators.get(attribute.getName());
+            if (generator != null) {
+                //((AbstractMockValueGenerator) generator).checkUnique(monitor);
+                Object value;
+                // Stateful generators are shared by parallel workers
+                synchronized (generator) {
+                    value = generator.generateValue(monitor);
+                }
+                attributeValues.add(new DBDAttributeValue(attribute, value));
+            }
+        }
+        return attributeValues;
+    }
+
+    private static List<Object> getUniqueKey(List<DBDAttributeValue> attributeValues, Set<String> uniqueColumns) {
+        List<Object> key = new ArrayList<>(uniqueColumns.size());
+        for (DBDAttributeValue attributeValue : attributeValues) {
+            if (uniqueColumns.contains(attributeValue.getAttribute().getName())) {
+                key.add(attributeValue.getValue());
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Generates and inserts rows in several workers. Each worker owns its own generators, isolated connection
+     * and insert batch and commits each batch it executes. Stateful generators (sequences, unique values,
+     * foreign keys) are shared by all workers.
+     * @return false if data generation failed
+     */
+    private boolean generateDataInParallel(
+        DBRProgressMonitor monitor,
+        DBSDataManipulator dataManipulator,
+        List<DBSAttributeBase> attributes,
+        Set<String> uniqueColumns,
+        long rowsNumber,
+        int batchSize,
+        int threadCount,
+        DBCStatistics insertStats) throws DBException
+    {
+        List<DBSAttributeBase> insertAttributes = new ArrayList<>();
+        for (DBSAttributeBase attribute : attributes) {
+            if (generators.get(attribute.getName()) != null) {
+                insertAttributes.add(attribute);
+            }
+        }
+        Set<List<Object>> uniqueKeys = uniqueColumns == null ? null : ConcurrentHashMap.newKeySet();
+        AtomicLong claimedRows = new AtomicLong();
+        AtomicLong insertedRows = new AtomicLong();
+        Map<String, MockValueGenerator> sharedGenerators = new HashMap<>();
+        for (Map.Entry<String, MockValueGenerator> entry : generators.entrySet()) {
+            if (entry.getValue().isStateful(monitor)) {
+                sharedGenerators.put(entry.getKey(), entry.getValue());
+            }
+        }
+        List<DataWorkerJob> workers = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            // Generators are initialized here because some of them aren't thread-safe during init
+            Map<String, MockValueGenerator> workerGenerators = i == 0 ? generators : createGenerators(dataManipulator, null);
+            workerGenerators.putAll(sharedGenerators);
+            workers.add(new DataWorkerJob(
+                i + 1, monitor, dataManipulator, attributes, insertAttributes.toArray(new DBSAttributeBase[0]), workerGenerators,
+                uniqueColumns, uniqueKeys, rowsNumber, batchSize, claimedRows, insertedRows, workers));
+        }
+        for (DataWorkerJob worker : workers) {
+            worker.schedule();
+        }
+
+        // Report progress while workers run
+        long reportedRows = 0;
+        for (DataWorkerJob worker : workers) {
+            try {
+                while (!worker.join(100, null)) {
+                    long rows = insertedRows.get();
+                    if (rows > reportedRows) {
+                        monitor.worked((int) (rows - reportedRows));
+                        monitor.subTask(NLS.bind(MockDataMessages.tools_mockdata_wizard_log_inserted_rows, String.valueOf(rows)));
+                        reportedRows = rows;
+                    }
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+            insertStats.accumulate(worker.statistics);
+        }
+        monitor.worked((int) (insertedRows.get() - reportedRows));
+
+        boolean success = true;
+        for (DataWorkerJob worker : workers) {
+            if (worker.generateError != null) {
+                processGeneratorException(worker.generateError);
+                success = false;
+            }
+        }
+        for (DataWorkerJob worker : workers) {
+            if (worker.error instanceof DBException) {
+                throw (DBException) worker.error;
+            } else if (worker.error != null) {
+                processGeneratorException(worker.error);
+            }
+        }
+        return success;
+    }
+
+    private static boolean hasWorkerErrors(List<DataWorkerJob> workers) {
+        for (DataWorkerJob worker : workers) {
+            if (worker.error != null || worker.generateError != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void processGeneratorException(Exception e) {
         String message = NLS.bind(MockDataMessages.tools_mockdata_wizard_log_error_generating, e.getMessage());
         log.error(message, e);
@@ -390,4 +500,116 @@ public class MockDataExecuteWizard  extends AbstractToolWizard<DBSDataManipulato
         // We have only one page
         return null;
     }
+
+    /**
+     * Generates rows with its own generators and inserts them in its own isolated connection.
+     * Workers claim rows by batches until the requested row count is reached.
+     */
+    private class DataWorkerJob extends AbstractJob {
+
+        private final DBRProgressMonitor mainMonitor;
+        private final DBSDataManipulator dataManipulator;
+        private final List<DBSAttributeBase> attributes;
+        private final DBSAttributeBase[] insertAttributes;
+        private final Map<String, MockValueGenerator> generators;
+        private final Set<String> uniqueColumns;
+        private final Set<List<Object>> uniqueKeys;
+        private final long rowsNumber;
+        private final int batchSize;
+        private final AtomicLong claimedRows;
+        private final AtomicLong insertedRows;
+        private final List<DataWorkerJob> workers;
+        private final DBCStatistics statistics = new DBCStatistics();
+        private volatile Exception generateError;
+        private volatile Exception error;
+
+        DataWorkerJob(
+            int workerNumber,
+            DBRProgressMonitor mainMonitor,
+            DBSDataManipulator dataManipulator,
+            List<DBSAttributeBase> attributes,
+            DBSAttributeBase[] insertAttributes,
+            Map<String, MockValueGenerator> generators,
+            Set<String> uniqueColumns,
+            Set<List<Object>> uniqueKeys,
+            long rowsNumber,
+            int batchSize,
+            AtomicLong claimedRows,
+            AtomicLong insertedRows,
+            List<DataWorkerJob> workers)
+        {
+            super("Mock data worker #" + workerNumber);
+            setSystem(true);
+            setUser(false);
+            this.mainMonitor = mainMonitor;
+            this.dataManipulator = dataManipulator;
+            this.attributes = attributes;
+            this.insertAttributes = insertAttributes;
+            this.generators = generators;
+            this.uniqueColumns = uniqueColumns;
+            this.uniqueKeys = uniqueKeys;
+            this.rowsNumber = rowsNumber;
+            this.batchSize = batchSize;
+            this.claimedRows = claimedRows;
+            this.insertedRows = insertedRows;
+            this.workers = workers;
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            DBCExecutionContext context = null;
+            try {
+                context = DBUtils.getObjectOwnerInstance(dataManipulator).openIsolatedContext(monitor, MockDataMessages.tools_mockdata_wizard_task_insert_data);
+                try (DBCSession session = context.openSession(monitor, DBCExecutionPurpose.USER, MockDataMessages.tools_mockdata_wizard_task_insert_data)) {
+                    session.enableLogging(false);
+                    DBCTransactionManager txnManager = DBUtils.getTransactionManager(context);
+                    boolean autoCommit = txnManager == null || txnManager.isAutoCommit();
+                    AbstractExecutionSource executionSource = new AbstractExecutionSource(dataManipulator, context, MockDataExecuteWizard.this);
+                    while (!mainMonitor.isCanceled() && !hasWorkerErrors(workers)) {
+                        long firstRow = claimedRows.getAndAdd(batchSize);
+                        if (firstRow >= rowsNumber) {
+                            break;
+                        }
+                        long rowCount = Math.min(batchSize, rowsNumber - firstRow);
+                        List<Object[]> rows = new ArrayList<>((int) rowCount);
+                        try {
+                            for (long i = 0; i < rowCount && !mainMonitor.isCanceled(); i++) {
+                                List<DBDAttributeValue> attributeValues = generateRow(monitor, generators, attributes);
+                                // skip duplicate records for uniqs
+                                if (uniqueKeys != null && !uniqueKeys.add(getUniqueKey(attributeValues, uniqueColumns))) {
+                                    continue;
+                                }
+                                rows.add(DBDAttributeValue.getValues(attributeValues));
+                            }
+                        } catch (DBException | IOException e) {
+                            generateError = e;
+                            break;
+                        }
+                        if (rows.isEmpty()) {
+                            continue;
+                        }
+                        try (DBSDataManipulator.ExecuteBatch batch = dataManipulator.insertData(session, insertAttributes, null, executionSource)) {
+                            for (Object[] row : rows) {
+                                batch.add(row);
+                            }
+                            DBCStatistics batchStats = batch.execute(session);
+                            if (txnManager != null && !autoCommit) {
+                                txnManager.commit(session);
+                            }
+                            statistics.accumulate(batchStats);
+                        }
+                        insertedRows.addAndGet(rows.size());
+                    }
+                }
+            } catch (Exception e) {
+                error = e;
+            } finally {
+                if (context != null) {
+                    context.close();
+                }
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
 }
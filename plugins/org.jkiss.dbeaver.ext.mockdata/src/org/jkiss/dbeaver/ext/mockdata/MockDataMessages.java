@@ -58,6 +58,7 @@ public class MockDataMessages extends NLS {
     public static String tools_mockdata_wizard_page_settings_confirm_delete_old_data_message;
     public static String tools_mockdata_wizard_page_settings_combo_rows;
     public static String tools_mockdata_wizard_page_settings_batch_size;
+    public static String tools_mockdata_wizard_page_settings_thread_count;
     public static String tools_mockdata_wizard_page_settings_text_entity;
 
     public static String tools_mockdata_wizard_page_settings_group_generators;
@@ -37,6 +37,9 @@ public class MockDataSettings {
     public static final String PROP_REMOVE_OLD_DATA = "removeOldData"; //$NON-NLS-1$
     public static final String PROP_ROWS_NUMBER = "rowsNumber"; //$NON-NLS-1$
     public static final String PROP_BATCH_SIZE = "batchSize"; //$NON-NLS-1$
+    public static final String PROP_THREAD_COUNT = "threadCount"; //$NON-NLS-1$
+
+    public static final int MAX_THREAD_COUNT = 64;
 
     public static final String KEY_SELECTED_ATTRIBUTE = "selectedAttribute"; //$NON-NLS-1$
     public static final String KEY_SELECTED_GENERATOR = "selectedGenerator"; //$NON-NLS-1$
@@ -54,6 +57,7 @@ public class MockDataSettings {
     private boolean removeOldData;
     private long rowsNumber = 1000;
     private int batchSize = 200;
+    private int threadCount = 1;
 
     private String selectedAttribute; // attribute.name
     private Map<String, MockGeneratorDescriptor> generatorDescriptors = new HashMap<>(); // generatorId -> MockGeneratorDescriptor
@@ -154,6 +158,14 @@ public class MockDataSettings {
         this.batchSize = batchSize;
     }
 
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = Math.max(1, Math.min(threadCount, MAX_THREAD_COUNT));
+    }
+
     public Map<String, AttributeGeneratorProperties> getAttributeGenerators() {
         return attributeGenerators;
     }
@@ -178,6 +190,11 @@ public class MockDataSettings {
         } catch (NumberFormatException e) {
             // do nothing
         }
+        try {
+            setThreadCount(dialogSettings.getInt(PROP_THREAD_COUNT));
+        } catch (NumberFormatException e) {
+            // do nothing
+        }
 
         // load selected generators
         selectedAttribute = dialogSettings.get(KEY_SELECTED_ATTRIBUTE);
@@ -277,6 +294,7 @@ public class MockDataSettings {
         dialogSettings.put(PROP_REMOVE_OLD_DATA, removeOldData);
         dialogSettings.put(PROP_ROWS_NUMBER, rowsNumber);
         dialogSettings.put(PROP_BATCH_SIZE, batchSize);
+        dialogSettings.put(PROP_THREAD_COUNT, threadCount);
 
         // save selected generators
         dialogSettings.put(KEY_SELECTED_ATTRIBUTE, selectedAttribute);
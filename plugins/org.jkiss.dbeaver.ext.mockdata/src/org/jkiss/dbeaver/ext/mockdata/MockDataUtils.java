@@ -23,7 +23,6 @@ import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.*;
 import org.jkiss.utils.CommonUtils;
-import org.jkiss.utils.IntKeyMap;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -41,7 +40,6 @@ public class MockDataUtils {
     }
 
     private static final Random random = new Random();
-    private static IntKeyMap<Integer> degrees = new IntKeyMap<Integer>();
 
     public static Object generateNumeric(Integer precision, Integer scale, Double min, Double max) {
         // Integers
@@ -120,15 +118,12 @@ public class MockDataUtils {
     }
 
     public static int degree(int d) {
-        Integer value = degrees.get(d);
-        if (value == null) {
-            int result = 10;
-            for (int i = 0; i < d - 1; i++) {
-                result *= 10;
-            }
-            degrees.put(d, value = result);
+        // Not cached: generators may run in parallel, and the loop is cheaper than a synchronized map
+        int result = 10;
+        for (int i = 0; i < d - 1; i++) {
+            result *= 10;
         }
-        return value;
+        return result;
     }
 
     private static int randomInteger(int bound, Double min, Double max) {
@@ -60,6 +60,7 @@ public class MockDataWizardPageSettings extends ActiveWizardPage<MockDataExecute
     private Button removeOldDataCheck;
     private Text rowsText;
     private Text batchSizeText;
+    private Spinner threadCountSpinner;
 
     private PropertyTreeViewer propsEditor;
     private PropertySourceCustom propertySource;
@@ -128,6 +129,12 @@ public class MockDataWizardPageSettings extends ActiveWizardPage<MockDataExecute
             this.batchSizeText.addSelectionListener(changeListener);
             this.batchSizeText.addVerifyListener(UIUtils.getLongVerifyListener(batchSizeText));
             this.batchSizeText.addModifyListener(e -> updateState());
+
+            this.threadCountSpinner = UIUtils.createLabelSpinner(
+                settingsGroup, MockDataMessages.tools_mockdata_wizard_page_settings_thread_count, mockDataSettings.getThreadCount(), 1, MockDataSettings.MAX_THREAD_COUNT);
+            this.threadCountSpinner.setLayoutData(new GridData(110, SWT.DEFAULT));
+            this.threadCountSpinner.addSelectionListener(changeListener);
+            this.threadCountSpinner.addModifyListener(e -> updateState());
         }
 
         {
@@ -420,6 +427,7 @@ public class MockDataWizardPageSettings extends ActiveWizardPage<MockDataExecute
                 removeOldDataCheck.setSelection(mockDataSettings.isRemoveOldData());
                 rowsText.setText(String.valueOf(mockDataSettings.getRowsNumber()));
                 batchSizeText.setText(String.valueOf(mockDataSettings.getBatchSize()));
+                threadCountSpinner.setSelection(mockDataSettings.getThreadCount());
                 generatorsTableViewer.setInput(mockDataSettings.getAttributes());
             } finally {
                 loadingSettings = false;
@@ -500,6 +508,7 @@ public class MockDataWizardPageSettings extends ActiveWizardPage<MockDataExecute
             mockDataSettings.setRemoveOldData(removeOldDataCheck.getSelection());
             mockDataSettings.setRowsNumber(CommonUtils.toLong(rowsText.getText()));
             mockDataSettings.setBatchSize(CommonUtils.toInt(batchSizeText.getText()));
+            mockDataSettings.setThreadCount(threadCountSpinner.getSelection());
         }
     }
 
@@ -78,6 +78,11 @@ public abstract class AbstractMockValueGenerator implements MockValueGenerator {
     public void dispose() {
     }
 
+    @Override
+    public boolean isStateful(DBRProgressMonitor monitor) throws DBException {
+        return MockDataUtils.checkUnique(monitor, dbsEntity, attribute) != null;
+    }
+
     @Override
     public Object generateValue(DBRProgressMonitor monitor) throws DBException, IOException {
         if (isFirstRun) {
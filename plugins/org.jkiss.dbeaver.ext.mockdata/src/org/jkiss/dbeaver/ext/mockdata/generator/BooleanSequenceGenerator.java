@@ -71,6 +71,11 @@ public class BooleanSequenceGenerator extends AbstractMockValueGenerator {
         }
     }
 
+    @Override
+    public boolean isStateful(DBRProgressMonitor monitor) {
+        return true;
+    }
+
     @Override
     public Object generateOneValue(DBRProgressMonitor monitor) throws DBException, IOException {
         if (isGenerateNULL()) {
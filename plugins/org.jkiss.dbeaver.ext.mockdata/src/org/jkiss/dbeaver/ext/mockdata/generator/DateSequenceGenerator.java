@@ -70,6 +70,11 @@ public class DateSequenceGenerator extends AbstractMockValueGenerator {
         }
     }
 
+    @Override
+    public boolean isStateful(DBRProgressMonitor monitor) {
+        return true;
+    }
+
     @Override
     public Object generateOneValue(DBRProgressMonitor monitor) throws DBException, IOException {
         if (isGenerateNULL()) {
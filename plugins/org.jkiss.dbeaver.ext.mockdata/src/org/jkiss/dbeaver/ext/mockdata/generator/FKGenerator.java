@@ -20,16 +20,25 @@ package org.jkiss.dbeaver.ext.mockdata.generator;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ext.mockdata.MockDataUtils;
+import org.jkiss.dbeaver.model.DBPDataKind;
 import org.jkiss.dbeaver.model.DBPEvaluationContext;
 import org.jkiss.dbeaver.model.DBPNamedObject;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.data.DBDLabelValuePair;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCStatement;
+import org.jkiss.dbeaver.model.exec.DBCStatementType;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLDataSource;
 import org.jkiss.dbeaver.model.struct.*;
+import org.jkiss.dbeaver.model.struct.rdb.DBSTableColumn;
 import org.jkiss.dbeaver.model.struct.rdb.DBSTableForeignKeyColumn;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -38,10 +47,19 @@ public class FKGenerator extends AbstractMockValueGenerator
 {
     private static final Log log = Log.getLog(FKGenerator.class);
 
-    private static final int UNIQ_REF_RECORDS_LIMIT = 100000000;
     private static final int REF_RECORDS_LIMIT = 100000;
+    private static final int REF_RECORDS_FETCH_SIZE = 10000;
 
-    private List<Object> refValues = null;
+    private FKValuePool refValues = null;
+
+    // Unique FK keys are used in key order, each key once: from the dense range or page by page
+    private boolean uniqueKeys;
+    private DBSTableColumn keysColumn;
+    private Object[] keysPage;
+    private int keysPageSize;
+    private int keysPagePos;
+    private Object lastKey;
+    private boolean keysEnd;
 
     @Override
     public void init(DBSDataManipulator container, DBSAttributeBase attribute, Map<Object, Object> properties) throws DBException {
@@ -56,36 +74,241 @@ public class FKGenerator extends AbstractMockValueGenerator
 */
     }
 
+    @Override
+    public boolean isStateful(DBRProgressMonitor monitor) {
+        // Referenced keys are read once and unique keys are handed out in order
+        return true;
+    }
+
+    @Override
+    public Object generateValue(DBRProgressMonitor monitor) throws DBException, IOException {
+        if (refValues == null) {
+            readReferencedKeys(monitor);
+        }
+        if (uniqueKeys) {
+            // Keys are distinct and greater than keys already used in the table, so there is no need to check them
+            return nextUniqueKey(monitor);
+        }
+        return super.generateValue(monitor);
+    }
+
     @Override
     public Object generateOneValue(DBRProgressMonitor monitor) throws DBException, IOException {
         if (refValues == null) {
-            refValues = new ArrayList<>();
-            List<DBSEntityReferrer> attributeReferrers = DBUtils.getAttributeReferrers(monitor, (DBSEntityAttribute) attribute);
-            if (attributeReferrers.isEmpty()) {
-                throw new DBException("Attribute '" + DBUtils.getObjectFullName(attribute, DBPEvaluationContext.UI) + "' is not a part of foreign key");
+            readReferencedKeys(monitor);
+        }
+        if (refValues.isEmpty()) {
+            return null;
+        }
+        return refValues.getRandomValue();
+    }
+
+    private void readReferencedKeys(DBRProgressMonitor monitor) throws DBException {
+        List<DBSEntityReferrer> attributeReferrers = DBUtils.getAttributeReferrers(monitor, (DBSEntityAttribute) attribute);
+        if (attributeReferrers.isEmpty()) {
+            throw new DBException("Attribute '" + DBUtils.getObjectFullName(attribute, DBPEvaluationContext.UI) + "' is not a part of foreign key");
+        }
+        DBSEntityReferrer fk = attributeReferrers.get(0); // TODO only the first
+        List<? extends DBSEntityAttributeRef> references = ((DBSEntityReferrer) fk).getAttributeReferences(monitor);
+
+        DBSTableForeignKeyColumn column = null;
+        for (DBSEntityAttributeRef ref : references) {
+            if (((DBPNamedObject) ref).getName().equals(attribute.getName())) {
+                column = (DBSTableForeignKeyColumn) ref;
             }
-            DBSEntityReferrer fk = attributeReferrers.get(0); // TODO only the first
-            List<? extends DBSEntityAttributeRef> references = ((DBSEntityReferrer) fk).getAttributeReferences(monitor);
+        }
+        if (column == null) {
+            throw new DBException("Can't find reference column for '" + attribute.getName() + "'");
+        }
 
-            DBSTableForeignKeyColumn column = null;
-            for (DBSEntityAttributeRef ref : references) {
-                if (((DBPNamedObject) ref).getName().equals(attribute.getName())) {
-                    column = (DBSTableForeignKeyColumn) ref;
+        boolean isUnique = MockDataUtils.checkUnique(monitor, dbsEntity, attribute) == MockDataUtils.UNIQ_TYPE.SINGLE;
+        // Sample size is always bounded. Unique keys need all distinct values, so they are read as range or page by page.
+        refValues = new FKValuePool(REF_RECORDS_LIMIT, random);
+        DBSTableColumn refColumn = column.getReferencedColumn();
+        if (refColumn.getDataSource() instanceof SQLDataSource) {
+            boolean isRange = readKeyRange(monitor, refColumn);
+            if (isUnique) {
+                uniqueKeys = true;
+                Object maxUsedKey = readMaxUsedKey(monitor);
+                if (isRange) {
+                    Long maxUsed = toLong(maxUsedKey);
+                    if (maxUsed != null) {
+                        refValues.skipRangeTo(maxUsed);
+                    }
+                } else {
+                    keysColumn = refColumn;
+                    keysPage = new Object[REF_RECORDS_FETCH_SIZE];
+                    lastKey = maxUsedKey;
                 }
+            } else if (!isRange) {
+                readKeySample(monitor, refColumn);
             }
-            if (column == null) {
-                throw new DBException("Can't find reference column for '" + attribute.getName() + "'");
-            }
-
-            int numberRefRecords = (MockDataUtils.checkUnique(monitor, dbsEntity, attribute) == MockDataUtils.UNIQ_TYPE.SINGLE) ? UNIQ_REF_RECORDS_LIMIT : REF_RECORDS_LIMIT;
-            Collection<DBDLabelValuePair> values = readColumnValues(monitor, (DBSAttributeEnumerable) column.getReferencedColumn(), numberRefRecords);
+        } else {
+            Collection<DBDLabelValuePair> values = readColumnValues(monitor, (DBSAttributeEnumerable) refColumn, REF_RECORDS_LIMIT);
             for (DBDLabelValuePair value : values) {
                 refValues.add(value.getValue());
             }
         }
-        if (refValues.isEmpty()) {
-            return null;
+    }
+
+    /**
+     * Reads the greatest key used by existing rows. Unique keys are generated after it.
+     */
+    private Object readMaxUsedKey(DBRProgressMonitor monitor) throws DBException {
+        String query = "SELECT MAX(" + DBUtils.getQuotedIdentifier(dbsEntity.getDataSource(), attribute.getName()) + ")" +
+            "\nFROM " + DBUtils.getObjectFullName(dbsEntity, DBPEvaluationContext.DML);
+        try (DBCSession session = DBUtils.openUtilSession(monitor, dbsEntity, "Read max used key")) {
+            DBDValueHandler valueHandler = DBUtils.findValueHandler(session, attribute);
+            try (DBCStatement dbStat = session.prepareStatement(DBCStatementType.QUERY, query, false, false, false)) {
+                if (dbStat.executeStatement()) {
+                    try (DBCResultSet dbResult = dbStat.openResultSet()) {
+                        if (dbResult.nextRow()) {
+                            return valueHandler.fetchValueObject(session, dbResult, attribute, 0);
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether referenced integer keys are dense (no gaps). Such keys are generated from the range
+     * and are not read at all.
+     */
+    private boolean readKeyRange(DBRProgressMonitor monitor, DBSTableColumn refColumn) throws DBException {
+        if (refColumn.getDataKind() != DBPDataKind.NUMERIC) {
+            return false;
+        }
+        String columnName = DBUtils.getQuotedIdentifier(refColumn);
+        String query = "SELECT MIN(" + columnName + "), MAX(" + columnName + "), COUNT(" + columnName + ")" +
+            "\nFROM " + DBUtils.getObjectFullName(refColumn.getParentObject(), DBPEvaluationContext.DML);
+        try (DBCSession session = DBUtils.openUtilSession(monitor, refColumn, "Read referenced keys range")) {
+            try (DBCStatement dbStat = session.prepareStatement(DBCStatementType.QUERY, query, false, false, false)) {
+                if (dbStat.executeStatement()) {
+                    try (DBCResultSet dbResult = dbStat.openResultSet()) {
+                        if (dbResult.nextRow()) {
+                            Object minValue = dbResult.getAttributeValue(0);
+                            Long min = toLong(minValue);
+                            Long max = toLong(dbResult.getAttributeValue(1));
+                            Long count = toLong(dbResult.getAttributeValue(2));
+                            if (min != null && max != null && count != null && max - min + 1 == count) {
+                                refValues.setRange(min, max, minValue.getClass());
+                                log.debug("Foreign key '" + attribute.getName() + "' references dense key range [" + min + ".." + max + "]");
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (DBException e) {
+            log.debug("Can't read referenced keys range: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Reads all referenced keys and keeps a random sample of them.
+     */
+    private void readKeySample(DBRProgressMonitor monitor, DBSTableColumn refColumn) throws DBException {
+        String query = "SELECT " + DBUtils.getQuotedIdentifier(refColumn) +
+            "\nFROM " + DBUtils.getObjectFullName(refColumn.getParentObject(), DBPEvaluationContext.DML);
+        try (DBCSession session = DBUtils.openUtilSession(monitor, refColumn, "Read referenced keys")) {
+            DBDValueHandler valueHandler = DBUtils.findValueHandler(session, refColumn);
+            try (DBCStatement dbStat = session.prepareStatement(DBCStatementType.QUERY, query, false, false, false)) {
+                dbStat.setResultsFetchSize(REF_RECORDS_FETCH_SIZE);
+                if (dbStat.executeStatement()) {
+                    try (DBCResultSet dbResult = dbStat.openResultSet()) {
+                        while (dbResult.nextRow()) {
+                            if (monitor.isCanceled()) {
+                                break;
+                            }
+                            refValues.add(valueHandler.fetchValueObject(session, dbResult, refColumn, 0));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns next referenced key in key order. Dense keys are taken from the range, other keys are read
+     * by pages (keyset pagination), so no cursor is kept open between rows and memory use doesn't depend
+     * on referenced table size. Returns null when all keys were used.
+     */
+    private Object nextUniqueKey(DBRProgressMonitor monitor) throws DBException {
+        if (keysColumn == null) {
+            return refValues.nextRangeValue();
+        }
+        if (keysPagePos >= keysPageSize) {
+            if (keysEnd) {
+                return null;
+            }
+            readKeysPage(monitor);
+            if (keysPageSize == 0) {
+                return null;
+            }
+        }
+        Object key = keysPage[keysPagePos];
+        keysPage[keysPagePos++] = null;
+        return key;
+    }
+
+    private void readKeysPage(DBRProgressMonitor monitor) throws DBException {
+        String columnName = DBUtils.getQuotedIdentifier(keysColumn);
+        String query = "SELECT " + columnName +
+            "\nFROM " + DBUtils.getObjectFullName(keysColumn.getParentObject(), DBPEvaluationContext.DML) +
+            (lastKey == null ? "" : "\nWHERE " + columnName + " > ?") +
+            "\nORDER BY " + columnName;
+        keysPageSize = 0;
+        keysPagePos = 0;
+        int rowCount = 0;
+        try (DBCSession session = DBUtils.openUtilSession(monitor, keysColumn, "Read referenced keys")) {
+            DBDValueHandler valueHandler = DBUtils.findValueHandler(session, keysColumn);
+            try (DBCStatement dbStat = session.prepareStatement(DBCStatementType.QUERY, query, false, false, false)) {
+                if (lastKey != null) {
+                    valueHandler.bindValueObject(session, dbStat, keysColumn, 0, lastKey);
+                }
+                dbStat.setLimit(0, keysPage.length);
+                dbStat.setResultsFetchSize(keysPage.length);
+                if (dbStat.executeStatement()) {
+                    try (DBCResultSet dbResult = dbStat.openResultSet()) {
+                        while (rowCount < keysPage.length && dbResult.nextRow()) {
+                            if (monitor.isCanceled()) {
+                                break;
+                            }
+                            rowCount++;
+                            Object key = valueHandler.fetchValueObject(session, dbResult, keysColumn, 0);
+                            if (key != null) {
+                                keysPage[keysPageSize++] = key;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (rowCount < keysPage.length) {
+            keysEnd = true;
+        }
+        if (keysPageSize > 0) {
+            lastKey = keysPage[keysPageSize - 1];
+        }
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        try {
+            if (value instanceof BigInteger) {
+                return ((BigInteger) value).longValueExact();
+            }
+            if (value instanceof BigDecimal) {
+                return ((BigDecimal) value).longValueExact();
+            }
+        } catch (ArithmeticException e) {
+            // Not an integer or out of range
         }
-        return refValues.get(random.nextInt(refValues.size()));
+        return null;
     }
 }
@@ -0,0 +1,196 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mockdata.generator;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Pool of referenced key values used by foreign key generator.
+ * <p>
+ * Dense integer keys are kept as a range (no values are stored at all).
+ * Other keys are reservoir-sampled up to the pool capacity, so the referenced table may be of any size.
+ * Integer keys are packed into a primitive array, other values are kept as objects.
+ */
+class FKValuePool {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int capacity;
+    private final Random random;
+
+    // Range mode
+    private boolean isRange;
+    private long rangeMin;
+    private long rangeSize;
+    private long rangePos;
+
+    // Sample mode
+    private Class<?> numberType;
+    private long[] longValues;
+    private Object[] objectValues;
+    private int size;
+    private long valuesSeen;
+
+    FKValuePool(int capacity, Random random) {
+        this.capacity = capacity;
+        this.random = random;
+    }
+
+    /**
+     * Switches pool to range mode. All keys in [min, max] are considered valid.
+     */
+    void setRange(long min, long max, Class<?> numberType) {
+        this.isRange = true;
+        this.rangeMin = min;
+        this.rangeSize = max - min + 1;
+        this.numberType = numberType;
+        this.longValues = null;
+        this.objectValues = null;
+        this.size = 0;
+        this.rangePos = 0;
+    }
+
+    /**
+     * Adds next value of referenced column. Uses reservoir sampling (algorithm R) once pool is full.
+     */
+    void add(Object value) {
+        if (value == null || isRange) {
+            return;
+        }
+        valuesSeen++;
+        int stored = size;
+        int index;
+        if (size < capacity) {
+            index = size++;
+        } else {
+            long pos = nextLong(valuesSeen);
+            if (pos >= capacity) {
+                return;
+            }
+            index = (int) pos;
+        }
+        if (objectValues == null && isPackable(value)) {
+            if (longValues == null) {
+                numberType = value.getClass();
+                longValues = new long[Math.min(capacity, INITIAL_CAPACITY)];
+            } else if (index >= longValues.length) {
+                longValues = Arrays.copyOf(longValues, (int) Math.min(capacity, (long) longValues.length * 2));
+            }
+            longValues[index] = ((Number) value).longValue();
+            return;
+        }
+        if (objectValues == null) {
+            unpack(stored);
+        }
+        if (index >= objectValues.length) {
+            objectValues = Arrays.copyOf(objectValues, (int) Math.min(capacity, (long) objectValues.length * 2));
+        }
+        objectValues[index] = value;
+    }
+
+    boolean isEmpty() {
+        return isRange ? rangeSize <= 0 : size == 0;
+    }
+
+    long getSize() {
+        return isRange ? rangeSize : size;
+    }
+
+    Object getRandomValue() {
+        if (isRange) {
+            return box(rangeMin + nextLong(rangeSize));
+        }
+        if (size == 0) {
+            return null;
+        }
+        int index = random.nextInt(size);
+        return objectValues != null ? objectValues[index] : box(longValues[index]);
+    }
+
+    /**
+     * Returns keys of the range in ascending order, each key once. Returns null when all keys were returned.
+     * Used for unique foreign keys, so no set of used keys is needed.
+     */
+    Object nextRangeValue() {
+        if (!isRange || rangePos >= rangeSize) {
+            return null;
+        }
+        return box(rangeMin + rangePos++);
+    }
+
+    /**
+     * Skips range keys which are less than or equal to the given key
+     */
+    void skipRangeTo(long key) {
+        if (isRange && key >= rangeMin) {
+            long skipped = key - rangeMin + 1;
+            if (skipped <= 0 || skipped > rangeSize) {
+                // Overflow or beyond the range
+                skipped = rangeSize;
+            }
+            rangePos = Math.max(rangePos, skipped);
+        }
+    }
+
+    private boolean isPackable(Object value) {
+        if (numberType != null && value.getClass() != numberType) {
+            return false;
+        }
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private void unpack(int stored) {
+        objectValues = new Object[Math.min(capacity, Math.max(INITIAL_CAPACITY, stored + 1))];
+        if (longValues != null) {
+            for (int i = 0; i < stored; i++) {
+                objectValues[i] = box(longValues[i]);
+            }
+            longValues = null;
+        }
+    }
+
+    private Object box(long value) {
+        if (numberType == Integer.class) {
+            return (int) value;
+        } else if (numberType == Short.class) {
+            return (short) value;
+        } else if (numberType == Byte.class) {
+            return (byte) value;
+        } else if (numberType == BigInteger.class) {
+            return BigInteger.valueOf(value);
+        } else if (numberType == BigDecimal.class) {
+            return BigDecimal.valueOf(value);
+        }
+        return value;
+    }
+
+    private long nextLong(long bound) {
+        if (bound <= Integer.MAX_VALUE) {
+            return random.nextInt((int) bound);
+        }
+        long bits, value;
+        do {
+            bits = random.nextLong() >>> 1;
+            value = bits % bound;
+        } while (bits - value + (bound - 1) < 0);
+        return value;
+    }
+
+}
@@ -52,6 +52,11 @@ public class NumericSequenceGenerator extends AbstractMockValueGenerator {
         }
     }
 
+    @Override
+    public boolean isStateful(DBRProgressMonitor monitor) {
+        return true;
+    }
+
     @Override
     public Object generateOneValue(DBRProgressMonitor monitor) throws DBException, IOException {
         if (isGenerateNULL()) {
@@ -34,6 +34,12 @@ public interface MockValueGenerator {
 
     void nextRow();
 
+    /**
+     * Checks whether generated values depend on values generated before (sequences, unique values).
+     * Parallel generation shares such generator between workers, other generators are created for each worker.
+     */
+    boolean isStateful(DBRProgressMonitor monitor) throws DBException;
+
     Object generateValue(DBRProgressMonitor monitor)
             throws DBException, IOException;
 
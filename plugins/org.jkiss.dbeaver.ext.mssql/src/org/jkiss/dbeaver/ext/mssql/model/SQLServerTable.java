@@ -21,24 +21,33 @@ import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ext.mssql.SQLServerUtils;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
 import org.jkiss.dbeaver.model.DBPScriptObject;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
 import org.jkiss.dbeaver.model.impl.DBSObjectCache;
+import org.jkiss.dbeaver.model.impl.data.BulkLoadBatchImpl;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCObjectCache;
 import org.jkiss.dbeaver.model.meta.Association;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
-import org.jkiss.dbeaver.model.struct.DBSEntityAssociation;
-import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
-import org.jkiss.dbeaver.model.struct.DBSObject;
-import org.jkiss.dbeaver.model.struct.DBStructUtils;
+import org.jkiss.dbeaver.model.struct.*;
+import org.jkiss.utils.BeanUtils;
 import org.jkiss.utils.CommonUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -50,10 +59,14 @@ import java.util.stream.Collectors;
 /**
  * SQLServerTable
  */
-public class SQLServerTable extends SQLServerTableBase
+public class SQLServerTable extends SQLServerTableBase implements DBSDataBulkLoader
 {
     private static final Log log = Log.getLog(SQLServerTable.class);
 
+    private static final String BULK_COPY_CLASS = "com.microsoft.sqlserver.jdbc.SQLServerBulkCopy";
+    private static final String BULK_CSV_RECORD_CLASS = "com.microsoft.sqlserver.jdbc.SQLServerBulkCSVFileRecord";
+    private static final String BULK_COPY_OPTIONS_CLASS = "com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions";
+
     private CheckConstraintCache checkConstraintCache = new CheckConstraintCache();
     private String ddl;
     private volatile List<SQLServerTableForeignKey> references;
@@ -202,6 +215,130 @@ public class SQLServerTable extends SQLServerTableBase
         // Nope
     }
 
+    ////////////////////////////////////////////////////////////////////
+    // Bulk load
+
+    @Override
+    public boolean isBulkLoadSupported(@NotNull DBCSession session, @NotNull DBSAttributeBase[] attributes) {
+        if (!isPersisted() || !(session instanceof JDBCSession) || !BulkLoadBatchImpl.isTextRepresentable(attributes)) {
+            return false;
+        }
+        try {
+            // Bulk copy API is provided by Microsoft driver only
+            ((JDBCSession) session).getOriginal().getClass().getClassLoader().loadClass(BULK_COPY_CLASS);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Loads data with SQLServerBulkCopy. Rows are passed as delimited text stream.
+     * Text stream doesn't support escaping thus rows with line feeds, tabs or empty strings
+     * are inserted with regular INSERT statements.
+     */
+    @NotNull
+    @Override
+    public ExecuteBatch bulkInsertData(@NotNull DBCSession session, @NotNull DBSAttributeBase[] attributes, @NotNull DBCExecutionSource source) throws DBCException {
+        final String tableName = getFullyQualifiedName(DBPEvaluationContext.DML);
+
+        return new BulkLoadBatchImpl(attributes, insertData(session, attributes, null, source)) {
+            @Override
+            protected String getNullValueMark() {
+                return "";
+            }
+
+            @Override
+            protected boolean isRowSupported(@NotNull Object[] attributeValues) {
+                for (Object value : attributeValues) {
+                    if (value instanceof String) {
+                        String strValue = (String) value;
+                        if (strValue.isEmpty() || strValue.indexOf('\t') != -1 || strValue.indexOf('\n') != -1 || strValue.indexOf('\r') != -1) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            protected void appendValue(@NotNull StringBuilder buffer, @NotNull String value) {
+                buffer.append(value);
+            }
+
+            @Override
+            protected long loadData(@NotNull DBCSession session, @NotNull String data, int rowCount) throws DBCException {
+                try {
+                    Connection connection = ((JDBCSession) session).getOriginal();
+                    ClassLoader driverClassLoader = connection.getClass().getClassLoader();
+                    Class<?> recordClass = driverClassLoader.loadClass(BULK_CSV_RECORD_CLASS);
+                    Object record = recordClass
+                        .getConstructor(InputStream.class, String.class, String.class, boolean.class)
+                        .newInstance(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), "UTF-8", "\t", false);
+                    Object bulkCopy = driverClassLoader.loadClass(BULK_COPY_CLASS)
+                        .getConstructor(Connection.class)
+                        .newInstance(connection);
+                    try {
+                        // Behave like INSERT: fire triggers and check constraints
+                        Object bulkCopyOptions = driverClassLoader.loadClass(BULK_COPY_OPTIONS_CLASS).getConstructor().newInstance();
+                        BeanUtils.invokeObjectMethod(bulkCopyOptions, "setFireTriggers", new Class[] { boolean.class }, new Object[] { true });
+                        BeanUtils.invokeObjectMethod(bulkCopyOptions, "setCheckConstraints", new Class[] { boolean.class }, new Object[] { true });
+                        BeanUtils.invokeObjectMethod(bulkCopy, "setBulkCopyOptions", new Class[] { bulkCopyOptions.getClass() }, new Object[] { bulkCopyOptions });
+                        BeanUtils.invokeObjectMethod(bulkCopy, "setDestinationTableName", new Class[] { String.class }, new Object[] { tableName });
+                        for (int i = 0; i < attributes.length; i++) {
+                            DBSAttributeBase attribute = attributes[i];
+                            BeanUtils.invokeObjectMethod(record, "addColumnMetadata",
+                                new Class[] { int.class, String.class, int.class, int.class, int.class },
+                                new Object[] { i + 1, attribute.getName(), attribute.getTypeID(), getBulkCopyPrecision(attribute), CommonUtils.toInt(attribute.getScale()) });
+                            BeanUtils.invokeObjectMethod(bulkCopy, "addColumnMapping",
+                                new Class[] { int.class, String.class },
+                                new Object[] { i + 1, attribute.getName() });
+                        }
+                        getWriteToServerMethod(bulkCopy, record).invoke(bulkCopy, record);
+                    } finally {
+                        BeanUtils.invokeObjectMethod(bulkCopy, "close");
+                    }
+                    return rowCount;
+                } catch (InvocationTargetException e) {
+                    throw new DBCException("Error loading data with bulk copy", e.getTargetException(), getDataSource());
+                } catch (Throwable e) {
+                    throw new DBCException("Error loading data with bulk copy", e, getDataSource());
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns column precision for bulk copy metadata.
+     * (n)varchar(max) columns report max length -1 (or 0). Bulk copy streams values of columns
+     * which precision exceeds the regular column size, so MAX is passed as Integer.MAX_VALUE.
+     */
+    static int getBulkCopyPrecision(@NotNull DBSAttributeBase attribute) {
+        if (attribute.getDataKind() != DBPDataKind.STRING) {
+            return CommonUtils.toInt(attribute.getPrecision());
+        }
+        long maxLength = attribute.getMaxLength();
+        return maxLength <= 0 ? Integer.MAX_VALUE : (int) Math.min(maxLength, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds bulk copy method for CSV record.
+     * Record parameter type is ISQLServerBulkRecord in old drivers and ISQLServerBulkData in 8.1+.
+     */
+    private static Method getWriteToServerMethod(Object bulkCopy, Object record) throws NoSuchMethodException {
+        for (Method method : bulkCopy.getClass().getMethods()) {
+            if (method.getName().equals("writeToServer") &&
+                method.getParameterTypes().length == 1 &&
+                !method.getParameterTypes()[0].isArray() &&
+                method.getParameterTypes()[0].isInterface() &&
+                method.getParameterTypes()[0].isInstance(record))
+            {
+                return method;
+            }
+        }
+        throw new NoSuchMethodException("writeToServer(" + record.getClass().getName() + ")");
+    }
+
     /**
      * Constraint cache implementation
      */
@@ -0,0 +1,46 @@
+package org.jkiss.dbeaver.ext.mssql.model;
+
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SQLServerTableBulkCopyTest {
+
+    @Mock
+    private DBSAttributeBase attribute;
+
+    @Test
+    public void testStringPrecision() {
+        when(attribute.getDataKind()).thenReturn(DBPDataKind.STRING);
+        when(attribute.getMaxLength()).thenReturn(100L);
+        assertEquals(100, SQLServerTable.getBulkCopyPrecision(attribute));
+    }
+
+    @Test
+    public void testMaxStringPrecision() {
+        when(attribute.getDataKind()).thenReturn(DBPDataKind.STRING);
+        // nvarchar(max)
+        when(attribute.getMaxLength()).thenReturn(-1L);
+        assertEquals(Integer.MAX_VALUE, SQLServerTable.getBulkCopyPrecision(attribute));
+        when(attribute.getMaxLength()).thenReturn(0L);
+        assertEquals(Integer.MAX_VALUE, SQLServerTable.getBulkCopyPrecision(attribute));
+        // text
+        when(attribute.getMaxLength()).thenReturn(Long.MAX_VALUE);
+        assertEquals(Integer.MAX_VALUE, SQLServerTable.getBulkCopyPrecision(attribute));
+    }
+
+    @Test
+    public void testNumericPrecision() {
+        when(attribute.getDataKind()).thenReturn(DBPDataKind.NUMERIC);
+        when(attribute.getPrecision()).thenReturn(18);
+        assertEquals(18, SQLServerTable.getBulkCopyPrecision(attribute));
+    }
+
+}
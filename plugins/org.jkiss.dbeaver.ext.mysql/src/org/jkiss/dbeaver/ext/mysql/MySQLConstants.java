@@ -201,6 +201,7 @@ public class MySQLConstants {
     public static final String TYPE_JSON = "json";
     public static final String TYPE_GEOMETRY = "geometry";
     public static final String TYPE_YEAR = "year";
+    public static final String TYPE_TIMESTAMP = "timestamp";
 
     public static final String BIN_FOLDER = "bin";
     public static final String ENV_VARIABLE_MYSQL_PWD = "MYSQL_PWD";
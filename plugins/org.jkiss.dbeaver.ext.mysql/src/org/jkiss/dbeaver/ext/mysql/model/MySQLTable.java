@@ -24,8 +24,11 @@ import org.jkiss.dbeaver.ext.mysql.MySQLConstants;
 import org.jkiss.dbeaver.model.DBPEvaluationContext;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.*;
 import org.jkiss.dbeaver.model.impl.DBSObjectCache;
+import org.jkiss.dbeaver.model.impl.data.BulkLoadBatchImpl;
 import org.jkiss.dbeaver.model.impl.SimpleObjectCache;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCConstants;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
@@ -36,18 +39,30 @@ import org.jkiss.dbeaver.model.struct.*;
 import org.jkiss.dbeaver.model.struct.rdb.DBSForeignKeyModifyRule;
 import org.jkiss.dbeaver.model.struct.rdb.DBSTable;
 import org.jkiss.dbeaver.model.struct.rdb.DBSTableIndex;
+import org.jkiss.utils.ArrayUtils;
+import org.jkiss.utils.BeanUtils;
 import org.jkiss.utils.CommonUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.*;
 
 /**
  * MySQLTable
  */
-public class MySQLTable extends MySQLTableBase
+public class MySQLTable extends MySQLTableBase implements DBSDataBulkLoader
 {
     private static final Log log = Log.getLog(MySQLTable.class);
+    private static final int MAX_BULK_LOAD_WARNINGS = 10;
+    // ER_NOT_ALLOWED_COMMAND and ER_CLIENT_LOCAL_FILES_DISABLED
+    private static final int[] LOCAL_INFILE_DISABLED_ERRORS = { 1148, 3948 };
 
     private static final String INNODB_COMMENT = "InnoDB free";
     public static final String CATEGORY_STATISTICS = "Statistics";
@@ -517,6 +532,150 @@ public class MySQLTable extends MySQLTableBase
         return super.refreshObject(monitor);
     }
 
+    ////////////////////////////////////////////////////////////////////
+    // Bulk load
+
+    @Override
+    public boolean isBulkLoadSupported(@NotNull DBCSession session, @NotNull DBSAttributeBase[] attributes) {
+        if (!isPersisted() || !(session instanceof JDBCSession) || !BulkLoadBatchImpl.isTextRepresentable(attributes)) {
+            return false;
+        }
+        JDBCSession jdbcSession = (JDBCSession) session;
+        try (Statement dbStat = jdbcSession.getOriginal().createStatement()) {
+            // Local infile stream is supported by MySQL Connector/J and MariaDB drivers
+            dbStat.getClass().getMethod("setLocalInfileInputStream", InputStream.class);
+        } catch (Exception e) {
+            return false;
+        }
+        try {
+            // Local infile may be disabled on server side
+            String localInfile = JDBCUtils.queryString(jdbcSession, "SELECT @@local_infile");
+            if (!"1".equals(localInfile) && !"ON".equalsIgnoreCase(localInfile)) {
+                return false;
+            }
+        } catch (SQLException e) {
+            log.debug("Error reading local_infile variable", e);
+            return false;
+        }
+        // Driver may still disallow local infile (allowLoadLocalInfile/allowLocalInfile).
+        // Batch falls back to regular inserts if the first load is refused.
+        return true;
+    }
+
+    /**
+     * Checks whether LOAD DATA LOCAL was refused by driver or server configuration
+     */
+    static boolean isLocalInfileRefused(@NotNull Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof SQLException && ArrayUtils.contains(LOCAL_INFILE_DISABLED_ERRORS, ((SQLException) e).getErrorCode())) {
+                return true;
+            }
+            String message = CommonUtils.notEmpty(e.getMessage()).toLowerCase(Locale.ENGLISH);
+            if ((message.contains("local infile") || message.contains("local data")) &&
+                (message.contains("disabled") || message.contains("forbidden") || message.contains("not allowed")))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String getBulkLoadQuery(@NotNull DBSAttributeBase[] attributes) {
+        StringBuilder sql = new StringBuilder(200);
+        sql.append("LOAD DATA LOCAL INFILE 'stream' INTO TABLE ").append(getFullyQualifiedName(DBPEvaluationContext.DML));
+        sql.append(" CHARACTER SET ").append(getDataSource().isServerVersionAtLeast(5, 5) ? "utf8mb4" : "utf8");
+        sql.append(" FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' (");
+        for (int i = 0; i < attributes.length; i++) {
+            if (i > 0) sql.append(",");
+            sql.append(getAttributeName(attributes[i]));
+        }
+        sql.append(")");
+        return sql.toString();
+    }
+
+    private static void setLocalInfileStream(Statement dbStat, byte[] data) throws Throwable {
+        BeanUtils.invokeObjectMethod(
+            dbStat,
+            "setLocalInfileInputStream",
+            new Class[] { InputStream.class },
+            new Object[] { new ByteArrayInputStream(data) });
+    }
+
+    /**
+     * Loads data with LOAD DATA LOCAL INFILE from in-memory stream.
+     * LOCAL load silently skips bad rows (it always works in IGNORE mode), so the number of loaded rows
+     * and warnings are checked after each load.
+     * If driver doesn't allow local infile then rows are inserted with regular INSERT statements.
+     */
+    @NotNull
+    @Override
+    public ExecuteBatch bulkInsertData(@NotNull DBCSession session, @NotNull DBSAttributeBase[] attributes, @NotNull DBCExecutionSource source) throws DBCException {
+        final String loadQuery = getBulkLoadQuery(attributes);
+
+        return new BulkLoadBatchImpl(attributes, insertData(session, attributes, null, source)) {
+            @NotNull
+            @Override
+            protected ZoneId getSessionTimeZone(@NotNull DBCSession session) throws DBCException {
+                return getServerTimeZone((JDBCSession) session);
+            }
+
+            @Override
+            protected boolean isZonedTimestamp(@NotNull DBSAttributeBase attribute) {
+                // TIMESTAMP values are converted from session time zone to UTC, DATETIME values are kept as is
+                return MySQLConstants.TYPE_TIMESTAMP.equalsIgnoreCase(attribute.getTypeName());
+            }
+
+            @Override
+            protected boolean isLoadRefused(@NotNull DBCException error) {
+                return isLocalInfileRefused(error);
+            }
+
+            @Override
+            protected long loadData(@NotNull DBCSession session, @NotNull String data, int rowCount) throws DBCException {
+                long loadedRows;
+                List<String> warnings = new ArrayList<>();
+                try (Statement dbStat = ((JDBCSession) session).getOriginal().createStatement()) {
+                    setLocalInfileStream(dbStat, data.getBytes(StandardCharsets.UTF_8));
+                    loadedRows = dbStat.executeUpdate(loadQuery);
+                    try (ResultSet dbResult = dbStat.executeQuery("SHOW WARNINGS LIMIT " + MAX_BULK_LOAD_WARNINGS)) {
+                        while (dbResult.next()) {
+                            warnings.add(dbResult.getString("Message"));
+                        }
+                    }
+                } catch (Throwable e) {
+                    throw new DBCException("Error loading data with LOAD DATA", e, getDataSource());
+                }
+                if (loadedRows != rowCount || !warnings.isEmpty()) {
+                    throw new DBCException(
+                        "LOAD DATA loaded " + loadedRows + " of " + rowCount + " row(s)" +
+                        (warnings.isEmpty() ? "" : ":\n" + String.join("\n", warnings)));
+                }
+                return loadedRows;
+            }
+        };
+    }
+
+    /**
+     * Time zone used by server to read DATETIME and TIMESTAMP values.
+     * Zone abbreviations (e.g. system time zone CEST) can't be resolved, current offset is used for them.
+     */
+    private static ZoneId getServerTimeZone(@NotNull JDBCSession session) throws DBCException {
+        try {
+            String zoneName = JDBCUtils.queryString(session, "SELECT IF(@@session.time_zone = 'SYSTEM', @@system_time_zone, @@session.time_zone)");
+            if (!CommonUtils.isEmpty(zoneName)) {
+                try {
+                    return ZoneId.of(zoneName);
+                } catch (DateTimeException e) {
+                    // Zone abbreviation
+                }
+            }
+            String offset = JDBCUtils.queryString(session, "SELECT TIMESTAMPDIFF(SECOND, UTC_TIMESTAMP(), NOW())");
+            return ZoneOffset.ofTotalSeconds(CommonUtils.toInt(offset));
+        } catch (SQLException e) {
+            throw new DBCException(e, session.getDataSource());
+        }
+    }
+
     public static class EngineListProvider implements IPropertyValueListProvider<MySQLTable> {
         @Override
         public boolean allowCustomValue()
@@ -0,0 +1,38 @@
+package org.jkiss.dbeaver.ext.mysql.model;
+
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.SQLException;
+
+import static org.junit.Assert.*;
+
+public class MySQLTableBulkLoadTest {
+
+    @Test
+    public void testServerRefusal() {
+        assertTrue(MySQLTable.isLocalInfileRefused(
+            new DBCException("Error loading data with LOAD DATA", new SQLException("The used command is not allowed with this MySQL version", "42000", 1148))));
+        assertTrue(MySQLTable.isLocalInfileRefused(
+            new DBCException("Error loading data with LOAD DATA", new SQLException("Loading local data is disabled", "42000", 3948))));
+    }
+
+    @Test
+    public void testDriverRefusal() {
+        // MariaDB driver, error is thrown from reflective call
+        assertTrue(MySQLTable.isLocalInfileRefused(
+            new DBCException("Error loading data with LOAD DATA", new InvocationTargetException(
+                new SQLException("Usage of LOCAL INFILE is disabled. To use it enable it via the connection property allowLocalInfile=true")))));
+        // Connector/J 5.1
+        assertTrue(MySQLTable.isLocalInfileRefused(new SQLException("Load data local infile forbidden")));
+    }
+
+    @Test
+    public void testLoadErrors() {
+        assertFalse(MySQLTable.isLocalInfileRefused(
+            new DBCException("Error loading data with LOAD DATA", new SQLException("Duplicate entry '1' for key 'PRIMARY'", "23000", 1062))));
+        assertFalse(MySQLTable.isLocalInfileRefused(new DBCException("LOAD DATA loaded 1 of 2 row(s)")));
+    }
+
+}
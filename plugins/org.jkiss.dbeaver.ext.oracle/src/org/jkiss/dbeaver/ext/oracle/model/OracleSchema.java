@@ -28,6 +28,7 @@ import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCCachePrefetcher;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCCompositeCache;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCObjectCache;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCObjectLookupCache;
@@ -352,15 +353,19 @@ public class OracleSchema extends OracleGlobalObject implements DBSSchema, DBPRe
     {
         monitor.subTask("Cache tables");
         tableCache.getAllObjects(monitor, this);
+        // Columns, indexes and constraints are read in parallel
+        JDBCCachePrefetcher prefetcher = new JDBCCachePrefetcher(this);
         if ((scope & STRUCT_ATTRIBUTES) != 0) {
-            monitor.subTask("Cache table columns");
-            tableCache.loadChildren(monitor, this, null);
+            prefetcher.addLoader("Cache table columns", tableCache::isChildrenCached, m -> tableCache.loadChildren(m, this, null));
         }
         if ((scope & STRUCT_ASSOCIATIONS) != 0) {
-            monitor.subTask("Cache table indexes");
-            indexCache.getObjects(monitor, this, null);
-            monitor.subTask("Cache table constraints");
-            constraintCache.getObjects(monitor, this, null);
+            prefetcher.addLoader("Cache table indexes", indexCache::isFullyCached, m -> indexCache.getObjects(m, this, null));
+            prefetcher.addLoader("Cache table constraints", constraintCache::isFullyCached, m -> constraintCache.getObjects(m, this, null));
+        }
+        prefetcher.run(monitor);
+        if ((scope & STRUCT_ASSOCIATIONS) != 0) {
+            // Foreign keys refer to constraints
+            monitor.subTask("Cache table foreign keys");
             foreignKeyCache.getObjects(monitor, this, null);
         }
     }
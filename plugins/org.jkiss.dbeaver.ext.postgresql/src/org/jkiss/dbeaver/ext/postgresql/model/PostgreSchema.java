@@ -28,6 +28,7 @@ import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCCachePrefetcher;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCCompositeCache;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCObjectCache;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCObjectLookupCache;
@@ -288,15 +289,16 @@ public class PostgreSchema implements DBSSchema, DBPNamedObject2, DBPSaveableObj
         throws DBException {
         monitor.subTask("Cache tables");
         tableCache.getAllObjects(monitor, this);
+        // Columns, constraints and indexes are read in parallel
+        JDBCCachePrefetcher prefetcher = new JDBCCachePrefetcher(this);
         if ((scope & STRUCT_ATTRIBUTES) != 0) {
-            monitor.subTask("Cache table columns");
-            tableCache.loadChildren(monitor, this, null);
+            prefetcher.addLoader("Cache table columns", tableCache::isChildrenCached, m -> tableCache.loadChildren(m, this, null));
         }
         if ((scope & STRUCT_ASSOCIATIONS) != 0) {
-            monitor.subTask("Cache constraints");
-            constraintCache.getAllObjects(monitor, this);
-            indexCache.getAllObjects(monitor, this);
+            prefetcher.addLoader("Cache constraints", constraintCache::isFullyCached, m -> constraintCache.getAllObjects(m, this));
+            prefetcher.addLoader("Cache indexes", indexCache::isFullyCached, m -> indexCache.getAllObjects(m, this));
         }
+        prefetcher.run(monitor);
     }
 
     @Override
@@ -20,11 +20,16 @@ import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ext.postgresql.PostgreConstants;
 import org.jkiss.dbeaver.model.DBPEvaluationContext;
 import org.jkiss.dbeaver.model.DBPNamedObject2;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.impl.DBSObjectCache;
+import org.jkiss.dbeaver.model.impl.data.BulkLoadBatchImpl;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCStructCache;
 import org.jkiss.dbeaver.model.impl.jdbc.struct.JDBCTable;
@@ -33,17 +38,22 @@ import org.jkiss.dbeaver.model.meta.IPropertyValueListProvider;
 import org.jkiss.dbeaver.model.meta.Property;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
-import org.jkiss.dbeaver.model.struct.DBSEntity;
-import org.jkiss.dbeaver.model.struct.DBSEntityAssociation;
-import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.model.struct.*;
+import org.jkiss.utils.BeanUtils;
 
+import java.io.Reader;
+import java.io.StringReader;
+import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.ZoneId;
 import java.util.*;
 
 /**
  * PostgreTable base
  */
-public abstract class PostgreTableBase extends JDBCTable<PostgreDataSource, PostgreSchema> implements PostgreClass, PostgreScriptObject, PostgrePrivilegeOwner, DBPNamedObject2
+public abstract class PostgreTableBase extends JDBCTable<PostgreDataSource, PostgreSchema> implements PostgreClass, PostgreScriptObject, PostgrePrivilegeOwner, DBPNamedObject2, DBSDataBulkLoader
 {
     private static final Log log = Log.getLog(PostgreTableBase.class);
 
@@ -277,6 +287,78 @@ public abstract class PostgreTableBase extends JDBCTable<PostgreDataSource, Post
     public String getPartKey() {
         return part_key;
     }
+
+    ////////////////////////////////////////////////////////////////////
+    // Bulk load
+
+    @Override
+    public boolean isBulkLoadSupported(@NotNull DBCSession session, @NotNull DBSAttributeBase[] attributes) {
+        if (!isPersisted() || isView() || !(session instanceof JDBCSession) || !getDataSource().getServerType().supportsCopyFromStdIn()) {
+            // COPY FROM doesn't work for views, even updatable ones
+            return false;
+        }
+        try {
+            // COPY API is provided by PgJDBC driver only
+            ((JDBCSession) session).getOriginal().getClass().getMethod("getCopyAPI");
+        } catch (Exception e) {
+            return false;
+        }
+        return BulkLoadBatchImpl.isTextRepresentable(attributes);
+    }
+
+    /**
+     * Loads data with COPY ... FROM STDIN in text format
+     */
+    @NotNull
+    @Override
+    public ExecuteBatch bulkInsertData(@NotNull DBCSession session, @NotNull DBSAttributeBase[] attributes, @NotNull DBCExecutionSource source) throws DBCException {
+        StringBuilder sql = new StringBuilder(200);
+        sql.append("COPY ").append(getFullyQualifiedName(DBPEvaluationContext.DML)).append(" (");
+        for (int i = 0; i < attributes.length; i++) {
+            if (i > 0) sql.append(",");
+            sql.append(getAttributeName(attributes[i]));
+        }
+        sql.append(") FROM STDIN");
+        final String copyQuery = sql.toString();
+
+        return new BulkLoadBatchImpl(attributes, null) {
+            @NotNull
+            @Override
+            protected ZoneId getSessionTimeZone(@NotNull DBCSession session) throws DBCException {
+                // timestamptz values without offset are read in session TimeZone
+                try {
+                    return ZoneId.of(JDBCUtils.queryString((JDBCSession) session, "SHOW TimeZone"));
+                } catch (DateTimeException e) {
+                    // POSIX time zone specification
+                    return super.getSessionTimeZone(session);
+                } catch (SQLException e) {
+                    throw new DBCException(e, getDataSource());
+                }
+            }
+
+            @Override
+            protected boolean isZonedTimestamp(@NotNull DBSAttributeBase attribute) {
+                // PgJDBC reports timestamptz as plain TIMESTAMP
+                return PostgreConstants.TYPE_TIMESTAMPTZ.equals(attribute.getTypeName()) || super.isZonedTimestamp(attribute);
+            }
+
+            @Override
+            protected long loadData(@NotNull DBCSession session, @NotNull String data, int rowCount) throws DBCException {
+                try {
+                    Connection connection = ((JDBCSession) session).getOriginal();
+                    Object copyManager = BeanUtils.invokeObjectMethod(connection, "getCopyAPI");
+                    Object rowsLoaded = BeanUtils.invokeObjectMethod(
+                        copyManager,
+                        "copyIn",
+                        new Class[] { String.class, Reader.class },
+                        new Object[] { copyQuery, new StringReader(data) });
+                    return rowsLoaded instanceof Number ? ((Number) rowsLoaded).longValue() : rowCount;
+                } catch (Throwable e) {
+                    throw new DBCException("Error loading data with COPY", e, getDataSource());
+                }
+            }
+        };
+    }
     
     
 
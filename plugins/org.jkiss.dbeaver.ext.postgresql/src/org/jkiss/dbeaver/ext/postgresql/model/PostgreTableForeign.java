@@ -16,17 +16,20 @@
  */
 package org.jkiss.dbeaver.ext.postgresql.model;
 
+import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.ext.postgresql.PostgreUtils;
 import org.jkiss.dbeaver.model.*;
 import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
 import org.jkiss.dbeaver.model.meta.Property;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -92,4 +95,10 @@ public class PostgreTableForeign extends PostgreTable implements DBPForeignObjec
     public boolean isForeignObject() {
         return true;
     }
+
+    @Override
+    public boolean isBulkLoadSupported(@NotNull DBCSession session, @NotNull DBSAttributeBase[] attributes) {
+        // COPY FROM into foreign tables is supported since PostgreSQL 11
+        return getDataSource().isServerVersionAtLeast(11, 0) && super.isBulkLoadSupported(session, attributes);
+    }
 }
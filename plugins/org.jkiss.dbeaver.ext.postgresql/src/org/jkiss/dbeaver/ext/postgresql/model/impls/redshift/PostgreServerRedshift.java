@@ -128,6 +128,12 @@ public class PostgreServerRedshift extends PostgreServerExtensionBase {
         return false;
     }
 
+    @Override
+    public boolean supportsCopyFromStdIn() {
+        // Redshift loads data only from S3 and other external sources
+        return false;
+    }
+
     @Override
     public String readTableDDL(DBRProgressMonitor monitor, PostgreTableBase table) throws DBException {
         try (JDBCSession session = DBUtils.openMetaSession(monitor, table, "Load Redshift table DDL")) {
@@ -21,6 +21,7 @@ import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.*;
 import org.jkiss.dbeaver.model.impl.DBObjectNameCaseTransformer;
+import org.jkiss.dbeaver.model.impl.struct.ObjectNameIndex;
 import org.jkiss.dbeaver.model.impl.struct.RelationalObjectType;
 import org.jkiss.dbeaver.model.navigator.DBNNode;
 import org.jkiss.dbeaver.model.navigator.DBNUtils;
@@ -500,8 +501,10 @@ public class SQLCompletionAnalyzer implements DBRRunnableParametrized<DBRProgres
                         // Search using structure assistant
                         DBSStructureAssistant structureAssistant = DBUtils.getAdapter(DBSStructureAssistant.class, sc);
                         if (structureAssistant != null) {
-                            Collection<DBSObjectReference> references = structureAssistant.findObjectsByMask(
+                            Collection<DBSObjectReference> references = ObjectNameIndex.findObjectsByMask(
                                 monitor,
+                                structureAssistant,
+                                dataSource,
                                 null,
                                 structureAssistant.getAutoCompleteObjectTypes(),
                                 request.getWordDetector().removeQuotes(token),
@@ -777,8 +780,10 @@ public class SQLCompletionAnalyzer implements DBRRunnableParametrized<DBRProgres
         DBSObjectType[] objectTypes,
         String objectName) throws DBException
     {
-        Collection<DBSObjectReference> references = assistant.findObjectsByMask(
+        Collection<DBSObjectReference> references = ObjectNameIndex.findObjectsByMask(
             monitor,
+            assistant,
+            request.getContext().getDataSource(),
             rootSC,
             objectTypes == null ? assistant.getAutoCompleteObjectTypes() : objectTypes,
             makeObjectNameMask(request.getWordDetector().removeQuotes(objectName)),
@@ -0,0 +1,165 @@
+package org.jkiss.dbeaver.model.sql.parser;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SQLParserCacheTest {
+
+    @Before
+    public void init() {
+        SQLParserCache.clearCache();
+    }
+
+    @Test
+    public void shouldShareParsedStatement() throws Exception {
+        Statement statement = SQLParserCache.getStatement(null, "SELECT a FROM t");
+
+        assertSame(statement, SQLParserCache.getStatement(null, "  SELECT a FROM t\n"));
+        assertEquals(1, SQLParserCache.getCachedStatementCount());
+    }
+
+    @Test
+    public void shouldReturnPrivateCopy() throws Exception {
+        Statement statement = SQLParserCache.getStatement(null, "SELECT a FROM t WHERE b = 1");
+        Statement copy = SQLParserCache.parseStatementCopy(null, "SELECT a FROM t WHERE b = 1");
+
+        assertNotSame(statement, copy);
+        assertEquals(statement.toString(), copy.toString());
+        assertNotSame(copy, SQLParserCache.parseStatementCopy(null, "SELECT a FROM t WHERE b = 1"));
+    }
+
+    @Test
+    public void shouldCopyStatementDeeply() throws Exception {
+        String text = "SELECT a, 'x' FROM t WHERE b = 1 AND c IN (1, 2) ORDER BY a";
+        Statement statement = SQLParserCache.getStatement(null, text);
+        Statement copy = SQLParserCache.parseStatementCopy(null, text);
+        assertEquals(statement.toString(), copy.toString());
+
+        PlainSelect select = (PlainSelect) ((Select) copy).getSelectBody();
+        EqualsTo where = (EqualsTo) ((AndExpression) select.getWhere()).getLeftExpression();
+        where.setRightExpression(new LongValue("2"));
+        select.getSelectItems().add(new AllColumns());
+        select.setOrderByElements(null);
+
+        assertEquals("SELECT a, 'x', * FROM t WHERE b = 2 AND c IN (1, 2)", copy.toString());
+        assertEquals("SELECT a, 'x' FROM t WHERE b = 1 AND c IN (1, 2) ORDER BY a", statement.toString());
+    }
+
+    @Test
+    public void shouldCopyLongExpressions() throws Exception {
+        StringBuilder text = new StringBuilder("SELECT a FROM t WHERE a = 0");
+        for (int i = 1; i < 2000; i++) {
+            text.append(" OR a = ").append(i);
+        }
+        Statement statement = SQLParserCache.getStatement(null, text.toString());
+        Statement copy = SQLParserCache.parseStatementCopy(null, text.toString());
+        assertNotSame(statement, copy);
+        assertEquals(statement.toString(), copy.toString());
+    }
+
+    @Test
+    public void shouldReportCachedErrorForCopy() {
+        JSQLParserException firstError = null;
+        try {
+            SQLParserCache.getStatement(null, "SELECT FROM WHERE (");
+            fail("Parse error expected");
+        } catch (JSQLParserException e) {
+            firstError = e;
+        }
+        try {
+            SQLParserCache.parseStatementCopy(null, "SELECT FROM WHERE (");
+            fail("Parse error expected");
+        } catch (JSQLParserException e) {
+            assertSame(firstError, e);
+        }
+    }
+
+    @Test
+    public void shouldCacheParseErrors() {
+        JSQLParserException firstError = null;
+        try {
+            SQLParserCache.getStatement(null, "SELECT FROM WHERE (");
+            fail("Parse error expected");
+        } catch (JSQLParserException e) {
+            firstError = e;
+        }
+        try {
+            SQLParserCache.getStatement(null, "SELECT FROM WHERE (");
+            fail("Parse error expected");
+        } catch (JSQLParserException e) {
+            assertSame(firstError, e);
+        }
+        assertEquals(1, SQLParserCache.getCachedStatementCount());
+    }
+
+    @Test
+    public void shouldLimitCachedStatements() throws Exception {
+        long textLength = 0;
+        for (int i = 0; i < SQLParserCache.MAX_CACHED_STATEMENTS * 2; i++) {
+            String text = "SELECT " + i + " FROM t";
+            SQLParserCache.getStatement(null, text);
+            if (i >= SQLParserCache.MAX_CACHED_STATEMENTS) {
+                textLength += text.length();
+            }
+        }
+
+        assertEquals(SQLParserCache.MAX_CACHED_STATEMENTS, SQLParserCache.getCachedStatementCount());
+        assertEquals(textLength, SQLParserCache.getCachedTextLength());
+    }
+
+    @Test
+    public void shouldEvictUntilTextLengthFits() throws Exception {
+        for (int i = 0; i < SQLParserCache.MAX_CACHED_STATEMENTS; i++) {
+            SQLParserCache.getStatement(null, "SELECT " + i + " FROM t");
+        }
+        // Max length queries. Together they take all text length, so all small queries are evicted
+        assertEquals(SQLParserCache.MAX_CACHED_TEXT_LENGTH, SQLParserCache.MAX_QUERY_LENGTH * 4);
+        char[] padding = new char[SQLParserCache.MAX_QUERY_LENGTH - "SELECT 0 FROM t".length()];
+        Arrays.fill(padding, ' ');
+        String bigText = new String(padding);
+        long textLength = 0;
+        for (int i = 0; i < 4; i++) {
+            String text = "SELECT " + i + bigText + " FROM t";
+            SQLParserCache.getStatement(null, text);
+            textLength += text.length();
+            assertTrue(SQLParserCache.getCachedTextLength() <= SQLParserCache.MAX_CACHED_TEXT_LENGTH);
+        }
+        assertEquals(4, SQLParserCache.getCachedStatementCount());
+        assertEquals(textLength, SQLParserCache.getCachedTextLength());
+    }
+
+    @Test
+    public void shouldClearCache() throws Exception {
+        SQLParserCache.getStatement(null, "SELECT a FROM t");
+        SQLParserCache.clearCache();
+
+        assertEquals(0, SQLParserCache.getCachedStatementCount());
+        assertEquals(0, SQLParserCache.getCachedTextLength());
+    }
+
+    @Test(timeout = 5000)
+    public void shouldStopParseOnTimeout() {
+        try {
+            SQLParserCache.parseWithTimeout(() -> {
+                Thread.sleep(60000);
+                return null;
+            }, 100);
+            fail("Parse timeout expected");
+        } catch (JSQLParserException e) {
+            assertTrue(e.getMessage().contains("timeout"));
+        }
+    }
+
+}
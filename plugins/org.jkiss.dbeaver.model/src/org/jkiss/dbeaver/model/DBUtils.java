@@ -51,6 +51,9 @@ public final class DBUtils {
 
     private static final Log log = Log.getLog(DBUtils.class);
 
+    // Metadata context bound to the current thread (used by parallel metadata readers)
+    private static final ThreadLocal<DBCExecutionContext> threadMetaContext = new ThreadLocal<>();
+
     @NotNull
     public static String getQuotedIdentifier(@NotNull DBPNamedObject object)
     {
@@ -1438,7 +1441,7 @@ public final class DBUtils {
     @SuppressWarnings("unchecked")
     @NotNull
     public static <T extends DBCSession> T openMetaSession(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSource dataSource, @NotNull String task) {
-        return (T) dataSource.getDefaultInstance().getDefaultContext(true).openSession(monitor, DBCExecutionPurpose.META, task);
+        return (T) getInstanceContext(dataSource.getDefaultInstance(), true).openSession(monitor, DBCExecutionPurpose.META, task);
     }
 
     @SuppressWarnings("unchecked")
@@ -1681,7 +1684,30 @@ public final class DBUtils {
             return null;
         }
         DBSInstance instance = getObjectOwnerInstance(object);
-        return instance == null ? null : instance.getDefaultContext(meta);
+        return instance == null ? null : getInstanceContext(instance, meta);
+    }
+
+    private static DBCExecutionContext getInstanceContext(@NotNull DBSInstance instance, boolean meta) {
+        if (meta) {
+            DBCExecutionContext threadContext = threadMetaContext.get();
+            if (threadContext != null && threadContext.getOwnerInstance() == instance) {
+                return threadContext;
+            }
+        }
+        return instance.getDefaultContext(meta);
+    }
+
+    /**
+     * Binds metadata context to the current thread. All metadata sessions of the context's instance
+     * opened in this thread will use this context instead of the instance's default metadata context.
+     * @param context context or null to reset
+     */
+    public static void setThreadMetaContext(@Nullable DBCExecutionContext context) {
+        if (context == null) {
+            threadMetaContext.remove();
+        } else {
+            threadMetaContext.set(context);
+        }
     }
 
     public static List<DBPDataSourceRegistry> getAllRegistries() {
@@ -21,6 +21,11 @@ package org.jkiss.dbeaver.model.data.aggregate;
  */
 public class AggregateUtils {
 
+    /**
+     * Maximum number of values which functions keep in memory. Bigger inputs are aggregated approximately.
+     */
+    public static final int MAX_EXACT_VALUES = 100000;
+
     public static int compareValues(Comparable val1, Comparable val2) {
         if (val1 instanceof Number && val2 instanceof Number) {
             double cmpr = ((Number) val1).doubleValue() - ((Number) val2).doubleValue();
@@ -31,4 +36,25 @@ public class AggregateUtils {
             return 0;
         }
     }
+
+    static long hashNumber(double value) {
+        // Treat -0.0 and 0.0 as the same value
+        return mixHash(Double.doubleToLongBits(value == 0.0 ? 0.0 : value));
+    }
+
+    static long hashValue(Object value) {
+        return mixHash(value == null ? 0 : value.hashCode());
+    }
+
+    /**
+     * 64-bit finalizer of MurmurHash3
+     */
+    static long mixHash(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
 }
@@ -19,7 +19,7 @@ package org.jkiss.dbeaver.model.data.aggregate;
 /**
  * FunctionAvg
  */
-public class FunctionAvg extends FunctionNumeric {
+public class FunctionAvg extends FunctionNumeric implements IAggregateNumericFunction {
 
     protected double result = Double.NaN;
 
@@ -39,6 +39,20 @@ public class FunctionAvg extends FunctionNumeric {
         return false;
     }
 
+    @Override
+    public boolean accumulateLong(long value) {
+        return accumulateNumber(value);
+    }
+
+    @Override
+    public boolean accumulateNumber(double value) {
+        if (Double.isNaN(result)) {
+            result = 0.0;
+        }
+        result += value;
+        return true;
+    }
+
     @Override
     public Object getResult(int valueCount) {
         if (Double.isNaN(result)) {
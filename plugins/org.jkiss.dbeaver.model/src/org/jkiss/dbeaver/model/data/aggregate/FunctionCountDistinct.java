@@ -20,18 +20,56 @@ import java.util.HashSet;
 import java.util.Set;
 
 /**
- * FunctionCountDistinct
+ * FunctionCountDistinct.
+ * Counts exactly up to {@link AggregateUtils#MAX_EXACT_VALUES} distinct values, then switches to HyperLogLog estimation.
  */
-public class FunctionCountDistinct implements IAggregateFunction {
+public class FunctionCountDistinct implements IAggregateNumericFunction {
 
-    private int count = 0;
     private Set<Object> cache = new HashSet<>();
+    // Bits of doubles
+    private LongHashSet numberCache = new LongHashSet();
+    // Longs which have no exact double representation
+    private LongHashSet longCache = new LongHashSet();
+    private HyperLogLog sketch;
 
     @Override
     public boolean accumulate(Object value, boolean aggregateAsStrings) {
-        if (!cache.contains(value)) {
-            count++;
-            cache.add(value);
+        if (sketch != null) {
+            sketch.addHash(AggregateUtils.hashValue(value));
+            return true;
+        }
+        if (cache.add(value)) {
+            checkCacheSize();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean accumulateNumber(double value) {
+        if (sketch != null) {
+            sketch.addHash(AggregateUtils.hashNumber(value));
+            return true;
+        }
+        if (numberCache.add(Double.doubleToLongBits(value == 0.0 ? 0.0 : value))) {
+            checkCacheSize();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean accumulateLong(long value) {
+        if ((long) (double) value == value && value != Long.MAX_VALUE) {
+            // Same value as the equal double
+            return accumulateNumber(value);
+        }
+        if (sketch != null) {
+            sketch.addHash(AggregateUtils.mixHash(value));
+            return true;
+        }
+        if (longCache.add(value)) {
+            checkCacheSize();
             return true;
         }
         return false;
@@ -39,6 +77,28 @@ public class FunctionCountDistinct implements IAggregateFunction {
 
     @Override
     public Object getResult(int valueCount) {
-        return count;
+        if (sketch != null) {
+            return sketch.estimate();
+        }
+        return cache.size() + numberCache.size() + longCache.size();
+    }
+
+    private void checkCacheSize() {
+        if (cache.size() + numberCache.size() + longCache.size() <= AggregateUtils.MAX_EXACT_VALUES) {
+            return;
+        }
+        sketch = new HyperLogLog();
+        for (Object value : cache) {
+            sketch.addHash(AggregateUtils.hashValue(value));
+        }
+        for (long bits : numberCache.toArray()) {
+            sketch.addHash(AggregateUtils.mixHash(bits));
+        }
+        for (long value : longCache.toArray()) {
+            sketch.addHash(AggregateUtils.mixHash(value));
+        }
+        cache = null;
+        numberCache = null;
+        longCache = null;
     }
 }
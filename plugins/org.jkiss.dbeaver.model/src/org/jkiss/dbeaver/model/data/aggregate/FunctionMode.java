@@ -16,24 +16,25 @@
  */
 package org.jkiss.dbeaver.model.data.aggregate;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
- * Mode
+ * Mode.
+ * Counts are exact while there are less than {@link AggregateUtils#MAX_EXACT_VALUES} distinct values.
+ * After that Misra-Gries heavy hitters summary is used, so the most frequent value is still found
+ * (if its frequency is noticeable) in bounded memory.
+ * Result is one of the accumulated values, so it has the original value type.
  */
 public class FunctionMode implements IAggregateFunction {
 
-    private List<Object> cache = new ArrayList<>();
+    private final Map<Object, long[]> counters = new LinkedHashMap<>();
 
     @Override
     public boolean accumulate(Object value, boolean aggregateAsStrings) {
-        Number num = FunctionNumeric.getNumeric(value);
-        if (num != null) {
-            value = num;
-        }
         if (value != null) {
-            cache.add(value);
+            addValue(value);
             return true;
         }
         return false;
@@ -42,23 +43,31 @@ public class FunctionMode implements IAggregateFunction {
     @Override
     public Object getResult(int valueCount) {
         Object maxValue = null;
-        int maxCount = 0;
-
-        for (int i = 0; i < cache.size(); ++i) {
-            int count = 0;
-            for (int j = 0; j < cache.size(); ++j) {
-                if (cache.get(j).equals(cache.get(i))) {
-                    count++;
-                }
-            }
+        long maxCount = 0;
+        for (Map.Entry<Object, long[]> entry : counters.entrySet()) {
+            long count = entry.getValue()[0];
             if (count > maxCount) {
                 maxCount = count;
-                maxValue = cache.get(i);
+                maxValue = entry.getKey();
             }
         }
-//        if (maxCount <= 1) {
-//            return null;
-//        }
         return maxValue;
     }
+
+    private void addValue(Object value) {
+        long[] counter = counters.get(value);
+        if (counter != null) {
+            counter[0]++;
+        } else if (counters.size() < AggregateUtils.MAX_EXACT_VALUES) {
+            counters.put(value, new long[] { 1 });
+        } else {
+            // Summary is full - decrement all counters and drop zero ones
+            for (Iterator<long[]> iter = counters.values().iterator(); iter.hasNext(); ) {
+                long[] c = iter.next();
+                if (--c[0] == 0) {
+                    iter.remove();
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.jkiss.dbeaver.Log;
+
+import java.util.*;
+
+/**
+ * Percentile.
+ * Numbers are evaluated exactly up to {@link AggregateUtils#MAX_EXACT_VALUES} values, then t-digest is used.
+ * Non-numeric values are sampled (reservoir sampling) when there are too many of them.
+ */
+public abstract class FunctionPercentile implements IAggregateNumericFunction {
+
+    private static final Log log = Log.getLog(FunctionPercentile.class);
+
+    private static final double DIGEST_COMPRESSION = 200;
+
+    private double[] numbers = new double[64];
+    private int numberCount;
+    private TDigest digest;
+
+    private final List<Comparable> cache = new ArrayList<>();
+    private long comparableCount;
+    private Random random;
+
+    /**
+     * Percentile rank (0..1)
+     */
+    protected abstract double getQuantile();
+
+    @Override
+    public boolean accumulate(Object value, boolean aggregateAsStrings) {
+        value = FunctionNumeric.getComparable(value, aggregateAsStrings);
+        if (value instanceof Number) {
+            return accumulateNumber(((Number) value).doubleValue());
+        } else if (value != null) {
+            comparableCount++;
+            if (cache.size() < AggregateUtils.MAX_EXACT_VALUES) {
+                cache.add((Comparable) value);
+            } else {
+                if (random == null) {
+                    random = new Random();
+                }
+                long index = (long) (random.nextDouble() * comparableCount);
+                if (index < cache.size()) {
+                    cache.set((int) index, (Comparable) value);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean accumulateLong(long value) {
+        return accumulateNumber(value);
+    }
+
+    @Override
+    public boolean accumulateNumber(double value) {
+        if (Double.isNaN(value)) {
+            return false;
+        }
+        if (digest != null) {
+            digest.add(value);
+            return true;
+        }
+        if (numberCount == AggregateUtils.MAX_EXACT_VALUES) {
+            digest = new TDigest(DIGEST_COMPRESSION);
+            for (int i = 0; i < numberCount; i++) {
+                digest.add(numbers[i]);
+            }
+            digest.add(value);
+            numbers = null;
+            return true;
+        }
+        if (numberCount == numbers.length) {
+            numbers = Arrays.copyOf(numbers, Math.min(numbers.length * 2, AggregateUtils.MAX_EXACT_VALUES));
+        }
+        numbers[numberCount++] = value;
+        return true;
+    }
+
+    @Override
+    public Object getResult(int valueCount) {
+        final double quantile = getQuantile();
+        boolean hasNumbers = digest != null || numberCount > 0;
+        if (hasNumbers && !cache.isEmpty()) {
+            // Numbers and strings can't be compared
+            return null;
+        }
+        if (digest != null) {
+            return digest.quantile(quantile);
+        }
+        if (numberCount > 0) {
+            Arrays.sort(numbers, 0, numberCount);
+            double position = quantile * (numberCount - 1);
+            int index = (int) position;
+            double fraction = position - index;
+            if (fraction == 0 || index + 1 >= numberCount) {
+                return numbers[index];
+            }
+            return numbers[index] + (numbers[index + 1] - numbers[index]) * fraction;
+        }
+        if (cache.isEmpty()) {
+            return null;
+        }
+        try {
+            Collections.sort(cache);
+        } catch (Exception e) {
+            log.debug("Can't sort value collection", e);
+            return null;
+        }
+        // Not true percentile - but we can't interpolate non-numeric values
+        return cache.get((int) (quantile * (cache.size() - 1)));
+    }
+}
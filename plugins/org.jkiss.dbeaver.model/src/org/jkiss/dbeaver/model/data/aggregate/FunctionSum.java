@@ -19,7 +19,7 @@ package org.jkiss.dbeaver.model.data.aggregate;
 /**
  * FunctionSum
  */
-public class FunctionSum extends FunctionNumeric {
+public class FunctionSum extends FunctionNumeric implements IAggregateNumericFunction {
 
     protected double result = Double.NaN;
 
@@ -36,6 +36,20 @@ public class FunctionSum extends FunctionNumeric {
         return false;
     }
 
+    @Override
+    public boolean accumulateLong(long value) {
+        return accumulateNumber(value);
+    }
+
+    @Override
+    public boolean accumulateNumber(double value) {
+        if (Double.isNaN(result)) {
+            result = 0.0;
+        }
+        result += value;
+        return true;
+    }
+
     @Override
     public Object getResult(int valueCount) {
         if (Double.isNaN(result)) {
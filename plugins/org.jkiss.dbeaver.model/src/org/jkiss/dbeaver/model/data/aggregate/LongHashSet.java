@@ -0,0 +1,88 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+/**
+ * Open addressing set of primitive longs
+ */
+class LongHashSet {
+
+    private long[] keys = new long[64];
+    private int size;
+    private boolean hasZero;
+
+    boolean add(long key) {
+        if (key == 0) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash();
+        }
+        if (!insert(keys, key)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] toArray() {
+        long[] result = new long[size];
+        int pos = 0;
+        if (hasZero) {
+            result[pos++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[pos++] = key;
+            }
+        }
+        return result;
+    }
+
+    private void rehash() {
+        long[] newKeys = new long[keys.length * 2];
+        for (long key : keys) {
+            if (key != 0) {
+                insert(newKeys, key);
+            }
+        }
+        keys = newKeys;
+    }
+
+    private static boolean insert(long[] table, long key) {
+        int mask = table.length - 1;
+        int pos = (int) AggregateUtils.mixHash(key) & mask;
+        while (table[pos] != 0) {
+            if (table[pos] == key) {
+                return false;
+            }
+            pos = (pos + 1) & mask;
+        }
+        table[pos] = key;
+        return true;
+    }
+
+}
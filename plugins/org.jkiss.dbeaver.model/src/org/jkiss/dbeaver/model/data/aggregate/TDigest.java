@@ -0,0 +1,158 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest. Approximates quantiles of numeric stream in bounded memory.
+ * Accuracy is best at the tails, relative error around median is ~1/compression.
+ */
+class TDigest {
+
+    private final double compression;
+
+    private double[] means;
+    private double[] weights;
+    private int centroidCount;
+    private double totalWeight;
+
+    private final double[] buffer;
+    private int bufferSize;
+
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    TDigest(double compression) {
+        this.compression = compression;
+        int size = (int) (2 * Math.ceil(compression)) + 10;
+        this.means = new double[size];
+        this.weights = new double[size];
+        this.buffer = new double[size * 5];
+    }
+
+    void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (bufferSize == buffer.length) {
+            merge();
+        }
+        buffer[bufferSize++] = value;
+        if (Double.isNaN(min) || value < min) {
+            min = value;
+        }
+        if (Double.isNaN(max) || value > max) {
+            max = value;
+        }
+    }
+
+    long size() {
+        return (long) totalWeight + bufferSize;
+    }
+
+    double quantile(double q) {
+        merge();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+        if (centroidCount == 1) {
+            return means[0];
+        }
+        double index = q * totalWeight;
+        // Centroid centers: cumulative weight of previous centroids plus half of own weight
+        double left = weights[0] / 2;
+        if (index <= left) {
+            return min + (means[0] - min) * (left <= 0 ? 0 : index / left);
+        }
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double right = left + (weights[i] + weights[i + 1]) / 2;
+            if (index <= right) {
+                return means[i] + (means[i + 1] - means[i]) * (index - left) / (right - left);
+            }
+            left = right;
+        }
+        double tail = totalWeight - left;
+        return means[centroidCount - 1] + (max - means[centroidCount - 1]) * (tail <= 0 ? 0 : (index - left) / tail);
+    }
+
+    private void merge() {
+        if (bufferSize == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, bufferSize);
+        final double newTotal = totalWeight + bufferSize;
+        final double[] newMeans = new double[means.length];
+        final double[] newWeights = new double[weights.length];
+        int newCount = 0;
+
+        int ci = 0, bi = 0;
+        double curMean, curWeight;
+        if (ci < centroidCount && means[ci] <= buffer[bi]) {
+            curMean = means[ci];
+            curWeight = weights[ci++];
+        } else {
+            curMean = buffer[bi++];
+            curWeight = 1;
+        }
+        double weightSoFar = 0;
+        double weightLimit = newTotal * qLimit(0);
+        while (ci < centroidCount || bi < bufferSize) {
+            double mean, weight;
+            if (bi >= bufferSize || (ci < centroidCount && means[ci] <= buffer[bi])) {
+                mean = means[ci];
+                weight = weights[ci++];
+            } else {
+                mean = buffer[bi++];
+                weight = 1;
+            }
+            if (weightSoFar + curWeight + weight <= weightLimit) {
+                curWeight += weight;
+                curMean += (mean - curMean) * weight / curWeight;
+            } else {
+                newMeans[newCount] = curMean;
+                newWeights[newCount] = curWeight;
+                newCount++;
+                weightSoFar += curWeight;
+                weightLimit = newTotal * qLimit(weightSoFar / newTotal);
+                curMean = mean;
+                curWeight = weight;
+            }
+        }
+        newMeans[newCount] = curMean;
+        newWeights[newCount] = curWeight;
+        newCount++;
+
+        this.means = newMeans;
+        this.weights = newWeights;
+        this.centroidCount = newCount;
+        this.totalWeight = newTotal;
+        this.bufferSize = 0;
+    }
+
+    /**
+     * Upper quantile bound of centroid which starts at quantile q (k1 scale function).
+     */
+    private double qLimit(double q) {
+        double k = compression / (2 * Math.PI) * Math.asin(2 * q - 1) + 1;
+        if (k >= compression / 4) {
+            return 1;
+        }
+        return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+
+}
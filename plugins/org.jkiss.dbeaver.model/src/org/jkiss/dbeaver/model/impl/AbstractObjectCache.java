@@ -31,17 +31,28 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Various objects cache
+ * Various objects cache.
+ * Cached object reads are lock-free: name map is concurrent and object list is read from an immutable snapshot.
+ * Modifications are synchronized on a private lock. Snapshot is rebuilt on the first read after modification,
+ * so objects may be added one by one without copying the whole list each time.
+ * Loaders synchronize on the cache instance, so readers never wait for a database query.
  */
 public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extends DBSObject>
     implements DBSObjectCache<OWNER, OBJECT>
 {
     private static final Log log = Log.getLog(AbstractObjectCache.class);
 
+    // Guards object list. Never held during database access
+    private final Object cacheLock = new Object();
+    // Guarded by cacheLock
     private List<OBJECT> objectList;
-    private Map<String, OBJECT> objectMap;
+    // Unmodifiable copy of object list. Null if list was changed after the last read.
+    private volatile List<OBJECT> objectListSnapshot;
+    // Objects by name (upper-cased if cache is case insensitive). Maintained together with object list.
+    private volatile Map<String, OBJECT> objectMap;
     protected volatile boolean fullCache = false;
     protected volatile boolean caseSensitive = true;
     protected Comparator<OBJECT> listOrderComparator;
@@ -68,9 +79,19 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     @Override
     public List<OBJECT> getCachedObjects()
     {
-        synchronized (this) {
-            return objectList == null ? Collections.<OBJECT>emptyList() : objectList;
+        List<OBJECT> snapshot = objectListSnapshot;
+        if (snapshot == null) {
+            synchronized (cacheLock) {
+                snapshot = objectListSnapshot;
+                if (snapshot == null) {
+                    snapshot = objectList == null ?
+                        Collections.<OBJECT>emptyList() :
+                        Collections.unmodifiableList(new ArrayList<>(objectList));
+                    objectListSnapshot = snapshot;
+                }
+            }
         }
+        return snapshot;
     }
 
     public <SUB_TYPE> Collection<SUB_TYPE> getTypedObjects(DBRProgressMonitor monitor, OWNER owner, Class<SUB_TYPE> type)
@@ -89,38 +110,34 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     @Override
     public OBJECT getCachedObject(@NotNull String name)
     {
-        synchronized (this) {
-            return objectList == null || name == null ? null : getObjectMap().get(caseSensitive ? name : name.toUpperCase());
-        }
+        final Map<String, OBJECT> map = objectMap;
+        return map == null || name == null ? null : map.get(caseSensitive ? name : name.toUpperCase());
     }
 
     @Override
     public void cacheObject(@NotNull OBJECT object)
     {
-        synchronized (this) {
+        synchronized (cacheLock) {
             if (this.objectList == null) {
+                this.objectMap = new ConcurrentHashMap<>();
                 this.objectList = new ArrayList<>();
             }
             detectCaseSensitivity(object);
             this.objectList.add(object);
-            if (this.objectMap != null) {
-                String name = getObjectName(object);
-                checkDuplicateName(name, object);
-                this.objectMap.put(name, object);
-            }
+            this.objectListSnapshot = null;
+            putObjectName(this.objectMap, object);
         }
     }
 
     @Override
     public void removeObject(@NotNull OBJECT object, boolean resetFullCache)
     {
-        synchronized (this) {
+        synchronized (cacheLock) {
             if (this.objectList != null) {
                 detectCaseSensitivity(object);
                 this.objectList.remove(object);
-                if (this.objectMap != null) {
-                    this.objectMap.remove(getObjectName(object));
-                }
+                this.objectListSnapshot = null;
+                removeObjectName(this.objectMap, object);
             }
             if (resetFullCache) {
                 fullCache = false;
@@ -144,8 +161,9 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     @Override
     public void clearCache()
     {
-        synchronized (this) {
+        synchronized (cacheLock) {
             this.objectList = null;
+            this.objectListSnapshot = null;
             this.objectMap = null;
             this.fullCache = false;
         }
@@ -153,9 +171,11 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
 
     public void setCache(List<OBJECT> objects)
     {
-        synchronized (this) {
-            this.objectList = objects;
-            this.objectMap = null;
+        synchronized (cacheLock) {
+            // Build map first. Readers may see new map with old list for a moment, which is fine.
+            this.objectMap = createObjectMap(objects);
+            this.objectList = new ArrayList<>(objects);
+            this.objectListSnapshot = null;
             this.fullCache = true;
         }
     }
@@ -167,46 +187,55 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
      */
     protected void mergeCache(List<OBJECT> objects)
     {
-        synchronized (this) {
-            if (this.objectList != null) {
-                // Merge lists
-                objects = new ArrayList<>(objects);
-                for (int i = 0; i < objects.size(); i++) {
-                    OBJECT newObject = objects.get(i);
-                    String newObjectName = getObjectName(newObject);
-                    for (int k = 0; k < objectList.size(); k++) {
-                        OBJECT oldObject = objectList.get(k);
-                        String oldObjectName = getObjectName(oldObject);
-                        if (newObjectName.equals(oldObjectName)) {
-                            objects.set(i, oldObject);
-                            break;
-                        }
-                    }
+        // Merge with snapshot: subclasses may take their own locks in setCache, so don't hold cache lock here
+        final List<OBJECT> oldObjects = getCachedObjects();
+        if (!oldObjects.isEmpty()) {
+            // Merge lists
+            final Map<String, OBJECT> oldObjectMap = new HashMap<>(oldObjects.size());
+            for (OBJECT oldObject : oldObjects) {
+                String oldObjectName = getObjectName(oldObject);
+                if (oldObjectName != null && !oldObjectMap.containsKey(oldObjectName)) {
+                    oldObjectMap.put(oldObjectName, oldObject);
+                }
+            }
+            objects = new ArrayList<>(objects);
+            for (int i = 0; i < objects.size(); i++) {
+                OBJECT oldObject = oldObjectMap.get(getObjectName(objects.get(i)));
+                if (oldObject != null) {
+                    objects.set(i, oldObject);
                 }
             }
         }
         setCache(objects);
     }
 
-    private synchronized Map<String, OBJECT> getObjectMap()
+    private Map<String, OBJECT> createObjectMap(Collection<OBJECT> objects)
     {
-        if (this.objectMap == null) {
-            this.objectMap = new HashMap<>();
-            for (OBJECT object : objectList) {
-                String name = getObjectName(object);
-                checkDuplicateName(name, object);
-                this.objectMap.put(name, object);
-            }
+        Map<String, OBJECT> map = new ConcurrentHashMap<>(Math.max(16, objects.size() * 4 / 3 + 1));
+        for (OBJECT object : objects) {
+            putObjectName(map, object);
         }
-        return this.objectMap;
+        return map;
     }
 
-    private void checkDuplicateName(String name, OBJECT object) {
-        if (this.objectMap.containsKey(name)) {
+    private void putObjectName(Map<String, OBJECT> map, OBJECT object) {
+        String name = getObjectName(object);
+        if (name == null) {
+            // Concurrent map doesn't support null keys. Such objects can't be found by name anyway.
+            return;
+        }
+        if (map.put(name, object) != null) {
             log.debug("Duplicate object name '" + name + "' in cache " + this.getClass().getSimpleName() + ". Last value: " + DBUtils.getObjectFullName(object, DBPEvaluationContext.DDL));
         }
     }
 
+    private void removeObjectName(Map<String, OBJECT> map, OBJECT object) {
+        String name = getObjectName(object);
+        if (map != null && name != null) {
+            map.remove(name);
+        }
+    }
+
     protected void detectCaseSensitivity(DBSObject object) {
         if (this.caseSensitive) {
             DBPDataSource dataSource = object.getDataSource();
@@ -214,6 +243,13 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
                 ((SQLDataSource) dataSource).getSQLDialect().storesUnquotedCase() == DBPIdentifierCase.MIXED)
             {
                 this.caseSensitive = false;
+                synchronized (cacheLock) {
+                    final List<OBJECT> objects = this.objectList;
+                    if (objects != null) {
+                        // Object names are upper-cased now
+                        this.objectMap = createObjectMap(objects);
+                    }
+                }
             }
         }
     }
@@ -224,21 +260,23 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     }
 
     public void clearChildrenOf(DBSObject parent) {
-        synchronized (this) {
+        synchronized (cacheLock) {
             if (objectList == null) {
                 return;
             }
-            for (int i = 0; i < objectList.size(); ) {
-                OBJECT object = objectList.get(i);
+            List<OBJECT> childObjects = new ArrayList<>();
+            for (OBJECT object : objectList) {
                 if (object.getParentObject() == parent) {
-                    this.objectList.remove(object);
-                    if (this.objectMap != null) {
-                        this.objectMap.remove(getObjectName(object));
-                    }
-                    fullCache = false;
-                } else {
-                    i++;
+                    childObjects.add(object);
+                }
+            }
+            if (!childObjects.isEmpty()) {
+                this.objectList.removeAll(childObjects);
+                this.objectListSnapshot = null;
+                for (OBJECT object : childObjects) {
+                    removeObjectName(this.objectMap, object);
                 }
+                fullCache = false;
             }
         }
     }
@@ -306,7 +344,8 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     }
 
     protected class CacheIterator implements Iterator<OBJECT> {
-        private Iterator<OBJECT> listIterator = objectList.iterator();
+        // Iterates over the snapshot of the object list
+        private Iterator<OBJECT> listIterator = getCachedObjects().iterator();
         private OBJECT curObject;
         public CacheIterator()
         {
@@ -327,9 +366,12 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         @Override
         public void remove()
         {
-            listIterator.remove();
-            if (objectMap != null) {
-                objectMap.remove(getObjectName(curObject));
+            synchronized (cacheLock) {
+                if (objectList != null) {
+                    objectList.remove(curObject);
+                    objectListSnapshot = null;
+                    removeObjectName(objectMap, curObject);
+                }
             }
         }
     }
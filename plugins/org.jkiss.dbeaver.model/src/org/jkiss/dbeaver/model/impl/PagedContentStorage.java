@@ -0,0 +1,289 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl;
+
+import org.jkiss.dbeaver.model.app.DBPPlatform;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.utils.ContentUtils;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.IOUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.BitSet;
+
+/**
+ * Paged content storage.
+ * Content is read from the source by pages, on demand. Fetched pages are cached in a memory-mapped spill file.
+ * Readers get only those parts of content which they actually read.
+ */
+public abstract class PagedContentStorage implements DBDContentStorage {
+
+    public static final int PAGE_SIZE = 64 * 1024;
+    // Spill file is mapped by regions of 16Mb
+    private static final int REGION_PAGES = 256;
+    private static final long REGION_SIZE = (long) REGION_PAGES * PAGE_SIZE;
+
+    protected final DBPPlatform platform;
+    private final long length;
+    private final String charset;
+    private final BitSet fetchedPages = new BitSet();
+    private File spillFile;
+    private RandomAccessFile spillAccess;
+    private MappedByteBuffer[] regions;
+    private byte[] pageBuffer;
+    private boolean released;
+
+    protected PagedContentStorage(DBPPlatform platform, long length, String charset)
+    {
+        this.platform = platform;
+        this.length = length;
+        this.charset = CommonUtils.toString(charset, GeneralUtils.DEFAULT_ENCODING);
+    }
+
+    /**
+     * Reads content bytes from the source.
+     * @return number of read bytes or -1 if there is no more content
+     */
+    protected abstract int readSource(long offset, byte[] buffer, int bufferOffset, int count) throws IOException;
+
+    protected abstract void releaseSource();
+
+    /**
+     * Reads paged data starting from the specified position. Missing pages are fetched from the source.
+     * @return number of read bytes or -1 if position is beyond the end of content
+     */
+    public synchronized int readData(long position, byte[] buffer, int offset, int count)
+        throws IOException
+    {
+        if (released) {
+            throw new IOException("Content storage was released");
+        }
+        if (position >= length) {
+            return -1;
+        }
+        count = (int) Math.min(count, length - position);
+        int total = 0;
+        while (total < count) {
+            long curPosition = position + total;
+            int page = (int) (curPosition / PAGE_SIZE);
+            int pageOffset = (int) (curPosition % PAGE_SIZE);
+            int chunkLength = Math.min(count - total, PAGE_SIZE - pageOffset);
+
+            ByteBuffer region = getPageRegion(page).duplicate();
+            region.position((page % REGION_PAGES) * PAGE_SIZE + pageOffset);
+            region.get(buffer, offset + total, chunkLength);
+            total += chunkLength;
+        }
+        return total;
+    }
+
+    /**
+     * Fetches the first page. Checks that the source can be read on demand before it is used.
+     */
+    protected synchronized void fetchFirstPage()
+        throws IOException
+    {
+        if (length > 0) {
+            getPageRegion(0);
+        }
+    }
+
+    /**
+     * Returns raw paged data stream
+     */
+    protected InputStream openDataStream()
+    {
+        return new PagedInputStream();
+    }
+
+    @Override
+    public InputStream getContentStream()
+        throws IOException
+    {
+        return openDataStream();
+    }
+
+    @Override
+    public Reader getContentReader()
+        throws IOException
+    {
+        return new InputStreamReader(getContentStream(), charset);
+    }
+
+    @Override
+    public long getContentLength()
+    {
+        return length;
+    }
+
+    @Override
+    public String getCharset()
+    {
+        return charset;
+    }
+
+    @Override
+    public DBDContentStorage cloneStorage(DBRProgressMonitor monitor)
+        throws IOException
+    {
+        // Copy the whole content in local storage
+        File tempFile = ContentUtils.createTempContentFile(monitor, platform, "copy" + this.hashCode());
+        try {
+            try (InputStream is = getContentStream()) {
+                try (OutputStream os = new FileOutputStream(tempFile)) {
+                    ContentUtils.copyStreams(is, getContentLength(), os, monitor);
+                }
+            }
+        } catch (IOException e) {
+            ContentUtils.deleteTempFile(tempFile);
+            throw new IOException(e);
+        }
+        return new TemporaryContentStorage(platform, tempFile, charset);
+    }
+
+    @Override
+    public synchronized void release()
+    {
+        if (released) {
+            return;
+        }
+        released = true;
+        releaseSource();
+        if (regions != null) {
+            // Unmap regions explicitly, otherwise spill file can't be deleted on Windows until GC
+            for (MappedByteBuffer region : regions) {
+                IOUtils.unmapBuffer(region);
+            }
+            regions = null;
+        }
+        pageBuffer = null;
+        if (spillAccess != null) {
+            ContentUtils.close(spillAccess);
+            spillAccess = null;
+        }
+        if (spillFile != null) {
+            ContentUtils.deleteTempFile(spillFile);
+            spillFile = null;
+        }
+    }
+
+    private ByteBuffer getPageRegion(int page)
+        throws IOException
+    {
+        int regionIndex = page / REGION_PAGES;
+        if (regions == null) {
+            spillFile = ContentUtils.createTempContentFile(new VoidProgressMonitor(), platform, "lob" + hashCode());
+            spillAccess = new RandomAccessFile(spillFile, "rw");
+            regions = new MappedByteBuffer[(int) ((length + REGION_SIZE - 1) / REGION_SIZE)];
+        }
+        MappedByteBuffer region = regions[regionIndex];
+        if (region == null) {
+            long regionStart = regionIndex * REGION_SIZE;
+            region = spillAccess.getChannel().map(
+                FileChannel.MapMode.READ_WRITE,
+                regionStart,
+                Math.min(REGION_SIZE, length - regionStart));
+            regions[regionIndex] = region;
+        }
+        if (!fetchedPages.get(page)) {
+            fetchPage(page, region);
+            fetchedPages.set(page);
+        }
+        return region;
+    }
+
+    private void fetchPage(int page, MappedByteBuffer region)
+        throws IOException
+    {
+        long pageStart = (long) page * PAGE_SIZE;
+        int pageLength = (int) Math.min(PAGE_SIZE, length - pageStart);
+        if (pageBuffer == null) {
+            pageBuffer = new byte[PAGE_SIZE];
+        }
+        int offset = 0;
+        while (offset < pageLength) {
+            int count = readSource(pageStart + offset, pageBuffer, offset, pageLength - offset);
+            if (count < 0) {
+                throw new EOFException("Unexpected end of content at " + (pageStart + offset) + " (declared length is " + length + ")");
+            }
+            offset += count;
+        }
+        ByteBuffer target = region.duplicate();
+        target.position((page % REGION_PAGES) * PAGE_SIZE);
+        target.put(pageBuffer, 0, pageLength);
+    }
+
+    private class PagedInputStream extends InputStream {
+
+        private final byte[] singleByte = new byte[1];
+        private long position;
+        private long mark;
+
+        @Override
+        public int read()
+            throws IOException
+        {
+            return read(singleByte, 0, 1) < 0 ? -1 : singleByte[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+            throws IOException
+        {
+            if (len == 0) {
+                return 0;
+            }
+            int count = readData(position, b, off, len);
+            if (count > 0) {
+                position += count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n)
+        {
+            long skipped = Math.max(0, Math.min(n, length - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit)
+        {
+            mark = position;
+        }
+
+        @Override
+        public synchronized void reset()
+        {
+            position = mark;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.data;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.edit.DBEPersistAction;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCStatistics;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.jkiss.utils.ArrayUtils;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.time.*;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Bulk load batch.
+ * Encodes buffered rows as text (tab-separated values with backslash escapes by default)
+ * and passes them to the database native bulk load API.
+ * Rows which can't be encoded are passed to the fallback batch (if any).
+ * If the first load is refused by the driver then all rows are passed to the fallback batch.
+ */
+public abstract class BulkLoadBatchImpl implements DBSDataManipulator.ExecuteBatch {
+
+    private static final Log log = Log.getLog(BulkLoadBatchImpl.class);
+
+    public static final String DEFAULT_NULL_VALUE_MARK = "\\N";
+
+    protected final DBSAttributeBase[] attributes;
+    private final List<Object[]> values = new ArrayList<>();
+    @Nullable
+    private final DBSDataManipulator.ExecuteBatch fallbackBatch;
+    private DBDValueHandler[] handlers;
+    private ZoneId[] timeZones;
+    private boolean loaded;
+    private boolean loadRefused;
+
+    /**
+     * Constructs new bulk load batch
+     * @param attributes array of attributes used in batch
+     * @param fallbackBatch batch which will be used for rows not supported by bulk load (or null)
+     */
+    protected BulkLoadBatchImpl(@NotNull DBSAttributeBase[] attributes, @Nullable DBSDataManipulator.ExecuteBatch fallbackBatch) {
+        this.attributes = attributes;
+        this.fallbackBatch = fallbackBatch;
+    }
+
+    /**
+     * Checks that values of all attributes can be represented in text form.
+     */
+    public static boolean isTextRepresentable(@NotNull DBSAttributeBase[] attributes) {
+        for (DBSAttributeBase attribute : attributes) {
+            if (DBUtils.isPseudoAttribute(attribute)) {
+                return false;
+            }
+            switch (attribute.getDataKind()) {
+                case BOOLEAN:
+                case NUMERIC:
+                case STRING:
+                case DATETIME:
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void add(@NotNull Object[] attributeValues) throws DBCException {
+        if (!ArrayUtils.isEmpty(attributes) && ArrayUtils.isEmpty(attributeValues)) {
+            throw new DBCException("Bad attribute values: " + Arrays.toString(attributeValues));
+        }
+        if (fallbackBatch != null && (loadRefused || !isRowSupported(attributeValues))) {
+            fallbackBatch.add(attributeValues);
+        } else {
+            values.add(attributeValues);
+        }
+    }
+
+    @NotNull
+    @Override
+    public DBCStatistics execute(@NotNull DBCSession session) throws DBCException {
+        DBCStatistics statistics = new DBCStatistics();
+        if (!values.isEmpty()) {
+            if (handlers == null) {
+                handlers = new DBDValueHandler[attributes.length];
+                timeZones = new ZoneId[attributes.length];
+                ZoneId sessionTimeZone = null;
+                for (int i = 0; i < attributes.length; i++) {
+                    if (attributes[i] instanceof DBDAttributeBinding) {
+                        handlers[i] = ((DBDAttributeBinding) attributes[i]).getValueHandler();
+                    } else {
+                        handlers[i] = DBUtils.findValueHandler(session, attributes[i]);
+                    }
+                    if (isZonedTimestamp(attributes[i])) {
+                        if (sessionTimeZone == null) {
+                            sessionTimeZone = getSessionTimeZone(session);
+                        }
+                        timeZones[i] = sessionTimeZone;
+                    } else {
+                        timeZones[i] = ZoneId.systemDefault();
+                    }
+                }
+            }
+            StringBuilder data = new StringBuilder(values.size() * attributes.length * 16);
+            for (Object[] row : values) {
+                for (int i = 0; i < attributes.length; i++) {
+                    if (i > 0) {
+                        data.append(getFieldSeparator());
+                    }
+                    if (DBUtils.isNullValue(row[i])) {
+                        data.append(getNullValueMark());
+                    } else {
+                        appendValue(data, formatValue(i, row[i]));
+                    }
+                }
+                data.append(getRowSeparator());
+            }
+
+            long startTime = System.currentTimeMillis();
+            try {
+                long rowCount = loadData(session, data.toString(), values.size());
+                statistics.addExecuteTime(System.currentTimeMillis() - startTime);
+                statistics.addStatementsCount();
+                statistics.addRowsUpdated(rowCount);
+                loaded = true;
+            } catch (DBCException e) {
+                if (loaded || fallbackBatch == null || !isLoadRefused(e)) {
+                    // Keep rows. Thus load may be retried.
+                    throw e;
+                }
+                log.debug("Bulk load refused, use regular inserts: " + e.getMessage());
+                loadRefused = true;
+                for (Object[] row : values) {
+                    fallbackBatch.add(row);
+                }
+            }
+            values.clear();
+        }
+        if (fallbackBatch != null) {
+            statistics.accumulate(fallbackBatch.execute(session));
+        }
+        return statistics;
+    }
+
+    @Override
+    public void generatePersistActions(@NotNull DBCSession session, @NotNull List<DBEPersistAction> actions) throws DBCException {
+        throw new DBCException("Bulk load doesn't support script generation");
+    }
+
+    @Override
+    public void close() {
+        if (fallbackBatch != null) {
+            fallbackBatch.close();
+        }
+    }
+
+    protected String getFieldSeparator() {
+        return "\t";
+    }
+
+    protected String getRowSeparator() {
+        return "\n";
+    }
+
+    protected String getNullValueMark() {
+        return DEFAULT_NULL_VALUE_MARK;
+    }
+
+    /**
+     * Returns time zone in which server reads values of zoned timestamp attributes without explicit offset.
+     * Such timestamps are converted into this zone before formatting.
+     * JVM time zone is used by default, the same way JDBC drivers send timestamp parameters.
+     */
+    @NotNull
+    protected ZoneId getSessionTimeZone(@NotNull DBCSession session) throws DBCException {
+        return ZoneId.systemDefault();
+    }
+
+    /**
+     * Checks whether attribute keeps absolute time (timestamp with time zone).
+     * Values of such attributes are formatted in the session time zone, other timestamps are formatted in JVM time zone.
+     */
+    protected boolean isZonedTimestamp(@NotNull DBSAttributeBase attribute) {
+        return attribute.getTypeID() == Types.TIMESTAMP_WITH_TIMEZONE;
+    }
+
+    /**
+     * Checks whether the first load failed because bulk load is not allowed at all (by driver or server).
+     * Rows of refused load are inserted by the fallback batch.
+     */
+    protected boolean isLoadRefused(@NotNull DBCException error) {
+        return false;
+    }
+
+    /**
+     * Checks whether row can be encoded by this batch. Unsupported rows are passed to the fallback batch.
+     */
+    protected boolean isRowSupported(@NotNull Object[] attributeValues) {
+        return true;
+    }
+
+    /**
+     * Converts value into its text form. Must be thread-safe (shared formatters can't be used here).
+     */
+    @NotNull
+    protected String formatValue(int attributeIndex, @NotNull Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? "1" : "0";
+        } else if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        } else if (value instanceof Number) {
+            return value.toString();
+        } else if (value instanceof java.sql.Date) {
+            // Dates and times have no zone, keep them as is
+            return ((java.sql.Date) value).toLocalDate().toString();
+        } else if (value instanceof java.sql.Time) {
+            return formatTime(((java.sql.Time) value).toLocalTime());
+        } else if (value instanceof Date) {
+            // Timestamp keeps nanoseconds in its instant
+            return formatDateTime(LocalDateTime.ofInstant(((Date) value).toInstant(), getTimeZone(attributeIndex)));
+        } else if (value instanceof Instant) {
+            return formatDateTime(LocalDateTime.ofInstant((Instant) value, getTimeZone(attributeIndex)));
+        } else if (value instanceof OffsetDateTime) {
+            return formatDateTime(((OffsetDateTime) value).atZoneSameInstant(getTimeZone(attributeIndex)).toLocalDateTime());
+        } else if (value instanceof ZonedDateTime) {
+            return formatDateTime(((ZonedDateTime) value).withZoneSameInstant(getTimeZone(attributeIndex)).toLocalDateTime());
+        } else if (value instanceof LocalDateTime) {
+            return formatDateTime((LocalDateTime) value);
+        } else if (value instanceof LocalTime) {
+            return formatTime((LocalTime) value);
+        } else if (value instanceof TemporalAccessor) {
+            return value.toString();
+        }
+        DBDValueHandler valueHandler = handlers[attributeIndex];
+        if (valueHandler != null) {
+            return valueHandler.getValueDisplayString(attributes[attributeIndex], value, DBDDisplayFormat.EDIT);
+        }
+        return value.toString();
+    }
+
+    @NotNull
+    private ZoneId getTimeZone(int attributeIndex) {
+        return timeZones == null ? ZoneId.systemDefault() : timeZones[attributeIndex];
+    }
+
+    /**
+     * Formats date time as yyyy-MM-dd HH:mm:ss[.fffffffff]
+     */
+    static String formatDateTime(@NotNull LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toString() + ' ' + formatTime(dateTime.toLocalTime());
+    }
+
+    /**
+     * Formats time as HH:mm:ss[.fffffffff]. Trailing zeros of fraction are omitted.
+     */
+    static String formatTime(@NotNull LocalTime time) {
+        StringBuilder buffer = new StringBuilder(18);
+        appendTwoDigits(buffer, time.getHour());
+        buffer.append(':');
+        appendTwoDigits(buffer, time.getMinute());
+        buffer.append(':');
+        appendTwoDigits(buffer, time.getSecond());
+        int nanos = time.getNano();
+        if (nanos != 0) {
+            String fraction = Integer.toString(1000000000 + nanos).substring(1);
+            int length = fraction.length();
+            while (fraction.charAt(length - 1) == '0') {
+                length--;
+            }
+            buffer.append('.').append(fraction, 0, length);
+        }
+        return buffer.toString();
+    }
+
+    private static void appendTwoDigits(StringBuilder buffer, int value) {
+        if (value < 10) {
+            buffer.append('0');
+        }
+        buffer.append(value);
+    }
+
+    /**
+     * Appends escaped value. Backslash, tab and line feeds are escaped with backslash.
+     */
+    protected void appendValue(@NotNull StringBuilder buffer, @NotNull String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': buffer.append("\\\\"); break;
+                case '\t': buffer.append("\\t"); break;
+                case '\n': buffer.append("\\n"); break;
+                case '\r': buffer.append("\\r"); break;
+                default: buffer.append(c); break;
+            }
+        }
+    }
+
+    /**
+     * Sends encoded rows to the server
+     * @param session session
+     * @param data encoded rows
+     * @param rowCount number of encoded rows
+     * @return number of loaded rows
+     */
+    protected abstract long loadData(@NotNull DBCSession session, @NotNull String data, int rowCount) throws DBCException;
+
+}
@@ -33,6 +33,7 @@ import org.jkiss.dbeaver.model.exec.jdbc.JDBCDatabaseMetaData;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCFactory;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCCacheBudget;
 import org.jkiss.dbeaver.model.impl.jdbc.data.handlers.JDBCObjectValueHandler;
 import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCConnectionImpl;
 import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCFactoryDefault;
@@ -79,6 +80,7 @@ public abstract class JDBCDataSource
     protected final SQLDialect sqlDialect;
     protected final JDBCFactory jdbcFactory;
     private JDBCRemoteInstance defaultRemoteInstance;
+    private final JDBCCacheBudget metaCacheBudget = new JDBCCacheBudget(this);
 
     private int databaseMajorVersion;
     private int databaseMinorVersion;
@@ -314,6 +316,14 @@ public abstract class JDBCDataSource
         return jdbcFactory;
     }
 
+    /**
+     * Metadata cache budget. Shared by all metadata caches of this data source.
+     */
+    @NotNull
+    public JDBCCacheBudget getMetaCacheBudget() {
+        return metaCacheBudget;
+    }
+
     @Override
     public JDBCRemoteInstance getDefaultInstance() {
         return defaultRemoteInstance;
@@ -334,6 +344,7 @@ public abstract class JDBCDataSource
             monitor.worked(1);
         }
         defaultRemoteInstance = null;
+        metaCacheBudget.clear();
     }
 
     @Override
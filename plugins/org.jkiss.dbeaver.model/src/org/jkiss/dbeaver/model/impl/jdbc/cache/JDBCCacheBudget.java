@@ -0,0 +1,247 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metadata cache budget of a data source.
+ * Keeps track of cached object lists and their last access time.
+ * Weight of each list is its object count (not memory size). When total weight exceeds the limit
+ * ({@link ModelPreferences#META_CACHE_MAX_OBJECTS}) least recently used lists are evicted.
+ * Lists which contain objects referenced by navigator are never evicted. Object lists are evicted
+ * only after all their child lists (whole subtree).
+ * Evicted lists are reloaded on the next access. Evicted objects which are still referenced
+ * by other model objects are refreshed and reused on reload.
+ */
+public class JDBCCacheBudget {
+
+    private static final Log log = Log.getLog(JDBCCacheBudget.class);
+
+    private final DBPDataSource dataSource;
+    private final Map<CacheKey, CacheEntry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong totalWeight = new AtomicLong();
+    // Cached limit. Refreshed on each cache load, so cache hits do not read preferences
+    private volatile int maxWeight = -1;
+    private final EvictJob evictJob = new EvictJob();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public JDBCCacheBudget(@NotNull DBPDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Max total weight (object count). 0 means unlimited cache.
+     */
+    public int getMaxWeight() {
+        int max = maxWeight;
+        if (max < 0) {
+            max = refreshMaxWeight();
+        }
+        return max;
+    }
+
+    private int refreshMaxWeight() {
+        int max = dataSource.getContainer().getPreferenceStore().getInt(ModelPreferences.META_CACHE_MAX_OBJECTS);
+        maxWeight = max;
+        return max;
+    }
+
+    public long getTotalWeight() {
+        return totalWeight.get();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Cache statistics for UI
+     */
+    @NotNull
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("Cached objects", getTotalWeight());
+        statistics.put("Max cached objects", getMaxWeight());
+        statistics.put("Hits", getHitCount());
+        statistics.put("Misses", getMissCount());
+        statistics.put("Evictions", getEvictionCount());
+        return statistics;
+    }
+
+    /**
+     * Registers loaded object list.
+     * @param key cache-specific key of the list (e.g. parent object). Null for the whole cache.
+     */
+    void cacheLoaded(@NotNull JDBCObjectCache<?, ?> cache, @Nullable Object key, int weight) {
+        int max = refreshMaxWeight();
+        if (max <= 0) {
+            return;
+        }
+        CacheEntry oldEntry = entries.put(new CacheKey(cache, key), new CacheEntry(weight));
+        long total = totalWeight.addAndGet(weight - (oldEntry == null ? 0 : oldEntry.weight));
+        if (total > max) {
+            scheduleEviction();
+        }
+    }
+
+    void scheduleEviction() {
+        // Evict in separate job. Cache eviction takes cache locks which may be held by the caller.
+        evictJob.schedule();
+    }
+
+    void cacheHit(@NotNull JDBCObjectCache<?, ?> cache, @Nullable Object key) {
+        hitCount.incrementAndGet();
+        if (maxWeight > 0) {
+            CacheEntry entry = entries.get(new CacheKey(cache, key));
+            if (entry != null) {
+                entry.lastAccess = System.nanoTime();
+            }
+        }
+    }
+
+    void cacheMiss() {
+        missCount.incrementAndGet();
+    }
+
+    void cacheRemoved(@NotNull JDBCObjectCache<?, ?> cache, @Nullable Object key) {
+        CacheEntry entry = entries.remove(new CacheKey(cache, key));
+        if (entry != null) {
+            totalWeight.addAndGet(-entry.weight);
+        }
+    }
+
+    void cacheCleared(@NotNull JDBCObjectCache<?, ?> cache) {
+        for (Iterator<Map.Entry<CacheKey, CacheEntry>> iter = entries.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<CacheKey, CacheEntry> entry = iter.next();
+            if (entry.getKey().cache == cache) {
+                iter.remove();
+                totalWeight.addAndGet(-entry.getValue().weight);
+            }
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        totalWeight.set(0);
+        maxWeight = -1;
+    }
+
+    void evictCaches() {
+        int max = getMaxWeight();
+        if (max <= 0 || totalWeight.get() <= max) {
+            return;
+        }
+        List<Map.Entry<CacheKey, CacheEntry>> candidates = new ArrayList<>(entries.entrySet());
+        // Child lists go first, so struct caches may evict the whole subtree at the end
+        candidates.sort(Comparator.<Map.Entry<CacheKey, CacheEntry>>comparingInt(o -> o.getKey().key == null ? 1 : 0)
+            .thenComparingLong(o -> o.getValue().lastAccess));
+        int evicted = 0;
+        for (Map.Entry<CacheKey, CacheEntry> entry : candidates) {
+            if (totalWeight.get() <= max) {
+                break;
+            }
+            CacheKey key = entry.getKey();
+            try {
+                if (key.cache.evictCachedObjects(key.key)) {
+                    evictionCount.incrementAndGet();
+                    evicted++;
+                }
+            } catch (Throwable e) {
+                log.debug("Error evicting metadata cache", e);
+            }
+        }
+        if (evicted > 0) {
+            log.debug(toString());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Metadata cache of " + dataSource.getContainer().getName() +
+            ": objects=" + getTotalWeight() + "/" + getMaxWeight() +
+            ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount();
+    }
+
+    private static class CacheKey {
+        private final JDBCObjectCache<?, ?> cache;
+        private final Object key;
+
+        CacheKey(JDBCObjectCache<?, ?> cache, Object key) {
+            this.cache = cache;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CacheKey && ((CacheKey) obj).cache == cache && ((CacheKey) obj).key == key;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(cache) * 31 + System.identityHashCode(key);
+        }
+    }
+
+    private static class CacheEntry {
+        private final int weight;
+        // Racy updates are fine here: access order is approximate
+        private volatile long lastAccess = System.nanoTime();
+
+        CacheEntry(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private class EvictJob extends AbstractJob {
+        EvictJob() {
+            super("Evict metadata cache");
+            setSystem(true);
+            setUser(false);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            evictCaches();
+            return Status.OK_STATUS;
+        }
+    }
+
+}
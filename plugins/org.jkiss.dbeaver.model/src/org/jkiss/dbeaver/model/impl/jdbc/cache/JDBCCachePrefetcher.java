@@ -0,0 +1,199 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSInstance;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Loads several metadata caches in parallel.
+ * Current thread uses default metadata connection, additional loaders run in separate jobs
+ * with their own isolated metadata connections.
+ * Loaders may depend on each other (e.g. indexes need table columns) - in this case dependent
+ * loader waits for the cache lock, but its query is executed in parallel anyway.
+ */
+public class JDBCCachePrefetcher {
+
+    private static final Log log = Log.getLog(JDBCCachePrefetcher.class);
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 3;
+
+    public interface CacheLoader {
+        void loadCache(@NotNull DBRProgressMonitor monitor) throws DBException;
+    }
+
+    private static class LoaderInfo {
+        final String name;
+        final BooleanSupplier loadedCheck;
+        final CacheLoader loader;
+
+        LoaderInfo(String name, BooleanSupplier loadedCheck, CacheLoader loader) {
+            this.name = name;
+            this.loadedCheck = loadedCheck;
+            this.loader = loader;
+        }
+    }
+
+    private final DBSObject owner;
+    private final int maxConnections;
+    private final List<LoaderInfo> loaders = new ArrayList<>();
+    private final Queue<LoaderInfo> loadQueue = new ConcurrentLinkedQueue<>();
+    private volatile DBRProgressMonitor mainMonitor;
+    private volatile DBException loadError;
+
+    public JDBCCachePrefetcher(@NotNull DBSObject owner) {
+        this(owner, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    public JDBCCachePrefetcher(@NotNull DBSObject owner, int maxConnections) {
+        this.owner = owner;
+        this.maxConnections = maxConnections;
+    }
+
+    public JDBCCachePrefetcher addLoader(@NotNull String name, @NotNull CacheLoader loader) {
+        return addLoader(name, () -> false, loader);
+    }
+
+    /**
+     * Adds cache loader.
+     * @param loadedCheck returns true if cache is already loaded. Loaded caches are skipped and do not need connections.
+     */
+    public JDBCCachePrefetcher addLoader(@NotNull String name, @NotNull BooleanSupplier loadedCheck, @NotNull CacheLoader loader) {
+        loaders.add(new LoaderInfo(name, loadedCheck, loader));
+        return this;
+    }
+
+    public void run(@NotNull DBRProgressMonitor monitor) throws DBException {
+        mainMonitor = monitor;
+        for (LoaderInfo loaderInfo : loaders) {
+            if (!loaderInfo.loadedCheck.getAsBoolean()) {
+                loadQueue.add(loaderInfo);
+            }
+        }
+        if (loadQueue.isEmpty()) {
+            // Everything is already in cache
+            return;
+        }
+        int workerCount = Math.min(maxConnections, loadQueue.size());
+        List<PrefetchJob> jobs = new ArrayList<>();
+        if (workerCount > 1 && isParallelLoadEnabled()) {
+            for (int i = 1; i < workerCount; i++) {
+                PrefetchJob job = new PrefetchJob(i);
+                jobs.add(job);
+                job.schedule();
+            }
+        }
+        try {
+            // Load in the current thread as well
+            runLoaders(monitor);
+        } finally {
+            for (PrefetchJob job : jobs) {
+                try {
+                    job.join();
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+        if (loadError != null) {
+            throw loadError;
+        }
+    }
+
+    private boolean isParallelLoadEnabled() {
+        DBPDataSource dataSource = owner.getDataSource();
+        return dataSource != null &&
+            !dataSource.getContainer().getDriver().isEmbedded() &&
+            dataSource.getContainer().getPreferenceStore().getBoolean(ModelPreferences.META_SEPARATE_CONNECTION);
+    }
+
+    private void runLoaders(@NotNull DBRProgressMonitor monitor) {
+        for (LoaderInfo loaderInfo = loadQueue.poll(); loaderInfo != null; loaderInfo = loadQueue.poll()) {
+            if (monitor.isCanceled() || mainMonitor.isCanceled() || loadError != null) {
+                break;
+            }
+            monitor.subTask(loaderInfo.name);
+            try {
+                loaderInfo.loader.loadCache(monitor);
+            } catch (DBException e) {
+                setLoadError(e);
+            } catch (Throwable e) {
+                setLoadError(new DBException("Error loading " + loaderInfo.name, e));
+            }
+        }
+    }
+
+    private synchronized void setLoadError(@NotNull DBException error) {
+        if (loadError == null) {
+            loadError = error;
+        } else {
+            log.debug("Additional metadata read error", error);
+        }
+    }
+
+    private class PrefetchJob extends AbstractJob {
+
+        PrefetchJob(int number) {
+            super("Prefetch metadata #" + number + " of " + DBUtils.getObjectFullName(owner, DBPEvaluationContext.UI));
+            setSystem(true);
+            setUser(false);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            DBSInstance instance = DBUtils.getObjectOwnerInstance(owner);
+            if (instance == null || loadQueue.isEmpty()) {
+                return Status.OK_STATUS;
+            }
+            DBCExecutionContext metaContext;
+            try {
+                metaContext = instance.openIsolatedContext(monitor, "Metadata prefetch");
+            } catch (Throwable e) {
+                // Other loaders will do the job
+                log.debug("Can't open metadata prefetch connection", e);
+                return Status.OK_STATUS;
+            }
+            DBUtils.setThreadMetaContext(metaContext);
+            try {
+                runLoaders(monitor);
+            } finally {
+                DBUtils.setThreadMetaContext(null);
+                metaContext.close();
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+}
@@ -22,15 +22,19 @@ import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBConstants;
 import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPUniqueObject;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
 import org.jkiss.dbeaver.model.impl.AbstractObjectCache;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
 import org.jkiss.dbeaver.model.messages.ModelMessages;
+import org.jkiss.dbeaver.model.navigator.DBNUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 
+import java.lang.ref.WeakReference;
 import java.sql.SQLException;
 import java.util.*;
 
@@ -46,6 +50,9 @@ public abstract class JDBCObjectCache<OWNER extends DBSObject, OBJECT extends DB
 
     // Maximum number of objects in cache
     private int maximumCacheSize = DEFAULT_MAX_CACHE_SIZE;
+    private volatile JDBCCacheBudget cacheBudget;
+    // Objects of the evicted list. Those which are still referenced are reused on reload.
+    private Map<String, WeakReference<OBJECT>> evictedObjects;
 
     protected JDBCObjectCache() {
     }
@@ -66,6 +73,7 @@ public abstract class JDBCObjectCache<OWNER extends DBSObject, OBJECT extends DB
     public Collection<OBJECT> getAllObjects(@NotNull DBRProgressMonitor monitor, @Nullable OWNER owner)
         throws DBException
     {
+        checkCacheAccess(owner, null, isFullyCached());
         if (!isFullyCached()) {
             loadObjects(monitor, owner);
         }
@@ -76,12 +84,17 @@ public abstract class JDBCObjectCache<OWNER extends DBSObject, OBJECT extends DB
     public OBJECT getObject(@NotNull DBRProgressMonitor monitor, @NotNull OWNER owner, @NotNull String name)
         throws DBException
     {
+        checkCacheAccess(owner, null, isFullyCached());
         if (!isFullyCached()) {
             this.loadObjects(monitor, owner);
         }
         return getCachedObject(name);
     }
 
+    /**
+     * Loads objects from database. Loads are serialized on the cache instance.
+     * Cached objects stay readable meanwhile: list modifications use a separate lock.
+     */
     protected synchronized void loadObjects(DBRProgressMonitor monitor, OWNER owner)
         throws DBException
     {
@@ -142,8 +155,144 @@ public abstract class JDBCObjectCache<OWNER extends DBSObject, OBJECT extends DB
         }
 
         detectCaseSensitivity(owner);
+        if (evictedObjects != null) {
+            restoreEvictedObjects(evictedObjects, tmpObjectList);
+            evictedObjects = null;
+        }
         mergeCache(tmpObjectList);
         this.invalidateObjects(monitor, owner, new CacheIterator());
+
+        JDBCCacheBudget budget = getCacheBudget(owner);
+        if (budget != null) {
+            budget.cacheLoaded(this, null, tmpObjectList.size() + 1);
+        }
+    }
+
+    @Override
+    public void clearCache()
+    {
+        synchronized (this) {
+            evictedObjects = null;
+        }
+        clearObjects();
+    }
+
+    private void clearObjects()
+    {
+        super.clearCache();
+        JDBCCacheBudget budget = getCacheBudget(null);
+        if (budget != null) {
+            budget.cacheCleared(this);
+        }
+    }
+
+    /**
+     * Evicts cached objects. Called when data source metadata cache budget is exceeded.
+     * Evicted objects are reloaded on the next access. Objects which are still referenced somewhere
+     * (by other caches, editors, etc) are reused on reload, so the model never gets duplicates.
+     * @param key key of the evicted list (see {@link JDBCCacheBudget}). Null means the whole cache.
+     * @return true if objects were evicted
+     */
+    protected synchronized boolean evictCachedObjects(@Nullable Object key)
+    {
+        if (key != null || !isFullyCached()) {
+            return false;
+        }
+        List<OBJECT> objects = getCachedObjects();
+        for (OBJECT object : objects) {
+            if (isObjectReferenced(object)) {
+                // Nothing to free
+                return false;
+            }
+        }
+        evictAllObjects(objects);
+        return true;
+    }
+
+    /**
+     * Removes all objects from cache and remembers them, so they may be reused on reload.
+     * Unlike {@link #clearCache()} it doesn't drop state which is needed to restore evicted objects.
+     */
+    protected void evictAllObjects(@NotNull List<OBJECT> objects)
+    {
+        clearObjects();
+        evictedObjects = rememberEvictedObjects(objects);
+    }
+
+    /**
+     * Checks whether object is used by UI. Such objects are not evicted.
+     */
+    protected boolean isObjectReferenced(@NotNull DBSObject object)
+    {
+        return DBNUtils.getNodeByObject(object) != null;
+    }
+
+    /**
+     * Returns metadata cache budget of the owner's data source
+     */
+    @Nullable
+    protected JDBCCacheBudget getCacheBudget(@Nullable DBSObject owner)
+    {
+        JDBCCacheBudget budget = this.cacheBudget;
+        if (budget == null && owner != null) {
+            DBPDataSource dataSource = owner.getDataSource();
+            if (dataSource instanceof JDBCDataSource) {
+                budget = ((JDBCDataSource) dataSource).getMetaCacheBudget();
+                this.cacheBudget = budget;
+            }
+        }
+        return budget;
+    }
+
+    /**
+     * Updates cache hit/miss statistics
+     */
+    protected void checkCacheAccess(@Nullable DBSObject owner, @Nullable Object key, boolean cached)
+    {
+        JDBCCacheBudget budget = getCacheBudget(owner);
+        if (budget != null) {
+            if (cached) {
+                budget.cacheHit(this, key);
+            } else {
+                budget.cacheMiss();
+            }
+        }
+    }
+
+    static <T extends DBSObject> Map<String, WeakReference<T>> rememberEvictedObjects(@NotNull Collection<T> objects)
+    {
+        Map<String, WeakReference<T>> evicted = new HashMap<>(objects.size() * 4 / 3 + 1);
+        for (T object : objects) {
+            String name = getEvictedObjectName(object);
+            if (name != null) {
+                evicted.put(name, new WeakReference<>(object));
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Replaces reloaded objects with evicted instances which are still alive.
+     * Evicted instances are refreshed from reloaded objects, so metadata changed meanwhile is not lost.
+     */
+    protected <T extends DBSObject> void restoreEvictedObjects(@NotNull Map<String, WeakReference<T>> evicted, @NotNull List<T> objects)
+    {
+        for (int i = 0; i < objects.size(); i++) {
+            T newObject = objects.get(i);
+            String name = getEvictedObjectName(newObject);
+            WeakReference<T> ref = name == null ? null : evicted.get(name);
+            T oldObject = ref == null ? null : ref.get();
+            if (oldObject != null && oldObject.getClass() == newObject.getClass()) {
+                deepCopyCachedObject(newObject, oldObject);
+                objects.set(i, oldObject);
+            }
+        }
+    }
+
+    @Nullable
+    static String getEvictedObjectName(@NotNull DBSObject object)
+    {
+        return object instanceof DBPUniqueObject ? ((DBPUniqueObject) object).getUniqueName() : object.getName();
     }
 
     protected String getCacheName() {
@@ -35,6 +35,7 @@ import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.utils.CommonUtils;
 
+import java.lang.ref.WeakReference;
 import java.sql.SQLException;
 import java.util.*;
 
@@ -51,6 +52,18 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
     private final Object objectNameColumn;
     private volatile boolean childrenCached = false;
     private final Map<OBJECT, SimpleObjectCache<OBJECT, CHILD>> childrenCache = new IdentityHashMap<>();
+    // Children of evicted lists by parent name. Parents are not referenced strongly. Guarded by childrenCache.
+    private final Map<String, EvictedChildren<OBJECT, CHILD>> evictedChildren = new HashMap<>();
+
+    private static class EvictedChildren<OBJECT, CHILD> {
+        private final WeakReference<OBJECT> parent;
+        private final Map<String, WeakReference<CHILD>> children;
+
+        EvictedChildren(OBJECT parent, Map<String, WeakReference<CHILD>> children) {
+            this.parent = new WeakReference<>(parent);
+            this.children = children;
+        }
+    }
 
     abstract protected JDBCStatement prepareChildrenStatement(@NotNull JDBCSession session, @NotNull OWNER owner, @Nullable OBJECT forObject)
         throws SQLException;
@@ -83,7 +96,7 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
             // If we have some child objects read before that - do not clear them.
             // We have to reuse them because there could be some references in cached model
             //clearChildrenCache(null);
-            super.loadObjects(monitor, owner);
+            loadObjects(monitor, owner);
         }
 
         DBPDataSource dataSource = owner.getDataSource();
@@ -146,11 +159,15 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
                         }
 
                         // All children are read. Now assign them to parents
+                        JDBCCacheBudget budget = getCacheBudget(owner);
                         for (Map.Entry<OBJECT, List<CHILD>> colEntry : objectMap.entrySet()) {
                             if (!isChildrenCached(colEntry.getKey())) {
                                 // isChildrenCached may return true if the same cache was read in other thread
                                 // just skip
                                 cacheChildren(colEntry.getKey(), colEntry.getValue());
+                                if (budget != null) {
+                                    budget.cacheLoaded(this, colEntry.getKey(), colEntry.getValue().size() + 1);
+                                }
                             }
                         }
                         if (forObject == null) {
@@ -179,6 +196,18 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
         }
     }
 
+    @Override
+    protected synchronized void loadObjects(DBRProgressMonitor monitor, OWNER owner) throws DBException
+    {
+        super.loadObjects(monitor, owner);
+        if (isFullyCached()) {
+            synchronized (childrenCache) {
+                // Children of parents which were not restored can't be reused
+                expungeEvictedChildren(true);
+            }
+        }
+    }
+
     @Override
     public void removeObject(@NotNull OBJECT object, boolean resetFullCache)
     {
@@ -219,6 +248,7 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
     @Nullable
     public List<CHILD> getChildren(DBRProgressMonitor monitor, OWNER owner, final OBJECT forObject) throws DBException
     {
+        checkCacheAccess(owner, forObject, forObject == null ? childrenCached : isChildrenCached(forObject));
         loadChildren(monitor, owner, forObject);
         synchronized (childrenCache) {
             SimpleObjectCache<OBJECT, CHILD> nestedCache = childrenCache.get(forObject);
@@ -229,6 +259,7 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
     @Nullable
     public CHILD getChild(DBRProgressMonitor monitor, OWNER owner, final OBJECT forObject, String objectName) throws DBException
     {
+        checkCacheAccess(owner, forObject, forObject == null ? childrenCached : isChildrenCached(forObject));
         loadChildren(monitor, owner, forObject);
         synchronized (childrenCache) {
             SimpleObjectCache<OBJECT, CHILD> nestedCache = childrenCache.get(forObject);
@@ -241,11 +272,108 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
         synchronized (childrenCache) {
             if (forParent != null) {
                 this.childrenCache.remove(forParent);
+                removeEvictedChildren(forParent);
             } else {
                 this.childrenCache.clear();
+                this.evictedChildren.clear();
+            }
+            childrenCached = false;
+        }
+        JDBCCacheBudget budget = getCacheBudget(null);
+        if (budget != null) {
+            if (forParent != null) {
+                budget.cacheRemoved(this, forParent);
+            } else {
+                budget.cacheCleared(this);
+            }
+        }
+    }
+
+    @Override
+    protected synchronized boolean evictCachedObjects(@Nullable Object key)
+    {
+        if (key == null) {
+            // Evict whole subtree only. Child lists are evicted (or kept) first.
+            synchronized (childrenCache) {
+                for (SimpleObjectCache<OBJECT, CHILD> nestedCache : childrenCache.values()) {
+                    if (!nestedCache.getCachedObjects().isEmpty()) {
+                        return false;
+                    }
+                }
+            }
+            return super.evictCachedObjects(null);
+        }
+        OBJECT parent = (OBJECT) key;
+        synchronized (childrenCache) {
+            SimpleObjectCache<OBJECT, CHILD> nestedCache = childrenCache.get(parent);
+            if (nestedCache == null) {
+                return false;
+            }
+            List<CHILD> children = nestedCache.getCachedObjects();
+            for (CHILD child : children) {
+                if (isObjectReferenced(child)) {
+                    // Children are shown in navigator. Nothing to free.
+                    return false;
+                }
+            }
+            this.childrenCache.remove(parent);
+            String parentName = getEvictedObjectName(parent);
+            if (parentName != null) {
+                this.evictedChildren.put(parentName, new EvictedChildren<>(parent, rememberEvictedObjects(children)));
             }
             childrenCached = false;
         }
+        JDBCCacheBudget budget = getCacheBudget(null);
+        if (budget != null) {
+            budget.cacheRemoved(this, parent);
+        }
+        return true;
+    }
+
+    @Override
+    protected void evictAllObjects(@NotNull List<OBJECT> objects)
+    {
+        synchronized (childrenCache) {
+            // Only empty child lists are left here. Evicted children are kept: their parents may be restored.
+            this.childrenCache.clear();
+            childrenCached = false;
+            expungeEvictedChildren(false);
+        }
+        super.evictAllObjects(objects);
+    }
+
+    private void removeEvictedChildren(@NotNull OBJECT parent)
+    {
+        String parentName = getEvictedObjectName(parent);
+        if (parentName != null) {
+            EvictedChildren<OBJECT, CHILD> evicted = evictedChildren.get(parentName);
+            if (evicted != null && evicted.parent.get() == parent) {
+                evictedChildren.remove(parentName);
+            }
+        }
+    }
+
+    /**
+     * Removes evicted children of garbage collected parents.
+     * @param checkCached also remove children of parents which are not in cache
+     */
+    private void expungeEvictedChildren(boolean checkCached)
+    {
+        for (Iterator<Map.Entry<String, EvictedChildren<OBJECT, CHILD>>> iter = evictedChildren.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<String, EvictedChildren<OBJECT, CHILD>> entry = iter.next();
+            OBJECT parent = entry.getValue().parent.get();
+            if (parent == null || (checkCached && getCachedObject(parent.getName()) != parent)) {
+                iter.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns true if children of all objects were read
+     */
+    public boolean isChildrenCached()
+    {
+        return childrenCached;
     }
 
     protected boolean isChildrenCached(OBJECT parent)
@@ -260,6 +388,13 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
     protected void cacheChildren(OBJECT parent, List<CHILD> children)
     {
         synchronized (childrenCache) {
+            String parentName = getEvictedObjectName(parent);
+            EvictedChildren<OBJECT, CHILD> evicted = parentName == null ? null : evictedChildren.remove(parentName);
+            if (evicted != null && evicted.parent.get() == parent) {
+                // Children may be referenced by other objects (constraints, indexes, editors). Reuse them.
+                children = new ArrayList<>(children);
+                restoreEvictedObjects(evicted.children, children);
+            }
             SimpleObjectCache<OBJECT, CHILD> nestedCache = childrenCache.get(parent);
             if (nestedCache == null) {
                 nestedCache = new SimpleObjectCache<>();
@@ -270,4 +405,4 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
         }
     }
 
-}
\ No newline at end of file
+}
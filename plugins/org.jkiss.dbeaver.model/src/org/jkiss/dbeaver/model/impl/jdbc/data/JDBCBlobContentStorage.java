@@ -0,0 +1,112 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.data;
+
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.app.DBPPlatform;
+import org.jkiss.dbeaver.model.impl.PagedContentStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * BLOB content storage.
+ * Reads BLOB ranges on demand. Owns the BLOB and frees it on release.
+ */
+public class JDBCBlobContentStorage extends PagedContentStorage {
+
+    private static final Log log = Log.getLog(JDBCBlobContentStorage.class);
+
+    private Blob blob;
+    private boolean streamRangeSupported = true;
+
+    private JDBCBlobContentStorage(DBPPlatform platform, Blob blob, long length, String charset)
+    {
+        super(platform, length, charset);
+        this.blob = blob;
+    }
+
+    /**
+     * Creates storage which reads the BLOB on demand. Storage owns the BLOB then.
+     * @return null if BLOB ranges can't be read. BLOB isn't changed in this case
+     */
+    @Nullable
+    public static JDBCBlobContentStorage open(DBPPlatform platform, Blob blob, long length, String charset)
+    {
+        JDBCBlobContentStorage storage = new JDBCBlobContentStorage(platform, blob, length, charset);
+        try {
+            storage.fetchFirstPage();
+            return storage;
+        } catch (IOException e) {
+            log.debug("Can't read BLOB on demand", e);
+            // Do not free the BLOB: caller reads it
+            storage.blob = null;
+            storage.release();
+            return null;
+        }
+    }
+
+    @Override
+    protected int readSource(long offset, byte[] buffer, int bufferOffset, int count)
+        throws IOException
+    {
+        try {
+            if (streamRangeSupported) {
+                try (InputStream is = blob.getBinaryStream(offset + 1, count)) {
+                    int total = 0;
+                    while (total < count) {
+                        int read = is.read(buffer, bufferOffset + total, count - total);
+                        if (read < 0) {
+                            break;
+                        }
+                        total += read;
+                    }
+                    return total == 0 ? -1 : total;
+                } catch (SQLFeatureNotSupportedException | AbstractMethodError e) {
+                    // Old driver. Use getBytes
+                    streamRangeSupported = false;
+                }
+            }
+            byte[] bytes = blob.getBytes(offset + 1, count);
+            if (bytes == null || bytes.length == 0) {
+                return -1;
+            }
+            System.arraycopy(bytes, 0, buffer, bufferOffset, bytes.length);
+            return bytes.length;
+        } catch (SQLException e) {
+            throw new IOException("Error reading BLOB content", e);
+        }
+    }
+
+    @Override
+    protected void releaseSource()
+    {
+        if (blob != null) {
+            try {
+                blob.free();
+            } catch (Throwable e) {
+                log.debug("Error freeing BLOB: " + e.getClass().getName() + ": " + e.getMessage());
+            }
+            blob = null;
+        }
+    }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.data;
+
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.app.DBPPlatform;
+import org.jkiss.dbeaver.model.impl.PagedContentStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+/**
+ * CLOB content storage.
+ * Reads CLOB substrings on demand. Characters are paged as UTF-16, so content length is measured in characters.
+ * Owns the CLOB and frees it on release.
+ */
+public class JDBCClobContentStorage extends PagedContentStorage {
+
+    private static final Log log = Log.getLog(JDBCClobContentStorage.class);
+
+    private Clob clob;
+
+    private JDBCClobContentStorage(DBPPlatform platform, Clob clob, long length, String charset)
+    {
+        super(platform, length * 2, charset);
+        this.clob = clob;
+    }
+
+    /**
+     * Creates storage which reads the CLOB on demand. Storage owns the CLOB then.
+     * @return null if CLOB substrings can't be read. CLOB isn't changed in this case
+     */
+    @Nullable
+    public static JDBCClobContentStorage open(DBPPlatform platform, Clob clob, long length, String charset)
+    {
+        JDBCClobContentStorage storage = new JDBCClobContentStorage(platform, clob, length, charset);
+        try {
+            storage.fetchFirstPage();
+            return storage;
+        } catch (IOException e) {
+            log.debug("Can't read CLOB on demand", e);
+            // Do not free the CLOB: caller reads it
+            storage.clob = null;
+            storage.release();
+            return null;
+        }
+    }
+
+    @Override
+    protected int readSource(long offset, byte[] buffer, int bufferOffset, int count)
+        throws IOException
+    {
+        // Pages are always aligned by characters
+        String chars;
+        try {
+            chars = clob.getSubString(offset / 2 + 1, count / 2);
+        } catch (SQLException e) {
+            throw new IOException("Error reading CLOB content", e);
+        }
+        if (chars == null || chars.isEmpty()) {
+            return -1;
+        }
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            buffer[bufferOffset++] = (byte) (c >> 8);
+            buffer[bufferOffset++] = (byte) c;
+        }
+        return chars.length() * 2;
+    }
+
+    @Override
+    protected void releaseSource()
+    {
+        if (clob != null) {
+            try {
+                clob.free();
+            } catch (Throwable e) {
+                log.debug("Error freeing CLOB: " + e.getClass().getName() + ": " + e.getMessage());
+            }
+            clob = null;
+        }
+    }
+
+    @Override
+    public InputStream getContentStream()
+        throws IOException
+    {
+        return new EncodingInputStream(getContentReader(), Charset.forName(getCharset()));
+    }
+
+    @Override
+    public Reader getContentReader()
+        throws IOException
+    {
+        return new InputStreamReader(openDataStream(), StandardCharsets.UTF_16BE);
+    }
+
+    @Override
+    public long getContentLength()
+    {
+        return super.getContentLength() / 2;
+    }
+
+    /**
+     * Encodes characters in storage charset
+     */
+    private static class EncodingInputStream extends InputStream {
+
+        private final Reader reader;
+        private final CharsetEncoder encoder;
+        private final CharBuffer chars = CharBuffer.allocate(4096);
+        private final ByteBuffer bytes;
+        private boolean eof;
+        private boolean flushed;
+
+        EncodingInputStream(Reader reader, Charset charset)
+        {
+            this.reader = reader;
+            this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.bytes = ByteBuffer.allocate((int) Math.ceil(chars.capacity() * encoder.maxBytesPerChar()) + 16);
+            this.bytes.flip();
+        }
+
+        @Override
+        public int read()
+            throws IOException
+        {
+            if (!bytes.hasRemaining() && !fill()) {
+                return -1;
+            }
+            return bytes.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+            throws IOException
+        {
+            if (len == 0) {
+                return 0;
+            }
+            if (!bytes.hasRemaining() && !fill()) {
+                return -1;
+            }
+            int count = Math.min(len, bytes.remaining());
+            bytes.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public void close()
+            throws IOException
+        {
+            reader.close();
+        }
+
+        private boolean fill()
+            throws IOException
+        {
+            bytes.clear();
+            while (bytes.position() == 0) {
+                if (flushed) {
+                    bytes.flip();
+                    return false;
+                }
+                if (!eof) {
+                    int count = reader.read(chars.array(), chars.position(), chars.remaining());
+                    if (count < 0) {
+                        eof = true;
+                    } else {
+                        chars.position(chars.position() + count);
+                    }
+                }
+                chars.flip();
+                CoderResult result = encoder.encode(chars, bytes, eof);
+                chars.compact();
+                if (eof && result.isUnderflow()) {
+                    encoder.flush(bytes);
+                    flushed = true;
+                }
+            }
+            bytes.flip();
+            return true;
+        }
+    }
+
+}
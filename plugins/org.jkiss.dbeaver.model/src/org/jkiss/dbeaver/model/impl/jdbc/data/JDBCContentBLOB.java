@@ -96,8 +96,13 @@ public class JDBCContentBLOB extends JDBCContentLOB {
                 } catch (Throwable e) {
                     throw new DBCException(e, dataSource);
                 }
+            } else if (isLazyFetchEnabled() &&
+                (storage = JDBCBlobContentStorage.open(platform, blob, contentLength, getDefaultEncoding())) != null)
+            {
+                // Read content on demand. Storage owns the blob now
+                blob = null;
             } else {
-                // Create new local storage
+                // Create new local storage. Also used if blob can't be read on demand
                 File tempFile;
                 try {
                     tempFile = ContentUtils.createTempContentFile(monitor, platform, "blob" + blob.hashCode());
@@ -99,8 +99,13 @@ public class JDBCContentCLOB extends JDBCContentLOB implements DBDContent {
                         throw new DBCException(e, dataSource);
                     }
                 }
+            } else if (isLazyFetchEnabled() &&
+                (storage = JDBCClobContentStorage.open(platform, clob, contentLength, getDefaultEncoding())) != null)
+            {
+                // Read content on demand. Storage owns the clob now
+                clob = null;
             } else {
-                // Create new local storage
+                // Create new local storage. Also used if clob can't be read on demand
                 File tempFile;
                 try {
                     tempFile = ContentUtils.createTempContentFile(monitor, platform, "clob" + clob.hashCode());
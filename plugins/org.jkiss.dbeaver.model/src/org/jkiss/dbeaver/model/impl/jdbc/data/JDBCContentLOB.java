@@ -16,6 +16,7 @@
  */
 package org.jkiss.dbeaver.model.impl.jdbc.data;
 
+import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.data.DBDContent;
 import org.jkiss.dbeaver.model.data.DBDContentStorage;
@@ -34,6 +35,7 @@ public abstract class JDBCContentLOB extends JDBCContentAbstract implements DBDC
 
     private DBDContentStorage originalStorage;
     protected DBDContentStorage storage;
+    private boolean lazyFetchAllowed;
 
     protected JDBCContentLOB(DBPDataSource dataSource)
     {
@@ -50,6 +52,22 @@ public abstract class JDBCContentLOB extends JDBCContentAbstract implements DBDC
 
     protected abstract long getLOBLength() throws DBCException;
 
+    /**
+     * Allows to read large content on demand (if enabled in preferences).
+     * Most drivers keep LOB locators readable only until the end of transaction, so it must be allowed only
+     * for LOBs which were read in manual commit mode.
+     */
+    public void setLazyFetchAllowed(boolean lazyFetchAllowed)
+    {
+        this.lazyFetchAllowed = lazyFetchAllowed;
+    }
+
+    protected boolean isLazyFetchEnabled()
+    {
+        return lazyFetchAllowed &&
+            dataSource.getContainer().getPreferenceStore().getBoolean(ModelPreferences.CONTENT_LOB_LAZY_FETCH);
+    }
+
     @Override
     public boolean updateContents(
         DBRProgressMonitor monitor,
@@ -21,10 +21,12 @@ import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBConstants;
 import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.data.*;
 import org.jkiss.dbeaver.model.exec.DBCException;
 import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
@@ -183,6 +185,7 @@ public class JDBCContentValueHandler extends JDBCAbstractValueHandler implements
             }
         } else if (object instanceof Blob) {
             final JDBCContentBLOB blob = new JDBCContentBLOB(session.getDataSource(), (Blob) object);
+            blob.setLazyFetchAllowed(isManualCommit(session));
             final DBPPreferenceStore preferenceStore = session.getDataSource().getContainer().getPreferenceStore();
             if (preferenceStore.getBoolean(ModelPreferences.CONTENT_CACHE_BLOB) &&
                 blob.getLOBLength() < preferenceStore.getLong(ModelPreferences.CONTENT_CACHE_MAX_SIZE))
@@ -193,6 +196,7 @@ public class JDBCContentValueHandler extends JDBCAbstractValueHandler implements
             return blob;
         } else if (object instanceof Clob) {
             JDBCContentCLOB clob = new JDBCContentCLOB(session.getDataSource(), (Clob) object);
+            clob.setLazyFetchAllowed(isManualCommit(session));
             final DBPPreferenceStore preferenceStore = session.getDataSource().getContainer().getPreferenceStore();
             if (preferenceStore.getBoolean(ModelPreferences.CONTENT_CACHE_CLOB) &&
                 clob.getLOBLength() < preferenceStore.getLong(ModelPreferences.CONTENT_CACHE_MAX_SIZE))
@@ -286,4 +290,17 @@ public class JDBCContentValueHandler extends JDBCAbstractValueHandler implements
         }
     }
 
+    /**
+     * LOB locators are usually valid until the end of transaction. In auto-commit mode it ends with the query.
+     */
+    private static boolean isManualCommit(@NotNull DBCSession session) {
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        try {
+            return txnManager != null && !txnManager.isAutoCommit();
+        } catch (DBCException e) {
+            log.debug("Can't check auto-commit mode", e);
+            return false;
+        }
+    }
+
 }
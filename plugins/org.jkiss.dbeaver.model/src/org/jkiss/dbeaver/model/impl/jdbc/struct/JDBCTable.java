@@ -53,6 +53,7 @@ public abstract class JDBCTable<DATASOURCE extends DBPDataSource, CONTAINER exte
 
     private static final String DEFAULT_TABLE_ALIAS = "x";
     public static final int DEFAULT_READ_FETCH_SIZE = 10000;
+    private static final int MAX_MULTI_VALUE_INSERT_ROWS = 1000;
 
     private boolean persisted;
 
@@ -310,7 +311,7 @@ public abstract class JDBCTable<DATASOURCE extends DBPDataSource, CONTAINER exte
     {
         readRequiredMeta(session.getProgressMonitor());
 
-        return new ExecuteBatchImpl(attributes, keysReceiver, true) {
+        ExecuteBatchImpl batch = new ExecuteBatchImpl(attributes, keysReceiver, true) {
 
             private boolean allNulls;
 
@@ -386,6 +387,38 @@ public abstract class JDBCTable<DATASOURCE extends DBPDataSource, CONTAINER exte
                 }
             }
         };
+
+        int maxRowsInStatement = getMultiValueInsertRows(session, attributes, keysReceiver);
+        if (maxRowsInStatement > 1) {
+            String[] columnNames = new String[attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                columnNames[i] = getAttributeName(attributes[i]);
+            }
+            return new MultiValueInsertBatch(
+                getFullyQualifiedName(DBPEvaluationContext.DML), columnNames, attributes, source, maxRowsInStatement, batch);
+        }
+        return batch;
+    }
+
+    /**
+     * Max number of rows in a single multi-value INSERT statement.
+     * Returns 1 if multi-value inserts can't be used.
+     */
+    private int getMultiValueInsertRows(@NotNull DBCSession session, @NotNull DBSAttributeBase[] attributes, @Nullable DBDDataReceiver keysReceiver) {
+        if (keysReceiver != null || attributes.length == 0 || useUpsert(session) || !(session.getDataSource() instanceof SQLDataSource)) {
+            // Generated keys can't be read from multi-value insert
+            return 1;
+        }
+        SQLDialect dialect = ((SQLDataSource) session.getDataSource()).getSQLDialect();
+        if (dialect.getMaxQueryParameters() <= 0) {
+            return 1;
+        }
+        for (DBSAttributeBase attribute : attributes) {
+            if (DBUtils.isPseudoAttribute(attribute)) {
+                return 1;
+            }
+        }
+        return Math.min(MAX_MULTI_VALUE_INSERT_ROWS, dialect.getMaxQueryParameters() / attributes.length);
     }
 
     ////////////////////////////////////////////////////////////////////
@@ -579,7 +612,7 @@ public abstract class JDBCTable<DATASOURCE extends DBPDataSource, CONTAINER exte
         return dialect instanceof JDBCSQLDialect && ((JDBCSQLDialect) dialect).supportsUpsertStatement();
     }
 
-    private String getAttributeName(@NotNull DBSAttributeBase attribute) {
+    protected String getAttributeName(@NotNull DBSAttributeBase attribute) {
         // Entity attribute obtain commented because it broke complex attributes full name construction
         // We can't use entity attr because only particular query metadata contains real structure
 //        if (attribute instanceof DBDAttributeBinding) {
@@ -0,0 +1,238 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.struct;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDValueBinder;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.edit.DBEPersistAction;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.jkiss.utils.ArrayUtils;
+
+import java.util.*;
+
+/**
+ * Packs rows into multi-value INSERT statements (INSERT INTO T (...) VALUES (...),(...),...).
+ * Used for drivers which do not rewrite batches by themselves.
+ * Consecutive rows with the same null values are grouped in one statement. Null values are skipped
+ * (to let default value to be applied) the same way as in regular inserts.
+ * Prepared statements are cached for each statement shape (set of columns and number of rows).
+ * Executed rows are removed from the batch even if a later statement fails, thus retry doesn't insert them twice.
+ */
+class MultiValueInsertBatch implements DBSDataManipulator.ExecuteBatch {
+
+    private static final int MAX_CACHED_INSERT_STATEMENTS = 16;
+
+    private final String tableName;
+    private final String[] columnNames;
+    private final DBSAttributeBase[] attributes;
+    private final DBCExecutionSource source;
+    private final int maxRowsInStatement;
+    private final DBSDataManipulator.ExecuteBatch singleRowBatch;
+    private final List<Object[]> values = new ArrayList<>();
+    private final Map<String, DBCStatement> statementCache = new LinkedHashMap<String, DBCStatement>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DBCStatement> eldest) {
+            if (size() > MAX_CACHED_INSERT_STATEMENTS) {
+                eldest.getValue().close();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * @param tableName fully qualified table name
+     * @param columnNames quoted names of attributes
+     * @param singleRowBatch regular insert batch. Used for script generation and for custom value binders.
+     */
+    MultiValueInsertBatch(
+        @NotNull String tableName,
+        @NotNull String[] columnNames,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source,
+        int maxRowsInStatement,
+        @NotNull DBSDataManipulator.ExecuteBatch singleRowBatch)
+    {
+        this.tableName = tableName;
+        this.columnNames = columnNames;
+        this.attributes = attributes;
+        this.source = source;
+        this.maxRowsInStatement = maxRowsInStatement;
+        this.singleRowBatch = singleRowBatch;
+    }
+
+    @Override
+    public void add(@NotNull Object[] attributeValues) throws DBCException {
+        if (ArrayUtils.isEmpty(attributeValues)) {
+            throw new DBCException("Bad attribute values: " + Arrays.toString(attributeValues));
+        }
+        values.add(attributeValues);
+    }
+
+    @NotNull
+    @Override
+    public DBCStatistics execute(@NotNull DBCSession session) throws DBCException {
+        DBDValueHandler[] handlers = new DBDValueHandler[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            if (attributes[i] instanceof DBDAttributeBinding) {
+                handlers[i] = ((DBDAttributeBinding) attributes[i]).getValueHandler();
+            } else {
+                handlers[i] = DBUtils.findValueHandler(session, attributes[i]);
+            }
+            if (handlers[i] instanceof DBDValueBinder) {
+                // Custom binds may depend on value. Use regular inserts.
+                return executeSingleRows(session);
+            }
+        }
+
+        DBCStatistics statistics = new DBCStatistics();
+        // Number of rows in executed statements
+        int rowsExecuted = 0;
+        try {
+            while (rowsExecuted < values.size()) {
+                if (session.getProgressMonitor().isCanceled()) {
+                    break;
+                }
+                boolean[] skipColumns = getSkippedColumns(values.get(rowsExecuted));
+                int rowCount = 1;
+                while (rowCount < maxRowsInStatement && rowsExecuted + rowCount < values.size() &&
+                    Arrays.equals(skipColumns, getSkippedColumns(values.get(rowsExecuted + rowCount))))
+                {
+                    rowCount++;
+                }
+
+                DBCStatement statement = getStatement(session, skipColumns, rowCount, statistics);
+                int paramIndex = 0;
+                for (int i = 0; i < rowCount; i++) {
+                    Object[] rowValues = values.get(rowsExecuted + i);
+                    for (int k = 0; k < attributes.length; k++) {
+                        if (!skipColumns[k]) {
+                            handlers[k].bindValueObject(session, statement, attributes[k], paramIndex++, rowValues[k]);
+                        }
+                    }
+                }
+                long startTime = System.currentTimeMillis();
+                statement.executeStatement();
+                statistics.addExecuteTime(System.currentTimeMillis() - startTime);
+                long rowsUpdated = statement.getUpdateRowCount();
+                statistics.addRowsUpdated(rowsUpdated >= 0 ? rowsUpdated : rowCount);
+
+                rowsExecuted += rowCount;
+            }
+        } finally {
+            // Failed statement rows and the rest stay in the batch. Thus they may be retried.
+            values.subList(0, rowsExecuted).clear();
+        }
+        values.clear();
+
+        return statistics;
+    }
+
+    @Override
+    public void generatePersistActions(@NotNull DBCSession session, @NotNull List<DBEPersistAction> actions) throws DBCException {
+        for (Object[] rowValues : values) {
+            singleRowBatch.add(rowValues);
+        }
+        values.clear();
+        singleRowBatch.generatePersistActions(session, actions);
+    }
+
+    @Override
+    public void close() {
+        for (DBCStatement statement : statementCache.values()) {
+            statement.close();
+        }
+        statementCache.clear();
+        singleRowBatch.close();
+    }
+
+    private DBCStatistics executeSingleRows(@NotNull DBCSession session) throws DBCException {
+        for (Object[] rowValues : values) {
+            singleRowBatch.add(rowValues);
+        }
+        values.clear();
+        return singleRowBatch.execute(session);
+    }
+
+    private boolean[] getSkippedColumns(Object[] rowValues) {
+        boolean[] skipColumns = new boolean[attributes.length];
+        boolean allNulls = true;
+        for (int i = 0; i < attributes.length; i++) {
+            skipColumns[i] = DBUtils.isNullValue(rowValues[i]);
+            if (!skipColumns[i]) {
+                allNulls = false;
+            }
+        }
+        if (allNulls) {
+            // Use explicit NULLs. INSERT with empty column list won't work
+            Arrays.fill(skipColumns, false);
+        }
+        return skipColumns;
+    }
+
+    private DBCStatement getStatement(@NotNull DBCSession session, boolean[] skipColumns, int rowCount, DBCStatistics statistics) throws DBCException {
+        StringBuilder key = new StringBuilder(skipColumns.length + 10);
+        for (boolean skip : skipColumns) {
+            key.append(skip ? '0' : '1');
+        }
+        key.append(':').append(rowCount);
+        String shapeKey = key.toString();
+        DBCStatement statement = statementCache.get(shapeKey);
+        if (statement != null) {
+            return statement;
+        }
+
+        StringBuilder query = new StringBuilder(100 + rowCount * attributes.length * 2);
+        query.append("INSERT INTO ").append(tableName).append(" ("); //$NON-NLS-1$ //$NON-NLS-2$
+        boolean hasKey = false;
+        for (int i = 0; i < attributes.length; i++) {
+            if (skipColumns[i]) {
+                continue;
+            }
+            if (hasKey) query.append(","); //$NON-NLS-1$
+            hasKey = true;
+            query.append(columnNames[i]);
+        }
+        query.append(")\nVALUES "); //$NON-NLS-1$
+        for (int row = 0; row < rowCount; row++) {
+            if (row > 0) query.append(","); //$NON-NLS-1$
+            query.append("("); //$NON-NLS-1$
+            hasKey = false;
+            for (int i = 0; i < attributes.length; i++) {
+                if (skipColumns[i]) {
+                    continue;
+                }
+                if (hasKey) query.append(","); //$NON-NLS-1$
+                hasKey = true;
+                query.append("?"); //$NON-NLS-1$
+            }
+            query.append(")"); //$NON-NLS-1$
+        }
+
+        statement = session.prepareStatement(DBCStatementType.QUERY, query.toString(), false, false, false);
+        statement.setStatementSource(source);
+        statistics.setQueryText(statement.getQueryString());
+        statistics.addStatementsCount();
+        statementCache.put(shapeKey, statement);
+        return statement;
+    }
+}
@@ -352,6 +352,11 @@ public class BasicSQLDialect implements SQLDialect {
         return MultiValueInsertMode.NOT_SUPPORTED;
     }
 
+    @Override
+    public int getMaxQueryParameters() {
+        return 0;
+    }
+
     @Override
     public String addFiltersToQuery(DBPDataSource dataSource, String query, DBDDataFilter filter) {
         return SQLSemanticProcessor.addFiltersToQuery(dataSource, query, filter);
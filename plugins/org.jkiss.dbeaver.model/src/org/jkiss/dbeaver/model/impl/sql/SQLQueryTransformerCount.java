@@ -20,12 +20,12 @@ import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.Function;
 import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
-import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.select.*;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.sql.*;
+import org.jkiss.dbeaver.model.sql.parser.SQLParserCache;
 import org.jkiss.utils.CommonUtils;
 
 import java.util.ArrayList;
@@ -64,7 +64,7 @@ public class SQLQueryTransformerCount implements SQLQueryTransformer {
 
     private SQLQuery tryInjectCount(SQLDataSource dataSource, SQLQuery query) throws DBException {
         try {
-            Statement statement = CCJSqlParserUtil.parse(query.getText());
+            Statement statement = SQLParserCache.parseStatementCopy(dataSource, query.getText());
             if (statement instanceof Select && ((Select) statement).getSelectBody() instanceof PlainSelect) {
                 PlainSelect select = (PlainSelect) ((Select) statement).getSelectBody();
                 if (select.getHaving() != null) {
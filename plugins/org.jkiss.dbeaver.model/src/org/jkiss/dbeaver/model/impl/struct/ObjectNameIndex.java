@@ -0,0 +1,909 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.struct;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.*;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.*;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Local index of database object names.
+ *
+ * Index is built in background from structure assistant results (all objects of all supported types)
+ * and saved on disk, so it is available soon after the next connect (saved index is loaded in background too).
+ * Added and removed objects are applied to the index incrementally, index is rebuilt when objects are refreshed.
+ * Index is disposed on disconnect.
+ * Index keeps only names and container paths, model objects are resolved on search.
+ * Names are indexed by prefix (sorted array) and by trigrams (for masks like %name%).
+ * Incremental changes are kept aside of these structures, they are merged after {@link #MAX_INDEX_CHANGES} changes.
+ * Types with too many objects are indexed partially. Such types are always searched by structure assistant.
+ *
+ * Enabled by {@link ModelPreferences#META_OBJECT_INDEX}.
+ */
+public class ObjectNameIndex implements DBPEventListener {
+
+    private static final Log log = Log.getLog(ObjectNameIndex.class);
+
+    private static final String INDEX_FOLDER = "object-index";
+    private static final int MAX_OBJECTS_PER_TYPE = 200000;
+    private static final long REBUILD_DELAY = 10000;
+    private static final char MASK_ANY = '%';
+    private static final char MASK_ONE = '_';
+    private static final String TRUNCATED_TYPE_MARK = "#truncated";
+    private static final int MAX_INDEX_CHANGES = 1000;
+
+    private static final Map<DBPDataSourceContainer, ObjectNameIndex> indexes = new HashMap<>();
+
+    private final DBPDataSource dataSource;
+    private final DBSStructureAssistant assistant;
+    private final RebuildJob rebuildJob = new RebuildJob();
+    private final CompactJob compactJob = new CompactJob();
+    // Replaced on each change, changes are made under index lock
+    private volatile IndexData data;
+    // Changes made while index jobs are building new index data
+    private final List<List<IndexChange>> changeLogs = new ArrayList<>();
+    private final Object saveLock = new Object();
+    private volatile boolean disposed;
+
+    static class IndexEntry {
+        final String name;
+        final String lowerName;
+        final DBSObjectType type;
+        final String description;
+        // Names path from data source to the object container
+        final String[] containerPath;
+
+        IndexEntry(String name, DBSObjectType type, String description, String[] containerPath) {
+            this.name = name;
+            this.lowerName = name.toLowerCase(Locale.ENGLISH);
+            this.type = type;
+            this.description = description;
+            this.containerPath = containerPath;
+        }
+
+        boolean matches(@NotNull String name, @NotNull String[] containerPath, @NotNull Collection<DBSObjectType> types) {
+            return this.name.equals(name) && types.contains(type) && Arrays.equals(this.containerPath, containerPath);
+        }
+    }
+
+    /**
+     * Immutable index data. Changes produce new instances.
+     */
+    static class IndexData {
+        // Entries sorted by lower case name
+        private final IndexEntry[] entries;
+        private final Map<Long, int[]> trigrams;
+        // Types which have more objects than index keeps
+        final Set<DBSObjectType> truncatedTypes;
+        // Changes made after the build. They are few, so added entries are just scanned
+        private final List<IndexEntry> addedEntries;
+        private final BitSet removedEntries;
+
+        IndexData(@NotNull List<IndexEntry> entryList, @NotNull Set<DBSObjectType> truncatedTypes) {
+            this.truncatedTypes = truncatedTypes;
+            this.addedEntries = Collections.emptyList();
+            this.removedEntries = new BitSet();
+            entryList.sort(Comparator.comparing(e -> e.lowerName));
+            this.entries = entryList.toArray(new IndexEntry[0]);
+            this.trigrams = new HashMap<>();
+            Map<Long, int[]> postings = new HashMap<>();
+            Map<Long, Integer> sizes = new HashMap<>();
+            for (int i = 0; i < entries.length; i++) {
+                String name = entries[i].lowerName;
+                Set<Long> nameTrigrams = new HashSet<>();
+                for (int k = 0; k + 3 <= name.length(); k++) {
+                    nameTrigrams.add(trigram(name, k));
+                }
+                for (Long trigram : nameTrigrams) {
+                    int[] list = postings.get(trigram);
+                    int size = sizes.getOrDefault(trigram, 0);
+                    if (list == null) {
+                        list = new int[4];
+                    } else if (size == list.length) {
+                        list = Arrays.copyOf(list, size * 2);
+                    }
+                    list[size] = i;
+                    postings.put(trigram, list);
+                    sizes.put(trigram, size + 1);
+                }
+            }
+            for (Map.Entry<Long, int[]> entry : postings.entrySet()) {
+                trigrams.put(entry.getKey(), Arrays.copyOf(entry.getValue(), sizes.get(entry.getKey())));
+            }
+        }
+
+        private IndexData(@NotNull IndexData source, @NotNull List<IndexEntry> addedEntries, @NotNull BitSet removedEntries) {
+            this.entries = source.entries;
+            this.trigrams = source.trigrams;
+            this.truncatedTypes = source.truncatedTypes;
+            this.addedEntries = addedEntries;
+            this.removedEntries = removedEntries;
+        }
+
+        @NotNull
+        IndexData addEntry(@NotNull IndexEntry entry) {
+            if (truncatedTypes.contains(entry.type)) {
+                return this;
+            }
+            List<IndexEntry> added = new ArrayList<>(addedEntries.size() + 1);
+            added.addAll(addedEntries);
+            added.add(entry);
+            return new IndexData(this, added, removedEntries);
+        }
+
+        /**
+         * Removes entries with the specified name, container and one of types
+         */
+        @NotNull
+        IndexData removeEntries(@NotNull String name, @NotNull String[] containerPath, @NotNull Collection<DBSObjectType> types) {
+            BitSet removed = null;
+            String lowerName = name.toLowerCase(Locale.ENGLISH);
+            for (int i = lowerBound(entries, lowerName); i < entries.length && entries[i].lowerName.equals(lowerName); i++) {
+                if (!removedEntries.get(i) && entries[i].matches(name, containerPath, types)) {
+                    if (removed == null) {
+                        removed = (BitSet) removedEntries.clone();
+                    }
+                    removed.set(i);
+                }
+            }
+            List<IndexEntry> added = null;
+            for (IndexEntry entry : addedEntries) {
+                if (entry.matches(name, containerPath, types)) {
+                    if (added == null) {
+                        added = new ArrayList<>(addedEntries);
+                    }
+                    added.remove(entry);
+                }
+            }
+            if (removed == null && added == null) {
+                return this;
+            }
+            return new IndexData(this, added == null ? addedEntries : added, removed == null ? removedEntries : removed);
+        }
+
+        /**
+         * Removes entries of the container and of its sub-containers
+         */
+        @NotNull
+        IndexData removeContainerEntries(@NotNull String[] containerPath) {
+            BitSet removed = null;
+            for (int i = 0; i < entries.length; i++) {
+                if (!removedEntries.get(i) && isPathPrefix(containerPath, entries[i].containerPath)) {
+                    if (removed == null) {
+                        removed = (BitSet) removedEntries.clone();
+                    }
+                    removed.set(i);
+                }
+            }
+            List<IndexEntry> added = null;
+            for (IndexEntry entry : addedEntries) {
+                if (isPathPrefix(containerPath, entry.containerPath)) {
+                    if (added == null) {
+                        added = new ArrayList<>(addedEntries);
+                    }
+                    added.remove(entry);
+                }
+            }
+            if (removed == null && added == null) {
+                return this;
+            }
+            return new IndexData(this, added == null ? addedEntries : added, removed == null ? removedEntries : removed);
+        }
+
+        int getChangeCount() {
+            return addedEntries.size() + removedEntries.cardinality();
+        }
+
+        /**
+         * Returns index data with changes merged into sorted entries and trigrams
+         */
+        @NotNull
+        IndexData compact() {
+            return getChangeCount() == 0 ? this : new IndexData(getEntries(), truncatedTypes);
+        }
+
+        @NotNull
+        List<IndexEntry> getEntries() {
+            List<IndexEntry> result = new ArrayList<>(entries.length + addedEntries.size());
+            for (int i = 0; i < entries.length; i++) {
+                if (!removedEntries.get(i)) {
+                    result.add(entries[i]);
+                }
+            }
+            result.addAll(addedEntries);
+            return result;
+        }
+
+        /**
+         * Returns entries which may match the mask
+         */
+        @NotNull
+        List<IndexEntry> findCandidates(@NotNull String lowerMask) {
+            List<IndexEntry> result = new ArrayList<>();
+            for (int i : findEntryIndexes(lowerMask)) {
+                if (!removedEntries.get(i)) {
+                    result.add(entries[i]);
+                }
+            }
+            result.addAll(addedEntries);
+            return result;
+        }
+
+        @NotNull
+        private int[] findEntryIndexes(@NotNull String lowerMask) {
+            int prefixLength = 0;
+            while (prefixLength < lowerMask.length() && lowerMask.charAt(prefixLength) != MASK_ANY && lowerMask.charAt(prefixLength) != MASK_ONE) {
+                prefixLength++;
+            }
+            if (prefixLength > 0) {
+                // Prefix search
+                String prefix = lowerMask.substring(0, prefixLength);
+                int start = lowerBound(entries, prefix);
+                int end = start;
+                while (end < entries.length && entries[end].lowerName.startsWith(prefix)) {
+                    end++;
+                }
+                int[] candidates = new int[end - start];
+                for (int i = 0; i < candidates.length; i++) {
+                    candidates[i] = start + i;
+                }
+                return candidates;
+            }
+            // Use the rarest trigram of mask literals
+            int[] candidates = null;
+            for (String literal : lowerMask.split("[%_]")) {
+                for (int k = 0; k + 3 <= literal.length(); k++) {
+                    int[] postings = trigrams.get(trigram(literal, k));
+                    if (postings == null) {
+                        return new int[0];
+                    }
+                    if (candidates == null || postings.length < candidates.length) {
+                        candidates = postings;
+                    }
+                }
+            }
+            if (candidates == null) {
+                // Short mask - scan all names
+                candidates = new int[entries.length];
+                for (int i = 0; i < candidates.length; i++) {
+                    candidates[i] = i;
+                }
+            }
+            return candidates;
+        }
+    }
+
+    /**
+     * Object added or removed while index data is being built
+     */
+    private static class IndexChange {
+        final String name;
+        final String[] containerPath;
+        final List<DBSObjectType> types;
+        @Nullable
+        final IndexEntry addedEntry;
+        // Path of removed container
+        @Nullable
+        final String[] removedPath;
+
+        IndexChange(@NotNull String name, @NotNull String[] containerPath, @NotNull List<DBSObjectType> types, @Nullable IndexEntry addedEntry, @Nullable String[] removedPath) {
+            this.name = name;
+            this.containerPath = containerPath;
+            this.types = types;
+            this.addedEntry = addedEntry;
+            this.removedPath = removedPath;
+        }
+
+        @NotNull
+        IndexData apply(@NotNull IndexData indexData) {
+            if (!types.isEmpty()) {
+                indexData = indexData.removeEntries(name, containerPath, types);
+            }
+            if (removedPath != null) {
+                indexData = indexData.removeContainerEntries(removedPath);
+            }
+            return addedEntry == null ? indexData : indexData.addEntry(addedEntry);
+        }
+    }
+
+    private ObjectNameIndex(@NotNull DBPDataSource dataSource, @NotNull DBSStructureAssistant assistant) {
+        this.dataSource = dataSource;
+        this.assistant = assistant;
+    }
+
+    /**
+     * Searches objects in the local index. If index is disabled or not built yet then uses structure assistant.
+     */
+    @NotNull
+    public static List<DBSObjectReference> findObjectsByMask(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSStructureAssistant assistant,
+        @NotNull DBPDataSource dataSource,
+        @Nullable DBSObject parentObject,
+        @NotNull DBSObjectType[] objectTypes,
+        @NotNull String objectNameMask,
+        boolean caseSensitive,
+        boolean globalSearch,
+        int maxResults)
+        throws DBException
+    {
+        ObjectNameIndex index = getIndex(dataSource, assistant);
+        if (index != null) {
+            List<DBSObjectReference> references = index.findObjects(monitor, parentObject, objectTypes, objectNameMask, caseSensitive, globalSearch, maxResults);
+            if (references != null) {
+                return references;
+            }
+        }
+        return assistant.findObjectsByMask(monitor, parentObject, objectTypes, objectNameMask, caseSensitive, globalSearch, maxResults);
+    }
+
+    @Nullable
+    private static ObjectNameIndex getIndex(@NotNull DBPDataSource dataSource, @NotNull DBSStructureAssistant assistant) {
+        DBPDataSourceContainer container = dataSource.getContainer();
+        boolean enabled = container.getPreferenceStore().getBoolean(ModelPreferences.META_OBJECT_INDEX);
+        ObjectNameIndex index;
+        synchronized (indexes) {
+            index = indexes.get(container);
+            if (index != null && (!enabled || index.dataSource != dataSource)) {
+                // Disabled or reconnected
+                indexes.remove(container);
+                index.dispose();
+                index = null;
+            }
+            if (index == null && enabled) {
+                index = new ObjectNameIndex(dataSource, assistant);
+                indexes.put(container, index);
+                container.getRegistry().addDataSourceListener(index);
+                index.rebuildJob.schedule();
+            }
+        }
+        return index;
+    }
+
+    private static void removeIndex(@NotNull ObjectNameIndex index) {
+        synchronized (indexes) {
+            DBPDataSourceContainer container = index.dataSource.getContainer();
+            if (indexes.get(container) == index) {
+                indexes.remove(container);
+            }
+        }
+        index.dispose();
+    }
+
+    private void dispose() {
+        synchronized (this) {
+            disposed = true;
+            data = null;
+        }
+        rebuildJob.cancel();
+        compactJob.cancel();
+        dataSource.getContainer().getRegistry().removeDataSourceListener(this);
+    }
+
+    /**
+     * @return found objects or null if index is not ready
+     */
+    @Nullable
+    private List<DBSObjectReference> findObjects(
+        @NotNull DBRProgressMonitor monitor,
+        @Nullable DBSObject parentObject,
+        @NotNull DBSObjectType[] objectTypes,
+        @NotNull String objectNameMask,
+        boolean caseSensitive,
+        boolean globalSearch,
+        int maxResults)
+        throws DBException
+    {
+        IndexData indexData = this.data;
+        if (indexData == null) {
+            return null;
+        }
+        Set<DBSObjectType> types = new HashSet<>();
+        List<DBSObjectType> truncatedTypes = new ArrayList<>();
+        for (DBSObjectType type : objectTypes) {
+            if (indexData.truncatedTypes.contains(type)) {
+                truncatedTypes.add(type);
+            } else {
+                types.add(type);
+            }
+        }
+        List<DBSObjectReference> result = new ArrayList<>();
+        if (!truncatedTypes.isEmpty()) {
+            // Index doesn't have all objects of these types
+            result.addAll(assistant.findObjectsByMask(
+                monitor, parentObject, truncatedTypes.toArray(new DBSObjectType[0]), objectNameMask, caseSensitive, globalSearch, maxResults));
+            if (types.isEmpty()) {
+                return result;
+            }
+        }
+        if (parentObject == null && !globalSearch) {
+            // Search in the active schema/catalog
+            DBSObjectSelector objectSelector = DBUtils.getAdapter(DBSObjectSelector.class, dataSource);
+            if (objectSelector != null) {
+                parentObject = objectSelector.getDefaultObject();
+            }
+        }
+        Pattern pattern = makeMaskPattern(objectNameMask, caseSensitive);
+        String lowerMask = objectNameMask.toLowerCase(Locale.ENGLISH);
+        String[] parentPath = parentObject == null ? null : getContainerPath(parentObject);
+
+        Map<List<String>, DBSObject> containers = new HashMap<>();
+        for (IndexEntry entry : indexData.findCandidates(lowerMask)) {
+            if (result.size() >= maxResults || monitor.isCanceled()) {
+                break;
+            }
+            if (!types.contains(entry.type) || !pattern.matcher(entry.name).matches()) {
+                continue;
+            }
+            if (parentPath != null && !isPathPrefix(parentPath, entry.containerPath)) {
+                continue;
+            }
+            DBSObject container = findContainer(monitor, containers, entry);
+            if (container != null) {
+                result.add(new IndexedObjectReference(entry, container));
+            }
+        }
+        return result;
+    }
+
+    private static int lowerBound(@NotNull IndexEntry[] entries, @NotNull String prefix) {
+        int low = 0, high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid].lowerName.compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long trigram(@NotNull String str, int offset) {
+        return ((long) str.charAt(offset) << 32) | ((long) str.charAt(offset + 1) << 16) | str.charAt(offset + 2);
+    }
+
+    @NotNull
+    private static Pattern makeMaskPattern(@NotNull String mask, boolean caseSensitive) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < mask.length(); i++) {
+            char c = mask.charAt(i);
+            if (c == MASK_ANY || c == MASK_ONE) {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == MASK_ANY ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    private static boolean isPathPrefix(@NotNull String[] prefix, @NotNull String[] path) {
+        if (prefix.length > path.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (!prefix[i].equals(path[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resolves entry container by names path. Current model objects are used, so refreshed containers are found as well.
+     */
+    @Nullable
+    private DBSObject findContainer(@NotNull DBRProgressMonitor monitor, @NotNull Map<List<String>, DBSObject> containers, @NotNull IndexEntry entry) {
+        List<String> path = Arrays.asList(entry.containerPath);
+        if (containers.containsKey(path)) {
+            return containers.get(path);
+        }
+        DBSObject container = dataSource;
+        try {
+            for (String name : entry.containerPath) {
+                if (!(container instanceof DBSObjectContainer)) {
+                    container = null;
+                    break;
+                }
+                container = ((DBSObjectContainer) container).getChild(monitor, name);
+                if (container == null) {
+                    break;
+                }
+            }
+        } catch (DBException e) {
+            log.debug("Can't find container of '" + entry.name + "'", e);
+            container = null;
+        }
+        containers.put(path, container);
+        return container;
+    }
+
+    @NotNull
+    private static String[] getContainerPath(@Nullable DBSObject container) {
+        List<String> path = new ArrayList<>();
+        for (DBSObject o = container; o != null && !(o instanceof DBPDataSource); o = o.getParentObject()) {
+            path.add(0, o.getName());
+        }
+        return path.toArray(new String[0]);
+    }
+
+    @Override
+    public void handleDataSourceEvent(DBPEvent event) {
+        DBSObject object = event.getObject();
+        if (object == dataSource.getContainer()) {
+            DBPDataSourceContainer container = (DBPDataSourceContainer) object;
+            if (event.getAction() == DBPEvent.Action.OBJECT_REMOVE ||
+                (event.getAction() == DBPEvent.Action.OBJECT_UPDATE && container.getDataSource() != dataSource))
+            {
+                // Data source was removed, disconnected or reconnected
+                removeIndex(this);
+            }
+            return;
+        }
+        if (object == null || object instanceof DBPDataSourceContainer || object.getDataSource() != dataSource) {
+            return;
+        }
+        switch (event.getAction()) {
+            case OBJECT_ADD:
+                updateIndex(object, true);
+                break;
+            case OBJECT_REMOVE:
+                updateIndex(object, false);
+                break;
+            case OBJECT_SELECT:
+                // Object refresh
+                if (Boolean.TRUE.equals(event.getEnabled()) && object instanceof DBSObjectContainer) {
+                    rebuildJob.schedule(REBUILD_DELAY);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Applies added or removed object to the index
+     */
+    private void updateIndex(@NotNull DBSObject object, boolean added) {
+        String name = object.getName();
+        if (CommonUtils.isEmpty(name)) {
+            return;
+        }
+        List<DBSObjectType> types = new ArrayList<>();
+        for (DBSObjectType type : assistant.getSupportedObjectTypes()) {
+            Class<?> typeClass = type.getTypeClass();
+            if (typeClass != null && typeClass.isInstance(object)) {
+                types.add(type);
+            }
+        }
+        String[] removedPath = null;
+        if (!added && object instanceof DBSObjectContainer) {
+            // Objects of removed schema/catalog
+            removedPath = getContainerPath(object);
+        }
+        if (types.isEmpty() && removedPath == null) {
+            return;
+        }
+        String[] containerPath = getContainerPath(object.getParentObject());
+        IndexEntry addedEntry = null;
+        if (added && !types.isEmpty()) {
+            addedEntry = new IndexEntry(name, getMostSpecificType(types), object.getDescription(), containerPath);
+        }
+        IndexChange change = new IndexChange(name, containerPath, types, addedEntry, removedPath);
+        synchronized (this) {
+            if (disposed) {
+                return;
+            }
+            for (List<IndexChange> changeLog : changeLogs) {
+                changeLog.add(change);
+            }
+            IndexData indexData = this.data;
+            if (indexData != null) {
+                indexData = change.apply(indexData);
+                this.data = indexData;
+                if (indexData.getChangeCount() > MAX_INDEX_CHANGES) {
+                    compactJob.schedule();
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private static DBSObjectType getMostSpecificType(@NotNull List<DBSObjectType> types) {
+        DBSObjectType result = types.get(0);
+        for (DBSObjectType type : types) {
+            if (result.getTypeClass().isAssignableFrom(type.getTypeClass())) {
+                result = type;
+            }
+        }
+        return result;
+    }
+
+    @NotNull
+    private synchronized List<IndexChange> startChangeLog() {
+        List<IndexChange> changeLog = new ArrayList<>();
+        changeLogs.add(changeLog);
+        return changeLog;
+    }
+
+    /**
+     * Sets new index data and applies changes which were made while it was built
+     * @return new index data or null if it wasn't built or index was disposed
+     */
+    @Nullable
+    private synchronized IndexData finishChangeLog(@NotNull List<IndexChange> changeLog, @Nullable IndexData newData) {
+        changeLogs.remove(changeLog);
+        if (newData == null || disposed) {
+            return null;
+        }
+        for (IndexChange change : changeLog) {
+            newData = change.apply(newData);
+        }
+        data = newData;
+        return newData;
+    }
+
+    ///////////////////////////////////////////////////////
+    // Persistence
+
+    @NotNull
+    private File getIndexFile() {
+        return DBWorkbench.getPlatform().getConfigurationFile(INDEX_FOLDER + "/" + dataSource.getContainer().getId() + ".txt");
+    }
+
+    private void load() {
+        File indexFile = getIndexFile();
+        if (!indexFile.exists()) {
+            return;
+        }
+        IndexData indexData;
+        try {
+            indexData = loadIndex(indexFile, Arrays.asList(assistant.getSupportedObjectTypes()));
+        } catch (IOException e) {
+            log.debug("Error loading object index of '" + dataSource.getContainer().getName() + "'", e);
+            return;
+        }
+        synchronized (this) {
+            if (data == null && !disposed) {
+                data = indexData;
+            }
+        }
+    }
+
+    private void save(@NotNull IndexData indexData) {
+        File indexFile = getIndexFile();
+        File folder = indexFile.getParentFile();
+        if (!folder.exists() && !folder.mkdirs()) {
+            log.debug("Can't create object index folder '" + folder.getAbsolutePath() + "'");
+            return;
+        }
+        synchronized (saveLock) {
+            try {
+                saveIndex(indexFile, indexData);
+            } catch (IOException e) {
+                log.debug("Error saving object index of '" + dataSource.getContainer().getName() + "'", e);
+            }
+        }
+    }
+
+    @NotNull
+    static IndexData loadIndex(@NotNull File indexFile, @NotNull Collection<? extends DBSObjectType> supportedTypes) throws IOException {
+        Map<String, DBSObjectType> types = new HashMap<>();
+        for (DBSObjectType type : supportedTypes) {
+            types.put(type.getTypeName(), type);
+        }
+        List<IndexEntry> entries = new ArrayList<>();
+        Set<DBSObjectType> truncatedTypes = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(indexFile), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                // type, name, description, container path
+                String[] fields = line.split("\t", -1);
+                if (fields.length == 2 && fields[0].equals(TRUNCATED_TYPE_MARK)) {
+                    DBSObjectType type = types.get(fields[1]);
+                    if (type != null) {
+                        truncatedTypes.add(type);
+                    }
+                    continue;
+                }
+                if (fields.length < 3) {
+                    continue;
+                }
+                DBSObjectType type = types.get(fields[0]);
+                if (type != null) {
+                    entries.add(new IndexEntry(fields[1], type, fields[2], Arrays.copyOfRange(fields, 3, fields.length)));
+                }
+            }
+        }
+        return new IndexData(entries, truncatedTypes);
+    }
+
+    static void saveIndex(@NotNull File indexFile, @NotNull IndexData indexData) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(indexFile), StandardCharsets.UTF_8))) {
+            for (DBSObjectType type : indexData.truncatedTypes) {
+                writer.write(TRUNCATED_TYPE_MARK);
+                writer.write('\t');
+                writer.write(escape(type.getTypeName()));
+                writer.write('\n');
+            }
+            for (IndexEntry entry : indexData.getEntries()) {
+                writer.write(escape(entry.type.getTypeName()));
+                writer.write('\t');
+                writer.write(escape(entry.name));
+                writer.write('\t');
+                writer.write(escape(entry.description));
+                for (String name : entry.containerPath) {
+                    writer.write('\t');
+                    writer.write(escape(name));
+                }
+                writer.write('\n');
+            }
+        }
+    }
+
+    @NotNull
+    private static String escape(@Nullable String str) {
+        return CommonUtils.notEmpty(str).replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    ///////////////////////////////////////////////////////
+    // Build
+
+    private class RebuildJob extends AbstractJob {
+        RebuildJob() {
+            super("Build object name index");
+            setSystem(true);
+            setUser(false);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            if (data == null) {
+                // Saved index is used until objects are read
+                load();
+            }
+            List<IndexChange> changeLog = startChangeLog();
+            IndexData newData = null;
+            try {
+                newData = buildIndex(monitor);
+            } finally {
+                newData = finishChangeLog(changeLog, newData);
+            }
+            if (newData == null) {
+                return Status.CANCEL_STATUS;
+            }
+            save(newData);
+            return Status.OK_STATUS;
+        }
+
+        @Nullable
+        private IndexData buildIndex(DBRProgressMonitor monitor) {
+            List<IndexEntry> entries = new ArrayList<>();
+            Set<DBSObjectType> truncatedTypes = new HashSet<>();
+            for (DBSObjectType type : assistant.getSupportedObjectTypes()) {
+                if (monitor.isCanceled() || disposed) {
+                    return null;
+                }
+                try {
+                    List<DBSObjectReference> references = assistant.findObjectsByMask(
+                        monitor, null, new DBSObjectType[] { type }, String.valueOf(MASK_ANY), false, true, MAX_OBJECTS_PER_TYPE);
+                    if (references.size() >= MAX_OBJECTS_PER_TYPE) {
+                        log.debug("Too many " + type.getTypeName() + " objects in '" + dataSource.getContainer().getName() + "'. They are searched on server.");
+                        truncatedTypes.add(type);
+                    }
+                    for (DBSObjectReference reference : references) {
+                        entries.add(new IndexEntry(
+                            reference.getName(),
+                            type,
+                            reference.getObjectDescription(),
+                            getContainerPath(reference.getContainer())));
+                    }
+                } catch (Throwable e) {
+                    log.debug("Error reading " + type.getTypeName() + " names of '" + dataSource.getContainer().getName() + "'", e);
+                }
+            }
+            if (disposed || monitor.isCanceled()) {
+                return null;
+            }
+            return new IndexData(entries, truncatedTypes);
+        }
+    }
+
+    private class CompactJob extends AbstractJob {
+        CompactJob() {
+            super("Merge object name index changes");
+            setSystem(true);
+            setUser(false);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            // Changes made after the log start are applied again, it doesn't change the result
+            List<IndexChange> changeLog = startChangeLog();
+            IndexData indexData = data;
+            IndexData newData = null;
+            try {
+                if (indexData != null) {
+                    newData = indexData.compact();
+                }
+            } finally {
+                newData = finishChangeLog(changeLog, newData);
+            }
+            if (newData == null) {
+                return Status.CANCEL_STATUS;
+            }
+            save(newData);
+            return Status.OK_STATUS;
+        }
+    }
+
+    /**
+     * Reference to indexed object
+     */
+    private class IndexedObjectReference extends AbstractObjectReference {
+
+        IndexedObjectReference(@NotNull IndexEntry entry, @NotNull DBSObject container) {
+            super(entry.name, container, entry.description, entry.type.getTypeClass(), entry.type);
+        }
+
+        @Override
+        public DBSObject resolveObject(DBRProgressMonitor monitor) throws DBException {
+            DBSObject container = getContainer();
+            Class<?> typeClass = getObjectClass();
+            if (container instanceof DBSObjectContainer) {
+                DBSObject child = ((DBSObjectContainer) container).getChild(monitor, getName());
+                if (child != null && (typeClass == null || typeClass.isInstance(child))) {
+                    return child;
+                }
+            }
+            if (container instanceof DBSEntity) {
+                DBSObject attribute = ((DBSEntity) container).getAttribute(monitor, getName());
+                if (attribute != null && (typeClass == null || typeClass.isInstance(attribute))) {
+                    return attribute;
+                }
+            }
+            // Ask server
+            List<DBSObjectReference> references = assistant.findObjectsByMask(
+                monitor, container, new DBSObjectType[] { getObjectType() }, getName(), true, true, 1);
+            if (references.isEmpty()) {
+                throw new DBException("Object '" + getName() + "' not found in '" + DBUtils.getObjectFullName(container, DBPEvaluationContext.UI) + "'");
+            }
+            return references.get(0).resolveObject(monitor);
+        }
+    }
+
+}
@@ -30,5 +30,12 @@ public class QMConstants {
     public static final String PROP_HISTORY_DAYS = PROP_PREFIX + "historyDays";
     public static final String PROP_STORE_LOG_FILE = PROP_PREFIX + "storeLogs";
     public static final String PROP_LOG_DIRECTORY = PROP_PREFIX + "logDirectory";
+    public static final String PROP_LOG_FORMAT = PROP_PREFIX + "logFormat";
+    public static final String PROP_LOG_MAX_SIZE = PROP_PREFIX + "logMaxSize";
+    public static final String PROP_LOG_COMPRESS = PROP_PREFIX + "logCompress";
+    public static final String PROP_STORE_HISTORY = PROP_PREFIX + "storeHistory";
+
+    public static final String LOG_FORMAT_TEXT = "text";
+    public static final String LOG_FORMAT_JSON = "json";
 
 }
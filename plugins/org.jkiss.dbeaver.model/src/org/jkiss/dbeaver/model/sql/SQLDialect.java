@@ -267,6 +267,14 @@ public interface SQLDialect {
     @NotNull
     MultiValueInsertMode getMultiValueInsertMode();
 
+    /**
+     * Maximum number of bind parameters in a single query.
+     * Data load packs several rows into one multi-value INSERT statement if this limit is known.
+     * It doesn't depend on {@link #getMultiValueInsertMode()} which affects generated SQL scripts only.
+     * @return max parameters or 0 if limit is unknown or multi-value inserts are not supported
+     */
+    int getMaxQueryParameters();
+
     String addFiltersToQuery(DBPDataSource dataSource, String query, DBDDataFilter filter);
 
     /**
@@ -17,7 +17,6 @@
 
 package org.jkiss.dbeaver.model.sql;
 
-import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.schema.Database;
 import net.sf.jsqlparser.schema.Table;
 import net.sf.jsqlparser.statement.Statement;
@@ -40,6 +39,7 @@ import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.exec.DBCAttributeMetaData;
 import org.jkiss.dbeaver.model.exec.DBCEntityMetaData;
+import org.jkiss.dbeaver.model.sql.parser.SQLParserCache;
 import org.jkiss.utils.CommonUtils;
 
 import java.util.*;
@@ -71,7 +71,10 @@ public class SQLQuery implements SQLScriptElement {
     private boolean parsed = false;
     @NotNull
     private SQLQueryType type;
+    // Shared statement from parser cache. Read-only
     private Statement statement;
+    // Private copy of statement. Created on demand, may be modified by query transformers
+    private Statement statementCopy;
     private SingleTableMeta singleTableMeta;
     private List<SQLSelectItem> selectItems;
     private String queryTitle;
@@ -129,7 +132,7 @@ public class SQLQuery implements SQLScriptElement {
                 this.parseError = new DBException("Empty query");
                 return;
             }
-            statement = CCJSqlParserUtil.parse(text);
+            statement = SQLParserCache.getStatement(dataSource, text);
             if (statement instanceof Select) {
                 type = SQLQueryType.SELECT;
                 // Detect single source table
@@ -258,10 +261,20 @@ public class SQLQuery implements SQLScriptElement {
         return queryTitle;
     }
 
+    /**
+     * Returns parsed statement. Statement is a private copy of this query so it may be modified.
+     */
     @Nullable
     public Statement getStatement() {
         parseQuery();
-        return statement;
+        if (statementCopy == null && statement != null) {
+            try {
+                statementCopy = SQLParserCache.parseStatementCopy(dataSource, text);
+            } catch (Throwable e) {
+                parseError = e;
+            }
+        }
+        return statementCopy;
     }
 
     public Throwable getParseError() {
@@ -0,0 +1,231 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.parser;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.sql.SQLDataSource;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Shared cache of parsed SQL statements.
+ *
+ * Statements are keyed by SQL dialect and query text. Text is only trimmed: queries which differ in
+ * formatting or case are cached separately. Cached statements are shared between threads and
+ * must never be modified: use {@link #parseStatementCopy(DBPDataSource, String)} to get a private copy
+ * which may be changed (e.g. for filters or limits injection).
+ * Parse errors are cached as well, so pathological queries are not parsed again. Timeouts are not cached.
+ * Parse is limited by timeout (JSQLParser itself can't be interrupted, so timed out parser thread just finishes in background).
+ * Number of parser threads is limited, so such threads can't pile up.
+ */
+public class SQLParserCache {
+
+    static final int MAX_CACHED_STATEMENTS = 200;
+    // Max total length of cached queries texts
+    static final long MAX_CACHED_TEXT_LENGTH = 16 * 1024 * 1024;
+    // Max length of the query text which may be cached
+    static final int MAX_QUERY_LENGTH = 4 * 1024 * 1024;
+    private static final long PARSE_TIMEOUT = 10000;
+    private static final int MAX_PARSER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final ThreadPoolExecutor parseExecutor = new ThreadPoolExecutor(
+        MAX_PARSER_THREADS, MAX_PARSER_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "SQL parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    static {
+        parseExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    private static class ParseTimeoutException extends JSQLParserException {
+        ParseTimeoutException(String message) {
+            super(message);
+        }
+    }
+
+    private static class CacheKey {
+        private final String dialect;
+        private final String text;
+
+        CacheKey(String dialect, String text) {
+            this.dialect = dialect;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CacheKey && ((CacheKey) obj).dialect.equals(dialect) && ((CacheKey) obj).text.equals(text);
+        }
+
+        @Override
+        public int hashCode() {
+            return dialect.hashCode() * 31 + text.hashCode();
+        }
+    }
+
+    private static class CacheEntry {
+        // Original query text. Statement copies are parsed from it if statement can't be copied.
+        private final String text;
+        private final Statement statement;
+        private final Throwable error;
+
+        CacheEntry(String text, Statement statement, Throwable error) {
+            this.text = text;
+            this.statement = statement;
+            this.error = error;
+        }
+
+        Statement getStatement() throws JSQLParserException {
+            if (error != null) {
+                if (error instanceof JSQLParserException) {
+                    throw (JSQLParserException) error;
+                }
+                throw new JSQLParserException(error);
+            }
+            return statement;
+        }
+    }
+
+    // Access ordered, eldest entries are evicted first
+    private static final Map<CacheKey, CacheEntry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cachedTextLength;
+
+    /**
+     * Returns shared parsed statement. Returned statement MUST NOT be modified.
+     * @throws JSQLParserException on parse error or parse timeout
+     */
+    @NotNull
+    public static Statement getStatement(@Nullable DBPDataSource dataSource, @NotNull String text) throws JSQLParserException {
+        return getEntry(dataSource, text).getStatement();
+    }
+
+    /**
+     * Returns private copy of parsed statement. Copy may be modified.
+     * Copy is a deep copy of the cached statement. It is parsed from the original query text only if
+     * statement contains nodes which can't be copied. Cached parse errors are reported without parsing.
+     */
+    @NotNull
+    public static Statement parseStatementCopy(@Nullable DBPDataSource dataSource, @NotNull String text) throws JSQLParserException {
+        CacheEntry entry = getEntry(dataSource, text);
+        Statement copy = SQLStatementCopier.copy(entry.getStatement());
+        if (copy != null) {
+            return copy;
+        }
+        return parseWithTimeout(entry.text);
+    }
+
+    @NotNull
+    private static CacheEntry getEntry(@Nullable DBPDataSource dataSource, @NotNull String text) {
+        text = text.trim();
+        CacheKey key = new CacheKey(getDialectName(dataSource), text);
+        CacheEntry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+        }
+        if (entry == null) {
+            Statement statement = null;
+            Throwable error = null;
+            try {
+                statement = parseWithTimeout(text);
+            } catch (Throwable e) {
+                error = e;
+            }
+            entry = new CacheEntry(text, statement, error);
+            // Timeout may be caused by load, so query will be parsed again
+            if (text.length() <= MAX_QUERY_LENGTH && !(error instanceof ParseTimeoutException)) {
+                synchronized (cache) {
+                    if (cache.put(key, entry) == null) {
+                        cachedTextLength += text.length();
+                    }
+                    evictEntries();
+                }
+            }
+        }
+        return entry;
+    }
+
+    private static void evictEntries() {
+        Iterator<CacheKey> iterator = cache.keySet().iterator();
+        while (iterator.hasNext() && (cache.size() > MAX_CACHED_STATEMENTS || cachedTextLength > MAX_CACHED_TEXT_LENGTH)) {
+            cachedTextLength -= iterator.next().text.length();
+            iterator.remove();
+        }
+    }
+
+    public static void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+            cachedTextLength = 0;
+        }
+    }
+
+    static int getCachedStatementCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    static long getCachedTextLength() {
+        synchronized (cache) {
+            return cachedTextLength;
+        }
+    }
+
+    @NotNull
+    private static Statement parseWithTimeout(@NotNull String text) throws JSQLParserException {
+        return parseWithTimeout(() -> CCJSqlParserUtil.parse(text), PARSE_TIMEOUT);
+    }
+
+    @NotNull
+    static Statement parseWithTimeout(@NotNull Callable<Statement> parser, long timeout) throws JSQLParserException {
+        Future<Statement> future = parseExecutor.submit(parser);
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ParseTimeoutException("SQL parse timeout (" + timeout + "ms) exceeded");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ParseTimeoutException("SQL parse interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof JSQLParserException) {
+                throw (JSQLParserException) e.getCause();
+            }
+            throw new JSQLParserException(e.getCause());
+        }
+    }
+
+    @NotNull
+    private static String getDialectName(@Nullable DBPDataSource dataSource) {
+        if (dataSource instanceof SQLDataSource) {
+            return ((SQLDataSource) dataSource).getSQLDialect().getDialectName();
+        }
+        return "";
+    }
+
+}
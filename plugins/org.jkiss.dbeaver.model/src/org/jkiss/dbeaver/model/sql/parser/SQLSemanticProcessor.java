@@ -55,7 +55,7 @@ public class SQLSemanticProcessor {
     public static boolean isSelectQuery(String query)
     {
         try {
-            Statement statement = CCJSqlParserUtil.parse(query);
+            Statement statement = SQLParserCache.getStatement(null, query);
             return
                 statement instanceof Select &&
                 ((Select) statement).getSelectBody() instanceof PlainSelect &&
@@ -73,8 +73,10 @@ public class SQLSemanticProcessor {
         boolean supportSubqueries = dataSource instanceof SQLDataSource && ((SQLDataSource) dataSource).getSQLDialect().supportsSubqueries();
         if (!dataSource.getContainer().getPreferenceStore().getBoolean(ModelPreferences.SQL_FILTER_FORCE_SUBSELECT)) {
             try {
-                Statement statement = CCJSqlParserUtil.parse(sqlQuery);
+                // Check shared statement first and make a modifiable copy only if query can be patched
+                Statement statement = SQLParserCache.getStatement(dataSource, sqlQuery);
                 if (statement instanceof Select && ((Select) statement).getSelectBody() instanceof PlainSelect) {
+                    statement = SQLParserCache.parseStatementCopy(dataSource, sqlQuery);
                     PlainSelect select = (PlainSelect) ((Select) statement).getSelectBody();
                     if (patchSelectQuery(dataSource, select, dataFilter)) {
                         return statement.toString();
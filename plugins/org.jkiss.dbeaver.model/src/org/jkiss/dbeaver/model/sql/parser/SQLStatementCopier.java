@@ -0,0 +1,201 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.parser;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deep copy of parsed statements.
+ *
+ * JSQLParser has no cloning support, so statement nodes are copied field by field.
+ * Parser internals (syntax tree nodes and tokens referenced by statement nodes) are shared, they are never modified.
+ * Nodes without default constructor (e.g. literal values) are allocated with Unsafe, all their fields are copied anyway.
+ * Copy is not possible if such node can't be allocated or if node contains unknown mutable values.
+ */
+class SQLStatementCopier {
+
+    private static final String MODEL_PACKAGE = "net.sf.jsqlparser.";
+    private static final String PARSER_PACKAGE = "net.sf.jsqlparser.parser.";
+
+    private static final Map<Class<?>, NodeClass> nodeClasses = new ConcurrentHashMap<>();
+
+    private static Object unsafe;
+    private static Method allocateInstanceMethod;
+
+    static {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+            unsafeField.setAccessible(true);
+            unsafe = unsafeField.get(null);
+            allocateInstanceMethod = unsafeClass.getMethod("allocateInstance", Class.class);
+        } catch (Throwable e) {
+            // Not supported. Only nodes with default constructor can be copied
+        }
+    }
+
+    private static class NodeClass {
+        private final Class<?> nodeClass;
+        @Nullable
+        private final Constructor<?> constructor;
+        private final List<Field> fields;
+
+        NodeClass(@NotNull Class<?> nodeClass, @Nullable Constructor<?> constructor, @NotNull List<Field> fields) {
+            this.nodeClass = nodeClass;
+            this.constructor = constructor;
+            this.fields = fields;
+        }
+
+        @NotNull
+        Object newInstance() throws CopyException, ReflectiveOperationException {
+            if (constructor != null) {
+                return constructor.newInstance();
+            }
+            if (allocateInstanceMethod == null) {
+                throw new CopyException("Node " + nodeClass.getName() + " can't be copied");
+            }
+            return allocateInstanceMethod.invoke(unsafe, nodeClass);
+        }
+    }
+
+    private static class CopyException extends Exception {
+        CopyException(String message) {
+            super(message);
+        }
+    }
+
+    private final Map<Object, Object> copies = new IdentityHashMap<>();
+    // Pairs of source and copied nodes which fields aren't copied yet
+    private final Deque<Object[]> pendingNodes = new ArrayDeque<>();
+
+    private SQLStatementCopier() {
+    }
+
+    /**
+     * Returns deep copy of the node or null if node can't be copied
+     */
+    @Nullable
+    static <T> T copy(@NotNull T node) {
+        try {
+            SQLStatementCopier copier = new SQLStatementCopier();
+            Object copy = copier.copyValue(node);
+            // Nodes are copied iteratively: long expression chains are too deep for recursion
+            while (!copier.pendingNodes.isEmpty()) {
+                Object[] pair = copier.pendingNodes.pop();
+                copier.copyFields(pair[0], pair[1]);
+            }
+            @SuppressWarnings("unchecked")
+            T result = (T) copy;
+            return result;
+        } catch (CopyException | ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void copyFields(@NotNull Object source, @NotNull Object target) throws CopyException, ReflectiveOperationException {
+        for (Field field : getNodeClass(source.getClass()).fields) {
+            field.set(target, copyValue(field.get(source)));
+        }
+    }
+
+    @Nullable
+    private Object copyValue(@Nullable Object value) throws CopyException, ReflectiveOperationException {
+        if (value == null || isImmutable(value)) {
+            return value;
+        }
+        Object copy = copies.get(value);
+        if (copy != null) {
+            return copy;
+        }
+        Class<?> valueClass = value.getClass();
+        if (valueClass.getName().startsWith(PARSER_PACKAGE)) {
+            return value;
+        } else if (valueClass.getName().startsWith(MODEL_PACKAGE)) {
+            copy = getNodeClass(valueClass).newInstance();
+            pendingNodes.push(new Object[] { value, copy });
+        } else if (value instanceof List) {
+            List<Object> list = new ArrayList<>(((List<?>) value).size());
+            copies.put(value, list);
+            for (Object item : (List<?>) value) {
+                list.add(copyValue(item));
+            }
+            return list;
+        } else if (value instanceof Map) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            copies.put(value, map);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(copyValue(entry.getKey()), copyValue(entry.getValue()));
+            }
+            return map;
+        } else if (valueClass.isArray()) {
+            int length = Array.getLength(value);
+            copy = Array.newInstance(valueClass.getComponentType(), length);
+            copies.put(value, copy);
+            for (int i = 0; i < length; i++) {
+                Array.set(copy, i, copyValue(Array.get(value, i)));
+            }
+            return copy;
+        } else if (value instanceof Date) {
+            copy = ((Date) value).clone();
+        } else {
+            throw new CopyException("Value " + valueClass.getName() + " can't be copied");
+        }
+        copies.put(value, copy);
+        return copy;
+    }
+
+    private static boolean isImmutable(@NotNull Object value) {
+        return value instanceof String || value instanceof Boolean || value instanceof Character ||
+            value instanceof Enum || value instanceof Class ||
+            value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long ||
+            value instanceof Float || value instanceof Double || value instanceof BigInteger || value instanceof BigDecimal;
+    }
+
+    @NotNull
+    private static NodeClass getNodeClass(@NotNull Class<?> nodeClass) {
+        return nodeClasses.computeIfAbsent(nodeClass, SQLStatementCopier::makeNodeClass);
+    }
+
+    @NotNull
+    private static NodeClass makeNodeClass(@NotNull Class<?> nodeClass) {
+        Constructor<?> constructor;
+        try {
+            constructor = nodeClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            constructor = null;
+        }
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> type = nodeClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+        return new NodeClass(nodeClass, constructor, fields);
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.struct;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+
+/**
+ * Data bulk loader.
+ * Data manipulator which can load rows using native database bulk load protocol (COPY, LOAD DATA, bulk copy, etc).
+ */
+public interface DBSDataBulkLoader extends DBSDataManipulator {
+
+    /**
+     * Checks whether bulk load can be used for specified attributes in specified session.
+     * It depends on driver capabilities and on attribute data types.
+     */
+    boolean isBulkLoadSupported(@NotNull DBCSession session, @NotNull DBSAttributeBase[] attributes);
+
+    /**
+     * Creates bulk load batch.
+     * Rows added to batch are sent to the server on batch execute. Returned batch doesn't support script generation.
+     */
+    @NotNull
+    ExecuteBatch bulkInsertData(
+        @NotNull DBCSession session,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source)
+        throws DBCException;
+
+}
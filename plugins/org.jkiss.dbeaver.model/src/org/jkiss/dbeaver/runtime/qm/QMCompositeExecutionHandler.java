@@ -0,0 +1,373 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPTransactionIsolation;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.qm.QMExecutionHandler;
+import org.jkiss.dbeaver.model.runtime.features.DBRFeature;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Composite execution handler. Notifies all registered handlers.
+ *
+ * Handlers are kept in per-event arrays which are rebuilt on (rare) registration changes.
+ * Handlers derived from {@link DefaultExecutionHandler} are notified only about events they override.
+ * Event notification doesn't allocate anything and is a no-op if nobody listens for the event.
+ */
+class QMCompositeExecutionHandler implements QMExecutionHandler {
+
+    private static final Log log = Log.getLog(QMCompositeExecutionHandler.class);
+
+    private static final int CONTEXT_OPEN = 0;
+    private static final int CONTEXT_CLOSE = 1;
+    private static final int SESSION_OPEN = 2;
+    private static final int SESSION_CLOSE = 3;
+    private static final int TRANSACTION_AUTOCOMMIT = 4;
+    private static final int TRANSACTION_ISOLATION = 5;
+    private static final int TRANSACTION_COMMIT = 6;
+    private static final int TRANSACTION_SAVEPOINT = 7;
+    private static final int TRANSACTION_ROLLBACK = 8;
+    private static final int STATEMENT_OPEN = 9;
+    private static final int STATEMENT_EXECUTE_BEGIN = 10;
+    private static final int STATEMENT_EXECUTE_END = 11;
+    private static final int STATEMENT_BIND = 12;
+    private static final int STATEMENT_CLOSE = 13;
+    private static final int RESULT_SET_OPEN = 14;
+    private static final int RESULT_SET_CLOSE = 15;
+    private static final int SCRIPT_BEGIN = 16;
+    private static final int SCRIPT_END = 17;
+    private static final int FEATURE_USAGE = 18;
+
+    // Handler method names, indexed by event constants
+    private static final String[] EVENT_METHODS = {
+        "handleContextOpen",
+        "handleContextClose",
+        "handleSessionOpen",
+        "handleSessionClose",
+        "handleTransactionAutocommit",
+        "handleTransactionIsolation",
+        "handleTransactionCommit",
+        "handleTransactionSavepoint",
+        "handleTransactionRollback",
+        "handleStatementOpen",
+        "handleStatementExecuteBegin",
+        "handleStatementExecuteEnd",
+        "handleStatementBind",
+        "handleStatementClose",
+        "handleResultSetOpen",
+        "handleResultSetClose",
+        "handleScriptBegin",
+        "handleScriptEnd",
+        "handleFeatureUsage",
+    };
+
+    private static final QMExecutionHandler[] EMPTY_HANDLERS = new QMExecutionHandler[0];
+
+    private final List<QMExecutionHandler> handlers = new ArrayList<>();
+    private volatile QMExecutionHandler[][] eventHandlers;
+
+    QMCompositeExecutionHandler() {
+        rebuildEventHandlers();
+    }
+
+    void addHandler(QMExecutionHandler handler) {
+        synchronized (handlers) {
+            handlers.add(handler);
+            rebuildEventHandlers();
+        }
+    }
+
+    boolean removeHandler(QMExecutionHandler handler) {
+        synchronized (handlers) {
+            if (!handlers.remove(handler)) {
+                return false;
+            }
+            rebuildEventHandlers();
+            return true;
+        }
+    }
+
+    List<QMExecutionHandler> getHandlers() {
+        synchronized (handlers) {
+            return new ArrayList<>(handlers);
+        }
+    }
+
+    void clearHandlers() {
+        synchronized (handlers) {
+            handlers.clear();
+            rebuildEventHandlers();
+        }
+    }
+
+    private void rebuildEventHandlers() {
+        QMExecutionHandler[][] result = new QMExecutionHandler[EVENT_METHODS.length][];
+        for (int i = 0; i < EVENT_METHODS.length; i++) {
+            List<QMExecutionHandler> listeners = new ArrayList<>();
+            for (QMExecutionHandler handler : handlers) {
+                if (handlesEvent(handler, EVENT_METHODS[i])) {
+                    listeners.add(handler);
+                }
+            }
+            result[i] = listeners.isEmpty() ? EMPTY_HANDLERS : listeners.toArray(new QMExecutionHandler[0]);
+        }
+        eventHandlers = result;
+    }
+
+    static boolean handlesEvent(QMExecutionHandler handler, String methodName) {
+        if (!(handler instanceof DefaultExecutionHandler)) {
+            return true;
+        }
+        // Skip no-op methods inherited from the default handler
+        for (Class<?> type = handler.getClass(); type != null && type != DefaultExecutionHandler.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.getName().equals(methodName) && !method.isBridge()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void handleError(QMExecutionHandler handler, Throwable error) {
+        log.debug("Error notifying QM handler '" + handler.getHandlerName() + "'", error);
+    }
+
+    @NotNull
+    @Override
+    public String getHandlerName() {
+        return "Default";
+    }
+
+    @Override
+    public void handleContextOpen(@NotNull DBCExecutionContext context, boolean transactional) {
+        for (QMExecutionHandler handler : eventHandlers[CONTEXT_OPEN]) {
+            try {
+                handler.handleContextOpen(context, transactional);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleContextClose(@NotNull DBCExecutionContext context) {
+        for (QMExecutionHandler handler : eventHandlers[CONTEXT_CLOSE]) {
+            try {
+                handler.handleContextClose(context);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleSessionOpen(@NotNull DBCSession session) {
+        for (QMExecutionHandler handler : eventHandlers[SESSION_OPEN]) {
+            try {
+                handler.handleSessionOpen(session);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleSessionClose(@NotNull DBCSession session) {
+        for (QMExecutionHandler handler : eventHandlers[SESSION_CLOSE]) {
+            try {
+                handler.handleSessionClose(session);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleTransactionAutocommit(@NotNull DBCExecutionContext context, boolean autoCommit) {
+        for (QMExecutionHandler handler : eventHandlers[TRANSACTION_AUTOCOMMIT]) {
+            try {
+                handler.handleTransactionAutocommit(context, autoCommit);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleTransactionIsolation(@NotNull DBCExecutionContext context, @NotNull DBPTransactionIsolation level) {
+        for (QMExecutionHandler handler : eventHandlers[TRANSACTION_ISOLATION]) {
+            try {
+                handler.handleTransactionIsolation(context, level);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleTransactionCommit(@NotNull DBCExecutionContext context) {
+        for (QMExecutionHandler handler : eventHandlers[TRANSACTION_COMMIT]) {
+            try {
+                handler.handleTransactionCommit(context);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleTransactionSavepoint(@NotNull DBCSavepoint savepoint) {
+        for (QMExecutionHandler handler : eventHandlers[TRANSACTION_SAVEPOINT]) {
+            try {
+                handler.handleTransactionSavepoint(savepoint);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleTransactionRollback(@NotNull DBCExecutionContext context, @Nullable DBCSavepoint savepoint) {
+        for (QMExecutionHandler handler : eventHandlers[TRANSACTION_ROLLBACK]) {
+            try {
+                handler.handleTransactionRollback(context, savepoint);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleStatementOpen(@NotNull DBCStatement statement) {
+        for (QMExecutionHandler handler : eventHandlers[STATEMENT_OPEN]) {
+            try {
+                handler.handleStatementOpen(statement);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleStatementExecuteBegin(@NotNull DBCStatement statement) {
+        for (QMExecutionHandler handler : eventHandlers[STATEMENT_EXECUTE_BEGIN]) {
+            try {
+                handler.handleStatementExecuteBegin(statement);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleStatementExecuteEnd(@NotNull DBCStatement statement, long rows, Throwable error) {
+        for (QMExecutionHandler handler : eventHandlers[STATEMENT_EXECUTE_END]) {
+            try {
+                handler.handleStatementExecuteEnd(statement, rows, error);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleStatementBind(@NotNull DBCStatement statement, Object column, @Nullable Object value) {
+        for (QMExecutionHandler handler : eventHandlers[STATEMENT_BIND]) {
+            try {
+                handler.handleStatementBind(statement, column, value);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleStatementClose(@NotNull DBCStatement statement, long rows) {
+        for (QMExecutionHandler handler : eventHandlers[STATEMENT_CLOSE]) {
+            try {
+                handler.handleStatementClose(statement, rows);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleResultSetOpen(@NotNull DBCResultSet resultSet) {
+        for (QMExecutionHandler handler : eventHandlers[RESULT_SET_OPEN]) {
+            try {
+                handler.handleResultSetOpen(resultSet);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleResultSetClose(@NotNull DBCResultSet resultSet, long rowCount) {
+        for (QMExecutionHandler handler : eventHandlers[RESULT_SET_CLOSE]) {
+            try {
+                handler.handleResultSetClose(resultSet, rowCount);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleScriptBegin(@NotNull DBCSession session) {
+        for (QMExecutionHandler handler : eventHandlers[SCRIPT_BEGIN]) {
+            try {
+                handler.handleScriptBegin(session);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleScriptEnd(@NotNull DBCSession session) {
+        for (QMExecutionHandler handler : eventHandlers[SCRIPT_END]) {
+            try {
+                handler.handleScriptEnd(session);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+    @Override
+    public void handleFeatureUsage(@NotNull DBRFeature feature, @Nullable Map<String, Object> parameters) {
+        for (QMExecutionHandler handler : eventHandlers[FEATURE_USAGE]) {
+            try {
+                handler.handleFeatureUsage(feature, parameters);
+            } catch (Throwable e) {
+                handleError(handler, e);
+            }
+        }
+    }
+
+}
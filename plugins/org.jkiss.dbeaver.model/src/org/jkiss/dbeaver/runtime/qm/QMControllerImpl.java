@@ -27,10 +27,6 @@ import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -43,35 +39,41 @@ public class QMControllerImpl implements QMController {
 
     private static final Log log = Log.getLog(QMControllerImpl.class);
 
-    private QMExecutionHandler defaultHandler;
+    private QMCompositeExecutionHandler defaultHandler;
     private QMMCollectorImpl metaHandler;
-    private final List<QMExecutionHandler> handlers = new ArrayList<>();
+    private QMHistoryStore historyStore;
     private QMEventBrowser eventBrowser;
     private DefaultEventBrowser defaultEventBrowser = new DefaultEventBrowser();
 
     public QMControllerImpl() {
-        defaultHandler = (QMExecutionHandler) Proxy.newProxyInstance(
-            getClass().getClassLoader(),
-            new Class[]{ QMExecutionHandler.class },
-            new NotifyInvocationHandler());
+        defaultHandler = new QMCompositeExecutionHandler();
 
         metaHandler = new QMMCollectorImpl();
         registerHandler(metaHandler);
+
+        historyStore = new QMHistoryStore();
+        metaHandler.addListener(historyStore);
     }
 
     public void dispose()
     {
+        if (historyStore != null) {
+            if (metaHandler != null) {
+                metaHandler.removeListener(historyStore);
+            }
+            historyStore.dispose();
+            historyStore = null;
+        }
         if (metaHandler != null) {
             unregisterHandler(metaHandler);
             metaHandler.dispose();
             metaHandler = null;
         }
 
-        synchronized (handlers) {
-            if (!handlers.isEmpty()) {
-                log.warn("Some QM handlers are still registered: " + handlers);
-                handlers.clear();
-            }
+        List<QMExecutionHandler> handlers = defaultHandler.getHandlers();
+        if (!handlers.isEmpty()) {
+            log.warn("Some QM handlers are still registered: " + handlers);
+            defaultHandler.clearHandlers();
         }
       	defaultHandler = null;
     }
@@ -99,23 +101,25 @@ public class QMControllerImpl implements QMController {
                 this.eventBrowser = defaultEventBrowser;
             }
         }
+        if (eventBrowser == defaultEventBrowser && historyStore != null && historyStore.isEnabled()) {
+            // Persistent history contains events of all sessions
+            return historyStore;
+        }
 
         return eventBrowser;
     }
 
     @Override
     public void registerHandler(QMExecutionHandler handler) {
-        synchronized (handlers) {
-            handlers.add(handler);
+        if (defaultHandler != null) {
+            defaultHandler.addHandler(handler);
         }
     }
 
     @Override
     public void unregisterHandler(QMExecutionHandler handler) {
-        synchronized (handlers) {
-            if (!handlers.remove(handler)) {
-                log.warn("QM handler '" + handler + "' isn't registered within QM controller");
-            }
+        if (defaultHandler != null && !defaultHandler.removeHandler(handler)) {
+            log.warn("QM handler '" + handler + "' isn't registered within QM controller");
         }
     }
 
@@ -133,43 +137,7 @@ public class QMControllerImpl implements QMController {
 
     List<QMExecutionHandler> getHandlers()
     {
-        synchronized (handlers) {
-            return handlers;
-        }
-    }
-
-    private class NotifyInvocationHandler implements InvocationHandler {
-
-        @Override
-        public Object invoke(Object proxy, Method method, Object[] args)
-        {
-            try {
-                if (method.getReturnType() == Void.TYPE && method.getName().startsWith("handle")) {
-                    QMExecutionHandler[] handlersCopy;
-                    synchronized (handlers) {
-                        handlersCopy = handlers.toArray(new QMExecutionHandler[handlers.size()]);
-                    }
-                    for (QMExecutionHandler handler : handlersCopy) {
-                        try {
-                            method.invoke(handler, args);
-                        } catch (InvocationTargetException e) {
-                            log.debug("Error notifying QM handler '" + handler.getHandlerName() + "'", e.getTargetException());
-                        }
-                    }
-
-                    return null;
-                } else if (method.getName().equals("getHandlerName")) {
-                    return "Default";
-                } else {
-                    return method.invoke(this, args);
-                }
-            } catch (Throwable e) {
-            // just ignore it
-            log.debug("Error executing QM method " + method, e);
-            return null;
-        }
-        }
-
+        return defaultHandler.getHandlers();
     }
 
     private class DefaultEventBrowser implements QMEventBrowser {
@@ -186,6 +154,10 @@ public class QMControllerImpl implements QMController {
                 // Filter by query type and object type
                 for (Iterator<QMMetaEvent> iter = pastEvents.iterator(); iter.hasNext(); ) {
                     QMMetaEvent event = iter.next();
+                    if (!matchesTime(event.getObject(), criteria)) {
+                        iter.remove();
+                        continue;
+                    }
                     if (criteria.getObjectTypes() != null) {
                         if (!matchesObjectType(event.getObject(), criteria.getObjectTypes())) {
                             iter.remove();
@@ -227,6 +199,19 @@ public class QMControllerImpl implements QMController {
             }
         }
 
+        private boolean matchesTime(QMMObject object, QMEventCriteria criteria) {
+            if (criteria.getStartTime() > 0 && object.getOpenTime() < criteria.getStartTime()) {
+                return false;
+            }
+            if (criteria.getEndTime() > 0 && object.getOpenTime() > criteria.getEndTime()) {
+                return false;
+            }
+            if (criteria.getMinDuration() > 0 && object instanceof QMMStatementExecuteInfo) {
+                return object.isClosed() && object.getCloseTime() - object.getOpenTime() >= criteria.getMinDuration();
+            }
+            return true;
+        }
+
         private boolean matchesObjectType(QMMObject object, QMObjectType[] objectTypes) {
             if (object instanceof QMMSessionInfo)
                 return ArrayUtils.contains(objectTypes, QMObjectType.session);
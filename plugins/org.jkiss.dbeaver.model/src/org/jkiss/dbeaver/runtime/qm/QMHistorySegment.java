@@ -0,0 +1,703 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.qm.QMEventCriteria;
+import org.jkiss.dbeaver.model.qm.QMMetaEvent;
+import org.jkiss.dbeaver.model.qm.QMObjectType;
+import org.jkiss.dbeaver.model.qm.meta.QMMObject;
+import org.jkiss.dbeaver.model.qm.meta.QMMSessionInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementExecuteInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementInfo;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.*;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Query history segment.
+ * Segment is an append-only data file with records and an index. Index of the active (last) segment is kept in memory
+ * and rebuilt from data file on startup. Index of sealed segment is saved in a separate file and loaded on demand.
+ *
+ * Index keeps record offsets, times, durations, object types, query purposes and data sources as columns
+ * plus full-text (token) index of query texts. Tokens are found by trigrams, so search words match any part of a token.
+ */
+class QMHistorySegment {
+
+    static final String DATA_FILE_EXT = ".qmh";
+    static final String INDEX_FILE_EXT = ".qmi";
+
+    // Version 2: single character tokens are indexed
+    private static final int INDEX_FORMAT_VERSION = 2;
+
+    static final byte TYPE_SESSION = 1;
+    static final byte TYPE_EXECUTE = 2;
+
+    private static final int MAX_TOKEN_LENGTH = 64;
+    private static final int GRAM_LENGTH = 3;
+    // Appended to tokens before splitting into grams. Thus each part of token shorter than gram is a prefix of some gram.
+    private static final String TOKEN_END = "\0\0";
+
+    private final File dataFile;
+    private final long firstTime;
+
+    private Index activeIndex;
+    private SoftReference<Index> sealedIndex;
+
+    QMHistorySegment(@NotNull File dataFile, long firstTime) {
+        this.dataFile = dataFile;
+        this.firstTime = firstTime;
+    }
+
+    File getDataFile() {
+        return dataFile;
+    }
+
+    File getIndexFile() {
+        String name = dataFile.getName();
+        return new File(dataFile.getParentFile(), name.substring(0, name.length() - DATA_FILE_EXT.length()) + INDEX_FILE_EXT);
+    }
+
+    long getFirstTime() {
+        return firstTime;
+    }
+
+    boolean isSealed() {
+        return getIndexFile().exists();
+    }
+
+    /**
+     * Rebuilds index of active segment from data file. Trailing broken record (if any) is truncated.
+     */
+    synchronized void openActive() throws IOException {
+        this.activeIndex = readDataFile(true);
+    }
+
+    /**
+     * Builds index from data file
+     * @param truncate truncate trailing broken record
+     */
+    @NotNull
+    private Index readDataFile(boolean truncate) throws IOException {
+        Index index = new Index();
+        long validLength = 0;
+        if (dataFile.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(dataFile)))) {
+                long fileLength = dataFile.length();
+                while (validLength + 4 <= fileLength) {
+                    int length = in.readInt();
+                    if (length <= 0 || validLength + 4 + length > fileLength) {
+                        break;
+                    }
+                    byte[] data = new byte[length];
+                    in.readFully(data);
+                    Record record;
+                    try {
+                        record = Record.read(data);
+                    } catch (IOException e) {
+                        break;
+                    }
+                    index.add(validLength, record);
+                    validLength += 4 + length;
+                }
+            }
+            if (truncate && validLength != dataFile.length()) {
+                try (RandomAccessFile raf = new RandomAccessFile(dataFile, "rw")) {
+                    raf.setLength(validLength);
+                }
+            }
+        }
+        index.dataLength = validLength;
+        return index;
+    }
+
+    synchronized long getDataLength() {
+        return activeIndex == null ? dataFile.length() : activeIndex.dataLength;
+    }
+
+    synchronized int getRecordCount() throws IOException {
+        return getIndex().count;
+    }
+
+    /**
+     * Appends record to the data stream and adds it in the index. Segment must be active.
+     */
+    synchronized void append(@NotNull DataOutputStream out, @NotNull Record record) throws IOException {
+        byte[] data = record.write();
+        out.writeInt(data.length);
+        out.write(data);
+        activeIndex.add(activeIndex.dataLength, record);
+        activeIndex.dataLength += 4 + data.length;
+    }
+
+    /**
+     * Saves index and makes segment read-only
+     */
+    synchronized void seal() throws IOException {
+        if (activeIndex == null) {
+            return;
+        }
+        writeIndex(activeIndex);
+        sealedIndex = new SoftReference<>(activeIndex);
+        activeIndex = null;
+    }
+
+    private void writeIndex(@NotNull Index index) throws IOException {
+        File indexFile = getIndexFile();
+        File tmpFile = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            index.write(out);
+        }
+        if (indexFile.exists() && !indexFile.delete()) {
+            throw new IOException("Can't replace index file '" + indexFile.getAbsolutePath() + "'");
+        }
+        if (!tmpFile.renameTo(indexFile)) {
+            throw new IOException("Can't rename index file '" + tmpFile.getAbsolutePath() + "'");
+        }
+    }
+
+    void delete() {
+        if (!dataFile.delete()) {
+            dataFile.deleteOnExit();
+        }
+        File indexFile = getIndexFile();
+        if (indexFile.exists() && !indexFile.delete()) {
+            indexFile.deleteOnExit();
+        }
+    }
+
+    /**
+     * Finds records matching criteria. Returns record offsets in reverse (newest first) order.
+     * Search string is checked with full-text index only, so results must be verified with actual query text.
+     */
+    synchronized long[] findRecords(@NotNull QMEventCriteria criteria) throws IOException {
+        Index index = getIndex();
+        int[] records = index.find(criteria);
+        long[] result = new long[records.length];
+        for (int i = 0; i < records.length; i++) {
+            result[i] = index.offsets[records[i]];
+        }
+        return result;
+    }
+
+    @NotNull
+    private Index getIndex() throws IOException {
+        if (activeIndex != null) {
+            return activeIndex;
+        }
+        Index index = sealedIndex == null ? null : sealedIndex.get();
+        if (index == null) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(getIndexFile())))) {
+                index = Index.read(in);
+            }
+            if (index == null) {
+                // Index of old format
+                index = readDataFile(false);
+                writeIndex(index);
+            }
+            sealedIndex = new SoftReference<>(index);
+        }
+        return index;
+    }
+
+    static Record readRecord(@NotNull RandomAccessFile file, long offset) throws IOException {
+        file.seek(offset);
+        int length = file.readInt();
+        byte[] data = new byte[length];
+        file.readFully(data);
+        return Record.read(data);
+    }
+
+    static void tokenize(@Nullable String text, @NotNull Collection<String> tokens) {
+        if (text == null) {
+            return;
+        }
+        int length = text.length();
+        for (int i = 0; i < length; ) {
+            while (i < length && !isTokenChar(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && isTokenChar(text.charAt(i))) {
+                i++;
+            }
+            int tokenLength = i - start;
+            if (tokenLength > 0) {
+                tokens.add(text.substring(start, start + Math.min(tokenLength, MAX_TOKEN_LENGTH)).toLowerCase(Locale.ENGLISH));
+            }
+        }
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * Persistent QM event
+     */
+    static class Record {
+        byte type;
+        QMMetaEvent.Action action;
+        long openTime;
+        long closeTime;
+        String containerId;
+        String containerName;
+        String driverId;
+        String contextName;
+        boolean sessionTransactional;
+        // Execute info
+        DBCExecutionPurpose purpose;
+        String queryString;
+        long rowCount;
+        int errorCode;
+        String errorMessage;
+        long fetchBeginTime;
+        long fetchEndTime;
+        boolean transactional;
+
+        @Nullable
+        static Record fromEvent(@NotNull QMMetaEvent event) {
+            QMMObject object = event.getObject();
+            Record record = new Record();
+            record.action = event.getAction();
+            record.openTime = object.getOpenTime();
+            record.closeTime = object.getCloseTime();
+            QMMSessionInfo session;
+            if (object instanceof QMMSessionInfo) {
+                record.type = TYPE_SESSION;
+                session = (QMMSessionInfo) object;
+            } else if (object instanceof QMMStatementExecuteInfo && event.getAction() == QMMetaEvent.Action.END) {
+                QMMStatementExecuteInfo exec = (QMMStatementExecuteInfo) object;
+                record.type = TYPE_EXECUTE;
+                session = exec.getStatement().getSession();
+                record.purpose = exec.getStatement().getPurpose();
+                record.queryString = exec.getQueryString();
+                record.rowCount = exec.getRowCount();
+                record.errorCode = exec.getErrorCode();
+                record.errorMessage = exec.getErrorMessage();
+                record.fetchBeginTime = exec.getFetchBeginTime();
+                record.fetchEndTime = exec.getFetchEndTime();
+                record.transactional = exec.isTransactional();
+            } else {
+                // Only sessions and finished queries are stored
+                return null;
+            }
+            record.containerId = session.getContainerId();
+            record.containerName = session.getContainerName();
+            record.driverId = session.getDriverId();
+            record.contextName = session.getContextName();
+            record.sessionTransactional = session.isTransactional();
+            return record;
+        }
+
+        @NotNull
+        QMMetaEvent toEvent() {
+            QMMSessionInfo session = new QMMSessionInfo(
+                type == TYPE_SESSION ? openTime : 0,
+                type == TYPE_SESSION ? closeTime : 0,
+                containerId, containerName, driverId, null, contextName, sessionTransactional);
+            if (type == TYPE_SESSION) {
+                return new QMMetaEvent(session, action);
+            }
+            QMMStatementInfo statement = new QMMStatementInfo(openTime, closeTime, session, purpose);
+            QMMStatementExecuteInfo exec = new QMMStatementExecuteInfo(
+                openTime, closeTime, statement, queryString, rowCount, errorCode, errorMessage, fetchBeginTime, fetchEndTime, transactional);
+            return new QMMetaEvent(exec, action);
+        }
+
+        String getText() {
+            return type == TYPE_SESSION ? containerName + " - " + contextName : queryString;
+        }
+
+        byte[] write() throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeByte(type);
+            out.writeByte(action.getId());
+            out.writeLong(openTime);
+            out.writeLong(closeTime);
+            writeString(out, containerId);
+            writeString(out, containerName);
+            writeString(out, driverId);
+            writeString(out, contextName);
+            out.writeBoolean(sessionTransactional);
+            if (type == TYPE_EXECUTE) {
+                out.writeByte(purpose == null ? -1 : purpose.ordinal());
+                writeString(out, queryString);
+                out.writeLong(rowCount);
+                out.writeInt(errorCode);
+                writeString(out, errorMessage);
+                out.writeLong(fetchBeginTime);
+                out.writeLong(fetchEndTime);
+                out.writeBoolean(transactional);
+            }
+            out.flush();
+            return buffer.toByteArray();
+        }
+
+        static Record read(byte[] data) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            Record record = new Record();
+            record.type = in.readByte();
+            if (record.type != TYPE_SESSION && record.type != TYPE_EXECUTE) {
+                throw new IOException("Bad history record type: " + record.type);
+            }
+            record.action = QMMetaEvent.Action.getById(in.readByte());
+            record.openTime = in.readLong();
+            record.closeTime = in.readLong();
+            record.containerId = readString(in);
+            record.containerName = readString(in);
+            record.driverId = readString(in);
+            record.contextName = readString(in);
+            record.sessionTransactional = in.readBoolean();
+            if (record.type == TYPE_EXECUTE) {
+                int purpose = in.readByte();
+                DBCExecutionPurpose[] purposes = DBCExecutionPurpose.values();
+                record.purpose = purpose >= 0 && purpose < purposes.length ? purposes[purpose] : null;
+                record.queryString = readString(in);
+                record.rowCount = in.readLong();
+                record.errorCode = in.readInt();
+                record.errorMessage = readString(in);
+                record.fetchBeginTime = in.readLong();
+                record.fetchEndTime = in.readLong();
+                record.transactional = in.readBoolean();
+            }
+            return record;
+        }
+
+        private static void writeString(DataOutputStream out, String str) throws IOException {
+            if (str == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        private static String readString(DataInputStream in) throws IOException {
+            int length = in.readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Segment index
+     */
+    private static class Index {
+        int count;
+        long dataLength;
+        long[] offsets = new long[1024];
+        long[] times = new long[1024];
+        long[] durations = new long[1024];
+        byte[] types = new byte[1024];
+        byte[] purposes = new byte[1024];
+        int[] containers = new int[1024];
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+
+        final List<String> containerIds = new ArrayList<>();
+        final Map<String, Integer> containerIndexes = new HashMap<>();
+        final Map<String, Postings> tokens = new HashMap<>();
+        // Token numbers in vocabulary
+        final List<String> vocabulary = new ArrayList<>();
+        final List<Postings> vocabularyRecords = new ArrayList<>();
+        final NavigableMap<String, Postings> grams = new TreeMap<>();
+        final Postings longTokens = new Postings();
+
+        void add(long offset, Record record) {
+            if (count == offsets.length) {
+                int newSize = count * 2;
+                offsets = Arrays.copyOf(offsets, newSize);
+                times = Arrays.copyOf(times, newSize);
+                durations = Arrays.copyOf(durations, newSize);
+                types = Arrays.copyOf(types, newSize);
+                purposes = Arrays.copyOf(purposes, newSize);
+                containers = Arrays.copyOf(containers, newSize);
+            }
+            offsets[count] = offset;
+            times[count] = record.openTime;
+            durations[count] = record.closeTime > record.openTime ? record.closeTime - record.openTime : 0;
+            types[count] = record.type;
+            purposes[count] = (byte) (record.purpose == null ? -1 : record.purpose.ordinal());
+            containers[count] = getContainerIndex(CommonUtils.notEmpty(record.containerId));
+            minTime = Math.min(minTime, record.openTime);
+            maxTime = Math.max(maxTime, record.openTime);
+
+            Set<String> recordTokens = new HashSet<>();
+            tokenize(record.getText(), recordTokens);
+            for (String token : recordTokens) {
+                Postings postings = tokens.get(token);
+                if (postings == null) {
+                    postings = new Postings();
+                    addToken(token, postings);
+                }
+                postings.add(count);
+            }
+            count++;
+        }
+
+        private void addToken(String token, Postings postings) {
+            int tokenNumber = vocabulary.size();
+            tokens.put(token, postings);
+            vocabulary.add(token);
+            vocabularyRecords.add(postings);
+            if (token.length() >= MAX_TOKEN_LENGTH) {
+                longTokens.add(tokenNumber);
+            }
+            String text = token + TOKEN_END;
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                Postings gramTokens = grams.computeIfAbsent(text.substring(i, i + GRAM_LENGTH), k -> new Postings());
+                // The same gram may appear in token several times
+                if (gramTokens.size == 0 || gramTokens.values[gramTokens.size - 1] != tokenNumber) {
+                    gramTokens.add(tokenNumber);
+                }
+            }
+        }
+
+        /**
+         * Finds records with tokens containing the search word.
+         * Long tokens are truncated in index, their tails are unknown, so they match any word.
+         */
+        private BitSet findTokenRecords(String searchToken) {
+            BitSet matchedTokens = new BitSet(vocabulary.size());
+            if (searchToken.length() < GRAM_LENGTH) {
+                for (Postings gramTokens : grams.subMap(searchToken, searchToken + Character.MAX_VALUE).values()) {
+                    gramTokens.setAll(matchedTokens);
+                }
+            } else {
+                for (int i = 0; i + GRAM_LENGTH <= searchToken.length(); i++) {
+                    Postings gramTokens = grams.get(searchToken.substring(i, i + GRAM_LENGTH));
+                    if (gramTokens == null) {
+                        matchedTokens.clear();
+                        break;
+                    }
+                    if (i == 0) {
+                        gramTokens.setAll(matchedTokens);
+                    } else {
+                        BitSet gramMatches = new BitSet(vocabulary.size());
+                        gramTokens.setAll(gramMatches);
+                        matchedTokens.and(gramMatches);
+                    }
+                    if (matchedTokens.isEmpty()) {
+                        break;
+                    }
+                }
+                // Grams may appear in token in different order
+                for (int token = matchedTokens.nextSetBit(0); token >= 0; token = matchedTokens.nextSetBit(token + 1)) {
+                    if (!vocabulary.get(token).contains(searchToken)) {
+                        matchedTokens.clear(token);
+                    }
+                }
+            }
+            longTokens.setAll(matchedTokens);
+
+            BitSet matches = new BitSet(count);
+            for (int token = matchedTokens.nextSetBit(0); token >= 0; token = matchedTokens.nextSetBit(token + 1)) {
+                vocabularyRecords.get(token).setAll(matches);
+            }
+            return matches;
+        }
+
+        private int getContainerIndex(String containerId) {
+            Integer index = containerIndexes.get(containerId);
+            if (index == null) {
+                index = containerIds.size();
+                containerIds.add(containerId);
+                containerIndexes.put(containerId, index);
+            }
+            return index;
+        }
+
+        int[] find(QMEventCriteria criteria) {
+            if (count == 0 ||
+                (criteria.getStartTime() > 0 && maxTime < criteria.getStartTime()) ||
+                (criteria.getEndTime() > 0 && minTime > criteria.getEndTime()))
+            {
+                return new int[0];
+            }
+            int containerFilter = -1;
+            if (!CommonUtils.isEmpty(criteria.getContainerId())) {
+                Integer index = containerIndexes.get(criteria.getContainerId());
+                if (index == null) {
+                    return new int[0];
+                }
+                containerFilter = index;
+            }
+            boolean[] purposeFilter = null;
+            if (criteria.hasQueryTypes()) {
+                purposeFilter = new boolean[DBCExecutionPurpose.values().length];
+                for (DBCExecutionPurpose purpose : criteria.getQueryTypes()) {
+                    purposeFilter[purpose.ordinal()] = true;
+                }
+            }
+            boolean acceptSessions = !criteria.hasObjectTypes() || criteria.hasObjectType(QMObjectType.session);
+            boolean acceptQueries = !criteria.hasObjectTypes() || criteria.hasObjectType(QMObjectType.query);
+
+            // Full-text candidates. Each word of search string must be a part of some indexed token.
+            BitSet candidates = null;
+            if (!CommonUtils.isEmpty(criteria.getSearchString())) {
+                List<String> searchTokens = new ArrayList<>();
+                tokenize(criteria.getSearchString(), searchTokens);
+                for (String searchToken : searchTokens) {
+                    BitSet matches = findTokenRecords(searchToken);
+                    if (candidates == null) {
+                        candidates = matches;
+                    } else {
+                        candidates.and(matches);
+                    }
+                    if (candidates.isEmpty()) {
+                        return new int[0];
+                    }
+                }
+            }
+
+            int resultCount = 0;
+            int[] result = new int[candidates == null ? count : candidates.cardinality()];
+            for (int record = count - 1; record >= 0; record--) {
+                if (candidates != null) {
+                    record = candidates.previousSetBit(record);
+                    if (record < 0) {
+                        break;
+                    }
+                }
+                if (criteria.getStartTime() > 0 && times[record] < criteria.getStartTime()) continue;
+                if (criteria.getEndTime() > 0 && times[record] > criteria.getEndTime()) continue;
+                if (containerFilter >= 0 && containers[record] != containerFilter) continue;
+                if (types[record] == TYPE_SESSION) {
+                    if (!acceptSessions) continue;
+                } else {
+                    if (!acceptQueries) continue;
+                    if (purposeFilter != null && (purposes[record] < 0 || !purposeFilter[purposes[record]])) continue;
+                    if (criteria.getMinDuration() > 0 && durations[record] < criteria.getMinDuration()) continue;
+                }
+                result[resultCount++] = record;
+            }
+            return resultCount == result.length ? result : Arrays.copyOf(result, resultCount);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(INDEX_FORMAT_VERSION);
+            out.writeInt(count);
+            out.writeLong(dataLength);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(offsets[i]);
+                out.writeLong(times[i]);
+                out.writeLong(durations[i]);
+                out.writeByte(types[i]);
+                out.writeByte(purposes[i]);
+                out.writeInt(containers[i]);
+            }
+            out.writeInt(containerIds.size());
+            for (String containerId : containerIds) {
+                out.writeUTF(containerId);
+            }
+            out.writeInt(tokens.size());
+            for (Map.Entry<String, Postings> entry : tokens.entrySet()) {
+                out.writeUTF(entry.getKey());
+                Postings postings = entry.getValue();
+                out.writeInt(postings.size);
+                for (int i = 0; i < postings.size; i++) {
+                    out.writeInt(postings.values[i]);
+                }
+            }
+        }
+
+        /**
+         * Returns null if index has an old format
+         */
+        @Nullable
+        static Index read(DataInputStream in) throws IOException {
+            int version = in.readInt();
+            if (version < INDEX_FORMAT_VERSION) {
+                return null;
+            }
+            if (version != INDEX_FORMAT_VERSION) {
+                throw new IOException("Unsupported history index version: " + version);
+            }
+            Index index = new Index();
+            int count = in.readInt();
+            index.dataLength = in.readLong();
+            index.offsets = new long[count];
+            index.times = new long[count];
+            index.durations = new long[count];
+            index.types = new byte[count];
+            index.purposes = new byte[count];
+            index.containers = new int[count];
+            for (int i = 0; i < count; i++) {
+                index.offsets[i] = in.readLong();
+                index.times[i] = in.readLong();
+                index.durations[i] = in.readLong();
+                index.types[i] = in.readByte();
+                index.purposes[i] = in.readByte();
+                index.containers[i] = in.readInt();
+                index.minTime = Math.min(index.minTime, index.times[i]);
+                index.maxTime = Math.max(index.maxTime, index.times[i]);
+            }
+            index.count = count;
+            int containerCount = in.readInt();
+            for (int i = 0; i < containerCount; i++) {
+                index.getContainerIndex(in.readUTF());
+            }
+            int tokenCount = in.readInt();
+            for (int i = 0; i < tokenCount; i++) {
+                String token = in.readUTF();
+                Postings postings = new Postings();
+                int size = in.readInt();
+                postings.values = new int[Math.max(size, 1)];
+                for (int k = 0; k < size; k++) {
+                    postings.values[k] = in.readInt();
+                }
+                postings.size = size;
+                index.addToken(token, postings);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Sorted list of record (or token) numbers
+     */
+    private static class Postings {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void setAll(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(values[i]);
+            }
+        }
+    }
+
+}
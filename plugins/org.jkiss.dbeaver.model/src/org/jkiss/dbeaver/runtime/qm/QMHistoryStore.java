@@ -0,0 +1,471 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceListener;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.qm.*;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.utils.ContentUtils;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent query history.
+ * Stores finished queries and session events in append-only segment files (see {@link QMHistorySegment}).
+ * Segments older than history days limit are deleted.
+ * Events are converted to records in the QM dispatcher thread and put in a bounded queue. Separate job appends
+ * queued records to the active segment. If writer can't keep up and queue is full then events are dropped.
+ */
+public class QMHistoryStore implements QMMetaListener, QMEventBrowser, DBPPreferenceListener {
+
+    private static final Log log = Log.getLog(QMHistoryStore.class);
+
+    private static final String HISTORY_FOLDER = "qm-history";
+    private static final String SEGMENT_FILE_PREFIX = "history_";
+
+    private static final long MAX_SEGMENT_SIZE = 32 * 1024 * 1024;
+    private static final int MAX_SEGMENT_RECORDS = 200000;
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private final File historyFolder;
+    private final DBPPreferenceStore preferenceStore;
+    private final long maxSegmentSize;
+    private final int maxSegmentRecords;
+    private volatile boolean enabled;
+    // Oldest first
+    private final List<QMHistorySegment> segments = new ArrayList<>();
+    private QMHistorySegment activeSegment;
+    private DataOutputStream activeOutput;
+
+    private final BlockingQueue<List<QMHistorySegment.Record>> writeQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final HistoryWriterJob writerJob = new HistoryWriterJob();
+
+    public QMHistoryStore()
+    {
+        this(new File(GeneralUtils.getMetadataFolder(), HISTORY_FOLDER), ModelPreferences.getPreferences(), MAX_SEGMENT_SIZE, MAX_SEGMENT_RECORDS);
+    }
+
+    QMHistoryStore(@NotNull File historyFolder, @NotNull DBPPreferenceStore preferenceStore, long maxSegmentSize, int maxSegmentRecords)
+    {
+        this.historyFolder = historyFolder;
+        this.preferenceStore = preferenceStore;
+        this.maxSegmentSize = maxSegmentSize;
+        this.maxSegmentRecords = maxSegmentRecords;
+        preferenceStore.addPropertyChangeListener(this);
+        initStore();
+    }
+
+    public void dispose()
+    {
+        preferenceStore.removePropertyChangeListener(this);
+        // Write queued events
+        writerJob.schedule();
+        try {
+            writerJob.join();
+        } catch (InterruptedException e) {
+            // ignore
+        }
+        synchronized (this) {
+            closeStore();
+        }
+    }
+
+    public synchronized boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    private synchronized void initStore()
+    {
+        boolean storeHistory = preferenceStore.getBoolean(QMConstants.PROP_STORE_HISTORY);
+        if (storeHistory && !enabled) {
+            try {
+                openStore();
+                enabled = true;
+            } catch (IOException e) {
+                log.error("Can't open query history in '" + historyFolder.getAbsolutePath() + "'", e);
+                closeStore();
+            }
+        } else if (!storeHistory && enabled) {
+            closeStore();
+        }
+        if (enabled) {
+            purgeOldSegments();
+        }
+    }
+
+    private void openStore() throws IOException
+    {
+        if (!historyFolder.exists() && !historyFolder.mkdirs()) {
+            throw new IOException("Can't create query history folder");
+        }
+        File[] files = historyFolder.listFiles((dir, name) ->
+            name.startsWith(SEGMENT_FILE_PREFIX) && name.endsWith(QMHistorySegment.DATA_FILE_EXT));
+        segments.clear();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                long firstTime = CommonUtils.toLong(
+                    name.substring(SEGMENT_FILE_PREFIX.length(), name.length() - QMHistorySegment.DATA_FILE_EXT.length()), -1);
+                if (firstTime < 0) {
+                    log.debug("Skip bad query history file '" + name + "'");
+                    continue;
+                }
+                segments.add(new QMHistorySegment(file, firstTime));
+            }
+        }
+        segments.sort((o1, o2) -> Long.compare(o1.getFirstTime(), o2.getFirstTime()));
+        for (int i = 0; i < segments.size(); i++) {
+            QMHistorySegment segment = segments.get(i);
+            if (!segment.isSealed()) {
+                // Rebuild index. The last segment remains active, others (left after crash) are sealed.
+                segment.openActive();
+                if (i < segments.size() - 1) {
+                    segment.seal();
+                } else {
+                    openActiveSegment(segment);
+                }
+            }
+        }
+    }
+
+    private void openActiveSegment(QMHistorySegment segment) throws IOException
+    {
+        activeSegment = segment;
+        activeOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(segment.getDataFile(), true), 64 * 1024));
+    }
+
+    private void closeStore()
+    {
+        if (activeOutput != null) {
+            ContentUtils.close(activeOutput);
+            activeOutput = null;
+        }
+        activeSegment = null;
+        segments.clear();
+        enabled = false;
+    }
+
+    private void createSegment() throws IOException
+    {
+        if (activeSegment != null) {
+            ContentUtils.close(activeOutput);
+            activeOutput = null;
+            activeSegment.seal();
+            activeSegment = null;
+        }
+        long firstTime = System.currentTimeMillis();
+        File file;
+        while ((file = new File(historyFolder, SEGMENT_FILE_PREFIX + firstTime + QMHistorySegment.DATA_FILE_EXT)).exists()) {
+            firstTime++;
+        }
+        QMHistorySegment segment = new QMHistorySegment(file, firstTime);
+        segment.openActive();
+        segments.add(segment);
+        openActiveSegment(segment);
+        purgeOldSegments();
+    }
+
+    private void purgeOldSegments()
+    {
+        int historyDays = preferenceStore.getInt(QMConstants.PROP_HISTORY_DAYS);
+        if (historyDays <= 0) {
+            return;
+        }
+        long minTime = System.currentTimeMillis() - historyDays * 24L * 60 * 60 * 1000;
+        // Segment contains events older than next segment's first time
+        while (segments.size() > 1 && segments.get(1).getFirstTime() < minTime) {
+            QMHistorySegment segment = segments.remove(0);
+            log.debug("Delete old query history segment '" + segment.getDataFile().getName() + "'");
+            segment.delete();
+        }
+    }
+
+    @Override
+    public void metaInfoChanged(DBRProgressMonitor monitor, @NotNull List<QMMetaEvent> events)
+    {
+        if (!enabled) {
+            return;
+        }
+        // Fresh events come first. Store them in chronological order.
+        List<QMHistorySegment.Record> records = new ArrayList<>(events.size());
+        for (int i = events.size() - 1; i >= 0; i--) {
+            QMHistorySegment.Record record = QMHistorySegment.Record.fromEvent(events.get(i));
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        if (!writeQueue.offer(records)) {
+            // Do not block events dispatcher
+            droppedEvents.addAndGet(records.size());
+        }
+        writerJob.schedule();
+    }
+
+    private synchronized void writeRecords(List<QMHistorySegment.Record> records)
+    {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (QMHistorySegment.Record record : records) {
+                if (activeSegment == null ||
+                    activeSegment.getDataLength() >= maxSegmentSize ||
+                    activeSegment.getRecordCount() >= maxSegmentRecords)
+                {
+                    createSegment();
+                }
+                activeSegment.append(activeOutput, record);
+            }
+            if (activeOutput != null) {
+                activeOutput.flush();
+            }
+        } catch (IOException e) {
+            log.warn("IO error writing query history. Disable history store", e);
+            closeStore();
+        }
+    }
+
+    @Override
+    public void preferenceChange(PreferenceChangeEvent event)
+    {
+        if (event.getProperty().startsWith(QMConstants.PROP_PREFIX)) {
+            initStore();
+        }
+    }
+
+    @Override
+    public synchronized QMEventCursor getQueryHistoryCursor(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull QMEventCriteria criteria,
+        @Nullable QMEventFilter filter)
+        throws DBException
+    {
+        if (!enabled) {
+            return new QMUtils.EmptyCursorImpl();
+        }
+        List<QMHistorySegment> cursorSegments = new ArrayList<>(segments);
+        Collections.reverse(cursorSegments);
+        return new HistoryCursor(cursorSegments, criteria, filter);
+    }
+
+    private synchronized long[] findRecords(QMHistorySegment segment, QMEventCriteria criteria) throws IOException
+    {
+        // Active segment index is modified under store lock. All its records are flushed at this moment.
+        return segment.findRecords(criteria);
+    }
+
+    /**
+     * Writes queued records. Runs until queue is empty, rescheduled on new events.
+     */
+    private class HistoryWriterJob extends AbstractJob {
+
+        HistoryWriterJob()
+        {
+            super("Query history writer");
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor)
+        {
+            final List<List<QMHistorySegment.Record>> chunks = new ArrayList<>();
+            for (;;) {
+                writeQueue.drainTo(chunks);
+                if (chunks.isEmpty()) {
+                    return Status.OK_STATUS;
+                }
+                long dropped = droppedEvents.getAndSet(0);
+                if (dropped > 0) {
+                    log.debug(dropped + " query history event(s) were dropped because history writer can't keep up");
+                }
+                List<QMHistorySegment.Record> records = new ArrayList<>();
+                for (List<QMHistorySegment.Record> chunk : chunks) {
+                    records.addAll(chunk);
+                }
+                chunks.clear();
+                writeRecords(records);
+            }
+        }
+    }
+
+    /**
+     * Lazy history cursor. Segments are searched one by one, newest first.
+     */
+    private class HistoryCursor implements QMEventCursor {
+
+        private final List<QMHistorySegment> segments;
+        private final QMEventCriteria criteria;
+        private final QMEventFilter filter;
+        private final String searchString;
+
+        private int segmentIndex;
+        private long[] records;
+        private int recordIndex;
+        private RandomAccessFile segmentFile;
+        private QMMetaEvent nextEvent;
+        private long totalSize = -1;
+
+        HistoryCursor(List<QMHistorySegment> segments, QMEventCriteria criteria, QMEventFilter filter)
+        {
+            this.segments = segments;
+            this.criteria = criteria;
+            this.filter = filter;
+            this.searchString = CommonUtils.isEmpty(criteria.getSearchString()) ? null : criteria.getSearchString().toLowerCase();
+            this.segmentIndex = -1;
+        }
+
+        /**
+         * Returns number of events matching index criteria. Search string and filter are not checked here
+         * so actual number of events may be less.
+         */
+        @Override
+        public long getTotalSize()
+        {
+            if (totalSize < 0) {
+                long size = 0;
+                for (QMHistorySegment segment : segments) {
+                    try {
+                        size += findRecords(segment, criteria).length;
+                    } catch (IOException e) {
+                        log.debug("Error reading query history index", e);
+                    }
+                }
+                totalSize = size;
+            }
+            return totalSize;
+        }
+
+        @Override
+        public void scroll(int position, DBRProgressMonitor monitor) throws DBException
+        {
+            closeSegmentFile();
+            segmentIndex = -1;
+            records = null;
+            nextEvent = null;
+            for (int i = 0; i < position; i++) {
+                if (!hasNextEvent(monitor)) {
+                    throw new DBException("Position is out of range (" + position + ")");
+                }
+                nextEvent(monitor);
+            }
+        }
+
+        @Override
+        public boolean hasNextEvent(DBRProgressMonitor monitor) throws DBException
+        {
+            if (nextEvent == null) {
+                try {
+                    nextEvent = fetchNextEvent(monitor);
+                } catch (IOException e) {
+                    throw new DBException("Error reading query history", e);
+                }
+            }
+            return nextEvent != null;
+        }
+
+        @Override
+        public QMMetaEvent nextEvent(DBRProgressMonitor monitor) throws DBException
+        {
+            if (!hasNextEvent(monitor)) {
+                throw new DBException("No more events in query history");
+            }
+            QMMetaEvent event = nextEvent;
+            nextEvent = null;
+            return event;
+        }
+
+        @Override
+        public void close()
+        {
+            closeSegmentFile();
+        }
+
+        @Nullable
+        private QMMetaEvent fetchNextEvent(DBRProgressMonitor monitor) throws IOException
+        {
+            for (;;) {
+                if (monitor.isCanceled()) {
+                    return null;
+                }
+                if (records == null || recordIndex >= records.length) {
+                    closeSegmentFile();
+                    segmentIndex++;
+                    if (segmentIndex >= segments.size()) {
+                        records = null;
+                        return null;
+                    }
+                    QMHistorySegment segment = segments.get(segmentIndex);
+                    if (!segment.getDataFile().exists()) {
+                        // Purged
+                        records = null;
+                        continue;
+                    }
+                    records = findRecords(segment, criteria);
+                    recordIndex = 0;
+                    continue;
+                }
+                if (segmentFile == null) {
+                    segmentFile = new RandomAccessFile(segments.get(segmentIndex).getDataFile(), "r");
+                }
+                QMHistorySegment.Record record = QMHistorySegment.readRecord(segmentFile, records[recordIndex++]);
+                if (searchString != null) {
+                    String text = record.getText();
+                    if (text == null || !text.toLowerCase().contains(searchString)) {
+                        continue;
+                    }
+                }
+                QMMetaEvent event = record.toEvent();
+                if (filter != null && !filter.accept(event)) {
+                    continue;
+                }
+                return event;
+            }
+        }
+
+        private void closeSegmentFile()
+        {
+            if (segmentFile != null) {
+                ContentUtils.close(segmentFile);
+                segmentFile = null;
+            }
+        }
+    }
+
+}
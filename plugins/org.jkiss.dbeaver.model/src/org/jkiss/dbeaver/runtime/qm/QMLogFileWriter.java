@@ -17,42 +17,60 @@
 package org.jkiss.dbeaver.runtime.qm;
 
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBConstants;
+import org.jkiss.dbeaver.model.data.json.JSONUtils;
 import org.jkiss.dbeaver.model.preferences.DBPPreferenceListener;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.qm.QMConstants;
 import org.jkiss.dbeaver.model.qm.QMEventFilter;
 import org.jkiss.dbeaver.model.qm.QMMetaEvent;
 import org.jkiss.dbeaver.model.qm.QMMetaListener;
 import org.jkiss.dbeaver.model.qm.meta.*;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.utils.ContentUtils;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.Writer;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * Query manager log writer
+ * Query manager log writer.
+ * Events are formatted in the QM dispatcher thread and put in a bounded queue. Separate job writes
+ * all queued chunks at once (group commit), rotates log files by date and size and compresses rotated files.
+ * If writer can't keep up and queue is full then events are dropped (and this is reported in the log).
  */
 public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
 
     private static final Log log = Log.getLog(QMLogFileWriter.class);
 
-    private File logFile;
-    private boolean enabled;
+    private static final String LOG_FILE_PREFIX = "dbeaver_sql_";
+    private static final int QUEUE_CAPACITY = 1024;
 
-    private Writer logWriter;
-    private QMEventFilter eventFilter;
+    private volatile LogSettings settings;
+    private volatile QMEventFilter eventFilter;
     private final String lineSeparator;
 
+    private final BlockingQueue<String> writeQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final LogWriterJob writerJob = new LogWriterJob();
+
     public QMLogFileWriter()
     {
         lineSeparator = GeneralUtils.getDefaultLineSeparator();
@@ -63,57 +81,73 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
     public void dispose()
     {
         ModelPreferences.getPreferences().removePropertyChangeListener(this);
+        settings = null;
+        // Flush queued events and close the log file
+        writerJob.schedule();
+        try {
+            writerJob.join();
+        } catch (InterruptedException e) {
+            // ignore
+        }
     }
 
     private synchronized void initLogFile()
     {
-        enabled = ModelPreferences.getPreferences().getBoolean(QMConstants.PROP_STORE_LOG_FILE);
-        if (enabled) {
-            String logFolderPath = ModelPreferences.getPreferences().getString(QMConstants.PROP_LOG_DIRECTORY);
+        DBPPreferenceStore preferences = ModelPreferences.getPreferences();
+        if (preferences.getBoolean(QMConstants.PROP_STORE_LOG_FILE)) {
+            String logFolderPath = preferences.getString(QMConstants.PROP_LOG_DIRECTORY);
             File logFolder = new File(logFolderPath);
             if (!logFolder.exists()) {
                 if (!logFolder.mkdirs()) {
                     log.error("Can't create log folder '" + logFolderPath + "'");
                 }
             }
-            String logFileName = "dbeaver_sql_" + RuntimeUtils.getCurrentDate() + ".log";
-            logFile = new File(logFolder, logFileName);
-            try {
-                logWriter = new FileWriter(logFile, true);
-            } catch (IOException e) {
-                log.error("Can't open log writer", e);
-            }
+            settings = new LogSettings(
+                logFolder,
+                QMConstants.LOG_FORMAT_JSON.equals(preferences.getString(QMConstants.PROP_LOG_FORMAT)),
+                preferences.getInt(QMConstants.PROP_LOG_MAX_SIZE) * 1024L * 1024L,
+                preferences.getBoolean(QMConstants.PROP_LOG_COMPRESS));
         } else {
-            if (logWriter != null) {
-                ContentUtils.close(logWriter);
-                logWriter = null;
-            }
+            settings = null;
         }
         eventFilter = new DefaultEventFilter();
+        // Writer will reopen (or close) the log file
+        writerJob.schedule();
     }
 
     @Override
-    public synchronized void metaInfoChanged(DBRProgressMonitor monitor, @NotNull List<QMMetaEvent> events)
+    public void metaInfoChanged(DBRProgressMonitor monitor, @NotNull List<QMMetaEvent> events)
     {
-        if (!enabled || logWriter == null) {
+        final LogSettings logSettings = settings;
+        if (logSettings == null) {
             return;
         }
 
         StringBuilder logBuffer = new StringBuilder(4000);
-        for (QMMetaEvent event : events) {
+        int formattedEvents = 0;
+        // Fresh events come first. Write them in chronological order.
+        for (int i = events.size() - 1; i >= 0; i--) {
+            QMMetaEvent event = events.get(i);
             if (eventFilter.accept(event)) {
-                writeEvent(logBuffer, event);
+                int prevLength = logBuffer.length();
+                if (logSettings.json) {
+                    writeEventJSON(logBuffer, event);
+                } else {
+                    writeEvent(logBuffer, event);
+                }
+                if (logBuffer.length() > prevLength) {
+                    formattedEvents++;
+                }
             }
         }
-
-        try {
-            logWriter.write(logBuffer.toString());
-            logWriter.flush();
-        } catch (IOException e) {
-            log.warn("IO error writing QM log. Disable log file writer", e);
-            ContentUtils.close(logWriter);
-            logWriter = null;
+        if (logBuffer.length() == 0) {
+            return;
+        }
+        if (!writeQueue.offer(logBuffer.toString())) {
+            // Do not block events dispatcher
+            droppedEvents.addAndGet(formattedEvents);
         }
+        writerJob.schedule();
     }
 
     @Override
@@ -171,6 +205,56 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
         buffer.append(lineSeparator);
     }
 
+    private void writeEventJSON(StringBuilder buffer, QMMetaEvent event)
+    {
+        QMMObject object = event.getObject();
+        QMMetaEvent.Action action = event.getAction();
+        if (object instanceof QMMStatementInfo || object instanceof QMMTransactionSavepointInfo ||
+            (object instanceof QMMStatementExecuteInfo && action != QMMetaEvent.Action.END)) {
+            return;
+        }
+        buffer.append("{\"time\":\"");
+        appendDate(buffer, object.getOpenTime());
+        buffer.append("\",\"id\":").append(object.getObjectId());
+        QMMSessionInfo session = null;
+        if (object instanceof QMMStatementExecuteInfo) {
+            QMMStatementExecuteInfo executeInfo = (QMMStatementExecuteInfo) object;
+            session = executeInfo.getStatement().getSession();
+            buffer.append(",\"type\":\"query\"");
+            appendJSONString(buffer, "purpose", String.valueOf(executeInfo.getStatement().getPurpose()));
+            appendJSONString(buffer, "sql", executeInfo.getQueryString());
+            buffer.append(",\"duration\":").append(Math.max(0, object.getCloseTime() - object.getOpenTime()));
+            buffer.append(",\"rows\":").append(executeInfo.getRowCount());
+            if (executeInfo.hasError()) {
+                buffer.append(",\"errorCode\":").append(executeInfo.getErrorCode());
+                appendJSONString(buffer, "error", executeInfo.getErrorMessage());
+            }
+        } else if (object instanceof QMMTransactionInfo) {
+            QMMTransactionInfo transactionInfo = (QMMTransactionInfo) object;
+            session = transactionInfo.getSession();
+            buffer.append(",\"type\":\"").append(transactionInfo.isCommitted() ? "commit" : "rollback").append("\"");
+        } else if (object instanceof QMMSessionInfo) {
+            session = (QMMSessionInfo) object;
+            buffer.append(",\"type\":\"session\"");
+            appendJSONString(buffer, "action", action.name());
+        }
+        if (session != null) {
+            appendJSONString(buffer, "container", session.getContainerName());
+            appendJSONString(buffer, "context", session.getContextName());
+        }
+        buffer.append("}").append('\n');
+    }
+
+    private static void appendJSONString(StringBuilder buffer, String name, String value)
+    {
+        buffer.append(",\"").append(name).append("\":");
+        if (value == null) {
+            buffer.append("null");
+        } else {
+            buffer.append('"').append(JSONUtils.escapeJsonString(value)).append('"');
+        }
+    }
+
     private void appendEntryInfo(StringBuilder buffer, int severity, long code, long time)
     {
         buffer.append(DBConstants.MODEL_BUNDLE_ID).append(" ").append(severity).append(" ").append(code).append(" ");
@@ -205,4 +289,172 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
         return buffer;
     }
 
+    private static class LogSettings {
+        final File folder;
+        final boolean json;
+        final long maxFileSize;
+        final boolean compress;
+
+        LogSettings(File folder, boolean json, long maxFileSize, boolean compress)
+        {
+            this.folder = folder;
+            this.json = json;
+            this.maxFileSize = maxFileSize;
+            this.compress = compress;
+        }
+    }
+
+    /**
+     * Writes queued log chunks. Runs until queue is empty, rescheduled on new events.
+     */
+    private class LogWriterJob extends AbstractJob {
+
+        private LogSettings fileSettings;
+        private String fileDate;
+        private File logFile;
+        private FileChannel logChannel;
+
+        LogWriterJob()
+        {
+            super("QM log writer");
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor)
+        {
+            final List<String> chunks = new ArrayList<>();
+            for (;;) {
+                writeQueue.drainTo(chunks);
+                final LogSettings logSettings = settings;
+                if (logSettings != fileSettings) {
+                    if (fileSettings != null) {
+                        // Settings were changed (or writer is disposed). Flush what was queued before.
+                        if (!chunks.isEmpty()) {
+                            try {
+                                writeChunks(fileSettings, chunks);
+                            } catch (IOException e) {
+                                log.debug("Error writing QM log", e);
+                            }
+                            chunks.clear();
+                        }
+                        closeLogFile(false);
+                    }
+                    fileSettings = logSettings;
+                }
+                if (logSettings == null) {
+                    writeQueue.clear();
+                    return Status.OK_STATUS;
+                }
+                if (chunks.isEmpty()) {
+                    return Status.OK_STATUS;
+                }
+                long dropped = droppedEvents.getAndSet(0);
+                if (dropped > 0) {
+                    chunks.add(0, logSettings.json ?
+                        "{\"type\":\"dropped\",\"events\":" + dropped + "}\n" :
+                        "!MESSAGE " + dropped + " event(s) were dropped because log writer can't keep up" + lineSeparator + lineSeparator);
+                }
+                try {
+                    writeChunks(logSettings, chunks);
+                } catch (IOException e) {
+                    log.warn("IO error writing QM log. Disable log file writer", e);
+                    closeLogFile(false);
+                    settings = null;
+                    writeQueue.clear();
+                    return Status.OK_STATUS;
+                }
+                chunks.clear();
+            }
+        }
+
+        private void writeChunks(LogSettings logSettings, List<String> chunks) throws IOException
+        {
+            int totalLength = 0;
+            for (String chunk : chunks) {
+                totalLength += chunk.length();
+            }
+            StringBuilder text = new StringBuilder(totalLength);
+            for (String chunk : chunks) {
+                text.append(chunk);
+            }
+            ByteBuffer data = StandardCharsets.UTF_8.encode(text.toString());
+
+            String currentDate = RuntimeUtils.getCurrentDate();
+            if (logChannel != null) {
+                if (!currentDate.equals(fileDate)) {
+                    closeLogFile(true);
+                } else if (logSettings.maxFileSize > 0 && logChannel.size() > 0 && logChannel.size() + data.remaining() > logSettings.maxFileSize) {
+                    closeLogFile(true);
+                }
+            }
+            if (logChannel == null) {
+                fileDate = currentDate;
+                logFile = new File(logSettings.folder, LOG_FILE_PREFIX + currentDate + (logSettings.json ? ".jsonl" : ".log"));
+                logChannel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                if (logSettings.maxFileSize > 0 && logChannel.size() > 0 && logChannel.size() + data.remaining() > logSettings.maxFileSize) {
+                    // Log file of previous run is full
+                    closeLogFile(true);
+                    logChannel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+            }
+            while (data.hasRemaining()) {
+                logChannel.write(data);
+            }
+        }
+
+        private void closeLogFile(boolean rotate)
+        {
+            if (logChannel == null) {
+                return;
+            }
+            ContentUtils.close(logChannel);
+            logChannel = null;
+            if (rotate) {
+                rotateLogFile(logFile, fileSettings != null && fileSettings.compress);
+            }
+        }
+
+        /**
+         * Renames log file to the next free numbered name and compresses it (optionally)
+         */
+        private void rotateLogFile(File file, boolean compress)
+        {
+            String fileName = file.getName();
+            int extPos = fileName.lastIndexOf('.');
+            String baseName = fileName.substring(0, extPos);
+            String ext = fileName.substring(extPos);
+            File rolledFile;
+            for (int index = 1; ; index++) {
+                rolledFile = new File(file.getParentFile(), baseName + "_" + index + ext);
+                if (!rolledFile.exists() && !new File(rolledFile.getPath() + ".gz").exists()) {
+                    break;
+                }
+            }
+            if (!file.renameTo(rolledFile)) {
+                log.debug("Can't rename QM log file '" + file.getAbsolutePath() + "'");
+                return;
+            }
+            if (!compress) {
+                return;
+            }
+            File gzFile = new File(rolledFile.getPath() + ".gz");
+            try (InputStream in = new FileInputStream(rolledFile);
+                 OutputStream out = new GZIPOutputStream(new FileOutputStream(gzFile)))
+            {
+                ContentUtils.copyStreams(in, rolledFile.length(), out, new VoidProgressMonitor());
+            } catch (IOException e) {
+                log.debug("Error compressing QM log file '" + rolledFile.getAbsolutePath() + "'", e);
+                if (!gzFile.delete()) {
+                    gzFile.deleteOnExit();
+                }
+                return;
+            }
+            if (!rolledFile.delete()) {
+                log.debug("Can't delete QM log file '" + rolledFile.getAbsolutePath() + "'");
+            }
+        }
+    }
+
 }
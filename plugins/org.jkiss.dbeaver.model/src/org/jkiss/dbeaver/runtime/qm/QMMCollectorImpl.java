@@ -30,11 +30,15 @@ import org.jkiss.dbeaver.model.qm.QMMetaListener;
 import org.jkiss.dbeaver.model.qm.meta.*;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
-import org.jkiss.utils.LongKeyMap;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Query manager execution handler implementation
@@ -45,25 +49,31 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
 
     private static final long EVENT_DISPATCH_PERIOD = 250;
     private static final int MAX_HISTORY_EVENTS = 10000;
+    private static final int EVENT_RING_CAPACITY = 1 << 16;
+    private static final long EVENT_RING_WAIT_NANOS = 1000000;
 
     // Session map
-    private LongKeyMap<QMMSessionInfo> sessionMap = new LongKeyMap<>();
-    private List<Long> closedSessions = new ArrayList<>();
+    private final Map<Long, QMMSessionInfo> sessionMap = new ConcurrentHashMap<>();
+    private final Queue<Long> closedSessions = new ConcurrentLinkedQueue<>();
 
     // External listeners
     private final List<QMMetaListener> listeners = new ArrayList<>();
 
-    // Temporary event pool
-    private List<QMMetaEvent> eventPool = new ArrayList<>();
+    // Events which are not dispatched yet. Filled by execution threads, drained by the event dispatcher.
+    private final QMEventRing eventRing = new QMEventRing(EVENT_RING_CAPACITY);
     // Sync object
     private final Object historySync = new Object();
-    // History (may be purged when limit reached)
-    private List<QMMetaEvent> pastEvents = new ArrayList<>();
-    private boolean running = true;
+    // History ring (oldest events are overwritten when limit reached)
+    private final QMMetaEvent[] pastEvents = new QMMetaEvent[MAX_HISTORY_EVENTS];
+    private int pastEventsStart;
+    private int pastEventsCount;
+    private final EventDispatcher eventDispatcher;
+    private volatile boolean running = true;
 
     public QMMCollectorImpl()
     {
-        new EventDispatcher().schedule(EVENT_DISPATCH_PERIOD);
+        eventDispatcher = new EventDispatcher();
+        eventDispatcher.schedule(EVENT_DISPATCH_PERIOD);
     }
 
     public synchronized void dispose()
@@ -129,19 +139,17 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         }
     }
 
-    private synchronized void fireMetaEvent(final QMMObject object, final QMMetaEvent.Action action)
+    private void fireMetaEvent(final QMMObject object, final QMMetaEvent.Action action)
     {
-        eventPool.add(new QMMetaEvent(object, action));
-    }
-
-    private synchronized List<QMMetaEvent> obtainEvents()
-    {
-        if (eventPool.isEmpty()) {
-            return Collections.emptyList();
+        final QMMetaEvent event = new QMMetaEvent(object, action);
+        while (!eventRing.offer(event)) {
+            // Ring is full. Wake up dispatcher and wait until it frees some space.
+            if (!isRunning()) {
+                return;
+            }
+            eventDispatcher.wakeUp();
+            LockSupport.parkNanos(EVENT_RING_WAIT_NANOS);
         }
-        List<QMMetaEvent> events = eventPool;
-        eventPool = new ArrayList<>();
-        return events;
     }
 
     public QMMSessionInfo getSessionInfo(DBCExecutionContext context)
@@ -156,7 +164,27 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     public List<QMMetaEvent> getPastEvents()
     {
         synchronized (historySync) {
-            return new ArrayList<>(pastEvents);
+            List<QMMetaEvent> events = new ArrayList<>(pastEventsCount);
+            for (int i = 0; i < pastEventsCount; i++) {
+                events.add(pastEvents[(pastEventsStart + i) % MAX_HISTORY_EVENTS]);
+            }
+            return events;
+        }
+    }
+
+    private void addPastEvents(List<QMMetaEvent> events)
+    {
+        synchronized (historySync) {
+            for (QMMetaEvent event : events) {
+                if (pastEventsCount < MAX_HISTORY_EVENTS) {
+                    pastEvents[(pastEventsStart + pastEventsCount) % MAX_HISTORY_EVENTS] = event;
+                    pastEventsCount++;
+                } else {
+                    // Overwrite the oldest event
+                    pastEvents[pastEventsStart] = event;
+                    pastEventsStart = (pastEventsStart + 1) % MAX_HISTORY_EVENTS;
+                }
+            }
         }
     }
 
@@ -173,7 +201,9 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         } else {
             // This session may already be in cache in case of reconnect/invalidate
             // (when context closed and reopened without new context object creation)
-            session.reopen();
+            synchronized (session) {
+                session.reopen();
+            }
         }
 
         // Remove from closed sessions (in case of re-opened connection)
@@ -187,117 +217,137 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
     {
         QMMSessionInfo session = getSessionInfo(context);
         if (session != null) {
-            session.close();
-            fireMetaEvent(session, QMMetaEvent.Action.END);
+            synchronized (session) {
+                session.close();
+                fireMetaEvent(session, QMMetaEvent.Action.END);
+            }
         }
         closedSessions.add(context.getContextId());
     }
 
     @Override
-    public synchronized void handleTransactionAutocommit(@NotNull DBCExecutionContext context, boolean autoCommit)
+    public void handleTransactionAutocommit(@NotNull DBCExecutionContext context, boolean autoCommit)
     {
         QMMSessionInfo sessionInfo = getSessionInfo(context);
         if (sessionInfo != null) {
-            QMMTransactionInfo oldTxn = sessionInfo.changeTransactional(!autoCommit);
-            if (oldTxn != null) {
-                fireMetaEvent(oldTxn, QMMetaEvent.Action.END);
+            synchronized (sessionInfo) {
+                QMMTransactionInfo oldTxn = sessionInfo.changeTransactional(!autoCommit);
+                if (oldTxn != null) {
+                    fireMetaEvent(oldTxn, QMMetaEvent.Action.END);
+                }
+                fireMetaEvent(sessionInfo, QMMetaEvent.Action.UPDATE);
             }
-            fireMetaEvent(sessionInfo, QMMetaEvent.Action.UPDATE);
         }
     }
 
     @Override
-    public synchronized void handleTransactionCommit(@NotNull DBCExecutionContext context)
+    public void handleTransactionCommit(@NotNull DBCExecutionContext context)
     {
         QMMSessionInfo sessionInfo = getSessionInfo(context);
         if (sessionInfo != null) {
-            QMMTransactionInfo oldTxn = sessionInfo.commit();
-            if (oldTxn != null) {
-                fireMetaEvent(oldTxn, QMMetaEvent.Action.END);
+            synchronized (sessionInfo) {
+                QMMTransactionInfo oldTxn = sessionInfo.commit();
+                if (oldTxn != null) {
+                    fireMetaEvent(oldTxn, QMMetaEvent.Action.END);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleTransactionRollback(@NotNull DBCExecutionContext context, DBCSavepoint savepoint)
+    public void handleTransactionRollback(@NotNull DBCExecutionContext context, DBCSavepoint savepoint)
     {
         QMMSessionInfo sessionInfo = getSessionInfo(context);
         if (sessionInfo != null) {
-            QMMObject oldTxn = sessionInfo.rollback(savepoint);
-            if (oldTxn != null) {
-                fireMetaEvent(oldTxn, QMMetaEvent.Action.END);
+            synchronized (sessionInfo) {
+                QMMObject oldTxn = sessionInfo.rollback(savepoint);
+                if (oldTxn != null) {
+                    fireMetaEvent(oldTxn, QMMetaEvent.Action.END);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleStatementOpen(@NotNull DBCStatement statement)
+    public void handleStatementOpen(@NotNull DBCStatement statement)
     {
         QMMSessionInfo session = getSessionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementInfo stat = session.openStatement(statement);
-            fireMetaEvent(stat, QMMetaEvent.Action.BEGIN);
+            synchronized (session) {
+                QMMStatementInfo stat = session.openStatement(statement);
+                fireMetaEvent(stat, QMMetaEvent.Action.BEGIN);
+            }
         }
     }
 
     @Override
-    public synchronized void handleStatementClose(@NotNull DBCStatement statement, long rows)
+    public void handleStatementClose(@NotNull DBCStatement statement, long rows)
     {
         QMMSessionInfo session = getSessionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementInfo stat = session.closeStatement(statement, rows);
-            if (stat == null) {
-                log.warn("Can't properly handle statement close");
-            } else {
-                fireMetaEvent(stat, QMMetaEvent.Action.END);
+            synchronized (session) {
+                QMMStatementInfo stat = session.closeStatement(statement, rows);
+                if (stat == null) {
+                    log.warn("Can't properly handle statement close");
+                } else {
+                    fireMetaEvent(stat, QMMetaEvent.Action.END);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleStatementExecuteBegin(@NotNull DBCStatement statement)
+    public void handleStatementExecuteBegin(@NotNull DBCStatement statement)
     {
         QMMSessionInfo session = getSessionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.beginExecution(statement);
-            if (exec != null) {
-                fireMetaEvent(exec, QMMetaEvent.Action.BEGIN);
+            synchronized (session) {
+                QMMStatementExecuteInfo exec = session.beginExecution(statement);
+                if (exec != null) {
+                    fireMetaEvent(exec, QMMetaEvent.Action.BEGIN);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleStatementExecuteEnd(@NotNull DBCStatement statement, long rows, Throwable error)
+    public void handleStatementExecuteEnd(@NotNull DBCStatement statement, long rows, Throwable error)
     {
         QMMSessionInfo session = getSessionInfo(statement.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.endExecution(statement, rows, error);
-            if (exec != null) {
-                fireMetaEvent(exec, QMMetaEvent.Action.END);
+            synchronized (session) {
+                QMMStatementExecuteInfo exec = session.endExecution(statement, rows, error);
+                if (exec != null) {
+                    fireMetaEvent(exec, QMMetaEvent.Action.END);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleResultSetOpen(@NotNull DBCResultSet resultSet)
+    public void handleResultSetOpen(@NotNull DBCResultSet resultSet)
     {
         QMMSessionInfo session = getSessionInfo(resultSet.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.beginFetch(resultSet);
-            if (exec != null) {
-                fireMetaEvent(exec, QMMetaEvent.Action.UPDATE);
+            synchronized (session) {
+                QMMStatementExecuteInfo exec = session.beginFetch(resultSet);
+                if (exec != null) {
+                    fireMetaEvent(exec, QMMetaEvent.Action.UPDATE);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleResultSetClose(@NotNull DBCResultSet resultSet, long rowCount)
+    public void handleResultSetClose(@NotNull DBCResultSet resultSet, long rowCount)
     {
         QMMSessionInfo session = getSessionInfo(resultSet.getSession().getExecutionContext());
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.endFetch(resultSet, rowCount);
-            if (exec != null) {
-                fireMetaEvent(exec, QMMetaEvent.Action.UPDATE);
+            synchronized (session) {
+                QMMStatementExecuteInfo exec = session.endFetch(resultSet, rowCount);
+                if (exec != null) {
+                    fireMetaEvent(exec, QMMetaEvent.Action.UPDATE);
+                }
             }
         }
     }
@@ -314,43 +364,38 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         @Override
         protected IStatus run(DBRProgressMonitor monitor)
         {
-            final List<QMMetaEvent> events;
-            List<Long> sessionsToClose;
-            synchronized (QMMCollectorImpl.this) {
-                events = obtainEvents();
-                sessionsToClose = closedSessions;
-                closedSessions.clear();
+            final List<QMMetaEvent> events = new ArrayList<>();
+            eventRing.drainTo(events);
+            final List<Long> sessionsToClose = new ArrayList<>();
+            for (Long sessionId = closedSessions.poll(); sessionId != null; sessionId = closedSessions.poll()) {
+                sessionsToClose.add(sessionId);
             }
-            final List<QMMetaListener> listeners = getListeners();
-            if (!listeners.isEmpty() && !events.isEmpty()) {
-                // Reverse collection. Fresh events must come first.
-                Collections.reverse(events);
-                // Dispatch all events
-                for (QMMetaListener listener : listeners) {
-                    try {
-                        listener.metaInfoChanged(monitor, events);
-                    } catch (Throwable e) {
-                        log.error("Error notifying event listener", e);
+            if (!events.isEmpty()) {
+                addPastEvents(events);
+                final List<QMMetaListener> listeners = getListeners();
+                if (!listeners.isEmpty()) {
+                    // Reverse collection. Fresh events must come first.
+                    Collections.reverse(events);
+                    // Dispatch all events
+                    for (QMMetaListener listener : listeners) {
+                        try {
+                            listener.metaInfoChanged(monitor, events);
+                        } catch (Throwable e) {
+                            log.error("Error notifying event listener", e);
+                        }
                     }
                 }
             }
-            synchronized (historySync) {
-                pastEvents.addAll(events);
-                int size = pastEvents.size();
-                if (size > MAX_HISTORY_EVENTS) {
-                    pastEvents = new ArrayList<>(pastEvents.subList(
-                        size - MAX_HISTORY_EVENTS,
-                        size));
-                }
-            }
             // Cleanup closed sessions
-            synchronized (QMMCollectorImpl.this) {
-                for (Long sessionId : sessionsToClose) {
-                    final QMMSessionInfo session = sessionMap.get(sessionId);
-                    if (session != null && !session.isClosed()) {
-                        // It is possible (rarely) that session was reopened before event dispatcher run
-                        // In that case just ignore it
-                        sessionMap.remove(sessionId);
+            if (!sessionsToClose.isEmpty()) {
+                synchronized (QMMCollectorImpl.this) {
+                    for (Long sessionId : sessionsToClose) {
+                        final QMMSessionInfo session = sessionMap.get(sessionId);
+                        if (session != null && session.isClosed()) {
+                            // It is possible (rarely) that session was reopened before event dispatcher run
+                            // In that case just ignore it
+                            sessionMap.remove(sessionId);
+                        }
                     }
                 }
             }
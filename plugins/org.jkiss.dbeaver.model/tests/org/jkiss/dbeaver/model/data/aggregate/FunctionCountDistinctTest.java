@@ -0,0 +1,45 @@
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FunctionCountDistinctTest {
+
+    @Test
+    public void testBigLongs() {
+        // 2^53 + 1 has no exact double representation
+        FunctionCountDistinct func = new FunctionCountDistinct();
+        assertTrue(func.accumulateLong(1L << 53));
+        assertTrue(func.accumulateLong((1L << 53) + 1));
+        assertTrue(func.accumulateLong(Long.MAX_VALUE));
+        assertTrue(func.accumulateLong(Long.MAX_VALUE - 1));
+        assertFalse(func.accumulateLong((1L << 53) + 1));
+        assertEquals(4, func.getResult(5));
+    }
+
+    @Test
+    public void testLongsAndDoubles() {
+        FunctionCountDistinct func = new FunctionCountDistinct();
+        assertTrue(func.accumulateLong(1));
+        assertFalse(func.accumulateNumber(1.0));
+        assertTrue(func.accumulateNumber(0.0));
+        assertFalse(func.accumulateNumber(-0.0));
+        assertFalse(func.accumulateLong(0));
+        assertTrue(func.accumulateNumber(Math.pow(2, 60)));
+        assertFalse(func.accumulateLong(1L << 60));
+        assertEquals(3, func.getResult(7));
+    }
+
+    @Test
+    public void testEstimateWithBigLongs() {
+        FunctionCountDistinct func = new FunctionCountDistinct();
+        int count = AggregateUtils.MAX_EXACT_VALUES * 2;
+        for (int i = 0; i < count; i++) {
+            func.accumulateLong((1L << 60) + i);
+        }
+        long estimate = ((Number) func.getResult(count)).longValue();
+        assertEquals(count, estimate, count * 0.05);
+    }
+
+}
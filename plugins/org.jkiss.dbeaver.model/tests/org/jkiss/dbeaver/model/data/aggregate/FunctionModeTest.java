@@ -0,0 +1,51 @@
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.*;
+
+public class FunctionModeTest {
+
+    @Test
+    public void testValueTypes() {
+        assertEquals(2L, mode(1L, 2L, 2L, 3L));
+        assertEquals(7, mode(7, 7, 8));
+        assertEquals("b", mode("a", "b", "b"));
+        assertEquals("10", mode("10", "10", "9"));
+        assertEquals(new BigDecimal("1.50"), mode(new BigDecimal("1.50"), new BigDecimal("1.50"), new BigDecimal("2")));
+    }
+
+    @Test
+    public void testBigLongs() {
+        assertEquals((1L << 53) + 1, mode(1L << 53, (1L << 53) + 1, (1L << 53) + 1));
+    }
+
+    @Test
+    public void testNulls() {
+        FunctionMode func = new FunctionMode();
+        assertFalse(func.accumulate(null, false));
+        assertNull(func.getResult(0));
+    }
+
+    @Test
+    public void testHeavyHitter() {
+        // Frequent value is found when the summary is full
+        FunctionMode func = new FunctionMode();
+        int count = AggregateUtils.MAX_EXACT_VALUES * 3;
+        for (int i = 0; i < count; i++) {
+            func.accumulate(i % 2 == 0 ? Long.valueOf(-1) : Long.valueOf(i), false);
+        }
+        assertEquals(-1L, func.getResult(count));
+    }
+
+    private static Object mode(Object... values) {
+        FunctionMode func = new FunctionMode();
+        for (Object value : values) {
+            assertTrue(func.accumulate(value, false));
+        }
+        return func.getResult(values.length);
+    }
+
+}
@@ -0,0 +1,60 @@
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    public void testSmallCardinality() {
+        // Linear counting range is almost exact
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 1000; i++) {
+            hll.addHash(AggregateUtils.hashNumber(i));
+        }
+        assertEquals(1000, hll.estimate(), 10);
+    }
+
+    @Test
+    public void testDuplicatesIgnored() {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 50000; i++) {
+            hll.addHash(AggregateUtils.hashNumber(i));
+        }
+        long estimate = hll.estimate();
+        for (int k = 0; k < 3; k++) {
+            for (int i = 0; i < 50000; i++) {
+                hll.addHash(AggregateUtils.hashNumber(i));
+            }
+        }
+        assertEquals(estimate, hll.estimate());
+    }
+
+    @Test
+    public void testLargeCardinality() {
+        // Standard error is ~0.8%, check within 4 sigmas
+        HyperLogLog hll = new HyperLogLog();
+        long count = 0;
+        for (int n : new int[] { 100000, 1000000, 5000000 }) {
+            for (; count < n; count++) {
+                hll.addHash(AggregateUtils.hashNumber(count * 0.5));
+            }
+            assertEquals("Cardinality " + n, n, hll.estimate(), n * 0.032);
+        }
+    }
+
+    @Test
+    public void testNegativeZeroIsZero() {
+        HyperLogLog hll = new HyperLogLog();
+        hll.addHash(AggregateUtils.hashNumber(0.0));
+        hll.addHash(AggregateUtils.hashNumber(-0.0));
+        assertEquals(1, hll.estimate());
+    }
+
+}
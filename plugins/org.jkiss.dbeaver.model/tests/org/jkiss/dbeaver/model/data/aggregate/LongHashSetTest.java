@@ -0,0 +1,77 @@
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class LongHashSetTest {
+
+    @Test
+    public void testAdd() {
+        LongHashSet set = new LongHashSet();
+        assertEquals(0, set.size());
+        assertTrue(set.add(5));
+        assertFalse(set.add(5));
+        assertTrue(set.add(-5));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertTrue(set.add(Long.MAX_VALUE));
+        assertFalse(set.add(Long.MIN_VALUE));
+        assertEquals(4, set.size());
+    }
+
+    @Test
+    public void testZeroKey() {
+        // Zero marks empty slots, so it is stored separately
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertEquals(1, set.size());
+        assertArrayEquals(new long[] { 0 }, set.toArray());
+        assertTrue(set.add(1));
+        long[] values = set.toArray();
+        Arrays.sort(values);
+        assertArrayEquals(new long[] { 0, 1 }, values);
+    }
+
+    @Test
+    public void testToArrayEmpty() {
+        assertArrayEquals(new long[0], new LongHashSet().toArray());
+    }
+
+    @Test
+    public void testRehash() {
+        // Compare with java.util.HashSet on random values with many duplicates
+        Random random = new Random(1);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 300000; i++) {
+            long value = random.nextInt(100000) - 50000;
+            assertEquals("Value " + value, expected.add(value), set.add(value));
+        }
+        assertEquals(expected.size(), set.size());
+        long[] values = set.toArray();
+        assertEquals(expected.size(), values.length);
+        for (long value : values) {
+            assertTrue(expected.contains(value));
+        }
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        // Keys which differ only in high bits must not be lost
+        LongHashSet set = new LongHashSet();
+        for (long i = 1; i <= 10000; i++) {
+            assertTrue(set.add(i << 40));
+        }
+        for (long i = 1; i <= 10000; i++) {
+            assertFalse(set.add(i << 40));
+        }
+        assertEquals(10000, set.size());
+    }
+
+}
@@ -0,0 +1,134 @@
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TDigestTest {
+
+    private static final double COMPRESSION = 200;
+
+    @Test
+    public void testEmpty() {
+        TDigest digest = new TDigest(COMPRESSION);
+        assertEquals(0, digest.size());
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+    }
+
+    @Test
+    public void testSingleValue() {
+        TDigest digest = new TDigest(COMPRESSION);
+        digest.add(42);
+        assertEquals(1, digest.size());
+        assertEquals(42, digest.quantile(0), 0);
+        assertEquals(42, digest.quantile(0.5), 0);
+        assertEquals(42, digest.quantile(1), 0);
+    }
+
+    @Test
+    public void testNaNIgnored() {
+        TDigest digest = new TDigest(COMPRESSION);
+        digest.add(Double.NaN);
+        digest.add(1);
+        digest.add(Double.NaN);
+        digest.add(3);
+        assertEquals(2, digest.size());
+        assertEquals(2, digest.quantile(0.5), 0);
+    }
+
+    @Test
+    public void testConstantValues() {
+        TDigest digest = new TDigest(COMPRESSION);
+        for (int i = 0; i < 100000; i++) {
+            digest.add(-7.5);
+        }
+        assertEquals(100000, digest.size());
+        assertEquals(-7.5, digest.quantile(0), 0);
+        assertEquals(-7.5, digest.quantile(0.5), 0);
+        assertEquals(-7.5, digest.quantile(1), 0);
+    }
+
+    @Test
+    public void testUniformShuffled() {
+        Random random = new Random(1);
+        double[] values = new double[1000000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        for (int i = values.length - 1; i > 0; i--) {
+            int k = random.nextInt(i + 1);
+            double tmp = values[i];
+            values[i] = values[k];
+            values[k] = tmp;
+        }
+        checkQuantiles(values, 0.001);
+    }
+
+    @Test
+    public void testSortedInput() {
+        double[] values = new double[500000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = values.length - i;
+        }
+        checkQuantiles(values, 0.001);
+    }
+
+    @Test
+    public void testSkewedDistribution() {
+        // Exponential distribution: long right tail
+        Random random = new Random(2);
+        double[] values = new double[300000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = -Math.log(1 - random.nextDouble()) * 1000;
+        }
+        checkQuantiles(values, 0.002);
+    }
+
+    @Test
+    public void testMinMaxAndMonotonic() {
+        Random random = new Random(3);
+        TDigest digest = new TDigest(COMPRESSION);
+        double min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+        for (int i = 0; i < 200000; i++) {
+            double value = random.nextGaussian() * 100;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            digest.add(value);
+        }
+        assertEquals(min, digest.quantile(0), 0);
+        assertEquals(max, digest.quantile(1), 0);
+        double prev = digest.quantile(0);
+        for (int i = 1; i <= 1000; i++) {
+            double value = digest.quantile(i / 1000.0);
+            assertTrue("Quantiles are not monotonic at " + i, value >= prev);
+            prev = value;
+        }
+    }
+
+    /**
+     * Checks that digest quantiles are close to exact ones: rank of the estimated value
+     * must be within rankError (fraction of size) of the requested quantile.
+     */
+    private static void checkQuantiles(double[] values, double rankError) {
+        TDigest digest = new TDigest(COMPRESSION);
+        for (double value : values) {
+            digest.add(value);
+        }
+        assertEquals(values.length, digest.size());
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : new double[] { 0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999 }) {
+            double estimate = digest.quantile(q);
+            int rank = Arrays.binarySearch(sorted, estimate);
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            double actualQ = (double) rank / sorted.length;
+            assertEquals("Quantile " + q + " (" + estimate + ")", q, actualQ, rankError);
+        }
+    }
+
+}
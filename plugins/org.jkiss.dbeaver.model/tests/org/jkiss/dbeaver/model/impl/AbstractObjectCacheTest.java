@@ -0,0 +1,163 @@
+package org.jkiss.dbeaver.model.impl;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class AbstractObjectCacheTest {
+
+    @Test
+    public void testReadsDuringLoad() throws Exception {
+        TestCache cache = new TestCache();
+        cache.setCache(Arrays.asList(new TestObject("a"), new TestObject("b")));
+
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch finishLoad = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // Loader holds cache monitor while query is running
+            Future<?> loader = executor.submit(() -> {
+                synchronized (cache) {
+                    cache.cacheObject(new TestObject("c"));
+                    loadStarted.countDown();
+                    finishLoad.await();
+                    cache.mergeCache(Arrays.asList(new TestObject("a"), new TestObject("d")));
+                }
+                return null;
+            });
+            assertTrue(loadStarted.await(10, TimeUnit.SECONDS));
+
+            // Snapshot was invalidated by loader. Rebuild must not wait for the loader
+            Future<List<DBSObject>> reader = executor.submit(cache::getCachedObjects);
+            List<DBSObject> objects = reader.get(10, TimeUnit.SECONDS);
+            assertEquals(Arrays.asList("a", "b", "c"), names(objects));
+            assertNotNull(cache.getCachedObject("c"));
+
+            finishLoad.countDown();
+            loader.get(10, TimeUnit.SECONDS);
+            assertEquals(Arrays.asList("a", "d"), names(cache.getCachedObjects()));
+            // Merged object keeps old instance
+            assertSame(objects.get(0), cache.getCachedObject("a"));
+            assertNull(cache.getCachedObject("b"));
+        } finally {
+            finishLoad.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMutationWhileIterating() throws Exception {
+        TestCache cache = new TestCache();
+        List<DBSObject> initial = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            initial.add(new TestObject("o" + i));
+        }
+        cache.setCache(initial);
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 10000; i++) {
+                    TestObject object = new TestObject("n" + i);
+                    cache.cacheObject(object);
+                    cache.removeObject(object, false);
+                }
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            List<DBSObject> snapshot = cache.getCachedObjects();
+            int count = 0;
+            for (DBSObject object : snapshot) {
+                assertNotNull(object);
+                count++;
+            }
+            assertEquals(snapshot.size(), count);
+            assertTrue(count == 1000 || count == 1001);
+        }
+        writer.join();
+        assertNull(error.get());
+        assertEquals(1000, cache.getCachedObjects().size());
+
+        // Removal through cache iterator doesn't affect iterated snapshot
+        List<DBSObject> before = cache.getCachedObjects();
+        for (Iterator<DBSObject> iter = cache.new CacheIterator(); iter.hasNext(); ) {
+            if (iter.next().getName().endsWith("0")) {
+                iter.remove();
+            }
+        }
+        assertEquals(1000, before.size());
+        assertEquals(900, cache.getCachedObjects().size());
+        assertNull(cache.getCachedObject("o10"));
+        assertNotNull(cache.getCachedObject("o11"));
+    }
+
+    private static List<String> names(List<DBSObject> objects) {
+        List<String> names = new ArrayList<>();
+        for (DBSObject object : objects) {
+            names.add(object.getName());
+        }
+        return names;
+    }
+
+    private static class TestCache extends AbstractObjectCache<DBSObject, DBSObject> {
+        @NotNull
+        @Override
+        public Collection<DBSObject> getAllObjects(@NotNull DBRProgressMonitor monitor, @Nullable DBSObject owner) {
+            return getCachedObjects();
+        }
+
+        @Override
+        public DBSObject getObject(@NotNull DBRProgressMonitor monitor, @NotNull DBSObject owner, @NotNull String name) {
+            return getCachedObject(name);
+        }
+    }
+
+    private static class TestObject implements DBSObject {
+        private final String name;
+
+        TestObject(String name) {
+            this.name = name;
+        }
+
+        @NotNull
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Nullable
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Override
+        public boolean isPersisted() {
+            return true;
+        }
+
+        @Nullable
+        @Override
+        public DBSObject getParentObject() {
+            return null;
+        }
+
+        @Override
+        public DBPDataSource getDataSource() {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,224 @@
+package org.jkiss.dbeaver.model.impl.data;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.edit.DBEPersistAction;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCStatistics;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkLoadBatchImplTest {
+
+    private static final ZoneId SESSION_ZONE = ZoneOffset.ofHours(3);
+    private static final String REFUSED_MESSAGE = "Loading local data is disabled";
+
+    @Mock
+    private DBCSession session;
+    @Mock
+    private DBSAttributeBase attribute1;
+    @Mock
+    private DBSAttributeBase attribute2;
+
+    private DBSAttributeBase[] attributes;
+    private TestBatch batch;
+    private TestFallbackBatch fallbackBatch;
+
+    @Before
+    public void setUp() {
+        attributes = new DBSAttributeBase[] { attribute1, attribute2 };
+        fallbackBatch = new TestFallbackBatch();
+        batch = new TestBatch(attributes, fallbackBatch);
+    }
+
+    @Test
+    public void testEncodeRows() throws Exception {
+        batch.add(new Object[] { 1, "a\tb\\c\nd" });
+        batch.add(new Object[] { null, true });
+        DBCStatistics statistics = batch.execute(session);
+
+        assertEquals(1, batch.loads.size());
+        assertEquals("1\ta\\tb\\\\c\\nd\n\\N\t1\n", batch.loads.get(0));
+        assertEquals(2, statistics.getRowsUpdated());
+    }
+
+    @Test
+    public void testFailedLoadKeepsRows() throws Exception {
+        batch.add(new Object[] { 1, "a" });
+        batch.failure = new DBCException("Deadlock");
+        try {
+            batch.execute(session);
+            fail("Load error must be thrown");
+        } catch (DBCException e) {
+            assertEquals("Deadlock", e.getMessage());
+        }
+        batch.failure = null;
+        batch.execute(session);
+        assertEquals(1, batch.loads.size());
+        assertEquals("1\ta\n", batch.loads.get(0));
+        assertTrue(fallbackBatch.rows.isEmpty());
+    }
+
+    @Test
+    public void testRefusedLoadFallsBackToInserts() throws Exception {
+        batch.add(new Object[] { 1, "a" });
+        batch.add(new Object[] { 2, "b" });
+        batch.failure = new DBCException(REFUSED_MESSAGE);
+        batch.execute(session);
+        assertEquals(2, fallbackBatch.rows.size());
+        assertEquals(1, fallbackBatch.executions);
+
+        // All next rows go to inserts without load attempts
+        batch.failure = null;
+        batch.add(new Object[] { 3, "c" });
+        batch.execute(session);
+        assertTrue(batch.loads.isEmpty());
+        assertEquals(3, fallbackBatch.rows.size());
+        assertEquals(3, fallbackBatch.rows.get(2)[0]);
+    }
+
+    @Test
+    public void testRefusalAfterSuccessfulLoadIsError() throws Exception {
+        batch.add(new Object[] { 1, "a" });
+        batch.execute(session);
+        batch.add(new Object[] { 2, "b" });
+        batch.failure = new DBCException(REFUSED_MESSAGE);
+        try {
+            batch.execute(session);
+            fail("Load error must be thrown");
+        } catch (DBCException e) {
+            // expected
+        }
+        assertTrue(fallbackBatch.rows.isEmpty());
+    }
+
+    @Test
+    public void testUnsupportedRowsGoToFallback() throws Exception {
+        batch.add(new Object[] { 1, "a" });
+        batch.add(new Object[] { 2, TestBatch.UNSUPPORTED });
+        batch.execute(session);
+        assertEquals("1\ta\n", batch.loads.get(0));
+        assertEquals(1, fallbackBatch.rows.size());
+    }
+
+    @Test
+    public void testTimestampsInSessionZone() throws Exception {
+        when(attribute1.getTypeID()).thenReturn(Types.TIMESTAMP_WITH_TIMEZONE);
+        when(attribute2.getTypeID()).thenReturn(Types.TIMESTAMP_WITH_TIMEZONE);
+        Instant instant = LocalDateTime.of(2019, 3, 31, 1, 30, 15).toInstant(ZoneOffset.UTC);
+        Timestamp timestamp = Timestamp.from(instant);
+        timestamp.setNanos(123456000);
+        batch.add(new Object[] { timestamp, OffsetDateTime.ofInstant(instant, ZoneOffset.ofHours(-5)) });
+        batch.add(new Object[] { java.sql.Date.valueOf("2019-03-31"), java.sql.Time.valueOf("23:59:01") });
+        batch.add(new Object[] { LocalDateTime.of(2019, 3, 31, 1, 30), LocalTime.of(7, 5, 0, 500000000) });
+        batch.execute(session);
+
+        assertEquals(
+            "2019-03-31 04:30:15.123456\t2019-03-31 04:30:15\n" +
+            "2019-03-31\t23:59:01\n" +
+            "2019-03-31 01:30:00\t07:05:00.5\n",
+            batch.loads.get(0));
+    }
+
+    @Test
+    public void testTimestampsInDefaultZone() throws Exception {
+        when(attribute1.getTypeID()).thenReturn(Types.TIMESTAMP);
+        when(attribute2.getTypeID()).thenReturn(Types.TIMESTAMP_WITH_TIMEZONE);
+        Instant instant = LocalDateTime.of(2019, 3, 31, 1, 30, 15).toInstant(ZoneOffset.UTC);
+        batch.add(new Object[] { Timestamp.from(instant), Timestamp.from(instant) });
+        batch.execute(session);
+
+        assertEquals(
+            BulkLoadBatchImpl.formatDateTime(LocalDateTime.ofInstant(instant, ZoneId.systemDefault())) + "\t2019-03-31 04:30:15\n",
+            batch.loads.get(0));
+    }
+
+    @Test
+    public void testFormatTime() {
+        assertEquals("00:00:00", BulkLoadBatchImpl.formatTime(LocalTime.MIDNIGHT));
+        assertEquals("23:59:59.999999999", BulkLoadBatchImpl.formatTime(LocalTime.MAX));
+        assertEquals("10:01:02.00001", BulkLoadBatchImpl.formatTime(LocalTime.of(10, 1, 2, 10000)));
+    }
+
+    private static class TestBatch extends BulkLoadBatchImpl {
+        static final Object UNSUPPORTED = new Object();
+
+        final List<String> loads = new ArrayList<>();
+        DBCException failure;
+
+        TestBatch(DBSAttributeBase[] attributes, DBSDataManipulator.ExecuteBatch fallbackBatch) {
+            super(attributes, fallbackBatch);
+        }
+
+        @NotNull
+        @Override
+        protected ZoneId getSessionTimeZone(@NotNull DBCSession session) {
+            return SESSION_ZONE;
+        }
+
+        @Override
+        protected boolean isLoadRefused(@NotNull DBCException error) {
+            return REFUSED_MESSAGE.equals(error.getMessage());
+        }
+
+        @Override
+        protected boolean isRowSupported(@NotNull Object[] attributeValues) {
+            for (Object value : attributeValues) {
+                if (value == UNSUPPORTED) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        protected long loadData(@NotNull DBCSession session, @NotNull String data, int rowCount) throws DBCException {
+            if (failure != null) {
+                throw failure;
+            }
+            loads.add(data);
+            return rowCount;
+        }
+    }
+
+    private static class TestFallbackBatch implements DBSDataManipulator.ExecuteBatch {
+        final List<Object[]> rows = new ArrayList<>();
+        int executions;
+
+        @Override
+        public void add(@NotNull Object[] attributeValues) {
+            rows.add(attributeValues);
+        }
+
+        @NotNull
+        @Override
+        public DBCStatistics execute(@NotNull DBCSession session) {
+            executions++;
+            return new DBCStatistics();
+        }
+
+        @Override
+        public void generatePersistActions(@NotNull DBCSession session, @NotNull List<DBEPersistAction> actions) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
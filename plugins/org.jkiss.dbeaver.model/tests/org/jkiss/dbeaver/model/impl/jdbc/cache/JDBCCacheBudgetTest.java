@@ -0,0 +1,340 @@
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JDBCCacheBudgetTest {
+
+    @Mock
+    private DBPDataSource dataSource;
+    @Mock
+    private DBPDataSourceContainer container;
+    @Mock
+    private DBPPreferenceStore preferenceStore;
+
+    private JDBCCacheBudget budget;
+    private int scheduledEvictions;
+    private final List<Object> evicted = new ArrayList<>();
+    private final Set<DBSObject> referenced = new HashSet<>();
+
+    @Before
+    public void setUp() {
+        when(dataSource.getContainer()).thenReturn(container);
+        when(container.getPreferenceStore()).thenReturn(preferenceStore);
+        budget = new JDBCCacheBudget(dataSource) {
+            @Override
+            void scheduleEviction() {
+                scheduledEvictions++;
+            }
+        };
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvictedFirst() throws Exception {
+        setMaxObjects(25);
+        TestCache cache1 = createCache("cache1", 10);
+        TestCache cache2 = createCache("cache2", 10);
+        TestCache cache3 = createCache("cache3", 10);
+        load(cache1, null, 10);
+        load(cache2, null, 10);
+        assertEquals(0, scheduledEvictions);
+        load(cache3, null, 10);
+        assertEquals(1, scheduledEvictions);
+        budget.cacheHit(cache1, null);
+
+        budget.evictCaches();
+        assertEquals(Collections.singletonList(cache2), evicted);
+        assertFalse(cache2.isFullyCached());
+        assertTrue(cache1.isFullyCached());
+        assertTrue(cache3.isFullyCached());
+        assertEquals(20, budget.getTotalWeight());
+        assertEquals(1, budget.getEvictionCount());
+        assertEquals(1, budget.getHitCount());
+    }
+
+    @Test
+    public void testSubtreeEvictedFirst() throws Exception {
+        setMaxObjects(6);
+        TestObject table1 = new TestObject("table1", "table");
+        TestObject table2 = new TestObject("table2", "table");
+        TestStructCache tables = createStructCache("tables", table1, table2);
+        tables.cacheChildren(table1, objects("c1", "c2"));
+        tables.cacheChildren(table2, objects("c3", "c4", "c5"));
+        TestCache other = createCache("other", 4);
+        // Object list is the least recently used, but it goes after its child lists
+        load(tables, null, 3);
+        load(tables, table1, 3);
+        load(tables, table2, 4);
+        load(other, null, 5);
+
+        budget.evictCaches();
+        assertEquals(Arrays.asList(table1, table2, tables), evicted);
+        assertFalse(tables.isFullyCached());
+        assertFalse(tables.isChildrenCached(table1));
+        assertFalse(tables.isChildrenCached(table2));
+        assertTrue(other.isFullyCached());
+        assertEquals(5, budget.getTotalWeight());
+    }
+
+    @Test
+    public void testReferencedObjectsSkipped() throws Exception {
+        setMaxObjects(1);
+        TestObject table1 = new TestObject("table1", "table");
+        TestObject table2 = new TestObject("table2", "table");
+        TestStructCache tables = createStructCache("tables", table1, table2);
+        List<DBSObject> columns1 = objects("c1");
+        tables.cacheChildren(table1, columns1);
+        tables.cacheChildren(table2, objects("c2"));
+        TestCache cache1 = createCache("cache1", 1);
+        TestCache cache2 = createCache("cache2", 1);
+        referenced.add(columns1.get(0));
+        referenced.add(cache1.getCachedObjects().get(0));
+        load(cache1, null, 2);
+        load(cache2, null, 2);
+        load(tables, null, 3);
+        load(tables, table1, 2);
+        load(tables, table2, 2);
+
+        budget.evictCaches();
+        // Tables are kept: children of table1 are still cached
+        assertEquals(Arrays.asList(table2, cache2), evicted);
+        assertTrue(tables.isChildrenCached(table1));
+        assertTrue(tables.isFullyCached());
+        assertTrue(cache1.isFullyCached());
+        assertEquals(7, budget.getTotalWeight());
+    }
+
+    @Test
+    public void testEvictedObjectRefreshed() {
+        TestCache cache = createCache("cache", 0);
+        TestObject oldObject = new TestObject("t1", "table");
+        Map<String, WeakReference<TestObject>> evictedObjects = JDBCObjectCache.rememberEvictedObjects(Collections.singletonList(oldObject));
+        TestObject newObject = new TestObject("t1", "view");
+        TestObject addedObject = new TestObject("t2", "table");
+        List<TestObject> reloaded = new ArrayList<>(Arrays.asList(newObject, addedObject));
+
+        cache.restoreEvictedObjects(evictedObjects, reloaded);
+        // Referenced instance is reused, but with reloaded state
+        assertSame(oldObject, reloaded.get(0));
+        assertEquals("view", oldObject.getType());
+        assertSame(addedObject, reloaded.get(1));
+    }
+
+    @Test
+    public void testStatistics() {
+        setMaxObjects(100);
+        TestCache cache = createCache("cache", 1);
+        budget.cacheMiss();
+        load(cache, null, 2);
+        budget.cacheHit(cache, null);
+        budget.cacheHit(cache, null);
+
+        Map<String, Object> statistics = budget.getStatistics();
+        assertEquals(2L, statistics.get("Cached objects"));
+        assertEquals(100, statistics.get("Max cached objects"));
+        assertEquals(2L, statistics.get("Hits"));
+        assertEquals(1L, statistics.get("Misses"));
+        assertEquals(0L, statistics.get("Evictions"));
+    }
+
+    private void setMaxObjects(int maxObjects) {
+        when(preferenceStore.getInt(ModelPreferences.META_CACHE_MAX_OBJECTS)).thenReturn(maxObjects);
+    }
+
+    private void load(JDBCObjectCache<?, ?> cache, @Nullable Object key, int weight) {
+        budget.cacheLoaded(cache, key, weight);
+        try {
+            // Distinct access times
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private TestCache createCache(String name, int objectCount) {
+        TestCache cache = new TestCache(name);
+        List<DBSObject> objects = new ArrayList<>();
+        for (int i = 0; i < objectCount; i++) {
+            objects.add(new TestObject(name + i, "table"));
+        }
+        cache.setCache(objects);
+        return cache;
+    }
+
+    private TestStructCache createStructCache(String name, DBSObject... objects) {
+        TestStructCache cache = new TestStructCache(name);
+        cache.setCache(Arrays.asList(objects));
+        return cache;
+    }
+
+    private static List<DBSObject> objects(String... names) {
+        List<DBSObject> objects = new ArrayList<>();
+        for (String name : names) {
+            objects.add(new TestObject(name, "column"));
+        }
+        return objects;
+    }
+
+    private class TestCache extends JDBCObjectCache<DBSObject, DBSObject> {
+        private final String name;
+
+        TestCache(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected JDBCStatement prepareObjectsStatement(@NotNull JDBCSession session, @NotNull DBSObject owner) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected DBSObject fetchObject(@NotNull JDBCSession session, @NotNull DBSObject owner, @NotNull JDBCResultSet resultSet) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected synchronized boolean evictCachedObjects(@Nullable Object key) {
+            boolean result = super.evictCachedObjects(key);
+            if (result) {
+                evicted.add(key == null ? this : key);
+            }
+            return result;
+        }
+
+        @Override
+        protected boolean isObjectReferenced(@NotNull DBSObject object) {
+            return referenced.contains(object);
+        }
+
+        @Override
+        protected JDBCCacheBudget getCacheBudget(@Nullable DBSObject owner) {
+            return budget;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private class TestStructCache extends JDBCStructCache<DBSObject, DBSObject, DBSObject> {
+        private final String name;
+
+        TestStructCache(String name) {
+            super("name");
+            this.name = name;
+        }
+
+        @Override
+        protected JDBCStatement prepareObjectsStatement(@NotNull JDBCSession session, @NotNull DBSObject owner) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected DBSObject fetchObject(@NotNull JDBCSession session, @NotNull DBSObject owner, @NotNull JDBCResultSet resultSet) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected JDBCStatement prepareChildrenStatement(@NotNull JDBCSession session, @NotNull DBSObject owner, @Nullable DBSObject forObject) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected DBSObject fetchChild(@NotNull JDBCSession session, @NotNull DBSObject owner, @NotNull DBSObject parent, @NotNull JDBCResultSet dbResult) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected synchronized boolean evictCachedObjects(@Nullable Object key) {
+            boolean result = super.evictCachedObjects(key);
+            if (result) {
+                evicted.add(key == null ? this : key);
+            }
+            return result;
+        }
+
+        @Override
+        protected boolean isObjectReferenced(@NotNull DBSObject object) {
+            return referenced.contains(object);
+        }
+
+        @Override
+        protected JDBCCacheBudget getCacheBudget(@Nullable DBSObject owner) {
+            return budget;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static class TestObject implements DBSObject {
+        private String name;
+        private String type;
+
+        TestObject(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        @NotNull
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        String getType() {
+            return type;
+        }
+
+        @Nullable
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Override
+        public boolean isPersisted() {
+            return true;
+        }
+
+        @Nullable
+        @Override
+        public DBSObject getParentObject() {
+            return null;
+        }
+
+        @Override
+        public DBPDataSource getDataSource() {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+}
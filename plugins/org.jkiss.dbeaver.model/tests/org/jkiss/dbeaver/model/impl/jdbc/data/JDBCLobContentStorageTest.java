@@ -0,0 +1,206 @@
+package org.jkiss.dbeaver.model.impl.jdbc.data;
+
+import org.jkiss.dbeaver.model.app.DBPPlatform;
+import org.jkiss.dbeaver.model.impl.PagedContentStorage;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+import javax.sql.rowset.serial.SerialException;
+import java.io.*;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JDBCLobContentStorageTest {
+
+    private static final int CONTENT_LENGTH = PagedContentStorage.PAGE_SIZE * 2 + 123;
+
+    @Mock
+    private DBPPlatform platform;
+    private File folder;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("dbeaver-lob").toFile();
+        when(platform.getTempFolder(Mockito.any(DBRProgressMonitor.class), Mockito.anyString())).thenReturn(folder);
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    @Test
+    public void testBlobReadOnDemand() throws Exception {
+        byte[] content = new byte[CONTENT_LENGTH];
+        new Random(1).nextBytes(content);
+        TestBlob blob = new TestBlob(content);
+        JDBCBlobContentStorage storage = JDBCBlobContentStorage.open(platform, blob, content.length, "UTF-8");
+        assertNotNull(storage);
+        // Only the first page was read
+        assertEquals(1, blob.rangeReads);
+
+        assertEquals(content.length, storage.getContentLength());
+        try (InputStream is = storage.getContentStream()) {
+            for (int i = 0; i < 100; i++) {
+                assertEquals(content[i] & 0xFF, is.read());
+            }
+            assertEquals(CONTENT_LENGTH - 100, is.skip(CONTENT_LENGTH));
+            assertEquals(-1, is.read());
+        }
+        assertEquals(1, blob.rangeReads);
+        assertArrayEquals(content, readAll(storage.getContentStream()));
+        assertEquals(3, blob.rangeReads);
+
+        storage.release();
+        assertTrue(blob.freed);
+    }
+
+    @Test
+    public void testBlobOldDriver() throws Exception {
+        byte[] content = new byte[CONTENT_LENGTH];
+        new Random(2).nextBytes(content);
+        TestBlob blob = new TestBlob(content);
+        blob.rangeStreamError = new SQLFeatureNotSupportedException();
+        JDBCBlobContentStorage storage = JDBCBlobContentStorage.open(platform, blob, content.length, "UTF-8");
+        assertNotNull(storage);
+        assertArrayEquals(content, readAll(storage.getContentStream()));
+        storage.release();
+    }
+
+    @Test
+    public void testBlobRangeReadError() throws Exception {
+        TestBlob blob = new TestBlob(new byte[CONTENT_LENGTH]);
+        blob.rangeStreamError = new SQLException("Locator is not valid");
+        assertNull(JDBCBlobContentStorage.open(platform, blob, CONTENT_LENGTH, "UTF-8"));
+        assertFalse(blob.freed);
+        // Caller copies the whole content then
+        blob.rangeStreamError = null;
+        assertEquals(CONTENT_LENGTH, readAll(blob.getBinaryStream()).length);
+        assertEquals(0, folder.listFiles().length);
+    }
+
+    @Test
+    public void testClobReadOnDemand() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; text.length() < PagedContentStorage.PAGE_SIZE; i++) {
+            text.append("line ").append(i).append(" привет 世界\n");
+        }
+        TestClob clob = new TestClob(text.toString());
+        JDBCClobContentStorage storage = JDBCClobContentStorage.open(platform, clob, text.length(), "UTF-8");
+        assertNotNull(storage);
+        assertEquals(1, clob.substringReads);
+        assertEquals(text.length(), storage.getContentLength());
+
+        StringWriter result = new StringWriter();
+        try (Reader reader = storage.getContentReader()) {
+            char[] buffer = new char[1000];
+            for (int count = reader.read(buffer); count > 0; count = reader.read(buffer)) {
+                result.write(buffer, 0, count);
+            }
+        }
+        assertEquals(text.toString(), result.toString());
+        assertArrayEquals(text.toString().getBytes("UTF-8"), readAll(storage.getContentStream()));
+
+        storage.release();
+        assertTrue(clob.freed);
+    }
+
+    @Test
+    public void testClobReadError() throws Exception {
+        TestClob clob = new TestClob("text");
+        clob.substringError = new SQLException("Locator is not valid");
+        assertNull(JDBCClobContentStorage.open(platform, clob, 4, "UTF-8"));
+        assertFalse(clob.freed);
+        // Caller copies the whole content then
+        clob.substringError = null;
+        assertEquals("text", clob.getSubString(1, 4));
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        try (InputStream stream = is) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] bytes = new byte[10000];
+            for (int count = stream.read(bytes); count > 0; count = stream.read(bytes)) {
+                buffer.write(bytes, 0, count);
+            }
+            return buffer.toByteArray();
+        }
+    }
+
+    private static class TestBlob extends SerialBlob {
+        SQLException rangeStreamError;
+        int rangeReads;
+        boolean freed;
+
+        TestBlob(byte[] content) throws SQLException {
+            super(content);
+        }
+
+        @Override
+        public InputStream getBinaryStream(long pos, long length) throws SQLException {
+            if (rangeStreamError != null) {
+                throw rangeStreamError;
+            }
+            rangeReads++;
+            return super.getBinaryStream(pos, length);
+        }
+
+        @Override
+        public byte[] getBytes(long pos, int length) throws SerialException {
+            if (rangeStreamError != null && !(rangeStreamError instanceof SQLFeatureNotSupportedException)) {
+                throw new SerialException(rangeStreamError.getMessage());
+            }
+            return super.getBytes(pos, length);
+        }
+
+        @Override
+        public void free() {
+            freed = true;
+        }
+    }
+
+    private static class TestClob extends SerialClob {
+        SQLException substringError;
+        int substringReads;
+        boolean freed;
+
+        TestClob(String content) throws SQLException {
+            super(content.toCharArray());
+        }
+
+        @Override
+        public String getSubString(long pos, int length) throws SerialException {
+            if (substringError != null) {
+                throw new SerialException(substringError.getMessage());
+            }
+            substringReads++;
+            return super.getSubString(pos, length);
+        }
+
+        @Override
+        public void free() {
+            freed = true;
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package org.jkiss.dbeaver.model.impl.jdbc.struct;
+
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataManipulator;
+import org.jkiss.dbeaver.model.struct.DBSTypedObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MultiValueInsertBatchTest {
+
+    @Mock
+    private DBCSession session;
+    @Mock
+    private DBRProgressMonitor monitor;
+    @Mock
+    private DBCStatement statement;
+    @Mock
+    private DBDValueHandler valueHandler;
+    @Mock
+    private DBCExecutionSource source;
+    @Mock
+    private DBSAttributeBase attribute;
+    @Mock
+    private DBSDataManipulator.ExecuteBatch singleRowBatch;
+
+    private final List<String> queries = new ArrayList<>();
+    private final List<Object> boundValues = new ArrayList<>();
+    private MultiValueInsertBatch batch;
+
+    @Before
+    public void setUp() throws Exception {
+        when(session.getProgressMonitor()).thenReturn(monitor);
+        when(session.getDefaultValueHandler()).thenReturn(valueHandler);
+        when(session.prepareStatement(any(DBCStatementType.class), anyString(), anyBoolean(), anyBoolean(), anyBoolean())).thenAnswer(invocation -> {
+            queries.add((String) invocation.getArguments()[1]);
+            return statement;
+        });
+        doAnswer(invocation -> {
+            boundValues.add(invocation.getArguments()[4]);
+            return null;
+        }).when(valueHandler).bindValueObject(any(DBCSession.class), any(DBCStatement.class), any(DBSTypedObject.class), anyInt(), any());
+        when(statement.getUpdateRowCount()).thenReturn(-1L);
+
+        batch = new MultiValueInsertBatch("T", new String[] { "ID" }, new DBSAttributeBase[] { attribute }, source, 2, singleRowBatch);
+    }
+
+    @Test
+    public void testGroupRows() throws Exception {
+        addRows(1, 2, 3);
+        DBCStatistics statistics = batch.execute(session);
+
+        assertEquals(Arrays.asList("INSERT INTO T (ID)\nVALUES (?),(?)", "INSERT INTO T (ID)\nVALUES (?)"), queries);
+        assertEquals(Arrays.<Object>asList(1, 2, 3), boundValues);
+        assertEquals(3, statistics.getRowsUpdated());
+        verify(statement, times(2)).executeStatement();
+    }
+
+    @Test
+    public void testAllNullsRow() throws Exception {
+        batch.add(new Object[] { 1 });
+        batch.add(new Object[] { null });
+        batch.add(new Object[] { 2 });
+        batch.execute(session);
+
+        // Row with all nulls uses explicit NULL, thus all rows have the same shape
+        assertEquals(Arrays.<Object>asList(1, null, 2), boundValues);
+        assertEquals(2, queries.size());
+    }
+
+    @Test
+    public void testRetryAfterFailedGroup() throws Exception {
+        when(statement.executeStatement())
+            .thenReturn(false)
+            .thenThrow(new DBCException("Duplicate key"))
+            .thenReturn(false);
+        addRows(1, 2, 3, 4, 5);
+        try {
+            batch.execute(session);
+            fail("Insert error must be thrown");
+        } catch (DBCException e) {
+            assertEquals("Duplicate key", e.getMessage());
+        }
+        assertEquals(Arrays.<Object>asList(1, 2, 3, 4), boundValues);
+
+        // Retry starts from the failed group
+        boundValues.clear();
+        batch.execute(session);
+        assertEquals(Arrays.<Object>asList(3, 4, 5), boundValues);
+
+        // Nothing left in the batch
+        boundValues.clear();
+        batch.execute(session);
+        assertEquals(Collections.emptyList(), boundValues);
+        verify(statement, times(4)).executeStatement();
+    }
+
+    @Test
+    public void testFailedRowsKeptForNextExecute() throws Exception {
+        when(statement.executeStatement())
+            .thenThrow(new DBCException("Duplicate key"))
+            .thenReturn(false);
+        addRows(1);
+        try {
+            batch.execute(session);
+            fail("Insert error must be thrown");
+        } catch (DBCException e) {
+            // expected
+        }
+        addRows(2, 3);
+        boundValues.clear();
+        batch.execute(session);
+        assertEquals(Arrays.<Object>asList(1, 2, 3), boundValues);
+    }
+
+    private void addRows(int... ids) throws DBCException {
+        for (int id : ids) {
+            batch.add(new Object[] { id });
+        }
+    }
+
+}
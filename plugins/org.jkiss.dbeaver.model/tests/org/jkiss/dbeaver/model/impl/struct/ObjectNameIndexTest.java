@@ -0,0 +1,163 @@
+package org.jkiss.dbeaver.model.impl.struct;
+
+import org.jkiss.dbeaver.model.struct.DBSObjectType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ObjectNameIndexTest {
+
+    private static final String[] SCHEMA = { "db", "public" };
+    private static final String[] OTHER_SCHEMA = { "db", "sales" };
+
+    @Mock
+    private DBSObjectType tableType;
+    @Mock
+    private DBSObjectType procedureType;
+
+    private ObjectNameIndex.IndexData indexData;
+
+    @Before
+    public void setUp() {
+        when(tableType.getTypeName()).thenReturn("Table");
+        when(procedureType.getTypeName()).thenReturn("Procedure");
+        indexData = new ObjectNameIndex.IndexData(new ArrayList<>(Arrays.asList(
+            entry("Customer", tableType, SCHEMA),
+            entry("customers_old", tableType, SCHEMA),
+            entry("ORDER_ITEMS", tableType, OTHER_SCHEMA),
+            entry("account", tableType, SCHEMA),
+            entry("update_customer", procedureType, SCHEMA))),
+            new HashSet<>());
+    }
+
+    @Test
+    public void testPrefixLookup() {
+        assertEquals(Arrays.asList("Customer", "customers_old"), names(indexData.findCandidates("cust%")));
+        assertEquals(Arrays.asList("customers_old"), names(indexData.findCandidates("customers")));
+        assertEquals(Arrays.asList("ORDER_ITEMS"), names(indexData.findCandidates("order_%")));
+        assertTrue(indexData.findCandidates("z%").isEmpty());
+    }
+
+    @Test
+    public void testTrigramLookup() {
+        assertEquals(Arrays.asList("Customer", "customers_old", "update_customer"), names(indexData.findCandidates("%tome%")));
+        assertEquals(Arrays.asList("ORDER_ITEMS"), names(indexData.findCandidates("%der_ite%")));
+        assertTrue(indexData.findCandidates("%xyz%").isEmpty());
+        // Literals shorter than trigram scan all names
+        assertEquals(5, indexData.findCandidates("%er%").size());
+    }
+
+    @Test
+    public void testIncrementalChanges() {
+        ObjectNameIndex.IndexData changed = indexData
+            .addEntry(entry("Customer_Notes", tableType, SCHEMA))
+            .removeEntries("Customer", SCHEMA, Collections.singletonList(tableType));
+        assertEquals(Arrays.asList("customers_old", "Customer_Notes"), names(changed.findCandidates("cust%")));
+        assertEquals(Arrays.asList("customers_old", "update_customer", "Customer_Notes"), names(changed.findCandidates("%tome%")));
+        assertEquals(2, changed.getChangeCount());
+        // Source data is not changed
+        assertEquals(Arrays.asList("Customer", "customers_old"), names(indexData.findCandidates("cust%")));
+
+        // Other type and other container are kept
+        assertSame(changed, changed.removeEntries("update_customer", SCHEMA, Collections.singletonList(tableType)));
+        assertSame(changed, changed.removeEntries("ORDER_ITEMS", SCHEMA, Collections.singletonList(tableType)));
+
+        ObjectNameIndex.IndexData removed = changed.removeEntries("Customer_Notes", SCHEMA, Collections.singletonList(tableType));
+        assertEquals(Arrays.asList("customers_old"), names(removed.findCandidates("cust%")));
+
+        ObjectNameIndex.IndexData compacted = changed.compact();
+        assertEquals(0, compacted.getChangeCount());
+        // Added entries are sorted now
+        assertEquals(Arrays.asList("Customer_Notes", "customers_old"), names(compacted.findCandidates("cust%")));
+        assertEquals(Arrays.asList("Customer_Notes"), names(compacted.findCandidates("%_note%")));
+        assertEquals(names(changed.findCandidates("%")).size(), compacted.getEntries().size());
+    }
+
+    @Test
+    public void testRemoveContainer() {
+        ObjectNameIndex.IndexData changed = indexData
+            .addEntry(entry("payments", tableType, new String[] { "db", "public", "nested" }))
+            .addEntry(entry("orders", tableType, OTHER_SCHEMA))
+            .removeContainerEntries(SCHEMA);
+        assertEquals(Arrays.asList("ORDER_ITEMS", "orders"), names(changed.getEntries()));
+        assertSame(changed, changed.removeContainerEntries(new String[] { "db", "pub" }));
+    }
+
+    @Test
+    public void testTruncatedTypeIsNotChanged() {
+        ObjectNameIndex.IndexData truncated = new ObjectNameIndex.IndexData(new ArrayList<>(), Collections.singleton(tableType));
+        assertSame(truncated, truncated.addEntry(entry("t1", tableType, SCHEMA)));
+        assertEquals(1, truncated.addEntry(entry("p1", procedureType, SCHEMA)).getEntries().size());
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        File file = File.createTempFile("object-index", ".txt");
+        try {
+            ObjectNameIndex.IndexData source = new ObjectNameIndex.IndexData(new ArrayList<>(Arrays.asList(
+                new ObjectNameIndex.IndexEntry("Customer", tableType, "Customers\tand\nclients", SCHEMA),
+                new ObjectNameIndex.IndexEntry("update_customer", procedureType, null, new String[0]),
+                new ObjectNameIndex.IndexEntry("Счёт", tableType, "", OTHER_SCHEMA))),
+                Collections.singleton(procedureType))
+                .addEntry(entry("added", tableType, SCHEMA))
+                .removeEntries("Customer", SCHEMA, Collections.singletonList(tableType));
+            ObjectNameIndex.saveIndex(file, source);
+
+            ObjectNameIndex.IndexData loaded = ObjectNameIndex.loadIndex(file, Arrays.asList(tableType, procedureType));
+            assertEquals(Collections.singleton(procedureType), loaded.truncatedTypes);
+            assertEquals(0, loaded.getChangeCount());
+            List<ObjectNameIndex.IndexEntry> entries = loaded.getEntries();
+            assertEquals(Arrays.asList("added", "update_customer", "Счёт"), names(entries));
+            assertSame(tableType, entries.get(0).type);
+            assertArrayEquals(SCHEMA, entries.get(0).containerPath);
+            assertSame(procedureType, entries.get(1).type);
+            assertEquals("", entries.get(1).description);
+            assertArrayEquals(new String[0], entries.get(1).containerPath);
+            assertArrayEquals(OTHER_SCHEMA, entries.get(2).containerPath);
+            assertEquals(Arrays.asList("Счёт"), names(loaded.findCandidates("счё%")));
+
+            // Unknown types are skipped
+            loaded = ObjectNameIndex.loadIndex(file, Collections.singletonList(tableType));
+            assertEquals(Arrays.asList("added", "Счёт"), names(loaded.getEntries()));
+            assertTrue(loaded.truncatedTypes.isEmpty());
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testSaveEscapesSeparators() throws Exception {
+        File file = File.createTempFile("object-index", ".txt");
+        try {
+            ObjectNameIndex.saveIndex(file, new ObjectNameIndex.IndexData(new ArrayList<>(Collections.singletonList(
+                new ObjectNameIndex.IndexEntry("a", tableType, "line1\r\nline2\tend", SCHEMA))), new HashSet<>()));
+            ObjectNameIndex.IndexData loaded = ObjectNameIndex.loadIndex(file, Collections.singletonList(tableType));
+            assertEquals(1, loaded.getEntries().size());
+            assertEquals("line1  line2 end", loaded.getEntries().get(0).description);
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    private static ObjectNameIndex.IndexEntry entry(String name, DBSObjectType type, String[] containerPath) {
+        return new ObjectNameIndex.IndexEntry(name, type, name + " description", containerPath);
+    }
+
+    private static List<String> names(List<ObjectNameIndex.IndexEntry> entries) {
+        List<String> names = new ArrayList<>();
+        for (ObjectNameIndex.IndexEntry entry : entries) {
+            names.add(entry.name);
+        }
+        return names;
+    }
+
+}
@@ -0,0 +1,187 @@
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCStatement;
+import org.jkiss.dbeaver.model.qm.QMExecutionHandler;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class QMCompositeExecutionHandlerTest {
+
+    @Mock
+    private DBCSession session;
+
+    @Mock
+    private DBCStatement statement;
+
+    private QMCompositeExecutionHandler composite;
+    private List<String> events;
+
+    @Before
+    public void setUp() {
+        composite = new QMCompositeExecutionHandler();
+        events = new ArrayList<>();
+    }
+
+    @Test
+    public void testOnlyOverriddenEventsDispatched() {
+        composite.addHandler(new StatementHandler("h1"));
+        fireStatementLifecycle();
+        assertEquals(Arrays.asList("h1:executeBegin", "h1:executeEnd:10", "h1:close:10"), events);
+    }
+
+    @Test
+    public void testInheritedOverridesDispatched() {
+        composite.addHandler(new SessionStatementHandler("h1"));
+        fireStatementLifecycle();
+        assertEquals(Arrays.asList("h1:sessionOpen", "h1:executeBegin", "h1:executeEnd:10", "h1:close:10", "h1:sessionClose"), events);
+    }
+
+    @Test
+    public void testNonDefaultHandlerGetsAllEvents() {
+        QMExecutionHandler handler = mock(QMExecutionHandler.class);
+        composite.addHandler(handler);
+        fireStatementLifecycle();
+        verify(handler).handleSessionOpen(session);
+        verify(handler).handleStatementOpen(statement);
+        verify(handler).handleStatementExecuteBegin(statement);
+        verify(handler).handleStatementExecuteEnd(statement, 10, null);
+        verify(handler).handleStatementClose(statement, 10);
+        verify(handler).handleSessionClose(session);
+    }
+
+    @Test
+    public void testHandlesEvent() {
+        // Default handler no-ops are skipped, overrides are found in superclasses too
+        StatementHandler statementHandler = new StatementHandler("h1");
+        assertTrue(QMCompositeExecutionHandler.handlesEvent(statementHandler, "handleStatementExecuteBegin"));
+        assertTrue(QMCompositeExecutionHandler.handlesEvent(statementHandler, "handleStatementClose"));
+        assertFalse(QMCompositeExecutionHandler.handlesEvent(statementHandler, "handleSessionOpen"));
+        assertFalse(QMCompositeExecutionHandler.handlesEvent(statementHandler, "handleStatementOpen"));
+
+        SessionStatementHandler sessionHandler = new SessionStatementHandler("h2");
+        assertTrue(QMCompositeExecutionHandler.handlesEvent(sessionHandler, "handleSessionOpen"));
+        assertTrue(QMCompositeExecutionHandler.handlesEvent(sessionHandler, "handleStatementExecuteEnd"));
+        assertFalse(QMCompositeExecutionHandler.handlesEvent(sessionHandler, "handleResultSetOpen"));
+
+        // Other handlers get all events
+        QMExecutionHandler handler = mock(QMExecutionHandler.class);
+        assertTrue(QMCompositeExecutionHandler.handlesEvent(handler, "handleResultSetOpen"));
+        assertTrue(QMCompositeExecutionHandler.handlesEvent(handler, "handleFeatureUsage"));
+    }
+
+    @Test
+    public void testRegistrationOrderAndRemove() {
+        StatementHandler h1 = new StatementHandler("h1");
+        SessionStatementHandler h2 = new SessionStatementHandler("h2");
+        composite.addHandler(h1);
+        composite.addHandler(h2);
+        composite.handleStatementExecuteBegin(statement);
+        assertEquals(Arrays.asList("h1:executeBegin", "h2:executeBegin"), events);
+
+        events.clear();
+        assertTrue(composite.removeHandler(h1));
+        assertFalse(composite.removeHandler(h1));
+        composite.handleStatementExecuteBegin(statement);
+        composite.handleSessionOpen(session);
+        assertEquals(Arrays.asList("h2:executeBegin", "h2:sessionOpen"), events);
+        assertEquals(Collections.singletonList(h2), composite.getHandlers());
+
+        events.clear();
+        composite.clearHandlers();
+        fireStatementLifecycle();
+        assertTrue(events.isEmpty());
+        assertTrue(composite.getHandlers().isEmpty());
+    }
+
+    @Test
+    public void testHandlerErrorDoesNotBreakDispatch() {
+        composite.addHandler(new StatementHandler("h1") {
+            @Override
+            public void handleStatementExecuteBegin(DBCStatement statement) {
+                throw new IllegalStateException("Handler failure");
+            }
+        });
+        composite.addHandler(new StatementHandler("h2"));
+        fireStatementLifecycle();
+        assertEquals(Arrays.asList(
+            "h2:executeBegin",
+            "h1:executeEnd:10", "h2:executeEnd:10",
+            "h1:close:10", "h2:close:10"), events);
+    }
+
+    @Test
+    public void testNoHandlers() {
+        fireStatementLifecycle();
+        composite.handleScriptBegin(session);
+        composite.handleScriptEnd(session);
+        assertTrue(events.isEmpty());
+    }
+
+    private void fireStatementLifecycle() {
+        composite.handleSessionOpen(session);
+        composite.handleStatementOpen(statement);
+        composite.handleStatementExecuteBegin(statement);
+        composite.handleStatementExecuteEnd(statement, 10, null);
+        composite.handleStatementClose(statement, 10);
+        composite.handleSessionClose(session);
+    }
+
+    private class StatementHandler extends DefaultExecutionHandler {
+        private final String name;
+
+        StatementHandler(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getHandlerName() {
+            return name;
+        }
+
+        @Override
+        public void handleStatementExecuteBegin(DBCStatement statement) {
+            events.add(name + ":executeBegin");
+        }
+
+        @Override
+        public void handleStatementExecuteEnd(DBCStatement statement, long rows, Throwable error) {
+            events.add(name + ":executeEnd:" + rows);
+        }
+
+        @Override
+        public void handleStatementClose(DBCStatement statement, long rows) {
+            events.add(name + ":close:" + rows);
+        }
+    }
+
+    private class SessionStatementHandler extends StatementHandler {
+        SessionStatementHandler(String name) {
+            super(name);
+        }
+
+        @Override
+        public void handleSessionOpen(DBCSession session) {
+            events.add(getHandlerName() + ":sessionOpen");
+        }
+
+        @Override
+        public void handleSessionClose(DBCSession session) {
+            events.add(getHandlerName() + ":sessionClose");
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.qm.QMEventCriteria;
+import org.jkiss.dbeaver.model.qm.QMMetaEvent;
+import org.jkiss.dbeaver.model.qm.QMObjectType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class QMHistorySegmentTest {
+
+    private File folder;
+    private File dataFile;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("qm-history").toFile();
+        dataFile = new File(folder, "history_1000" + QMHistorySegment.DATA_FILE_EXT);
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                assertTrue(file.delete());
+            }
+        }
+        assertTrue(folder.delete());
+    }
+
+    @Test
+    public void testRecordRoundTrip() throws IOException {
+        QMHistorySegment.Record record = query(1000, "select * from \"Счёт\"", "ds1");
+        record.errorCode = 42;
+        record.errorMessage = "Error";
+        record.purpose = DBCExecutionPurpose.USER_SCRIPT;
+        QMHistorySegment.Record copy = QMHistorySegment.Record.read(record.write());
+        assertEquals(record.queryString, copy.queryString);
+        assertEquals(record.openTime, copy.openTime);
+        assertEquals(record.closeTime, copy.closeTime);
+        assertEquals(record.containerId, copy.containerId);
+        assertNull(copy.contextName);
+        assertEquals(42, copy.errorCode);
+        assertEquals("Error", copy.errorMessage);
+        assertEquals(DBCExecutionPurpose.USER_SCRIPT, copy.purpose);
+        assertEquals(QMMetaEvent.Action.END, copy.action);
+
+        QMHistorySegment.Record session = session(2000, "ds2");
+        QMHistorySegment.Record sessionCopy = QMHistorySegment.Record.read(session.write());
+        assertEquals("Database - Main", sessionCopy.getText());
+        assertEquals(QMMetaEvent.Action.BEGIN, sessionCopy.action);
+    }
+
+    @Test
+    public void testSearch() throws IOException {
+        QMHistorySegment segment = writeSegment(
+            query(1000, "select id from customers", "ds1"),
+            query(2000, "update orders set total = 0", "ds1"),
+            query(3000, "select a from t", "ds2"),
+            session(4000, "ds1"));
+
+        assertArrayEquals(new long[] { offset(segment, 0) }, find(segment, "CUST"));
+        assertArrayEquals(new long[] { offset(segment, 0) }, find(segment, "mers"));
+        // Two words must be found in the same record
+        assertArrayEquals(new long[] { offset(segment, 0) }, find(segment, "sel cust"));
+        assertArrayEquals(new long[0], find(segment, "select total"));
+        assertArrayEquals(new long[0], find(segment, "unknown"));
+        // Short words match any part of tokens
+        assertArrayEquals(new long[] { offset(segment, 2), offset(segment, 0) }, find(segment, "el"));
+        assertArrayEquals(new long[] { offset(segment, 1), offset(segment, 0) }, find(segment, "rs"));
+    }
+
+    @Test
+    public void testSearchSingleCharacter() throws IOException {
+        QMHistorySegment segment = writeSegment(
+            query(1000, "select x from tab", "ds1"),
+            query(2000, "select 1 from dual", "ds1"),
+            query(3000, "drop y", "ds1"));
+
+        // Last character of token
+        assertArrayEquals(new long[] { offset(segment, 0) }, find(segment, "b"));
+        // Single character tokens
+        assertArrayEquals(new long[] { offset(segment, 0) }, find(segment, "x"));
+        assertArrayEquals(new long[] { offset(segment, 1) }, find(segment, "1"));
+        assertArrayEquals(new long[] { offset(segment, 2) }, find(segment, "y"));
+        assertArrayEquals(new long[] { offset(segment, 2), offset(segment, 1) }, find(segment, "d"));
+        assertArrayEquals(new long[0], find(segment, "z"));
+    }
+
+    @Test
+    public void testLongTokens() throws IOException {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            name.append((char) ('a' + i % 26));
+        }
+        QMHistorySegment segment = writeSegment(
+            query(1000, "select * from " + name, "ds1"),
+            query(2000, "select * from t", "ds1"));
+        // Tail of long token is not indexed, so any word may match it
+        assertArrayEquals(new long[] { offset(segment, 0) }, find(segment, name.substring(80)));
+    }
+
+    @Test
+    public void testCriteria() throws IOException {
+        QMHistorySegment.Record slow = query(3000, "select 3", "ds2");
+        slow.closeTime = 8000;
+        slow.purpose = DBCExecutionPurpose.USER;
+        QMHistorySegment segment = writeSegment(
+            query(1000, "select 1", "ds1"),
+            query(2000, "select 2", "ds1"),
+            slow,
+            session(4000, "ds2"));
+
+        QMEventCriteria criteria = new QMEventCriteria();
+        criteria.setContainerId("ds2");
+        assertArrayEquals(new long[] { offset(segment, 3), offset(segment, 2) }, segment.findRecords(criteria));
+        criteria.setObjectTypes(new QMObjectType[] { QMObjectType.query });
+        assertArrayEquals(new long[] { offset(segment, 2) }, segment.findRecords(criteria));
+
+        criteria = new QMEventCriteria();
+        criteria.setStartTime(1500);
+        criteria.setEndTime(3500);
+        assertArrayEquals(new long[] { offset(segment, 2), offset(segment, 1) }, segment.findRecords(criteria));
+
+        criteria = new QMEventCriteria();
+        criteria.setMinDuration(1000);
+        criteria.setObjectTypes(new QMObjectType[] { QMObjectType.query });
+        assertArrayEquals(new long[] { offset(segment, 2) }, segment.findRecords(criteria));
+
+        criteria = new QMEventCriteria();
+        criteria.setQueryTypes(new DBCExecutionPurpose[] { DBCExecutionPurpose.USER });
+        criteria.setObjectTypes(new QMObjectType[] { QMObjectType.query });
+        assertArrayEquals(new long[] { offset(segment, 2) }, segment.findRecords(criteria));
+
+        criteria = new QMEventCriteria();
+        criteria.setContainerId("unknown");
+        assertEquals(0, segment.findRecords(criteria).length);
+    }
+
+    @Test
+    public void testSealAndReload() throws IOException {
+        QMHistorySegment segment = writeSegment(
+            query(1000, "select id from customers", "ds1"),
+            query(2000, "select x from tab", "ds2"));
+        long[] all = segment.findRecords(new QMEventCriteria());
+        segment.seal();
+        assertTrue(segment.isSealed());
+
+        // Index is read from file
+        QMHistorySegment reloaded = new QMHistorySegment(dataFile, 1000);
+        assertTrue(reloaded.isSealed());
+        assertEquals(2, reloaded.getRecordCount());
+        assertArrayEquals(all, reloaded.findRecords(new QMEventCriteria()));
+        assertArrayEquals(new long[] { all[1] }, find(reloaded, "cust"));
+        assertArrayEquals(new long[] { all[0] }, find(reloaded, "b"));
+        QMEventCriteria criteria = new QMEventCriteria();
+        criteria.setContainerId("ds2");
+        assertArrayEquals(new long[] { all[0] }, reloaded.findRecords(criteria));
+
+        try (RandomAccessFile file = new RandomAccessFile(dataFile, "r")) {
+            assertEquals("select x from tab", QMHistorySegment.readRecord(file, all[0]).queryString);
+            assertEquals("select id from customers", QMHistorySegment.readRecord(file, all[1]).queryString);
+        }
+    }
+
+    @Test
+    public void testOldIndexIsRebuilt() throws IOException {
+        QMHistorySegment segment = writeSegment(
+            query(1000, "select x from tab", "ds1"));
+        segment.seal();
+        // Index of version 1 didn't have single character tokens
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(segment.getIndexFile()))) {
+            out.writeInt(1);
+        }
+        QMHistorySegment reloaded = new QMHistorySegment(dataFile, 1000);
+        assertEquals(1, find(reloaded, "x").length);
+        // New index is saved
+        assertEquals(1, find(new QMHistorySegment(dataFile, 1000), "x").length);
+    }
+
+    @Test
+    public void testBrokenTailIsTruncated() throws IOException {
+        QMHistorySegment segment = writeSegment(
+            query(1000, "select 1", "ds1"),
+            query(2000, "select 2", "ds1"));
+        long length = dataFile.length();
+        try (FileOutputStream out = new FileOutputStream(dataFile, true)) {
+            out.write(new byte[] { 0, 0, 1, 0, 1, 2 });
+        }
+        QMHistorySegment reopened = new QMHistorySegment(dataFile, 1000);
+        reopened.openActive();
+        assertEquals(2, reopened.getRecordCount());
+        assertEquals(length, reopened.getDataLength());
+        assertEquals(length, dataFile.length());
+        assertArrayEquals(segment.findRecords(new QMEventCriteria()), reopened.findRecords(new QMEventCriteria()));
+    }
+
+    private QMHistorySegment writeSegment(QMHistorySegment.Record... records) throws IOException {
+        QMHistorySegment segment = new QMHistorySegment(dataFile, 1000);
+        segment.openActive();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(dataFile, true))) {
+            for (QMHistorySegment.Record record : records) {
+                segment.append(out, record);
+            }
+        }
+        return segment;
+    }
+
+    private static long[] find(QMHistorySegment segment, String searchString) throws IOException {
+        QMEventCriteria criteria = new QMEventCriteria();
+        criteria.setSearchString(searchString);
+        return segment.findRecords(criteria);
+    }
+
+    private static long offset(QMHistorySegment segment, int record) throws IOException {
+        long[] offsets = segment.findRecords(new QMEventCriteria());
+        return offsets[offsets.length - 1 - record];
+    }
+
+    static QMHistorySegment.Record query(long time, String text, String containerId) {
+        QMHistorySegment.Record record = new QMHistorySegment.Record();
+        record.type = QMHistorySegment.TYPE_EXECUTE;
+        record.action = QMMetaEvent.Action.END;
+        record.openTime = time;
+        record.closeTime = time + 10;
+        record.containerId = containerId;
+        record.containerName = "Database";
+        record.queryString = text;
+        return record;
+    }
+
+    private static QMHistorySegment.Record session(long time, String containerId) {
+        QMHistorySegment.Record record = new QMHistorySegment.Record();
+        record.type = QMHistorySegment.TYPE_SESSION;
+        record.action = QMMetaEvent.Action.BEGIN;
+        record.openTime = time;
+        record.containerId = containerId;
+        record.containerName = "Database";
+        record.contextName = "Main";
+        return record;
+    }
+
+}
@@ -0,0 +1,197 @@
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.qm.*;
+import org.jkiss.dbeaver.model.qm.meta.QMMSessionInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementExecuteInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementInfo;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class QMHistoryStoreTest {
+
+    @Mock
+    private DBPPreferenceStore preferenceStore;
+    @Mock
+    private DBRProgressMonitor monitor;
+
+    private File folder;
+
+    @Before
+    public void setUp() throws Exception {
+        folder = Files.createTempDirectory("qm-history").toFile();
+        when(preferenceStore.getBoolean(QMConstants.PROP_STORE_HISTORY)).thenReturn(true);
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                assertTrue(file.delete());
+            }
+        }
+        assertTrue(folder.delete());
+    }
+
+    @Test
+    public void testWriteAndReopen() throws Exception {
+        QMHistoryStore store = new QMHistoryStore(folder, preferenceStore, 1024 * 1024, 1000);
+        QMMSessionInfo session = new QMMSessionInfo(500, 0, "ds1", "Database", "driver", null, "Main", true);
+        List<QMMetaEvent> events = new ArrayList<>();
+        events.add(new QMMetaEvent(execute(session, 2000, "select 2"), QMMetaEvent.Action.END));
+        // Started queries are not stored
+        events.add(new QMMetaEvent(execute(session, 1500, "select started"), QMMetaEvent.Action.BEGIN));
+        events.add(new QMMetaEvent(execute(session, 1000, "select 1"), QMMetaEvent.Action.END));
+        events.add(new QMMetaEvent(session, QMMetaEvent.Action.BEGIN));
+        // Fresh events first
+        store.metaInfoChanged(monitor, events);
+        store.dispose();
+
+        store = new QMHistoryStore(folder, preferenceStore, 1024 * 1024, 1000);
+        try {
+            assertTrue(store.isEnabled());
+            List<QMMetaEvent> history = readAll(store, new QMEventCriteria());
+            assertEquals(3, history.size());
+            QMMStatementExecuteInfo exec = (QMMStatementExecuteInfo) history.get(0).getObject();
+            assertEquals("select 2", exec.getQueryString());
+            assertEquals(2000, exec.getOpenTime());
+            assertEquals(2010, exec.getCloseTime());
+            assertEquals(5, exec.getRowCount());
+            assertEquals(DBCExecutionPurpose.USER, exec.getStatement().getPurpose());
+            assertEquals("ds1", exec.getStatement().getSession().getContainerId());
+            assertEquals(QMMetaEvent.Action.END, history.get(0).getAction());
+            assertEquals("select 1", ((QMMStatementExecuteInfo) history.get(1).getObject()).getQueryString());
+            QMMSessionInfo sessionInfo = (QMMSessionInfo) history.get(2).getObject();
+            assertEquals("Main", sessionInfo.getContextName());
+            assertEquals(500, sessionInfo.getOpenTime());
+        } finally {
+            store.dispose();
+        }
+    }
+
+    @Test
+    public void testSegmentRotation() throws Exception {
+        QMHistoryStore store = new QMHistoryStore(folder, preferenceStore, 1024 * 1024, 10);
+        QMMSessionInfo session = new QMMSessionInfo(0, 0, "ds1", "Database", "driver", null, "Main", true);
+        for (int i = 0; i < 35; i++) {
+            store.metaInfoChanged(monitor, Collections.singletonList(
+                new QMMetaEvent(execute(session, 1000 + i, "select " + i + " from t" + (i % 5)), QMMetaEvent.Action.END)));
+        }
+        store.dispose();
+        // Three sealed segments and the active one
+        assertEquals(4, folder.listFiles((dir, name) -> name.endsWith(QMHistorySegment.DATA_FILE_EXT)).length);
+        assertEquals(3, folder.listFiles((dir, name) -> name.endsWith(QMHistorySegment.INDEX_FILE_EXT)).length);
+
+        store = new QMHistoryStore(folder, preferenceStore, 1024 * 1024, 10);
+        try {
+            List<QMMetaEvent> history = readAll(store, new QMEventCriteria());
+            assertEquals(35, history.size());
+            for (int i = 0; i < 35; i++) {
+                // Newest first across segments
+                assertEquals(1034 - i, history.get(i).getObject().getOpenTime());
+            }
+
+            QMEventCriteria criteria = new QMEventCriteria();
+            criteria.setSearchString("t3");
+            history = readAll(store, criteria);
+            assertEquals(7, history.size());
+            for (QMMetaEvent event : history) {
+                assertTrue(((QMMStatementExecuteInfo) event.getObject()).getQueryString().endsWith("t3"));
+            }
+
+            criteria = new QMEventCriteria();
+            criteria.setStartTime(1005);
+            criteria.setEndTime(1024);
+            assertEquals(20, readAll(store, criteria).size());
+        } finally {
+            store.dispose();
+        }
+    }
+
+    @Test
+    public void testCursor() throws Exception {
+        QMHistoryStore store = new QMHistoryStore(folder, preferenceStore, 1024 * 1024, 4);
+        try {
+            QMMSessionInfo session = new QMMSessionInfo(0, 0, "ds1", "Database", "driver", null, "Main", true);
+            List<QMMetaEvent> events = new ArrayList<>();
+            for (int i = 9; i >= 0; i--) {
+                events.add(new QMMetaEvent(execute(session, 1000 + i, i % 2 == 0 ? "select even" : "select odd"), QMMetaEvent.Action.END));
+            }
+            store.metaInfoChanged(monitor, events);
+            waitForWriter(store, 10);
+
+            QMEventCriteria criteria = new QMEventCriteria();
+            criteria.setSearchString("odd");
+            try (QMEventCursor cursor = store.getQueryHistoryCursor(monitor, criteria, null)) {
+                // Total size is counted by index
+                assertEquals(5, cursor.getTotalSize());
+                cursor.scroll(2, monitor);
+                assertEquals(1005, cursor.nextEvent(monitor).getObject().getOpenTime());
+                assertEquals(1003, cursor.nextEvent(monitor).getObject().getOpenTime());
+                assertEquals(1001, cursor.nextEvent(monitor).getObject().getOpenTime());
+                assertFalse(cursor.hasNextEvent(monitor));
+                cursor.scroll(0, monitor);
+                assertEquals(1009, cursor.nextEvent(monitor).getObject().getOpenTime());
+                try {
+                    cursor.scroll(6, monitor);
+                    fail("Position out of range");
+                } catch (Exception e) {
+                    // expected
+                }
+            }
+
+            // Event filter
+            QMEventFilter filter = event -> event.getObject().getOpenTime() < 1004;
+            try (QMEventCursor cursor = store.getQueryHistoryCursor(monitor, new QMEventCriteria(), filter)) {
+                List<Long> times = new ArrayList<>();
+                while (cursor.hasNextEvent(monitor)) {
+                    times.add(cursor.nextEvent(monitor).getObject().getOpenTime());
+                }
+                assertEquals(4, times.size());
+                assertEquals(Long.valueOf(1003), times.get(0));
+            }
+        } finally {
+            store.dispose();
+        }
+    }
+
+    private static QMMStatementExecuteInfo execute(QMMSessionInfo session, long time, String query) {
+        QMMStatementInfo statement = new QMMStatementInfo(time, time + 10, session, DBCExecutionPurpose.USER);
+        return new QMMStatementExecuteInfo(time, time + 10, statement, query, 5, 0, null, 0, 0, false);
+    }
+
+    private List<QMMetaEvent> readAll(QMHistoryStore store, QMEventCriteria criteria) throws Exception {
+        List<QMMetaEvent> events = new ArrayList<>();
+        try (QMEventCursor cursor = store.getQueryHistoryCursor(monitor, criteria, null)) {
+            while (cursor.hasNextEvent(monitor)) {
+                events.add(cursor.nextEvent(monitor));
+            }
+        }
+        return events;
+    }
+
+    private void waitForWriter(QMHistoryStore store, int eventCount) throws Exception {
+        for (int i = 0; i < 500 && readAll(store, new QMEventCriteria()).size() < eventCount; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(eventCount, readAll(store, new QMEventCriteria()).size());
+    }
+
+}
@@ -43,6 +43,7 @@ import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
 import org.jkiss.dbeaver.model.exec.DBExecUtils;
 import org.jkiss.dbeaver.model.impl.data.DefaultValueHandler;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
 import org.jkiss.dbeaver.model.meta.Property;
 import org.jkiss.dbeaver.model.net.DBWHandlerConfiguration;
 import org.jkiss.dbeaver.model.net.DBWHandlerType;
@@ -1272,6 +1273,16 @@ public class DataSourceDescriptor
         return connectionInfo.getConnectionType().getName();
     }
 
+    @Nullable
+    @Property(order = 10)
+    public Map<String, Object> getPropertyMetaCache()
+    {
+        if (dataSource instanceof JDBCDataSource) {
+            return ((JDBCDataSource) dataSource).getMetaCacheBudget().getStatistics();
+        }
+        return null;
+    }
+
     private void addChildProcess(DBRProcessDescriptor process)
     {
         synchronized (childProcesses) {
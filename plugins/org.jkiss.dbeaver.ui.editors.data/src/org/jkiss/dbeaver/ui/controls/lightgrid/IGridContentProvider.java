@@ -23,6 +23,8 @@ import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.model.DBPImage;
 
+import java.util.List;
+
 public interface IGridContentProvider extends IContentProvider {
 
     enum ElementState {
@@ -43,6 +45,14 @@ public interface IGridContentProvider extends IContentProvider {
     @NotNull
     Object[] getElements(boolean horizontal);
 
+    /**
+     * Returns row elements if rows have no children.
+     * Grid uses the list as is (it is not copied), so row elements may be created on demand.
+     * @return null if rows may have children. Then rows are read with {@link #getElements(boolean)}
+     */
+    @Nullable
+    List<Object> getFlatRowElements();
+
     @Nullable
     Object[] getChildren(Object element);
 
@@ -71,6 +71,7 @@ public abstract class LightGrid extends Canvas {
     private static final int COLUMN_RESIZER_THRESHOLD = 4;
     private static final int DEFAULT_ROW_HEADER_WIDTH = 30;
     private static final int MAX_ROW_HEADER_WIDTH = 400;
+    private static final int MAX_MEASURED_FLAT_ROWS = 1000;
 
 
     /**
@@ -183,8 +184,10 @@ public abstract class LightGrid extends Canvas {
     private final List<GridColumn> columns = new ArrayList<>();
     private int maxColumnDepth = 0;
     protected Object[] columnElements = new Object[0];
-    protected Object[] rowElements = new Object[0];
-    private GridNode[] parentNodes = new GridNode[0];
+    protected List<Object> rowElements = Collections.emptyList();
+    // Parent nodes of rows. Null if rows have no children
+    @Nullable
+    private List<GridNode> parentNodes;
     private final Map<Object, GridNode> rowNodes = new IdentityHashMap<>();
 
     private int maxColumnDefWidth = 1000;
@@ -634,13 +637,20 @@ public abstract class LightGrid extends Canvas {
 
     public void refreshRowsData() {
         // Prepare rows
-        Object[] initialElements = getContentProvider().getElements(false);
         this.rowNodes.clear();
+        List<Object> flatRows = getContentProvider().getFlatRowElements();
+        if (flatRows != null) {
+            // Do not copy rows: they may be created on demand
+            this.rowElements = flatRows;
+            this.parentNodes = null;
+            return;
+        }
+        Object[] initialElements = getContentProvider().getElements(false);
         List<Object> realRows = new ArrayList<>(initialElements.length);
         List<GridNode> parents = new ArrayList<>(initialElements.length);
         collectRows(realRows, parents, null, initialElements, 0);
-        this.rowElements = realRows.toArray();
-        this.parentNodes = parents.toArray(new GridNode[parents.size()]);
+        this.rowElements = realRows;
+        this.parentNodes = parents;
     }
 
     /**
@@ -677,14 +687,14 @@ public abstract class LightGrid extends Canvas {
         if (pos.col < 0 || pos.row < 0) {
             return null;
         }
-        return new GridCell(columnElements[pos.col], rowElements[pos.row]);
+        return new GridCell(columnElements[pos.col], rowElements.get(pos.row));
     }
 
     @NotNull
     public GridPos cellToPos(GridCell cell)
     {
         int colIndex = ArrayUtils.indexOf(columnElements, cell.col);
-        int rowIndex = ArrayUtils.indexOf(rowElements, cell.row);
+        int rowIndex = rowElements.indexOf(cell.row);
         return new GridPos(colIndex, rowIndex);
     }
 
@@ -697,7 +707,12 @@ public abstract class LightGrid extends Canvas {
     }
 
     public Object getRowElement(int row) {
-        return rowElements[row];
+        return rowElements.get(row);
+    }
+
+    @Nullable
+    private GridNode getParentNode(int row) {
+        return parentNodes == null ? null : parentNodes.get(row);
     }
 
     @Override
@@ -970,7 +985,7 @@ public abstract class LightGrid extends Canvas {
      */
     public int getItemCount()
     {
-        return rowElements.length;
+        return rowElements.size();
     }
 
     /**
@@ -1388,7 +1403,8 @@ public abstract class LightGrid extends Canvas {
         topColumns.clear();
         columns.clear();
         columnElements = new Object[0];
-        rowElements = new Object[0];
+        rowElements = Collections.emptyList();
+        parentNodes = null;
     }
 
     /**
@@ -1834,9 +1850,12 @@ public abstract class LightGrid extends Canvas {
 
         // Row header width
         rowHeaderWidth = DEFAULT_ROW_HEADER_WIDTH;
-        for (int i = 0; i < rowElements.length; i++) {
-            Object row = rowElements[i];
-            GridNode parentNode = parentNodes[i];
+        // Headers of flat rows differ by row number only, so the last rows are the widest.
+        // Do not measure all of them: flat rows may be created on demand.
+        int firstRow = parentNodes == null ? Math.max(0, rowElements.size() - MAX_MEASURED_FLAT_ROWS) : 0;
+        for (int i = firstRow; i < rowElements.size(); i++) {
+            Object row = rowElements.get(i);
+            GridNode parentNode = getParentNode(i);
             GridNode nr = rowNodes.get(row);
             int width = rowHeaderRenderer.computeHeaderWidth(
                 row, nr != null ? nr.level : parentNode == null ? 0 : parentNode.level + 1);
@@ -2200,7 +2219,7 @@ public abstract class LightGrid extends Canvas {
                             selectedCells.contains(testPos),
                             focusItem == row && focusColumn == column,
                             column.getElement(),
-                            rowElements[row]);
+                            rowElements.get(row));
 
                         //gc.setClipping((Rectangle) null);
                     }
@@ -2214,8 +2233,8 @@ public abstract class LightGrid extends Canvas {
 
                 x = 0;
 
-                GridNode rowNode = this.rowNodes.get(rowElements[row]);
-                GridNode parentNode = this.parentNodes[row];
+                GridNode rowNode = this.rowNodes.get(rowElements.get(row));
+                GridNode parentNode = getParentNode(row);
                 if (rowHeaderVisible) {
 
                     if (y >= headerHeight) {
@@ -2232,7 +2251,7 @@ public abstract class LightGrid extends Canvas {
                                 cellInRowSelected,
                                 parentNode == null ? 0 : parentNode.level,
                                 rowNode == null ? IGridContentProvider.ElementState.NONE : rowNode.state,
-                                rowElements[row]);
+                                rowElements.get(row));
                         } finally {
                             gc.setClipping((Rectangle)null);
                         }
@@ -2860,8 +2879,8 @@ public abstract class LightGrid extends Canvas {
                 }
 
                 if (e.button == 1 && !shift && !ctrl) {
-                    GridNode node = rowNodes.get(rowElements[row]);
-                    GridNode parentNode = parentNodes[row];
+                    GridNode node = rowNodes.get(rowElements.get(row));
+                    GridNode parentNode = getParentNode(row);
                     if (node != null && node.state != IGridContentProvider.ElementState.NONE) {
                         if (GridRowRenderer.isOverExpander(e.x, parentNode == null ? 0 : parentNode.level))
                         {
@@ -2959,7 +2978,7 @@ public abstract class LightGrid extends Canvas {
         if (selectionEvent != null) {
             selectionEvent.stateMask = e.stateMask;
             selectionEvent.button = e.button;
-            selectionEvent.data = new GridCell(col == null ? null : col.getElement(), row < 0 ? null : rowElements[row]);
+            selectionEvent.data = new GridCell(col == null ? null : col.getElement(), row < 0 ? null : rowElements.get(row));
             selectionEvent.x = e.x;
             selectionEvent.y = e.y;
             notifyListeners(SWT.Selection, selectionEvent);
@@ -2969,7 +2988,7 @@ public abstract class LightGrid extends Canvas {
     }
 
     private void toggleRowState(int row) {
-        GridNode node = rowNodes.get(rowElements[row]);
+        GridNode node = rowNodes.get(rowElements.get(row));
         if (node == null || node.state == IGridContentProvider.ElementState.NONE) {
             log.error("Row [" + row + "] state can't be toggled");
             return;
@@ -2977,21 +2996,21 @@ public abstract class LightGrid extends Canvas {
         if (node.state == IGridContentProvider.ElementState.EXPANDED) {
             // Collapse node. Remove all elements with different parent
             int deleteTo;
-            for (deleteTo = row + 1; deleteTo < rowElements.length; deleteTo++) {
-                if (!node.isParentOf(parentNodes[deleteTo])) {
+            for (deleteTo = row + 1; deleteTo < rowElements.size(); deleteTo++) {
+                if (!node.isParentOf(getParentNode(deleteTo))) {
                     break;
                 }
             }
-            rowElements = ArrayUtils.deleteArea(Object.class, rowElements, row + 1, deleteTo - 1);
-            parentNodes = ArrayUtils.deleteArea(GridNode.class, parentNodes, row + 1, deleteTo - 1);
+            rowElements.subList(row + 1, deleteTo).clear();
+            parentNodes.subList(row + 1, deleteTo).clear();
             node.state = IGridContentProvider.ElementState.COLLAPSED;
         } else {
             // Expand node
             List<Object> result = new ArrayList<>();
             List<GridNode> parents = new ArrayList<>();
             collectRows(result, parents, node, node.rows, node.level);
-            rowElements = ArrayUtils.insertArea(Object.class, rowElements, row + 1, result.toArray());
-            parentNodes = ArrayUtils.insertArea(GridNode.class, parentNodes, row + 1, parents.toArray());
+            rowElements.addAll(row + 1, result);
+            parentNodes.addAll(row + 1, parents);
             node.state = IGridContentProvider.ElementState.EXPANDED;
         }
 
@@ -3029,13 +3048,13 @@ public abstract class LightGrid extends Canvas {
                 if (col != null) {
                     if (isListening(SWT.DefaultSelection)) {
                         Event newEvent = new Event();
-                        newEvent.data = new GridCell(col.getElement(), rowElements[row]);
+                        newEvent.data = new GridCell(col.getElement(), rowElements.get(row));
 
                         notifyListeners(SWT.DefaultSelection, newEvent);
                     }
                 } else {
-                    GridNode node = rowNodes.get(rowElements[row]);
-                    GridNode parentNode = parentNodes[row];
+                    GridNode node = rowNodes.get(rowElements.get(row));
+                    GridNode parentNode = getParentNode(row);
                     if (node != null && node.state != IGridContentProvider.ElementState.NONE) {
                         if (!GridRowRenderer.isOverExpander(e.x, parentNode == null ? 0 : parentNode.level))
                         {
@@ -3061,7 +3080,7 @@ public abstract class LightGrid extends Canvas {
                 event.x = e.x;
                 event.y = e.y;
                 event.stateMask = e.stateMask;
-                event.data = new GridCell(focusColumn.getElement(), rowElements[focusItem]);
+                event.data = new GridCell(focusColumn.getElement(), rowElements.get(focusItem));
                 notifyListeners(Event_NavigateLink, event);
                 return;
             }
@@ -3120,7 +3139,7 @@ public abstract class LightGrid extends Canvas {
                 GridColumn column = getColumn(point);
                 int rowIndex = getRow(point);
                 if (column != null && rowIndex >= 0) {
-                    se.data = new GridCell(column.getElement(), rowElements[rowIndex]);
+                    se.data = new GridCell(column.getElement(), rowElements.get(rowIndex));
                 }
                 se.stateMask = e.stateMask;
                 se.x = e.x;
@@ -3290,7 +3309,7 @@ public abstract class LightGrid extends Canvas {
             GridColumn column = getColumn(point);
             int rowIndex = getRow(point);
             if (column != null && rowIndex >= 0) {
-                selectionEvent.data = new GridCell(column.getElement(), rowElements[rowIndex]);
+                selectionEvent.data = new GridCell(column.getElement(), rowElements.get(rowIndex));
             }
             selectionEvent.x = e.x;
             selectionEvent.y = e.y;
@@ -3394,9 +3413,9 @@ public abstract class LightGrid extends Canvas {
             focusColumn = getColumn(0);
         }
 
-        if (e.character == '\r' && focusItem >= 0 && focusItem < rowElements.length) {
+        if (e.character == '\r' && focusItem >= 0 && focusItem < rowElements.size()) {
             Event newEvent = new Event();
-            newEvent.data = new GridCell(focusColumn.getElement(), rowElements[focusItem]);
+            newEvent.data = new GridCell(focusColumn.getElement(), rowElements.get(focusItem));
 
             notifyListeners(SWT.DefaultSelection, newEvent);
             return;
@@ -3529,7 +3548,7 @@ public abstract class LightGrid extends Canvas {
             case SWT.KEYPAD_ADD:
             case SWT.KEYPAD_SUBTRACT:
                 if (focusItem >= 0) {
-                    GridNode node = rowNodes.get(rowElements[focusItem]);
+                    GridNode node = rowNodes.get(rowElements.get(focusItem));
                     if (node != null) {
                         boolean isPlus = (e.keyCode == '+' || e.keyCode == '=' || e.keyCode == SWT.KEYPAD_ADD);
                         if ((node.state == IGridContentProvider.ElementState.EXPANDED && !isPlus) ||
@@ -3572,8 +3591,8 @@ public abstract class LightGrid extends Canvas {
             showItem(newSelection);
 
             GridCell newPos;
-            if (newSelection >= 0 && newSelection < rowElements.length) {
-                newPos = new GridCell(newColumnFocus.getElement(), rowElements[newSelection]);
+            if (newSelection >= 0 && newSelection < rowElements.size()) {
+                newPos = new GridCell(newColumnFocus.getElement(), rowElements.get(newSelection));
             } else {
                 newPos = null;
             }
@@ -3736,7 +3755,7 @@ public abstract class LightGrid extends Canvas {
             String newTip = null;
             if ((hoveringItem >= 0) && (hoveringColumn != null)) {
                 if (overLink) {
-                    newTip = getContentProvider().getCellLinkText(columnElements[col.getIndex()], rowElements[row]);
+                    newTip = getContentProvider().getCellLinkText(columnElements[col.getIndex()], rowElements.get(row));
                 }
                 if (CommonUtils.isEmpty(newTip)) {
                     // get cell specific tooltip
@@ -3850,10 +3869,10 @@ public abstract class LightGrid extends Canvas {
 
     @Nullable
     public Object getFocusRowElement() {
-        if (focusItem < 0 || focusItem >= rowElements.length) {
+        if (focusItem < 0 || focusItem >= rowElements.size()) {
             return null;
         }
-        return rowElements[focusItem];
+        return rowElements.get(focusItem);
     }
 
     @Nullable
@@ -4240,7 +4259,7 @@ public abstract class LightGrid extends Canvas {
     @Nullable
     private String getCellToolTip(GridColumn col, int row)
     {
-        String toolTip = getCellText(columnElements[col.getIndex()], rowElements[row]);
+        String toolTip = getCellText(columnElements[col.getIndex()], rowElements.get(row));
         if (toolTip == null) {
             return null;
         }
@@ -38,12 +38,16 @@ class ResultSetDataReceiver implements DBDDataReceiver {
 
     private static final Log log = Log.getLog(ResultSetDataReceiver.class);
 
+    // Page size for "fetch all". Rows are pushed to the model by pages, so model can spill them to disk
+    private static final int FETCH_ALL_PAGE_SIZE = 10000;
+
     private ResultSetViewer resultSetViewer;
     private int columnsCount;
     private DBDAttributeBindingMeta[] metaColumns;
     private List<Object[]> rows = new ArrayList<>();
     private boolean hasMoreData;
     private boolean nextSegmentRead;
+    private boolean pagesFlushed;
     private long offset;
     private long maxRows;
 
@@ -89,6 +93,7 @@ class ResultSetDataReceiver implements DBDDataReceiver {
     {
         this.errorList.clear();
         this.rows.clear();
+        this.pagesFlushed = false;
         this.offset = offset;
         this.maxRows = maxRows;
 
@@ -149,6 +154,29 @@ class ResultSetDataReceiver implements DBDDataReceiver {
             }
         }
         rows.add(row);
+
+        if (nextSegmentRead && maxRows <= 0 && rows.size() >= FETCH_ALL_PAGE_SIZE) {
+            flushPage();
+        }
+    }
+
+    private void flushPage() {
+        final List<Object[]> page = rows;
+        final boolean reread = !pagesFlushed && isRereadOnScrolling();
+        rows = new ArrayList<>();
+        pagesFlushed = true;
+        UIUtils.syncExec(() -> {
+            if (reread) {
+                ResultSetRow currentRow = resultSetViewer.getCurrentRow();
+                resultSetViewer.setData(page, currentRow == null ? 0 : currentRow.getVisualNumber());
+            } else {
+                resultSetViewer.appendData(page);
+            }
+        });
+    }
+
+    private boolean isRereadOnScrolling() {
+        return resultSetViewer.getDataContainer().getDataSource().getContainer().getPreferenceStore().getBoolean(ResultSetPreferences.RESULT_SET_REREAD_ON_SCROLLING);
     }
 
     @Override
@@ -172,6 +200,7 @@ class ResultSetDataReceiver implements DBDDataReceiver {
         final List<Object[]> tmpRows = rows;
 
         final boolean nextSegmentRead = this.nextSegmentRead;
+        final boolean pagesFlushed = this.pagesFlushed;
         UIUtils.syncExec(() -> {
             // Push data into viewer
             if (!nextSegmentRead) {
@@ -181,7 +210,7 @@ class ResultSetDataReceiver implements DBDDataReceiver {
                 resultSetViewer.getActivePresentation().refreshData(true, false, !metadataChanged);
                 resultSetViewer.updateStatusMessage();
             } else {
-                if (resultSetViewer.getDataContainer().getDataSource().getContainer().getPreferenceStore().getBoolean(ResultSetPreferences.RESULT_SET_REREAD_ON_SCROLLING)) {
+                if (!pagesFlushed && isRereadOnScrolling()) {
                     ResultSetRow currentRow = resultSetViewer.getCurrentRow();
                     resultSetViewer.setData(tmpRows, currentRow == null ? 0 : currentRow.getVisualNumber());
                 } else {
@@ -198,6 +227,7 @@ class ResultSetDataReceiver implements DBDDataReceiver {
     public void close()
     {
         nextSegmentRead = false;
+        pagesFlushed = false;
 
         attrErrors.clear();
         rows = new ArrayList<>();
@@ -31,14 +31,17 @@ import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.exec.trace.DBCTrace;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.struct.*;
 import org.jkiss.dbeaver.model.virtual.DBVColorOverride;
 import org.jkiss.dbeaver.model.virtual.DBVEntity;
 import org.jkiss.dbeaver.model.virtual.DBVUtils;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -57,7 +60,15 @@ public class ResultSetModel {
     private DBCExecutionSource executionSource;
 
     // Data
-    private List<ResultSetRow> curRows = new ArrayList<>();
+    private ResultSetRowList curRows = new ResultSetRowList(this::initSpilledRow);
+    // Columnar storage of fetched rows
+    private ResultSetValueStore valueStore;
+    // Rows spilled to disk
+    private ResultSetSpillStore spillStore;
+    private int spillRowThreshold;
+    private long spillByteThreshold;
+    private long heapBytes;
+    private boolean spillFailed;
     private Long totalRowCount = null;
     private int changesCount = 0;
     private volatile boolean hasData = false;
@@ -179,7 +190,7 @@ public class ResultSetModel {
 
     public void refreshChangeCount() {
         changesCount = 0;
-        for (ResultSetRow row : curRows) {
+        for (ResultSetRow row : curRows.getLoadedRows()) {
             if (row.getState() != ResultSetRow.STATE_NORMAL) {
                 changesCount++;
             } else if (row.changes != null) {
@@ -276,9 +287,25 @@ public class ResultSetModel {
         return curRows;
     }
 
+    /**
+     * Returns rows kept in memory. Other rows are spilled to disk and have no changes.
+     */
+    @NotNull
+    List<ResultSetRow> getLoadedRows() {
+        return curRows.getLoadedRows();
+    }
+
+    /**
+     * Returns copy of rows list which can be read in another thread
+     */
+    @NotNull
+    List<ResultSetRow> copyRows() {
+        return curRows.copy();
+    }
+
     @NotNull
     public Object[] getRowData(int index) {
-        return curRows.get(index).values;
+        return curRows.get(index).getValues();
     }
 
     @NotNull
@@ -299,14 +326,14 @@ public class ResultSetModel {
         int depth = attribute.getLevel();
         if (depth == 0) {
             final int index = attribute.getOrdinalPosition();
-            if (index >= row.values.length) {
+            if (index >= row.getValueCount()) {
                 log.debug("Bad attribute - index out of row values' bounds");
                 return null;
             } else {
-                return row.values[index];
+                return row.getValue(index);
             }
         }
-        Object curValue = row.values[attribute.getTopParent().getOrdinalPosition()];
+        Object curValue = row.getValue(attribute.getTopParent().getOrdinalPosition());
 
         for (int i = 0; i < depth; i++) {
             if (curValue == null) {
@@ -346,7 +373,7 @@ public class ResultSetModel {
         } else {
             rootIndex = attr.getTopParent().getOrdinalPosition();
         }
-        Object rootValue = row.values[rootIndex];
+        Object rootValue = row.getValue(rootIndex);
         Object ownerValue = depth > 0 ? rootValue : null;
         {
             // Obtain owner value and create all intermediate values
@@ -414,7 +441,7 @@ public class ResultSetModel {
             if (ownerValue != null) {
                 ((DBDComposite) ownerValue).setAttributeValue(attr.getAttribute(), value);
             } else {
-                row.values[rootIndex] = value;
+                row.setValue(rootIndex, value);
             }
             return true;
         }
@@ -612,7 +639,13 @@ public class ResultSetModel {
                 }
             }
         }
-        updateRowColors(reset, curRows);
+        updateRowColors(reset, curRows.getLoadedRows());
+    }
+
+    private void initSpilledRow(@NotNull ResultSetRow row) {
+        if (!colorMapping.isEmpty()) {
+            updateRowColors(false, Collections.singletonList(row));
+        }
     }
 
     private void updateRowColors(boolean reset, List<ResultSetRow> rows) {
@@ -695,15 +728,68 @@ public class ResultSetModel {
     public void appendData(@NotNull List<Object[]> rows) {
         int rowCount = rows.size();
         int firstRowNum = curRows.size();
-        List<ResultSetRow> newRows = new ArrayList<>(rowCount);
+        List<ResultSetRow> newRows = new ArrayList<>();
         for (int i = 0; i < rowCount; i++) {
-            newRows.add(
-                new ResultSetRow(firstRowNum + i, rows.get(i)));
+            Object[] rowValues = rows.get(i);
+            if (isSpillRequired(firstRowNum + i)) {
+                int spillIndex = spillRow(rowValues);
+                if (spillIndex >= 0) {
+                    // Row object will be created when row is read
+                    curRows.addSpilled(spillStore, spillIndex, firstRowNum + i);
+                    continue;
+                }
+            }
+            if (valueStore == null || valueStore.getColumnCount() != rowValues.length) {
+                valueStore = new ResultSetValueStore(rowValues.length);
+            }
+            ResultSetRow row = new ResultSetRow(firstRowNum + i, valueStore, valueStore.addRow(rowValues));
+            if (spillByteThreshold > 0) {
+                heapBytes += ResultSetSpillStore.estimateHeapSize(rowValues);
+            }
+            curRows.add(row);
+            newRows.add(row);
         }
-        curRows.addAll(newRows);
         updateRowColors(false, newRows);
     }
 
+    /**
+     * Sets limits after which fetched rows are spilled to disk.
+     * @param rows row count threshold. Zero means no limit
+     * @param bytes estimated heap size threshold. Zero means no limit
+     */
+    void setSpillThreshold(int rows, long bytes) {
+        this.spillRowThreshold = rows;
+        this.spillByteThreshold = bytes;
+    }
+
+    private boolean isSpillRequired(int rowNum) {
+        if (spillFailed) {
+            return false;
+        }
+        return spillStore != null ||
+            (spillRowThreshold > 0 && rowNum >= spillRowThreshold) ||
+            (spillByteThreshold > 0 && heapBytes >= spillByteThreshold);
+    }
+
+    /**
+     * @return spill store index or -1 if row wasn't spilled
+     */
+    private int spillRow(@NotNull Object[] rowValues) {
+        try {
+            if (spillStore == null) {
+                spillStore = new ResultSetSpillStore(
+                    rowValues.length,
+                    DBWorkbench.getPlatform().getTempFolder(new VoidProgressMonitor(), "resultset-spill"));
+            }
+            return spillStore.addRow(rowValues);
+        } catch (IOException e) {
+            // Already spilled rows are still readable. Keep the rest in memory
+            log.error("Error spilling result set rows to disk", e);
+            spillFailed = true;
+            return -1;
+        }
+    }
+
     void clearData() {
         // Refresh all rows
         this.releaseAll();
@@ -793,7 +879,8 @@ public class ResultSetModel {
     }
 
     private void shiftRows(@NotNull ResultSetRow relative, int delta) {
-        for (ResultSetRow row : curRows) {
+        curRows.shiftSpilledRowNumbers(relative.getRowNumber(), delta);
+        for (ResultSetRow row : curRows.getLoadedRows()) {
             if (row.getVisualNumber() >= relative.getVisualNumber()) {
                 row.setVisualNumber(row.getVisualNumber() + delta);
             }
@@ -804,8 +891,13 @@ public class ResultSetModel {
     }
 
     private void releaseAll() {
-        final List<ResultSetRow> oldRows = curRows;
-        this.curRows = new ArrayList<>();
+        final List<ResultSetRow> oldRows = curRows.getLoadedRows();
+        this.curRows = new ResultSetRowList(this::initSpilledRow);
+        final ResultSetSpillStore oldSpillStore = spillStore;
+        this.valueStore = null;
+        this.spillStore = null;
+        this.heapBytes = 0;
+        this.spillFailed = false;
         this.totalRowCount = null;
 
         // Cleanup in separate job.
@@ -820,6 +912,9 @@ public class ResultSetModel {
                 for (ResultSetRow row : oldRows) {
                     row.release();
                 }
+                if (oldSpillStore != null) {
+                    oldSpillStore.close();
+                }
                 return Status.OK_STATUS;
             }
         }.schedule();
@@ -921,34 +1016,25 @@ public class ResultSetModel {
     }
 
     public void resetOrdering() {
-        final boolean hasOrdering = dataFilter.hasOrdering();
         // Sort locally
-        final List<DBDAttributeConstraint> orderConstraints = dataFilter.getOrderConstraints();
-        curRows.sort((row1, row2) -> {
-            if (!hasOrdering) {
-                return row1.getRowNumber() - row2.getRowNumber();
-            }
-            int result = 0;
-            for (DBDAttributeConstraint co : orderConstraints) {
-                final DBDAttributeBinding binding = getAttributeBinding(co.getAttribute());
-                if (binding == null) {
-                    continue;
-                }
-                Object cell1 = getCellValue(binding, row1);
-                Object cell2 = getCellValue(binding, row2);
-                result = DBUtils.compareDataValues(cell1, cell2);
-                if (co.isOrderDescending()) {
-                    result = -result;
-                }
-                if (result != 0) {
-                    break;
-                }
-            }
-            return result;
-        });
-        for (int i = 0; i < curRows.size(); i++) {
-            curRows.get(i).setVisualNumber(i);
+        int[] order = new ResultSetSorter(this).sortRows(new VoidProgressMonitor(), curRows);
+        if (order != null) {
+            applyOrdering(curRows, order);
+        }
+    }
+
+    /**
+     * Applies rows order calculated by {@link ResultSetSorter}.
+     * @param rows model rows list which was sorted (see {@link #getAllRows()})
+     * @param order positions of rows in sorted order
+     * @return false if model data was reloaded or rows were added/removed and new order can't be applied
+     */
+    boolean applyOrdering(@NotNull List<ResultSetRow> rows, @NotNull int[] order) {
+        if (rows != curRows || order.length != curRows.size()) {
+            return false;
         }
+        curRows.reorder(order);
+        return true;
     }
 
     private void fillVisibleAttributes() {
@@ -182,7 +182,7 @@ class ResultSetPersister {
         deletedRows.clear();
         addedRows.clear();
         changedRows.clear();
-        for (ResultSetRow row : model.getAllRows()) {
+        for (ResultSetRow row : model.getLoadedRows()) {
             switch (row.getState()) {
                 case ResultSetRow.STATE_NORMAL:
                     if (row.isChanged()) {
@@ -383,8 +383,8 @@ class ResultSetPersister {
         if (!stat.updatedCells.isEmpty()) {
             for (Map.Entry<Integer, Object> entry : stat.updatedCells.entrySet()) {
                 ResultSetRow row = stat.row;
-                DBUtils.releaseValue(row.values[entry.getKey()]);
-                row.values[entry.getKey()] = entry.getValue();
+                DBUtils.releaseValue(row.getValue(entry.getKey()));
+                row.setValue(entry.getKey(), entry.getValue());
             }
         }
     }
@@ -838,7 +838,7 @@ class ResultSetPersister {
                         List<DBDAttributeConstraint> constraints = new ArrayList<>();
                         boolean hasKey = true;
                         for (DBDAttributeBinding keyAttr : idAttributes) {
-                            final Object keyValue = row.values[keyAttr.getOrdinalPosition()];
+                            final Object keyValue = row.getValue(keyAttr.getOrdinalPosition());
                             if (DBUtils.isNullValue(keyValue)) {
                                 hasKey = false;
                                 break;
@@ -866,7 +866,7 @@ class ResultSetPersister {
                     if (!viewer.getControl().isDisposed() && viewer.getModel().getAttributes() == curAttributes) {
                         for (int i = 0; i < rows.size(); i++) {
                             if (refreshValues[i] != null) {
-                                rows.get(i).values = refreshValues[i];
+                                rows.get(i).setValues(refreshValues[i]);
                             }
                         }
                         viewer.redrawData(false, true);
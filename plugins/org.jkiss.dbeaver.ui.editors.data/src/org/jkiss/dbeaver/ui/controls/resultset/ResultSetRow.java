@@ -52,9 +52,12 @@ public class ResultSetRow {
     private int rowNumber;
     // Row number in grid
     private int visualNumber;
-    // Column values
-    @NotNull
-    public Object[] values;
+    // Column values. Null if values are kept in the columnar store or spilled to disk
+    @Nullable
+    private Object[] values;
+    @Nullable
+    private ResultSetRowStore valueStore;
+    private int storeIndex;
     @Nullable
     public Map<DBDAttributeBinding, Object> changes;
     // Row state
@@ -71,11 +74,67 @@ public class ResultSetRow {
         this.state = STATE_NORMAL;
     }
 
+    ResultSetRow(int rowNumber, @NotNull ResultSetRowStore valueStore, int storeIndex) {
+        this.rowNumber = rowNumber;
+        this.visualNumber = rowNumber;
+        this.valueStore = valueStore;
+        this.storeIndex = storeIndex;
+        this.state = STATE_NORMAL;
+    }
+
+    /**
+     * Returns row values.
+     * For rows kept in the columnar store returns a copy, so use {@link #setValue(int, Object)} to change values.
+     */
     @NotNull
     public Object[] getValues() {
+        if (values == null) {
+            assert valueStore != null;
+            return valueStore.getRowValues(storeIndex);
+        }
         return values;
     }
 
+    @Nullable
+    public Object getValue(int index) {
+        if (values == null) {
+            assert valueStore != null;
+            return valueStore.getValue(storeIndex, index);
+        }
+        return values[index];
+    }
+
+    public int getValueCount() {
+        if (values == null) {
+            assert valueStore != null;
+            return valueStore.getColumnCount();
+        }
+        return values.length;
+    }
+
+    void setValue(int index, @Nullable Object value) {
+        if (values == null) {
+            // Edited rows are kept as plain values
+            assert valueStore != null;
+            values = valueStore.getRowValues(storeIndex);
+            valueStore = null;
+        }
+        values[index] = value;
+    }
+
+    void setValues(@NotNull Object[] values) {
+        this.values = values;
+        this.valueStore = null;
+    }
+
+    /**
+     * Returns true if row has no state besides values kept in the row store,
+     * so it can be dropped and created from the store again.
+     */
+    boolean isStored() {
+        return values == null && valueStore != null && state == STATE_NORMAL && changes == null && collections == null;
+    }
+
     public boolean isChanged() {
         return changes != null && !changes.isEmpty();
     }
@@ -124,8 +183,12 @@ public class ResultSetRow {
     }
 
     void release() {
-        for (Object value : values) {
-            DBUtils.releaseValue(value);
+        if (values != null) {
+            for (Object value : values) {
+                DBUtils.releaseValue(value);
+            }
+        } else if (valueStore != null) {
+            valueStore.releaseRow(storeIndex);
         }
         if (changes != null) {
             for (Object oldValue : changes.values()) {
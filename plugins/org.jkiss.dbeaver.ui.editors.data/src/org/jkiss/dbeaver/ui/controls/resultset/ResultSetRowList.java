@@ -0,0 +1,309 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Result set rows.
+ *
+ * Rows spilled to disk are kept as a range of spill store indexes. Their row objects are created on demand
+ * and only recently used rows are kept on heap. Spilled rows with changes are never dropped.
+ * Rows are added to the end, only rows kept on heap can be inserted or removed.
+ */
+class ResultSetRowList extends AbstractList<ResultSetRow> implements RandomAccess {
+
+    private static final int MAX_LOADED_ROWS = 1000;
+
+    @Nullable
+    private final Consumer<ResultSetRow> rowInitializer;
+    private final List<ResultSetRow> heapRows;
+    @Nullable
+    private ResultSetSpillStore spillStore;
+    private int spillCount;
+    private int spillFirstRowNumber;
+    // Row numbers of spilled rows. Null while they are sequential
+    @Nullable
+    private int[] spillRowNumbers;
+    // Row positions. Null while heap rows are followed by spilled rows in store order.
+    // Heap rows are encoded as -(heap row index + 1), spilled rows as spill store index
+    @Nullable
+    private int[] order;
+    // Spilled rows with changes
+    private final Map<Integer, ResultSetRow> pinnedRows;
+    private final Map<Integer, ResultSetRow> loadedRows = new LinkedHashMap<Integer, ResultSetRow>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ResultSetRow> eldest) {
+            if (size() <= MAX_LOADED_ROWS) {
+                return false;
+            }
+            if (!eldest.getValue().isStored()) {
+                pinnedRows.put(eldest.getKey(), eldest.getValue());
+            }
+            return true;
+        }
+    };
+
+    ResultSetRowList(@Nullable Consumer<ResultSetRow> rowInitializer) {
+        this.rowInitializer = rowInitializer;
+        this.heapRows = new ArrayList<>();
+        this.pinnedRows = new HashMap<>();
+    }
+
+    private ResultSetRowList(@NotNull ResultSetRowList source) {
+        this.rowInitializer = null;
+        this.heapRows = new ArrayList<>(source.heapRows);
+        this.spillStore = source.spillStore;
+        this.spillCount = source.spillCount;
+        this.spillFirstRowNumber = source.spillFirstRowNumber;
+        this.spillRowNumbers = source.spillRowNumbers == null ? null : source.spillRowNumbers.clone();
+        this.order = source.order == null ? null : Arrays.copyOf(source.order, source.size());
+        this.pinnedRows = new HashMap<>(source.pinnedRows);
+        for (Map.Entry<Integer, ResultSetRow> entry : source.loadedRows.entrySet()) {
+            if (!entry.getValue().isStored()) {
+                this.pinnedRows.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns a copy which can be read in another thread while this list is modified.
+     * Rows of the copy are not initialized.
+     */
+    @NotNull
+    ResultSetRowList copy() {
+        return new ResultSetRowList(this);
+    }
+
+    @Override
+    public int size() {
+        return heapRows.size() + spillCount;
+    }
+
+    @NotNull
+    @Override
+    public ResultSetRow get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Row " + index + " is out of bounds (" + size() + ")");
+        }
+        int entry = getEntry(index);
+        if (entry < 0) {
+            return heapRows.get(-entry - 1);
+        }
+        ResultSetRow row = getSpilledRow(entry);
+        row.setVisualNumber(index);
+        return row;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (o instanceof ResultSetRow) {
+            // Row knows its position
+            int index = ((ResultSetRow) o).getVisualNumber();
+            if (index >= 0 && index < size() && get(index).equals(o)) {
+                return index;
+            }
+        }
+        return super.indexOf(o);
+    }
+
+    /**
+     * Inserts row kept on heap
+     */
+    @Override
+    public void add(int index, @NotNull ResultSetRow row) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Row " + index + " is out of bounds (" + size() + ")");
+        }
+        modCount++;
+        if (order == null && index <= heapRows.size()) {
+            heapRows.add(index, row);
+            return;
+        }
+        int[] entries = ensureOrder(size() + 1);
+        System.arraycopy(entries, index, entries, index + 1, size() - index);
+        entries[index] = -(heapRows.size() + 1);
+        heapRows.add(row);
+    }
+
+    /**
+     * Removes row kept on heap. Spilled rows can't be removed
+     * (model removes only added rows which are always kept on heap).
+     */
+    @NotNull
+    @Override
+    public ResultSetRow remove(int index) {
+        ResultSetRow row = get(index);
+        int entry = getEntry(index);
+        if (entry >= 0) {
+            throw new UnsupportedOperationException("Spilled row can't be removed");
+        }
+        modCount++;
+        int heapIndex = -entry - 1;
+        heapRows.remove(heapIndex);
+        if (order != null) {
+            int size = size();
+            System.arraycopy(order, index + 1, order, index, size - index);
+            for (int i = 0; i < size; i++) {
+                if (order[i] < entry) {
+                    order[i]++;
+                }
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Appends row spilled to disk
+     */
+    void addSpilled(@NotNull ResultSetSpillStore store, int storeIndex, int rowNumber) {
+        if (spillStore == null) {
+            spillStore = store;
+            spillFirstRowNumber = rowNumber;
+        }
+        assert store == spillStore && storeIndex == spillCount;
+        modCount++;
+        if (spillRowNumbers == null && rowNumber != spillFirstRowNumber + storeIndex) {
+            makeSpillRowNumbers(storeIndex + 1);
+        }
+        if (spillRowNumbers != null) {
+            if (storeIndex >= spillRowNumbers.length) {
+                spillRowNumbers = Arrays.copyOf(spillRowNumbers, Math.max(storeIndex + 1, spillRowNumbers.length * 2));
+            }
+            spillRowNumbers[storeIndex] = rowNumber;
+        }
+        if (order != null) {
+            ensureOrder(size() + 1)[size()] = storeIndex;
+        }
+        spillCount++;
+    }
+
+    /**
+     * Changes row numbers of spilled rows which aren't loaded.
+     * Loaded rows are shifted by model.
+     */
+    void shiftSpilledRowNumbers(int fromRowNumber, int delta) {
+        if (spillCount == 0 || (spillRowNumbers == null && getSpilledRowNumber(spillCount - 1) < fromRowNumber)) {
+            return;
+        }
+        if (spillRowNumbers == null) {
+            makeSpillRowNumbers(spillCount);
+        }
+        for (int i = 0; i < spillCount; i++) {
+            if (spillRowNumbers[i] >= fromRowNumber) {
+                spillRowNumbers[i] += delta;
+            }
+        }
+    }
+
+    /**
+     * Changes rows order.
+     * @param newOrder old positions of rows in new order
+     */
+    void reorder(@NotNull int[] newOrder) {
+        int size = size();
+        assert newOrder.length == size;
+        modCount++;
+        int[] entries = new int[size];
+        for (int i = 0; i < size; i++) {
+            entries[i] = getEntry(newOrder[i]);
+        }
+        order = entries;
+        for (int i = 0; i < size; i++) {
+            int entry = entries[i];
+            ResultSetRow row = entry < 0 ? heapRows.get(-entry - 1) : getLoadedSpilledRow(entry);
+            if (row != null) {
+                row.setVisualNumber(i);
+            }
+        }
+    }
+
+    /**
+     * Returns rows kept in memory, in rows order. Rows which aren't loaded have no changes.
+     */
+    @NotNull
+    List<ResultSetRow> getLoadedRows() {
+        if (spillCount == 0) {
+            return new ArrayList<>(heapRows);
+        }
+        List<ResultSetRow> rows = new ArrayList<>(heapRows.size() + pinnedRows.size() + loadedRows.size());
+        rows.addAll(heapRows);
+        rows.addAll(pinnedRows.values());
+        rows.addAll(loadedRows.values());
+        rows.sort(Comparator.comparingInt(ResultSetRow::getVisualNumber));
+        return rows;
+    }
+
+    private int getEntry(int index) {
+        if (order != null) {
+            return order[index];
+        }
+        return index < heapRows.size() ? -(index + 1) : index - heapRows.size();
+    }
+
+    @NotNull
+    private int[] ensureOrder(int capacity) {
+        if (order == null) {
+            int size = size();
+            int[] entries = new int[Math.max(capacity, size + size / 2)];
+            for (int i = 0; i < size; i++) {
+                entries[i] = getEntry(i);
+            }
+            order = entries;
+        } else if (order.length < capacity) {
+            order = Arrays.copyOf(order, Math.max(capacity, order.length + order.length / 2));
+        }
+        return order;
+    }
+
+    private void makeSpillRowNumbers(int capacity) {
+        int[] rowNumbers = new int[Math.max(capacity, spillCount)];
+        for (int i = 0; i < spillCount; i++) {
+            rowNumbers[i] = spillFirstRowNumber + i;
+        }
+        spillRowNumbers = rowNumbers;
+    }
+
+    private int getSpilledRowNumber(int storeIndex) {
+        return spillRowNumbers == null ? spillFirstRowNumber + storeIndex : spillRowNumbers[storeIndex];
+    }
+
+    @Nullable
+    private ResultSetRow getLoadedSpilledRow(int storeIndex) {
+        ResultSetRow row = pinnedRows.get(storeIndex);
+        return row != null ? row : loadedRows.get(storeIndex);
+    }
+
+    @NotNull
+    private ResultSetRow getSpilledRow(int storeIndex) {
+        ResultSetRow row = getLoadedSpilledRow(storeIndex);
+        if (row == null) {
+            assert spillStore != null;
+            row = new ResultSetRow(getSpilledRowNumber(storeIndex), spillStore, storeIndex);
+            if (rowInitializer != null) {
+                rowInitializer.accept(row);
+            }
+            loadedRows.put(storeIndex, row);
+        }
+        return row;
+    }
+
+}
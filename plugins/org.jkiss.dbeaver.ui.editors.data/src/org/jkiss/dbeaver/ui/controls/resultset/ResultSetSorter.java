@@ -0,0 +1,369 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDAttributeConstraint;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Client-side result set rows sorter.
+ *
+ * Sort keys are extracted once per row. Integer, floating point and date/time columns keep keys in
+ * primitive arrays, other columns are compared with {@link DBUtils#compareDataValues(Object, Object)}.
+ * Row indexes are sorted with parallel merge sort over primitive int arrays, so sorter may be used in background thread.
+ * Sorter doesn't modify model - it returns new rows order.
+ */
+class ResultSetSorter {
+
+    private final ResultSetModel model;
+    private final List<DBDAttributeBinding> bindings = new ArrayList<>();
+    private final List<Boolean> descending = new ArrayList<>();
+
+    /**
+     * Creates sorter for the current model ordering. Must be called in UI thread.
+     */
+    ResultSetSorter(@NotNull ResultSetModel model) {
+        this.model = model;
+        if (model.getDataFilter().hasOrdering()) {
+            for (DBDAttributeConstraint co : model.getDataFilter().getOrderConstraints()) {
+                final DBDAttributeBinding binding = model.getAttributeBinding(co.getAttribute());
+                if (binding != null) {
+                    bindings.add(binding);
+                    descending.add(co.isOrderDescending());
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts rows. Rows list isn't changed.
+     * @return positions of rows in sorted order or null if sort was canceled
+     */
+    @Nullable
+    int[] sortRows(@NotNull DBRProgressMonitor monitor, @NotNull List<ResultSetRow> rows) {
+        final int rowCount = rows.size();
+        final SortKey[] keys;
+        if (bindings.isEmpty()) {
+            // Restore original order
+            int[] rowNumbers = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                rowNumbers[i] = rows.get(i).getRowNumber();
+            }
+            keys = new SortKey[] { new RowNumberKey(rowNumbers) };
+        } else {
+            keys = new SortKey[bindings.size()];
+            for (int i = 0; i < keys.length; i++) {
+                if (monitor.isCanceled()) {
+                    return null;
+                }
+                keys[i] = extractKey(rows, bindings.get(i), descending.get(i));
+            }
+        }
+        if (monitor.isCanceled()) {
+            return null;
+        }
+        return sortIndexes(keys, rowCount);
+    }
+
+    /**
+     * Stable sort, equal rows keep their current order.
+     * @return row indexes in sorted order
+     */
+    @NotNull
+    static int[] sortIndexes(@NotNull SortKey[] keys, int rowCount) {
+        int[] order = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            order[i] = i;
+        }
+        ForkJoinPool.commonPool().invoke(new IndexSortTask(keys, order.clone(), order, 0, rowCount));
+        return order;
+    }
+
+    private static int compareRows(@NotNull SortKey[] keys, int row1, int row2) {
+        for (SortKey key : keys) {
+            int result = key.compare(row1, row2);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    @NotNull
+    private SortKey extractKey(@NotNull List<ResultSetRow> rows, @NotNull DBDAttributeBinding binding, boolean descending) {
+        final int rowCount = rows.size();
+        Object[] values = new Object[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            values[i] = model.getCellValue(binding, rows.get(i));
+        }
+        return createKey(values, descending);
+    }
+
+    /**
+     * Creates sort key for column values. Null values (see {@link DBUtils#isNullValue(Object)}) are replaced with nulls in the array.
+     */
+    @NotNull
+    static SortKey createKey(@NotNull Object[] values, boolean descending) {
+        final int rowCount = values.length;
+        BitSet nulls = new BitSet(rowCount);
+        KeyType keyType = null;
+        for (int i = 0; i < rowCount; i++) {
+            Object value = values[i];
+            if (DBUtils.isNullValue(value)) {
+                nulls.set(i);
+                values[i] = null;
+                continue;
+            }
+            KeyType valueType = getKeyType(value);
+            if (keyType == null) {
+                keyType = valueType;
+            } else if (keyType != valueType) {
+                // Integers mixed with floats are compared as doubles, like in DBUtils.compareDataValues
+                boolean numbers = (keyType == KeyType.INTEGER || keyType == KeyType.FLOAT) &&
+                    (valueType == KeyType.INTEGER || valueType == KeyType.FLOAT);
+                keyType = numbers ? KeyType.FLOAT : KeyType.OBJECT;
+            }
+        }
+        if (keyType == null) {
+            keyType = KeyType.OBJECT;
+        }
+        switch (keyType) {
+            case INTEGER: {
+                long[] keys = new long[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    if (values[i] != null) {
+                        keys[i] = ((Number) values[i]).longValue();
+                    }
+                }
+                return new LongKey(nulls, descending, keys, null);
+            }
+            case FLOAT: {
+                double[] keys = new double[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    if (values[i] != null) {
+                        keys[i] = ((Number) values[i]).doubleValue();
+                    }
+                }
+                return new DoubleKey(nulls, descending, keys);
+            }
+            case TEMPORAL: {
+                long[] keys = new long[rowCount];
+                int[] nanos = new int[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    Object value = values[i];
+                    if (value != null) {
+                        keys[i] = ((Date) value).getTime();
+                        nanos[i] = value instanceof Timestamp ?
+                            ((Timestamp) value).getNanos() :
+                            (int) Math.floorMod(keys[i], 1000L) * 1000000;
+                    }
+                }
+                return new LongKey(nulls, descending, keys, nanos);
+            }
+            default:
+                return new ObjectKey(nulls, descending, values);
+        }
+    }
+
+    @NotNull
+    private static KeyType getKeyType(@NotNull Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return KeyType.INTEGER;
+        } else if (value instanceof Double || value instanceof Float) {
+            return KeyType.FLOAT;
+        } else if (value instanceof Date) {
+            return KeyType.TEMPORAL;
+        } else {
+            return KeyType.OBJECT;
+        }
+    }
+
+    private enum KeyType {
+        INTEGER,
+        FLOAT,
+        TEMPORAL,
+        OBJECT
+    }
+
+    /**
+     * Stable merge sort of row indexes. Halves of big ranges are sorted in parallel.
+     * Sorts range of dst. Range of src must contain the same values, it is used as merge buffer.
+     */
+    private static class IndexSortTask extends RecursiveAction {
+        private static final int INSERTION_SORT_THRESHOLD = 32;
+        private static final int PARALLEL_THRESHOLD = 8192;
+
+        private final SortKey[] keys;
+        private final int[] src;
+        private final int[] dst;
+        private final int from;
+        private final int to;
+
+        IndexSortTask(SortKey[] keys, int[] src, int[] dst, int from, int to) {
+            this.keys = keys;
+            this.src = src;
+            this.dst = dst;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int length = to - from;
+            if (length <= INSERTION_SORT_THRESHOLD) {
+                for (int i = from + 1; i < to; i++) {
+                    int row = dst[i];
+                    int j = i - 1;
+                    for (; j >= from && compareRows(keys, dst[j], row) > 0; j--) {
+                        dst[j + 1] = dst[j];
+                    }
+                    dst[j + 1] = row;
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            // Sort halves into src (dst is the buffer now)
+            IndexSortTask left = new IndexSortTask(keys, dst, src, from, mid);
+            IndexSortTask right = new IndexSortTask(keys, dst, src, mid, to);
+            if (length >= PARALLEL_THRESHOLD) {
+                invokeAll(left, right);
+            } else {
+                left.compute();
+                right.compute();
+            }
+            // Merge sorted halves into dst. Left row goes first on equal keys
+            for (int i = from, p = from, q = mid; i < to; i++) {
+                if (q >= to || (p < mid && compareRows(keys, src[p], src[q]) <= 0)) {
+                    dst[i] = src[p++];
+                } else {
+                    dst[i] = src[q++];
+                }
+            }
+        }
+    }
+
+    abstract static class SortKey {
+        abstract int compare(int row1, int row2);
+    }
+
+    private static class RowNumberKey extends SortKey {
+        private final int[] rowNumbers;
+
+        RowNumberKey(int[] rowNumbers) {
+            this.rowNumbers = rowNumbers;
+        }
+
+        @Override
+        int compare(int row1, int row2) {
+            return Integer.compare(rowNumbers[row1], rowNumbers[row2]);
+        }
+    }
+
+    /**
+     * Nulls go last (first in descending order), like in {@link DBUtils#compareDataValues(Object, Object)}
+     */
+    private abstract static class ValueKey extends SortKey {
+        private final BitSet nulls;
+        private final boolean descending;
+
+        ValueKey(BitSet nulls, boolean descending) {
+            this.nulls = nulls;
+            this.descending = descending;
+        }
+
+        @Override
+        int compare(int row1, int row2) {
+            boolean null1 = nulls.get(row1), null2 = nulls.get(row2);
+            int result;
+            if (null1 || null2) {
+                result = null1 == null2 ? 0 : (null1 ? 1 : -1);
+            } else {
+                result = compareValues(row1, row2);
+            }
+            return descending ? -result : result;
+        }
+
+        abstract int compareValues(int row1, int row2);
+    }
+
+    private static class LongKey extends ValueKey {
+        private final long[] keys;
+        @Nullable
+        private final int[] nanos;
+
+        LongKey(BitSet nulls, boolean descending, long[] keys, @Nullable int[] nanos) {
+            super(nulls, descending);
+            this.keys = keys;
+            this.nanos = nanos;
+        }
+
+        @Override
+        int compareValues(int row1, int row2) {
+            int result = Long.compare(keys[row1], keys[row2]);
+            if (result == 0 && nanos != null) {
+                result = Integer.compare(nanos[row1], nanos[row2]);
+            }
+            return result;
+        }
+    }
+
+    private static class DoubleKey extends ValueKey {
+        private final double[] keys;
+
+        DoubleKey(BitSet nulls, boolean descending, double[] keys) {
+            super(nulls, descending);
+            this.keys = keys;
+        }
+
+        /**
+         * Total order: -0.0 goes before 0.0, NaN goes after all other values
+         */
+        @Override
+        int compareValues(int row1, int row2) {
+            return Double.compare(keys[row1], keys[row2]);
+        }
+    }
+
+    private static class ObjectKey extends ValueKey {
+        private final Object[] keys;
+
+        ObjectKey(BitSet nulls, boolean descending, Object[] keys) {
+            super(nulls, descending);
+            this.keys = keys;
+        }
+
+        @Override
+        int compareValues(int row1, int row2) {
+            Object value1 = keys[row1], value2 = keys[row2];
+            if (value1.getClass() != value2.getClass() && !(value1 instanceof Number && value2 instanceof Number)) {
+                // Values of different types aren't comparable. Group them by type
+                return value1.getClass().getName().compareTo(value2.getClass().getName());
+            }
+            return DBUtils.compareDataValues(value1, value2);
+        }
+    }
+
+}
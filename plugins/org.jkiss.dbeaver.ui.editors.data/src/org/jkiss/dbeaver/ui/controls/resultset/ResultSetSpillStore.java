@@ -0,0 +1,400 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.utils.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Row storage backed by memory-mapped temporary file.
+ * Used when result set is too big to be kept on heap (e.g. after "fetch all").
+ *
+ * File is split on fixed size segments, each row is kept entirely in one segment.
+ * Only simple values (strings, numbers, dates, binaries) can be spilled. Rows with other values are rejected
+ * and must be kept on heap.
+ * Recently read rows are cached (grid reads only visible rows so the cache keeps visible page materialized).
+ */
+class ResultSetSpillStore implements ResultSetRowStore {
+
+    private static final Log log = Log.getLog(ResultSetSpillStore.class);
+
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int MAX_CACHED_ROWS = 1000;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_SHORT = 4;
+    private static final byte TYPE_BYTE = 5;
+    private static final byte TYPE_DOUBLE = 6;
+    private static final byte TYPE_FLOAT = 7;
+    private static final byte TYPE_DECIMAL = 8;
+    private static final byte TYPE_BIG_INTEGER = 9;
+    private static final byte TYPE_BOOLEAN = 10;
+    private static final byte TYPE_TIMESTAMP = 11;
+    private static final byte TYPE_SQL_DATE = 12;
+    private static final byte TYPE_SQL_TIME = 13;
+    private static final byte TYPE_DATE = 14;
+    private static final byte TYPE_BINARY = 15;
+
+    private final int columnCount;
+    private final File file;
+    private final RandomAccessFile raf;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // Row offsets in file
+    private long[] offsets = new long[1024];
+    private int rowCount;
+    private long writePosition;
+    private long spilledBytes;
+    private boolean closed;
+
+    private final Map<Integer, Object[]> rowCache = new LinkedHashMap<Integer, Object[]>(MAX_CACHED_ROWS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> eldest) {
+            return size() > MAX_CACHED_ROWS;
+        }
+    };
+
+    ResultSetSpillStore(int columnCount, @NotNull File folder) throws IOException {
+        this.columnCount = columnCount;
+        this.file = File.createTempFile("resultset", ".spill", folder);
+        this.file.deleteOnExit();
+        this.raf = new RandomAccessFile(file, "rw");
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    /**
+     * Writes row into the file.
+     * @return row index in the store or -1 if row contains values which can't be spilled
+     */
+    synchronized int addRow(@NotNull Object[] values) throws IOException {
+        if (closed || values.length != columnCount) {
+            return -1;
+        }
+        int rowSize = getRowSize(values);
+        if (rowSize < 0 || rowSize > SEGMENT_SIZE) {
+            return -1;
+        }
+        int segmentOffset = (int) (writePosition % SEGMENT_SIZE);
+        if (segmentOffset + rowSize > SEGMENT_SIZE) {
+            // Row must fit into single segment
+            writePosition += SEGMENT_SIZE - segmentOffset;
+            segmentOffset = 0;
+        }
+        MappedByteBuffer buffer = getSegment((int) (writePosition / SEGMENT_SIZE));
+        buffer.position(segmentOffset);
+        for (Object value : values) {
+            writeValue(buffer, value);
+        }
+
+        if (rowCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[rowCount] = writePosition;
+        writePosition += rowSize;
+        spilledBytes += rowSize;
+        return rowCount++;
+    }
+
+    @Nullable
+    @Override
+    public Object getValue(int row, int column) {
+        return readRow(row)[column];
+    }
+
+    @NotNull
+    @Override
+    public Object[] getRowValues(int row) {
+        return readRow(row).clone();
+    }
+
+    @Override
+    public synchronized void releaseRow(int row) {
+        rowCache.remove(row);
+    }
+
+    /**
+     * Closes and deletes spill file. Rows can't be read after this.
+     */
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        rowCount = 0;
+        offsets = new long[0];
+        rowCache.clear();
+        // Unmap buffers explicitly, otherwise the file can't be deleted on Windows until GC.
+        // If unmap is not supported deleteOnExit will do the job
+        for (MappedByteBuffer segment : segments) {
+            IOUtils.unmapBuffer(segment);
+        }
+        segments.clear();
+        try {
+            raf.close();
+        } catch (IOException e) {
+            log.debug("Error closing spill file", e);
+        }
+        if (!file.delete()) {
+            log.debug("Can't delete spill file '" + file.getAbsolutePath() + "'");
+        }
+    }
+
+    @NotNull
+    private synchronized Object[] readRow(int row) {
+        Object[] values = rowCache.get(row);
+        if (values != null) {
+            return values;
+        }
+        if (row < 0 || row >= rowCount) {
+            // Store was closed or row is invalid
+            return new Object[columnCount];
+        }
+        long offset = offsets[row];
+        MappedByteBuffer buffer = segments.get((int) (offset / SEGMENT_SIZE));
+        buffer.position((int) (offset % SEGMENT_SIZE));
+        values = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            values[i] = readValue(buffer);
+        }
+        rowCache.put(row, values);
+        return values;
+    }
+
+    private MappedByteBuffer getSegment(int index) throws IOException {
+        while (segments.size() <= index) {
+            segments.add(raf.getChannel().map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * SEGMENT_SIZE, SEGMENT_SIZE));
+        }
+        return segments.get(index);
+    }
+
+    /**
+     * Estimates size of row values kept on heap
+     */
+    static long estimateHeapSize(@NotNull Object[] values) {
+        long size = 16 + values.length * 4;
+        for (Object value : values) {
+            if (value instanceof String) {
+                size += 40 + ((String) value).length() * 2;
+            } else if (value instanceof byte[]) {
+                size += 16 + ((byte[]) value).length;
+            } else if (value != null) {
+                size += 24;
+            }
+        }
+        return size;
+    }
+
+    private static int getRowSize(@NotNull Object[] values) {
+        int size = 0;
+        for (Object value : values) {
+            int valueSize = getValueSize(value);
+            if (valueSize < 0) {
+                return -1;
+            }
+            size += valueSize;
+        }
+        return size;
+    }
+
+    private static int getValueSize(@Nullable Object value) {
+        if (value == null) {
+            return 1;
+        }
+        Class<?> valueClass = value.getClass();
+        if (valueClass == String.class) {
+            return 1 + 4 + ((String) value).length() * 2;
+        } else if (valueClass == Integer.class || valueClass == Float.class) {
+            return 1 + 4;
+        } else if (valueClass == Long.class || valueClass == Double.class || valueClass == java.sql.Date.class ||
+            valueClass == Time.class || valueClass == Date.class) {
+            return 1 + 8;
+        } else if (valueClass == Short.class) {
+            return 1 + 2;
+        } else if (valueClass == Byte.class || valueClass == Boolean.class) {
+            return 1 + 1;
+        } else if (valueClass == Timestamp.class) {
+            return 1 + 8 + 4;
+        } else if (valueClass == BigDecimal.class) {
+            return 1 + 4 + 4 + ((BigDecimal) value).unscaledValue().bitLength() / 8 + 1;
+        } else if (valueClass == BigInteger.class) {
+            return 1 + 4 + ((BigInteger) value).bitLength() / 8 + 1;
+        } else if (valueClass == byte[].class) {
+            return 1 + 4 + ((byte[]) value).length;
+        }
+        return -1;
+    }
+
+    private static void writeValue(@NotNull MappedByteBuffer buffer, @Nullable Object value) {
+        if (value == null) {
+            buffer.put(TYPE_NULL);
+            return;
+        }
+        Class<?> valueClass = value.getClass();
+        if (valueClass == String.class) {
+            String str = (String) value;
+            buffer.put(TYPE_STRING);
+            buffer.putInt(str.length());
+            for (int i = 0; i < str.length(); i++) {
+                buffer.putChar(str.charAt(i));
+            }
+        } else if (valueClass == Integer.class) {
+            buffer.put(TYPE_INTEGER);
+            buffer.putInt((Integer) value);
+        } else if (valueClass == Long.class) {
+            buffer.put(TYPE_LONG);
+            buffer.putLong((Long) value);
+        } else if (valueClass == Short.class) {
+            buffer.put(TYPE_SHORT);
+            buffer.putShort((Short) value);
+        } else if (valueClass == Byte.class) {
+            buffer.put(TYPE_BYTE);
+            buffer.put((Byte) value);
+        } else if (valueClass == Double.class) {
+            buffer.put(TYPE_DOUBLE);
+            buffer.putDouble((Double) value);
+        } else if (valueClass == Float.class) {
+            buffer.put(TYPE_FLOAT);
+            buffer.putFloat((Float) value);
+        } else if (valueClass == BigDecimal.class) {
+            BigDecimal decimal = (BigDecimal) value;
+            buffer.put(TYPE_DECIMAL);
+            buffer.putInt(decimal.scale());
+            writeBytes(buffer, decimal.unscaledValue().toByteArray());
+        } else if (valueClass == BigInteger.class) {
+            buffer.put(TYPE_BIG_INTEGER);
+            writeBytes(buffer, ((BigInteger) value).toByteArray());
+        } else if (valueClass == Boolean.class) {
+            buffer.put(TYPE_BOOLEAN);
+            buffer.put((byte) ((Boolean) value ? 1 : 0));
+        } else if (valueClass == Timestamp.class) {
+            Timestamp timestamp = (Timestamp) value;
+            buffer.put(TYPE_TIMESTAMP);
+            buffer.putLong(timestamp.getTime());
+            buffer.putInt(timestamp.getNanos());
+        } else if (valueClass == java.sql.Date.class) {
+            buffer.put(TYPE_SQL_DATE);
+            buffer.putLong(((Date) value).getTime());
+        } else if (valueClass == Time.class) {
+            buffer.put(TYPE_SQL_TIME);
+            buffer.putLong(((Date) value).getTime());
+        } else if (valueClass == Date.class) {
+            buffer.put(TYPE_DATE);
+            buffer.putLong(((Date) value).getTime());
+        } else if (valueClass == byte[].class) {
+            buffer.put(TYPE_BINARY);
+            writeBytes(buffer, (byte[]) value);
+        } else {
+            throw new IllegalArgumentException("Value of type " + valueClass.getName() + " can't be spilled");
+        }
+    }
+
+    private static void writeBytes(@NotNull MappedByteBuffer buffer, @NotNull byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    @Nullable
+    private static Object readValue(@NotNull MappedByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING: {
+                char[] chars = new char[buffer.getInt()];
+                for (int i = 0; i < chars.length; i++) {
+                    chars[i] = buffer.getChar();
+                }
+                return new String(chars);
+            }
+            case TYPE_INTEGER:
+                return buffer.getInt();
+            case TYPE_LONG:
+                return buffer.getLong();
+            case TYPE_SHORT:
+                return buffer.getShort();
+            case TYPE_BYTE:
+                return buffer.get();
+            case TYPE_DOUBLE:
+                return buffer.getDouble();
+            case TYPE_FLOAT:
+                return buffer.getFloat();
+            case TYPE_DECIMAL: {
+                int scale = buffer.getInt();
+                return new BigDecimal(new BigInteger(readBytes(buffer)), scale);
+            }
+            case TYPE_BIG_INTEGER:
+                return new BigInteger(readBytes(buffer));
+            case TYPE_BOOLEAN:
+                return buffer.get() != 0;
+            case TYPE_TIMESTAMP: {
+                Timestamp timestamp = new Timestamp(buffer.getLong());
+                timestamp.setNanos(buffer.getInt());
+                return timestamp;
+            }
+            case TYPE_SQL_DATE:
+                return new java.sql.Date(buffer.getLong());
+            case TYPE_SQL_TIME:
+                return new Time(buffer.getLong());
+            case TYPE_DATE:
+                return new Date(buffer.getLong());
+            case TYPE_BINARY:
+                return readBytes(buffer);
+            default:
+                throw new IllegalStateException("Bad spilled value type: " + type);
+        }
+    }
+
+    @NotNull
+    private static byte[] readBytes(@NotNull MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+}
@@ -0,0 +1,477 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar storage of result set values.
+ * Numbers and dates are kept in primitive arrays, low-cardinality strings are dictionary-encoded.
+ * Values are boxed on read, recently read values are cached (visible cells are read on each repaint).
+ * Columns which can't be packed (mixed types, complex values) keep objects as is.
+ *
+ * Rows are append-only. All access is synchronized on the store, so rows may be read
+ * in background jobs (e.g. sorter) while new rows are appended.
+ */
+class ResultSetValueStore implements ResultSetRowStore {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_DICTIONARY_SIZE = 0xFFFF;
+    private static final int MIN_DICTIONARY_CHECK_ROWS = 1000;
+    // Must be a power of two
+    private static final int BOXED_CACHE_SIZE = 128;
+
+    private final Column[] columns;
+    private int rowCount;
+
+    ResultSetValueStore(int columnCount) {
+        this.columns = new Column[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = new NullColumn();
+        }
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    synchronized int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Adds row values.
+     * @return row index in the store
+     */
+    synchronized int addRow(@NotNull Object[] values) {
+        for (int i = 0; i < columns.length; i++) {
+            Object value = values[i];
+            if (!columns[i].add(rowCount, value)) {
+                columns[i] = columns[i].convert(rowCount, value);
+                if (!columns[i].add(rowCount, value)) {
+                    columns[i] = toObjectColumn(columns[i], rowCount);
+                    columns[i].add(rowCount, value);
+                }
+            }
+        }
+        return rowCount++;
+    }
+
+    @Nullable
+    @Override
+    public synchronized Object getValue(int row, int column) {
+        return columns[column].get(row);
+    }
+
+    @NotNull
+    @Override
+    public synchronized Object[] getRowValues(int row) {
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i].get(row);
+        }
+        return values;
+    }
+
+    /**
+     * Releases values of the row. Only object columns may contain values which need release.
+     */
+    @Override
+    public synchronized void releaseRow(int row) {
+        for (Column column : columns) {
+            if (column instanceof ObjectColumn) {
+                DBUtils.releaseValue(column.get(row));
+                ((ObjectColumn) column).values[row] = null;
+            }
+        }
+    }
+
+    private static int grow(int capacity, int row) {
+        int newCapacity = Math.max(capacity, INITIAL_CAPACITY);
+        while (newCapacity <= row) {
+            newCapacity = newCapacity + (newCapacity >> 1);
+        }
+        return newCapacity;
+    }
+
+    private static ObjectColumn toObjectColumn(Column column, int rowCount) {
+        ObjectColumn objectColumn = new ObjectColumn();
+        objectColumn.values = new Object[grow(0, rowCount)];
+        for (int i = 0; i < rowCount; i++) {
+            objectColumn.values[i] = column.get(i);
+        }
+        return objectColumn;
+    }
+
+    private abstract static class Column {
+        /**
+         * Stores value.
+         * @return false if value can't be stored in this column
+         */
+        abstract boolean add(int row, @Nullable Object value);
+
+        @Nullable
+        abstract Object get(int row);
+
+        /**
+         * Creates column which can store values of this column and the new value.
+         */
+        Column convert(int rowCount, @Nullable Object value) {
+            return toObjectColumn(this, rowCount);
+        }
+    }
+
+    /**
+     * Column without values. Becomes a typed column on the first not-null value.
+     */
+    private static class NullColumn extends Column {
+        @Override
+        boolean add(int row, @Nullable Object value) {
+            return value == null;
+        }
+
+        @Override
+        Object get(int row) {
+            return null;
+        }
+
+        @Override
+        Column convert(int rowCount, @Nullable Object value) {
+            PrimitiveColumn column;
+            Class<?> valueClass = value == null ? null : value.getClass();
+            if (valueClass == Integer.class) {
+                column = new IntColumn();
+            } else if (valueClass == Long.class) {
+                column = new LongColumn();
+            } else if (valueClass == Double.class) {
+                column = new DoubleColumn();
+            } else if (valueClass == BigDecimal.class) {
+                column = new DecimalColumn();
+            } else if (valueClass == Timestamp.class) {
+                column = new TimestampColumn();
+            } else if (valueClass == java.sql.Date.class) {
+                column = new SqlDateColumn();
+            } else if (valueClass == String.class) {
+                column = new StringColumn();
+            } else {
+                return toObjectColumn(this, rowCount);
+            }
+            // All previous values are nulls
+            column.nulls.set(0, rowCount);
+            return column;
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+        Object[] values = new Object[0];
+
+        @Override
+        boolean add(int row, @Nullable Object value) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+            values[row] = value;
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+    }
+
+    private abstract static class PrimitiveColumn extends Column {
+        final BitSet nulls = new BitSet();
+        int capacity;
+        // Direct-mapped cache of boxed values: slot is row & (BOXED_CACHE_SIZE - 1)
+        private Object[] boxedValues;
+        private int[] boxedRows;
+
+        @Override
+        boolean add(int row, @Nullable Object value) {
+            if (value == null) {
+                nulls.set(row);
+                return true;
+            }
+            if (!accepts(row, value)) {
+                return false;
+            }
+            if (row >= capacity) {
+                capacity = grow(capacity, row);
+                resize(capacity);
+            }
+            store(row, value);
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            if (row >= capacity || nulls.get(row)) {
+                return null;
+            }
+            if (boxedValues == null) {
+                boxedValues = new Object[BOXED_CACHE_SIZE];
+                boxedRows = new int[BOXED_CACHE_SIZE];
+                Arrays.fill(boxedRows, -1);
+            }
+            int slot = row & (BOXED_CACHE_SIZE - 1);
+            if (boxedRows[slot] != row) {
+                boxedValues[slot] = load(row);
+                boxedRows[slot] = row;
+            }
+            return boxedValues[slot];
+        }
+
+        abstract boolean accepts(int row, @NotNull Object value);
+
+        abstract void resize(int newCapacity);
+
+        abstract void store(int row, @NotNull Object value);
+
+        @NotNull
+        abstract Object load(int row);
+    }
+
+    private static class IntColumn extends PrimitiveColumn {
+        int[] values;
+
+        @Override
+        boolean accepts(int row, @NotNull Object value) {
+            return value.getClass() == Integer.class;
+        }
+
+        @Override
+        void resize(int newCapacity) {
+            values = values == null ? new int[newCapacity] : Arrays.copyOf(values, newCapacity);
+        }
+
+        @Override
+        void store(int row, @NotNull Object value) {
+            values[row] = (Integer) value;
+        }
+
+        @NotNull
+        @Override
+        Object load(int row) {
+            return values[row];
+        }
+    }
+
+    private static class LongColumn extends PrimitiveColumn {
+        long[] values;
+
+        @Override
+        boolean accepts(int row, @NotNull Object value) {
+            return value.getClass() == Long.class;
+        }
+
+        @Override
+        void resize(int newCapacity) {
+            values = values == null ? new long[newCapacity] : Arrays.copyOf(values, newCapacity);
+        }
+
+        @Override
+        void store(int row, @NotNull Object value) {
+            values[row] = (Long) value;
+        }
+
+        @NotNull
+        @Override
+        Object load(int row) {
+            return values[row];
+        }
+    }
+
+    private static class DoubleColumn extends PrimitiveColumn {
+        double[] values;
+
+        @Override
+        boolean accepts(int row, @NotNull Object value) {
+            return value.getClass() == Double.class;
+        }
+
+        @Override
+        void resize(int newCapacity) {
+            values = values == null ? new double[newCapacity] : Arrays.copyOf(values, newCapacity);
+        }
+
+        @Override
+        void store(int row, @NotNull Object value) {
+            values[row] = (Double) value;
+        }
+
+        @NotNull
+        @Override
+        Object load(int row) {
+            return values[row];
+        }
+    }
+
+    /**
+     * Decimals which fit in long unscaled value.
+     */
+    private static class DecimalColumn extends PrimitiveColumn {
+        long[] unscaledValues;
+        int[] scales;
+
+        @Override
+        boolean accepts(int row, @NotNull Object value) {
+            return value.getClass() == BigDecimal.class && ((BigDecimal) value).unscaledValue().bitLength() < 64;
+        }
+
+        @Override
+        void resize(int newCapacity) {
+            unscaledValues = unscaledValues == null ? new long[newCapacity] : Arrays.copyOf(unscaledValues, newCapacity);
+            scales = scales == null ? new int[newCapacity] : Arrays.copyOf(scales, newCapacity);
+        }
+
+        @Override
+        void store(int row, @NotNull Object value) {
+            BigDecimal decimal = (BigDecimal) value;
+            unscaledValues[row] = decimal.unscaledValue().longValue();
+            scales[row] = decimal.scale();
+        }
+
+        @NotNull
+        @Override
+        Object load(int row) {
+            return BigDecimal.valueOf(unscaledValues[row], scales[row]);
+        }
+    }
+
+    private static class TimestampColumn extends PrimitiveColumn {
+        long[] times;
+        int[] nanos;
+
+        @Override
+        boolean accepts(int row, @NotNull Object value) {
+            return value.getClass() == Timestamp.class;
+        }
+
+        @Override
+        void resize(int newCapacity) {
+            times = times == null ? new long[newCapacity] : Arrays.copyOf(times, newCapacity);
+            nanos = nanos == null ? new int[newCapacity] : Arrays.copyOf(nanos, newCapacity);
+        }
+
+        @Override
+        void store(int row, @NotNull Object value) {
+            Timestamp timestamp = (Timestamp) value;
+            times[row] = timestamp.getTime();
+            nanos[row] = timestamp.getNanos();
+        }
+
+        @NotNull
+        @Override
+        Object load(int row) {
+            Timestamp timestamp = new Timestamp(times[row]);
+            timestamp.setNanos(nanos[row]);
+            return timestamp;
+        }
+    }
+
+    private static class SqlDateColumn extends PrimitiveColumn {
+        long[] times;
+
+        @Override
+        boolean accepts(int row, @NotNull Object value) {
+            return value.getClass() == java.sql.Date.class;
+        }
+
+        @Override
+        void resize(int newCapacity) {
+            times = times == null ? new long[newCapacity] : Arrays.copyOf(times, newCapacity);
+        }
+
+        @Override
+        void store(int row, @NotNull Object value) {
+            times[row] = ((java.sql.Date) value).getTime();
+        }
+
+        @NotNull
+        @Override
+        Object load(int row) {
+            return new java.sql.Date(times[row]);
+        }
+    }
+
+    /**
+     * Dictionary-encoded strings. Switches to plain objects if cardinality is too high.
+     */
+    private static class StringColumn extends PrimitiveColumn {
+        char[] codes;
+        final List<String> dictionary = new ArrayList<>();
+        final Map<String, Integer> dictionaryIndex = new HashMap<>();
+
+        @Override
+        boolean accepts(int row, @NotNull Object value) {
+            if (value.getClass() != String.class) {
+                return false;
+            }
+            if (dictionaryIndex.containsKey(value)) {
+                return true;
+            }
+            // New dictionary value. Check that cardinality is still low.
+            return dictionary.size() < MAX_DICTIONARY_SIZE &&
+                (row < MIN_DICTIONARY_CHECK_ROWS || dictionary.size() <= row / 2);
+        }
+
+        @Override
+        void resize(int newCapacity) {
+            codes = codes == null ? new char[newCapacity] : Arrays.copyOf(codes, newCapacity);
+        }
+
+        @Override
+        void store(int row, @NotNull Object value) {
+            Integer code = dictionaryIndex.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add((String) value);
+                dictionaryIndex.put((String) value, code);
+            }
+            codes[row] = (char) code.intValue();
+        }
+
+        @Override
+        Object get(int row) {
+            // Dictionary values are shared, no need to cache them
+            if (row >= capacity || nulls.get(row)) {
+                return null;
+            }
+            return load(row);
+        }
+
+        @NotNull
+        @Override
+        Object load(int row) {
+            return dictionary.get(codes[row]);
+        }
+    }
+
+}
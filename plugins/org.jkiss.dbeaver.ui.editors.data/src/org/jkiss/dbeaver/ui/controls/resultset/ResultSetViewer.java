@@ -18,6 +18,8 @@ package org.jkiss.dbeaver.ui.controls.resultset;
 
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.jface.action.*;
@@ -66,6 +68,7 @@ import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
 import org.jkiss.dbeaver.model.impl.local.StatResultSet;
 import org.jkiss.dbeaver.model.messages.ModelMessages;
 import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableWithProgress;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
@@ -146,6 +149,8 @@ public class ResultSetViewer extends Viewer
 
     private static final DecimalFormat ROW_COUNT_FORMAT = new DecimalFormat("###,###,###,###,###,##0");
     private static final IResultSetListener[] EMPTY_LISTENERS = new IResultSetListener[0];
+    // Smaller result sets are sorted in UI thread
+    private static final int BACKGROUND_SORT_MIN_ROWS = 10000;
 
     private IResultSetFilterManager filterManager;
     @NotNull
@@ -196,6 +201,7 @@ public class ResultSetViewer extends Viewer
     private final List<IResultSetListener> listeners = new ArrayList<>();
 
     private volatile ResultSetJobDataRead dataPumpJob;
+    private AbstractJob sortJob;
 
     private final ResultSetModel model = new ResultSetModel();
     private HistoryStateItem curState = null;
@@ -1881,8 +1887,47 @@ public class ResultSetViewer extends Viewer
     private void reorderLocally()
     {
         this.rejectChanges();
-        this.getModel().resetOrdering();
-        this.getActivePresentation().refreshData(false, false, true);
+        sortLocally();
+    }
+
+    private void sortLocally()
+    {
+        if (sortJob != null) {
+            sortJob.cancel();
+            sortJob = null;
+        }
+        final List<ResultSetRow> rows = model.getAllRows();
+        if (rows.size() < BACKGROUND_SORT_MIN_ROWS) {
+            this.getModel().resetOrdering();
+            this.getActivePresentation().refreshData(false, false, true);
+            return;
+        }
+        // Sort big result sets in background. Model is updated at once when sort is finished
+        final ResultSetSorter sorter = new ResultSetSorter(model);
+        final List<ResultSetRow> rowsCopy = model.copyRows();
+        sortJob = new AbstractJob("Sort " + rows.size() + " rows") {
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                final int[] sortedRows = sorter.sortRows(monitor, rowsCopy);
+                if (sortedRows == null || monitor.isCanceled()) {
+                    return Status.CANCEL_STATUS;
+                }
+                UIUtils.asyncExec(() -> {
+                    if (sortJob != this || viewerPanel.isDisposed()) {
+                        return;
+                    }
+                    sortJob = null;
+                    if (model.applyOrdering(rows, sortedRows)) {
+                        getActivePresentation().refreshData(false, false, true);
+                    } else if (model.getAllRows() == rows) {
+                        // Rows were added or removed meanwhile. Sort them again
+                        sortLocally();
+                    }
+                });
+                return Status.OK_STATUS;
+            }
+        };
+        sortJob.schedule();
     }
 
 
@@ -1906,6 +1951,7 @@ public class ResultSetViewer extends Viewer
             return;
         }
         this.curRow = null;
+        updateSpillThreshold();
         this.model.setData(rows);
         this.curRow = (this.model.getRowCount() > 0 ? this.model.getRow(0) : null);
         if (focusRow > 0 && focusRow < model.getRowCount()) {
@@ -1925,6 +1971,7 @@ public class ResultSetViewer extends Viewer
 
     void appendData(List<Object[]> rows)
     {
+        updateSpillThreshold();
         model.appendData(rows);
 
         setStatus(NLS.bind(ResultSetMessages.controls_resultset_viewer_status_rows_size, model.getRowCount(), rows.size()) + getExecutionTimeMessage());
@@ -1932,6 +1979,13 @@ public class ResultSetViewer extends Viewer
         updateEditControls();
     }
 
+    private void updateSpillThreshold() {
+        DBPPreferenceStore store = getPreferenceStore();
+        model.setSpillThreshold(
+            store.getInt(ResultSetPreferences.RESULT_SET_SPILL_ROWS),
+            store.getLong(ResultSetPreferences.RESULT_SET_SPILL_MEMORY) * 1024 * 1024);
+    }
+
     @Override
     public int promptToSaveOnClose()
     {
@@ -3383,7 +3437,7 @@ public class ResultSetViewer extends Viewer
 //        }
         boolean needPK = false;
         if (!skipKeySearch) {
-            for (ResultSetRow row : model.getAllRows()) {
+            for (ResultSetRow row : model.getLoadedRows()) {
                 if (row.getState() == ResultSetRow.STATE_REMOVED || (row.getState() == ResultSetRow.STATE_NORMAL && row.isChanged())) {
                     needPK = true;
                     break;
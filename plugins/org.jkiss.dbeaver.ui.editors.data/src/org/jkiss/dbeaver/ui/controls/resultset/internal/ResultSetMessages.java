@@ -216,6 +216,10 @@ public class ResultSetMessages extends NLS {
     public static String pref_page_database_resultsets_label_read_metadata_tip;
     public static String pref_page_database_resultsets_label_read_references_tip;
     public static String pref_page_database_resultsets_label_fetch_size_tip;
+    public static String pref_page_database_resultsets_label_spill_rows;
+    public static String pref_page_database_resultsets_label_spill_rows_tip;
+    public static String pref_page_database_resultsets_label_spill_memory;
+    public static String pref_page_database_resultsets_label_spill_memory_tip;
     // ResultSetPresentation
     public static String pref_page_database_resultsets_group_common;
     public static String pref_page_database_resultsets_label_switch_mode_on_rows;
@@ -251,6 +255,8 @@ public class ResultSetMessages extends NLS {
 
     public static String pref_page_content_cache_clob;
     public static String pref_page_content_cache_blob;
+    public static String pref_page_content_lob_lazy_fetch;
+    public static String pref_page_content_lob_lazy_fetch_tip;
     public static String pref_page_database_general_label_cache_max_size;
     public static String pref_page_database_general_checkbox_keep_cursor;
     public static String pref_page_database_general_group_queries;
@@ -16,6 +16,8 @@
  */
 package org.jkiss.dbeaver.ui.controls.resultset.panel.aggregate;
 
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.action.*;
 import org.eclipse.jface.dialogs.IDialogSettings;
 import org.eclipse.jface.viewers.ISelection;
@@ -33,6 +35,10 @@ import org.jkiss.dbeaver.model.DBPImage;
 import org.jkiss.dbeaver.model.DBValueFormatting;
 import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
 import org.jkiss.dbeaver.model.data.aggregate.IAggregateFunction;
+import org.jkiss.dbeaver.model.data.aggregate.IAggregateNumericFunction;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.registry.functions.AggregateFunctionDescriptor;
 import org.jkiss.dbeaver.registry.functions.FunctionsRegistry;
 import org.jkiss.dbeaver.ui.DBeaverIcons;
@@ -61,6 +67,8 @@ public class AggregateColumnsPanel implements IResultSetPanel {
     private static final DecimalFormat DOUBLE_FORMAT = new DecimalFormat("###,###,###,###,###,##0.###");
     private static final DecimalFormat INTEGER_FORMAT = new DecimalFormat("###,###,###,###,###,##0");
 
+    private static final int BACKGROUND_AGGREGATE_MIN_VALUES = 10000;
+
     private IResultSetPresentation presentation;
     private Tree aggregateTable;
 
@@ -71,6 +79,7 @@ public class AggregateColumnsPanel implements IResultSetPanel {
     private IDialogSettings panelSettings;
 
     private final List<AggregateFunctionDescriptor> enabledFunctions = new ArrayList<>();
+    private AbstractJob aggregateJob;
 
     public AggregateColumnsPanel() {
     }
@@ -189,14 +198,31 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     @Override
     public void refresh(boolean force) {
+        if (aggregateJob != null) {
+            aggregateJob.cancel();
+            aggregateJob = null;
+        }
+        List<AggregateTask> tasks = new ArrayList<>();
         aggregateTable.setRedraw(false);
         try {
             aggregateTable.removeAll();
             if (this.presentation instanceof ISelectionProvider) {
                 ISelection selection = ((ISelectionProvider) presentation).getSelection();
                 if (selection instanceof IResultSetSelection) {
-                    aggregateSelection((IResultSetSelection)selection);
+                    aggregateSelection((IResultSetSelection)selection, tasks);
+                }
+            }
+            int valueCount = 0;
+            for (AggregateTask task : tasks) {
+                valueCount += task.size;
+            }
+            if (valueCount < BACKGROUND_AGGREGATE_MIN_VALUES) {
+                for (AggregateTask task : tasks) {
+                    task.aggregate(new VoidProgressMonitor(), aggregateAsStrings);
+                    task.showResults();
                 }
+            } else {
+                scheduleAggregation(tasks, valueCount);
             }
             UIUtils.packColumns(aggregateTable, true, null);
         } finally {
@@ -205,45 +231,75 @@ public class AggregateColumnsPanel implements IResultSetPanel {
         saveSettings();
     }
 
+    private void scheduleAggregation(List<AggregateTask> tasks, int valueCount) {
+        // Big selections are aggregated in background. Results are shown at once when all functions are evaluated
+        final boolean asStrings = aggregateAsStrings;
+        aggregateJob = new AbstractJob("Aggregate " + valueCount + " values") {
+            @Override
+            protected IStatus run(DBRProgressMonitor monitor) {
+                for (AggregateTask task : tasks) {
+                    if (!task.aggregate(monitor, asStrings)) {
+                        return Status.CANCEL_STATUS;
+                    }
+                }
+                UIUtils.asyncExec(() -> {
+                    if (aggregateJob != this || aggregateTable.isDisposed()) {
+                        return;
+                    }
+                    aggregateJob = null;
+                    aggregateTable.setRedraw(false);
+                    try {
+                        for (AggregateTask task : tasks) {
+                            task.showResults();
+                        }
+                        UIUtils.packColumns(aggregateTable, true, null);
+                    } finally {
+                        aggregateTable.setRedraw(true);
+                    }
+                });
+                return Status.OK_STATUS;
+            }
+        };
+        aggregateJob.schedule();
+    }
+
     @Override
     public void contributeActions(IContributionManager manager) {
         fillToolBar(manager);
     }
 
-    private void aggregateSelection(IResultSetSelection selection) {
+    private void aggregateSelection(IResultSetSelection selection, List<AggregateTask> tasks) {
         ResultSetModel model = presentation.getController().getModel();
         if (groupByColumns) {
-            Map<DBDAttributeBinding, List<Object>> attrValues = new LinkedHashMap<>();
+            Map<DBDAttributeBinding, AggregateTask> attrTasks = new LinkedHashMap<>();
             for (Object element : selection.toList()) {
                 DBDAttributeBinding attr = selection.getElementAttribute(element);
                 ResultSetRow row = selection.getElementRow(element);
-                Object cellValue = model.getCellValue(attr, row);
-                List<Object> values = attrValues.computeIfAbsent(attr, k -> new ArrayList<>());
-                values.add(cellValue);
-            }
-
-            for (Map.Entry<DBDAttributeBinding, List<Object>> entry : attrValues.entrySet()) {
-                TreeItem attrItem = new TreeItem(aggregateTable, SWT.NONE);
-                attrItem.setText(entry.getKey().getName());
-                attrItem.setImage(DBeaverIcons.getImage(DBValueFormatting.getObjectImage(entry.getKey())));
-                aggregateValues(attrItem, entry.getValue());
-                attrItem.setExpanded(true);
+                AggregateTask task = attrTasks.get(attr);
+                if (task == null) {
+                    TreeItem attrItem = new TreeItem(aggregateTable, SWT.NONE);
+                    attrItem.setText(attr.getName());
+                    attrItem.setImage(DBeaverIcons.getImage(DBValueFormatting.getObjectImage(attr)));
+                    task = createTask(attrItem, model);
+                    attrItem.setExpanded(true);
+                    attrTasks.put(attr, task);
+                    tasks.add(task);
+                }
+                task.addCell(attr, row);
             }
         } else {
-            List<Object> allValues = new ArrayList<>(selection.size());
+            AggregateTask task = createTask(null, model);
             for (Object element : selection.toList()) {
-                DBDAttributeBinding attr = selection.getElementAttribute(element);
-                ResultSetRow row = selection.getElementRow(element);
-                Object cellValue = model.getCellValue(attr, row);
-                allValues.add(cellValue);
+                task.addCell(selection.getElementAttribute(element), selection.getElementRow(element));
             }
-            aggregateValues(null, allValues);
+            tasks.add(task);
         }
     }
 
-    private void aggregateValues(TreeItem parentItem, Collection<Object> values) {
+    private AggregateTask createTask(TreeItem parentItem, ResultSetModel model) {
         List<AggregateFunctionDescriptor> functions = enabledFunctions;
-        Map<IAggregateFunction, TreeItem> funcMap = new IdentityHashMap<>();
+        List<IAggregateFunction> funcs = new ArrayList<>();
+        List<TreeItem> funcItems = new ArrayList<>();
         for (AggregateFunctionDescriptor funcDesc : functions) {
             TreeItem funcItem = (parentItem == null) ?
                 new TreeItem(aggregateTable, SWT.NONE) :
@@ -255,30 +311,93 @@ public class AggregateColumnsPanel implements IResultSetPanel {
                 funcItem.setImage(0, DBeaverIcons.getImage(icon));
             }
             try {
-                IAggregateFunction func = funcDesc.createFunction();
-                funcMap.put(func, funcItem);
+                funcs.add(funcDesc.createFunction());
+                funcItems.add(funcItem);
             } catch (DBException e) {
                 log.error(e);
             }
         }
+        return new AggregateTask(
+            model,
+            funcs.toArray(new IAggregateFunction[0]),
+            funcItems.toArray(new TreeItem[0]));
+    }
+
+    /**
+     * Evaluates functions over a set of cells. Evaluation may run in any thread, results are shown in UI thread.
+     * Cell values are read from the model one by one during evaluation, they are not copied.
+     */
+    private static class AggregateTask {
+        private final ResultSetModel model;
+        private DBDAttributeBinding[] attributes = new DBDAttributeBinding[16];
+        private ResultSetRow[] rows = new ResultSetRow[16];
+        private int size;
+        private final IAggregateFunction[] funcs;
+        private final TreeItem[] funcItems;
+        private final int[] funcCount;
+        private final Object[] results;
+
+        AggregateTask(ResultSetModel model, IAggregateFunction[] funcs, TreeItem[] funcItems) {
+            this.model = model;
+            this.funcs = funcs;
+            this.funcItems = funcItems;
+            this.funcCount = new int[funcs.length];
+            this.results = new Object[funcs.length];
+        }
+
+        void addCell(DBDAttributeBinding attribute, ResultSetRow row) {
+            if (size == rows.length) {
+                attributes = Arrays.copyOf(attributes, size * 2);
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            attributes[size] = attribute;
+            rows[size] = row;
+            size++;
+        }
 
-        IAggregateFunction[] funcs = funcMap.keySet().toArray(new IAggregateFunction[funcMap.size()]);
-        int[] funcCount = new int[funcs.length];
-        for (Object element : values) {
+        boolean aggregate(DBRProgressMonitor monitor, boolean aggregateAsStrings) {
+            // Numeric functions get primitive values directly, without per-function conversions
+            IAggregateNumericFunction[] numericFuncs = new IAggregateNumericFunction[funcs.length];
             for (int i = 0; i < funcs.length; i++) {
-                if (funcs[i].accumulate(element, aggregateAsStrings)) {
-                    funcCount[i]++;
+                if (!aggregateAsStrings && funcs[i] instanceof IAggregateNumericFunction) {
+                    numericFuncs[i] = (IAggregateNumericFunction) funcs[i];
                 }
             }
-        }
-        for (int i = 0; i < funcs.length; i++) {
-            if (funcCount[i] <= 0) {
-                continue;
+            for (int k = 0; k < size; k++) {
+                if (k % 10000 == 0 && monitor.isCanceled()) {
+                    return false;
+                }
+                Object element = model.getCellValue(attributes[k], rows[k]);
+                boolean isInteger = isPrimitiveInteger(element);
+                boolean isNumber = isInteger || element instanceof Double || element instanceof Float;
+                for (int i = 0; i < funcs.length; i++) {
+                    boolean accumulated;
+                    if (isNumber && numericFuncs[i] != null) {
+                        accumulated = isInteger ?
+                            numericFuncs[i].accumulateLong(((Number) element).longValue()) :
+                            numericFuncs[i].accumulateNumber(((Number) element).doubleValue());
+                    } else {
+                        accumulated = funcs[i].accumulate(element, aggregateAsStrings);
+                    }
+                    if (accumulated) {
+                        funcCount[i]++;
+                    }
+                }
             }
-            IAggregateFunction func = funcs[i];
-            Object result = func.getResult(funcCount[i]);
-            if (result != null) {
-                TreeItem treeItem = funcMap.get(func);
+            for (int i = 0; i < funcs.length; i++) {
+                if (funcCount[i] > 0) {
+                    results[i] = funcs[i].getResult(funcCount[i]);
+                }
+            }
+            return true;
+        }
+
+        void showResults() {
+            for (int i = 0; i < funcs.length; i++) {
+                Object result = results[i];
+                if (result == null || funcItems[i].isDisposed()) {
+                    continue;
+                }
                 String strValue;
                 if (result instanceof Double || result instanceof Float || result instanceof BigDecimal) {
                     strValue = DOUBLE_FORMAT.format(result);
@@ -288,10 +407,14 @@ public class AggregateColumnsPanel implements IResultSetPanel {
                     strValue = result.toString();
                 }
                 if (strValue != null) {
-                    treeItem.setText(1, strValue);
+                    funcItems[i].setText(1, strValue);
                 }
             }
         }
+
+        private static boolean isPrimitiveInteger(Object value) {
+            return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+        }
     }
 
     public void clearValue()
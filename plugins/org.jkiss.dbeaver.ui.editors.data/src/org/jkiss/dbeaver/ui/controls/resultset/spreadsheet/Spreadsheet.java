@@ -333,7 +333,7 @@ public class Spreadsheet extends LightGrid implements Listener {
             GridPos focusPos = getFocusPos();
             presentation.fillContextMenu(
                 manager, focusPos.col >= 0 && focusPos.col < columnElements.length ? columnElements[focusPos.col] : null,
-                focusPos.row >= 0 && focusPos.row < rowElements.length ? rowElements[focusPos.row] : null
+                focusPos.row >= 0 && focusPos.row < rowElements.size() ? rowElements.get(focusPos.row) : null
             );
         });
         menuMgr.setRemoveAllWhenShown(true);
@@ -1412,6 +1412,16 @@ public class SpreadsheetPresentation extends AbstractPresentation implements IRe
             }
         }
 
+        @Nullable
+        @Override
+        public List<Object> getFlatRowElements() {
+            if (controller.isRecordMode()) {
+                // Attributes may have nested attributes
+                return null;
+            }
+            return Collections.unmodifiableList(controller.getModel().getAllRows());
+        }
+
         @Nullable
         @Override
         public Object[] getChildren(Object element) {
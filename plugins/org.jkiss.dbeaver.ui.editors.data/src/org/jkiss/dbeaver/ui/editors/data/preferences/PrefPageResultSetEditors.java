@@ -55,6 +55,7 @@ public class PrefPageResultSetEditors extends TargetPrefPage
     private Button contentCacheClob;
     private Button contentCacheBlob;
     private Spinner contentCacheMaxSize;
+    private Button contentLobLazyFetch;
 
     private Spinner maxTextContentSize;
     private Button editLongAsLobCheck;
@@ -83,6 +84,7 @@ public class PrefPageResultSetEditors extends TargetPrefPage
             store.contains(ModelPreferences.CONTENT_CACHE_CLOB) ||
             store.contains(ModelPreferences.CONTENT_CACHE_BLOB) ||
             store.contains(ModelPreferences.CONTENT_CACHE_MAX_SIZE) ||
+            store.contains(ModelPreferences.CONTENT_LOB_LAZY_FETCH) ||
             store.contains(ResultSetPreferences.RS_EDIT_LONG_AS_LOB) ||
 
             store.contains(ResultSetPreferences.RS_EDIT_MAX_TEXT_SIZE) ||
@@ -145,6 +147,10 @@ public class PrefPageResultSetEditors extends TargetPrefPage
             contentCacheMaxSize = UIUtils.createLabelSpinner(binaryGroup, ResultSetMessages.pref_page_database_general_label_cache_max_size, 0, 0, Integer.MAX_VALUE);
             contentCacheMaxSize.setDigits(0);
             contentCacheMaxSize.setIncrement(100000);
+            contentLobLazyFetch = UIUtils.createLabelCheckbox(binaryGroup,
+                ResultSetMessages.pref_page_content_lob_lazy_fetch,
+                ResultSetMessages.pref_page_content_lob_lazy_fetch_tip,
+                false);
             editLongAsLobCheck = UIUtils.createLabelCheckbox(binaryGroup, ResultSetMessages.pref_page_content_editor_checkbox_edit_long_as_lobs, false);
         }
 
@@ -192,6 +198,7 @@ public class PrefPageResultSetEditors extends TargetPrefPage
             contentCacheClob.setSelection(store.getBoolean(ModelPreferences.CONTENT_CACHE_CLOB));
             contentCacheBlob.setSelection(store.getBoolean(ModelPreferences.CONTENT_CACHE_BLOB));
             contentCacheMaxSize.setSelection(store.getInt(ModelPreferences.CONTENT_CACHE_MAX_SIZE));
+            contentLobLazyFetch.setSelection(store.getBoolean(ModelPreferences.CONTENT_LOB_LAZY_FETCH));
             editLongAsLobCheck.setSelection(store.getBoolean(ResultSetPreferences.RS_EDIT_LONG_AS_LOB));
 
             maxTextContentSize.setSelection(store.getInt(ResultSetPreferences.RS_EDIT_MAX_TEXT_SIZE));
@@ -227,6 +234,7 @@ public class PrefPageResultSetEditors extends TargetPrefPage
             store.setValue(ModelPreferences.CONTENT_CACHE_CLOB, contentCacheClob.getSelection());
             store.setValue(ModelPreferences.CONTENT_CACHE_BLOB, contentCacheBlob.getSelection());
             store.setValue(ModelPreferences.CONTENT_CACHE_MAX_SIZE, contentCacheMaxSize.getSelection());
+            store.setValue(ModelPreferences.CONTENT_LOB_LAZY_FETCH, contentLobLazyFetch.getSelection());
             store.setValue(ResultSetPreferences.RS_EDIT_LONG_AS_LOB, editLongAsLobCheck.getSelection());
 
             store.setValue(ResultSetPreferences.RS_EDIT_MAX_TEXT_SIZE, maxTextContentSize.getSelection());
@@ -251,6 +259,7 @@ public class PrefPageResultSetEditors extends TargetPrefPage
         store.setToDefault(ModelPreferences.CONTENT_CACHE_CLOB);
         store.setToDefault(ModelPreferences.CONTENT_CACHE_BLOB);
         store.setToDefault(ModelPreferences.CONTENT_CACHE_MAX_SIZE);
+        store.setToDefault(ModelPreferences.CONTENT_LOB_LAZY_FETCH);
         store.setToDefault(ResultSetPreferences.RS_EDIT_LONG_AS_LOB);
 
         store.setToDefault(ResultSetPreferences.RS_EDIT_MAX_TEXT_SIZE);
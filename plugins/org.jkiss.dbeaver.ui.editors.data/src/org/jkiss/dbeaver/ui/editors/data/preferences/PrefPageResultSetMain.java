@@ -62,6 +62,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
     private Button showErrorsInDialog;
 
     private Button advUseFetchSize;
+    private Text spillRowsText;
+    private Text spillMemoryText;
 
     public PrefPageResultSetMain()
     {
@@ -86,6 +88,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
             store.contains(ResultSetPreferences.KEEP_STATEMENT_OPEN) ||
             store.contains(ResultSetPreferences.RESULT_SET_ORDER_SERVER_SIDE) ||
             store.contains(ModelPreferences.RESULT_SET_USE_FETCH_SIZE) ||
+            store.contains(ResultSetPreferences.RESULT_SET_SPILL_ROWS) ||
+            store.contains(ResultSetPreferences.RESULT_SET_SPILL_MEMORY) ||
             store.contains(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS) ||
             store.contains(ResultSetPreferences.RESULT_SET_SHOW_ERRORS_IN_DIALOG)
             ;
@@ -136,9 +140,15 @@ public class PrefPageResultSetMain extends TargetPrefPage
             });
         }
         {
-            Group advGroup = UIUtils.createControlGroup(leftPane, ResultSetMessages.pref_page_results_group_advanced, 1, GridData.VERTICAL_ALIGN_BEGINNING, 0);
-
-            advUseFetchSize = UIUtils.createCheckbox(advGroup, ResultSetMessages.pref_page_database_resultsets_label_fetch_size, ResultSetMessages.pref_page_database_resultsets_label_fetch_size_tip, false, 1);
+            Group advGroup = UIUtils.createControlGroup(leftPane, ResultSetMessages.pref_page_results_group_advanced, 2, GridData.VERTICAL_ALIGN_BEGINNING, 0);
+
+            advUseFetchSize = UIUtils.createCheckbox(advGroup, ResultSetMessages.pref_page_database_resultsets_label_fetch_size, ResultSetMessages.pref_page_database_resultsets_label_fetch_size_tip, false, 2);
+            spillRowsText = UIUtils.createLabelText(advGroup, ResultSetMessages.pref_page_database_resultsets_label_spill_rows, "0", SWT.BORDER);
+            spillRowsText.setToolTipText(ResultSetMessages.pref_page_database_resultsets_label_spill_rows_tip);
+            spillRowsText.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.getDefault()));
+            spillMemoryText = UIUtils.createLabelText(advGroup, ResultSetMessages.pref_page_database_resultsets_label_spill_memory, "0", SWT.BORDER);
+            spillMemoryText.setToolTipText(ResultSetMessages.pref_page_database_resultsets_label_spill_memory_tip);
+            spillMemoryText.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.getDefault()));
         }
 
 
@@ -189,6 +199,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
             useNavigatorFilters.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS));
 
             advUseFetchSize.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_USE_FETCH_SIZE));
+            spillRowsText.setText(store.getString(ResultSetPreferences.RESULT_SET_SPILL_ROWS));
+            spillMemoryText.setText(store.getString(ResultSetPreferences.RESULT_SET_SPILL_MEMORY));
 
             showErrorsInDialog.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_SHOW_ERRORS_IN_DIALOG));
 
@@ -219,6 +231,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
             store.setValue(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS, useNavigatorFilters.getSelection());
 
             store.setValue(ModelPreferences.RESULT_SET_USE_FETCH_SIZE, advUseFetchSize.getSelection());
+            store.setValue(ResultSetPreferences.RESULT_SET_SPILL_ROWS, spillRowsText.getText());
+            store.setValue(ResultSetPreferences.RESULT_SET_SPILL_MEMORY, spillMemoryText.getText());
 
             store.setValue(ResultSetPreferences.RESULT_SET_SHOW_ERRORS_IN_DIALOG, showErrorsInDialog.getSelection());
         } catch (Exception e) {
@@ -247,6 +261,8 @@ public class PrefPageResultSetMain extends TargetPrefPage
         store.setToDefault(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS);
 
         store.setToDefault(ModelPreferences.RESULT_SET_USE_FETCH_SIZE);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_SPILL_ROWS);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_SPILL_MEMORY);
 
         store.setToDefault(ResultSetPreferences.RESULT_SET_SHOW_ERRORS_IN_DIALOG);
 
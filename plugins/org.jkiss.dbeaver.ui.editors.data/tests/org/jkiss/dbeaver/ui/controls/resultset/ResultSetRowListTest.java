@@ -0,0 +1,171 @@
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ResultSetRowListTest {
+
+    private static final int SPILLED_ROWS = 5000;
+
+    private File folder;
+    private ResultSetSpillStore spillStore;
+    private ResultSetValueStore valueStore;
+    private final AtomicInteger createdRows = new AtomicInteger();
+    private ResultSetRowList rows;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("dbeaver-spill").toFile();
+        spillStore = new ResultSetSpillStore(1, folder);
+        valueStore = new ResultSetValueStore(1);
+        rows = new ResultSetRowList(row -> createdRows.incrementAndGet());
+        // Two rows on heap, then spilled rows
+        for (int i = 0; i < 2; i++) {
+            rows.add(new ResultSetRow(i, valueStore, valueStore.addRow(new Object[] { "v" + i })));
+        }
+        for (int i = 2; i < SPILLED_ROWS + 2; i++) {
+            rows.addSpilled(spillStore, spillStore.addRow(new Object[] { "v" + i }), i);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        spillStore.close();
+        folder.delete();
+    }
+
+    @Test
+    public void testSpilledRowsCreatedOnDemand() {
+        assertEquals(SPILLED_ROWS + 2, rows.size());
+        assertEquals(0, createdRows.get());
+        assertEquals(2, rows.getLoadedRows().size());
+
+        ResultSetRow row = rows.get(100);
+        assertEquals(1, createdRows.get());
+        assertEquals("v100", row.getValue(0));
+        assertEquals(100, row.getRowNumber());
+        assertEquals(100, row.getVisualNumber());
+        assertSame(row, rows.get(100));
+        assertEquals(100, rows.indexOf(row));
+
+        for (ResultSetRow r : rows) {
+            assertEquals("v" + r.getRowNumber(), r.getValue(0));
+        }
+        // Only recently used rows are kept
+        assertTrue(rows.getLoadedRows().size() <= 1002);
+    }
+
+    @Test
+    public void testChangedRowsAreKept() {
+        ResultSetRow deleted = rows.get(10);
+        deleted.setState(ResultSetRow.STATE_REMOVED);
+        ResultSetRow edited = rows.get(11);
+        edited.setValue(0, "changed");
+        for (int i = 100; i < rows.size(); i++) {
+            rows.get(i);
+        }
+        assertSame(deleted, rows.get(10));
+        assertSame(edited, rows.get(11));
+        assertEquals("changed", rows.get(11).getValue(0));
+        List<ResultSetRow> loadedRows = rows.getLoadedRows();
+        assertTrue(loadedRows.contains(deleted));
+        assertTrue(loadedRows.contains(edited));
+        // Unchanged row is created again
+        ResultSetRow unchanged = rows.get(12);
+        for (int i = 100; i < rows.size(); i++) {
+            rows.get(i);
+        }
+        assertNotSame(unchanged, rows.get(12));
+        assertEquals(unchanged, rows.get(12));
+    }
+
+    @Test
+    public void testInsertAndRemove() {
+        ResultSetRow added = new ResultSetRow(rows.size(), new Object[] { "added" });
+        rows.add(1000, added);
+        assertEquals(SPILLED_ROWS + 3, rows.size());
+        assertSame(added, rows.get(1000));
+        assertEquals("v999", rows.get(999).getValue(0));
+        assertEquals("v1000", rows.get(1001).getValue(0));
+        assertEquals("v1", rows.get(1).getValue(0));
+
+        ResultSetRow first = rows.remove(0);
+        assertEquals("v0", first.getValue(0));
+        assertSame(added, rows.get(999));
+        assertEquals("v1000", rows.get(1000).getValue(0));
+
+        assertSame(added, rows.remove(999));
+        assertEquals(SPILLED_ROWS + 1, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals("v" + (i + 1), rows.get(i).getValue(0));
+        }
+        try {
+            rows.remove(100);
+            fail("Spilled row must not be removed");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testReorder() throws IOException {
+        ResultSetRow heapRow = rows.get(0);
+        int size = rows.size();
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = size - i - 1;
+        }
+        rows.reorder(order);
+        for (int i = 0; i < size; i++) {
+            ResultSetRow row = rows.get(i);
+            assertEquals("v" + (size - i - 1), row.getValue(0));
+            assertEquals(size - i - 1, row.getRowNumber());
+            assertEquals(i, row.getVisualNumber());
+        }
+        assertSame(heapRow, rows.get(size - 1));
+        assertEquals(size - 1, heapRow.getVisualNumber());
+
+        // Rows appended after reorder go to the end
+        rows.add(new ResultSetRow(size, new Object[] { "heap" }));
+        rows.addSpilled(spillStore, spillStore.addRow(new Object[] { "spilled" }), size + 1);
+        assertEquals("heap", rows.get(size).getValue(0));
+        assertEquals("spilled", rows.get(size + 1).getValue(0));
+        assertEquals(size + 1, rows.get(size + 1).getRowNumber());
+    }
+
+    @Test
+    public void testShiftRowNumbers() {
+        rows.shiftSpilledRowNumbers(3000, -1);
+        assertEquals(2999, rows.get(2999).getRowNumber());
+        assertEquals(2999, rows.get(3000).getRowNumber());
+        assertEquals(SPILLED_ROWS, rows.get(SPILLED_ROWS + 1).getRowNumber());
+        // Heap rows are shifted by model
+        assertEquals(1, rows.get(1).getRowNumber());
+    }
+
+    @Test
+    public void testCopy() {
+        ResultSetRow edited = rows.get(50);
+        edited.setValue(0, "changed");
+        ResultSetRowList copy = rows.copy();
+        rows.add(0, new ResultSetRow(rows.size(), new Object[] { "added" }));
+        assertEquals(SPILLED_ROWS + 3, rows.size());
+        assertEquals(SPILLED_ROWS + 2, copy.size());
+        assertEquals("v0", copy.get(0).getValue(0));
+        assertSame(edited, copy.get(50));
+        int created = createdRows.get();
+        assertEquals("v4000", copy.get(4000).getValue(0));
+        // Copy doesn't initialize rows
+        assertEquals(created, createdRows.get());
+    }
+
+}
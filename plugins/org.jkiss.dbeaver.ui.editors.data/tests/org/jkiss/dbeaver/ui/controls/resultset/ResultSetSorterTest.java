@@ -0,0 +1,114 @@
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ResultSetSorterTest {
+
+    @Test
+    public void testDoubles() {
+        Object[] values = { 1.5, Double.NaN, -0.0, null, 0.0, Double.NEGATIVE_INFINITY, -1.0, Double.POSITIVE_INFINITY, Float.NaN };
+        assertArrayEquals(
+            new Object[] { Double.NEGATIVE_INFINITY, -1.0, -0.0, 0.0, 1.5, Double.POSITIVE_INFINITY, Double.NaN, Float.NaN, null },
+            sort(values, false));
+        assertArrayEquals(
+            new Object[] { null, Double.NaN, Float.NaN, Double.POSITIVE_INFINITY, 1.5, 0.0, -0.0, -1.0, Double.NEGATIVE_INFINITY },
+            sort(values, true));
+    }
+
+    @Test
+    public void testSignedZeros() {
+        Object[] values = { 0.0, -0.0, 0.0f, -0.0f };
+        assertArrayEquals(new Object[] { -0.0, -0.0f, 0.0, 0.0f }, sort(values, false));
+    }
+
+    @Test
+    public void testNaNTransitivity() {
+        // NaN must not be equal to everything, otherwise merge order depends on row positions
+        Random random = new Random(1);
+        Object[] values = new Object[10000];
+        for (int i = 0; i < values.length; i++) {
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                values[i] = Double.NaN;
+            } else if (kind > 1) {
+                values[i] = random.nextDouble() * 100 - 50;
+            }
+        }
+        Object[] sorted = sort(values, false);
+        for (int i = 1; i < sorted.length; i++) {
+            Object prev = sorted[i - 1], cur = sorted[i];
+            if (cur != null) {
+                assertNotNull("Null before value", prev);
+                assertTrue("Wrong order at " + i, Double.compare((Double) prev, (Double) cur) <= 0);
+            }
+        }
+    }
+
+    @Test
+    public void testNulls() {
+        Object[] values = { null, 3L, null, 1, 2 };
+        assertArrayEquals(new Object[] { 1, 2, 3L, null, null }, sort(values, false));
+        assertArrayEquals(new Object[] { null, null, 3L, 2, 1 }, sort(values, true));
+        assertArrayEquals(new Object[] { null, null }, sort(new Object[] { null, null }, false));
+    }
+
+    @Test
+    public void testMixedNumbers() {
+        Object[] values = { 2, 1.5, Long.MAX_VALUE, -3L, Double.NaN, (short) 0, 0.5f };
+        assertArrayEquals(new Object[] { -3L, (short) 0, 0.5f, 1.5, 2, Long.MAX_VALUE, Double.NaN }, sort(values, false));
+        Object[] decimals = { new BigDecimal("2.5"), 1, new BigDecimal("-1") };
+        assertArrayEquals(new Object[] { new BigDecimal("-1"), 1, new BigDecimal("2.5") }, sort(decimals, false));
+    }
+
+    @Test
+    public void testMixedTypes() {
+        Object[] values = { "b", 2, "a", null, 1 };
+        Object[] sorted = sort(values, false);
+        // Values are grouped by type, nulls go last
+        assertArrayEquals(new Object[] { 1, 2, "a", "b", null }, sorted);
+    }
+
+    @Test
+    public void testTimestamps() {
+        Timestamp first = new Timestamp(1000L);
+        first.setNanos(100);
+        Timestamp second = new Timestamp(1000L);
+        second.setNanos(200);
+        java.util.Date date = new java.util.Date(999L);
+        Object[] values = { second, null, first, date };
+        assertArrayEquals(new Object[] { date, first, second, null }, sort(values, false));
+    }
+
+    @Test
+    public void testStable() {
+        Object[] values = new Object[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 3 == 0 ? null : (double) (i % 7);
+        }
+        int[] order = ResultSetSorter.sortIndexes(
+            new ResultSetSorter.SortKey[] { ResultSetSorter.createKey(values.clone(), false) }, values.length);
+        for (int i = 1; i < order.length; i++) {
+            Object prev = values[order[i - 1]], cur = values[order[i]];
+            if (prev == null ? cur == null : prev.equals(cur)) {
+                assertTrue("Equal rows reordered", order[i - 1] < order[i]);
+            }
+        }
+    }
+
+    private static Object[] sort(Object[] values, boolean descending) {
+        int[] order = ResultSetSorter.sortIndexes(
+            new ResultSetSorter.SortKey[] { ResultSetSorter.createKey(values.clone(), descending) }, values.length);
+        Object[] result = new Object[values.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = values[order[i]];
+        }
+        return result;
+    }
+
+}
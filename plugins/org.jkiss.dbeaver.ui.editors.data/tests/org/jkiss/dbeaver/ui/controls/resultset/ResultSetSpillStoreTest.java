@@ -0,0 +1,147 @@
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+public class ResultSetSpillStoreTest {
+
+    private File folder;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("dbeaver-spill").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    @Test
+    public void testValueTypesRoundTrip() throws IOException {
+        Timestamp timestamp = new Timestamp(1500000000123L);
+        timestamp.setNanos(123456789);
+        Object[] row = {
+            "text привет 😀", "",
+            Integer.MIN_VALUE, Long.MAX_VALUE, (short) -5, (byte) 7,
+            -0.0d, Double.NaN, 1.5f,
+            new BigDecimal("-12345678901234567890.000123"), new BigDecimal("1E+5"),
+            new BigInteger("-98765432109876543210"),
+            true, false,
+            timestamp, java.sql.Date.valueOf("2019-01-31"), Time.valueOf("23:59:58"), new Date(-62135769600000L),
+            new byte[] { 0, -1, 127, -128 }, new byte[0]
+        };
+        try (Store store = new Store(row.length)) {
+            assertEquals(0, store.spill.addRow(row));
+            Object[] values = store.spill.getRowValues(0);
+            assertEquals(row.length, values.length);
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] instanceof byte[]) {
+                    assertArrayEquals((byte[]) row[i], (byte[]) values[i]);
+                } else {
+                    assertEquals("Column " + i, row[i], values[i]);
+                    assertEquals("Column " + i, row[i].getClass(), values[i].getClass());
+                }
+            }
+            assertEquals(123456789, ((Timestamp) values[14]).getNanos());
+            assertEquals(6, ((BigDecimal) values[9]).scale());
+            assertEquals(-5, ((BigDecimal) values[10]).scale());
+            assertTrue(store.spill.getSpilledBytes() > 0);
+        }
+    }
+
+    @Test
+    public void testNulls() throws IOException {
+        try (Store store = new Store(3)) {
+            assertEquals(0, store.spill.addRow(new Object[] { null, null, null }));
+            assertEquals(1, store.spill.addRow(new Object[] { 1L, null, "a" }));
+            assertArrayEquals(new Object[] { null, null, null }, store.spill.getRowValues(0));
+            assertNull(store.spill.getValue(1, 1));
+            assertEquals(1L, store.spill.getValue(1, 0));
+            assertEquals("a", store.spill.getValue(1, 2));
+        }
+    }
+
+    @Test
+    public void testLobValuesAreNotSpilled() throws IOException {
+        try (Store store = new Store(2)) {
+            // LOB content objects hold database resources and stay on heap.
+            // Store index isn't consumed by rejected rows
+            assertEquals(-1, store.spill.addRow(new Object[] { 1, new StringReader("clob") }));
+            assertEquals(-1, store.spill.addRow(new Object[] { 2, new Object() }));
+            // Null LOB is stored as plain null
+            assertEquals(0, store.spill.addRow(new Object[] { 3, null }));
+            assertEquals(1, store.spill.getRowCount());
+            assertArrayEquals(new Object[] { 3, null }, store.spill.getRowValues(0));
+            // Wrong column count
+            assertEquals(-1, store.spill.addRow(new Object[] { 4 }));
+        }
+    }
+
+    @Test
+    public void testReadAfterCacheEviction() throws IOException {
+        int rowCount = 5000;
+        try (Store store = new Store(2)) {
+            for (int i = 0; i < rowCount; i++) {
+                assertEquals(i, store.spill.addRow(new Object[] { i, "row" + i }));
+            }
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = rowCount - 1; i >= 0; i--) {
+                    assertEquals(i, store.spill.getValue(i, 0));
+                    assertEquals("row" + i, store.spill.getValue(i, 1));
+                }
+            }
+            // Returned values are a copy
+            store.spill.getRowValues(10)[1] = "changed";
+            assertEquals("row10", store.spill.getValue(10, 1));
+            store.spill.releaseRow(10);
+            assertEquals("row10", store.spill.getValue(10, 1));
+        }
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        ResultSetSpillStore store = new ResultSetSpillStore(1, folder);
+        store.addRow(new Object[] { "value" });
+        assertEquals(1, folder.listFiles().length);
+        store.close();
+        assertEquals(0, folder.listFiles().length);
+        assertArrayEquals(new Object[1], store.getRowValues(0));
+        assertEquals(-1, store.addRow(new Object[] { "value" }));
+        // Second close is ignored
+        store.close();
+    }
+
+    private class Store implements AutoCloseable {
+        final ResultSetSpillStore spill;
+
+        Store(int columnCount) throws IOException {
+            spill = new ResultSetSpillStore(columnCount, folder);
+        }
+
+        @Override
+        public void close() {
+            spill.close();
+        }
+    }
+
+}
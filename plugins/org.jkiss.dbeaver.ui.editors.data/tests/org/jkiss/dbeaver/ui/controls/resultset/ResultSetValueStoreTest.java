@@ -0,0 +1,141 @@
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ResultSetValueStoreTest {
+
+    @Test
+    public void testAppendAndRead() {
+        ResultSetValueStore store = new ResultSetValueStore(8);
+        Timestamp timestamp = new Timestamp(1500000000123L);
+        timestamp.setNanos(123456789);
+        Object[] row = { 1, 2L, 3.5, new BigDecimal("12.345"), timestamp, java.sql.Date.valueOf("2019-01-31"), "text", null };
+        int index = store.addRow(row);
+
+        assertEquals(0, index);
+        assertEquals(1, store.getRowCount());
+        assertArrayEquals(row, store.getRowValues(index));
+        for (int i = 0; i < row.length; i++) {
+            assertEquals(row[i], store.getValue(index, i));
+        }
+        assertEquals(Integer.class, store.getValue(index, 0).getClass());
+        assertEquals(3, ((BigDecimal) store.getValue(index, 3)).scale());
+    }
+
+    @Test
+    public void testNulls() {
+        ResultSetValueStore store = new ResultSetValueStore(2);
+        store.addRow(new Object[] { null, null });
+        store.addRow(new Object[] { 10L, null });
+        store.addRow(new Object[] { null, "a" });
+
+        assertNull(store.getValue(0, 0));
+        assertEquals(10L, store.getValue(1, 0));
+        assertNull(store.getValue(2, 0));
+        assertNull(store.getValue(1, 1));
+        assertEquals("a", store.getValue(2, 1));
+    }
+
+    @Test
+    public void testGrowth() {
+        ResultSetValueStore store = new ResultSetValueStore(2);
+        int rowCount = 100000;
+        for (int i = 0; i < rowCount; i++) {
+            assertEquals(i, store.addRow(new Object[] { i, i % 3 == 0 ? null : (long) i * 1000 }));
+        }
+        assertEquals(rowCount, store.getRowCount());
+        for (int i = 0; i < rowCount; i++) {
+            assertEquals(i, store.getValue(i, 0));
+            assertEquals(i % 3 == 0 ? null : (long) i * 1000, store.getValue(i, 1));
+        }
+    }
+
+    @Test
+    public void testMixedTypes() {
+        ResultSetValueStore store = new ResultSetValueStore(2);
+        store.addRow(new Object[] { 1, new BigDecimal("1") });
+        store.addRow(new Object[] { 2L, new BigDecimal("123456789012345678901234567890") });
+        store.addRow(new Object[] { "three", null });
+
+        assertEquals(1, store.getValue(0, 0));
+        assertEquals(2L, store.getValue(1, 0));
+        assertEquals("three", store.getValue(2, 0));
+        assertEquals(new BigDecimal("1"), store.getValue(0, 1));
+        assertEquals(new BigDecimal("123456789012345678901234567890"), store.getValue(1, 1));
+    }
+
+    @Test
+    public void testHighCardinalityStrings() {
+        ResultSetValueStore store = new ResultSetValueStore(1);
+        int rowCount = 5000;
+        for (int i = 0; i < rowCount; i++) {
+            store.addRow(new Object[] { "value" + i });
+        }
+        for (int i = 0; i < rowCount; i++) {
+            assertEquals("value" + i, store.getValue(i, 0));
+        }
+    }
+
+    @Test
+    public void testRepeatedReadDoesNotBox() {
+        ResultSetValueStore store = new ResultSetValueStore(1);
+        store.addRow(new Object[] { 100000L });
+        store.addRow(new Object[] { 200000L });
+        Object value = store.getValue(0, 0);
+        assertSame(value, store.getValue(0, 0));
+        assertSame(value, store.getRowValues(0)[0]);
+        assertEquals(200000L, store.getValue(1, 0));
+    }
+
+    @Test
+    public void testReleaseRow() {
+        ResultSetValueStore store = new ResultSetValueStore(2);
+        store.addRow(new Object[] { 1, new Object() });
+        store.releaseRow(0);
+        assertEquals(1, store.getValue(0, 0));
+        assertNull(store.getValue(0, 1));
+    }
+
+    @Test
+    public void testReadWhileAppending() throws Exception {
+        ResultSetValueStore store = new ResultSetValueStore(3);
+        int rowCount = 200000;
+        AtomicReference<Throwable> readError = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                int checked = 0;
+                while (checked < rowCount) {
+                    int available = store.getRowCount();
+                    for (; checked < available; checked++) {
+                        Object[] values = store.getRowValues(checked);
+                        if (!Integer.valueOf(checked).equals(values[0]) ||
+                            !Long.valueOf(checked * 2L).equals(values[1]) ||
+                            // Column type changes during load
+                            !(checked < rowCount / 2 ? Integer.valueOf(checked) : "s" + checked).equals(values[2]))
+                        {
+                            throw new AssertionError("Bad values of row " + checked);
+                        }
+                    }
+                }
+            } catch (Throwable e) {
+                readError.set(e);
+            }
+        });
+        reader.start();
+        for (int i = 0; i < rowCount; i++) {
+            store.addRow(new Object[] { i, i * 2L, i < rowCount / 2 ? (Object) i : "s" + i });
+        }
+        reader.join(60000);
+        assertFalse(reader.isAlive());
+        if (readError.get() != null) {
+            throw new AssertionError(readError.get());
+        }
+    }
+
+}
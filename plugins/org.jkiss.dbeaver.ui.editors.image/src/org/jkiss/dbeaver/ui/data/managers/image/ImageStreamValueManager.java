@@ -31,6 +31,7 @@ import org.jkiss.dbeaver.model.struct.DBSTypedObject;
 import org.jkiss.dbeaver.ui.data.IStreamValueEditor;
 import org.jkiss.dbeaver.ui.data.IStreamValueManager;
 import org.jkiss.dbeaver.ui.data.IValueController;
+import org.jkiss.utils.IOUtils;
 
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
@@ -68,6 +69,46 @@ public class ImageStreamValueManager implements IStreamValueManager {
         return new ImageEditorPart();
     }
 
+    private enum ImageSignature {
+        NONE,
+        WEAK,
+        STRONG
+    }
+
+    private static final int IMAGE_HEADER_SIZE = 8;
+
+    private static ImageSignature detectSignature(byte[] header, int length)
+    {
+        if (startsWith(header, length, 0x89, 'P', 'N', 'G') ||
+            startsWith(header, length, 0xFF, 0xD8, 0xFF) ||
+            startsWith(header, length, 'G', 'I', 'F', '8') ||
+            startsWith(header, length, 'I', 'I', 0x2A, 0x00) ||
+            startsWith(header, length, 'M', 'M', 0x00, 0x2A))
+        {
+            return ImageSignature.STRONG;
+        }
+        if (startsWith(header, length, 'B', 'M') ||
+            startsWith(header, length, 0x00, 0x00, 0x01, 0x00))
+        {
+            // BMP or ICO
+            return ImageSignature.WEAK;
+        }
+        return ImageSignature.NONE;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int... signature)
+    {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((header[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static class ImageDetector implements DBRRunnableWithProgress {
         private final DBDContent content;
         private boolean isImage;
@@ -89,10 +130,20 @@ public class ImageStreamValueManager implements IStreamValueManager {
                 try {
                     DBDContentStorage contents = content.getContents(monitor);
                     if (contents != null) {
+                        // Check image signature first. Do not read the whole content if it isn't an image
+                        byte[] header = new byte[IMAGE_HEADER_SIZE];
+                        int headerLength;
                         try (InputStream contentStream = contents.getContentStream()) {
-                            new ImageLoader().load(contentStream);
+                            headerLength = IOUtils.readStreamToBuffer(contentStream, header);
+                        }
+                        ImageSignature signature = detectSignature(header, headerLength);
+                        if (signature == ImageSignature.WEAK) {
+                            // Short signature. Make sure that image can be loaded
+                            try (InputStream contentStream = contents.getContentStream()) {
+                                new ImageLoader().load(contentStream);
+                            }
                         }
-                        isImage = true;
+                        isImage = signature != ImageSignature.NONE;
                     }
                 }
                 catch (Exception e) {
@@ -66,6 +66,7 @@ import org.jkiss.dbeaver.ui.editors.sql.syntax.SQLCharacterPairMatcher;
 import org.jkiss.dbeaver.ui.editors.sql.syntax.SQLEditorCompletionContext;
 import org.jkiss.dbeaver.ui.editors.sql.syntax.SQLPartitionScanner;
 import org.jkiss.dbeaver.ui.editors.sql.syntax.SQLRuleManager;
+import org.jkiss.dbeaver.ui.editors.sql.syntax.SQLScriptStatementIndex;
 import org.jkiss.dbeaver.ui.editors.sql.syntax.rules.SQLVariableRule;
 import org.jkiss.dbeaver.ui.editors.sql.syntax.tokens.SQLControlToken;
 import org.jkiss.dbeaver.ui.editors.sql.syntax.tokens.SQLToken;
@@ -129,6 +130,7 @@ public abstract class SQLEditorBase extends BaseTextEditor implements DBPContext
     private OccurrencesFinderJobCanceler occurrencesFinderJobCanceler;
     private ICharacterPairMatcher characterPairMatcher;
     private SQLEditorCompletionContext completionContext;
+    private final SQLScriptStatementIndex statementIndex = new SQLScriptStatementIndex();
 
     public SQLEditorBase() {
         super();
@@ -703,6 +705,17 @@ public abstract class SQLEditorBase extends BaseTextEditor implements DBPContext
                 currentPos++;
             }
         }
+        {
+            // Use statements index if it is up to date
+            int statementStart = statementIndex.findStatementStart(currentPos);
+            if (statementStart >= 0) {
+                try {
+                    return parseQuery(document, statementStart, docLength, document.getLineOffset(document.getLineOfOffset(currentPos)), false, false);
+                } catch (BadLocationException e) {
+                    log.warn(e);
+                }
+            }
+        }
         // Extract part of document between empty lines
         int startPos = 0;
         boolean useBlankLines = syntaxManager.isBlankLineDelimiter();
@@ -874,6 +887,14 @@ public abstract class SQLEditorBase extends BaseTextEditor implements DBPContext
         return queryList;
     }
 
+    /**
+     * Statements index. It is maintained by reconciler (if folding is enabled).
+     */
+    @NotNull
+    public SQLScriptStatementIndex getStatementIndex() {
+        return statementIndex;
+    }
+
     public SQLCompletionContext getCompletionContext() {
         return completionContext;
     }
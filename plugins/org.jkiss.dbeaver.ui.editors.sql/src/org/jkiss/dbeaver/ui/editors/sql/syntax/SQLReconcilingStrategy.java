@@ -17,9 +17,7 @@
 package org.jkiss.dbeaver.ui.editors.sql.syntax;
 
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.IRegion;
-import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.*;
 import org.eclipse.jface.text.reconciler.DirtyRegion;
 import org.eclipse.jface.text.reconciler.IReconcilingStrategy;
 import org.eclipse.jface.text.reconciler.IReconcilingStrategyExtension;
@@ -28,25 +26,24 @@ import org.eclipse.jface.text.source.projection.ProjectionAnnotation;
 import org.eclipse.jface.text.source.projection.ProjectionAnnotationModel;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.sql.SQLScriptElement;
+import org.jkiss.dbeaver.model.sql.parser.SQLParserPartitions;
 import org.jkiss.dbeaver.ui.editors.sql.SQLEditorBase;
-import org.jkiss.dbeaver.ui.editors.sql.SQLPreferenceConstants;
-import org.jkiss.utils.CommonUtils;
 
 import java.util.*;
 
 /**
- * SQLReconcilingStrategy
+ * SQLReconcilingStrategy.
+ *
+ * Keeps script statements in {@link SQLScriptStatementIndex}.
+ * Only statements touched by document changes are parsed again.
  */
-public class SQLReconcilingStrategy implements IReconcilingStrategy, IReconcilingStrategyExtension
+public class SQLReconcilingStrategy implements IReconcilingStrategy, IReconcilingStrategyExtension, IDocumentListener
 {
     static protected final Log log = Log.getLog(SQLReconcilingStrategy.class);
 
     private SQLEditorBase editor;
     private IDocument document;
 
-    private int regionOffset;
-    private int regionLength;
-
     public SQLEditorBase getEditor()
     {
         return editor;
@@ -60,7 +57,28 @@ public class SQLReconcilingStrategy implements IReconcilingStrategy, IReconcilin
     @Override
     public void setDocument(IDocument document)
     {
+        if (this.document != null) {
+            this.document.removeDocumentListener(this);
+        }
         this.document = document;
+        editor.getStatementIndex().clear();
+        if (this.document != null) {
+            this.document.addDocumentListener(this);
+        }
+    }
+
+    @Override
+    public void documentAboutToBeChanged(DocumentEvent event)
+    {
+    }
+
+    @Override
+    public void documentChanged(DocumentEvent event)
+    {
+        editor.getStatementIndex().documentChanged(
+            event.getOffset(),
+            event.getLength(),
+            event.getText() == null ? 0 : event.getText().length());
     }
 
     @Override
@@ -86,141 +104,110 @@ public class SQLReconcilingStrategy implements IReconcilingStrategy, IReconcilin
         calculatePositions(null);
     }
 
-    private List<SQLScriptPosition> parsedPositions = new ArrayList<>();
-
     protected void calculatePositions(IRegion partition)
     {
         if (!editor.isFoldingEnabled()) {
             return;
         }
-
-        List<Annotation> removedAnnotations = null;
-        Map<Annotation, Position> addedAnnotations = null;
-
-        if (partition == null) {
-            regionOffset = 0;
-            regionLength = document.getLength();
-        } else {
-            regionOffset = partition.getOffset();
-            regionLength = partition.getLength();
-
-            for (int i = 0; i < parsedPositions.size(); i++) {
-                SQLScriptPosition sp = parsedPositions.get(i);
-                if (sp.getOffset() <= regionOffset + regionLength && sp.getOffset() + sp.getLength() >= regionOffset + regionLength) {
-                    SQLScriptPosition startPos = i > 0 ? parsedPositions.get(i - 1) : sp;
-                    SQLScriptPosition endPos = i < parsedPositions.size() - 1 ? parsedPositions.get(i + 1) : sp;
-                    regionOffset = i == 0 ? 0 : startPos.getOffset();
-                    regionLength = endPos.getOffset() + endPos.getLength() + regionLength;
-                    break;
-                }
-            }
-
-/*
-            if (partition instanceof DirtyRegion) {
-                // Modify positions
-                DirtyRegion dirtyRegion = (DirtyRegion)partition;
-                // Shift parsed positions
-                boolean insert = DirtyRegion.INSERT.equals(dirtyRegion.getType());
-                for (SQLScriptPosition sp : parsedPositions) {
-                    if (dirtyRegion.getOffset() > sp.getOffset() && dirtyRegion.getOffset() < sp.getOffset() + sp.getLength()) {
-                        // In this position
-                        if (insert) {
-                            sp.setLength(sp.getLength() + dirtyRegion.getLength());
-                        } else {
-                            sp.setLength(sp.getLength() - dirtyRegion.getLength());
-                        }
-                    } else if (sp.getOffset() >= dirtyRegion.getOffset()) {
-                        // After this position
-                        if (insert) {
-                            sp.setOffset(sp.getOffset() + dirtyRegion.getLength());
-                        } else {
-                            sp.setOffset(sp.getOffset() - dirtyRegion.getLength());
-                        }
-                    }
-                }
-            }
-*/
-        }
         ProjectionAnnotationModel annotationModel = editor.getAnnotationModel();
         if (annotationModel == null) {
             return;
         }
-        List<SQLScriptElement> queries;
-        try {
-            queries = editor.extractScriptQueries(regionOffset, document.getLength() - regionOffset, false, true, false);
-        } catch (Exception e) {
-            log.error("Error parsing script queries", e);
-            return;
-        }
+        SQLScriptStatementIndex statementIndex = editor.getStatementIndex();
+        long modificationStamp = getModificationStamp();
+        int documentLength = document.getLength();
 
-        {
-            List<SQLScriptPosition> removedPositions = new ArrayList<>();
-            for (SQLScriptPosition sp : parsedPositions) {
-                if (sp.getOffset() >= regionOffset/* && sp.getOffset() <= regionOffset + regionLength*/) {
-                    removedPositions.add(sp);
-                }
+        int regionOffset, regionEnd;
+        boolean fullParse = partition == null || !statementIndex.isInitialized();
+        if (fullParse) {
+            regionOffset = 0;
+            regionEnd = documentLength;
+        } else {
+            // Parse only changed statements
+            IRegion dirtyRegion = statementIndex.getDirtyRegion(documentLength);
+            if (dirtyRegion == null) {
+                return;
             }
-            if (!removedPositions.isEmpty()) {
-                parsedPositions.removeAll(removedPositions);
-                removedAnnotations = new ArrayList<>();
-                for (SQLScriptPosition removedPosition : removedPositions) {
-                    if (removedPosition.isMultiline()) {
-                        removedAnnotations.add(removedPosition.getFoldingAnnotation());
-                    }
-                }
+            regionOffset = dirtyRegion.getOffset();
+            regionEnd = dirtyRegion.getOffset() + dirtyRegion.getLength();
+            if (regionEnd < documentLength && !isDefaultPartition(regionEnd - 1)) {
+                // Unterminated comment or string affects all following statements
+                regionEnd = documentLength;
             }
         }
 
+        List<SQLScriptStatementIndex.ScriptStatement> addedStatements = new ArrayList<>();
         try {
-            List<SQLScriptPosition> addedPositions = new ArrayList<>();
-            int documentLength = document.getLength();
+            List<SQLScriptElement> queries = editor.extractScriptQueries(regionOffset, regionEnd - regionOffset, false, true, false);
             for (SQLScriptElement se : queries) {
                 int queryOffset = se.getOffset();
                 int queryLength = se.getLength();
 
                 boolean isMultiline = document.getLineOfOffset(queryOffset) != document.getLineOfOffset(queryOffset + queryLength);
-
-                // Expand query to the end of line
-                for (int i = queryOffset + queryLength; i < documentLength; i++) {
-                    char ch = document.getChar(i);
-                    if (Character.isWhitespace(ch)) {
-                        queryLength++;
-                    }
-                    if (ch == '\n') {
-                        break;
+                SQLScriptPosition position = null;
+                if (isMultiline) {
+                    // Expand query to the end of line
+                    int foldingLength = queryLength;
+                    for (int i = queryOffset + queryLength; i < documentLength; i++) {
+                        char ch = document.getChar(i);
+                        if (Character.isWhitespace(ch)) {
+                            foldingLength++;
+                        }
+                        if (ch == '\n') {
+                            break;
+                        }
                     }
+                    position = new SQLScriptPosition(queryOffset, foldingLength, true, new ProjectionAnnotation());
                 }
-                addedPositions.add(new SQLScriptPosition(queryOffset, queryLength, isMultiline, new ProjectionAnnotation()));
+                addedStatements.add(new SQLScriptStatementIndex.ScriptStatement(queryOffset, queryLength, position));
             }
-            if (!addedPositions.isEmpty()) {
-                final int firstQueryPos = addedPositions.get(0).getOffset();
-                int posBeforeFirst = 0;
-                for (int i = 0; i < parsedPositions.size(); i++) {
-                    SQLScriptPosition sp = parsedPositions.get(i);
-                    if (sp.getOffset() >= firstQueryPos) {
-                        break;
-                    }
-                    posBeforeFirst = i;
-                }
-                parsedPositions.addAll(posBeforeFirst, addedPositions);
+        } catch (Exception e) {
+            log.error("Error parsing script queries", e);
+            return;
+        }
 
-                addedAnnotations = new HashMap<>();
-                for (SQLScriptPosition pos : addedPositions) {
-                    if (pos.isMultiline()) {
-                        addedAnnotations.put(pos.getFoldingAnnotation(), pos);
-                    }
-                }
+        List<SQLScriptStatementIndex.ScriptStatement> removedStatements;
+        synchronized (statementIndex) {
+            if (modificationStamp != getModificationStamp()) {
+                // Document was changed during parse. Changes are in the dirty region so just wait for the next reconcile
+                return;
+            }
+            removedStatements = statementIndex.replace(regionOffset, fullParse ? Integer.MAX_VALUE : regionEnd, addedStatements);
+        }
+
+        List<Annotation> removedAnnotations = new ArrayList<>();
+        for (SQLScriptStatementIndex.ScriptStatement statement : removedStatements) {
+            if (statement.getPosition() != null) {
+                removedAnnotations.add(statement.getPosition().getFoldingAnnotation());
+            }
+        }
+        Map<Annotation, Position> addedAnnotations = new HashMap<>();
+        for (SQLScriptStatementIndex.ScriptStatement statement : addedStatements) {
+            SQLScriptPosition position = statement.getPosition();
+            if (position != null) {
+                addedAnnotations.put(position.getFoldingAnnotation(), position);
             }
-        } catch (Exception e) {
-            log.error(e);
         }
-        if (removedAnnotations != null || !CommonUtils.isEmpty(addedAnnotations)) {
+        if (!removedAnnotations.isEmpty() || !addedAnnotations.isEmpty()) {
             annotationModel.modifyAnnotations(
-                removedAnnotations == null ? null : removedAnnotations.toArray(new Annotation[removedAnnotations.size()]),
+                removedAnnotations.toArray(new Annotation[0]),
                 addedAnnotations,
                 null);
         }
     }
 
-}
+    private long getModificationStamp() {
+        return document instanceof IDocumentExtension4 ?
+            ((IDocumentExtension4) document).getModificationStamp() : IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+    }
 
+    private boolean isDefaultPartition(int offset) {
+        try {
+            return IDocument.DEFAULT_CONTENT_TYPE.equals(
+                TextUtilities.getContentType(document, SQLParserPartitions.SQL_PARTITIONING, offset, false));
+        } catch (BadLocationException e) {
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,336 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.editors.sql.syntax;
+
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index of script statements positions.
+ *
+ * Statements are kept in blocks. Statement offsets are relative to the block base offset,
+ * so document change shifts only statements of one block and base offsets of the following blocks.
+ * Statement lookup is a binary search over blocks and then over block statements.
+ *
+ * Changed document parts are collected in the dirty region which is re-parsed by reconciler.
+ */
+public class SQLScriptStatementIndex {
+
+    private static final int BLOCK_SIZE = 128;
+
+    /**
+     * Statement position.
+     */
+    public static class ScriptStatement {
+        // Absolute offset for new statements, offset relative to block base for indexed statements
+        private int offset;
+        private int length;
+        @Nullable
+        private final SQLScriptPosition position;
+
+        public ScriptStatement(int offset, int length, @Nullable SQLScriptPosition position) {
+            this.offset = offset;
+            this.length = length;
+            this.position = position;
+        }
+
+        /**
+         * Folding position (null for single-line statements)
+         */
+        @Nullable
+        public SQLScriptPosition getPosition() {
+            return position;
+        }
+    }
+
+    private static class Block {
+        int base;
+        final List<ScriptStatement> statements = new ArrayList<>();
+
+        int getStart() {
+            return base + statements.get(0).offset;
+        }
+    }
+
+    private final List<Block> blocks = new ArrayList<>();
+    private boolean initialized;
+    private int dirtyStart = -1;
+    private int dirtyEnd = -1;
+
+    public synchronized boolean isInitialized() {
+        return initialized;
+    }
+
+    public synchronized boolean isDirty() {
+        return dirtyStart >= 0;
+    }
+
+    /**
+     * Removes all statements.
+     * @return removed statements
+     */
+    @NotNull
+    public synchronized List<ScriptStatement> clear() {
+        List<ScriptStatement> removed = new ArrayList<>();
+        for (Block block : blocks) {
+            removed.addAll(block.statements);
+        }
+        blocks.clear();
+        initialized = false;
+        dirtyStart = dirtyEnd = -1;
+        return removed;
+    }
+
+    /**
+     * Shifts statements after document change and marks changed part as dirty.
+     */
+    public synchronized void documentChanged(int offset, int removedLength, int insertedLength) {
+        int delta = insertedLength - removedLength;
+        int changeEnd = offset + removedLength;
+        if (dirtyStart >= 0) {
+            dirtyStart = shiftOffset(dirtyStart, offset, changeEnd, delta);
+            dirtyEnd = shiftOffset(dirtyEnd, offset, changeEnd, delta);
+        }
+        markDirty(offset, offset + insertedLength);
+        if (blocks.isEmpty()) {
+            return;
+        }
+        int blockIndex = Math.max(findBlock(offset), 0);
+        for (int i = blockIndex; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            if (i > blockIndex && block.getStart() >= changeEnd) {
+                // Whole block is after the change
+                block.base += delta;
+                continue;
+            }
+            for (ScriptStatement statement : block.statements) {
+                int start = block.base + statement.offset;
+                int end = start + statement.length;
+                if (start >= changeEnd) {
+                    statement.offset += delta;
+                } else if (start >= offset) {
+                    // Statement start was removed
+                    statement.offset = offset - block.base;
+                    statement.length = Math.max(0, end + delta - offset);
+                } else if (end > offset) {
+                    statement.length = Math.max(offset - start, statement.length + delta);
+                }
+            }
+        }
+    }
+
+    private static int shiftOffset(int pos, int offset, int changeEnd, int delta) {
+        if (pos >= changeEnd) {
+            return pos + delta;
+        } else if (pos > offset) {
+            return offset;
+        }
+        return pos;
+    }
+
+    public synchronized void markDirty(int start, int end) {
+        if (dirtyStart < 0) {
+            dirtyStart = start;
+            dirtyEnd = end;
+        } else {
+            dirtyStart = Math.min(dirtyStart, start);
+            dirtyEnd = Math.max(dirtyEnd, end);
+        }
+    }
+
+    /**
+     * Returns region which must be re-parsed.
+     * Region covers all statements touched by document changes plus one statement before and after.
+     */
+    @Nullable
+    public synchronized IRegion getDirtyRegion(int documentLength) {
+        if (dirtyStart < 0) {
+            return null;
+        }
+        int start = 0, end = documentLength;
+        // Statements which start in the dirty region are not valid anymore - start from the previous one
+        int[] first = dirtyStart > 0 ? findStatement(dirtyStart - 1) : null;
+        if (first != null) {
+            // Previous statement may be merged with changed one
+            int[] prev = previousStatement(first);
+            if (prev != null) {
+                start = getStart(prev);
+            }
+        }
+        int[] last = findStatement(dirtyEnd);
+        int[] next = last == null ? firstStatement() : nextStatement(last);
+        if (next != null) {
+            end = Math.min(documentLength, getStart(next) + getStatement(next).length);
+        }
+        start = Math.min(start, end);
+        return new Region(start, end - start);
+    }
+
+    /**
+     * Replaces statements starting in the region with new statements and resets dirty state.
+     * Region must include dirty region.
+     * @param statements new statements (absolute offsets) ordered by offset
+     * @return removed statements
+     */
+    @NotNull
+    public synchronized List<ScriptStatement> replace(int start, int end, @NotNull List<ScriptStatement> statements) {
+        initialized = true;
+        dirtyStart = dirtyEnd = -1;
+        List<ScriptStatement> removed = new ArrayList<>();
+        int firstBlock, lastBlock;
+        if (blocks.isEmpty()) {
+            firstBlock = 0;
+            lastBlock = -1;
+        } else {
+            firstBlock = Math.max(findBlock(start), 0);
+            lastBlock = Math.max(findBlock(end), firstBlock);
+        }
+        // Convert all statements of touched blocks to absolute offsets
+        List<ScriptStatement> merged = new ArrayList<>();
+        boolean inserted = false;
+        for (int i = firstBlock; i <= lastBlock; i++) {
+            Block block = blocks.get(i);
+            for (ScriptStatement statement : block.statements) {
+                statement.offset += block.base;
+                // Statement which text was removed completely has zero length
+                if (statement.offset >= start && (statement.offset < end || (statement.offset == end && statement.length == 0))) {
+                    removed.add(statement);
+                    continue;
+                }
+                if (!inserted && statement.offset >= end) {
+                    merged.addAll(statements);
+                    inserted = true;
+                }
+                merged.add(statement);
+            }
+        }
+        if (!inserted) {
+            merged.addAll(statements);
+        }
+        // Rebuild touched blocks
+        if (lastBlock >= firstBlock) {
+            blocks.subList(firstBlock, lastBlock + 1).clear();
+        }
+        List<Block> newBlocks = new ArrayList<>();
+        for (int i = 0; i < merged.size(); i += BLOCK_SIZE) {
+            Block block = new Block();
+            block.base = merged.get(i).offset;
+            for (int k = i; k < Math.min(merged.size(), i + BLOCK_SIZE); k++) {
+                ScriptStatement statement = merged.get(k);
+                statement.offset -= block.base;
+                block.statements.add(statement);
+            }
+            newBlocks.add(block);
+        }
+        blocks.addAll(firstBlock, newBlocks);
+        return removed;
+    }
+
+    /**
+     * Finds start offset of statement which contains specified position.
+     * @return statement offset or -1 if index is not initialized, dirty or position is outside of any statement
+     */
+    public synchronized int findStatementStart(int pos) {
+        if (!initialized || dirtyStart >= 0) {
+            return -1;
+        }
+        int[] index = findStatement(pos);
+        if (index == null) {
+            return -1;
+        }
+        int start = getStart(index);
+        return pos <= start + getStatement(index).length ? start : -1;
+    }
+
+    // Index of the block with max start offset <= pos
+    private int findBlock(int pos) {
+        int low = 0, high = blocks.size() - 1, result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (blocks.get(mid).getStart() <= pos) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    // Block and statement indexes of the last statement with start offset <= pos
+    @Nullable
+    private int[] findStatement(int pos) {
+        int blockIndex = findBlock(pos);
+        if (blockIndex < 0) {
+            return null;
+        }
+        Block block = blocks.get(blockIndex);
+        int relPos = pos - block.base;
+        int low = 0, high = block.statements.size() - 1, result = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (block.statements.get(mid).offset <= relPos) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return new int[] { blockIndex, result };
+    }
+
+    @Nullable
+    private int[] firstStatement() {
+        return blocks.isEmpty() ? null : new int[] { 0, 0 };
+    }
+
+    @Nullable
+    private int[] previousStatement(@NotNull int[] index) {
+        if (index[1] > 0) {
+            return new int[] { index[0], index[1] - 1 };
+        }
+        if (index[0] > 0) {
+            return new int[] { index[0] - 1, blocks.get(index[0] - 1).statements.size() - 1 };
+        }
+        return null;
+    }
+
+    @Nullable
+    private int[] nextStatement(@NotNull int[] index) {
+        if (index[1] < blocks.get(index[0]).statements.size() - 1) {
+            return new int[] { index[0], index[1] + 1 };
+        }
+        if (index[0] < blocks.size() - 1) {
+            return new int[] { index[0] + 1, 0 };
+        }
+        return null;
+    }
+
+    private ScriptStatement getStatement(@NotNull int[] index) {
+        return blocks.get(index[0]).statements.get(index[1]);
+    }
+
+    private int getStart(@NotNull int[] index) {
+        return blocks.get(index[0]).base + getStatement(index).offset;
+    }
+
+}
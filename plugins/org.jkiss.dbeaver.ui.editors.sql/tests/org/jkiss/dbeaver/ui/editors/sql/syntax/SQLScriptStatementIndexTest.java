@@ -0,0 +1,210 @@
+package org.jkiss.dbeaver.ui.editors.sql.syntax;
+
+import org.eclipse.jface.text.IRegion;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SQLScriptStatementIndexTest {
+
+    private SQLScriptStatementIndex index;
+    private StringBuilder document;
+
+    @Before
+    public void init() {
+        index = new SQLScriptStatementIndex();
+        document = new StringBuilder();
+    }
+
+    @Test
+    public void shouldNotFindStatementsBeforeInit() {
+        setDocument("SELECT 1;\nSELECT 2;");
+
+        assertFalse(index.isInitialized());
+        assertEquals(-1, index.findStatementStart(0));
+    }
+
+    @Test
+    public void shouldFindStatements() {
+        setDocument("SELECT 1;\nSELECT 2;\n  SELECT 3");
+        reconcile();
+
+        assertTrue(index.isInitialized());
+        assertEquals(0, index.findStatementStart(3));
+        assertEquals(10, index.findStatementStart(12));
+        assertEquals(22, index.findStatementStart(30));
+        assertEquals(-1, index.findStatementStart(20));
+        checkIndex();
+    }
+
+    @Test
+    public void shouldReparseOnlyChangedStatements() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("SELECT ").append(i).append(" FROM t;\n");
+        }
+        setDocument(text.toString());
+        reconcile();
+
+        int offset = document.indexOf("SELECT 500 ");
+        edit(offset + 7, 3, "42");
+
+        assertTrue(index.isDirty());
+        assertEquals(-1, index.findStatementStart(0));
+        IRegion region = index.getDirtyRegion(document.length());
+        assertNotNull(region);
+        // Changed statement and its neighbours
+        assertTrue(region.getOffset() <= offset);
+        assertTrue(region.getOffset() + region.getLength() >= offset + 7);
+        assertTrue(region.getLength() < 100);
+
+        reconcile(region);
+        assertFalse(index.isDirty());
+        checkIndex();
+    }
+
+    @Test
+    public void shouldMergeAndSplitStatements() {
+        setDocument("SELECT 1;\nSELECT 2;\nSELECT 3;");
+        reconcile();
+
+        // Remove delimiter: first two statements become one
+        edit(8, 1, "");
+        reconcileDirty();
+        checkIndex();
+        assertEquals(0, index.findStatementStart(12));
+
+        // Insert delimiter back
+        edit(8, 0, ";");
+        reconcileDirty();
+        checkIndex();
+        assertEquals(10, index.findStatementStart(12));
+    }
+
+    @Test
+    public void shouldRemoveStatements() {
+        setDocument("SELECT 1;\nSELECT 2;\nSELECT 3;\nSELECT 4;");
+        reconcile();
+
+        edit(10, 20, "");
+        reconcileDirty();
+        checkIndex();
+        assertEquals(10, index.findStatementStart(12));
+    }
+
+    @Test
+    public void shouldClear() {
+        setDocument("SELECT 1;\nSELECT 2;");
+        reconcile();
+
+        assertEquals(2, index.clear().size());
+        assertFalse(index.isInitialized());
+        assertEquals(-1, index.findStatementStart(0));
+    }
+
+    @Test
+    public void shouldMatchFullParseAfterRandomEdits() {
+        Random random = new Random(42);
+        String[] fragments = { "SELECT 1", ";", "\n", " ", "FROM t", ";\n", "x", "" };
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 600; i++) {
+            text.append("SELECT ").append(i).append(i % 7 == 0 ? "\nFROM t" : "").append(";\n");
+        }
+        setDocument(text.toString());
+        reconcile();
+        for (int i = 0; i < 500; i++) {
+            // One or more edits between reconciles
+            int edits = 1 + random.nextInt(3);
+            for (int k = 0; k < edits; k++) {
+                int offset = random.nextInt(document.length() + 1);
+                int length = Math.min(random.nextInt(30), document.length() - offset);
+                edit(offset, length, fragments[random.nextInt(fragments.length)]);
+            }
+            reconcileDirty();
+            checkIndex();
+        }
+    }
+
+    private void setDocument(String text) {
+        document.setLength(0);
+        document.append(text);
+        index.clear();
+    }
+
+    private void edit(int offset, int length, String text) {
+        document.replace(offset, offset + length, text);
+        index.documentChanged(offset, length, text.length());
+    }
+
+    private void reconcile() {
+        index.replace(0, document.length(), parse(0, document.length()));
+    }
+
+    private void reconcileDirty() {
+        IRegion region = index.getDirtyRegion(document.length());
+        assertNotNull(region);
+        reconcile(region);
+    }
+
+    private void reconcile(IRegion region) {
+        int start = region.getOffset(), end = region.getOffset() + region.getLength();
+        index.replace(start, end, parse(start, end));
+    }
+
+    private List<SQLScriptStatementIndex.ScriptStatement> parse(int start, int end) {
+        List<SQLScriptStatementIndex.ScriptStatement> statements = new ArrayList<>();
+        for (int[] range : parseRanges(start, end)) {
+            statements.add(new SQLScriptStatementIndex.ScriptStatement(range[0], range[1], null));
+        }
+        return statements;
+    }
+
+    /**
+     * Splits text on statements by ';'. Leading spaces are not part of statement.
+     * @return statements offsets and lengths
+     */
+    private List<int[]> parseRanges(int start, int end) {
+        List<int[]> ranges = new ArrayList<>();
+        int pos = start;
+        while (pos < end) {
+            while (pos < end && Character.isWhitespace(document.charAt(pos))) {
+                pos++;
+            }
+            if (pos >= end) {
+                break;
+            }
+            int statementEnd = pos;
+            while (statementEnd < end && document.charAt(statementEnd) != ';') {
+                statementEnd++;
+            }
+            if (statementEnd > pos) {
+                ranges.add(new int[] { pos, statementEnd - pos });
+            }
+            pos = statementEnd + 1;
+        }
+        return ranges;
+    }
+
+    /**
+     * Compares statement starts of all positions with the full parse
+     */
+    private void checkIndex() {
+        int[] starts = new int[document.length() + 1];
+        Arrays.fill(starts, -1);
+        for (int[] range : parseRanges(0, document.length())) {
+            for (int i = range[0]; i <= range[0] + range[1]; i++) {
+                starts[i] = range[0];
+            }
+        }
+        for (int i = 0; i <= document.length(); i++) {
+            assertEquals("Statement start at " + i, starts[i], index.findStatementStart(i));
+        }
+    }
+
+}
@@ -23,6 +23,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.search.ui.ISearchQuery;
 import org.eclipse.search.ui.ISearchResult;
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.*;
@@ -33,12 +34,14 @@ import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
 import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
 import org.jkiss.dbeaver.model.navigator.DBNModel;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DefaultProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.model.struct.DBSInstance;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.ui.search.AbstractSearchResult;
 import org.jkiss.dbeaver.utils.GeneralUtils;
@@ -47,6 +50,9 @@ import org.jkiss.utils.CommonUtils;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SearchDataQuery implements ISearchQuery {
 
@@ -54,6 +60,8 @@ public class SearchDataQuery implements ISearchQuery {
 
     private final SearchDataParams params;
     private SearchDataResult searchResult;
+    // Searches in default contexts are serialized: such contexts can't be used by several workers at once
+    private final Object defaultContextLock = new Object();
 
     private SearchDataQuery(SearchDataParams params)
     {
@@ -106,14 +114,18 @@ public class SearchDataQuery implements ISearchQuery {
                 "Search \"" + searchString + "\" in " + params.sources.size() + " table(s) / " + dataSources.size() + " database(s)",
                 params.sources.size());
             try {
-                for (DBSDataContainer dataContainer : params.sources) {
-                    if (monitor.isCanceled()) {
-                        break;
-                    }
-                    if (searchDataInContainer(monitor, dbnModel, dataContainer)) {
-                        totalObjects++;
+                if (params.maxConnections > 1 && params.sources.size() > 1) {
+                    totalObjects = searchDataInParallel(monitor, dbnModel);
+                } else {
+                    for (DBSDataContainer dataContainer : params.sources) {
+                        if (monitor.isCanceled()) {
+                            break;
+                        }
+                        if (searchDataInContainer(monitor, dbnModel, dataContainer, null)) {
+                            totalObjects++;
+                        }
+                        monitor.worked(1);
                     }
-                    monitor.worked(1);
                 }
             } finally {
                 monitor.done();
@@ -127,7 +139,49 @@ public class SearchDataQuery implements ISearchQuery {
         }
     }
 
-    private boolean searchDataInContainer(DBRProgressMonitor monitor, DBNModel dbnModel, DBSDataContainer dataContainer) {
+    /**
+     * Searches in tables of each data source using several isolated connections.
+     * Results are added to search result as soon as table search finishes.
+     */
+    private int searchDataInParallel(DBRProgressMonitor monitor, DBNModel dbnModel) {
+        Map<DBPDataSource, Queue<DBSDataContainer>> dataSourceTables = new LinkedHashMap<>();
+        for (DBSDataContainer dataContainer : params.sources) {
+            dataSourceTables.computeIfAbsent(dataContainer.getDataSource(), ds -> new ConcurrentLinkedQueue<>()).add(dataContainer);
+        }
+        AtomicInteger tablesSearched = new AtomicInteger();
+        AtomicInteger objectsFound = new AtomicInteger();
+        Set<DBSInstance> failedInstances = ConcurrentHashMap.newKeySet();
+        List<SearchWorkerJob> workers = new ArrayList<>();
+        for (Queue<DBSDataContainer> tables : dataSourceTables.values()) {
+            int workerCount = Math.min(params.maxConnections, tables.size());
+            for (int i = 0; i < workerCount; i++) {
+                SearchWorkerJob worker = new SearchWorkerJob(
+                    workers.size() + 1, monitor, dbnModel, tables, tablesSearched, objectsFound, failedInstances);
+                workers.add(worker);
+                worker.schedule();
+            }
+        }
+        // Wait for workers and report progress
+        int reported = 0;
+        for (SearchWorkerJob worker : workers) {
+            while (true) {
+                try {
+                    if (worker.join(100, null)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    break;
+                }
+                int searched = tablesSearched.get();
+                monitor.worked(searched - reported);
+                reported = searched;
+            }
+        }
+        monitor.worked(tablesSearched.get() - reported);
+        return objectsFound.get();
+    }
+
+    private boolean searchDataInContainer(DBRProgressMonitor monitor, DBNModel dbnModel, DBSDataContainer dataContainer, @Nullable DBCExecutionContext executionContext) {
         if (!params.searchForeignObjects && dataContainer instanceof DBPForeignObject && ((DBPForeignObject) dataContainer).isForeignObject()) {
             return false;
         }
@@ -138,10 +192,15 @@ public class SearchDataQuery implements ISearchQuery {
             log.warn("Can't find tree node for object \"" + objectName + "\"");
             return false;
         }
-        monitor.subTask("Search in '" + objectName + "'");
+        if (executionContext == null) {
+            monitor.subTask("Search in '" + objectName + "'");
+        }
         log.debug("Search in '" + objectName + "'");
         SearchTableMonitor searchMonitor = new SearchTableMonitor(monitor);
-        try (DBCSession session = DBUtils.openUtilSession(searchMonitor, dataContainer, "Search rows in " + objectName)) {
+        try (DBCSession session = executionContext == null ?
+            DBUtils.openUtilSession(searchMonitor, dataContainer, "Search rows in " + objectName) :
+            executionContext.openSession(searchMonitor, DBCExecutionPurpose.UTIL, "Search rows in " + objectName))
+        {
             TestDataReceiver dataReceiver = new TestDataReceiver(searchMonitor);
             try {
                 findRows(session, dataContainer, dataReceiver);
@@ -270,6 +329,7 @@ public class SearchDataQuery implements ISearchQuery {
             dataReceiver.filter = new DBDDataFilter(constraints);
             dataReceiver.filter.setAnyConstraint(true);
             DBCExecutionSource searchSource = new AbstractExecutionSource(dataContainer, session.getExecutionContext(), this);
+            // Receiver cancels fetch after max results
             return dataContainer.readData(searchSource, session, dataReceiver, dataReceiver.filter, -1, -1, 0, 0);
         } catch (DBException e) {
             throw new DBCException("Error finding rows", e);
@@ -282,6 +342,58 @@ public class SearchDataQuery implements ISearchQuery {
         return new SearchDataQuery(params);
     }
 
+    private class SearchWorkerJob extends AbstractJob {
+
+        private final DBRProgressMonitor searchMonitor;
+        private final DBNModel dbnModel;
+        private final Queue<DBSDataContainer> tables;
+        private final AtomicInteger tablesSearched;
+        private final AtomicInteger objectsFound;
+        private final Set<DBSInstance> failedInstances;
+
+        SearchWorkerJob(int workerNumber, DBRProgressMonitor searchMonitor, DBNModel dbnModel, Queue<DBSDataContainer> tables,
+                        AtomicInteger tablesSearched, AtomicInteger objectsFound, Set<DBSInstance> failedInstances) {
+            super("Data search worker #" + workerNumber);
+            setSystem(true);
+            setUser(false);
+            this.searchMonitor = searchMonitor;
+            this.dbnModel = dbnModel;
+            this.tables = tables;
+            this.tablesSearched = tablesSearched;
+            this.objectsFound = objectsFound;
+            this.failedInstances = failedInstances;
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            try (SearchWorkerContexts contexts = new SearchWorkerContexts(failedInstances)) {
+                for (DBSDataContainer dataContainer = tables.poll(); dataContainer != null; dataContainer = tables.poll()) {
+                    if (searchMonitor.isCanceled() || monitor.isCanceled()) {
+                        break;
+                    }
+                    try {
+                        if (searchInContext(contexts.getContext(monitor, DBUtils.getObjectOwnerInstance(dataContainer)), dataContainer)) {
+                            objectsFound.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        log.debug("Data search failed in '" + dataContainer.getName() + "'", e);
+                    }
+                    tablesSearched.incrementAndGet();
+                }
+            }
+            return Status.OK_STATUS;
+        }
+
+        private boolean searchInContext(@Nullable DBCExecutionContext context, DBSDataContainer dataContainer) {
+            if (context != null) {
+                return searchDataInContainer(searchMonitor, dbnModel, dataContainer, context);
+            }
+            synchronized (defaultContextLock) {
+                return searchDataInContainer(searchMonitor, dbnModel, dataContainer, null);
+            }
+        }
+    }
+
     private class SearchTableMonitor extends VoidProgressMonitor {
 
         private DBRProgressMonitor baseMonitor;
@@ -0,0 +1,83 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2019 Serge Rider (serge@jkiss.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.search.data;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSInstance;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Isolated execution contexts of a search worker, one per database instance.
+ * Each context is opened once. If it can't be opened, worker searches in the default context.
+ * Open error is reported once per instance for all workers.
+ */
+class SearchWorkerContexts implements AutoCloseable {
+
+    private static final Log log = Log.getLog(SearchWorkerContexts.class);
+
+    private final Set<DBSInstance> failedInstances;
+    // Null value - default context is used
+    private final Map<DBSInstance, DBCExecutionContext> contexts = new HashMap<>();
+
+    /**
+     * @param failedInstances instances which isolated context can't be opened. Shared by all workers, must be thread-safe
+     */
+    SearchWorkerContexts(@NotNull Set<DBSInstance> failedInstances) {
+        this.failedInstances = failedInstances;
+    }
+
+    /**
+     * Returns isolated context or null if default context must be used
+     */
+    @Nullable
+    DBCExecutionContext getContext(@NotNull DBRProgressMonitor monitor, @NotNull DBSInstance instance) {
+        if (contexts.containsKey(instance)) {
+            return contexts.get(instance);
+        }
+        DBCExecutionContext context = null;
+        if (!failedInstances.contains(instance)) {
+            try {
+                context = instance.openIsolatedContext(monitor, "Data search");
+            } catch (DBException e) {
+                if (failedInstances.add(instance)) {
+                    log.error("Can't open isolated connection for data search in '" + instance.getName() + "'. Default connection is used", e);
+                }
+            }
+        }
+        contexts.put(instance, context);
+        return context;
+    }
+
+    @Override
+    public void close() {
+        for (DBCExecutionContext context : contexts.values()) {
+            if (context != null) {
+                context.close();
+            }
+        }
+        contexts.clear();
+    }
+
+}
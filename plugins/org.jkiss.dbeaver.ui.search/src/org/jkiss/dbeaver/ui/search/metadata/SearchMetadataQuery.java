@@ -26,6 +26,7 @@ import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.impl.struct.ObjectNameIndex;
 import org.jkiss.dbeaver.model.navigator.DBNModel;
 import org.jkiss.dbeaver.model.navigator.DBNNode;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
@@ -46,14 +47,17 @@ public class SearchMetadataQuery implements ISearchQuery {
 
     private static final Log log = Log.getLog(SearchMetadataQuery.class);
 
+    private final DBPDataSource dataSource;
     private final DBSStructureAssistant structureAssistant;
     private final SearchMetadataParams params;
     private SearchMetadataResult searchResult;
 
     private SearchMetadataQuery(
+        DBPDataSource dataSource,
         DBSStructureAssistant structureAssistant,
         SearchMetadataParams params)
     {
+        this.dataSource = dataSource;
         this.structureAssistant = structureAssistant;
         this.params = params;
     }
@@ -104,8 +108,10 @@ public class SearchMetadataQuery implements ISearchQuery {
             int totalObjects = 0;
             DBNModel navigatorModel = DBWorkbench.getPlatform().getNavigatorModel();
             DBRProgressMonitor localMonitor = RuntimeUtils.makeMonitor(monitor);
-            Collection<DBSObjectReference> objects = structureAssistant.findObjectsByMask(
+            Collection<DBSObjectReference> objects = ObjectNameIndex.findObjectsByMask(
                 localMonitor,
+                structureAssistant,
+                dataSource,
                 params.getParentObject(),
                 objectTypes.toArray(new DBSObjectType[objectTypes.size()]),
                 objectNameMask,
@@ -146,7 +152,7 @@ public class SearchMetadataQuery implements ISearchQuery {
         if (dataSource == null || assistant == null) {
             throw new DBException("Can't obtain database structure assistance from [" + dataSource + "]");
         }
-        return new SearchMetadataQuery(assistant, params);
+        return new SearchMetadataQuery(dataSource, assistant, params);
     }
 
 
@@ -0,0 +1,85 @@
+package org.jkiss.dbeaver.ui.search.data;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSInstance;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SearchWorkerContextsTest {
+
+    @Mock
+    private DBRProgressMonitor monitor;
+    @Mock
+    private DBSInstance instance1;
+    @Mock
+    private DBSInstance instance2;
+    @Mock
+    private DBCExecutionContext context1;
+    @Mock
+    private DBCExecutionContext context2;
+
+    private final Set<DBSInstance> failedInstances = ConcurrentHashMap.newKeySet();
+
+    @Test
+    public void testContextOpenedOncePerInstance() throws Exception {
+        when(instance1.openIsolatedContext(monitor, "Data search")).thenReturn(context1);
+        when(instance2.openIsolatedContext(monitor, "Data search")).thenReturn(context2);
+
+        try (SearchWorkerContexts contexts = new SearchWorkerContexts(failedInstances)) {
+            assertSame(context1, contexts.getContext(monitor, instance1));
+            assertSame(context2, contexts.getContext(monitor, instance2));
+            assertSame(context1, contexts.getContext(monitor, instance1));
+            assertSame(context2, contexts.getContext(monitor, instance2));
+        }
+
+        verify(instance1, times(1)).openIsolatedContext(monitor, "Data search");
+        verify(instance2, times(1)).openIsolatedContext(monitor, "Data search");
+        verify(context1).close();
+        verify(context2).close();
+        assertTrue(failedInstances.isEmpty());
+    }
+
+    @Test
+    public void testFallbackToDefaultContext() throws Exception {
+        when(instance1.openIsolatedContext(monitor, "Data search")).thenThrow(new DBException("Too many connections"));
+
+        try (SearchWorkerContexts contexts = new SearchWorkerContexts(failedInstances)) {
+            assertNull(contexts.getContext(monitor, instance1));
+            assertNull(contexts.getContext(monitor, instance1));
+        }
+        // Other workers don't try to open context again
+        try (SearchWorkerContexts contexts = new SearchWorkerContexts(failedInstances)) {
+            assertNull(contexts.getContext(monitor, instance1));
+        }
+
+        verify(instance1, times(1)).openIsolatedContext(monitor, "Data search");
+        assertEquals(1, failedInstances.size());
+        assertTrue(failedInstances.contains(instance1));
+    }
+
+    @Test
+    public void testFailureDoesNotAffectOtherInstances() throws Exception {
+        when(instance1.openIsolatedContext(monitor, "Data search")).thenThrow(new DBException("Too many connections"));
+        when(instance2.openIsolatedContext(monitor, "Data search")).thenReturn(context2);
+
+        try (SearchWorkerContexts contexts = new SearchWorkerContexts(failedInstances)) {
+            assertNull(contexts.getContext(monitor, instance1));
+            assertSame(context2, contexts.getContext(monitor, instance2));
+        }
+
+        verify(context2).close();
+        assertFalse(failedInstances.contains(instance2));
+    }
+
+}